@@ -74,4 +74,17 @@ public interface SearchResult {
      * set an error message to the result
      */
     void setError(String error);
+
+    /**
+     * Return the token to pass back to read the next page when the results were read by seeking rather than by offset.
+     * The total counts are not populated for these results.
+     *
+     * @return the continuation token, or null if this is the last page or the results were not read by seeking
+     */
+    String getContinuationToken();
+
+    /**
+     * set the continuation token for the next page
+     */
+    void setContinuationToken(String continuationToken);
 }
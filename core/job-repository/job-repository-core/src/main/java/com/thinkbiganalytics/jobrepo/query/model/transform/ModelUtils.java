@@ -23,6 +23,7 @@ package com.thinkbiganalytics.jobrepo.query.model.transform;
 import com.thinkbiganalytics.DateTimeUtil;
 import com.thinkbiganalytics.jobrepo.query.model.SearchResult;
 import com.thinkbiganalytics.jobrepo.query.model.SearchResultImpl;
+import com.thinkbiganalytics.metadata.api.SeekPage;
 
 import org.joda.time.DateTime;
 import org.springframework.data.domain.Page;
@@ -67,4 +68,14 @@ public class ModelUtils {
 
     }
 
+    /**
+     * Convert a page read by seeking to a SearchResult UI object.  The totals are left empty since no count is taken.
+     */
+    public static SearchResult toSearchResult(SeekPage page) {
+        SearchResult searchResult = new SearchResultImpl();
+        searchResult.setData(page.getContent());
+        searchResult.setContinuationToken(page.getContinuationToken());
+        return searchResult;
+    }
+
 }
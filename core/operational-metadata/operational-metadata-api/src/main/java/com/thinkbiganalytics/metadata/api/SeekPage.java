@@ -0,0 +1,63 @@
+package com.thinkbiganalytics.metadata.api;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A page of results read by seeking past the last row of the previous page rather than skipping over an offset.
+ * Unlike a {@link org.springframework.data.domain.Page} there is no total count.
+ *
+ * The continuation token is opaque to callers.  Pass it back to read the next page, it is {@code null} on the last page.
+ */
+public class SeekPage<T> {
+
+    private final List<T> content;
+
+    private final String continuationToken;
+
+    public SeekPage(List<T> content, String continuationToken) {
+        this.content = content != null ? content : Collections.emptyList();
+        this.continuationToken = continuationToken;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public boolean hasNext() {
+        return continuationToken != null;
+    }
+
+    /**
+     * Convert the content of this page, keeping the continuation token
+     */
+    public <R> SeekPage<R> map(Function<? super T, ? extends R> converter) {
+        return new SeekPage<>(content.stream().map(converter).collect(Collectors.toList()), continuationToken);
+    }
+}
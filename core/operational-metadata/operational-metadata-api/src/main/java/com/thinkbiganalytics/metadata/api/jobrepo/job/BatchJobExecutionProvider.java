@@ -20,6 +20,7 @@ package com.thinkbiganalytics.metadata.api.jobrepo.job;
  * #L%
  */
 
+import com.thinkbiganalytics.metadata.api.SeekPage;
 import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiEvent;
 import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
 
@@ -157,6 +158,18 @@ public interface BatchJobExecutionProvider extends BatchJobExecutionFilters {
      */
     Page<? extends BatchJobExecution> findAll(String filter, Pageable pageable);
 
+    /**
+     * find job executions matching a particular filter string, newest first, by seeking past the last job of the previous page.
+     * Unlike {@link #findAll(String, Pageable)} the cost of a page does not grow with its depth, and no total count is computed.
+     *
+     * @param filter            the filter string
+     * @param continuationToken the token of the previous page, or null for the first page
+     * @param limit             the maximum number of job executions to return
+     * @return a page of job executions with the token for the next page
+     * @throws IllegalArgumentException if the continuation token is not valid
+     */
+    SeekPage<? extends BatchJobExecution> findAll(String filter, String continuationToken, int limit);
+
     /**
      * find all job executions for a given feed matching a particular filter string, returning a paged result set
      *
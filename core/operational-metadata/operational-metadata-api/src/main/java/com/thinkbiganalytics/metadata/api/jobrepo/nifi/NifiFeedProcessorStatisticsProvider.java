@@ -38,6 +38,34 @@ public interface NifiFeedProcessorStatisticsProvider {
      */
     NifiFeedProcessorStats create(NifiFeedProcessorStats t);
 
+    /**
+     * Save a list of new stats records in bulk
+     *
+     * @param stats the stats records to save
+     */
+    void createAll(List<? extends NifiFeedProcessorStats> stats);
+
+    /**
+     * Add the stats to the minute, hour and day rollups
+     *
+     * @param stats the new stats records
+     */
+    void rollup(List<? extends NifiFeedProcessorStats> stats);
+
+    /**
+     * Find the coarsest resolution that can answer a query between the two dates
+     *
+     * @param start a start date
+     * @param end   an end date
+     * @return the resolution to query
+     */
+    Resolution getResolution(DateTime start, DateTime end);
+
+    /**
+     * Discard the cached start of each rollup.  Call this after rollup rows have been removed or rebuilt.
+     */
+    void invalidateRollupBucketTimes();
+
     /**
      * find statistics within a given start and end time
      *
@@ -55,6 +83,17 @@ public interface NifiFeedProcessorStatisticsProvider {
      */
     List<? extends NifiFeedProcessorStats> findFeedProcessorStatisticsByProcessorId(String feedName, DateTime start, DateTime end);
 
+    /**
+     * Find a list of stats for a given feed within a time window grouped by feed and processor, using the given resolution
+     *
+     * @param feedName   a feed name
+     * @param start      a start date
+     * @param end        an end date
+     * @param resolution the raw stats or the rollup to query
+     * @return a list of feed processor statistics
+     */
+    List<? extends NifiFeedProcessorStats> findFeedProcessorStatisticsByProcessorId(String feedName, DateTime start, DateTime end, Resolution resolution);
+
     /**
      * Find a list of stats for a given feed within a time window grouped by feed and processor
      *
@@ -65,6 +104,17 @@ public interface NifiFeedProcessorStatisticsProvider {
      */
     List<? extends NifiFeedProcessorStats> findFeedProcessorStatisticsByProcessorName(String feedName, DateTime start, DateTime end);
 
+    /**
+     * Find a list of stats for a given feed within a time window grouped by feed and processor name, using the given resolution
+     *
+     * @param feedName   a feed name
+     * @param start      a start date
+     * @param end        an end date
+     * @param resolution the raw stats or the rollup to query
+     * @return a list of feed processor statistics
+     */
+    List<? extends NifiFeedProcessorStats> findFeedProcessorStatisticsByProcessorName(String feedName, DateTime start, DateTime end, Resolution resolution);
+
     /**
      * Find stats for a given feed within a given timeframe grouped by processor id related to the feed
      *
@@ -90,6 +140,14 @@ public interface NifiFeedProcessorStatisticsProvider {
      */
     List<? extends NifiFeedProcessorStats> findForFeedStatisticsGroupedByTime(String feedName, DateTime start, DateTime end);
 
+    /**
+     * Find stats for a given feed and time frame grouped by time, using the given resolution.
+     * The raw stats are grouped by their eventTime.  The rollups are grouped by their bucket time.
+     *
+     * @return a list of feed processor statistics
+     */
+    List<? extends NifiFeedProcessorStats> findForFeedStatisticsGroupedByTime(String feedName, DateTime start, DateTime end, Resolution resolution);
+
     /**
      * Find stats for a given feed and time frame grouped by the stats eventTime
      *
@@ -111,6 +169,39 @@ public interface NifiFeedProcessorStatisticsProvider {
      */
     Long findMaxEventId(String clusterNodeId);
 
+    /**
+     * The granularity of the statistics to query.
+     * RAW queries the individual stats records.  The others query the rollups that are maintained as the stats are received.
+     */
+    public static enum Resolution {
+
+        RAW(0L), MINUTE(1000L * 60), HOUR(MINUTE.millis * 60), DAY(HOUR.millis * 24);
+
+        private long millis;
+
+        private Resolution(long millis) {
+            this.millis = millis;
+        }
+
+        /**
+         * @return the size of each bucket in millis
+         */
+        public long getMillis() {
+            return millis;
+        }
+
+        /**
+         * @return the start of the bucket containing the given time
+         */
+        public DateTime bucketStart(DateTime time) {
+            if (millis == 0) {
+                return time;
+            }
+            long timeMillis = time.getMillis();
+            return new DateTime(timeMillis - Math.floorMod(timeMillis, millis));
+        }
+    }
+
     /**
      * allow for specifying a time to look back from when querying for statistical information
      */
@@ -25,7 +25,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 /**
  * Spring data repository to access the {@link JpaBatchFeedSummaryCounts}
  */
-public interface BatchFeedSummaryCountsRepository extends JpaRepository<JpaBatchFeedSummaryCounts, JpaOpsManagerFeed.ID> {
+public interface BatchFeedSummaryCountsRepository extends JpaRepository<JpaBatchFeedSummaryCounts, JpaBatchFeedSummaryCounts.BatchFeedSummaryCountsFeedId> {
 
 
 }
@@ -0,0 +1,370 @@
+package com.thinkbiganalytics.metadata.jpa.feed;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeed;
+import com.thinkbiganalytics.metadata.api.jobrepo.ExecutionConstants;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobInstance;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.job.JpaBatchJobExecution;
+
+import org.apache.commons.lang3.StringUtils;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+
+/**
+ * Maintains the FEED_SUMMARY_COUNTS, FEED_HEALTH and LATEST_FINISHED_FEED_JOB tables behind {@link JpaBatchFeedSummaryCounts}, {@link JpaOpsManagerFeedHealth} and {@link
+ * JpaLatestFeedJobExecution}.
+ *
+ * The {@link com.thinkbiganalytics.metadata.jpa.jobrepo.job.JpaBatchJobExecutionProvider} applies each change to a job's status in the same transaction as the change itself,
+ * so a status change costs a few single row updates instead of re-aggregating BATCH_JOB_EXECUTION whenever the feed health is read.
+ * Jobs of a check data feed are counted against the feeds they check.
+ *
+ * Changes that bypass the provider, such as the stored procedures that abandon or delete the jobs of a feed, are followed by {@link #rebuildFeed(String)}.
+ * {@link #rebuild()} recomputes every table from BATCH_JOB_EXECUTION and is run periodically to correct any drift.
+ */
+@Service
+public class FeedSummaryUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedSummaryUpdater.class);
+
+    private static final int EXIT_MESSAGE_LENGTH = 2500;
+
+    /**
+     * Maps the feed that ran a job (KYLO_FEED_ID) to the feed whose counts include it (FEED_ID, FEED_NAME)
+     */
+    private static final String CHECK_DATA_TO_FEED = "(SELECT check_feeds.FEED_ID FEED_ID, f2.NAME FEED_NAME, check_feeds.CHECK_DATA_FEED_ID KYLO_FEED_ID "
+                                                     + "FROM FEED_CHECK_DATA_FEEDS check_feeds "
+                                                     + "INNER JOIN FEED f ON f.ID = check_feeds.CHECK_DATA_FEED_ID "
+                                                     + "INNER JOIN FEED f2 ON f2.ID = check_feeds.FEED_ID "
+                                                     + "WHERE f.FEED_TYPE = 'CHECK' "
+                                                     + "UNION ALL SELECT ID, NAME, ID FROM FEED WHERE FEED_TYPE = 'FEED') f ";
+
+    private static final String INSERT_COUNTS = "INSERT INTO FEED_SUMMARY_COUNTS (FEED_ID, FEED_NAME, ALL_COUNT, FAILED_COUNT, COMPLETED_COUNT, ABANDONED_COUNT, RUNNING_COUNT) "
+                                                + "SELECT f.FEED_ID, f.FEED_NAME, COUNT(e.JOB_EXECUTION_ID), "
+                                                + "COUNT(CASE WHEN e.STATUS <> 'ABANDONED' AND (e.STATUS = 'FAILED' OR e.EXIT_CODE = 'FAILED') THEN 1 ELSE NULL END), "
+                                                + "COUNT(CASE WHEN e.STATUS <> 'ABANDONED' AND e.EXIT_CODE = 'COMPLETED' THEN 1 ELSE NULL END), "
+                                                + "COUNT(CASE WHEN e.STATUS = 'ABANDONED' THEN 1 ELSE NULL END), "
+                                                + "COUNT(CASE WHEN e.STATUS IN ('STARTING', 'STARTED') THEN 1 ELSE NULL END) "
+                                                + "FROM " + CHECK_DATA_TO_FEED
+                                                + "LEFT JOIN BATCH_JOB_INSTANCE i ON i.FEED_ID = f.KYLO_FEED_ID "
+                                                + "LEFT JOIN BATCH_JOB_EXECUTION e ON e.JOB_INSTANCE_ID = i.JOB_INSTANCE_ID ";
+
+    private static final String GROUP_COUNTS = "GROUP BY f.FEED_ID, f.FEED_NAME";
+
+    private static final String INSERT_HEALTH = "INSERT INTO FEED_HEALTH (FEED_ID, FEED_NAME, JOB_EXECUTION_ID, JOB_INSTANCE_ID, START_TIME, END_TIME, STATUS, EXIT_CODE, EXIT_MESSAGE, "
+                                                + "ALL_COUNT, FAILED_COUNT, COMPLETED_COUNT, ABANDONED_COUNT, RUNNING_COUNT) "
+                                                + "SELECT s.FEED_ID, s.FEED_NAME, e.JOB_EXECUTION_ID, e.JOB_INSTANCE_ID, e.START_TIME, e.END_TIME, e.STATUS, e.EXIT_CODE, e.EXIT_MESSAGE, "
+                                                + "s.ALL_COUNT, s.FAILED_COUNT, s.COMPLETED_COUNT, s.ABANDONED_COUNT, s.RUNNING_COUNT "
+                                                + "FROM FEED_SUMMARY_COUNTS s "
+                                                + "INNER JOIN (SELECT i.FEED_ID, MAX(e.JOB_EXECUTION_ID) JOB_EXECUTION_ID FROM BATCH_JOB_EXECUTION e "
+                                                + "INNER JOIN BATCH_JOB_INSTANCE i ON i.JOB_INSTANCE_ID = e.JOB_INSTANCE_ID GROUP BY i.FEED_ID) latest ON latest.FEED_ID = s.FEED_ID "
+                                                + "INNER JOIN BATCH_JOB_EXECUTION e ON e.JOB_EXECUTION_ID = latest.JOB_EXECUTION_ID ";
+
+    /**
+     * The finished job with the latest END_TIME, using the highest JOB_EXECUTION_ID to break ties
+     */
+    private static final String INSERT_LATEST_FINISHED = "INSERT INTO LATEST_FINISHED_FEED_JOB (FEED_ID, FEED_NAME, FEED_TYPE, JOB_EXECUTION_ID, JOB_INSTANCE_ID, START_TIME, END_TIME, STATUS, "
+                                                         + "EXIT_CODE, EXIT_MESSAGE) "
+                                                         + "SELECT f.ID, f.NAME, f.FEED_TYPE, e.JOB_EXECUTION_ID, e.JOB_INSTANCE_ID, e.START_TIME, e.END_TIME, e.STATUS, e.EXIT_CODE, e.EXIT_MESSAGE "
+                                                         + "FROM FEED f "
+                                                         + "INNER JOIN (SELECT i.FEED_ID, MAX(e.JOB_EXECUTION_ID) JOB_EXECUTION_ID FROM BATCH_JOB_EXECUTION e "
+                                                         + "INNER JOIN BATCH_JOB_INSTANCE i ON i.JOB_INSTANCE_ID = e.JOB_INSTANCE_ID "
+                                                         + "INNER JOIN (SELECT i2.FEED_ID, MAX(e2.END_TIME) END_TIME FROM BATCH_JOB_EXECUTION e2 "
+                                                         + "INNER JOIN BATCH_JOB_INSTANCE i2 ON i2.JOB_INSTANCE_ID = e2.JOB_INSTANCE_ID GROUP BY i2.FEED_ID) maxEnd "
+                                                         + "ON maxEnd.FEED_ID = i.FEED_ID AND maxEnd.END_TIME = e.END_TIME "
+                                                         + "GROUP BY i.FEED_ID) latest ON latest.FEED_ID = f.ID "
+                                                         + "INNER JOIN BATCH_JOB_EXECUTION e ON e.JOB_EXECUTION_ID = latest.JOB_EXECUTION_ID ";
+
+    private static final String[] SUMMARY_TABLES = {"FEED_HEALTH", "FEED_SUMMARY_COUNTS", "LATEST_FINISHED_FEED_JOB"};
+
+    private static final String SELECT_FEEDS_CHECKED_BY = "SELECT f2.NAME FROM FEED_CHECK_DATA_FEEDS check_feeds "
+                                                          + "INNER JOIN FEED f ON f.ID = check_feeds.CHECK_DATA_FEED_ID "
+                                                          + "INNER JOIN FEED f2 ON f2.ID = check_feeds.FEED_ID "
+                                                          + "WHERE f.NAME = ?";
+
+    private static final String LOCK_FEED = "SELECT NAME FROM FEED WHERE NAME = ? FOR UPDATE";
+
+    private static final String LOCK_ALL_FEEDS = "SELECT NAME FROM FEED ORDER BY NAME FOR UPDATE";
+
+    private static final String COUNT_COLUMNS = "ALL_COUNT = ALL_COUNT + ?, FAILED_COUNT = FAILED_COUNT + ?, COMPLETED_COUNT = COMPLETED_COUNT + ?, "
+                                                + "ABANDONED_COUNT = ABANDONED_COUNT + ?, RUNNING_COUNT = RUNNING_COUNT + ? WHERE FEED_NAME = ?";
+
+    private static final String UPDATE_COUNTS = "UPDATE FEED_SUMMARY_COUNTS SET " + COUNT_COLUMNS;
+
+    private static final String UPDATE_HEALTH_COUNTS = "UPDATE FEED_HEALTH SET " + COUNT_COLUMNS;
+
+    private static final String ADD_COUNTS = "INSERT INTO FEED_SUMMARY_COUNTS (FEED_ID, FEED_NAME, ALL_COUNT, FAILED_COUNT, COMPLETED_COUNT, ABANDONED_COUNT, RUNNING_COUNT) "
+                                             + "SELECT ID, NAME, ?, ?, ?, ?, ? FROM FEED WHERE NAME = ?";
+
+    private static final String JOB_COLUMNS = "JOB_EXECUTION_ID = ?, JOB_INSTANCE_ID = ?, START_TIME = ?, END_TIME = ?, STATUS = ?, EXIT_CODE = ?, EXIT_MESSAGE = ?";
+
+    private static final String UPDATE_HEALTH_JOB = "UPDATE FEED_HEALTH SET " + JOB_COLUMNS + " WHERE FEED_NAME = ? AND JOB_EXECUTION_ID <= ?";
+
+    private static final String ADD_HEALTH = "INSERT INTO FEED_HEALTH (FEED_ID, FEED_NAME, JOB_EXECUTION_ID, JOB_INSTANCE_ID, START_TIME, END_TIME, STATUS, EXIT_CODE, EXIT_MESSAGE, "
+                                             + "ALL_COUNT, FAILED_COUNT, COMPLETED_COUNT, ABANDONED_COUNT, RUNNING_COUNT) "
+                                             + "SELECT FEED_ID, FEED_NAME, ?, ?, ?, ?, ?, ?, ?, ALL_COUNT, FAILED_COUNT, COMPLETED_COUNT, ABANDONED_COUNT, RUNNING_COUNT "
+                                             + "FROM FEED_SUMMARY_COUNTS WHERE FEED_NAME = ?";
+
+    private static final String UPDATE_LATEST_FINISHED = "UPDATE LATEST_FINISHED_FEED_JOB SET " + JOB_COLUMNS + ", FEED_TYPE = ? "
+                                                         + "WHERE FEED_NAME = ? AND (JOB_EXECUTION_ID = ? OR END_TIME < ? OR (END_TIME = ? AND JOB_EXECUTION_ID < ?))";
+
+    private static final String ADD_LATEST_FINISHED = "INSERT INTO LATEST_FINISHED_FEED_JOB (FEED_ID, FEED_NAME, JOB_EXECUTION_ID, JOB_INSTANCE_ID, START_TIME, END_TIME, STATUS, "
+                                                      + "EXIT_CODE, EXIT_MESSAGE, FEED_TYPE) "
+                                                      + "SELECT ID, NAME, ?, ?, ?, ?, ?, ?, ?, ? FROM FEED WHERE NAME = ?";
+
+    @Autowired
+    @Qualifier("dataSource")
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("operationalMetadataTransactionManager")
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("operationalMetadataEntityManagerFactory")
+    private EntityManager entityManager;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    private void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Apply the current status of a job execution to the summary tables.
+     * Must be called within the transaction that saved the job execution.
+     *
+     * @param jobExecution a job execution that was created or whose status may have changed
+     */
+    public void jobExecutionChanged(JpaBatchJobExecution jobExecution) {
+        BatchJobInstance jobInstance = jobExecution.getJobInstance();
+        OpsManagerFeed feed = jobInstance != null ? jobInstance.getFeed() : null;
+        if (feed == null || jobExecution.getJobExecutionId() == null) {
+            return;
+        }
+        long[] delta = contribution(jobExecution.getStatus(), jobExecution.getExitCode());
+        long[] previous = contribution(jobExecution.getSummarizedStatus(), jobExecution.getSummarizedExitCode());
+        boolean countsChanged = false;
+        for (int i = 0; i < delta.length; i++) {
+            delta[i] -= previous[i];
+            countsChanged |= delta[i] != 0;
+        }
+
+        boolean isCheckFeed = OpsManagerFeed.FeedType.CHECK.equals(feed.getFeedType());
+        if (countsChanged) {
+            for (String feedName : countedAgainst(feed, isCheckFeed)) {
+                updateCounts(feedName, delta);
+            }
+        }
+        if (!isCheckFeed) {
+            updateHealth(feed.getName(), jobExecution);
+        }
+        if (jobExecution.getEndTime() != null) {
+            updateLatestFinished(feed, jobExecution);
+        }
+        jobExecution.markSummarized();
+    }
+
+    /**
+     * Recompute the summary rows of a feed, and of the feeds it checks, from BATCH_JOB_EXECUTION.
+     * Joins the current transaction if there is one.
+     *
+     * @param feedName the feed system name, {@code category.feed}
+     */
+    public void rebuildFeed(String feedName) {
+        transactionTemplate.execute(status -> {
+            entityManager.flush();
+            Set<String> feedNames = new TreeSet<>(jdbcTemplate.queryForList(SELECT_FEEDS_CHECKED_BY, String.class, feedName));
+            feedNames.add(feedName);
+            for (String name : feedNames) {
+                jdbcTemplate.queryForList(LOCK_FEED, String.class, name);
+            }
+            for (String name : feedNames) {
+                for (String table : SUMMARY_TABLES) {
+                    jdbcTemplate.update("DELETE FROM " + table + " WHERE FEED_NAME = ?", name);
+                }
+                jdbcTemplate.update(INSERT_COUNTS + "WHERE f.FEED_NAME = ? " + GROUP_COUNTS, name);
+                jdbcTemplate.update(INSERT_HEALTH + "WHERE s.FEED_NAME = ?", name);
+                jdbcTemplate.update(INSERT_LATEST_FINISHED + "WHERE f.NAME = ?", name);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Remove the summary rows of a feed that is being deleted
+     *
+     * @param feedName the feed system name, {@code category.feed}
+     */
+    public void deleteFeed(String feedName) {
+        for (String table : SUMMARY_TABLES) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE FEED_NAME = ?", feedName);
+        }
+    }
+
+    /**
+     * Recompute every summary row from BATCH_JOB_EXECUTION in a single transaction.
+     * Readers continue to see the previous rows until the transaction commits.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Integer feeds = transactionTemplate.execute(status -> {
+            entityManager.flush();
+            jdbcTemplate.queryForList(LOCK_ALL_FEEDS, String.class);
+            for (String table : SUMMARY_TABLES) {
+                jdbcTemplate.update("DELETE FROM " + table);
+            }
+            int rows = jdbcTemplate.update(INSERT_COUNTS + GROUP_COUNTS);
+            jdbcTemplate.update(INSERT_HEALTH);
+            jdbcTemplate.update(INSERT_LATEST_FINISHED);
+            return rows;
+        });
+        log.info("Rebuilt the feed summary tables for {} feeds in {} ms", feeds, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * The names of the feeds whose counts include the jobs of the supplied feed
+     */
+    private Set<String> countedAgainst(OpsManagerFeed feed, boolean isCheckFeed) {
+        Set<String> feedNames = new TreeSet<>();
+        if (isCheckFeed) {
+            if (feed instanceof JpaOpsManagerFeed) {
+                for (OpsManagerFeed feedToCheck : ((JpaOpsManagerFeed) feed).getFeedsToCheck()) {
+                    feedNames.add(feedToCheck.getName());
+                }
+            }
+        } else {
+            feedNames.add(feed.getName());
+        }
+        return feedNames;
+    }
+
+    /**
+     * The amount a job contributes to the ALL, FAILED, COMPLETED, ABANDONED and RUNNING counts of its feed.
+     * A job without a status has not been counted.
+     */
+    static long[] contribution(BatchJobExecution.JobStatus status, ExecutionConstants.ExitCode exitCode) {
+        long[] counts = new long[5];
+        if (status == null) {
+            return counts;
+        }
+        boolean abandoned = BatchJobExecution.JobStatus.ABANDONED.equals(status);
+        counts[0] = 1;
+        counts[1] = !abandoned && (BatchJobExecution.JobStatus.FAILED.equals(status) || ExecutionConstants.ExitCode.FAILED.equals(exitCode)) ? 1 : 0;
+        counts[2] = !abandoned && ExecutionConstants.ExitCode.COMPLETED.equals(exitCode) ? 1 : 0;
+        counts[3] = abandoned ? 1 : 0;
+        counts[4] = BatchJobExecution.JobStatus.STARTING.equals(status) || BatchJobExecution.JobStatus.STARTED.equals(status) ? 1 : 0;
+        return counts;
+    }
+
+    private void updateCounts(String feedName, long[] delta) {
+        Object[] args = {delta[0], delta[1], delta[2], delta[3], delta[4], feedName};
+        if (jdbcTemplate.update(UPDATE_COUNTS, args) == 0) {
+            lockFeed(feedName);
+            if (jdbcTemplate.update(UPDATE_COUNTS, args) == 0) {
+                jdbcTemplate.update(ADD_COUNTS, args);
+            }
+        }
+        jdbcTemplate.update(UPDATE_HEALTH_COUNTS, args);
+    }
+
+    /**
+     * Replace the job in the FEED_HEALTH row of a feed unless it already holds a later job
+     */
+    private void updateHealth(String feedName, JpaBatchJobExecution jobExecution) {
+        Object[] job = jobColumns(jobExecution);
+        Object[] args = append(job, feedName, jobExecution.getJobExecutionId());
+        if (jdbcTemplate.update(UPDATE_HEALTH_JOB, args) == 0) {
+            lockFeed(feedName);
+            if (jdbcTemplate.queryForList("SELECT FEED_NAME FROM FEED_HEALTH WHERE FEED_NAME = ? FOR UPDATE", String.class, feedName).isEmpty()) {
+                // the first job of the feed, its counts row was just created
+                jdbcTemplate.update(ADD_HEALTH, append(job, feedName));
+            } else {
+                jdbcTemplate.update(UPDATE_HEALTH_JOB, args);
+            }
+        }
+    }
+
+    /**
+     * Replace the LATEST_FINISHED_FEED_JOB row of a feed if the job finished after the one it holds
+     */
+    private void updateLatestFinished(OpsManagerFeed feed, JpaBatchJobExecution jobExecution) {
+        Object[] job = append(jobColumns(jobExecution), feed.getFeedType() != null ? feed.getFeedType().name() : null);
+        long endTime = jobExecution.getEndTime().getMillis();
+        Object[] args = append(job, feed.getName(), jobExecution.getJobExecutionId(), endTime, endTime, jobExecution.getJobExecutionId());
+        if (jdbcTemplate.update(UPDATE_LATEST_FINISHED, args) == 0) {
+            lockFeed(feed.getName());
+            if (jdbcTemplate.queryForList("SELECT FEED_NAME FROM LATEST_FINISHED_FEED_JOB WHERE FEED_NAME = ? FOR UPDATE", String.class, feed.getName()).isEmpty()) {
+                jdbcTemplate.update(ADD_LATEST_FINISHED, append(job, feed.getName()));
+            } else {
+                jdbcTemplate.update(UPDATE_LATEST_FINISHED, args);
+            }
+        }
+    }
+
+    /**
+     * Lock the FEED row so that only one transaction adds the summary rows of a feed.
+     * Pending changes are flushed first since the new rows are selected from FEED.
+     */
+    private void lockFeed(String feedName) {
+        entityManager.flush();
+        jdbcTemplate.queryForList(LOCK_FEED, String.class, feedName);
+    }
+
+    private Object[] jobColumns(JpaBatchJobExecution jobExecution) {
+        return new Object[]{jobExecution.getJobExecutionId(),
+                            jobExecution.getJobInstance().getJobInstanceId(),
+                            millis(jobExecution.getStartTime()),
+                            millis(jobExecution.getEndTime()),
+                            jobExecution.getStatus() != null ? jobExecution.getStatus().name() : null,
+                            jobExecution.getExitCode() != null ? jobExecution.getExitCode().name() : null,
+                            StringUtils.substring(jobExecution.getExitMessage(), 0, EXIT_MESSAGE_LENGTH)};
+    }
+
+    private static Long millis(DateTime dateTime) {
+        return dateTime != null ? dateTime.getMillis() : null;
+    }
+
+    private static Object[] append(Object[] args, Object... more) {
+        Object[] all = new Object[args.length + more.length];
+        System.arraycopy(args, 0, all, 0, args.length);
+        System.arraycopy(more, 0, all, args.length, more.length);
+        return all;
+    }
+}
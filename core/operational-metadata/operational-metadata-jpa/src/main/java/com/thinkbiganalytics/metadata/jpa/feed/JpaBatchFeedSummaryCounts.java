@@ -38,20 +38,21 @@ import javax.persistence.OneToOne;
 import javax.persistence.Table;
 
 /**
- * View entity summarizing a feed and its {@link com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution} execution counts
+ * Entity summarizing a feed and its {@link com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution} execution counts.
+ * The counts are maintained by the {@link FeedSummaryUpdater} as jobs change status.
  */
 @Entity
-@Table(name = "BATCH_FEED_SUMMARY_COUNTS_VW")
+@Table(name = "FEED_SUMMARY_COUNTS")
 public class JpaBatchFeedSummaryCounts implements BatchFeedSummaryCounts {
 
     @OneToOne(targetEntity = JpaOpsManagerFeed.class, fetch = FetchType.LAZY)
-    @JoinColumn(name = "FEED_ID")
+    @JoinColumn(name = "FEED_ID", insertable = false, updatable = false)
     OpsManagerFeed feed;
 
     @EmbeddedId
     BatchFeedSummaryCountsFeedId feedId;
 
-    @Column(name = "FEED_NAME", insertable = false, updatable = false)
+    @Column(name = "FEED_NAME")
     String feedName;
 
     @Column(name = "ALL_COUNT")
@@ -66,6 +67,9 @@ public class JpaBatchFeedSummaryCounts implements BatchFeedSummaryCounts {
     @Column(name = "ABANDONED_COUNT")
     Long abandonedCount;
 
+    @Column(name = "RUNNING_COUNT")
+    Long runningCount;
+
     public JpaBatchFeedSummaryCounts() {
 
     }
@@ -134,12 +138,20 @@ public class JpaBatchFeedSummaryCounts implements BatchFeedSummaryCounts {
         this.abandonedCount = abandonedCount;
     }
 
+    public Long getRunningCount() {
+        return runningCount;
+    }
+
+    public void setRunningCount(Long runningCount) {
+        this.runningCount = runningCount;
+    }
+
     @Embeddable
     public static class BatchFeedSummaryCountsFeedId extends BaseJpaId implements Serializable, OpsManagerFeed.ID {
 
         private static final long serialVersionUID = 6017751710414995750L;
 
-        @Column(name = "feed_id")
+        @Column(name = "FEED_ID")
         private UUID uuid;
 
 
@@ -20,6 +20,7 @@ package com.thinkbiganalytics.metadata.jpa.feed;
  * #L%
  */
 
+import com.thinkbiganalytics.jpa.BaseJpaId;
 import com.thinkbiganalytics.metadata.api.feed.LatestFeedJobExecution;
 import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeed;
 import com.thinkbiganalytics.metadata.api.jobrepo.ExecutionConstants;
@@ -30,38 +31,45 @@ import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.Type;
 import org.joda.time.DateTime;
 
+import java.io.Serializable;
+import java.util.UUID;
+
 import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EmbeddedId;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
-import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
 /**
+ * Entity holding the most recently finished {@link BatchJobExecution} of a feed.
+ * The row is maintained by the {@link FeedSummaryUpdater} as jobs finish.
  */
 @Entity
-@Table(name = "LATEST_FINISHED_FEED_JOB_VW")
+@Table(name = "LATEST_FINISHED_FEED_JOB")
 public class JpaLatestFeedJobExecution implements LatestFeedJobExecution {
 
     @ManyToOne(targetEntity = JpaOpsManagerFeed.class, fetch = FetchType.LAZY)
     @JoinColumn(name = "FEED_ID", insertable = false, updatable = false)
     OpsManagerFeed feed;
 
+    @EmbeddedId
+    private LatestFeedJobExecutionFeedId feedId;
 
-    @Column(name = "FEED_NAME", insertable = false, updatable = false)
+    @Column(name = "FEED_NAME")
     String feedName;
 
-    @Column(name = "FEED_TYPE", insertable = false, updatable = false)
+    @Column(name = "FEED_TYPE")
     String feedType;
 
-    @Id
-    @Column(name = "JOB_EXECUTION_ID", insertable = false, updatable = false)
+    @Column(name = "JOB_EXECUTION_ID")
     private Long jobExecutionId;
 
-    @Column(name = "JOB_INSTANCE_ID", insertable = false, updatable = false)
+    @Column(name = "JOB_INSTANCE_ID")
     private Long jobInstanceId;
 
 
@@ -106,6 +114,14 @@ public class JpaLatestFeedJobExecution implements LatestFeedJobExecution {
         this.feed = feed;
     }
 
+    public LatestFeedJobExecutionFeedId getFeedId() {
+        return feedId;
+    }
+
+    public void setFeedId(OpsManagerFeed.ID feedId) {
+        this.feedId = (LatestFeedJobExecutionFeedId) feedId;
+    }
+
     @Override
     public String getFeedName() {
         return feedName;
@@ -193,4 +209,30 @@ public class JpaLatestFeedJobExecution implements LatestFeedJobExecution {
     public void setFeedType(String feedType) {
         this.feedType = feedType;
     }
+
+    @Embeddable
+    public static class LatestFeedJobExecutionFeedId extends BaseJpaId implements Serializable, OpsManagerFeed.ID {
+
+        private static final long serialVersionUID = 2471983106409823301L;
+
+        @Column(name = "FEED_ID")
+        private UUID uuid;
+
+        public LatestFeedJobExecutionFeedId() {
+        }
+
+        public LatestFeedJobExecutionFeedId(Serializable ser) {
+            super(ser);
+        }
+
+        @Override
+        public UUID getUuid() {
+            return this.uuid;
+        }
+
+        @Override
+        public void setUuid(UUID uuid) {
+            this.uuid = uuid;
+        }
+    }
 }
@@ -20,9 +20,6 @@ package com.thinkbiganalytics.metadata.jpa.feed;
  * #L%
  */
 
-/**
- */
-
 import com.thinkbiganalytics.jpa.BaseJpaId;
 import com.thinkbiganalytics.metadata.api.feed.FeedHealth;
 import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeed;
@@ -44,21 +41,25 @@ import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.Table;
 
+/**
+ * Entity holding the latest {@link BatchJobExecution} of a feed along with its execution counts.
+ * The row is maintained by the {@link FeedSummaryUpdater} as jobs change status.
+ */
 @Entity
-@Table(name = "FEED_HEALTH_VW")
+@Table(name = "FEED_HEALTH")
 public class JpaOpsManagerFeedHealth implements FeedHealth {
 
 
-    @Column(name = "FEED_NAME", insertable = false, updatable = false)
+    @Column(name = "FEED_NAME")
     String feedName;
 
     @EmbeddedId
     private OpsManagerFeedHealthFeedId feedId;
     
-    @Column(name = "JOB_EXECUTION_ID", insertable = false, updatable = false)
+    @Column(name = "JOB_EXECUTION_ID")
     private Long jobExecutionId;
 
-    @Column(name = "JOB_INSTANCE_ID", insertable = false, updatable = false)
+    @Column(name = "JOB_INSTANCE_ID")
     private Long jobInstanceId;
 
 
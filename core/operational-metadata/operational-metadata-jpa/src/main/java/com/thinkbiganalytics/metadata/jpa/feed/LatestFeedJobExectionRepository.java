@@ -28,7 +28,7 @@ import java.util.List;
 /**
  * Spring data repository for {@link JpaLatestFeedJobExecution}
  */
-public interface LatestFeedJobExectionRepository extends JpaRepository<JpaLatestFeedJobExecution, Long> {
+public interface LatestFeedJobExectionRepository extends JpaRepository<JpaLatestFeedJobExecution, JpaLatestFeedJobExecution.LatestFeedJobExecutionFeedId> {
 
 
     List<JpaLatestFeedJobExecution> findByFeedType(String feedType);
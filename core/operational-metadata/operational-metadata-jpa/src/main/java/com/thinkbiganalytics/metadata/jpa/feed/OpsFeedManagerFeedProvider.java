@@ -32,6 +32,7 @@ import com.thinkbiganalytics.metadata.api.feed.*;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecutionProvider;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.JobStatusCount;
+import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStatisticsProvider;
 import com.thinkbiganalytics.metadata.jpa.jobrepo.job.JpaBatchJobExecutionStatusCounts;
 import com.thinkbiganalytics.metadata.jpa.jobrepo.job.QJpaBatchJobExecution;
 import com.thinkbiganalytics.metadata.jpa.support.GenericQueryDslFilter;
@@ -65,6 +66,12 @@ public class OpsFeedManagerFeedProvider implements OpsManagerFeedProvider {
     @Autowired
     private JPAQueryFactory factory;
 
+    @Inject
+    private FeedSummaryUpdater feedSummaryUpdater;
+
+    @Inject
+    private NifiFeedProcessorStatisticsProvider nifiFeedProcessorStatisticsProvider;
+
     /**
      * list of delete feed listeners
      **/
@@ -131,6 +138,7 @@ public class OpsFeedManagerFeedProvider implements OpsManagerFeedProvider {
             //first delete all jobs for this feed
             deleteFeedJobs(FeedNameUtil.category(feed.getName()), FeedNameUtil.feed(feed.getName()));
             repository.delete(feed.getId());
+            feedSummaryUpdater.deleteFeed(feed.getName());
             //notify the listeners
             notifyOnFeedDeleted(feed);
             log.info("Successfully deleted the feed {} ({})  and all job executions. ", feed.getName(), feed.getId());
@@ -213,6 +221,9 @@ public class OpsFeedManagerFeedProvider implements OpsManagerFeedProvider {
      */
     public void deleteFeedJobs(String category, String feed) {
         repository.deleteFeedJobs(category, feed);
+        feedSummaryUpdater.rebuildFeed(FeedNameUtil.fullName(category, feed));
+        //the procedure also removes the feed's rollup stats, which may have held the earliest buckets
+        nifiFeedProcessorStatisticsProvider.invalidateRollupBucketTimes();
     }
 
     /**
@@ -223,6 +234,7 @@ public class OpsFeedManagerFeedProvider implements OpsManagerFeedProvider {
         String exitMessage = String.format("Job manually abandoned @ %s", DateTimeUtil.getNowFormattedWithTimeZone());
 
         repository.abandonFeedJobs(feed, exitMessage);
+        feedSummaryUpdater.rebuildFeed(feed);
     }
 
 
@@ -57,8 +57,10 @@ import javax.persistence.ManyToOne;
 import javax.persistence.NamedNativeQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.PostLoad;
 import javax.persistence.Table;
 import javax.persistence.TableGenerator;
+import javax.persistence.Transient;
 import javax.persistence.Version;
 
 /**
@@ -174,11 +176,45 @@ public class JpaBatchJobExecution implements BatchJobExecution {
     @OneToOne(targetEntity = JpaNifiEventJobExecution.class, mappedBy = "jobExecution", cascade = CascadeType.ALL, fetch = FetchType.LAZY, optional = false)
     private NifiEventJobExecution nifiEventJobExecution;
 
+    /**
+     * The status and exit code this execution last contributed to the feed summary tables.
+     * Both are {@code null} for an execution that has not been summarized yet.
+     */
+    @Transient
+    private JobStatus summarizedStatus;
+
+    @Transient
+    private ExecutionConstants.ExitCode summarizedExitCode;
+
 
     public JpaBatchJobExecution() {
 
     }
 
+    /**
+     * A persisted execution is already reflected in the feed summary tables
+     */
+    @PostLoad
+    protected void onLoad() {
+        markSummarized();
+    }
+
+    public JobStatus getSummarizedStatus() {
+        return summarizedStatus;
+    }
+
+    public ExecutionConstants.ExitCode getSummarizedExitCode() {
+        return summarizedExitCode;
+    }
+
+    /**
+     * Record the current status and exit code as the ones applied to the feed summary tables
+     */
+    public void markSummarized() {
+        this.summarizedStatus = status;
+        this.summarizedExitCode = exitCode;
+    }
+
     @Override
     public BatchJobInstance getJobInstance() {
         return jobInstance;
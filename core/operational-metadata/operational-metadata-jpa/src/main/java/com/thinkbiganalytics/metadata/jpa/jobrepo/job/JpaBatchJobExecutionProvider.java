@@ -25,6 +25,7 @@ import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.ConstructorExpression;
 import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.core.types.dsl.CaseBuilder;
 import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.JPQLQuery;
@@ -34,6 +35,7 @@ import com.thinkbiganalytics.DateTimeUtil;
 import com.thinkbiganalytics.jobrepo.common.constants.CheckDataStepConstants;
 import com.thinkbiganalytics.jobrepo.common.constants.FeedConstants;
 import com.thinkbiganalytics.metadata.api.SearchCriteria;
+import com.thinkbiganalytics.metadata.api.SeekPage;
 import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeed;
 import com.thinkbiganalytics.metadata.api.jobrepo.ExecutionConstants;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
@@ -42,6 +44,7 @@ import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobInstance;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.JobStatusCount;
 import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiEvent;
 import com.thinkbiganalytics.metadata.api.jobrepo.step.BatchStepExecutionProvider;
+import com.thinkbiganalytics.metadata.jpa.feed.FeedSummaryUpdater;
 import com.thinkbiganalytics.metadata.jpa.feed.JpaOpsManagerFeed;
 import com.thinkbiganalytics.metadata.jpa.feed.OpsManagerFeedRepository;
 import com.thinkbiganalytics.metadata.jpa.feed.QJpaOpsManagerFeed;
@@ -52,6 +55,7 @@ import com.thinkbiganalytics.metadata.jpa.support.CommonFilterTranslations;
 import com.thinkbiganalytics.metadata.jpa.support.GenericQueryDslFilter;
 import com.thinkbiganalytics.metadata.jpa.support.QueryDslFetchJoin;
 import com.thinkbiganalytics.metadata.jpa.support.QueryDslPagingSupport;
+import com.thinkbiganalytics.metadata.jpa.support.SeekToken;
 import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
 import com.thinkbiganalytics.support.FeedNameUtil;
 
@@ -111,6 +115,9 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
     @Inject
     private BatchStepExecutionProvider batchStepExecutionProvider;
 
+    @Inject
+    private FeedSummaryUpdater feedSummaryUpdater;
+
 
     @Autowired
     public JpaBatchJobExecutionProvider(BatchJobExecutionRepository jobExecutionRepository, BatchJobInstanceRepository jobInstanceRepository,
@@ -352,9 +359,10 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
 
     /**
      * Get or Create the JobExecution for a given ProvenanceEvent
+     * Callers are expected to route all events for a given job flow file through the same thread (see the ProvenanceEventReceiver) so no JVM wide lock is taken here.
      */
     @Override
-    public synchronized JpaBatchJobExecution getOrCreateJobExecution(ProvenanceEventRecordDTO event) {
+    public JpaBatchJobExecution getOrCreateJobExecution(ProvenanceEventRecordDTO event) {
         JpaBatchJobExecution jobExecution = null;
         boolean isNew = false;
         try {
@@ -393,6 +401,13 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
         }
         if (save) {
             jobExecutionRepository.save(jobExecution);
+            if (updatedJobType) {
+                //the feed may now be a check data feed, counted against the feed it checks
+                feedSummaryUpdater.rebuildFeed(event.getFeedName());
+                jobExecution.markSummarized();
+            } else {
+                feedSummaryUpdater.jobExecutionChanged(jobExecution);
+            }
         }
         return jobExecution;
     }
@@ -431,7 +446,9 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
      */
     @Override
     public BatchJobExecution save(BatchJobExecution jobExecution) {
-        return jobExecutionRepository.save((JpaBatchJobExecution) jobExecution);
+        JpaBatchJobExecution saved = jobExecutionRepository.save((JpaBatchJobExecution) jobExecution);
+        feedSummaryUpdater.jobExecutionChanged(saved);
+        return saved;
     }
 
 
@@ -489,6 +506,7 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
                     log.debug("Finishing related running job {} for event ", job.getJobExecutionId(), event);
                 }
                 jobExecutionRepository.save(runningJobs);
+                runningJobs.forEach(feedSummaryUpdater::jobExecutionChanged);
             }
         }
     }
@@ -542,15 +560,9 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
         QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
         //if the filter contains a filter on the feed then delegate to the findAllForFeed method to include any check data jobs
         List<SearchCriteria> searchCriterias = GenericQueryDslFilter.parseFilterString(filter);
-        SearchCriteria feedFilter = searchCriterias.stream().map(searchCriteria -> searchCriteria.withKey(CommonFilterTranslations.resolvedFilter(jobExecution, searchCriteria.getKey()))).filter(
-            sc -> sc.getKey().equalsIgnoreCase(CommonFilterTranslations.jobExecutionFeedNameFilterKey)).findFirst().orElse(null);
-        if (feedFilter != null && feedFilter.getPreviousSearchCriteria() != null && !feedFilter.isValueCollection()) {
-            //remove the feed filter from the list and filter by this feed
-            searchCriterias.remove(feedFilter.getPreviousSearchCriteria());
-            String feedValue = feedFilter.getValue().toString();
-            //remove any quotes around the feedValue
-            feedValue =  feedValue.replaceAll("^\"|\"$", "");
-            return findAllForFeed(feedValue, searchCriterias, pageable);
+        String feedName = removeFeedNameFilter(jobExecution, searchCriterias);
+        if (feedName != null) {
+            return findAllForFeed(feedName, searchCriterias, pageable);
         } else {
             pageable = CommonFilterTranslations.resolveSortFilters(jobExecution, pageable);
             QJpaBatchJobInstance jobInstancePath = new QJpaBatchJobInstance("jobInstance");
@@ -575,22 +587,89 @@ public class JpaBatchJobExecutionProvider extends QueryDslPagingSupport<JpaBatch
     private Page<? extends BatchJobExecution> findAllForFeed(String feedName, List<SearchCriteria> filters, Pageable pageable) {
         QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
         QJpaOpsManagerFeed feed = QJpaOpsManagerFeed.jpaOpsManagerFeed;
-        QJpaOpsManagerFeed checkDataFeed = new QJpaOpsManagerFeed("checkDataFeed");
         QJpaBatchJobInstance jobInstance = QJpaBatchJobInstance.jpaBatchJobInstance;
-        JPQLQuery checkFeedQuery = JPAExpressions.select(checkDataFeed.id).from(feed).join(feed.checkDataFeeds, checkDataFeed).where(feed.name.eq(feedName));
 
         JPAQuery
             query = factory.select(jobExecution)
             .from(jobExecution)
             .join(jobExecution.jobInstance, jobInstance)
             .join(jobInstance.feed, feed)
-            .where((feed.name.eq(feedName).or(feed.id.in(checkFeedQuery)))
+            .where(feedOrCheckDataFeed(feed, feedName)
                        .and(GenericQueryDslFilter.buildFilter(jobExecution, filters))).fetchAll();
 
         pageable = CommonFilterTranslations.resolveSortFilters(jobExecution, pageable);
         return findAll(query, pageable);
     }
 
+    /**
+     * Remove the filter on a single feed name from the criteria, so the caller can filter on the feed and its check data feeds instead
+     *
+     * @return the feed name, or null if the criteria don't filter on a single feed
+     */
+    private String removeFeedNameFilter(QJpaBatchJobExecution jobExecution, List<SearchCriteria> searchCriterias) {
+        SearchCriteria feedFilter = searchCriterias.stream().map(searchCriteria -> searchCriteria.withKey(CommonFilterTranslations.resolvedFilter(jobExecution, searchCriteria.getKey()))).filter(
+            sc -> sc.getKey().equalsIgnoreCase(CommonFilterTranslations.jobExecutionFeedNameFilterKey)).findFirst().orElse(null);
+        if (feedFilter != null && feedFilter.getPreviousSearchCriteria() != null && !feedFilter.isValueCollection()) {
+            searchCriterias.remove(feedFilter.getPreviousSearchCriteria());
+            //remove any quotes around the feed name
+            return feedFilter.getValue().toString().replaceAll("^\"|\"$", "");
+        }
+        return null;
+    }
+
+    /**
+     * Match jobs of the feed or of any check data feed attached to it
+     */
+    private BooleanExpression feedOrCheckDataFeed(QJpaOpsManagerFeed feed, String feedName) {
+        QJpaOpsManagerFeed checkedFeed = new QJpaOpsManagerFeed("checkedFeed");
+        QJpaOpsManagerFeed checkDataFeed = new QJpaOpsManagerFeed("checkDataFeed");
+        JPQLQuery checkFeedQuery = JPAExpressions.select(checkDataFeed.id).from(checkedFeed).join(checkedFeed.checkDataFeeds, checkDataFeed).where(checkedFeed.name.eq(feedName));
+        return feed.name.eq(feedName).or(feed.id.in(checkFeedQuery));
+    }
+
+    /**
+     * Find the BatchJobExecution objects matching the filter, newest first, continuing after the job identified by the continuation token.
+     * Pages are read by seeking on (START_TIME, JOB_EXECUTION_ID) so deep pages cost the same as the first one, and no count query is issued.
+     * Jobs that have not started come last.
+     *
+     * @return a page of job executions with a token for the next page, or a null token if this is the last page
+     */
+    @Override
+    public SeekPage<? extends BatchJobExecution> findAll(String filter, String continuationToken, int limit) {
+        QJpaBatchJobExecution jobExecution = QJpaBatchJobExecution.jpaBatchJobExecution;
+        QJpaBatchJobInstance jobInstance = QJpaBatchJobInstance.jpaBatchJobInstance;
+        QJpaOpsManagerFeed feed = QJpaOpsManagerFeed.jpaOpsManagerFeed;
+        SeekToken after = SeekToken.decode(continuationToken);
+        int pageSize = Math.max(limit, 1);
+
+        BooleanBuilder where = new BooleanBuilder();
+        List<SearchCriteria> searchCriterias = GenericQueryDslFilter.parseFilterString(filter);
+        String feedName = removeFeedNameFilter(jobExecution, searchCriterias);
+        if (feedName != null) {
+            //include any check data jobs for the feed, as findAllForFeed does
+            where.and(feedOrCheckDataFeed(feed, feedName));
+        }
+        where.and(GenericQueryDslFilter.buildFilter(jobExecution, searchCriterias));
+        where.and(GenericQueryDslFilter.buildSeekFilter(jobExecution.startTimeMillis, jobExecution.jobExecutionId, after));
+
+        List<JpaBatchJobExecution> jobs = factory.selectFrom(jobExecution)
+            .innerJoin(jobExecution.nifiEventJobExecution).fetchJoin()
+            .innerJoin(jobExecution.jobInstance, jobInstance).fetchJoin()
+            .innerJoin(jobInstance.feed, feed).fetchJoin()
+            .where(where)
+            .orderBy(jobExecution.startTimeMillis.desc().nullsLast(), jobExecution.jobExecutionId.desc())
+            .limit(pageSize + 1)
+            .fetch();
+
+        String nextToken = null;
+        if (jobs.size() > pageSize) {
+            jobs = new ArrayList<>(jobs.subList(0, pageSize));
+            JpaBatchJobExecution last = jobs.get(pageSize - 1);
+            nextToken = new SeekToken(last.getStartTimeMillis(), last.getJobExecutionId()).encode();
+        }
+        return new SeekPage<>(jobs, nextToken);
+    }
+
 
     /**
      * Get count of Jobs grouped by Status
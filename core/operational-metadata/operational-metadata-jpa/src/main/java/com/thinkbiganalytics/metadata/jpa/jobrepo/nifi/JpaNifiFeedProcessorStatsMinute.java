@@ -0,0 +1,33 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.nifi;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * NiFi feed processor statistics rolled up by the minute
+ */
+@Entity
+@Table(name = "NIFI_FEED_PROC_STATS_MINUTE")
+public class JpaNifiFeedProcessorStatsMinute extends JpaNifiFeedProcessorStatsRollup {
+
+}
@@ -0,0 +1,227 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.nifi;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.hibernate.annotations.Type;
+import org.joda.time.DateTime;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EmbeddedId;
+import javax.persistence.MappedSuperclass;
+
+/**
+ * Base class for the tables rolling up the {@link JpaNifiFeedProcessorStats} by feed, processor and a bucket of time.
+ * The rollups are maintained with JDBC by the {@link NifiFeedProcessorStatsRollupWriter} as stats are received. They are mapped here so the tables are part of the JPA model.
+ */
+@MappedSuperclass
+public abstract class JpaNifiFeedProcessorStatsRollup {
+
+    @EmbeddedId
+    private RollupPK rollupPK;
+
+    @Column(name = "PROCESSOR_NAME")
+    private String processorName;
+
+    @Type(type = "org.jadira.usertype.dateandtime.joda.PersistentDateTime")
+    @Column(name = "MIN_EVENT_TIME")
+    private DateTime minEventTime;
+
+    @Type(type = "org.jadira.usertype.dateandtime.joda.PersistentDateTime")
+    @Column(name = "MAX_EVENT_TIME")
+    private DateTime maxEventTime;
+
+    @Column(name = "TOTAL_EVENTS")
+    private Long totalCount = 0L;
+
+    @Column(name = "DURATION_MILLIS")
+    private Long duration = 0L;
+
+    @Column(name = "BYTES_IN")
+    private Long bytesIn = 0L;
+
+    @Column(name = "BYTES_OUT")
+    private Long bytesOut = 0L;
+
+    @Column(name = "JOBS_STARTED")
+    private Long jobsStarted = 0L;
+
+    @Column(name = "JOBS_FINISHED")
+    private Long jobsFinished = 0L;
+
+    @Column(name = "JOBS_FAILED")
+    private Long jobsFailed = 0L;
+
+    @Column(name = "JOB_DURATION")
+    private Long jobDuration = 0L;
+
+    @Column(name = "SUCCESSFUL_JOB_DURATION")
+    private Long successfulJobDuration = 0L;
+
+    @Column(name = "PROCESSORS_FAILED")
+    private Long processorsFailed = 0L;
+
+    @Column(name = "FLOW_FILES_STARTED")
+    private Long flowFilesStarted = 0L;
+
+    @Column(name = "FLOW_FILES_FINISHED")
+    private Long flowFilesFinished = 0L;
+
+    /**
+     * the number of stats records added to this bucket
+     */
+    @Column(name = "STATS_COUNT")
+    private Long statsCount = 0L;
+
+    public RollupPK getRollupPK() {
+        return rollupPK;
+    }
+
+    public String getProcessorName() {
+        return processorName;
+    }
+
+    public DateTime getMinEventTime() {
+        return minEventTime;
+    }
+
+    public DateTime getMaxEventTime() {
+        return maxEventTime;
+    }
+
+    public Long getTotalCount() {
+        return totalCount;
+    }
+
+    public Long getDuration() {
+        return duration;
+    }
+
+    public Long getBytesIn() {
+        return bytesIn;
+    }
+
+    public Long getBytesOut() {
+        return bytesOut;
+    }
+
+    public Long getJobsStarted() {
+        return jobsStarted;
+    }
+
+    public Long getJobsFinished() {
+        return jobsFinished;
+    }
+
+    public Long getJobsFailed() {
+        return jobsFailed;
+    }
+
+    public Long getJobDuration() {
+        return jobDuration;
+    }
+
+    public Long getSuccessfulJobDuration() {
+        return successfulJobDuration;
+    }
+
+    public Long getProcessorsFailed() {
+        return processorsFailed;
+    }
+
+    public Long getFlowFilesStarted() {
+        return flowFilesStarted;
+    }
+
+    public Long getFlowFilesFinished() {
+        return flowFilesFinished;
+    }
+
+    public Long getStatsCount() {
+        return statsCount;
+    }
+
+    @Embeddable
+    public static class RollupPK implements Serializable {
+
+        @Column(name = "FM_FEED_NAME")
+        private String feedName;
+
+        @Column(name = "NIFI_PROCESSOR_ID")
+        private String processorId;
+
+        @Type(type = "org.jadira.usertype.dateandtime.joda.PersistentDateTime")
+        @Column(name = "BUCKET_TIME")
+        private DateTime bucketTime;
+
+        public RollupPK() {
+
+        }
+
+        public RollupPK(String feedName, String processorId, DateTime bucketTime) {
+            this.feedName = feedName;
+            this.processorId = processorId;
+            this.bucketTime = bucketTime;
+        }
+
+        public String getFeedName() {
+            return feedName;
+        }
+
+        public String getProcessorId() {
+            return processorId;
+        }
+
+        public DateTime getBucketTime() {
+            return bucketTime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            RollupPK that = (RollupPK) o;
+
+            if (!feedName.equals(that.feedName)) {
+                return false;
+            }
+            if (!processorId.equals(that.processorId)) {
+                return false;
+            }
+            return bucketTime.equals(that.bucketTime);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = feedName.hashCode();
+            result = 31 * result + processorId.hashCode();
+            result = 31 * result + bucketTime.hashCode();
+            return result;
+        }
+    }
+}
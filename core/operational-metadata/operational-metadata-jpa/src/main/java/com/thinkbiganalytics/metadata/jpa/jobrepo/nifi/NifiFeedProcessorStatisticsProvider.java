@@ -30,9 +30,16 @@ import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStats;
 import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import javax.sql.DataSource;
 
 /**
  * Provider for accessing the statstics for a feed and processor
@@ -47,6 +54,45 @@ public class NifiFeedProcessorStatisticsProvider implements com.thinkbiganalytic
 
     private NifiEventRepository nifiEventRepository;
 
+    @Autowired
+    @Qualifier("dataSource")
+    private DataSource dataSource;
+
+    /**
+     * Insert stats with JDBC rather than JPA when saving more than one record
+     */
+    @Value("${kylo.ops.mgr.stats.bulk-insert.enabled:true}")
+    private boolean bulkInsertEnabled = true;
+
+    /**
+     * The maximum number of rows in a single bulk insert statement or batch
+     */
+    @Value("${kylo.ops.mgr.stats.bulk-insert.rows-per-statement:500}")
+    private int bulkInsertRowsPerStatement = 500;
+
+    private NifiFeedProcessorStatsBulkWriter bulkWriter;
+
+    /**
+     * Maintain the minute, hour and day rollups of the stats and use them for queries
+     */
+    @Value("${kylo.ops.mgr.stats.rollup.enabled:true}")
+    private boolean rollupEnabled = true;
+
+    /**
+     * A rollup is only used if the time window spans at least this many of its buckets
+     */
+    @Value("${kylo.ops.mgr.stats.rollup.min-buckets:60}")
+    private int rollupMinBuckets = 60;
+
+    private NifiFeedProcessorStatsRollupWriter rollupWriter;
+
+    private NifiFeedProcessorStatsRollupReader rollupReader;
+
+    /**
+     * The earliest bucket in each rollup.  Windows starting before this are queried from the raw stats.
+     */
+    private Map<Resolution, DateTime> firstBucketTimes = new ConcurrentHashMap<>();
+
     @Autowired
     public NifiFeedProcessorStatisticsProvider(NifiFeedProcessorStatisticsRepository repository, NifiEventRepository nifiEventRepository) {
         this.statisticsRepository = repository;
@@ -59,6 +105,112 @@ public class NifiFeedProcessorStatisticsProvider implements com.thinkbiganalytic
         return statisticsRepository.save((JpaNifiFeedProcessorStats) t);
     }
 
+    @Override
+    public void createAll(List<? extends NifiFeedProcessorStats> stats) {
+        if (bulkInsertEnabled && dataSource != null && stats.size() > 1) {
+            getBulkWriter().write(stats);
+        } else {
+            stats.forEach(this::create);
+        }
+    }
+
+    @Override
+    public void rollup(List<? extends NifiFeedProcessorStats> stats) {
+        if (rollupEnabled && dataSource != null) {
+            getRollupWriter().write(stats);
+        }
+    }
+
+    /**
+     * Pick the coarsest rollup that has at least {@code rollupMinBuckets} buckets within the window and has data from the start of the window.
+     * Otherwise query the raw stats.
+     */
+    @Override
+    public Resolution getResolution(DateTime start, DateTime end) {
+        if (!rollupEnabled || dataSource == null || start == null || end == null) {
+            return Resolution.RAW;
+        }
+        long window = end.getMillis() - start.getMillis();
+        for (Resolution resolution : Lists.reverse(NifiFeedProcessorStatsRollupWriter.ROLLUPS)) {
+            if (window / resolution.getMillis() >= rollupMinBuckets) {
+                DateTime firstBucketTime = getFirstBucketTime(resolution);
+                //the first bucket may only be partly filled
+                if (firstBucketTime != null && !start.isBefore(firstBucketTime.plus(resolution.getMillis()))) {
+                    return resolution;
+                }
+            }
+        }
+        return Resolution.RAW;
+    }
+
+    private DateTime getFirstBucketTime(Resolution resolution) {
+        DateTime firstBucketTime = firstBucketTimes.get(resolution);
+        if (firstBucketTime == null) {
+            firstBucketTime = getRollupReader().findFirstBucketTime(resolution);
+            if (firstBucketTime != null) {
+                firstBucketTimes.put(resolution, firstBucketTime);
+            }
+        }
+        return firstBucketTime;
+    }
+
+    @Override
+    public void invalidateRollupBucketTimes() {
+        firstBucketTimes.clear();
+    }
+
+    /**
+     * Query the whole buckets within the window from the rollup, and the partial buckets at either end of the window from the raw stats.
+     * The rollups bucket each stats record by its max event time, so the raw stats at each end are selected by their max event time as well.
+     */
+    private List<JpaNifiFeedProcessorStats> findWithRollup(String feedName, DateTime start, DateTime end, Resolution resolution, NifiFeedProcessorStatsRollupReader.Grouping grouping,
+                                                           BiFunction<String, Predicate, List<JpaNifiFeedProcessorStats>> rawQuery) {
+        DateTime rollupStart = NifiFeedProcessorStatsRollupReader.rollupStart(resolution, start);
+        DateTime rollupEnd = NifiFeedProcessorStatsRollupReader.rollupEnd(resolution, end);
+        if (!rollupEnd.isAfter(rollupStart)) {
+            //no whole bucket within the window
+            return rawQuery.apply(feedName, withinEventTimes(start, end));
+        }
+
+        QJpaNifiFeedProcessorStats stats = QJpaNifiFeedProcessorStats.jpaNifiFeedProcessorStats;
+        List<JpaNifiFeedProcessorStats> result = getRollupReader().find(resolution, feedName, rollupStart, rollupEnd, grouping);
+        if (start.isBefore(rollupStart)) {
+            Predicate leading = stats.minEventTime.goe(start).and(stats.maxEventTime.lt(rollupStart));
+            result = NifiFeedProcessorStatsRollupReader.merge(result, rawQuery.apply(feedName, leading), grouping);
+        }
+        if (rollupEnd.isBefore(end)) {
+            Predicate trailing = stats.minEventTime.goe(start).and(stats.maxEventTime.goe(rollupEnd)).and(stats.maxEventTime.loe(end));
+            result = NifiFeedProcessorStatsRollupReader.merge(result, rawQuery.apply(feedName, trailing), grouping);
+        }
+        return result;
+    }
+
+    private Predicate withinEventTimes(DateTime start, DateTime end) {
+        QJpaNifiFeedProcessorStats stats = QJpaNifiFeedProcessorStats.jpaNifiFeedProcessorStats;
+        return stats.minEventTime.goe(start).and(stats.maxEventTime.loe(end));
+    }
+
+    private NifiFeedProcessorStatsRollupWriter getRollupWriter() {
+        if (rollupWriter == null) {
+            rollupWriter = new NifiFeedProcessorStatsRollupWriter(dataSource);
+        }
+        return rollupWriter;
+    }
+
+    private NifiFeedProcessorStatsRollupReader getRollupReader() {
+        if (rollupReader == null) {
+            rollupReader = new NifiFeedProcessorStatsRollupReader(dataSource);
+        }
+        return rollupReader;
+    }
+
+    private NifiFeedProcessorStatsBulkWriter getBulkWriter() {
+        if (bulkWriter == null) {
+            bulkWriter = new NifiFeedProcessorStatsBulkWriter(dataSource, bulkInsertRowsPerStatement);
+        }
+        return bulkWriter;
+    }
+
     public List<? extends JpaNifiFeedProcessorStats> findFeedProcessorStatisticsByProcessorId(String feedName, TimeFrame timeFrame) {
         DateTime now = DateTime.now();
         return findFeedProcessorStatisticsByProcessorId(feedName, timeFrame.startTimeRelativeTo(now), now);
@@ -114,6 +266,18 @@ public class NifiFeedProcessorStatisticsProvider implements com.thinkbiganalytic
 
     @Override
     public List<? extends JpaNifiFeedProcessorStats> findFeedProcessorStatisticsByProcessorId(String feedName, DateTime start, DateTime end) {
+        return findFeedProcessorStatisticsByProcessorId(feedName, start, end, getResolution(start, end));
+    }
+
+    @Override
+    public List<? extends JpaNifiFeedProcessorStats> findFeedProcessorStatisticsByProcessorId(String feedName, DateTime start, DateTime end, Resolution resolution) {
+        if (resolution != null && resolution != Resolution.RAW) {
+            return findWithRollup(feedName, start, end, resolution, NifiFeedProcessorStatsRollupReader.Grouping.PROCESSOR_ID, this::findRawStatisticsByProcessorId);
+        }
+        return findRawStatisticsByProcessorId(feedName, withinEventTimes(start, end));
+    }
+
+    private List<JpaNifiFeedProcessorStats> findRawStatisticsByProcessorId(String feedName, Predicate window) {
         QJpaNifiFeedProcessorStats stats = QJpaNifiFeedProcessorStats.jpaNifiFeedProcessorStats;
         JPAQuery
             query = factory.select(
@@ -126,9 +290,7 @@ public class NifiFeedProcessorStatisticsProvider implements com.thinkbiganalytic
                              stats.count().as("resultSetCount"))
         )
             .from(stats)
-            .where(stats.feedName.eq(feedName)
-                       .and(stats.minEventTime.goe(start)
-                                .and(stats.maxEventTime.loe(end))))
+            .where(stats.feedName.eq(feedName).and(window))
             .groupBy(stats.feedName, stats.processorId, stats.processorName)
             .orderBy(stats.processorName.asc());
 
@@ -138,6 +300,18 @@ public class NifiFeedProcessorStatisticsProvider implements com.thinkbiganalytic
 
     @Override
     public List<? extends JpaNifiFeedProcessorStats> findFeedProcessorStatisticsByProcessorName(String feedName, DateTime start, DateTime end) {
+        return findFeedProcessorStatisticsByProcessorName(feedName, start, end, getResolution(start, end));
+    }
+
+    @Override
+    public List<? extends JpaNifiFeedProcessorStats> findFeedProcessorStatisticsByProcessorName(String feedName, DateTime start, DateTime end, Resolution resolution) {
+        if (resolution != null && resolution != Resolution.RAW) {
+            return findWithRollup(feedName, start, end, resolution, NifiFeedProcessorStatsRollupReader.Grouping.PROCESSOR_NAME, this::findRawStatisticsByProcessorName);
+        }
+        return findRawStatisticsByProcessorName(feedName, withinEventTimes(start, end));
+    }
+
+    private List<JpaNifiFeedProcessorStats> findRawStatisticsByProcessorName(String feedName, Predicate window) {
         QJpaNifiFeedProcessorStats stats = QJpaNifiFeedProcessorStats.jpaNifiFeedProcessorStats;
         JPAQuery
             query = factory.select(
@@ -150,9 +324,7 @@ public class NifiFeedProcessorStatisticsProvider implements com.thinkbiganalytic
                              stats.count().as("resultSetCount"))
         )
             .from(stats)
-            .where(stats.feedName.eq(feedName)
-                       .and(stats.minEventTime.goe(start)
-                                .and(stats.maxEventTime.loe(end))))
+            .where(stats.feedName.eq(feedName).and(window))
             .groupBy(stats.feedName, stats.processorName)
             .orderBy(stats.processorName.asc());
 
@@ -160,6 +332,18 @@ public class NifiFeedProcessorStatisticsProvider implements com.thinkbiganalytic
     }
 
     public List<? extends JpaNifiFeedProcessorStats> findForFeedStatisticsGroupedByTime(String feedName, DateTime start, DateTime end) {
+        return findForFeedStatisticsGroupedByTime(feedName, start, end, getResolution(start, end));
+    }
+
+    @Override
+    public List<? extends JpaNifiFeedProcessorStats> findForFeedStatisticsGroupedByTime(String feedName, DateTime start, DateTime end, Resolution resolution) {
+        if (resolution != null && resolution != Resolution.RAW) {
+            return findWithRollup(feedName, start, end, resolution, NifiFeedProcessorStatsRollupReader.Grouping.TIME, this::findRawStatisticsGroupedByTime);
+        }
+        return findRawStatisticsGroupedByTime(feedName, withinEventTimes(start, end));
+    }
+
+    private List<JpaNifiFeedProcessorStats> findRawStatisticsGroupedByTime(String feedName, Predicate window) {
         QJpaNifiFeedProcessorStats stats = QJpaNifiFeedProcessorStats.jpaNifiFeedProcessorStats;
         JPAQuery
             query = factory.select(
@@ -174,9 +358,7 @@ public class NifiFeedProcessorStatisticsProvider implements com.thinkbiganalytic
                              stats.count().as("resultSetCount"))
         )
             .from(stats)
-            .where(stats.feedName.eq(feedName)
-                       .and(stats.minEventTime.goe(start)
-                                .and(stats.maxEventTime.loe(end))))
+            .where(stats.feedName.eq(feedName).and(window))
             .groupBy(stats.feedName, stats.maxEventTime)
             .orderBy(stats.maxEventTime.asc());
 
@@ -0,0 +1,213 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.nifi;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.jdbc.util.DatabaseType;
+import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStats;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+/**
+ * Inserts {@link NifiFeedProcessorStats} rows using JDBC rather than JPA.
+ * MySQL receives a single multi-row INSERT for each group of rows.  Other databases, including Postgres, receive a JDBC batch for each group of rows.
+ * The statements run on the connection bound to the current transaction, so the rows are committed or rolled back along with the rest of the transaction.
+ */
+public class NifiFeedProcessorStatsBulkWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(NifiFeedProcessorStatsBulkWriter.class);
+
+    private static final String TABLE_NAME = "NIFI_FEED_PROCESSOR_STATS";
+
+    private static final String[] COLUMNS = {"id", "FM_FEED_NAME", "NIFI_PROCESSOR_ID", "PROCESSOR_NAME", "NIFI_FEED_PROCESS_GROUP_ID", "COLLECTION_TIME", "COLLECTION_ID",
+                                             "DURATION_MILLIS", "MIN_EVENT_TIME", "MAX_EVENT_TIME", "BYTES_IN", "BYTES_OUT", "TOTAL_EVENTS", "JOBS_STARTED", "JOBS_FINISHED",
+                                             "JOBS_FAILED", "JOB_DURATION", "SUCCESSFUL_JOB_DURATION", "PROCESSORS_FAILED", "FLOW_FILES_STARTED", "FLOW_FILES_FINISHED",
+                                             "MAX_EVENT_ID", "CLUSTER_NODE_ID", "CLUSTER_NODE_ADDRESS"};
+
+    private static final String INSERT_PREFIX = "INSERT INTO " + TABLE_NAME + " (" + String.join(",", COLUMNS) + ") VALUES ";
+
+    private static final String ROW_PLACEHOLDERS = "(" + String.join(",", Collections.nCopies(COLUMNS.length, "?")) + ")";
+
+    private final DataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * the maximum number of rows sent in a single statement or batch
+     */
+    private final int rowsPerStatement;
+
+    /**
+     * true if the database accepts multiple rows in a single INSERT.  Determined from the database type on first use.
+     */
+    private Boolean multiRowInsert;
+
+    public NifiFeedProcessorStatsBulkWriter(DataSource dataSource, int rowsPerStatement) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.rowsPerStatement = rowsPerStatement < 1 ? 1 : rowsPerStatement;
+    }
+
+    /**
+     * Insert the stats.  Any stats without an id are assigned a new one.
+     *
+     * @param stats the stats to insert
+     * @return the number of rows inserted
+     */
+    public int write(List<? extends NifiFeedProcessorStats> stats) {
+        if (stats == null || stats.isEmpty()) {
+            return 0;
+        }
+        stats.stream().filter(stat -> stat.getId() == null).forEach(stat -> stat.setId(UUID.randomUUID().toString()));
+
+        if (useMultiRowInsert()) {
+            return writeMultiRowInserts(stats);
+        } else {
+            return writeBatches(stats);
+        }
+    }
+
+    /**
+     * Write each group of rows as one INSERT with a VALUES entry per row
+     */
+    private int writeMultiRowInserts(List<? extends NifiFeedProcessorStats> stats) {
+        int count = 0;
+        String fullStatement = null;
+        for (int start = 0; start < stats.size(); start += rowsPerStatement) {
+            List<? extends NifiFeedProcessorStats> rows = stats.subList(start, Math.min(start + rowsPerStatement, stats.size()));
+            String sql;
+            if (rows.size() == rowsPerStatement) {
+                if (fullStatement == null) {
+                    fullStatement = multiRowInsert(rowsPerStatement);
+                }
+                sql = fullStatement;
+            } else {
+                sql = multiRowInsert(rows.size());
+            }
+            count += jdbcTemplate.update(sql, ps -> {
+                int index = 1;
+                for (NifiFeedProcessorStats stat : rows) {
+                    index = setValues(ps, index, stat);
+                }
+            });
+        }
+        return count;
+    }
+
+    /**
+     * Write the rows as a JDBC batch of single row inserts
+     */
+    private int writeBatches(List<? extends NifiFeedProcessorStats> stats) {
+        int[][] results = jdbcTemplate.batchUpdate(INSERT_PREFIX + ROW_PLACEHOLDERS, stats, rowsPerStatement, (ps, stat) -> setValues(ps, 1, stat));
+        //some drivers report SUCCESS_NO_INFO rather than a row count for batched statements
+        int count = 0;
+        for (int[] batch : results) {
+            count += batch.length;
+        }
+        return count;
+    }
+
+    private String multiRowInsert(int rows) {
+        return INSERT_PREFIX + String.join(",", Collections.nCopies(rows, ROW_PLACEHOLDERS));
+    }
+
+    /**
+     * Set the column values for a single row
+     *
+     * @return the index of the next parameter
+     */
+    private int setValues(PreparedStatement ps, int index, NifiFeedProcessorStats stat) throws SQLException {
+        setString(ps, index++, stat.getId());
+        setString(ps, index++, stat.getFeedName());
+        setString(ps, index++, stat.getProcessorId());
+        setString(ps, index++, stat.getProcessorName());
+        setString(ps, index++, stat.getFeedProcessGroupId());
+        setTimestamp(ps, index++, stat.getCollectionTime());
+        setString(ps, index++, stat.getCollectionId());
+        setLong(ps, index++, stat.getDuration());
+        setTimestamp(ps, index++, stat.getMinEventTime());
+        setTimestamp(ps, index++, stat.getMaxEventTime());
+        setLong(ps, index++, stat.getBytesIn());
+        setLong(ps, index++, stat.getBytesOut());
+        setLong(ps, index++, stat.getTotalCount());
+        setLong(ps, index++, stat.getJobsStarted());
+        setLong(ps, index++, stat.getJobsFinished());
+        setLong(ps, index++, stat.getJobsFailed());
+        setLong(ps, index++, stat.getJobDuration());
+        setLong(ps, index++, stat.getSuccessfulJobDuration());
+        setLong(ps, index++, stat.getProcessorsFailed());
+        setLong(ps, index++, stat.getFlowFilesStarted());
+        setLong(ps, index++, stat.getFlowFilesFinished());
+        setLong(ps, index++, stat.getMaxEventId());
+        setString(ps, index++, stat.getClusterNodeId());
+        setString(ps, index++, stat.getClusterNodeAddress());
+        return index;
+    }
+
+    private void setString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.VARCHAR);
+        } else {
+            ps.setString(index, value);
+        }
+    }
+
+    private void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+
+    private void setTimestamp(PreparedStatement ps, int index, DateTime value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(index, new Timestamp(value.getMillis()));
+        }
+    }
+
+    private boolean useMultiRowInsert() {
+        if (multiRowInsert == null) {
+            try {
+                multiRowInsert = DatabaseType.MYSQL.equals(DatabaseType.fromMetaData(dataSource));
+            } catch (MetaDataAccessException e) {
+                log.warn("Unable to determine the database type.  NiFi statistics will be inserted using JDBC batches. {}", e.getMessage());
+                multiRowInsert = false;
+            }
+        }
+        return multiRowInsert;
+    }
+}
@@ -0,0 +1,240 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.nifi;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStatisticsProvider.Resolution;
+
+import org.joda.time.DateTime;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+/**
+ * Queries the rollup tables written by the {@link NifiFeedProcessorStatsRollupWriter}.
+ * Only the buckets that fall entirely within the requested time window are read from a rollup.  The partial buckets at either end of the window are read from the raw
+ * stats by the {@link NifiFeedProcessorStatisticsProvider} and combined with the rollup using {@link #merge(List, List, Grouping)}.
+ */
+public class NifiFeedProcessorStatsRollupReader {
+
+    private static final String SUM_SELECT = "SUM(TOTAL_EVENTS) TOTAL_EVENTS, SUM(DURATION_MILLIS) DURATION_MILLIS, SUM(BYTES_IN) BYTES_IN, SUM(BYTES_OUT) BYTES_OUT, "
+                                             + "SUM(JOBS_STARTED) JOBS_STARTED, SUM(JOBS_FINISHED) JOBS_FINISHED, SUM(JOBS_FAILED) JOBS_FAILED, SUM(JOB_DURATION) JOB_DURATION, "
+                                             + "SUM(SUCCESSFUL_JOB_DURATION) SUCCESSFUL_JOB_DURATION, SUM(PROCESSORS_FAILED) PROCESSORS_FAILED, "
+                                             + "SUM(FLOW_FILES_STARTED) FLOW_FILES_STARTED, SUM(FLOW_FILES_FINISHED) FLOW_FILES_FINISHED, "
+                                             + "MIN(MIN_EVENT_TIME) MIN_EVENT_TIME, MAX(MAX_EVENT_TIME) MAX_EVENT_TIME";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NifiFeedProcessorStatsRollupReader(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * @return the start of the first bucket that lies entirely after the start of the window
+     */
+    public static DateTime rollupStart(Resolution resolution, DateTime start) {
+        DateTime firstBucket = resolution.bucketStart(start);
+        return firstBucket.isBefore(start) ? firstBucket.plus(resolution.getMillis()) : firstBucket;
+    }
+
+    /**
+     * @return the end of the last bucket that lies entirely before the end of the window
+     */
+    public static DateTime rollupEnd(Resolution resolution, DateTime end) {
+        return resolution.bucketStart(end);
+    }
+
+    /**
+     * Sum the buckets for a feed between two bucket boundaries
+     *
+     * @param resolution  the rollup to query
+     * @param feedName    the feed name
+     * @param rollupStart the start of the first bucket, see {@link #rollupStart(Resolution, DateTime)}
+     * @param rollupEnd   the end of the last bucket, see {@link #rollupEnd(Resolution, DateTime)}
+     * @param grouping    how to group the buckets
+     * @return the summed stats
+     */
+    public List<JpaNifiFeedProcessorStats> find(Resolution resolution, String feedName, DateTime rollupStart, DateTime rollupEnd, Grouping grouping) {
+        String sql = "SELECT " + grouping.columns + ", " + SUM_SELECT
+                     + " FROM " + NifiFeedProcessorStatsRollupWriter.tableName(resolution)
+                     + " WHERE FM_FEED_NAME = ? AND BUCKET_TIME >= ? AND BUCKET_TIME < ?"
+                     + " GROUP BY " + grouping.columns
+                     + " ORDER BY " + grouping.orderBy;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> toStats(rs, grouping), feedName, new Timestamp(rollupStart.getMillis()), new Timestamp(rollupEnd.getMillis()));
+    }
+
+    /**
+     * Add the raw stats for the partial buckets at the ends of the window to the stats read from a rollup.
+     * Stats grouped by processor are summed with the rollup stats of the same processor.  Stats grouped by time are kept as separate points, in time order.
+     *
+     * @param rollupStats the stats read from the rollup
+     * @param rawStats    the raw stats of the partial buckets, grouped the same way
+     * @param grouping    how the stats are grouped
+     * @return the combined stats
+     */
+    public static List<JpaNifiFeedProcessorStats> merge(List<JpaNifiFeedProcessorStats> rollupStats, List<? extends JpaNifiFeedProcessorStats> rawStats, Grouping grouping) {
+        if (rawStats == null || rawStats.isEmpty()) {
+            return rollupStats;
+        }
+        if (grouping == Grouping.TIME) {
+            List<JpaNifiFeedProcessorStats> merged = new ArrayList<>(rollupStats);
+            merged.addAll(rawStats);
+            merged.sort(Comparator.comparing(JpaNifiFeedProcessorStats::getMaxEventTime, Comparator.nullsFirst(Comparator.<DateTime>naturalOrder())));
+            return merged;
+        }
+
+        Map<List<String>, JpaNifiFeedProcessorStats> merged = new LinkedHashMap<>();
+        for (JpaNifiFeedProcessorStats stats : rollupStats) {
+            merged.put(grouping.key(stats), stats);
+        }
+        for (JpaNifiFeedProcessorStats stats : rawStats) {
+            JpaNifiFeedProcessorStats existing = merged.get(grouping.key(stats));
+            if (existing == null) {
+                merged.put(grouping.key(stats), stats);
+            } else {
+                add(existing, stats);
+            }
+        }
+        List<JpaNifiFeedProcessorStats> result = new ArrayList<>(merged.values());
+        result.sort((s1, s2) -> compare(s1.getProcessorName(), s2.getProcessorName()));
+        return result;
+    }
+
+    /**
+     * Find the start of the earliest bucket in the rollup
+     *
+     * @return the earliest bucket time, or null if the rollup is empty
+     */
+    public DateTime findFirstBucketTime(Resolution resolution) {
+        Timestamp time = jdbcTemplate.queryForObject("SELECT MIN(BUCKET_TIME) FROM " + NifiFeedProcessorStatsRollupWriter.tableName(resolution), Timestamp.class);
+        return time != null ? new DateTime(time.getTime()) : null;
+    }
+
+    private JpaNifiFeedProcessorStats toStats(ResultSet rs, Grouping grouping) throws SQLException {
+        JpaNifiFeedProcessorStats stats = new JpaNifiFeedProcessorStats();
+        stats.setFeedName(rs.getString("FM_FEED_NAME"));
+        if (grouping != Grouping.TIME) {
+            stats.setProcessorName(rs.getString("PROCESSOR_NAME"));
+        }
+        if (grouping == Grouping.PROCESSOR_ID) {
+            stats.setProcessorId(rs.getString("NIFI_PROCESSOR_ID"));
+        }
+        stats.setTotalCount(rs.getLong("TOTAL_EVENTS"));
+        stats.setDuration(rs.getLong("DURATION_MILLIS"));
+        stats.setBytesIn(rs.getLong("BYTES_IN"));
+        stats.setBytesOut(rs.getLong("BYTES_OUT"));
+        stats.setJobsStarted(rs.getLong("JOBS_STARTED"));
+        stats.setJobsFinished(rs.getLong("JOBS_FINISHED"));
+        stats.setJobsFailed(rs.getLong("JOBS_FAILED"));
+        stats.setJobDuration(rs.getLong("JOB_DURATION"));
+        stats.setSuccessfulJobDuration(rs.getLong("SUCCESSFUL_JOB_DURATION"));
+        stats.setProcessorsFailed(rs.getLong("PROCESSORS_FAILED"));
+        stats.setFlowFilesStarted(rs.getLong("FLOW_FILES_STARTED"));
+        stats.setFlowFilesFinished(rs.getLong("FLOW_FILES_FINISHED"));
+        stats.setMinEventTime(toDateTime(rs.getTimestamp("MIN_EVENT_TIME")));
+        if (grouping == Grouping.TIME) {
+            //the bucket time is the time axis for stats grouped by time
+            stats.setMaxEventTime(toDateTime(rs.getTimestamp("BUCKET_TIME")));
+        } else {
+            stats.setMaxEventTime(toDateTime(rs.getTimestamp("MAX_EVENT_TIME")));
+        }
+        return stats;
+    }
+
+    private static void add(JpaNifiFeedProcessorStats stats, JpaNifiFeedProcessorStats other) {
+        stats.setTotalCount(sum(stats.getTotalCount(), other.getTotalCount()));
+        stats.setDuration(sum(stats.getDuration(), other.getDuration()));
+        stats.setBytesIn(sum(stats.getBytesIn(), other.getBytesIn()));
+        stats.setBytesOut(sum(stats.getBytesOut(), other.getBytesOut()));
+        stats.setJobsStarted(sum(stats.getJobsStarted(), other.getJobsStarted()));
+        stats.setJobsFinished(sum(stats.getJobsFinished(), other.getJobsFinished()));
+        stats.setJobsFailed(sum(stats.getJobsFailed(), other.getJobsFailed()));
+        stats.setJobDuration(sum(stats.getJobDuration(), other.getJobDuration()));
+        stats.setSuccessfulJobDuration(sum(stats.getSuccessfulJobDuration(), other.getSuccessfulJobDuration()));
+        stats.setProcessorsFailed(sum(stats.getProcessorsFailed(), other.getProcessorsFailed()));
+        stats.setFlowFilesStarted(sum(stats.getFlowFilesStarted(), other.getFlowFilesStarted()));
+        stats.setFlowFilesFinished(sum(stats.getFlowFilesFinished(), other.getFlowFilesFinished()));
+        if (stats.getMinEventTime() == null || (other.getMinEventTime() != null && other.getMinEventTime().isBefore(stats.getMinEventTime()))) {
+            stats.setMinEventTime(other.getMinEventTime());
+        }
+        if (stats.getMaxEventTime() == null || (other.getMaxEventTime() != null && other.getMaxEventTime().isAfter(stats.getMaxEventTime()))) {
+            stats.setMaxEventTime(other.getMaxEventTime());
+        }
+    }
+
+    private static Long sum(Long value, Long other) {
+        if (value == null) {
+            return other;
+        }
+        return other == null ? value : value + other;
+    }
+
+    private static int compare(String s1, String s2) {
+        if (s1 == null) {
+            return s2 == null ? 0 : 1;
+        }
+        return s2 == null ? -1 : s1.compareTo(s2);
+    }
+
+    private DateTime toDateTime(Timestamp timestamp) {
+        return timestamp != null ? new DateTime(timestamp.getTime()) : null;
+    }
+
+    /**
+     * How to group the buckets, matching the raw stats queries in the {@link NifiFeedProcessorStatisticsProvider}
+     */
+    public enum Grouping {
+        PROCESSOR_ID("FM_FEED_NAME, NIFI_PROCESSOR_ID, PROCESSOR_NAME", "PROCESSOR_NAME"),
+        PROCESSOR_NAME("FM_FEED_NAME, PROCESSOR_NAME", "PROCESSOR_NAME"),
+        TIME("FM_FEED_NAME, BUCKET_TIME", "BUCKET_TIME");
+
+        private final String columns;
+        private final String orderBy;
+
+        Grouping(String columns, String orderBy) {
+            this.columns = columns;
+            this.orderBy = orderBy;
+        }
+
+        /**
+         * @return the values identifying the group of the stats
+         */
+        private List<String> key(JpaNifiFeedProcessorStats stats) {
+            switch (this) {
+                case PROCESSOR_ID:
+                    return Arrays.asList(stats.getFeedName(), stats.getProcessorId(), stats.getProcessorName());
+                case PROCESSOR_NAME:
+                    return Arrays.asList(stats.getFeedName(), stats.getProcessorName());
+                default:
+                    return Arrays.asList(stats.getFeedName(), String.valueOf(stats.getMaxEventTime()));
+            }
+        }
+    }
+}
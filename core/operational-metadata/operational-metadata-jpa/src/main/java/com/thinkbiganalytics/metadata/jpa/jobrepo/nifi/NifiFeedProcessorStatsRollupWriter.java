@@ -0,0 +1,317 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.nifi;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.jdbc.util.DatabaseType;
+import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStatisticsProvider.Resolution;
+import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStats;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+/**
+ * Adds {@link NifiFeedProcessorStats} to the minute, hour and day rollup tables.
+ * The stats are first summed in memory by feed, processor and bucket, then each bucket is added to its table in a single upsert.
+ * MySQL and Postgres use their native upsert statements.  Other databases update the existing buckets and then insert the missing ones.
+ */
+public class NifiFeedProcessorStatsRollupWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(NifiFeedProcessorStatsRollupWriter.class);
+
+    /**
+     * The resolutions that have a rollup table
+     */
+    public static final List<Resolution> ROLLUPS = Arrays.asList(Resolution.MINUTE, Resolution.HOUR, Resolution.DAY);
+
+    private static final String[] KEY_COLUMNS = {"FM_FEED_NAME", "NIFI_PROCESSOR_ID", "BUCKET_TIME"};
+
+    /**
+     * Columns holding totals.  STATS_COUNT is the number of stats records added to the bucket.
+     */
+    private static final String[] SUM_COLUMNS = {"TOTAL_EVENTS", "DURATION_MILLIS", "BYTES_IN", "BYTES_OUT", "JOBS_STARTED", "JOBS_FINISHED", "JOBS_FAILED", "JOB_DURATION",
+                                                 "SUCCESSFUL_JOB_DURATION", "PROCESSORS_FAILED", "FLOW_FILES_STARTED", "FLOW_FILES_FINISHED", "STATS_COUNT"};
+
+    /**
+     * order buckets by key so concurrent writers lock rows in the same order
+     */
+    private static final Comparator<Bucket> BUCKET_ORDER = Comparator.comparing((Bucket bucket) -> bucket.feedName)
+        .thenComparing(bucket -> bucket.processorId)
+        .thenComparingLong(bucket -> bucket.bucketTime);
+
+    private final DataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * the database type, or null if it could not be determined
+     */
+    private DatabaseType databaseType;
+
+    private boolean databaseTypeResolved = false;
+
+    public NifiFeedProcessorStatsRollupWriter(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * @return the table holding the rollup for the resolution
+     */
+    public static String tableName(Resolution resolution) {
+        if (!ROLLUPS.contains(resolution)) {
+            throw new IllegalArgumentException("There is no rollup table for the resolution " + resolution);
+        }
+        return "NIFI_FEED_PROC_STATS_" + resolution.name();
+    }
+
+    /**
+     * Add the stats to each rollup table
+     *
+     * @param stats the new stats records
+     */
+    public void write(List<? extends NifiFeedProcessorStats> stats) {
+        if (stats == null || stats.isEmpty()) {
+            return;
+        }
+        for (Resolution resolution : ROLLUPS) {
+            List<Bucket> buckets = aggregate(stats, resolution);
+            if (!buckets.isEmpty()) {
+                upsert(tableName(resolution), buckets);
+            }
+        }
+    }
+
+    private List<Bucket> aggregate(List<? extends NifiFeedProcessorStats> stats, Resolution resolution) {
+        Map<String, Bucket> buckets = new HashMap<>();
+        for (NifiFeedProcessorStats stat : stats) {
+            DateTime time = stat.getMaxEventTime() != null ? stat.getMaxEventTime() : stat.getCollectionTime();
+            if (stat.getFeedName() == null || stat.getProcessorId() == null || time == null) {
+                continue;
+            }
+            long bucketTime = resolution.bucketStart(time).getMillis();
+            String key = stat.getFeedName() + "|" + stat.getProcessorId() + "|" + bucketTime;
+            buckets.computeIfAbsent(key, k -> new Bucket(stat.getFeedName(), stat.getProcessorId(), bucketTime)).add(stat);
+        }
+        return buckets.values().stream().sorted(BUCKET_ORDER).collect(Collectors.toList());
+    }
+
+    private void upsert(String table, List<Bucket> buckets) {
+        DatabaseType type = getDatabaseType();
+        if (DatabaseType.MYSQL.equals(type)) {
+            jdbcTemplate.batchUpdate(mysqlUpsert(table), buckets, buckets.size(), this::setInsertValues);
+        } else if (DatabaseType.POSTGRES.equals(type)) {
+            jdbcTemplate.batchUpdate(postgresUpsert(table), buckets, buckets.size(), this::setInsertValues);
+        } else {
+            updateThenInsert(table, buckets);
+        }
+    }
+
+    /**
+     * Update the existing buckets and insert those that were not found
+     */
+    private void updateThenInsert(String table, List<Bucket> buckets) {
+        int[][] updated = jdbcTemplate.batchUpdate(update(table), buckets, buckets.size(), this::setUpdateValues);
+        List<Bucket> missing = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int count : batch) {
+                if (count == 0) {
+                    missing.add(buckets.get(index));
+                }
+                index++;
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(insert(table), missing, missing.size(), this::setInsertValues);
+        }
+    }
+
+    private String insert(String table) {
+        List<String> columns = insertColumns();
+        return "INSERT INTO " + table + " (" + String.join(",", columns) + ") VALUES (" + columns.stream().map(c -> "?").collect(Collectors.joining(",")) + ")";
+    }
+
+    private String mysqlUpsert(String table) {
+        StringBuilder sql = new StringBuilder(insert(table)).append(" ON DUPLICATE KEY UPDATE PROCESSOR_NAME = VALUES(PROCESSOR_NAME)");
+        sql.append(", MIN_EVENT_TIME = LEAST(COALESCE(MIN_EVENT_TIME, VALUES(MIN_EVENT_TIME)), COALESCE(VALUES(MIN_EVENT_TIME), MIN_EVENT_TIME))");
+        sql.append(", MAX_EVENT_TIME = GREATEST(COALESCE(MAX_EVENT_TIME, VALUES(MAX_EVENT_TIME)), COALESCE(VALUES(MAX_EVENT_TIME), MAX_EVENT_TIME))");
+        for (String column : SUM_COLUMNS) {
+            sql.append(", ").append(column).append(" = ").append(column).append(" + VALUES(").append(column).append(")");
+        }
+        return sql.toString();
+    }
+
+    private String postgresUpsert(String table) {
+        StringBuilder sql = new StringBuilder(insert(table)).append(" ON CONFLICT (").append(String.join(",", KEY_COLUMNS)).append(") DO UPDATE SET PROCESSOR_NAME = EXCLUDED.PROCESSOR_NAME");
+        //LEAST and GREATEST ignore nulls in Postgres
+        sql.append(", MIN_EVENT_TIME = LEAST(").append(table).append(".MIN_EVENT_TIME, EXCLUDED.MIN_EVENT_TIME)");
+        sql.append(", MAX_EVENT_TIME = GREATEST(").append(table).append(".MAX_EVENT_TIME, EXCLUDED.MAX_EVENT_TIME)");
+        for (String column : SUM_COLUMNS) {
+            sql.append(", ").append(column).append(" = ").append(table).append(".").append(column).append(" + EXCLUDED.").append(column);
+        }
+        return sql.toString();
+    }
+
+    private String update(String table) {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET PROCESSOR_NAME = ?");
+        sql.append(", MIN_EVENT_TIME = LEAST(COALESCE(MIN_EVENT_TIME, ?), COALESCE(?, MIN_EVENT_TIME))");
+        sql.append(", MAX_EVENT_TIME = GREATEST(COALESCE(MAX_EVENT_TIME, ?), COALESCE(?, MAX_EVENT_TIME))");
+        for (String column : SUM_COLUMNS) {
+            sql.append(", ").append(column).append(" = ").append(column).append(" + ?");
+        }
+        sql.append(" WHERE ").append(Arrays.stream(KEY_COLUMNS).map(column -> column + " = ?").collect(Collectors.joining(" AND ")));
+        return sql.toString();
+    }
+
+    private List<String> insertColumns() {
+        List<String> columns = new ArrayList<>(Arrays.asList(KEY_COLUMNS));
+        columns.add("PROCESSOR_NAME");
+        columns.add("MIN_EVENT_TIME");
+        columns.add("MAX_EVENT_TIME");
+        columns.addAll(Arrays.asList(SUM_COLUMNS));
+        return columns;
+    }
+
+    private void setInsertValues(PreparedStatement ps, Bucket bucket) throws SQLException {
+        int index = 1;
+        ps.setString(index++, bucket.feedName);
+        ps.setString(index++, bucket.processorId);
+        ps.setTimestamp(index++, new Timestamp(bucket.bucketTime));
+        setString(ps, index++, bucket.processorName);
+        setTimestamp(ps, index++, bucket.minEventTime);
+        setTimestamp(ps, index++, bucket.maxEventTime);
+        for (long sum : bucket.sums) {
+            ps.setLong(index++, sum);
+        }
+    }
+
+    private void setUpdateValues(PreparedStatement ps, Bucket bucket) throws SQLException {
+        int index = 1;
+        setString(ps, index++, bucket.processorName);
+        setTimestamp(ps, index++, bucket.minEventTime);
+        setTimestamp(ps, index++, bucket.minEventTime);
+        setTimestamp(ps, index++, bucket.maxEventTime);
+        setTimestamp(ps, index++, bucket.maxEventTime);
+        for (long sum : bucket.sums) {
+            ps.setLong(index++, sum);
+        }
+        ps.setString(index++, bucket.feedName);
+        ps.setString(index++, bucket.processorId);
+        ps.setTimestamp(index, new Timestamp(bucket.bucketTime));
+    }
+
+    private void setString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.VARCHAR);
+        } else {
+            ps.setString(index, value);
+        }
+    }
+
+    private void setTimestamp(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(index, new Timestamp(value));
+        }
+    }
+
+    private DatabaseType getDatabaseType() {
+        if (!databaseTypeResolved) {
+            try {
+                databaseType = DatabaseType.fromMetaData(dataSource);
+            } catch (MetaDataAccessException e) {
+                log.warn("Unable to determine the database type.  NiFi statistics rollups will be written with separate updates and inserts. {}", e.getMessage());
+            }
+            databaseTypeResolved = true;
+        }
+        return databaseType;
+    }
+
+    /**
+     * The totals for a feed and processor within a bucket of time
+     */
+    private static class Bucket {
+
+        private final String feedName;
+        private final String processorId;
+        private final long bucketTime;
+        private final long[] sums = new long[SUM_COLUMNS.length];
+        private String processorName;
+        private Long minEventTime;
+        private Long maxEventTime;
+
+        Bucket(String feedName, String processorId, long bucketTime) {
+            this.feedName = feedName;
+            this.processorId = processorId;
+            this.bucketTime = bucketTime;
+        }
+
+        void add(NifiFeedProcessorStats stat) {
+            if (stat.getProcessorName() != null) {
+                processorName = stat.getProcessorName();
+            }
+            if (stat.getMinEventTime() != null) {
+                long time = stat.getMinEventTime().getMillis();
+                minEventTime = minEventTime == null ? time : Math.min(minEventTime, time);
+            }
+            if (stat.getMaxEventTime() != null) {
+                long time = stat.getMaxEventTime().getMillis();
+                maxEventTime = maxEventTime == null ? time : Math.max(maxEventTime, time);
+            }
+            int index = 0;
+            sums[index++] += value(stat.getTotalCount());
+            sums[index++] += value(stat.getDuration());
+            sums[index++] += value(stat.getBytesIn());
+            sums[index++] += value(stat.getBytesOut());
+            sums[index++] += value(stat.getJobsStarted());
+            sums[index++] += value(stat.getJobsFinished());
+            sums[index++] += value(stat.getJobsFailed());
+            sums[index++] += value(stat.getJobDuration());
+            sums[index++] += value(stat.getSuccessfulJobDuration());
+            sums[index++] += value(stat.getProcessorsFailed());
+            sums[index++] += value(stat.getFlowFilesStarted());
+            sums[index++] += value(stat.getFlowFilesFinished());
+            sums[index] += 1;
+        }
+
+        private static long value(Long value) {
+            return value == null ? 0L : value;
+        }
+    }
+}
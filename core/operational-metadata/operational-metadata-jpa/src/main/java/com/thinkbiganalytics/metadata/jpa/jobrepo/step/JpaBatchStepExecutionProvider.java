@@ -27,6 +27,7 @@ import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiEventStepExecution;
 import com.thinkbiganalytics.metadata.api.jobrepo.step.BatchStepExecution;
 import com.thinkbiganalytics.metadata.api.jobrepo.step.BatchStepExecutionProvider;
 import com.thinkbiganalytics.metadata.api.jobrepo.step.FailedStepExecutionListener;
+import com.thinkbiganalytics.metadata.jpa.feed.FeedSummaryUpdater;
 import com.thinkbiganalytics.metadata.jpa.jobrepo.job.JpaBatchJobExecution;
 import com.thinkbiganalytics.metadata.jpa.jobrepo.nifi.JpaNifiEventStepExecution;
 import com.thinkbiganalytics.metadata.jpa.jobrepo.nifi.NifiEventStepExecutionRepository;
@@ -45,6 +46,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.inject.Inject;
+
 /**
  * Provider for accessing {@link JpaBatchStepExecution}
  */
@@ -60,6 +63,9 @@ public class JpaBatchStepExecutionProvider implements BatchStepExecutionProvider
 
     private List<FailedStepExecutionListener> failedStepExecutionListeners = new ArrayList<>();
 
+    @Inject
+    private FeedSummaryUpdater feedSummaryUpdater;
+
     @Autowired
     public JpaBatchStepExecutionProvider(BatchStepExecutionRepository nifiStepExecutionRepository,
                                          NifiEventStepExecutionRepository nifiEventStepExecutionRepository
@@ -201,7 +207,10 @@ public class JpaBatchStepExecutionProvider implements BatchStepExecutionProvider
             stepExecution.addStepExecutionContext(stepExecutionContext);
             if (KyloProcessorFlowType.WARNING.equals(event.getProcessorType())) {
                 stepExecution.setExitCode(ExecutionConstants.ExitCode.WARNING);
-                ((JpaBatchJobExecution) (stepExecution.getJobExecution())).setExitCode(ExecutionConstants.ExitCode.WARNING);
+                JpaBatchJobExecution jobExecution = (JpaBatchJobExecution) stepExecution.getJobExecution();
+                jobExecution.setExitCode(ExecutionConstants.ExitCode.WARNING);
+                //the warning changes the feed health, so apply it to the summary tables
+                feedSummaryUpdater.jobExecutionChanged(jobExecution);
             } else if (KyloProcessorFlowType.FAILURE.equals(event.getProcessorType())) {
                 stepExecution.setExitCode(ExecutionConstants.ExitCode.FAILED);
             }
@@ -0,0 +1,235 @@
+package com.thinkbiganalytics.metadata.jpa.purge;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Copies rows to gzip compressed CSV files as they are purged.
+ * Each purge run writes to its own directory, named for the time of the run, with one {@code TABLE_NAME.csv.gz} file per table.
+ * The rows of a chunk are first written to a {@code TABLE_NAME.csv.pending} file, which is appended to the archive by {@link #commit()} once the delete
+ * of the chunk has committed, and removed by {@link #rollback()} if it did not.  A pending file that could not be appended is left in place.
+ */
+public class OpsManagerPurgeArchiver implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(OpsManagerPurgeArchiver.class);
+
+    private final File directory;
+
+    private final Map<String, Writer> writers = new HashMap<>();
+
+    /**
+     * Writers for the rows archived since the last commit, by table
+     */
+    private final Map<String, Writer> pendingWriters = new LinkedHashMap<>();
+
+    /**
+     * The CSV header of each table, written when its archive file is created
+     */
+    private final Map<String, String> headers = new HashMap<>();
+
+    public OpsManagerPurgeArchiver(File baseDirectory, DateTime runTime) {
+        this.directory = new File(baseDirectory, DateTimeFormat.forPattern("yyyyMMdd-HHmmss").print(runTime));
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Write the rows of the table matching the where clause to the pending file for the table.  Call before the rows are deleted.
+     *
+     * @param jdbcTemplate the template used to query the rows
+     * @param table        the table name
+     * @param where        the where clause, without the WHERE keyword
+     * @param args         the arguments for the where clause
+     * @return the number of rows written
+     */
+    public int archive(JdbcTemplate jdbcTemplate, String table, String where, Object... args) {
+        int[] count = {0};
+        jdbcTemplate.query("SELECT * FROM " + table + " WHERE " + where, args, (RowCallbackHandler) rs -> {
+            try {
+                ResultSetMetaData metaData = rs.getMetaData();
+                if (!headers.containsKey(table)) {
+                    StringBuilder header = new StringBuilder();
+                    for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                        appendValue(header, column, metaData.getColumnLabel(column));
+                    }
+                    headers.put(table, header.append('\n').toString());
+                }
+                Writer writer = pendingWriters.get(table);
+                if (writer == null) {
+                    writer = openPending(table);
+                }
+                StringBuilder row = new StringBuilder();
+                for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                    Object value = rs.getObject(column);
+                    appendValue(row, column, value instanceof Timestamp ? new DateTime(((Timestamp) value).getTime()).toString() : value);
+                }
+                writer.write(row.append('\n').toString());
+                count[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to archive rows from " + table + " to " + directory, e);
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * Append the rows archived since the last commit to the archive files.  Call once the deletes of those rows have committed.
+     */
+    public void commit() {
+        Iterator<Map.Entry<String, Writer>> pending = pendingWriters.entrySet().iterator();
+        while (pending.hasNext()) {
+            Map.Entry<String, Writer> entry = pending.next();
+            String table = entry.getKey();
+            File pendingFile = pendingFile(table);
+            try {
+                entry.getValue().close();
+                Writer writer = writers.get(table);
+                if (writer == null) {
+                    writer = open(table);
+                    writer.write(headers.get(table));
+                }
+                try (Reader reader = new InputStreamReader(new FileInputStream(pendingFile), StandardCharsets.UTF_8)) {
+                    char[] buffer = new char[8192];
+                    int read;
+                    while ((read = reader.read(buffer)) != -1) {
+                        writer.write(buffer, 0, read);
+                    }
+                }
+                writer.flush();
+            } catch (IOException e) {
+                closePending();
+                throw new UncheckedIOException("Unable to archive rows from " + table + " to " + directory + ". The purged rows are kept in the pending files", e);
+            }
+            pending.remove();
+            if (!pendingFile.delete()) {
+                log.warn("Unable to remove the archived pending file {}", pendingFile);
+            }
+        }
+    }
+
+    /**
+     * Discard the rows archived since the last commit, as their deletes were rolled back
+     */
+    public void rollback() {
+        for (String table : pendingWriters.keySet()) {
+            try {
+                pendingWriters.get(table).close();
+            } catch (IOException e) {
+                log.warn("Unable to close the pending {} archive in {}", table, directory, e);
+            }
+            File pendingFile = pendingFile(table);
+            if (!pendingFile.delete()) {
+                log.warn("Unable to remove the pending file {} of a rolled back purge", pendingFile);
+            }
+        }
+        pendingWriters.clear();
+    }
+
+    private Writer openPending(String table) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create the archive directory " + directory);
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(pendingFile(table)), StandardCharsets.UTF_8));
+        pendingWriters.put(table, writer);
+        return writer;
+    }
+
+    private File pendingFile(String table) {
+        return new File(directory, table + ".csv.pending");
+    }
+
+    private Writer open(String table) throws IOException {
+        File file = new File(directory, table + ".csv.gz");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file, true), true), StandardCharsets.UTF_8));
+        writers.put(table, writer);
+        log.info("Archiving purged {} rows to {}", table, file);
+        return writer;
+    }
+
+    private void closePending() {
+        for (Map.Entry<String, Writer> entry : pendingWriters.entrySet()) {
+            try {
+                entry.getValue().close();
+            } catch (IOException e) {
+                log.error("Unable to close the pending {} archive in {}", entry.getKey(), directory, e);
+            }
+        }
+        pendingWriters.clear();
+    }
+
+    private static void appendValue(StringBuilder builder, int column, Object value) {
+        if (column > 1) {
+            builder.append(',');
+        }
+        if (value != null) {
+            String text = value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                builder.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                builder.append(text);
+            }
+        }
+    }
+
+    /**
+     * Close the archive files.  Rows that were never committed or rolled back are left in their pending files.
+     */
+    @Override
+    public void close() {
+        closePending();
+        for (Map.Entry<String, Writer> entry : writers.entrySet()) {
+            try {
+                entry.getValue().close();
+            } catch (IOException e) {
+                log.error("Unable to close the {} archive in {}", entry.getKey(), directory, e);
+            }
+        }
+        writers.clear();
+    }
+}
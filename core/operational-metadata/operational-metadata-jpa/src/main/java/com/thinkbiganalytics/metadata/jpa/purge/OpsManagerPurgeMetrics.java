@@ -0,0 +1,147 @@
+package com.thinkbiganalytics.metadata.jpa.purge;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running totals for the {@link OpsManagerPurgeService}.  The counts are kept for the life of the service.
+ */
+public class OpsManagerPurgeMetrics {
+
+    private final Map<String, AtomicLong> rowsPurged = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> rowsArchived = new ConcurrentHashMap<>();
+
+    private final AtomicLong runs = new AtomicLong();
+
+    private final AtomicLong failedRuns = new AtomicLong();
+
+    private final AtomicLong chunks = new AtomicLong();
+
+    private final AtomicLong purgeTimeMillis = new AtomicLong();
+
+    private volatile long lastRunTime;
+
+    private volatile long lastRunDurationMillis;
+
+    private volatile long lastRunRowsPurged;
+
+    void addRowsPurged(String table, long rows) {
+        rowsPurged.computeIfAbsent(table, t -> new AtomicLong()).addAndGet(rows);
+    }
+
+    void addRowsArchived(String table, long rows) {
+        rowsArchived.computeIfAbsent(table, t -> new AtomicLong()).addAndGet(rows);
+    }
+
+    void chunkCompleted() {
+        chunks.incrementAndGet();
+    }
+
+    void runCompleted(long startTime, long durationMillis, long rows, boolean failed) {
+        runs.incrementAndGet();
+        if (failed) {
+            failedRuns.incrementAndGet();
+        }
+        purgeTimeMillis.addAndGet(durationMillis);
+        lastRunTime = startTime;
+        lastRunDurationMillis = durationMillis;
+        lastRunRowsPurged = rows;
+    }
+
+    /**
+     * @return the rows deleted from each table, keyed by table name
+     */
+    public Map<String, Long> getRowsPurged() {
+        return snapshot(rowsPurged);
+    }
+
+    /**
+     * @return the rows written to archive files for each table, keyed by table name
+     */
+    public Map<String, Long> getRowsArchived() {
+        return snapshot(rowsArchived);
+    }
+
+    /**
+     * @return the rows deleted from all tables
+     */
+    public long getTotalRowsPurged() {
+        return rowsPurged.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public long getRuns() {
+        return runs.get();
+    }
+
+    public long getFailedRuns() {
+        return failedRuns.get();
+    }
+
+    /**
+     * @return the number of chunks, each committed in its own transaction
+     */
+    public long getChunks() {
+        return chunks.get();
+    }
+
+    /**
+     * @return the time spent purging across all runs
+     */
+    public long getPurgeTimeMillis() {
+        return purgeTimeMillis.get();
+    }
+
+    public long getLastRunTime() {
+        return lastRunTime;
+    }
+
+    public long getLastRunDurationMillis() {
+        return lastRunDurationMillis;
+    }
+
+    public long getLastRunRowsPurged() {
+        return lastRunRowsPurged;
+    }
+
+    private static Map<String, Long> snapshot(Map<String, AtomicLong> counts) {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counts.forEach((table, count) -> snapshot.put(table, count.get()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    @Override
+    public String toString() {
+        return "OpsManagerPurgeMetrics{" +
+               "runs=" + runs +
+               ", failedRuns=" + failedRuns +
+               ", chunks=" + chunks +
+               ", purgeTimeMillis=" + purgeTimeMillis +
+               ", rowsPurged=" + getRowsPurged() +
+               ", rowsArchived=" + getRowsArchived() +
+               '}';
+    }
+}
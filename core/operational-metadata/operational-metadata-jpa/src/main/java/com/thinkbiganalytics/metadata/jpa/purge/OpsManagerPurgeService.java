@@ -0,0 +1,415 @@
+package com.thinkbiganalytics.metadata.jpa.purge;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStatisticsProvider;
+import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStatisticsProvider.Resolution;
+import com.thinkbiganalytics.metadata.jpa.feed.FeedSummaryUpdater;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.nifi.NifiFeedProcessorStatsRollupWriter;
+
+import org.apache.commons.lang3.StringUtils;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+
+/**
+ * Removes operational history that is older than the retention period of its feed.
+ *
+ * The history of each feed is removed in chunks of at most {@code kylo.ops.mgr.purge.chunk-size} keys, walking each table in primary key order.
+ * Every chunk is deleted in its own transaction so that locks are held briefly and the undo log stays small.
+ * The most recent job execution of a feed is never removed, nor are job executions that have not finished.
+ *
+ * When {@code kylo.ops.mgr.purge.archive.dir} is set the rows are copied to compressed files, see {@link OpsManagerPurgeArchiver}, before they are deleted.
+ */
+@Service
+public class OpsManagerPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(OpsManagerPurgeService.class);
+
+    private static final String SELECT_FEED_NAMES = "SELECT NAME FROM FEED";
+
+    private static final String SELECT_LATEST_JOB_EXECUTION = "SELECT MAX(e.JOB_EXECUTION_ID) FROM BATCH_JOB_EXECUTION e "
+                                                              + "INNER JOIN BATCH_JOB_INSTANCE i ON i.JOB_INSTANCE_ID = e.JOB_INSTANCE_ID "
+                                                              + "WHERE i.JOB_NAME = ?";
+
+    private static final String SELECT_JOB_EXECUTION_KEYS = "SELECT e.JOB_EXECUTION_ID, e.JOB_INSTANCE_ID FROM BATCH_JOB_EXECUTION e "
+                                                            + "INNER JOIN BATCH_JOB_INSTANCE i ON i.JOB_INSTANCE_ID = e.JOB_INSTANCE_ID "
+                                                            + "WHERE i.JOB_NAME = ? AND e.END_TIME < ? AND e.JOB_EXECUTION_ID > ? AND e.JOB_EXECUTION_ID < ? "
+                                                            + "ORDER BY e.JOB_EXECUTION_ID";
+
+    /**
+     * Tables keyed by JOB_EXECUTION_ID, children first
+     */
+    private static final List<String> JOB_EXECUTION_TABLES = Collections.unmodifiableList(Arrays.asList("BATCH_NIFI_STEP", "BATCH_EXECUTION_CONTEXT_VALUES",
+                                                                                                         "BATCH_STEP_EXECUTION_CTX_VALS",
+                                                                                                         "BATCH_STEP_EXECUTION", "BATCH_NIFI_JOB",
+                                                                                                         "BATCH_JOB_EXECUTION_CTX_VALS", "BATCH_JOB_EXECUTION_PARAMS",
+                                                                                                         "BATCH_JOB_EXECUTION"));
+
+    private static final String ORPHANED_JOB_INSTANCES = " AND NOT EXISTS (SELECT 1 FROM BATCH_JOB_EXECUTION e WHERE e.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID)";
+
+    /**
+     * Relations recorded by an event in the chunk
+     */
+    private static final String EVENT_ROOT_FLOW_FILES = "EXISTS (SELECT 1 FROM NIFI_EVENT WHERE NIFI_EVENT.EVENT_ID = NIFI_RELATED_ROOT_FLOW_FILES.EVENT_ID "
+                                                        + "AND NIFI_EVENT.FLOW_FILE_ID = NIFI_RELATED_ROOT_FLOW_FILES.EVENT_FLOW_FILE_ID AND ";
+
+    /**
+     * Relations of a root flow file that has an event in the chunk, matching the delete_feed_jobs procedure
+     */
+    private static final String FLOW_FILE_ROOT_FLOW_FILES = "EXISTS (SELECT 1 FROM NIFI_EVENT WHERE NIFI_EVENT.FLOW_FILE_ID = NIFI_RELATED_ROOT_FLOW_FILES.FLOW_FILE_ID AND ";
+
+    @Autowired
+    @Qualifier("dataSource")
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("operationalMetadataTransactionManager")
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private FeedSummaryUpdater feedSummaryUpdater;
+
+    @Autowired
+    private NifiFeedProcessorStatisticsProvider statisticsProvider;
+
+    /**
+     * The days of history kept for feeds without an entry in {@link #feedRetentionDays}
+     */
+    @Value("${kylo.ops.mgr.purge.retention.default-days:90}")
+    private int defaultRetentionDays;
+
+    /**
+     * Comma separated list of category.feed=days overrides
+     */
+    @Value("${kylo.ops.mgr.purge.retention.feeds:}")
+    private String feedRetentionDays;
+
+    /**
+     * The maximum number of keys removed in one transaction
+     */
+    @Value("${kylo.ops.mgr.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * The directory for archive files.  Rows are not archived when blank.
+     */
+    @Value("${kylo.ops.mgr.purge.archive.dir:}")
+    private String archiveDirectory;
+
+    private final OpsManagerPurgeMetrics metrics = new OpsManagerPurgeMetrics();
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private OpsManagerRetentionPolicy retentionPolicy;
+
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Used to find the keys of the next chunk.  Limited to {@link #chunkSize} rows.
+     */
+    private JdbcTemplate keyTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    private void init() {
+        retentionPolicy = OpsManagerRetentionPolicy.parse(defaultRetentionDays, feedRetentionDays);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        setChunkSize(chunkSize);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public OpsManagerPurgeMetrics getMetrics() {
+        return metrics;
+    }
+
+    public OpsManagerRetentionPolicy getRetentionPolicy() {
+        return retentionPolicy;
+    }
+
+    public void setRetentionPolicy(OpsManagerRetentionPolicy retentionPolicy) {
+        this.retentionPolicy = retentionPolicy;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize < 1 ? 1 : chunkSize;
+        keyTemplate = new JdbcTemplate(dataSource);
+        keyTemplate.setMaxRows(this.chunkSize);
+    }
+
+    public void setArchiveDirectory(String archiveDirectory) {
+        this.archiveDirectory = archiveDirectory;
+    }
+
+    /**
+     * Purge the history of every feed that is older than its retention period
+     *
+     * @return the number of rows deleted, or 0 if a purge is already running
+     */
+    public long purge() {
+        return purge(DateTime.now());
+    }
+
+    /**
+     * Purge the history of every feed that is older than its retention period as of the supplied time
+     *
+     * @param now the time the retention periods are measured from
+     * @return the number of rows deleted, or 0 if a purge is already running
+     */
+    public long purge(DateTime now) {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Skipping the operational history purge since the previous purge is still running");
+            return 0L;
+        }
+        long start = System.currentTimeMillis();
+        long rows = 0L;
+        boolean failed = true;
+        OpsManagerPurgeArchiver archiver = StringUtils.isNotBlank(archiveDirectory) ? new OpsManagerPurgeArchiver(new File(archiveDirectory), now) : null;
+        try {
+            for (String feedName : jdbcTemplate.queryForList(SELECT_FEED_NAMES, String.class)) {
+                DateTime cutoff = retentionPolicy.getCutoff(feedName, now);
+                if (cutoff != null) {
+                    rows += purgeFeed(feedName, cutoff, archiver);
+                }
+            }
+            failed = false;
+        } finally {
+            if (archiver != null) {
+                archiver.close();
+            }
+            long duration = System.currentTimeMillis() - start;
+            metrics.runCompleted(start, duration, rows, failed);
+            running.set(false);
+            log.info("Operational history purge {} after {} ms. Removed {} rows. {}", failed ? "failed" : "finished", duration, rows, metrics);
+        }
+        return rows;
+    }
+
+    /**
+     * Purge the history of a single feed
+     *
+     * @param feedName the feed system name, {@code category.feed}
+     * @param cutoff   history before this time is removed
+     * @param archiver the archive for the rows, or null to delete them without archiving
+     * @return the number of rows deleted
+     */
+    public long purgeFeed(String feedName, DateTime cutoff, OpsManagerPurgeArchiver archiver) {
+        Timestamp cutoffTime = new Timestamp(cutoff.getMillis());
+        long rows = purgeJobExecutions(feedName, cutoff.getMillis(), archiver);
+        if (rows > 0) {
+            feedSummaryUpdater.rebuildFeed(feedName);
+        }
+        rows += purgeByKeyRange(archiver, "NIFI_EVENT", "EVENT_ID", "FM_FEED_NAME = ? AND EVENT_TIME < ?", new Object[]{feedName, cutoffTime},
+                                (chunk, rangePredicate, rangeArgs) -> {
+                                    chunk.delete("NIFI_RELATED_ROOT_FLOW_FILES", FLOW_FILE_ROOT_FLOW_FILES + rangePredicate + ")", rangeArgs);
+                                    chunk.delete("NIFI_RELATED_ROOT_FLOW_FILES", EVENT_ROOT_FLOW_FILES + rangePredicate + ")", rangeArgs);
+                                });
+        rows += purgeByKeyRange(archiver, "NIFI_FEED_PROCESSOR_STATS", "id", "FM_FEED_NAME = ? AND COLLECTION_TIME < ?", new Object[]{feedName, cutoffTime}, null);
+        rows += purgeRollups(feedName, cutoff, archiver);
+        if (rows > 0) {
+            log.debug("Purged {} rows of history before {} for the feed {}", rows, cutoff, feedName);
+        }
+        return rows;
+    }
+
+    /**
+     * Remove the finished job executions, along with their steps, context and parameters, walking the executions in JOB_EXECUTION_ID order.
+     * END_TIME holds epoch milliseconds rather than a timestamp.
+     */
+    private long purgeJobExecutions(String feedName, long cutoffMillis, OpsManagerPurgeArchiver archiver) {
+        Long latestJobExecutionId = jdbcTemplate.queryForObject(SELECT_LATEST_JOB_EXECUTION, Long.class, feedName);
+        if (latestJobExecutionId == null) {
+            return 0L;
+        }
+        long rows = 0L;
+        long after = Long.MIN_VALUE;
+        while (true) {
+            Map<Long, Long> jobExecutions = new LinkedHashMap<>();
+            keyTemplate.query(SELECT_JOB_EXECUTION_KEYS, new Object[]{feedName, cutoffMillis, after, latestJobExecutionId},
+                              (RowCallbackHandler) rs -> jobExecutions.put(rs.getLong(1), rs.getLong(2)));
+            if (jobExecutions.isEmpty()) {
+                break;
+            }
+            Object[] jobExecutionIds = jobExecutions.keySet().toArray();
+            Set<Long> jobInstanceIds = new LinkedHashSet<>(jobExecutions.values());
+            rows += runChunk(archiver, chunk -> {
+                for (String table : JOB_EXECUTION_TABLES) {
+                    chunk.delete(table, "JOB_EXECUTION_ID IN " + placeholders(jobExecutionIds.length), jobExecutionIds);
+                }
+                chunk.delete("BATCH_JOB_INSTANCE", "JOB_INSTANCE_ID IN " + placeholders(jobInstanceIds.size()) + ORPHANED_JOB_INSTANCES, jobInstanceIds.toArray());
+            });
+            after = (Long) jobExecutionIds[jobExecutionIds.length - 1];
+            if (jobExecutionIds.length < chunkSize) {
+                break;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Remove the rollup buckets that end before the cutoff.  The provider's earliest bucket times are then cleared, as they may have been among the buckets removed.
+     */
+    private long purgeRollups(String feedName, DateTime cutoff, OpsManagerPurgeArchiver archiver) {
+        long rows = 0L;
+        for (Resolution resolution : NifiFeedProcessorStatsRollupWriter.ROLLUPS) {
+            Timestamp lastBucketTime = new Timestamp(cutoff.getMillis() - resolution.getMillis());
+            rows += purgeByKeyRange(archiver, NifiFeedProcessorStatsRollupWriter.tableName(resolution), "BUCKET_TIME", "FM_FEED_NAME = ? AND BUCKET_TIME <= ?",
+                                    new Object[]{feedName, lastBucketTime}, null);
+        }
+        if (rows > 0) {
+            statisticsProvider.invalidateRollupBucketTimes();
+        }
+        return rows;
+    }
+
+    /**
+     * Remove the rows of a table matching the predicate.  Each chunk covers the key range from the first to the last of the next {@link #chunkSize} matching keys.
+     *
+     * @param archiver   the archive for the rows, or null
+     * @param table      the table
+     * @param keyColumn  the primary key column, or the leading column of the primary key
+     * @param predicate  selects the rows to remove
+     * @param args       the arguments for the predicate
+     * @param dependents removes rows in other tables that refer to the chunk, or null
+     * @return the number of rows deleted
+     */
+    private long purgeByKeyRange(OpsManagerPurgeArchiver archiver, String table, String keyColumn, String predicate, Object[] args, DependentRows dependents) {
+        long rows = 0L;
+        Object after = null;
+        while (true) {
+            List<Object> keys;
+            if (after == null) {
+                keys = keyTemplate.queryForList("SELECT " + keyColumn + " FROM " + table + " WHERE " + predicate + " ORDER BY " + keyColumn, Object.class, args);
+            } else {
+                keys = keyTemplate.queryForList("SELECT " + keyColumn + " FROM " + table + " WHERE " + predicate + " AND " + keyColumn + " > ? ORDER BY " + keyColumn,
+                                                Object.class, append(args, after));
+            }
+            if (keys.isEmpty()) {
+                break;
+            }
+            String rangePredicate = predicate + " AND " + keyColumn + " >= ? AND " + keyColumn + " <= ?";
+            Object[] rangeArgs = append(args, keys.get(0), keys.get(keys.size() - 1));
+            rows += runChunk(archiver, chunk -> {
+                if (dependents != null) {
+                    dependents.delete(chunk, rangePredicate, rangeArgs);
+                }
+                chunk.delete(table, rangePredicate, rangeArgs);
+            });
+            after = keys.get(keys.size() - 1);
+            if (keys.size() < chunkSize) {
+                break;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Run the deletes of one chunk in a transaction, writing the archived rows and recording the metrics once the transaction commits
+     */
+    private long runChunk(OpsManagerPurgeArchiver archiver, Consumer<PurgeChunk> deletes) {
+        PurgeChunk chunk;
+        try {
+            chunk = transactionTemplate.execute(status -> {
+                PurgeChunk purgeChunk = new PurgeChunk(archiver);
+                deletes.accept(purgeChunk);
+                return purgeChunk;
+            });
+        } catch (RuntimeException | Error e) {
+            if (archiver != null) {
+                archiver.rollback();
+            }
+            throw e;
+        }
+        if (archiver != null) {
+            archiver.commit();
+        }
+        chunk.purged.forEach(metrics::addRowsPurged);
+        chunk.archived.forEach(metrics::addRowsArchived);
+        metrics.chunkCompleted();
+        return chunk.purged.values().stream().mapToLong(Integer::longValue).sum();
+    }
+
+    private static String placeholders(int count) {
+        return "(" + String.join(",", Collections.nCopies(count, "?")) + ")";
+    }
+
+    private static Object[] append(Object[] args, Object... more) {
+        Object[] all = Arrays.copyOf(args, args.length + more.length);
+        System.arraycopy(more, 0, all, args.length, more.length);
+        return all;
+    }
+
+    /**
+     * Removes the rows of other tables that refer to a chunk before the chunk itself is removed
+     */
+    @FunctionalInterface
+    private interface DependentRows {
+
+        void delete(PurgeChunk chunk, String rangePredicate, Object[] rangeArgs);
+    }
+
+    /**
+     * The deletes run in one transaction, with the rows removed and archived from each table
+     */
+    private class PurgeChunk {
+
+        private final OpsManagerPurgeArchiver archiver;
+
+        private final Map<String, Integer> purged = new LinkedHashMap<>();
+
+        private final Map<String, Integer> archived = new LinkedHashMap<>();
+
+        PurgeChunk(OpsManagerPurgeArchiver archiver) {
+            this.archiver = archiver;
+        }
+
+        void delete(String table, String where, Object[] args) {
+            if (archiver != null) {
+                archived.merge(table, archiver.archive(jdbcTemplate, table, where, args), Integer::sum);
+            }
+            purged.merge(table, jdbcTemplate.update("DELETE FROM " + table + " WHERE " + where, args), Integer::sum);
+        }
+    }
+}
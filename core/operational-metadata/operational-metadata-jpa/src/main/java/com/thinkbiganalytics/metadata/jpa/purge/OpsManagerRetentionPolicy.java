@@ -0,0 +1,93 @@
+package com.thinkbiganalytics.metadata.jpa.purge;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.commons.lang3.StringUtils;
+import org.joda.time.DateTime;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The number of days of operational history to keep for each feed.
+ * Feeds without an override use the default.  A value of zero or less keeps the history of that feed forever.
+ */
+public class OpsManagerRetentionPolicy {
+
+    private final int defaultDays;
+
+    private final Map<String, Integer> feedDays;
+
+    public OpsManagerRetentionPolicy(int defaultDays, Map<String, Integer> feedDays) {
+        this.defaultDays = defaultDays;
+        this.feedDays = feedDays != null ? Collections.unmodifiableMap(new HashMap<>(feedDays)) : Collections.emptyMap();
+    }
+
+    /**
+     * Parse the feed overrides from a comma separated list of {@code category.feed=days} entries
+     *
+     * @param defaultDays the days to keep for feeds that are not listed
+     * @param feedDays    the overrides, may be blank
+     * @return the policy
+     * @throws IllegalArgumentException if an entry is not in the form {@code category.feed=days}
+     */
+    public static OpsManagerRetentionPolicy parse(int defaultDays, String feedDays) {
+        Map<String, Integer> overrides = new HashMap<>();
+        if (StringUtils.isNotBlank(feedDays)) {
+            for (String entry : StringUtils.split(feedDays, ',')) {
+                String feed = StringUtils.trim(StringUtils.substringBeforeLast(entry, "="));
+                String days = StringUtils.trim(StringUtils.substringAfterLast(entry, "="));
+                if (StringUtils.isBlank(feed) || !entry.contains("=")) {
+                    throw new IllegalArgumentException("Invalid feed retention entry '" + entry + "'. Expected category.feed=days");
+                }
+                try {
+                    overrides.put(feed, Integer.parseInt(days));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid number of days in the feed retention entry '" + entry + "'", e);
+                }
+            }
+        }
+        return new OpsManagerRetentionPolicy(defaultDays, overrides);
+    }
+
+    public int getDefaultDays() {
+        return defaultDays;
+    }
+
+    /**
+     * @param feedName the feed system name, {@code category.feed}
+     * @return the days to keep for the feed
+     */
+    public int getRetentionDays(String feedName) {
+        return feedDays.getOrDefault(feedName, defaultDays);
+    }
+
+    /**
+     * @param feedName the feed system name, {@code category.feed}
+     * @param now      the time of the purge
+     * @return the time before which history is removed, or null if the history of the feed is kept forever
+     */
+    public DateTime getCutoff(String feedName, DateTime now) {
+        int days = getRetentionDays(feedName);
+        return days > 0 ? now.minusDays(days) : null;
+    }
+}
@@ -317,5 +317,23 @@ public class GenericQueryDslFilter {
         return null;
     }
 
+    /**
+     * Build the keyset filter that continues a listing ordered by {@code sortPath} descending with nulls last, and then {@code idPath} descending, after the row identified by the token.
+     * Matches {@code sortPath < lastSortKey OR (sortPath = lastSortKey AND idPath < lastId) OR sortPath IS NULL} so an index on (sortPath, idPath) can seek to the page rather than skip over an offset.
+     * Once the listing has reached the rows without a value for the sort column it continues on {@code sortPath IS NULL AND idPath < lastId}.
+     *
+     * @param sortPath the sort column, Example: QJpaBatchJobExecution.jpaBatchJobExecution.startTimeMillis
+     * @param idPath   the unique id used to break ties
+     * @param after    the last row of the previous page, or null for the first page
+     */
+    public static BooleanBuilder buildSeekFilter(NumberPath<Long> sortPath, NumberPath<Long> idPath, SeekToken after) {
+        BooleanBuilder booleanBuilder = new BooleanBuilder();
+        if (after != null && after.getSortKey() != null) {
+            booleanBuilder.and(sortPath.lt(after.getSortKey()).or(sortPath.eq(after.getSortKey()).and(idPath.lt(after.getId()))).or(sortPath.isNull()));
+        } else if (after != null) {
+            booleanBuilder.and(sortPath.isNull().and(idPath.lt(after.getId())));
+        }
+        return booleanBuilder;
+    }
 
 }
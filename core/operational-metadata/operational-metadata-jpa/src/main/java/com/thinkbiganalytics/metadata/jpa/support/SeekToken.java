@@ -0,0 +1,85 @@
+package com.thinkbiganalytics.metadata.jpa.support;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The position of the last row of a {@link com.thinkbiganalytics.metadata.api.SeekPage}: the value of its sort column, which may be null, and its id.
+ * Encoded as an opaque url safe string so callers don't depend on the columns behind it.
+ */
+public class SeekToken {
+
+    private static final String VERSION = "1";
+
+    private static final String SEPARATOR = ":";
+
+    private final Long sortKey;
+
+    private final long id;
+
+    public SeekToken(Long sortKey, long id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    /**
+     * Parse a token created by {@link #encode()}
+     *
+     * @param token the continuation token
+     * @return the position, or null if the token is blank and the first page should be read
+     * @throws IllegalArgumentException if the token is not valid
+     */
+    public static SeekToken decode(String token) {
+        if (StringUtils.isBlank(token)) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+            if (parts.length == 3 && VERSION.equals(parts[0])) {
+                return new SeekToken(parts[1].isEmpty() ? null : Long.valueOf(parts[1]), Long.parseLong(parts[2]));
+            }
+        } catch (IllegalArgumentException e) {
+            //not Base64, or a NumberFormatException
+        }
+        throw new IllegalArgumentException("Invalid continuation token " + token);
+    }
+
+    public String encode() {
+        String value = VERSION + SEPARATOR + (sortKey != null ? sortKey : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Long getSortKey() {
+        return sortKey;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "SeekToken{sortKey=" + sortKey + ", id=" + id + '}';
+    }
+}
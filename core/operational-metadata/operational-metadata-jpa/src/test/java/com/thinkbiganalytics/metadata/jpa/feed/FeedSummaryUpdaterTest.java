@@ -0,0 +1,179 @@
+package com.thinkbiganalytics.metadata.jpa.feed;
+
+/*-
+ * #%L
+ * kylo-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeed;
+import com.thinkbiganalytics.metadata.api.jobrepo.ExecutionConstants;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecutionProvider;
+import com.thinkbiganalytics.metadata.config.OperationalMetadataConfig;
+import com.thinkbiganalytics.metadata.jpa.TestJpaConfiguration;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.job.BatchJobExecutionRepository;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.job.JpaBatchJobExecution;
+import com.thinkbiganalytics.spring.CommonsSpringConfiguration;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+
+@SuppressWarnings("SpringJavaAutowiringInspection")
+@RunWith(SpringJUnit4ClassRunner.class)
+@TestPropertySource(locations = "classpath:test-application.properties")
+@SpringApplicationConfiguration(classes = {CommonsSpringConfiguration.class, OperationalMetadataConfig.class, TestJpaConfiguration.class})
+@Transactional
+public class FeedSummaryUpdaterTest {
+
+    private static final String FEED = "summary.feed";
+
+    private static final String CHECK_FEED = "summary.check_feed";
+
+    @Autowired
+    FeedSummaryUpdater feedSummaryUpdater;
+
+    @Autowired
+    BatchJobExecutionProvider batchJobExecutionProvider;
+
+    @Autowired
+    BatchJobExecutionRepository jobExecutionRepository;
+
+    @Autowired
+    @Qualifier("operationalMetadataEntityManagerFactory")
+    EntityManager entityManager;
+
+    @Autowired
+    @Qualifier("dataSource")
+    DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private DateTime now;
+
+    @Before
+    public void setup() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        now = DateTime.now();
+    }
+
+    private void insertJobExecution(long id, String feedName, String status, String exitCode, DateTime endTime) {
+        jdbcTemplate.update("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY, FEED_ID) SELECT ?, 0, NAME, ?, ID FROM FEED WHERE NAME = ?",
+                            id, "key-" + id, feedName);
+        jdbcTemplate.update("INSERT INTO BATCH_JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, JOB_INSTANCE_ID, STATUS, EXIT_CODE, START_TIME, END_TIME) VALUES (?, 0, ?, ?, ?, ?, ?)",
+                            id, id, status, exitCode, now.minusHours(1).getMillis(), endTime != null ? endTime.getMillis() : null);
+    }
+
+    /**
+     * A feed with a completed, a failed and a running job, checked by a feed with one completed job
+     */
+    private void createJobs() {
+        JpaOpsManagerFeed feed = new JpaOpsManagerFeed(OpsManagerFeedId.create(), FEED);
+        JpaOpsManagerFeed checkFeed = new JpaOpsManagerFeed(OpsManagerFeedId.create(), CHECK_FEED);
+        checkFeed.setFeedType(OpsManagerFeed.FeedType.CHECK);
+        feed.getCheckDataFeeds().add(checkFeed);
+        //keep the inverse side in step since the feeds stay in the persistence context
+        checkFeed.getFeedsToCheck().add(feed);
+        entityManager.persist(checkFeed);
+        entityManager.persist(feed);
+        entityManager.flush();
+
+        insertJobExecution(1, FEED, "COMPLETED", "COMPLETED", now.minusMinutes(30));
+        insertJobExecution(2, FEED, "FAILED", "FAILED", now.minusMinutes(20));
+        insertJobExecution(3, FEED, "STARTED", "EXECUTING", null);
+        insertJobExecution(4, CHECK_FEED, "COMPLETED", "COMPLETED", now.minusMinutes(10));
+        feedSummaryUpdater.rebuild();
+    }
+
+    private Map<String, Object> row(String table, String feedName) {
+        return jdbcTemplate.queryForMap("SELECT * FROM " + table + " WHERE FEED_NAME = ?", feedName);
+    }
+
+    private void assertCounts(Map<String, Object> row, long all, long failed, long completed, long abandoned, long running) {
+        Assert.assertEquals(all, ((Number) row.get("ALL_COUNT")).longValue());
+        Assert.assertEquals(failed, ((Number) row.get("FAILED_COUNT")).longValue());
+        Assert.assertEquals(completed, ((Number) row.get("COMPLETED_COUNT")).longValue());
+        Assert.assertEquals(abandoned, ((Number) row.get("ABANDONED_COUNT")).longValue());
+        Assert.assertEquals(running, ((Number) row.get("RUNNING_COUNT")).longValue());
+    }
+
+    @Test
+    public void testRebuild() {
+        createJobs();
+
+        //the check feed job is counted against the feed it checks
+        assertCounts(row("FEED_SUMMARY_COUNTS", FEED), 4, 1, 2, 0, 1);
+        assertCounts(row("FEED_HEALTH", FEED), 4, 1, 2, 0, 1);
+        Assert.assertEquals(0L, (long) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM FEED_SUMMARY_COUNTS WHERE FEED_NAME = ?", Long.class, CHECK_FEED));
+
+        //the latest job is running, the latest finished job failed
+        Assert.assertEquals(3L, ((Number) row("FEED_HEALTH", FEED).get("JOB_EXECUTION_ID")).longValue());
+        Assert.assertEquals(2L, ((Number) row("LATEST_FINISHED_FEED_JOB", FEED).get("JOB_EXECUTION_ID")).longValue());
+        Assert.assertEquals(4L, ((Number) row("LATEST_FINISHED_FEED_JOB", CHECK_FEED).get("JOB_EXECUTION_ID")).longValue());
+    }
+
+    @Test
+    public void testJobExecutionChanged() {
+        createJobs();
+
+        JpaBatchJobExecution running = jobExecutionRepository.findOne(3L);
+        running.setStatus(BatchJobExecution.JobStatus.COMPLETED);
+        running.setExitCode(ExecutionConstants.ExitCode.COMPLETED);
+        running.setEndTime(now);
+        batchJobExecutionProvider.save(running);
+
+        assertCounts(row("FEED_SUMMARY_COUNTS", FEED), 4, 1, 3, 0, 0);
+        Map<String, Object> health = row("FEED_HEALTH", FEED);
+        assertCounts(health, 4, 1, 3, 0, 0);
+        Assert.assertEquals("COMPLETED", health.get("STATUS"));
+        Assert.assertEquals(3L, ((Number) row("LATEST_FINISHED_FEED_JOB", FEED).get("JOB_EXECUTION_ID")).longValue());
+
+        //saving again without a change leaves the counts alone
+        batchJobExecutionProvider.save(running);
+        assertCounts(row("FEED_SUMMARY_COUNTS", FEED), 4, 1, 3, 0, 0);
+
+        JpaBatchJobExecution checkJob = jobExecutionRepository.findOne(4L);
+        checkJob.setStatus(BatchJobExecution.JobStatus.ABANDONED);
+        batchJobExecutionProvider.save(checkJob);
+
+        assertCounts(row("FEED_SUMMARY_COUNTS", FEED), 4, 1, 2, 1, 0);
+        Assert.assertEquals("ABANDONED", row("LATEST_FINISHED_FEED_JOB", CHECK_FEED).get("STATUS"));
+    }
+
+    @Test
+    public void testContribution() {
+        Assert.assertArrayEquals(new long[]{0, 0, 0, 0, 0}, FeedSummaryUpdater.contribution(null, null));
+        Assert.assertArrayEquals(new long[]{1, 0, 0, 0, 1}, FeedSummaryUpdater.contribution(BatchJobExecution.JobStatus.STARTED, ExecutionConstants.ExitCode.EXECUTING));
+        Assert.assertArrayEquals(new long[]{1, 1, 0, 0, 0}, FeedSummaryUpdater.contribution(BatchJobExecution.JobStatus.COMPLETED, ExecutionConstants.ExitCode.FAILED));
+        Assert.assertArrayEquals(new long[]{1, 0, 0, 1, 0}, FeedSummaryUpdater.contribution(BatchJobExecution.JobStatus.ABANDONED, ExecutionConstants.ExitCode.FAILED));
+    }
+}
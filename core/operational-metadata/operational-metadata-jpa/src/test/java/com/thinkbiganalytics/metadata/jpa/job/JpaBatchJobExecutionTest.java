@@ -23,6 +23,8 @@ package com.thinkbiganalytics.metadata.jpa.job;
 import com.querydsl.core.BooleanBuilder;
 import com.thinkbiganalytics.DateTimeUtil;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.SeekPage;
+import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeedProvider;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecution;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecutionProvider;
 import com.thinkbiganalytics.metadata.api.jobrepo.job.JobStatusCount;
@@ -32,23 +34,30 @@ import com.thinkbiganalytics.metadata.jpa.jobrepo.job.QJpaBatchJobExecution;
 import com.thinkbiganalytics.metadata.jpa.support.GenericQueryDslFilter;
 import com.thinkbiganalytics.spring.CommonsSpringConfiguration;
 
+import org.joda.time.DateTime;
 import org.joda.time.Period;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.SpringApplicationConfiguration;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
+import javax.sql.DataSource;
 
 /**
  */
@@ -64,6 +73,13 @@ public class JpaBatchJobExecutionTest {
     @Inject
     private MetadataAccess operationalMetadataAccess;
 
+    @Inject
+    private OpsManagerFeedProvider opsManagerFeedProvider;
+
+    @Inject
+    @Qualifier("dataSource")
+    private DataSource dataSource;
+
     public static Map<String, Field> getFields(Class<?> cl) {
         return Arrays.asList(cl.getDeclaredFields()).stream().collect(Collectors.toMap(f -> f.getName(), f -> f));
     }
@@ -78,6 +94,38 @@ public class JpaBatchJobExecutionTest {
         });
     }
 
+    /**
+     * Page through jobs sharing start times, and jobs without one, two at a time so ties and the start of the unstarted jobs fall across page boundaries
+     */
+    @Test
+    public void testSeekPaging() {
+        final String feedName = "seek.feed";
+        operationalMetadataAccess.commit(() -> opsManagerFeedProvider.save(opsManagerFeedProvider.resolveId(UUID.randomUUID().toString()), feedName), MetadataAccess.SERVICE);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Object feedId = jdbcTemplate.queryForObject("SELECT ID FROM FEED WHERE NAME = ?", Object.class, feedName);
+        long startTime = DateTime.now().getMillis();
+        Long[] startTimes = {startTime, startTime, startTime, startTime - 1000L, startTime - 1000L, null, null};
+        for (int i = 0; i < startTimes.length; i++) {
+            long id = 900001L + i;
+            jdbcTemplate.update("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY, FEED_ID) VALUES (?, 0, ?, ?, ?)", id, feedName, "seek-" + id, feedId);
+            jdbcTemplate.update("INSERT INTO BATCH_JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, JOB_INSTANCE_ID, STATUS, START_TIME) VALUES (?, 0, ?, 'STARTED', ?)", id, id, startTimes[i]);
+            jdbcTemplate.update("INSERT INTO BATCH_NIFI_JOB (EVENT_ID, FLOW_FILE_ID, JOB_EXECUTION_ID) VALUES (?, ?, ?)", id, "seek-flowfile-" + id, id);
+        }
+
+        List<Long> ids = new ArrayList<>();
+        String token = "";
+        do {
+            final String after = token;
+            SeekPage<? extends BatchJobExecution> page = operationalMetadataAccess.read(() -> jobExecutionProvider.findAll("jobInstance.feed.name==" + feedName, after, 2));
+            page.getContent().forEach(job -> ids.add(job.getJobExecutionId()));
+            token = page.getContinuationToken();
+        } while (token != null);
+
+        //newest first, ties broken by the highest id, and the jobs that have not started last
+        Assert.assertEquals(Arrays.asList(900003L, 900002L, 900001L, 900005L, 900004L, 900007L, 900006L), ids);
+    }
+
     @Test
     public void testJobStatusCount() {
         operationalMetadataAccess.read(() -> {
@@ -0,0 +1,118 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.nifi;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.config.OperationalMetadataConfig;
+import com.thinkbiganalytics.metadata.jpa.TestJpaConfiguration;
+import com.thinkbiganalytics.spring.CommonsSpringConfiguration;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+/**
+ * Compares the JDBC bulk insert of NiFi statistics with the JPA insert for a 10k row stats message
+ */
+@SuppressWarnings("SpringJavaAutowiringInspection")
+@RunWith(SpringJUnit4ClassRunner.class)
+@TestPropertySource(locations = "classpath:test-application.properties")
+@SpringApplicationConfiguration(classes = {CommonsSpringConfiguration.class, OperationalMetadataConfig.class, TestJpaConfiguration.class})
+@Transactional
+public class NifiFeedProcessorStatsBulkWriterTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NifiFeedProcessorStatsBulkWriterTest.class);
+
+    private static final int ROWS = 10000;
+
+    @Autowired
+    NifiFeedProcessorStatisticsProvider provider;
+
+    @Autowired
+    @Qualifier("dataSource")
+    DataSource dataSource;
+
+    @Test
+    public void testBulkInsert() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Long before = countRows(jdbcTemplate);
+
+        List<JpaNifiFeedProcessorStats> stats = createStats(ROWS, "bulk");
+        long start = System.currentTimeMillis();
+        provider.createAll(stats);
+        long time = Math.max(1L, System.currentTimeMillis() - start);
+        LOG.info("JDBC bulk insert of {} rows took {} ms. {} rows/sec", ROWS, time, ROWS * 1000L / time);
+
+        Assert.assertEquals(Long.valueOf(before + ROWS), countRows(jdbcTemplate));
+        Assert.assertEquals(Long.valueOf(ROWS), jdbcTemplate.queryForObject("SELECT SUM(BYTES_IN) FROM NIFI_FEED_PROCESSOR_STATS WHERE FM_FEED_NAME LIKE 'bulk.%'", Long.class));
+        Assert.assertTrue(stats.stream().allMatch(stat -> stat.getId() != null));
+    }
+
+    @Test
+    public void testJpaInsert() {
+        List<JpaNifiFeedProcessorStats> stats = createStats(ROWS, "jpa");
+        long start = System.currentTimeMillis();
+        stats.forEach(provider::create);
+        List<? extends JpaNifiFeedProcessorStats> found = provider.findWithinTimeWindow(DateTime.now().minusDays(1), DateTime.now().plusDays(1));
+        long time = Math.max(1L, System.currentTimeMillis() - start);
+        LOG.info("JPA insert of {} rows took {} ms. {} rows/sec", ROWS, time, ROWS * 1000L / time);
+
+        Assert.assertTrue(found.size() >= ROWS);
+    }
+
+    private Long countRows(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM NIFI_FEED_PROCESSOR_STATS", Long.class);
+    }
+
+    private List<JpaNifiFeedProcessorStats> createStats(int rows, String category) {
+        DateTime now = DateTime.now();
+        List<JpaNifiFeedProcessorStats> stats = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            JpaNifiFeedProcessorStats stat = new JpaNifiFeedProcessorStats(category + ".feed" + (i % 50), "processor-" + (i % 20));
+            stat.setProcessorName("Processor " + (i % 20));
+            stat.setFeedProcessGroupId("group-" + (i % 50));
+            stat.setCollectionId("collection-" + i);
+            stat.setCollectionTime(now);
+            stat.setMinEventTime(now.minusSeconds(5));
+            stat.setMaxEventTime(now);
+            stat.setBytesIn(1L);
+            stat.setBytesOut(2L);
+            stat.setDuration(100L);
+            stat.setJobsStarted(1L);
+            stats.add(stat);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,154 @@
+package com.thinkbiganalytics.metadata.jpa.jobrepo.nifi;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStatisticsProvider.Resolution;
+import com.thinkbiganalytics.metadata.config.OperationalMetadataConfig;
+import com.thinkbiganalytics.metadata.jpa.TestJpaConfiguration;
+import com.thinkbiganalytics.spring.CommonsSpringConfiguration;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings("SpringJavaAutowiringInspection")
+@RunWith(SpringJUnit4ClassRunner.class)
+@TestPropertySource(locations = "classpath:test-application.properties")
+@SpringApplicationConfiguration(classes = {CommonsSpringConfiguration.class, OperationalMetadataConfig.class, TestJpaConfiguration.class})
+@Transactional
+public class NifiFeedProcessorStatsRollupTest {
+
+    @Autowired
+    NifiFeedProcessorStatisticsProvider provider;
+
+    /**
+     * Stats every minute for two hours starting on an hour boundary, for two processors
+     */
+    private List<JpaNifiFeedProcessorStats> createStats(String feedName, DateTime hour) {
+        List<JpaNifiFeedProcessorStats> stats = new ArrayList<>();
+        for (int minute = 0; minute < 120; minute++) {
+            for (int processor = 0; processor < 2; processor++) {
+                JpaNifiFeedProcessorStats stat = new JpaNifiFeedProcessorStats(feedName, "processor-" + processor);
+                stat.setProcessorName("Processor " + processor);
+                stat.setMinEventTime(hour.plusMinutes(minute).plusSeconds(1));
+                stat.setMaxEventTime(hour.plusMinutes(minute).plusSeconds(30));
+                stat.setTotalCount(2L);
+                stat.setBytesIn(10L);
+                stat.setJobsStarted(1L);
+                stats.add(stat);
+            }
+        }
+        return stats;
+    }
+
+    @Test
+    public void testRollupsMatchRawStats() {
+        DateTime hour = Resolution.HOUR.bucketStart(DateTime.now().minusHours(6));
+        List<JpaNifiFeedProcessorStats> stats = createStats("rollup.feed", hour);
+        provider.createAll(stats);
+        provider.rollup(stats);
+
+        DateTime end = hour.plusHours(2);
+        for (Resolution resolution : Resolution.values()) {
+            if (resolution == Resolution.DAY) {
+                continue;
+            }
+            List<? extends JpaNifiFeedProcessorStats> byProcessor = provider.findFeedProcessorStatisticsByProcessorId("rollup.feed", hour, end, resolution);
+            Assert.assertEquals(resolution.name(), 2, byProcessor.size());
+            for (JpaNifiFeedProcessorStats processorStats : byProcessor) {
+                Assert.assertEquals(resolution.name(), Long.valueOf(240L), processorStats.getTotalCount());
+                Assert.assertEquals(resolution.name(), Long.valueOf(1200L), processorStats.getBytesIn());
+                Assert.assertEquals(resolution.name(), Long.valueOf(120L), processorStats.getJobsStarted());
+            }
+            List<? extends JpaNifiFeedProcessorStats> byName = provider.findFeedProcessorStatisticsByProcessorName("rollup.feed", hour, end, resolution);
+            Assert.assertEquals(resolution.name(), 2, byName.size());
+        }
+
+        Assert.assertEquals(120, provider.findForFeedStatisticsGroupedByTime("rollup.feed", hour, end, Resolution.MINUTE).size());
+        Assert.assertEquals(2, provider.findForFeedStatisticsGroupedByTime("rollup.feed", hour, end, Resolution.HOUR).size());
+    }
+
+    @Test
+    public void testPartialBucketsReadFromRawStats() {
+        DateTime hour = Resolution.HOUR.bucketStart(DateTime.now().minusHours(6));
+        List<JpaNifiFeedProcessorStats> stats = createStats("rollup.partial", hour);
+        provider.createAll(stats);
+        provider.rollup(stats);
+
+        //the window covers half of the first hour and all of the second
+        DateTime start = hour.plusMinutes(30);
+        DateTime end = hour.plusHours(2);
+        List<? extends JpaNifiFeedProcessorStats> raw = provider.findFeedProcessorStatisticsByProcessorId("rollup.partial", start, end, Resolution.RAW);
+        List<? extends JpaNifiFeedProcessorStats> rollup = provider.findFeedProcessorStatisticsByProcessorId("rollup.partial", start, end, Resolution.HOUR);
+        Assert.assertEquals(2, rollup.size());
+        for (int i = 0; i < raw.size(); i++) {
+            Assert.assertEquals(Long.valueOf(180L), raw.get(i).getTotalCount());
+            Assert.assertEquals(raw.get(i).getProcessorName(), rollup.get(i).getProcessorName());
+            Assert.assertEquals(raw.get(i).getTotalCount(), rollup.get(i).getTotalCount());
+            Assert.assertEquals(raw.get(i).getBytesIn(), rollup.get(i).getBytesIn());
+        }
+
+        //30 raw points for the partial hour followed by the bucket for the whole hour
+        List<? extends JpaNifiFeedProcessorStats> byTime = provider.findForFeedStatisticsGroupedByTime("rollup.partial", start, end, Resolution.HOUR);
+        Assert.assertEquals(31, byTime.size());
+        Assert.assertEquals(hour.plusHours(1), byTime.get(30).getMaxEventTime());
+
+        //the window does not cover a whole hour so it is read from the raw stats
+        List<? extends JpaNifiFeedProcessorStats> noBuckets = provider.findFeedProcessorStatisticsByProcessorName("rollup.partial", start, start.plusMinutes(20), Resolution.HOUR);
+        Assert.assertEquals(2, noBuckets.size());
+        Assert.assertEquals(Long.valueOf(40L), noBuckets.get(0).getTotalCount());
+    }
+
+    @Test
+    public void testRollupAddsToExistingBuckets() {
+        DateTime hour = Resolution.HOUR.bucketStart(DateTime.now().minusHours(6));
+        provider.rollup(createStats("rollup.repeat", hour));
+        provider.rollup(createStats("rollup.repeat", hour));
+
+        List<? extends JpaNifiFeedProcessorStats> byProcessor = provider.findFeedProcessorStatisticsByProcessorId("rollup.repeat", hour, hour.plusHours(2), Resolution.HOUR);
+        Assert.assertEquals(2, byProcessor.size());
+        Assert.assertEquals(Long.valueOf(480L), byProcessor.get(0).getTotalCount());
+        Assert.assertEquals(hour.plusSeconds(1), byProcessor.get(0).getMinEventTime());
+    }
+
+    @Test
+    public void testResolutionPicksCoarsestRollupWithData() {
+        DateTime hour = Resolution.HOUR.bucketStart(DateTime.now().minusDays(10));
+        provider.rollup(createStats("rollup.resolution", hour));
+
+        DateTime now = DateTime.now();
+        //too few buckets for any rollup
+        Assert.assertEquals(Resolution.RAW, provider.getResolution(now.minusMinutes(5), now));
+        Assert.assertEquals(Resolution.MINUTE, provider.getResolution(now.minusHours(3), now));
+        Assert.assertEquals(Resolution.HOUR, provider.getResolution(now.minusDays(5), now));
+        //the rollups do not go back far enough
+        Assert.assertEquals(Resolution.RAW, provider.getResolution(now.minusYears(1), now));
+    }
+}
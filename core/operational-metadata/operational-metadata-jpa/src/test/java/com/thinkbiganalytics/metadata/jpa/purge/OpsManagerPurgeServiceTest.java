@@ -0,0 +1,259 @@
+package com.thinkbiganalytics.metadata.jpa.purge;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.jobrepo.nifi.NifiFeedProcessorStatisticsProvider.Resolution;
+import com.thinkbiganalytics.metadata.config.OperationalMetadataConfig;
+import com.thinkbiganalytics.metadata.jpa.TestJpaConfiguration;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.nifi.JpaNifiFeedProcessorStats;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.nifi.NifiFeedProcessorStatisticsProvider;
+import com.thinkbiganalytics.spring.CommonsSpringConfiguration;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import javax.sql.DataSource;
+
+@SuppressWarnings("SpringJavaAutowiringInspection")
+@RunWith(SpringJUnit4ClassRunner.class)
+@TestPropertySource(locations = "classpath:test-application.properties")
+@SpringApplicationConfiguration(classes = {CommonsSpringConfiguration.class, OperationalMetadataConfig.class, TestJpaConfiguration.class})
+@Transactional
+public class OpsManagerPurgeServiceTest {
+
+    private static final String FEED = "purge.feed";
+
+    private static final String OTHER_FEED = "purge.other_feed";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Autowired
+    OpsManagerPurgeService purgeService;
+
+    @Autowired
+    NifiFeedProcessorStatisticsProvider statisticsProvider;
+
+    @Autowired
+    @Qualifier("dataSource")
+    DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private DateTime now;
+
+    @Before
+    public void setup() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        //created by liquibase rather than by a JPA entity
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS BATCH_EXECUTION_CONTEXT_VALUES (JOB_EXECUTION_ID BIGINT NOT NULL, STEP_EXECUTION_ID BIGINT, "
+                             + "EXECUTION_CONTEXT_TYPE VARCHAR(6), TYPE_CD VARCHAR(10) NOT NULL, KEY_NAME VARCHAR(100) NOT NULL, STRING_VAL LONGVARCHAR)");
+        now = DateTime.now();
+        purgeService.setChunkSize(3);
+    }
+
+    private void insertJobExecution(long id, String feedName, DateTime endTime) {
+        jdbcTemplate.update("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) VALUES (?, 0, ?, ?)", id, feedName, "key-" + id);
+        jdbcTemplate.update("INSERT INTO BATCH_JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, JOB_INSTANCE_ID, STATUS, START_TIME, END_TIME) VALUES (?, 0, ?, ?, ?, ?)",
+                            id, id, endTime != null ? "COMPLETED" : "STARTED", now.minusDays(30).getMillis(), endTime != null ? endTime.getMillis() : null);
+        jdbcTemplate.update("INSERT INTO BATCH_JOB_EXECUTION_PARAMS (JOB_EXECUTION_ID, KEY_NAME, TYPE_CD, STRING_VAL) VALUES (?, 'feed', 'STRING', ?)", id, feedName);
+        jdbcTemplate.update("INSERT INTO BATCH_EXECUTION_CONTEXT_VALUES (JOB_EXECUTION_ID, EXECUTION_CONTEXT_TYPE, TYPE_CD, KEY_NAME, STRING_VAL) "
+                            + "VALUES (?, 'JOB', 'STRING', 'feed', ?)", id, feedName);
+    }
+
+    private void insertEvent(long eventId, String feedName, DateTime eventTime) {
+        jdbcTemplate.update("INSERT INTO NIFI_EVENT (EVENT_ID, FLOW_FILE_ID, FM_FEED_NAME, EVENT_TIME, IS_START_OF_JOB, IS_END_OF_JOB, IS_FAILURE, IS_BATCH_JOB, "
+                            + "IS_FINAL_JOB_EVENT, HAS_FAILURE_EVENTS) VALUES (?, ?, ?, ?, 'N', 'N', 'N', 'Y', 'N', 'N')",
+                            eventId, "flowfile-" + eventId, feedName, new Timestamp(eventTime.getMillis()));
+    }
+
+    private void insertStats(String feedName, DateTime collectionTime, int count) {
+        statisticsProvider.createAll(createStats(feedName, collectionTime, count));
+    }
+
+    private List<JpaNifiFeedProcessorStats> createStats(String feedName, DateTime collectionTime, int count) {
+        List<JpaNifiFeedProcessorStats> stats = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            JpaNifiFeedProcessorStats stat = new JpaNifiFeedProcessorStats(feedName, "processor-" + i);
+            stat.setCollectionTime(collectionTime);
+            stat.setMinEventTime(collectionTime);
+            stat.setMaxEventTime(collectionTime);
+            stats.add(stat);
+        }
+        return stats;
+    }
+
+    private long count(String table, String where, Object... args) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE " + where, Long.class, args);
+    }
+
+    /**
+     * Ten finished jobs, one running job and ten events older than the retention period, along with recent history and the history of another feed
+     */
+    private void createHistory() {
+        DateTime old = now.minusDays(20);
+        for (long id = 1; id <= 11; id++) {
+            insertJobExecution(id, FEED, id == 5 ? null : old);
+        }
+        insertJobExecution(12, OTHER_FEED, old);
+        insertJobExecution(13, OTHER_FEED, old);
+
+        for (long eventId = 1; eventId <= 10; eventId++) {
+            insertEvent(eventId, FEED, old);
+        }
+        insertEvent(11, FEED, now.minusDays(1));
+        insertEvent(12, OTHER_FEED, old);
+
+        //the old root flow file 1 was related to a recent event, so the relation is only found through its root flow file
+        jdbcTemplate.update("INSERT INTO BATCH_NIFI_JOB (EVENT_ID, FLOW_FILE_ID, JOB_EXECUTION_ID) VALUES (1, 'flowfile-1', 11)");
+        jdbcTemplate.update("INSERT INTO NIFI_RELATED_ROOT_FLOW_FILES (FLOW_FILE_ID, RELATION_ID, EVENT_ID, EVENT_FLOW_FILE_ID) VALUES ('flowfile-1', 'relation-1', 11, 'flowfile-11')");
+
+        insertStats(FEED, old, 5);
+        insertStats(FEED, now.minusDays(1), 2);
+        insertStats(OTHER_FEED, old, 2);
+    }
+
+    @Test
+    public void testPurgeFeed() {
+        createHistory();
+        long chunks = purgeService.getMetrics().getChunks();
+
+        long rows = purgeService.purgeFeed(FEED, now.minusDays(7), null);
+
+        //the running job (5) and the latest job (11) are kept
+        Assert.assertEquals(2L, count("BATCH_JOB_EXECUTION", "JOB_EXECUTION_ID <= 11"));
+        Assert.assertEquals(1L, count("BATCH_JOB_EXECUTION", "JOB_EXECUTION_ID = 5"));
+        Assert.assertEquals(1L, count("BATCH_JOB_EXECUTION", "JOB_EXECUTION_ID = 11"));
+        Assert.assertEquals(2L, count("BATCH_JOB_EXECUTION_PARAMS", "JOB_EXECUTION_ID <= 11"));
+        Assert.assertEquals(2L, count("BATCH_EXECUTION_CONTEXT_VALUES", "JOB_EXECUTION_ID <= 11"));
+        Assert.assertEquals(0L, count("NIFI_RELATED_ROOT_FLOW_FILES", "FLOW_FILE_ID = ?", "flowfile-1"));
+        Assert.assertEquals(2L, count("BATCH_JOB_INSTANCE", "JOB_NAME = ?", FEED));
+        Assert.assertEquals(1L, count("NIFI_EVENT", "FM_FEED_NAME = ?", FEED));
+        Assert.assertEquals(2L, count("NIFI_FEED_PROCESSOR_STATS", "FM_FEED_NAME = ?", FEED));
+
+        //the other feed is untouched
+        Assert.assertEquals(2L, count("BATCH_JOB_EXECUTION", "JOB_EXECUTION_ID > 11"));
+        Assert.assertEquals(1L, count("NIFI_EVENT", "FM_FEED_NAME = ?", OTHER_FEED));
+        Assert.assertEquals(2L, count("NIFI_FEED_PROCESSOR_STATS", "FM_FEED_NAME = ?", OTHER_FEED));
+
+        //9 executions, params, context values and instances, 10 events, 1 related root flow file and 5 stats
+        Assert.assertEquals(9L * 4 + 10 + 1 + 5, rows);
+        //jobs in 3 chunks, events in 4 chunks and stats in 2 chunks
+        Assert.assertEquals(9L, purgeService.getMetrics().getChunks() - chunks);
+    }
+
+    @Test
+    public void testPurgeFeedWithinRetention() {
+        createHistory();
+        Assert.assertEquals(0L, purgeService.purgeFeed(FEED, now.minusDays(30), null));
+        Assert.assertEquals(11L, count("BATCH_JOB_EXECUTION", "JOB_EXECUTION_ID <= 11"));
+    }
+
+    @Test
+    public void testPurgeRollups() {
+        statisticsProvider.rollup(createStats(FEED, Resolution.DAY.bucketStart(now.minusDays(20)), 2));
+        statisticsProvider.rollup(createStats(FEED, now.minusDays(1), 2));
+        //reads the earliest hour bucket, which the purge removes
+        statisticsProvider.invalidateRollupBucketTimes();
+        Assert.assertEquals(Resolution.HOUR, statisticsProvider.getResolution(now.minusDays(19), now));
+
+        purgeService.purgeFeed(FEED, now.minusDays(7), null);
+
+        for (Resolution resolution : Arrays.asList(Resolution.MINUTE, Resolution.HOUR, Resolution.DAY)) {
+            Assert.assertEquals(resolution.name(), 2L, count("NIFI_FEED_PROC_STATS_" + resolution.name(), "FM_FEED_NAME = ?", FEED));
+        }
+        Assert.assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(statisticsProvider, "firstBucketTimes")).isEmpty());
+    }
+
+    @Test
+    public void testArchive() throws Exception {
+        createHistory();
+        File directory;
+        try (OpsManagerPurgeArchiver archiver = new OpsManagerPurgeArchiver(folder.getRoot(), now)) {
+            purgeService.purgeFeed(FEED, now.minusDays(7), archiver);
+            directory = archiver.getDirectory();
+        }
+
+        List<String> lines;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(new File(directory, "NIFI_EVENT.csv.gz"))),
+                                                                              StandardCharsets.UTF_8))) {
+            lines = reader.lines().collect(Collectors.toList());
+        }
+        //header and 10 events
+        Assert.assertEquals(11, lines.size());
+        Assert.assertTrue(lines.get(0).contains("EVENT_ID"));
+        Assert.assertTrue(new File(directory, "BATCH_JOB_EXECUTION.csv.gz").isFile());
+        Assert.assertFalse(new File(directory, "NIFI_EVENT.csv.pending").exists());
+    }
+
+    @Test
+    public void testArchiveRollback() {
+        createHistory();
+        try (OpsManagerPurgeArchiver archiver = new OpsManagerPurgeArchiver(folder.getRoot(), now)) {
+            Assert.assertEquals(11, archiver.archive(jdbcTemplate, "NIFI_EVENT", "FM_FEED_NAME = ?", FEED));
+            archiver.rollback();
+
+            //rows whose delete was rolled back never reach the archive
+            Assert.assertFalse(new File(archiver.getDirectory(), "NIFI_EVENT.csv.gz").exists());
+            Assert.assertFalse(new File(archiver.getDirectory(), "NIFI_EVENT.csv.pending").exists());
+        }
+    }
+
+    @Test
+    public void testRetentionPolicy() {
+        OpsManagerRetentionPolicy policy = OpsManagerRetentionPolicy.parse(90, "category.short=7, category.forever=0");
+        Assert.assertEquals(90, policy.getRetentionDays("category.other"));
+        Assert.assertEquals(7, policy.getRetentionDays("category.short"));
+        Assert.assertEquals(now.minusDays(7), policy.getCutoff("category.short", now));
+        Assert.assertNull(policy.getCutoff("category.forever", now));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRetentionPolicy() {
+        OpsManagerRetentionPolicy.parse(90, "category.feed");
+    }
+}
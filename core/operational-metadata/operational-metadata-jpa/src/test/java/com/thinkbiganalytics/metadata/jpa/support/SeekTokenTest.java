@@ -0,0 +1,55 @@
+package com.thinkbiganalytics.metadata.jpa.support;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-jpa
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the encoding of the {@link SeekToken} continuation tokens
+ */
+public class SeekTokenTest {
+
+    @Test
+    public void testRoundTrip() {
+        SeekToken token = new SeekToken(1494410400000L, 42L);
+        SeekToken decoded = SeekToken.decode(token.encode());
+        Assert.assertEquals(Long.valueOf(1494410400000L), decoded.getSortKey());
+        Assert.assertEquals(42L, decoded.getId());
+    }
+
+    @Test
+    public void testNullSortKeyRoundTrip() {
+        SeekToken decoded = SeekToken.decode(new SeekToken(null, 42L).encode());
+        Assert.assertNull(decoded.getSortKey());
+        Assert.assertEquals(42L, decoded.getId());
+    }
+
+    @Test
+    public void testBlankTokenIsFirstPage() {
+        Assert.assertNull(SeekToken.decode(null));
+        Assert.assertNull(SeekToken.decode(""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidToken() {
+        SeekToken.decode("not-a-token");
+    }
+}
@@ -27,12 +27,18 @@ import org.joda.time.DateTimeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Provides support for incremental
@@ -45,12 +51,22 @@ public class GetTableDataSupport {
 
     private int timeout;
 
+    private int fetchSize;
+
     public GetTableDataSupport(Connection conn, int timeout) {
         Validate.notNull(conn);
         this.conn = conn;
         this.timeout = timeout;
     }
 
+    /**
+     * Sets the number of rows the driver should fetch per round trip. Zero uses the driver default, which for some drivers means reading the entire result
+     * into memory.
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
     protected static Date maxAllowableDateFromUnit(Date fromDate, UnitSizes unit) {
         DateTime jodaDate = new DateTime(fromDate);
         switch (unit) {
@@ -78,6 +94,7 @@ public class GetTableDataSupport {
     public ResultSet selectFullLoad(String tableName, String[] selectFields) throws SQLException {
         final Statement st = conn.createStatement();
         st.setQueryTimeout(timeout);
+        applyFetchSize(st);
         String select = selectStatement(selectFields);
         StringBuffer sb = new StringBuffer();
         sb.append("SELECT ").append(select).append(" FROM ").append(tableName);
@@ -88,6 +105,29 @@ public class GetTableDataSupport {
         return st.executeQuery(sb.toString());
     }
 
+    /**
+     * Performs a full extract of one partition of the specified table
+     *
+     * @param tableName    the table
+     * @param selectFields the fields to select
+     * @param partition    the partition to extract
+     */
+    public ResultSet selectFullLoad(String tableName, String[] selectFields, Partition partition) throws SQLException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("SELECT ").append(selectStatement(selectFields)).append(" FROM ").append(tableName);
+        if (partition.getPredicate() != null) {
+            sb.append(" WHERE ").append(partition.getPredicate());
+        }
+
+        final PreparedStatement ps = conn.prepareStatement(sb.toString());
+        ps.setQueryTimeout(timeout);
+        applyFetchSize(ps);
+        partition.bind(ps, 1);
+
+        logger.info("Executing full GetTableData query {} for partition {}", sb.toString(), partition);
+        return ps.executeQuery();
+    }
+
     /**
      * Provides an incremental select based on a date field and last status. The overlap time will be subtracted from
      * the last load date. This will cause duplicate records but also pickup records that were missed on the last scan
@@ -103,8 +143,7 @@ public class GetTableDataSupport {
 
         logger.info("selectIncremental tableName {} dateField {} overlapTime {} lastLoadDate {} backoffTime {} unit {}", tableName, dateField, overlapTime, lastLoadDate, backoffTime, unit.toString());
 
-        final Date now = new Date(DateTimeUtils.currentTimeMillis());
-        DateRange range = new DateRange(lastLoadDate, now, overlapTime, backoffTime, unit);
+        DateRange range = loadRange(lastLoadDate, overlapTime, backoffTime, unit);
 
         logger.info("Load range with min {} max {}", range.getMinDate(), range.getMaxDate());
 
@@ -115,6 +154,7 @@ public class GetTableDataSupport {
         if (range.getMinDate().before(range.getMaxDate())) {
             PreparedStatement ps = conn.prepareStatement(sb.toString());
             ps.setQueryTimeout(timeout);
+            applyFetchSize(ps);
             ps.setTimestamp(1, new java.sql.Timestamp(range.getMinDate().getTime()));
             ps.setTimestamp(2, new java.sql.Timestamp(range.getMaxDate().getTime()));
 
@@ -124,6 +164,161 @@ public class GetTableDataSupport {
         return rs;
     }
 
+    /**
+     * Calculates the range of dates for an incremental load ending at the current time, less the backoff time.
+     *
+     * @param lastLoadDate the last batch load date
+     * @param overlapTime  the number of seconds to overlap with the last load status
+     * @param backoffTime  the number of seconds to stay behind the current time
+     * @param unit         the unit to round the end of the range down to
+     * @see #selectIncremental(String, String[], String, int, Date, int, UnitSizes)
+     */
+    public static DateRange loadRange(Date lastLoadDate, int overlapTime, int backoffTime, UnitSizes unit) {
+        final Date now = new Date(DateTimeUtils.currentTimeMillis());
+        return new DateRange(lastLoadDate, now, overlapTime, backoffTime, unit);
+    }
+
+    /**
+     * Provides an incremental select of one partition of the specified table. Returns {@code null} if the load range is empty.
+     * The partitions of a table should all use the same range, so that together they select each row exactly once.
+     *
+     * @param tableName    the table
+     * @param selectFields the fields to select
+     * @param dateField    the name of the field containing last modified date used to perform the incremental load
+     * @param range        the load range, from {@link #loadRange(Date, int, int, UnitSizes)}
+     * @param partition    the partition to extract
+     */
+    public ResultSet selectIncremental(String tableName, String[] selectFields, String dateField, DateRange range, Partition partition) throws SQLException {
+        if (!range.getMinDate().before(range.getMaxDate())) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("select ").append(selectStatement(selectFields)).append(" from ").append(tableName).append(" WHERE ").append(dateField).append(" > ? and ").append(dateField)
+            .append(" < ?");
+        if (partition.getPredicate() != null) {
+            sb.append(" and (").append(partition.getPredicate()).append(")");
+        }
+
+        PreparedStatement ps = conn.prepareStatement(sb.toString());
+        ps.setQueryTimeout(timeout);
+        applyFetchSize(ps);
+        ps.setTimestamp(1, new java.sql.Timestamp(range.getMinDate().getTime()));
+        ps.setTimestamp(2, new java.sql.Timestamp(range.getMaxDate().getTime()));
+        partition.bind(ps, 3);
+
+        logger.info("Executing incremental GetTableData query {} for partition {} with range {}", sb.toString(), partition, range);
+        return ps.executeQuery();
+    }
+
+    /**
+     * Splits the specified table into partitions that can be extracted concurrently. Together the partitions select every row exactly once, including rows
+     * with a {@code null} partition column, which are assigned to the first partition.
+     *
+     * <p>A {@link PartitionStrategy#RANGE} split reads the minimum and maximum of the column, which must be numeric or a date, and divides that range evenly.
+     * The first and last partitions are open-ended so rows added after the split are not missed. A {@link PartitionStrategy#HASH} split uses the remainder of the
+     * column, which must be an integer, divided by the partition count.</p>
+     *
+     * @param tableName the table
+     * @param column    the partition column
+     * @param strategy  how to split the table
+     * @param count     the maximum number of partitions
+     * @return the partitions, at least one
+     */
+    public List<Partition> partitions(String tableName, String column, PartitionStrategy strategy, int count) throws SQLException {
+        if (strategy == PartitionStrategy.NONE || count <= 1) {
+            return Collections.singletonList(new Partition(0, null));
+        }
+
+        final List<Partition> partitions = new ArrayList<>(count);
+        if (strategy == PartitionStrategy.HASH) {
+            for (int i = 0; i < count; i++) {
+                String predicate = "MOD(ABS(" + column + "), " + count + ") = " + i;
+                partitions.add(new Partition(i, (i == 0) ? column + " IS NULL OR " + predicate : predicate));
+            }
+            return partitions;
+        }
+
+        // Find the range of values
+        Object min = null;
+        Object max = null;
+        try (final Statement st = conn.createStatement()) {
+            st.setQueryTimeout(timeout);
+            final String query = "SELECT MIN(" + column + "), MAX(" + column + ") FROM " + tableName;
+            logger.info("Executing GetTableData partition query {}", query);
+            try (final ResultSet rs = st.executeQuery(query)) {
+                if (rs.next()) {
+                    min = rs.getObject(1);
+                    max = rs.getObject(2);
+                }
+            }
+        }
+        if (min == null || max == null) {
+            return Collections.singletonList(new Partition(0, null));
+        }
+
+        // Calculate the lower bound of each partition after the first
+        final List<Object> bounds = new ArrayList<>(count - 1);
+        if (min instanceof java.util.Date && max instanceof java.util.Date) {
+            final long low = ((java.util.Date) min).getTime();
+            final long high = ((java.util.Date) max).getTime();
+            for (long bound : splitRange(low, high, count)) {
+                bounds.add(new java.sql.Timestamp(bound));
+            }
+        } else if (isIntegral(min) && isIntegral(max)) {
+            bounds.addAll(splitRange(((Number) min).longValue(), ((Number) max).longValue(), count));
+        } else if (min instanceof Number && max instanceof Number) {
+            final double low = ((Number) min).doubleValue();
+            final double high = ((Number) max).doubleValue();
+            final double step = (high - low) / count;
+            for (int i = 1; i < count && step > 0; i++) {
+                bounds.add(low + step * i);
+            }
+        } else {
+            throw new SQLException("Partition column " + column + " must be numeric or a date but found " + min.getClass().getName());
+        }
+
+        if (bounds.isEmpty()) {
+            return Collections.singletonList(new Partition(0, null));
+        }
+        partitions.add(new Partition(0, column + " IS NULL OR " + column + " < ?", bounds.get(0)));
+        for (int i = 1; i < bounds.size(); i++) {
+            partitions.add(new Partition(i, column + " >= ? AND " + column + " < ?", bounds.get(i - 1), bounds.get(i)));
+        }
+        partitions.add(new Partition(bounds.size(), column + " >= ?", bounds.get(bounds.size() - 1)));
+        return partitions;
+    }
+
+    /**
+     * Divides the inclusive range into at most {@code count} parts and returns the lower bound of each part after the first.
+     */
+    private static List<Long> splitRange(long low, long high, int count) {
+        final List<Long> bounds = new ArrayList<>(count - 1);
+        final BigInteger span = BigInteger.valueOf(high).subtract(BigInteger.valueOf(low)).add(BigInteger.ONE);
+        final BigInteger parts = BigInteger.valueOf(count);
+        long previous = low;
+        for (int i = 1; i < count; i++) {
+            final long bound = BigInteger.valueOf(low).add(span.multiply(BigInteger.valueOf(i)).divide(parts)).longValue();
+            if (bound > previous) {
+                bounds.add(bound);
+                previous = bound;
+            }
+        }
+        return bounds;
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte
+               || (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64)
+               || (value instanceof BigDecimal && ((BigDecimal) value).scale() <= 0 && ((BigDecimal) value).toBigInteger().bitLength() < 64);
+    }
+
+    private void applyFetchSize(Statement st) throws SQLException {
+        if (fetchSize > 0) {
+            st.setFetchSize(fetchSize);
+        }
+    }
+
     /**
      * Output format for table rows.
      */
@@ -139,6 +334,69 @@ public class GetTableDataSupport {
         AVRO
     }
 
+    /**
+     * How a table is split for concurrent extraction.
+     */
+    public enum PartitionStrategy {
+        /**
+         * The table is extracted by a single query
+         */
+        NONE,
+
+        /**
+         * Each partition selects a contiguous range of a numeric or date column
+         */
+        RANGE,
+
+        /**
+         * Each partition selects the rows where an integer column modulo the partition count equals the partition index
+         */
+        HASH
+    }
+
+    /**
+     * A subset of a table that is extracted by its own query.
+     */
+    public static class Partition {
+
+        private final int index;
+        private final String predicate;
+        private final Object[] parameters;
+
+        public Partition(int index, String predicate, Object... parameters) {
+            this.index = index;
+            this.predicate = predicate;
+            this.parameters = parameters;
+        }
+
+        /**
+         * Index of this partition, starting at zero
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * SQL condition selecting the rows in this partition, or {@code null} for all rows
+         */
+        public String getPredicate() {
+            return predicate;
+        }
+
+        /**
+         * Binds the parameters of the predicate starting at the specified index.
+         */
+        void bind(PreparedStatement ps, int startIndex) throws SQLException {
+            for (int i = 0; i < parameters.length; i++) {
+                ps.setObject(startIndex + i, parameters[i]);
+            }
+        }
+
+        public String toString() {
+            return index + " (" + predicate + ") " + Arrays.toString(parameters);
+        }
+    }
+
     public enum UnitSizes {
         NONE,
         HOUR,
@@ -148,7 +406,10 @@ public class GetTableDataSupport {
         YEAR
     }
 
-    protected static class DateRange {
+    /**
+     * Range of last modified dates selected by an incremental load. The minimum and maximum are both exclusive.
+     */
+    public static class DateRange {
 
         private Date minDate;
         private Date maxDate;
@@ -0,0 +1,338 @@
+package com.thinkbiganalytics.ingest;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.thinkbiganalytics.nifi.thrift.api.RowVisitor;
+import com.thinkbiganalytics.util.JdbcCommon;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Extracts the partitions of a table concurrently, each with its own connection and query.
+ *
+ * <p>Each partition is read and converted by a worker thread into a bounded queue of row batches. The calling thread takes whichever partition has rows
+ * ready and writes them with {@link Cursor#drain(JdbcCommon.RowWriter, long)}, so rows are streamed to the output without holding a whole partition in
+ * memory. This keeps all output on the calling thread, which is required by the NiFi process session.</p>
+ */
+public class PartitionedTableReader implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionedTableReader.class);
+
+    /**
+     * Number of rows passed between threads at a time
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * Number of batches buffered for each partition
+     */
+    private static final int QUEUE_BATCHES = 16;
+
+    /**
+     * Maximum number of partitions extracted at the same time. Any other partitions wait for a thread.
+     */
+    private static final int MAX_THREADS = 16;
+
+    /**
+     * Marks the end of a partition
+     */
+    private static final Object END = new Object();
+
+    private final List<Cursor> cursors = new ArrayList<>();
+
+    private ExecutorService executor;
+
+    /**
+     * Starts extracting the specified partitions.
+     *
+     * @param partitions  the partitions to extract
+     * @param connections opens a connection for each partition
+     * @param query       executes the query for a partition
+     * @param converters  creates a row converter from the result of a query
+     * @param visitors    creates a visitor for each partition, or {@code null}
+     */
+    public PartitionedTableReader(@Nonnull final List<GetTableDataSupport.Partition> partitions, @Nonnull final ConnectionFactory connections, @Nonnull final Query query,
+                                  @Nonnull final ConverterFactory converters, @Nullable final VisitorFactory visitors) {
+        executor = Executors.newFixedThreadPool(Math.max(1, Math.min(partitions.size(), MAX_THREADS)),
+                                                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("PartitionedTableReader-%d").build());
+        for (final GetTableDataSupport.Partition partition : partitions) {
+            final Cursor cursor = new Cursor(partition, (visitors != null) ? visitors.create(partition) : null);
+            cursors.add(cursor);
+            executor.execute(() -> cursor.fetch(connections, query, converters));
+        }
+    }
+
+    /**
+     * Waits for a partition with rows ready to be written.
+     *
+     * @return a partition with rows ready, or {@code null} if all partitions have been written
+     * @throws SQLException         if a partition query failed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Nullable
+    public Cursor next() throws SQLException, InterruptedException {
+        while (true) {
+            Cursor waitFor = null;
+            for (final Cursor cursor : cursors) {
+                if (cursor.hasRows(0)) {
+                    return cursor;
+                }
+                if (!cursor.done && waitFor == null) {
+                    waitFor = cursor;
+                }
+            }
+            if (waitFor == null) {
+                return null;
+            }
+            if (waitFor.hasRows(10)) {
+                return waitFor;
+            }
+        }
+    }
+
+    /**
+     * Gets the visitors of all partitions.
+     */
+    @Nonnull
+    public List<RowVisitor> getVisitors() {
+        final List<RowVisitor> visitors = new ArrayList<>(cursors.size());
+        for (final Cursor cursor : cursors) {
+            if (cursor.visitor != null) {
+                visitors.add(cursor.visitor);
+            }
+        }
+        return visitors;
+    }
+
+    /**
+     * Stops any partitions still being extracted.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Opens a connection for a partition.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+
+        Connection getConnection() throws SQLException;
+    }
+
+    /**
+     * Executes the query for a partition.
+     */
+    @FunctionalInterface
+    public interface Query {
+
+        ResultSet execute(@Nonnull Connection conn, @Nonnull GetTableDataSupport.Partition partition) throws SQLException;
+    }
+
+    /**
+     * Creates a row converter for the result of a query.
+     */
+    @FunctionalInterface
+    public interface ConverterFactory {
+
+        JdbcCommon.RowConverter create(@Nonnull ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Creates a visitor for the rows of a partition.
+     */
+    @FunctionalInterface
+    public interface VisitorFactory {
+
+        RowVisitor create(@Nonnull GetTableDataSupport.Partition partition);
+    }
+
+    /**
+     * Rows of a partition that are ready to be written.
+     */
+    public static class Cursor {
+
+        private final GetTableDataSupport.Partition partition;
+        private final RowVisitor visitor;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_BATCHES + 2);
+
+        private JdbcCommon.RowConverter converter;
+        private List<?> batch;
+        private int position;
+        private boolean done;
+
+        /**
+         * Number of chunks written from this partition
+         */
+        private int chunks;
+
+        Cursor(@Nonnull final GetTableDataSupport.Partition partition, @Nullable final RowVisitor visitor) {
+            this.partition = partition;
+            this.visitor = visitor;
+        }
+
+        /**
+         * Gets the partition
+         */
+        @Nonnull
+        public GetTableDataSupport.Partition getPartition() {
+            return partition;
+        }
+
+        /**
+         * Gets the converter, which opens writers for the rows of this partition
+         */
+        @Nonnull
+        public JdbcCommon.RowConverter getConverter() {
+            return converter;
+        }
+
+        /**
+         * Gets and increments the number of chunks written from this partition
+         */
+        public int nextChunk() {
+            return chunks++;
+        }
+
+        /**
+         * Writes rows until the partition ends or the maximum is reached.
+         *
+         * @param writer  the writer for the output
+         * @param maxRows the maximum number of rows to write, or zero for no limit
+         * @return the number of rows written
+         * @throws IOException if an I/O error occurs or the query fails
+         */
+        public long drain(@Nonnull final JdbcCommon.RowWriter writer, final long maxRows) throws IOException {
+            long rows = 0;
+            try {
+                while ((maxRows <= 0 || rows < maxRows) && hasRows(-1)) {
+                    writer.write(batch.get(position++));
+                    rows++;
+                }
+            } catch (final SQLException e) {
+                throw new IOException("SQL execution failure", e);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading partition " + partition.getIndex(), e);
+            }
+            return rows;
+        }
+
+        /**
+         * Determines if a row is ready, waiting for the next batch if necessary.
+         *
+         * @param timeoutMillis maximum time to wait, or a negative number to wait until the partition ends
+         */
+        private boolean hasRows(final long timeoutMillis) throws SQLException, InterruptedException {
+            while (batch == null || position >= batch.size()) {
+                if (done) {
+                    return false;
+                }
+                final Object element = (timeoutMillis < 0) ? queue.take() : queue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+                if (element == null) {
+                    return false;
+                } else if (element == END) {
+                    done = true;
+                } else if (element instanceof JdbcCommon.RowConverter) {
+                    converter = (JdbcCommon.RowConverter) element;
+                } else if (element instanceof SQLException) {
+                    done = true;
+                    throw (SQLException) element;
+                } else if (element instanceof Throwable) {
+                    done = true;
+                    throw new SQLException("Failed to read partition " + partition.getIndex(), (Throwable) element);
+                } else {
+                    batch = (List<?>) element;
+                    position = 0;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Runs the query for this partition and queues the converted rows.
+         */
+        private void fetch(@Nonnull final ConnectionFactory connections, @Nonnull final Query query, @Nonnull final ConverterFactory converters) {
+            try {
+                try (final Connection conn = connections.getConnection()) {
+                    final ResultSet rs = query.execute(conn, partition);
+                    if (rs != null) {
+                        try {
+                            final JdbcCommon.RowConverter rowConverter = converters.create(rs);
+                            queue.put(rowConverter);
+
+                            List<Object> rows = new ArrayList<>(BATCH_SIZE);
+                            while (rs.next()) {
+                                rows.add(rowConverter.convert(rs, visitor));
+                                if (rows.size() == BATCH_SIZE) {
+                                    queue.put(rows);
+                                    rows = new ArrayList<>(BATCH_SIZE);
+                                }
+                            }
+                            if (!rows.isEmpty()) {
+                                queue.put(rows);
+                            }
+                        } finally {
+                            final Statement st = rs.getStatement();
+                            rs.close();
+                            if (st != null) {
+                                st.close();
+                            }
+                        }
+                    }
+                }
+                queue.put(END);
+            } catch (final InterruptedException e) {
+                log.debug("Cancelled extract of partition {}", partition);
+            } catch (final Throwable t) {
+                log.debug("Failed to extract partition {}", partition, t);
+                try {
+                    queue.put(t);
+                } catch (final InterruptedException e) {
+                    log.debug("Cancelled extract of partition {}", partition);
+                }
+            }
+        }
+    }
+}
@@ -31,6 +31,7 @@ import org.apache.nifi.annotation.behavior.EventDriven;
 import org.apache.nifi.annotation.behavior.InputRequirement;
 import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnStopped;
 import org.apache.nifi.components.AllowableValue;
 import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.flowfile.FlowFile;
@@ -115,6 +116,20 @@ public class ReleaseHighWaterMark extends HighWaterMarkProcessor {
 
     }
 
+    /**
+     * Sends any high-water marks committed by this processor that are still pending to the metadata store.
+     *
+     * @param context the process context
+     */
+    @OnStopped
+    public void flushWaterMarks(ProcessContext context) {
+        try {
+            context.getProperty(CommonProperties.METADATA_SERVICE).asControllerService(MetadataProviderService.class).getRecorder().flush();
+        } catch (Exception e) {
+            getLog().warn("Failed to flush pending high-water marks", e);
+        }
+    }
+
     /* (non-Javadoc)
      * @see com.thinkbiganalytics.nifi.v2.common.BaseProcessor#addProperties(java.util.List)
      */
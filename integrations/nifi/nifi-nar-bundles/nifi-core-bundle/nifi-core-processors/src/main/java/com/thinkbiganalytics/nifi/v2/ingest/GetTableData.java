@@ -21,9 +21,11 @@ package com.thinkbiganalytics.nifi.v2.ingest;
  */
 
 import com.thinkbiganalytics.ingest.GetTableDataSupport;
+import com.thinkbiganalytics.ingest.PartitionedTableReader;
 import com.thinkbiganalytics.nifi.core.api.metadata.MetadataProviderService;
 import com.thinkbiganalytics.nifi.processor.AbstractNiFiProcessor;
 import com.thinkbiganalytics.nifi.thrift.api.AbstractRowVisitor;
+import com.thinkbiganalytics.nifi.thrift.api.RowVisitor;
 import com.thinkbiganalytics.util.ComponentAttributes;
 import com.thinkbiganalytics.util.JdbcCommon;
 
@@ -37,6 +39,8 @@ import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
 import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.components.PropertyValue;
+import org.apache.nifi.components.ValidationContext;
+import org.apache.nifi.components.ValidationResult;
 import org.apache.nifi.components.Validator;
 import org.apache.nifi.dbcp.DBCPService;
 import org.apache.nifi.flowfile.FlowFile;
@@ -58,11 +62,15 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.Vector;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -85,6 +93,15 @@ public class GetTableData extends AbstractNiFiProcessor {
 
     public static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ISO_DATE_TIME;
     public static final String RESULT_ROW_COUNT = "source.row.count";
+
+    // Attributes of partitioned output
+    public static final String FRAGMENT_ID = "fragment.identifier";
+    public static final String FRAGMENT_INDEX = "fragment.index";
+    public static final String FRAGMENT_COUNT = "fragment.count";
+    public static final String PARTITION_INDEX = "source.partition.index";
+    public static final String PARTITION_CHUNK = "source.partition.chunk";
+    // Fetch size of partitioned extracts when the Fetch Size property is not set
+    private static final int DEFAULT_PARTITION_FETCH_SIZE = 1000;
     public static final Relationship REL_NO_DATA = new Relationship.Builder()
         .name("nodata")
         .description("Successful but no new data to process.")
@@ -186,6 +203,45 @@ public class GetTableData extends AbstractNiFiProcessor {
         .defaultValue(",")
         .expressionLanguageSupported(true)
         .build();
+    public static final PropertyDescriptor PARTITION_STRATEGY = new PropertyDescriptor.Builder()
+        .name("Partition Strategy")
+        .description("How to split the source table so that it can be extracted by concurrent queries. NONE uses a single query. RANGE divides the range of the Partition Column, "
+                     + "which must be numeric or a date, into equal parts. HASH assigns each row by the value of the Partition Column, which must be an integer, modulo the Partition Count. "
+                     + "Partitioned output is written as one or more flow files per partition with fragment attributes.")
+        .required(true)
+        .allowableValues(GetTableDataSupport.PartitionStrategy.values())
+        .defaultValue(GetTableDataSupport.PartitionStrategy.NONE.toString())
+        .build();
+    public static final PropertyDescriptor PARTITION_COLUMN = new PropertyDescriptor.Builder()
+        .name("Partition Column")
+        .description("Source field used to split the table. Required if the Partition Strategy is RANGE or HASH. An indexed column gives the best performance.")
+        .required(false)
+        .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .build();
+    public static final PropertyDescriptor PARTITION_COUNT = new PropertyDescriptor.Builder()
+        .name("Partition Count")
+        .description("Number of partitions to extract concurrently. Each partition uses its own database connection.")
+        .required(true)
+        .defaultValue("4")
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .build();
+    public static final PropertyDescriptor FETCH_SIZE = new PropertyDescriptor.Builder()
+        .name("Fetch Size")
+        .description("Number of rows to fetch from the database per round trip. Zero uses the driver default. If not set, partitioned extracts fetch "
+                     + DEFAULT_PARTITION_FETCH_SIZE + " rows at a time and other queries use the driver default.")
+        .required(false)
+        .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+        .build();
+    public static final PropertyDescriptor MAX_ROWS_PER_FLOW_FILE = new PropertyDescriptor.Builder()
+        .name("Max Rows Per Flow File")
+        .description("Maximum number of rows in each output flow file. Zero writes each partition to a single flow file. If set, the output is split into chunks even if the "
+                     + "Partition Strategy is NONE.")
+        .required(true)
+        .defaultValue("0")
+        .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+        .build();
     private final Set<Relationship> relationships;
     private final List<PropertyDescriptor> propDescriptors;
 
@@ -212,6 +268,11 @@ public class GetTableData extends AbstractNiFiProcessor {
         pds.add(UNIT_SIZE);
         pds.add(OUTPUT_TYPE);
         pds.add(OUTPUT_DELIMITER);
+        pds.add(PARTITION_STRATEGY);
+        pds.add(PARTITION_COLUMN);
+        pds.add(PARTITION_COUNT);
+        pds.add(FETCH_SIZE);
+        pds.add(MAX_ROWS_PER_FLOW_FILE);
         this.propDescriptors = Collections.unmodifiableList(pds);
     }
 
@@ -248,6 +309,21 @@ public class GetTableData extends AbstractNiFiProcessor {
         return propDescriptors;
     }
 
+    @Override
+    protected Collection<ValidationResult> customValidate(ValidationContext validationContext) {
+        final List<ValidationResult> results = new ArrayList<>();
+        final GetTableDataSupport.PartitionStrategy partitionStrategy = GetTableDataSupport.PartitionStrategy.valueOf(validationContext.getProperty(PARTITION_STRATEGY).getValue());
+
+        if (partitionStrategy != GetTableDataSupport.PartitionStrategy.NONE && !validationContext.getProperty(PARTITION_COLUMN).isSet()) {
+            results.add(new ValidationResult.Builder()
+                            .subject(PARTITION_COLUMN.getName())
+                            .valid(false)
+                            .explanation("Partition Column is required for the " + partitionStrategy + " Partition Strategy.")
+                            .build());
+        }
+        return results;
+    }
+
     @Override
     public void onTrigger(final ProcessContext context, final ProcessSession session) throws ProcessException {
         FlowFile flowFile = null;
@@ -288,6 +364,125 @@ public class GetTableData extends AbstractNiFiProcessor {
         final LoadStrategy strategy = LoadStrategy.valueOf(loadStrategy);
         final StopWatch stopWatch = new StopWatch(true);
 
+        final GetTableDataSupport.PartitionStrategy partitionStrategy = GetTableDataSupport.PartitionStrategy.valueOf(context.getProperty(PARTITION_STRATEGY).getValue());
+        final String partitionColumn = context.getProperty(PARTITION_COLUMN).evaluateAttributeExpressions(incoming).getValue();
+        final int partitionCount = context.getProperty(PARTITION_COUNT).evaluateAttributeExpressions(incoming).asInteger();
+        final Integer fetchSize = context.getProperty(FETCH_SIZE).asInteger();
+        final long maxRowsPerFlowFile = context.getProperty(MAX_ROWS_PER_FLOW_FILE).asLong();
+
+        if (partitionStrategy != GetTableDataSupport.PartitionStrategy.NONE || maxRowsPerFlowFile > 0) {
+            final FlowFile parent = (incoming == null ? session.create() : incoming);
+            final List<FlowFile> chunks = new ArrayList<>();
+
+            try {
+                final Date lastLoadDate = (strategy == LoadStrategy.INCREMENTAL) ? toDate(LocalDateTime.parse(getIncrementalWaterMarkValue(parent, waterMarkPropName), DATE_TIME_FORMAT)) : null;
+
+                // Split the table
+                final List<GetTableDataSupport.Partition> partitions;
+                try (final Connection conn = dbcpService.getConnection()) {
+                    partitions = new GetTableDataSupport(conn, queryTimeout).partitions(tableName, partitionColumn, partitionStrategy, partitionCount);
+                }
+                logger.info("Extracting {} in {} partitions", new Object[]{tableName, partitions.size()});
+
+                // Every partition selects the same range, so rows modified during the extract are not picked up by only some of them
+                final GetTableDataSupport.DateRange range = (strategy == LoadStrategy.INCREMENTAL)
+                                                            ? GetTableDataSupport.loadRange(lastLoadDate, overlapTime, backoffTime, GetTableDataSupport.UnitSizes.valueOf(unitSize)) : null;
+                if (range != null) {
+                    logger.info("Load range with min {} max {}", new Object[]{range.getMinDate(), range.getMaxDate()});
+                }
+
+                final PartitionedTableReader.Query query = (conn, partition) -> {
+                    final GetTableDataSupport support = new GetTableDataSupport(conn, queryTimeout);
+                    support.setFetchSize((fetchSize != null) ? fetchSize : DEFAULT_PARTITION_FETCH_SIZE);
+                    if (strategy == LoadStrategy.FULL_LOAD) {
+                        return support.selectFullLoad(tableName, selectFields, partition);
+                    } else {
+                        return support.selectIncremental(tableName, selectFields, dateField, range, partition);
+                    }
+                };
+                final PartitionedTableReader.ConverterFactory converters = GetTableDataSupport.OutputType.DELIMITED.equals(GetTableDataSupport.OutputType.valueOf(outputType))
+                                                                           ? rs -> JdbcCommon.newDelimitedConverter(rs, delimiter)
+                                                                           : JdbcCommon::newAvroConverter;
+                final PartitionedTableReader.VisitorFactory visitors = (strategy == LoadStrategy.INCREMENTAL) ? partition -> new LastFieldVisitor(dateField, lastLoadDate) : null;
+
+                // Write chunks as rows arrive from each partition
+                final String fragmentId = UUID.randomUUID().toString();
+                long totalRows = 0;
+                Date lastModifyDate = lastLoadDate;
+
+                try (final PartitionedTableReader reader = new PartitionedTableReader(partitions, dbcpService::getConnection, query, converters, visitors)) {
+                    PartitionedTableReader.Cursor cursor;
+                    while ((cursor = reader.next()) != null) {
+                        final PartitionedTableReader.Cursor current = cursor;
+                        final AtomicLong nrOfRows = new AtomicLong(0L);
+
+                        FlowFile chunk = session.create(parent);
+                        chunks.add(chunk);
+                        chunk = session.write(chunk, out -> {
+                            try (final JdbcCommon.RowWriter writer = current.getConverter().open(out)) {
+                                nrOfRows.set(current.drain(writer, maxRowsPerFlowFile));
+                            }
+                        });
+
+                        final Map<String, String> attributes = new HashMap<>();
+                        attributes.put(RESULT_ROW_COUNT, Long.toString(nrOfRows.get()));
+                        attributes.put(ComponentAttributes.NUM_SOURCE_RECORDS.key(), Long.toString(nrOfRows.get()));
+                        attributes.put(FRAGMENT_ID, fragmentId);
+                        attributes.put(FRAGMENT_INDEX, Integer.toString(chunks.size() - 1));
+                        attributes.put(PARTITION_INDEX, Integer.toString(current.getPartition().getIndex()));
+                        attributes.put(PARTITION_CHUNK, Integer.toString(current.nextChunk()));
+                        chunk = session.putAllAttributes(chunk, attributes);
+                        session.getProvenanceReporter().modifyContent(chunk, "Retrieved " + nrOfRows.get() + " rows", stopWatch.getElapsed(TimeUnit.MILLISECONDS));
+
+                        chunks.set(chunks.size() - 1, chunk);
+                        totalRows += nrOfRows.get();
+                    }
+
+                    for (final RowVisitor visitor : reader.getVisitors()) {
+                        final Date date = ((LastFieldVisitor) visitor).getLastModifyDate();
+                        if (lastModifyDate == null || date.after(lastModifyDate)) {
+                            lastModifyDate = date;
+                        }
+                    }
+                }
+
+                if (chunks.isEmpty()) {
+                    logger.info("{} contains no data; transferring to 'nodata'", new Object[]{parent});
+                    FlowFile outgoing = session.putAttribute(parent, RESULT_ROW_COUNT, "0");
+                    outgoing = session.putAttribute(outgoing, ComponentAttributes.NUM_SOURCE_RECORDS.key(), "0");
+                    session.transfer(outgoing, REL_NO_DATA);
+                } else {
+                    logger.info("{} contains {} records in {} flow files; transferring to 'success'", new Object[]{parent, totalRows, chunks.size()});
+                    final String newWaterMarkStr = (strategy == LoadStrategy.INCREMENTAL) ? format(lastModifyDate) : null;
+
+                    for (FlowFile chunk : chunks) {
+                        chunk = session.putAttribute(chunk, FRAGMENT_COUNT, Integer.toString(chunks.size()));
+                        if (newWaterMarkStr != null) {
+                            chunk = setIncrementalWaterMarkValue(session, chunk, waterMarkPropName, newWaterMarkStr);
+                        }
+                        session.transfer(chunk, REL_SUCCESS);
+                    }
+                    if (newWaterMarkStr != null) {
+                        logger.info("Recorded load status feed {} date {}", new Object[]{feedName, newWaterMarkStr});
+                    }
+                    session.remove(parent);
+                }
+            } catch (final Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                session.remove(chunks);
+                if (incoming == null) {
+                    logger.error("Unable to execute SQL select from table due to {}. No incoming flow file to route to failure", new Object[]{e});
+                    session.remove(parent);
+                } else {
+                    logger.error("Unable to execute SQL select from table due to {}; routing to failure", new Object[]{incoming, e});
+                    session.transfer(incoming, REL_FAILURE);
+                }
+            }
+            return;
+        }
+
         try (final Connection conn = dbcpService.getConnection()) {
 
             FlowFile outgoing = (incoming == null ? session.create() : incoming);
@@ -301,6 +496,9 @@ public class GetTableData extends AbstractNiFiProcessor {
                     ResultSet rs = null;
                     try {
                         GetTableDataSupport support = new GetTableDataSupport(conn, queryTimeout);
+                        if (fetchSize != null) {
+                            support.setFetchSize(fetchSize);
+                        }
                         if (strategy == LoadStrategy.FULL_LOAD) {
                             rs = support.selectFullLoad(tableName, selectFields);
                         } else if (strategy == LoadStrategy.INCREMENTAL) {
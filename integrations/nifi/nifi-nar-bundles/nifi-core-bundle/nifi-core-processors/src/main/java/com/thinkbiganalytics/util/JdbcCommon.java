@@ -32,16 +32,15 @@ import org.apache.avro.io.DatumWriter;
 import org.apache.commons.lang3.CharUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.text.translate.CharSequenceTranslator;
-import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormatter;
 import org.joda.time.format.ISODateTimeFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.StringWriter;
 import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -91,6 +90,16 @@ public class JdbcCommon {
 
     public static Logger logger = LoggerFactory.getLogger(JdbcCommon.class);
 
+    /**
+     * Formats dates and timestamps as ISO 8601 in UTC
+     */
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = ISODateTimeFormat.dateTime().withZoneUTC();
+
+    /**
+     * Formats times as ISO 8601 in UTC
+     */
+    private static final DateTimeFormatter TIME_FORMATTER = ISODateTimeFormat.time().withZoneUTC();
+
     /**
      * Converts the specified SQL result set to a delimited text file written to the specified output stream.
      *
@@ -103,87 +112,67 @@ public class JdbcCommon {
      * @throws IOException  if an I/O error occurs while writing to the output stream
      */
     public static long convertToDelimitedStream(final ResultSet rs, final OutputStream outStream, final RowVisitor visitor, String delimiter) throws SQLException, IOException {
-        // avoid overflowing log with redundant messages
-        int dateConversionWarning = 0;
-
         if (rs == null || rs.getMetaData() == null) {
             logger.warn("Received empty resultset or no metadata.");
             return 0;
         }
-        OutputStreamWriter writer = new OutputStreamWriter(outStream);
-        final ResultSetMetaData meta = rs.getMetaData();
-        final DelimiterEscaper escaper = new DelimiterEscaper(delimiter);
+        return writeRows(rs, newDelimitedConverter(rs, delimiter), outStream, visitor);
+    }
 
-        // Write header
-        final int nrOfColumns = meta.getColumnCount();
-        StringBuffer sb = new StringBuffer();
-        for (int i = 1; i <= nrOfColumns; i++) {
-            String columnName = meta.getColumnName(i);
-            sb.append(escaper.translate(columnName));
-            if (i != nrOfColumns) {
-                sb.append(delimiter);
-            } else {
-                sb.append("\n");
-            }
-        }
-        writer.append(sb.toString());
-        long nrOfRows = 0;
-        while (rs.next()) {
-            if (visitor != null) {
-                visitor.visitRow(rs);
-            }
-            sb = new StringBuffer();
-            nrOfRows++;
-            for (int i = 1; i <= nrOfColumns; i++) {
-                String val = null;
+    /**
+     * Converts the specified SQL result set to an Avro data file written to the specified output stream.
+     *
+     * @param rs        the SQL result set
+     * @param outStream the output stream for the Avro data file
+     * @param visitor   records position of the result set
+     * @return the number of rows written
+     * @throws SQLException if a SQL error occurs while reading the result set
+     * @throws IOException  if an I/O error occurs while writing to the output stream
+     */
+    public static long convertToAvroStream(final ResultSet rs, final OutputStream outStream, final RowVisitor visitor) throws SQLException, IOException {
+        return writeRows(rs, newAvroConverter(rs), outStream, visitor);
+    }
 
-                int colType = meta.getColumnType(i);
-                if (colType == Types.DATE || colType == Types.TIMESTAMP) {
-                    Timestamp sqlDate = null;
-                    try {
-                        // Extract timestamp
-                        sqlDate = extractSqlDate(rs, i);
-                    } catch (Exception e) {
-                        // Still failed, maybe exotic date type
-                        if (dateConversionWarning++ < 10) {
-                            logger.warn("{} is not convertible to timestamp or date", rs.getMetaData().getColumnName(i));
-                        }
-                    }
+    /**
+     * Creates a converter from rows of the specified result set to lines of delimited text.
+     *
+     * @param rs        the SQL result set
+     * @param delimiter the column delimiter for the delimited text file
+     * @return a new row converter
+     * @throws SQLException if the result set metadata cannot be read
+     */
+    @Nonnull
+    public static RowConverter newDelimitedConverter(@Nonnull final ResultSet rs, @Nonnull final String delimiter) throws SQLException {
+        return new DelimitedRowConverter(rs.getMetaData(), delimiter);
+    }
 
-                    if (visitor != null) {
-                        visitor.visitColumn(rs.getMetaData().getColumnName(i), colType, sqlDate);
-                    }
-                    if (sqlDate != null) {
-                        DateTimeFormatter formatter = ISODateTimeFormat.dateTime().withZoneUTC();
-                        val = formatter.print(new DateTime(sqlDate.getTime()));
-                    }
-                } else if (colType == Types.TIME) {
-                    Time time = rs.getTime(i);
-                    if (visitor != null) {
-                        visitor.visitColumn(rs.getMetaData().getColumnName(i), colType, time);
-                    }
-                    DateTimeFormatter formatter = ISODateTimeFormat.time().withZoneUTC();
-                    val = formatter.print(new DateTime(time.getTime()));
-                } else {
-                    val = rs.getString(i);
-                    if (visitor != null) {
-                        visitor.visitColumn(rs.getMetaData().getColumnName(i), colType, val);
-                    }
-                }
-                sb.append((val == null ? "" : escaper.translate(val)));
-                if (i != nrOfColumns) {
-                    sb.append(delimiter);
-                } else {
-                    sb.append("\n");
-                }
+    /**
+     * Creates a converter from rows of the specified result set to Avro records.
+     *
+     * @param rs the SQL result set
+     * @return a new row converter
+     * @throws SQLException if the result set metadata cannot be read
+     */
+    @Nonnull
+    public static RowConverter newAvroConverter(@Nonnull final ResultSet rs) throws SQLException {
+        return new AvroRowConverter(createSchema(rs), rs.getMetaData());
+    }
+
+    /**
+     * Converts and writes all remaining rows of the specified result set.
+     */
+    private static long writeRows(@Nonnull final ResultSet rs, @Nonnull final RowConverter converter, @Nonnull final OutputStream outStream, final RowVisitor visitor)
+        throws SQLException, IOException {
+        long nrOfRows = 0;
+        try (final RowWriter writer = converter.open(outStream)) {
+            while (rs.next()) {
+                writer.write(converter.convert(rs, visitor));
+                nrOfRows++;
             }
-            writer.append(sb.toString());
         }
-        writer.flush();
         return nrOfRows;
     }
 
-
     /**
      * Extracts a resultset col to a SQL timestamp
      */
@@ -203,106 +192,6 @@ public class JdbcCommon {
         return sqlDate;
     }
 
-
-    public static long convertToAvroStream(final ResultSet rs, final OutputStream outStream, final RowVisitor visitor) throws SQLException, IOException {
-        int dateConversionWarning = 0;
-        final Schema schema = createSchema(rs);
-        final GenericRecord rec = new GenericData.Record(schema);
-
-        final DatumWriter<GenericRecord> datumWriter = new GenericDatumWriter<>(schema);
-        try (final DataFileWriter<GenericRecord> dataFileWriter = new DataFileWriter<>(datumWriter)) {
-            dataFileWriter.create(schema, outStream);
-
-            final ResultSetMetaData meta = rs.getMetaData();
-            final int nrOfColumns = meta.getColumnCount();
-            long nrOfRows = 0;
-            while (rs.next()) {
-                if (visitor != null) {
-                    visitor.visitRow(rs);
-                }
-                for (int i = 1; i <= nrOfColumns; i++) {
-                    final int javaSqlType = meta.getColumnType(i);
-                    final Object value = rs.getObject(i);
-
-                    if (value == null) {
-                        rec.put(i - 1, null);
-
-                    } else if (javaSqlType == BINARY || javaSqlType == VARBINARY || javaSqlType == LONGVARBINARY || javaSqlType == ARRAY || javaSqlType == BLOB || javaSqlType == CLOB) {
-                        // bytes requires little bit different handling
-                        byte[] bytes = rs.getBytes(i);
-                        ByteBuffer bb = ByteBuffer.wrap(bytes);
-                        rec.put(i - 1, bb);
-
-                    } else if (value instanceof Byte) {
-                        // tinyint(1) type is returned by JDBC driver as java.sql.Types.TINYINT
-                        // But value is returned by JDBC as java.lang.Byte
-                        // (at least H2 JDBC works this way)
-                        // direct put to avro record results:
-                        // org.apache.avro.AvroRuntimeException: Unknown datum type java.lang.Byte
-                        rec.put(i - 1, ((Byte) value).intValue());
-
-                    } else if (value instanceof BigDecimal || value instanceof BigInteger) {
-                        // Avro can't handle BigDecimal and BigInteger as numbers - it will throw an AvroRuntimeException such as: "Unknown datum type: java.math.BigDecimal: 38"
-                        rec.put(i - 1, value.toString());
-
-                    } else if (value instanceof Number || value instanceof Boolean) {
-                        rec.put(i - 1, value);
-
-                    } else if (value instanceof Date) {
-                        final DateTimeFormatter formatter = ISODateTimeFormat.dateTime().withZoneUTC();
-                        rec.put(i - 1, formatter.print(new DateTime(((Date) value).getTime())));
-
-                    } else if (value instanceof Time) {
-                        final DateTimeFormatter formatter = ISODateTimeFormat.time().withZoneUTC();
-                        rec.put(i - 1, formatter.print(new DateTime(((Time) value).getTime())));
-
-                    } else if (value instanceof Timestamp) {
-                        final DateTimeFormatter formatter = ISODateTimeFormat.dateTime().withZoneUTC();
-                        rec.put(i - 1, formatter.print(new DateTime(((Timestamp) value).getTime())));
-
-                    } else {
-                        // The different types that we support are numbers (int, long, double, float),
-                        // as well as boolean values and Strings. Since Avro doesn't provide
-                        // timestamp types, we want to convert those to Strings. So we will cast anything other
-                        // than numbers or booleans to strings by using the toString() method.
-                        rec.put(i - 1, value.toString());
-                    }
-
-                    //notify the visitor
-                    if (javaSqlType == Types.DATE || javaSqlType == Types.TIMESTAMP) {
-                        Timestamp sqlDate = null;
-                        try {
-                            // Extract timestamp
-                            sqlDate = extractSqlDate(rs, i);
-
-                        } catch (Exception e) {
-                            if (dateConversionWarning++ < 10) {
-                                logger.warn("{} is not convertible to timestamp or date", rs.getMetaData().getColumnName(i));
-                            }
-                        }
-
-                        if (visitor != null) {
-                            visitor.visitColumn(rs.getMetaData().getColumnName(i), javaSqlType, sqlDate);
-                        }
-                    } else if (javaSqlType == Types.TIME) {
-                        Time time = rs.getTime(i);
-                        if (visitor != null) {
-                            visitor.visitColumn(rs.getMetaData().getColumnName(i), javaSqlType, time);
-                        }
-                    } else {
-                        if (visitor != null) {
-                            visitor.visitColumn(rs.getMetaData().getColumnName(i), javaSqlType, (value != null) ? value.toString() : null);
-                        }
-                    }
-                }
-                dataFileWriter.append(rec);
-                nrOfRows += 1;
-            }
-
-            return nrOfRows;
-        }
-    }
-
     public static Schema createSchema(final ResultSet rs) throws SQLException {
         final ResultSetMetaData meta = rs.getMetaData();
         final int nrOfColumns = meta.getColumnCount();
@@ -396,6 +285,280 @@ public class JdbcCommon {
         return builder.endRecord();
     }
 
+    /**
+     * Converts rows of a result set to records that can be written to an output stream.
+     *
+     * <p>Converting and writing are separate steps so that rows can be read from the database on one thread and written on another. A converter is not
+     * thread-safe, but the rows it returns may be passed to a writer on a different thread.</p>
+     */
+    public interface RowConverter {
+
+        /**
+         * Converts the current row of the specified result set.
+         *
+         * @param rs      the result set positioned on a row
+         * @param visitor records position of the result set, or {@code null}
+         * @return the converted row
+         * @throws SQLException if a SQL error occurs while reading the result set
+         */
+        @Nonnull
+        Object convert(@Nonnull ResultSet rs, RowVisitor visitor) throws SQLException;
+
+        /**
+         * Opens a writer for rows converted by this converter. The writer must be closed to complete the output.
+         *
+         * @param outStream the output stream
+         * @return a new row writer
+         * @throws IOException if an I/O error occurs while writing the header
+         */
+        @Nonnull
+        RowWriter open(@Nonnull OutputStream outStream) throws IOException;
+    }
+
+    /**
+     * Writes converted rows to an output stream.
+     */
+    public interface RowWriter extends Closeable {
+
+        /**
+         * Writes the specified converted row.
+         *
+         * @param row the row from {@link RowConverter#convert(ResultSet, RowVisitor)}
+         * @throws IOException if an I/O error occurs
+         */
+        void write(@Nonnull Object row) throws IOException;
+    }
+
+    /**
+     * Converts rows to lines of delimited text.
+     */
+    private static class DelimitedRowConverter implements RowConverter {
+
+        private final String delimiter;
+        private final DelimiterEscaper escaper;
+        private final String[] names;
+        private final int[] types;
+        private final String header;
+
+        /**
+         * Reused for each row
+         */
+        private final StringBuilder sb = new StringBuilder();
+
+        /**
+         * Avoid overflowing log with redundant messages
+         */
+        private int dateConversionWarning = 0;
+
+        DelimitedRowConverter(@Nonnull final ResultSetMetaData meta, @Nonnull final String delimiter) throws SQLException {
+            this.delimiter = delimiter;
+            this.escaper = new DelimiterEscaper(delimiter);
+
+            final int nrOfColumns = meta.getColumnCount();
+            names = new String[nrOfColumns];
+            types = new int[nrOfColumns];
+            for (int i = 0; i < nrOfColumns; i++) {
+                names[i] = meta.getColumnName(i + 1);
+                types[i] = meta.getColumnType(i + 1);
+                sb.append(escaper.translate(names[i])).append(i != nrOfColumns - 1 ? delimiter : "\n");
+            }
+            header = sb.toString();
+        }
+
+        @Nonnull
+        @Override
+        public Object convert(@Nonnull final ResultSet rs, final RowVisitor visitor) throws SQLException {
+            if (visitor != null) {
+                visitor.visitRow(rs);
+            }
+            sb.setLength(0);
+            for (int i = 0; i < names.length; i++) {
+                final int col = i + 1;
+                final int colType = types[i];
+                String val = null;
+
+                if (colType == Types.DATE || colType == Types.TIMESTAMP) {
+                    Timestamp sqlDate = null;
+                    try {
+                        // Extract timestamp
+                        sqlDate = extractSqlDate(rs, col);
+                    } catch (Exception e) {
+                        // Still failed, maybe exotic date type
+                        if (dateConversionWarning++ < 10) {
+                            logger.warn("{} is not convertible to timestamp or date", names[i]);
+                        }
+                    }
+
+                    if (visitor != null) {
+                        visitor.visitColumn(names[i], colType, sqlDate);
+                    }
+                    if (sqlDate != null) {
+                        val = DATE_TIME_FORMATTER.print(sqlDate.getTime());
+                    }
+                } else if (colType == Types.TIME) {
+                    final Time time = rs.getTime(col);
+                    if (visitor != null) {
+                        visitor.visitColumn(names[i], colType, time);
+                    }
+                    if (time != null) {
+                        val = TIME_FORMATTER.print(time.getTime());
+                    }
+                } else {
+                    val = rs.getString(col);
+                    if (visitor != null) {
+                        visitor.visitColumn(names[i], colType, val);
+                    }
+                }
+                if (val != null) {
+                    sb.append(escaper.translate(val));
+                }
+                sb.append(i != names.length - 1 ? delimiter : "\n");
+            }
+            return sb.toString();
+        }
+
+        @Nonnull
+        @Override
+        public RowWriter open(@Nonnull final OutputStream outStream) throws IOException {
+            final Writer writer = new OutputStreamWriter(outStream);
+            writer.write(header);
+            return new RowWriter() {
+                @Override
+                public void write(@Nonnull final Object row) throws IOException {
+                    writer.write((String) row);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    writer.flush();
+                }
+            };
+        }
+    }
+
+    /**
+     * Converts rows to Avro records.
+     */
+    private static class AvroRowConverter implements RowConverter {
+
+        private final Schema schema;
+        private final String[] names;
+        private final int[] types;
+
+        /**
+         * Avoid overflowing log with redundant messages
+         */
+        private int dateConversionWarning = 0;
+
+        AvroRowConverter(@Nonnull final Schema schema, @Nonnull final ResultSetMetaData meta) throws SQLException {
+            this.schema = schema;
+
+            final int nrOfColumns = meta.getColumnCount();
+            names = new String[nrOfColumns];
+            types = new int[nrOfColumns];
+            for (int i = 0; i < nrOfColumns; i++) {
+                names[i] = meta.getColumnName(i + 1);
+                types[i] = meta.getColumnType(i + 1);
+            }
+        }
+
+        @Nonnull
+        @Override
+        public Object convert(@Nonnull final ResultSet rs, final RowVisitor visitor) throws SQLException {
+            if (visitor != null) {
+                visitor.visitRow(rs);
+            }
+            final GenericRecord rec = new GenericData.Record(schema);
+            for (int i = 1; i <= names.length; i++) {
+                final int javaSqlType = types[i - 1];
+                final Object value = rs.getObject(i);
+
+                if (value == null) {
+                    rec.put(i - 1, null);
+
+                } else if (javaSqlType == BINARY || javaSqlType == VARBINARY || javaSqlType == LONGVARBINARY || javaSqlType == ARRAY || javaSqlType == BLOB || javaSqlType == CLOB) {
+                    // bytes requires little bit different handling
+                    byte[] bytes = rs.getBytes(i);
+                    ByteBuffer bb = ByteBuffer.wrap(bytes);
+                    rec.put(i - 1, bb);
+
+                } else if (value instanceof Byte) {
+                    // tinyint(1) type is returned by JDBC driver as java.sql.Types.TINYINT
+                    // But value is returned by JDBC as java.lang.Byte
+                    // (at least H2 JDBC works this way)
+                    // direct put to avro record results:
+                    // org.apache.avro.AvroRuntimeException: Unknown datum type java.lang.Byte
+                    rec.put(i - 1, ((Byte) value).intValue());
+
+                } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+                    // Avro can't handle BigDecimal and BigInteger as numbers - it will throw an AvroRuntimeException such as: "Unknown datum type: java.math.BigDecimal: 38"
+                    rec.put(i - 1, value.toString());
+
+                } else if (value instanceof Number || value instanceof Boolean) {
+                    rec.put(i - 1, value);
+
+                } else if (value instanceof Date) {
+                    rec.put(i - 1, DATE_TIME_FORMATTER.print(((Date) value).getTime()));
+
+                } else if (value instanceof Time) {
+                    rec.put(i - 1, TIME_FORMATTER.print(((Time) value).getTime()));
+
+                } else if (value instanceof Timestamp) {
+                    rec.put(i - 1, DATE_TIME_FORMATTER.print(((Timestamp) value).getTime()));
+
+                } else {
+                    // The different types that we support are numbers (int, long, double, float),
+                    // as well as boolean values and Strings. Since Avro doesn't provide
+                    // timestamp types, we want to convert those to Strings. So we will cast anything other
+                    // than numbers or booleans to strings by using the toString() method.
+                    rec.put(i - 1, value.toString());
+                }
+
+                //notify the visitor
+                if (visitor == null) {
+                    continue;
+                }
+                if (javaSqlType == Types.DATE || javaSqlType == Types.TIMESTAMP) {
+                    Timestamp sqlDate = null;
+                    try {
+                        // Extract timestamp
+                        sqlDate = extractSqlDate(rs, i);
+
+                    } catch (Exception e) {
+                        if (dateConversionWarning++ < 10) {
+                            logger.warn("{} is not convertible to timestamp or date", names[i - 1]);
+                        }
+                    }
+                    visitor.visitColumn(names[i - 1], javaSqlType, sqlDate);
+                } else if (javaSqlType == Types.TIME) {
+                    visitor.visitColumn(names[i - 1], javaSqlType, rs.getTime(i));
+                } else {
+                    visitor.visitColumn(names[i - 1], javaSqlType, (value != null) ? value.toString() : null);
+                }
+            }
+            return rec;
+        }
+
+        @Nonnull
+        @Override
+        public RowWriter open(@Nonnull final OutputStream outStream) throws IOException {
+            final DatumWriter<GenericRecord> datumWriter = new GenericDatumWriter<>(schema);
+            final DataFileWriter<GenericRecord> dataFileWriter = new DataFileWriter<>(datumWriter);
+            dataFileWriter.create(schema, outStream);
+            return new RowWriter() {
+                @Override
+                public void write(@Nonnull final Object row) throws IOException {
+                    dataFileWriter.append((GenericRecord) row);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    dataFileWriter.close();
+                }
+            };
+        }
+    }
+
     /**
      * Escapes values in delimited text files.
      */
@@ -20,6 +20,7 @@ package com.thinkbiganalytics.ingest;
  * #L%
  */
 
+import org.joda.time.DateTimeUtils;
 import org.joda.time.DateTimeZone;
 import org.junit.Before;
 import org.junit.Test;
@@ -29,10 +30,13 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.sql.Timestamp;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  */
@@ -131,4 +135,107 @@ public class GetTableDataSupportTest {
         tableDataSupport.selectIncremental("testTable", new String[]{"col1", "col2"}, "col2", overlapTime, lastLoadDate, backoffTime, GetTableDataSupport.UnitSizes.NONE);
     }
 
+    @Test
+    public void testPartitionsRange() throws Exception {
+        Statement st = Mockito.mock(Statement.class);
+        ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(conn.createStatement()).thenReturn(st);
+        Mockito.when(st.executeQuery("SELECT MIN(id), MAX(id) FROM testTable")).thenReturn(rs);
+        Mockito.when(rs.next()).thenReturn(true);
+        Mockito.when(rs.getObject(1)).thenReturn(1);
+        Mockito.when(rs.getObject(2)).thenReturn(100);
+
+        List<GetTableDataSupport.Partition> partitions = tableDataSupport.partitions("testTable", "id", GetTableDataSupport.PartitionStrategy.RANGE, 4);
+        assertEquals(4, partitions.size());
+        assertEquals("0 (id IS NULL OR id < ?) [26]", partitions.get(0).toString());
+        assertEquals("1 (id >= ? AND id < ?) [26, 51]", partitions.get(1).toString());
+        assertEquals("2 (id >= ? AND id < ?) [51, 76]", partitions.get(2).toString());
+        assertEquals("3 (id >= ?) [76]", partitions.get(3).toString());
+    }
+
+    @Test
+    public void testPartitionsRangeSmallerThanCount() throws Exception {
+        Statement st = Mockito.mock(Statement.class);
+        ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(conn.createStatement()).thenReturn(st);
+        Mockito.when(st.executeQuery("SELECT MIN(id), MAX(id) FROM testTable")).thenReturn(rs);
+        Mockito.when(rs.next()).thenReturn(true);
+        Mockito.when(rs.getObject(1)).thenReturn(5L);
+        Mockito.when(rs.getObject(2)).thenReturn(6L);
+
+        List<GetTableDataSupport.Partition> partitions = tableDataSupport.partitions("testTable", "id", GetTableDataSupport.PartitionStrategy.RANGE, 4);
+        assertEquals(2, partitions.size());
+        assertEquals("0 (id IS NULL OR id < ?) [6]", partitions.get(0).toString());
+        assertEquals("1 (id >= ?) [6]", partitions.get(1).toString());
+    }
+
+    @Test
+    public void testPartitionsEmptyTable() throws Exception {
+        Statement st = Mockito.mock(Statement.class);
+        ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(conn.createStatement()).thenReturn(st);
+        Mockito.when(st.executeQuery("SELECT MIN(id), MAX(id) FROM testTable")).thenReturn(rs);
+        Mockito.when(rs.next()).thenReturn(true);
+
+        List<GetTableDataSupport.Partition> partitions = tableDataSupport.partitions("testTable", "id", GetTableDataSupport.PartitionStrategy.RANGE, 4);
+        assertEquals(1, partitions.size());
+        assertNull(partitions.get(0).getPredicate());
+    }
+
+    @Test
+    public void testPartitionsHash() throws Exception {
+        List<GetTableDataSupport.Partition> partitions = tableDataSupport.partitions("testTable", "id", GetTableDataSupport.PartitionStrategy.HASH, 3);
+        assertEquals(3, partitions.size());
+        assertEquals("id IS NULL OR MOD(ABS(id), 3) = 0", partitions.get(0).getPredicate());
+        assertEquals("MOD(ABS(id), 3) = 1", partitions.get(1).getPredicate());
+        assertEquals("MOD(ABS(id), 3) = 2", partitions.get(2).getPredicate());
+        Mockito.verifyZeroInteractions(conn);
+    }
+
+    @Test
+    public void testSelectFullLoadPartition() throws Exception {
+        PreparedStatement ps = Mockito.mock(PreparedStatement.class);
+        Mockito.when(conn.prepareStatement("SELECT col1,col2 FROM testTable WHERE col1 >= ? AND col1 < ?")).thenReturn(ps);
+        tableDataSupport.setFetchSize(500);
+        tableDataSupport.selectFullLoad("testTable", new String[]{"col1", "col2"}, new GetTableDataSupport.Partition(1, "col1 >= ? AND col1 < ?", 10L, 20L));
+
+        Mockito.verify(ps).setFetchSize(500);
+        Mockito.verify(ps).setObject(1, 10L);
+        Mockito.verify(ps).setObject(2, 20L);
+        Mockito.verify(ps).executeQuery();
+    }
+
+    @Test
+    public void testSelectIncrementalPartitions() throws Exception {
+        PreparedStatement ps = Mockito.mock(PreparedStatement.class);
+        Mockito.when(conn.prepareStatement(Mockito.anyString())).thenReturn(ps);
+        Date lastLoadDate = new Date(1458872000000L);
+
+        GetTableDataSupport.DateRange range;
+        try {
+            DateTimeUtils.setCurrentMillisFixed(testDate.getTime());
+            range = GetTableDataSupport.loadRange(lastLoadDate, 0, 0, GetTableDataSupport.UnitSizes.NONE);
+            // Time passes before the partitions are queried
+            DateTimeUtils.setCurrentMillisFixed(testDate.getTime() + 60000L);
+            tableDataSupport.selectIncremental("testTable", new String[]{"col1", "col2"}, "col2", range, new GetTableDataSupport.Partition(0, "col1 IS NULL OR col1 < ?", 10L));
+            tableDataSupport.selectIncremental("testTable", new String[]{"col1", "col2"}, "col2", range, new GetTableDataSupport.Partition(1, "col1 >= ?", 10L));
+        } finally {
+            DateTimeUtils.setCurrentMillisSystem();
+        }
+
+        Mockito.verify(conn).prepareStatement("select col1,col2 from testTable WHERE col2 > ? and col2 < ? and (col1 IS NULL OR col1 < ?)");
+        Mockito.verify(conn).prepareStatement("select col1,col2 from testTable WHERE col2 > ? and col2 < ? and (col1 >= ?)");
+        Mockito.verify(ps, Mockito.times(2)).setTimestamp(1, new Timestamp(lastLoadDate.getTime()));
+        Mockito.verify(ps, Mockito.times(2)).setTimestamp(2, new Timestamp(testDate.getTime()));
+        Mockito.verify(ps, Mockito.times(2)).setObject(3, 10L);
+        Mockito.verify(ps, Mockito.times(2)).executeQuery();
+    }
+
+    @Test
+    public void testSelectIncrementalPartitionEmptyRange() throws Exception {
+        GetTableDataSupport.DateRange range = new GetTableDataSupport.DateRange(testDate, testDate, 0, 0, GetTableDataSupport.UnitSizes.NONE);
+        assertNull(tableDataSupport.selectIncremental("testTable", new String[]{"col1", "col2"}, "col2", range, new GetTableDataSupport.Partition(0, null)));
+        Mockito.verifyZeroInteractions(conn);
+    }
+
 }
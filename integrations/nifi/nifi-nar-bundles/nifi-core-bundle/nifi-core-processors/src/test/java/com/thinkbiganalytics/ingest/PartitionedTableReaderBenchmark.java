@@ -0,0 +1,106 @@
+package com.thinkbiganalytics.ingest;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.util.JdbcCommon;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares extracting a table with a single query against a partitioned extract, on an H2 database with 10 million rows.
+ * Skipped unless run with -Dgettabledata.benchmark=true. The number of rows can be changed with -Dgettabledata.benchmark.rows
+ */
+public class PartitionedTableReaderBenchmark {
+
+    private static final int PARTITIONS = 4;
+    private static final int FETCH_SIZE = 1000;
+    private static final long MAX_ROWS_PER_CHUNK = 100000L;
+
+    @Test
+    public void benchmarkPartitionedExtract() throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("gettabledata.benchmark"));
+        final long rows = Long.getLong("gettabledata.benchmark.rows", 10000000L);
+        final String[] fields = new String[]{"id", "name", "amount", "updated"};
+
+        final File dir = Files.createTempDirectory("gettabledata-benchmark").toFile();
+        final String url = "jdbc:h2:" + new File(dir, "bench").getAbsolutePath() + ";MULTI_THREADED=1";
+        try (final Connection conn = DriverManager.getConnection(url)) {
+            try (final Statement st = conn.createStatement()) {
+                st.execute("CREATE TABLE bench (id BIGINT PRIMARY KEY, name VARCHAR(40), amount DECIMAL(12,2), updated TIMESTAMP)");
+                st.execute("INSERT INTO bench SELECT x, 'name-' || x, x / 100.0, DATEADD('SECOND', x, TIMESTAMP '2017-01-01 00:00:00') FROM SYSTEM_RANGE(1, " + rows + ")");
+            }
+
+            // Single query
+            long start = System.nanoTime();
+            final CountingOutputStream singleOut = new CountingOutputStream(new NullOutputStream());
+            final long singleRows;
+            final GetTableDataSupport support = new GetTableDataSupport(conn, 0);
+            support.setFetchSize(FETCH_SIZE);
+            try (final ResultSet rs = support.selectFullLoad("bench", fields)) {
+                singleRows = JdbcCommon.convertToDelimitedStream(rs, singleOut, null, ",");
+            }
+            final long singleElapsed = System.nanoTime() - start;
+
+            // Partitioned
+            start = System.nanoTime();
+            final List<GetTableDataSupport.Partition> partitions = support.partitions("bench", "id", GetTableDataSupport.PartitionStrategy.RANGE, PARTITIONS);
+            final CountingOutputStream partitionedOut = new CountingOutputStream(new NullOutputStream());
+            long partitionedRows = 0;
+            int chunks = 0;
+            try (final PartitionedTableReader reader = new PartitionedTableReader(partitions, () -> DriverManager.getConnection(url), (partitionConn, partition) -> {
+                final GetTableDataSupport partitionSupport = new GetTableDataSupport(partitionConn, 0);
+                partitionSupport.setFetchSize(FETCH_SIZE);
+                return partitionSupport.selectFullLoad("bench", fields, partition);
+            }, rs -> JdbcCommon.newDelimitedConverter(rs, ","), null)) {
+                PartitionedTableReader.Cursor cursor;
+                while ((cursor = reader.next()) != null) {
+                    try (final JdbcCommon.RowWriter writer = cursor.getConverter().open(partitionedOut)) {
+                        partitionedRows += cursor.drain(writer, MAX_ROWS_PER_CHUNK);
+                    }
+                    chunks++;
+                }
+            }
+            final long partitionedElapsed = System.nanoTime() - start;
+
+            System.out.printf("Single query: %d rows, %d bytes in %d ms (%.0f rows/sec)%n", singleRows, singleOut.getByteCount(), singleElapsed / 1000000L, singleRows * 1e9d / singleElapsed);
+            System.out.printf("%d partitions: %d rows, %d bytes, %d chunks in %d ms (%.0f rows/sec)%n", partitions.size(), partitionedRows, partitionedOut.getByteCount(), chunks,
+                              partitionedElapsed / 1000000L, partitionedRows * 1e9d / partitionedElapsed);
+            assertEquals(rows, singleRows);
+            assertEquals(rows, partitionedRows);
+        } finally {
+            FileUtils.deleteQuietly(dir);
+        }
+    }
+}
@@ -40,6 +40,7 @@ import org.apache.avro.util.Utf8;
 import org.apache.nifi.components.ValidationResult;
 import org.apache.nifi.controller.AbstractControllerService;
 import org.apache.nifi.dbcp.DBCPService;
+import org.apache.nifi.processor.exception.ProcessException;
 import org.apache.nifi.util.MockFlowFile;
 import org.apache.nifi.util.MockProcessContext;
 import org.apache.nifi.util.TestRunner;
@@ -54,6 +55,7 @@ import org.mockito.Mockito;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.Date;
+import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -62,12 +64,19 @@ import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -290,6 +299,155 @@ public class GetTableDataTest {
                                              + "2|Jon|Stephens|Jon.Stephens@sakilastaff.com|2006-02-15T03:57:16.000Z\n");
     }
 
+    /**
+     * Verify a partition column is required for partitioned extracts.
+     */
+    @Test
+    public void testPartitionValidator() {
+        runner.setProperty(GetTableData.PARTITION_STRATEGY, GetTableDataSupport.PartitionStrategy.RANGE.toString());
+        List<ValidationResult> results = (List<ValidationResult>) ((MockProcessContext) runner.getProcessContext()).validate();
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals("Partition Column", results.get(0).getSubject());
+
+        runner.setProperty(GetTableData.PARTITION_COLUMN, "id");
+        results = (List<ValidationResult>) ((MockProcessContext) runner.getProcessContext()).validate();
+        Assert.assertEquals(0, results.size());
+    }
+
+    /**
+     * Verify a partitioned extract by range of the partition column.
+     */
+    @Test
+    public void testPartitionedRange() throws Exception {
+        useH2Table(1000);
+        runner.setProperty(GetTableData.PARTITION_STRATEGY, GetTableDataSupport.PartitionStrategy.RANGE.toString());
+        runner.setProperty(GetTableData.PARTITION_COLUMN, "id");
+        runner.setProperty(GetTableData.PARTITION_COUNT, "4");
+        runner.setProperty(GetTableData.MAX_ROWS_PER_FLOW_FILE, "100");
+        runner.enqueue(new byte[0]);
+        runner.run();
+
+        final List<MockFlowFile> flowFiles = runner.getFlowFilesForRelationship(CommonProperties.REL_SUCCESS);
+        Assert.assertEquals(0, runner.getFlowFilesForRelationship(CommonProperties.REL_FAILURE).size());
+        Assert.assertEquals(0, runner.getFlowFilesForRelationship(GetTableData.REL_NO_DATA).size());
+        Assert.assertEquals(12, flowFiles.size());
+
+        final List<Set<Integer>> partitions = verifyChunks(flowFiles, 1000, 100);
+        Assert.assertEquals(4, partitions.size());
+        Assert.assertEquals(IntStream.rangeClosed(1, 250).boxed().collect(Collectors.toSet()), partitions.get(0));
+        Assert.assertEquals(IntStream.rangeClosed(751, 1000).boxed().collect(Collectors.toSet()), partitions.get(3));
+    }
+
+    /**
+     * Verify a partitioned extract by hash of the partition column.
+     */
+    @Test
+    public void testPartitionedHash() throws Exception {
+        useH2Table(1000);
+        runner.setProperty(GetTableData.PARTITION_STRATEGY, GetTableDataSupport.PartitionStrategy.HASH.toString());
+        runner.setProperty(GetTableData.PARTITION_COLUMN, "id");
+        runner.setProperty(GetTableData.PARTITION_COUNT, "3");
+        runner.enqueue(new byte[0]);
+        runner.run();
+
+        final List<MockFlowFile> flowFiles = runner.getFlowFilesForRelationship(CommonProperties.REL_SUCCESS);
+        Assert.assertEquals(3, flowFiles.size());
+
+        final List<Set<Integer>> partitions = verifyChunks(flowFiles, 1000, 1000);
+        for (int i = 0; i < partitions.size(); i++) {
+            final int partition = i;
+            Assert.assertTrue(partitions.get(i).stream().allMatch(id -> id % 3 == partition));
+        }
+    }
+
+    /**
+     * Verify splitting the output of a single query.
+     */
+    @Test
+    public void testMaxRowsPerFlowFile() throws Exception {
+        useH2Table(1000);
+        runner.setProperty(GetTableData.MAX_ROWS_PER_FLOW_FILE, "400");
+        runner.enqueue(new byte[0]);
+        runner.run();
+
+        final List<MockFlowFile> flowFiles = runner.getFlowFilesForRelationship(CommonProperties.REL_SUCCESS);
+        Assert.assertEquals(3, flowFiles.size());
+        verifyChunks(flowFiles, 1000, 400);
+        Assert.assertEquals(Arrays.asList("0", "1", "2"), flowFiles.stream().map(flowFile -> flowFile.getAttribute(GetTableData.PARTITION_CHUNK)).collect(Collectors.toList()));
+        Assert.assertEquals(Arrays.asList("400", "400", "200"), flowFiles.stream().map(flowFile -> flowFile.getAttribute(GetTableData.RESULT_ROW_COUNT)).collect(Collectors.toList()));
+    }
+
+    /**
+     * Verify output of a partitioned extract with no rows.
+     */
+    @Test
+    public void testPartitionedNoData() throws Exception {
+        useH2Table(0);
+        runner.setProperty(GetTableData.PARTITION_STRATEGY, GetTableDataSupport.PartitionStrategy.RANGE.toString());
+        runner.setProperty(GetTableData.PARTITION_COLUMN, "id");
+        runner.enqueue(new byte[0]);
+        runner.run();
+
+        final List<MockFlowFile> flowFiles = runner.getFlowFilesForRelationship(GetTableData.REL_NO_DATA);
+        Assert.assertEquals(0, runner.getFlowFilesForRelationship(CommonProperties.REL_SUCCESS).size());
+        Assert.assertEquals(1, flowFiles.size());
+        Assert.assertEquals("0", flowFiles.get(0).getAttribute(GetTableData.RESULT_ROW_COUNT));
+    }
+
+    /**
+     * Uses an H2 database containing the specified number of rows in {@code mytable}.
+     */
+    private void useH2Table(final int rows) throws Exception {
+        final H2DBCPService jdbcService = new H2DBCPService();
+        try (final Connection conn = jdbcService.getConnection(); final Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE mytable (id INT PRIMARY KEY, first_name VARCHAR(50), last_name VARCHAR(50), email VARCHAR(100), last_updated TIMESTAMP)");
+            if (rows > 0) {
+                st.execute("INSERT INTO mytable SELECT x, 'First' || x, 'Last' || x, 'user' || x || '@example.com', DATEADD('SECOND', x, TIMESTAMP '2017-01-01 00:00:00') "
+                           + "FROM SYSTEM_RANGE(1, " + rows + ")");
+            }
+        }
+
+        runner.addControllerService("H2DBCPService", jdbcService);
+        runner.enableControllerService(jdbcService);
+        runner.setProperty(GetTableData.JDBC_SERVICE, "H2DBCPService");
+    }
+
+    /**
+     * Verifies the fragment attributes and rows of partitioned output.
+     *
+     * @param flowFiles the output flow files
+     * @param rows      the expected total number of rows
+     * @param maxRows   the maximum number of rows per flow file
+     * @return the ids in each partition
+     */
+    private List<Set<Integer>> verifyChunks(@Nonnull final List<MockFlowFile> flowFiles, final int rows, final int maxRows) {
+        final Set<Integer> ids = new HashSet<>();
+        final Set<String> indexes = new HashSet<>();
+        final Map<Integer, Set<Integer>> partitions = new TreeMap<>();
+
+        for (final MockFlowFile flowFile : flowFiles) {
+            Assert.assertEquals(flowFiles.get(0).getAttribute(GetTableData.FRAGMENT_ID), flowFile.getAttribute(GetTableData.FRAGMENT_ID));
+            Assert.assertEquals(Integer.toString(flowFiles.size()), flowFile.getAttribute(GetTableData.FRAGMENT_COUNT));
+            indexes.add(flowFile.getAttribute(GetTableData.FRAGMENT_INDEX));
+
+            final String[] lines = new String(flowFile.toByteArray()).split("\n");
+            Assert.assertEquals("ID,FIRST_NAME,LAST_NAME,EMAIL,LAST_UPDATED", lines[0]);
+            Assert.assertEquals(Integer.toString(lines.length - 1), flowFile.getAttribute(GetTableData.RESULT_ROW_COUNT));
+            Assert.assertTrue(lines.length - 1 <= maxRows);
+
+            final Set<Integer> partition = partitions.computeIfAbsent(Integer.valueOf(flowFile.getAttribute(GetTableData.PARTITION_INDEX)), index -> new HashSet<>());
+            for (int i = 1; i < lines.length; i++) {
+                final int id = Integer.parseInt(lines[i].substring(0, lines[i].indexOf(',')));
+                Assert.assertTrue("Duplicate row " + id, ids.add(id));
+                partition.add(id);
+            }
+        }
+
+        Assert.assertEquals(rows, ids.size());
+        Assert.assertEquals(IntStream.range(0, flowFiles.size()).mapToObj(Integer::toString).collect(Collectors.toSet()), indexes);
+        return new ArrayList<>(partitions.values());
+    }
+
     /**
      * A mock implementation of {@link DBCPService} for unit testing.
      */
@@ -493,4 +651,24 @@ public class GetTableDataTest {
             throw new UnsupportedOperationException();
         }
     }
+
+    /**
+     * A {@link DBCPService} for an in-memory H2 database.
+     */
+    private static class H2DBCPService extends AbstractControllerService implements DBCPService {
+
+        /**
+         * Unique database for each service
+         */
+        private final String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+
+        @Override
+        public Connection getConnection() {
+            try {
+                return DriverManager.getConnection(url);
+            } catch (final SQLException e) {
+                throw new ProcessException(e);
+            }
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package com.thinkbiganalytics.nifi.v2.elasticsearch;
+
+/*-
+ * #%L
+ * thinkbig-nifi-elasticsearch-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.nifi.controller.ControllerService;
+import org.elasticsearch.client.Client;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Provides a client connected to an Elasticsearch cluster that is shared by all processors using this service.
+ */
+public interface ElasticSearchClientService extends ControllerService {
+
+    /**
+     * Gets the shared client. The client is thread-safe and must not be closed by callers.
+     *
+     * @return the Elasticsearch client
+     */
+    @Nonnull
+    Client getClient();
+}
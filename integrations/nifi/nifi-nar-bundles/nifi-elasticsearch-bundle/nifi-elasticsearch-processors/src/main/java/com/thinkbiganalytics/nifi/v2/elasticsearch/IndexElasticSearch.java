@@ -20,40 +20,59 @@ package com.thinkbiganalytics.nifi.v2.elasticsearch;
  * #L%
  */
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.thinkbiganalytics.nifi.processor.AbstractNiFiProcessor;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.nifi.annotation.behavior.InputRequirement;
 import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnStopped;
 import org.apache.nifi.components.PropertyDescriptor;
+import org.apache.nifi.components.ValidationContext;
+import org.apache.nifi.components.ValidationResult;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.logging.ComponentLog;
+import org.apache.nifi.processor.DataUnit;
 import org.apache.nifi.processor.ProcessContext;
 import org.apache.nifi.processor.ProcessSession;
 import org.apache.nifi.processor.Relationship;
 import org.apache.nifi.processor.exception.ProcessException;
-import org.apache.nifi.processor.io.InputStreamCallback;
 import org.apache.nifi.processor.util.StandardValidators;
-import org.codehaus.jettison.json.JSONArray;
-import org.codehaus.jettison.json.JSONObject;
-import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.client.transport.TransportClient;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.InetSocketTransportAddress;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetAddress;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * This processor indexes json data in elasticsearch
@@ -107,8 +126,8 @@ public class IndexElasticSearch extends AbstractNiFiProcessor {
      */
     public static final PropertyDescriptor HOST_NAME = new PropertyDescriptor.Builder()
         .name("HostName")
-        .description("Elasticsearch host")
-        .required(true)
+        .description("Elasticsearch host. Not used if an Elasticsearch Client Service is set.")
+        .required(false)
         .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
         .expressionLanguageSupported(true)
         .build();
@@ -118,12 +137,23 @@ public class IndexElasticSearch extends AbstractNiFiProcessor {
      */
     public static final PropertyDescriptor CLUSTER_NAME = new PropertyDescriptor.Builder()
         .name("ClusterName")
-        .description("Elasticsearch cluster")
-        .required(true)
+        .description("Elasticsearch cluster. Not used if an Elasticsearch Client Service is set.")
+        .required(false)
         .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
         .expressionLanguageSupported(true)
         .build();
 
+    /**
+     * Property for the elastic search transport port
+     */
+    public static final PropertyDescriptor PORT = new PropertyDescriptor.Builder()
+        .name("Port")
+        .description("Elasticsearch transport port. Not used if an Elasticsearch Client Service is set.")
+        .required(true)
+        .defaultValue("9300")
+        .addValidator(StandardValidators.PORT_VALIDATOR)
+        .build();
+
     /**
      * Property for the id to use for indexing into elasticsearch.
      */
@@ -134,9 +164,96 @@ public class IndexElasticSearch extends AbstractNiFiProcessor {
         .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
         .expressionLanguageSupported(true)
         .build();
+
+    /**
+     * Property for the shared elasticsearch client
+     */
+    public static final PropertyDescriptor CLIENT_SERVICE = new PropertyDescriptor.Builder()
+        .name("Elasticsearch Client Service")
+        .description("Service providing a client shared by all processors. If not set, the processor keeps its own client for the HostName, ClusterName and Port.")
+        .required(false)
+        .identifiesControllerService(ElasticSearchClientService.class)
+        .build();
+
+    /**
+     * Property for the maximum number of documents in a bulk request
+     */
+    public static final PropertyDescriptor BULK_ACTIONS = new PropertyDescriptor.Builder()
+        .name("Bulk Actions")
+        .description("Maximum number of documents in a bulk request")
+        .required(true)
+        .defaultValue("1000")
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .build();
+
+    /**
+     * Property for the maximum size of a bulk request
+     */
+    public static final PropertyDescriptor BULK_SIZE = new PropertyDescriptor.Builder()
+        .name("Bulk Size")
+        .description("Maximum size of a bulk request")
+        .required(true)
+        .defaultValue("5 MB")
+        .addValidator(StandardValidators.DATA_SIZE_VALIDATOR)
+        .build();
+
+    /**
+     * Property for the number of bulk requests in flight
+     */
+    public static final PropertyDescriptor CONCURRENT_REQUESTS = new PropertyDescriptor.Builder()
+        .name("Concurrent Requests")
+        .description("Number of bulk requests that may be in flight while the next is being built. Reading the flow file waits when this many requests are in flight. "
+                     + "Zero sends each request before reading more documents.")
+        .required(true)
+        .defaultValue("1")
+        .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+        .build();
+
+    /**
+     * Property for the number of times to retry rejected documents
+     */
+    public static final PropertyDescriptor MAX_RETRIES = new PropertyDescriptor.Builder()
+        .name("Max Retries")
+        .description("Number of times to retry a bulk request rejected because the cluster is busy, with exponential backoff")
+        .required(true)
+        .defaultValue("8")
+        .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+        .build();
+
+    /**
+     * Property for the time to wait for bulk requests to complete
+     */
+    public static final PropertyDescriptor TIMEOUT = new PropertyDescriptor.Builder()
+        .name("Timeout")
+        .description("Maximum time to wait for the remaining bulk requests after the flow file has been read")
+        .required(true)
+        .defaultValue("5 min")
+        .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+        .build();
+
+    /**
+     * Initial delay when retrying a rejected bulk request
+     */
+    private static final TimeValue RETRY_DELAY = TimeValue.timeValueMillis(100);
+
+    /**
+     * Maximum number of clients kept open when no client service is set. Other hosts get a client that is closed after the flow file.
+     */
+    private static final int MAX_CLIENTS = 10;
+
+    /**
+     * Parses and writes documents
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     private final Set<Relationship> relationships;
     private final List<PropertyDescriptor> propDescriptors;
 
+    /**
+     * Clients used when no client service is set, by cluster name, host name and port
+     */
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+
     /**
      * default constructor constructs the relationship and property collections
      */
@@ -151,7 +268,14 @@ public class IndexElasticSearch extends AbstractNiFiProcessor {
         pds.add(TYPE);
         pds.add(HOST_NAME);
         pds.add(CLUSTER_NAME);
+        pds.add(PORT);
         pds.add(ID_FIELD);
+        pds.add(CLIENT_SERVICE);
+        pds.add(BULK_ACTIONS);
+        pds.add(BULK_SIZE);
+        pds.add(CONCURRENT_REQUESTS);
+        pds.add(MAX_RETRIES);
+        pds.add(TIMEOUT);
         propDescriptors = Collections.unmodifiableList(pds);
     }
 
@@ -165,6 +289,31 @@ public class IndexElasticSearch extends AbstractNiFiProcessor {
         return propDescriptors;
     }
 
+    @Override
+    protected Collection<ValidationResult> customValidate(ValidationContext validationContext) {
+        final List<ValidationResult> results = new ArrayList<>();
+
+        if (!validationContext.getProperty(CLIENT_SERVICE).isSet() && (!validationContext.getProperty(HOST_NAME).isSet() || !validationContext.getProperty(CLUSTER_NAME).isSet())) {
+            results.add(new ValidationResult.Builder()
+                            .subject(this.getClass().getSimpleName())
+                            .valid(false)
+                            .explanation("Either an Elasticsearch Client Service or both HostName and ClusterName are required.")
+                            .build());
+        }
+        return results;
+    }
+
+    /**
+     * Closes the clients opened by this processor.
+     */
+    @OnStopped
+    public void closeClients() {
+        for (final Client client : clients.values()) {
+            client.close();
+        }
+        clients.clear();
+    }
+
     @Override
     public void onTrigger(final ProcessContext context, final ProcessSession session) throws ProcessException {
         final ComponentLog logger = getLog();
@@ -173,70 +322,175 @@ public class IndexElasticSearch extends AbstractNiFiProcessor {
             return;
         }
         try {
-              /* Configuration parameters for spark launcher */
             String indexName = context.getProperty(INDEX_NAME).evaluateAttributeExpressions(flowFile).getValue();
             String type = context.getProperty(TYPE).evaluateAttributeExpressions(flowFile).getValue();
-            String hostName = context.getProperty(HOST_NAME).evaluateAttributeExpressions(flowFile).getValue();
-            String clusterName = context.getProperty(CLUSTER_NAME).evaluateAttributeExpressions(flowFile).getValue();
             String idField = context.getProperty(ID_FIELD).evaluateAttributeExpressions(flowFile).getValue();
 
-            final StringBuffer sb = new StringBuffer();
-            session.read(flowFile, new InputStreamCallback() {
-
-                @Override
-                public void process(InputStream in) throws IOException {
-                    sb.append(IOUtils.toString(in, Charset.defaultCharset()));
-                }
-
-            });
+            Client client = getClient(context, flowFile);
+            final Client flowFileClient;
+            if (client == null) {
+                flowFileClient = openClient(context, flowFile);
+                client = flowFileClient;
+            } else {
+                flowFileClient = null;
+            }
 
-            logger.debug("The json that was received is: " + sb.toString());
+            final BulkListener listener = new BulkListener();
+            final BulkProcessor bulkProcessor = BulkProcessor.builder(client, listener)
+                .setBulkActions(context.getProperty(BULK_ACTIONS).asInteger())
+                .setBulkSize(new ByteSizeValue(context.getProperty(BULK_SIZE).asDataSize(DataUnit.B).longValue()))
+                .setConcurrentRequests(context.getProperty(CONCURRENT_REQUESTS).asInteger())
+                .setBackoffPolicy(BackoffPolicy.exponentialBackoff(RETRY_DELAY, context.getProperty(MAX_RETRIES).asInteger()))
+                .build();
 
-            boolean success = sendToElasticSearch(sb.toString(), hostName, indexName, type, clusterName, idField);
+            final AtomicLong documents = new AtomicLong(0L);
+            try {
+                session.read(flowFile, in -> documents.set(addDocuments(in, bulkProcessor, indexName, type, idField)));
+            } finally {
+                try {
+                    if (!bulkProcessor.awaitClose(context.getProperty(TIMEOUT).asTimePeriod(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS)) {
+                        listener.onTimeout();
+                    }
+                } finally {
+                    if (flowFileClient != null) {
+                        flowFileClient.close();
+                    }
+                }
+            }
 
-             /* Wait for job completion */
-            if (!success) {
-                logger.info("*** Completed with failed status ");
+            if (listener.getFailedCount() > 0) {
+                logger.error("Failed to index {} of {} documents from {}: {}", new Object[]{listener.getFailedCount(), documents.get(), flowFile, listener.getFailureMessage()});
                 session.transfer(flowFile, REL_FAILURE);
             } else {
-                logger.info("*** Completed with status ");
+                logger.info("Indexed {} documents from {}", new Object[]{documents.get(), flowFile});
                 session.transfer(flowFile, REL_SUCCESS);
             }
         } catch (final Exception e) {
             logger.error("Unable to execute Elasticsearch job", new Object[]{flowFile, e});
             session.transfer(flowFile, REL_FAILURE);
         }
+    }
+
+    /**
+     * Gets the client from the client service, or a client kept by this processor for the configured host.
+     *
+     * @return the client, or {@code null} if this processor already keeps {@link #MAX_CLIENTS} clients for other hosts
+     */
+    @Nullable
+    private Client getClient(@Nonnull final ProcessContext context, @Nonnull final FlowFile flowFile) throws IOException {
+        if (context.getProperty(CLIENT_SERVICE).isSet()) {
+            return context.getProperty(CLIENT_SERVICE).asControllerService(ElasticSearchClientService.class).getClient();
+        }
 
+        final String hostName = context.getProperty(HOST_NAME).evaluateAttributeExpressions(flowFile).getValue();
+        final String clusterName = context.getProperty(CLUSTER_NAME).evaluateAttributeExpressions(flowFile).getValue();
+        final String key = clusterName + "@" + hostName + ":" + context.getProperty(PORT).getValue();
+
+        Client client = clients.get(key);
+        if (client == null) {
+            synchronized (clients) {
+                client = clients.get(key);
+                if (client == null && clients.size() < MAX_CLIENTS) {
+                    client = openClient(context, flowFile);
+                    clients.put(key, client);
+                }
+            }
+        }
+        return client;
     }
 
-    private boolean sendToElasticSearch(String json, String hostName, String index, String type, String clusterName, String idField) throws Exception {
-        final ComponentLog logger = getLog();
+    /**
+     * Opens a client for the configured host. The caller must close the client.
+     */
+    @Nonnull
+    private Client openClient(@Nonnull final ProcessContext context, @Nonnull final FlowFile flowFile) throws IOException {
+        final String hostName = context.getProperty(HOST_NAME).evaluateAttributeExpressions(flowFile).getValue();
+        final String clusterName = context.getProperty(CLUSTER_NAME).evaluateAttributeExpressions(flowFile).getValue();
+        final int port = context.getProperty(PORT).asInteger();
+
         Settings settings = Settings.settingsBuilder()
             .put("cluster.name", clusterName).build();
-        Client client = TransportClient.builder().settings(settings).build()
-            .addTransportAddress(new InetSocketTransportAddress(InetAddress.getByName(hostName), 9300));
+        return TransportClient.builder().settings(settings).build()
+            .addTransportAddress(new InetSocketTransportAddress(InetAddress.getByName(hostName), port));
+    }
 
-        JSONArray array = new JSONArray(json);
-        BulkRequestBuilder bulkRequest = client.prepareBulk();
+    /**
+     * Streams the documents in a JSON array to the bulk processor.
+     *
+     * @return the number of documents
+     */
+    private long addDocuments(@Nonnull final InputStream in, @Nonnull final BulkProcessor bulkProcessor, final String index, final String type, final String idField)
+        throws IOException {
+        long count = 0;
+        try (final JsonParser parser = MAPPER.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array but found " + parser.getCurrentToken());
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                final ObjectNode document = MAPPER.readTree(parser);
+                final String id;
+                if (idField != null && idField.length() > 0) {
+                    final JsonNode idNode = document.get(idField);
+                    if (idNode == null || idNode.isNull()) {
+                        throw new IOException("Document " + count + " does not have a value for " + idField);
+                    }
+                    id = idNode.asText();
+                } else {
+                    id = UUID.randomUUID().toString();
+                }
+                document.put("post_date", String.valueOf(System.currentTimeMillis()));
+                bulkProcessor.add(new IndexRequest(index, type, id).source(MAPPER.writeValueAsBytes(document)));
+                count++;
+            }
+            if (parser.getCurrentToken() != JsonToken.END_ARRAY) {
+                throw new IOException("Expected a JSON object but found " + parser.getCurrentToken());
+            }
+        }
+        return count;
+    }
 
-        for (int i = 0; i < array.length(); i++) {
-            JSONObject jsonObj = array.getJSONObject(i);
-            String id;
-            if (idField != null && idField.length() > 0) {
-                id = jsonObj.getString(idField);
-            } else {
-                id = UUID.randomUUID().toString();
+    /**
+     * Counts the documents that could not be indexed.
+     */
+    private static class BulkListener implements BulkProcessor.Listener {
+
+        private final AtomicLong failedCount = new AtomicLong(0L);
+        private final AtomicReference<String> failureMessage = new AtomicReference<>();
+
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request) {
+            // ignored
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+            if (response.hasFailures()) {
+                for (final BulkItemResponse item : response) {
+                    if (item.isFailed()) {
+                        failedCount.incrementAndGet();
+                    }
+                }
+                failureMessage.compareAndSet(null, response.buildFailureMessage());
             }
-            jsonObj.put("post_date", String.valueOf(System.currentTimeMillis()));
-            bulkRequest.add(client.prepareIndex(index, type, id)
-                                .setSource(jsonObj.toString())
-            );
         }
-        BulkResponse bulkResponse = bulkRequest.get();
-        if (bulkResponse.hasFailures()) {
-            logger.error("Error occurred while batch updating" + bulkResponse.buildFailureMessage());
-            return false;
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+            failedCount.addAndGet(request.numberOfActions());
+            failureMessage.compareAndSet(null, failure.toString());
+        }
+
+        void onTimeout() {
+            failedCount.incrementAndGet();
+            failureMessage.compareAndSet(null, "Timed out waiting for bulk requests to complete");
+        }
+
+        long getFailedCount() {
+            return failedCount.get();
+        }
+
+        String getFailureMessage() {
+            return failureMessage.get();
         }
-        return true;
     }
 }
@@ -0,0 +1,141 @@
+package com.thinkbiganalytics.nifi.v2.elasticsearch;
+
+/*-
+ * #%L
+ * thinkbig-nifi-elasticsearch-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.nifi.annotation.documentation.CapabilityDescription;
+import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnDisabled;
+import org.apache.nifi.annotation.lifecycle.OnEnabled;
+import org.apache.nifi.components.PropertyDescriptor;
+import org.apache.nifi.controller.AbstractControllerService;
+import org.apache.nifi.controller.ConfigurationContext;
+import org.apache.nifi.processor.util.StandardValidators;
+import org.apache.nifi.reporting.InitializationException;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.transport.TransportClient;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.transport.InetSocketTransportAddress;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Keeps a single transport client open to an Elasticsearch cluster while enabled.
+ */
+@Tags({"elasticsearch", "thinkbig"})
+@CapabilityDescription("Provides a shared transport client for an Elasticsearch cluster.")
+public class StandardElasticSearchClientService extends AbstractControllerService implements ElasticSearchClientService {
+
+    public static final PropertyDescriptor HOST_NAMES = new PropertyDescriptor.Builder()
+        .name("Host Names")
+        .description("Comma-separated list of Elasticsearch hosts")
+        .required(true)
+        .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .build();
+    public static final PropertyDescriptor CLUSTER_NAME = new PropertyDescriptor.Builder()
+        .name("Cluster Name")
+        .description("Elasticsearch cluster")
+        .required(true)
+        .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .build();
+    public static final PropertyDescriptor PORT = new PropertyDescriptor.Builder()
+        .name("Port")
+        .description("Elasticsearch transport port")
+        .required(true)
+        .defaultValue("9300")
+        .addValidator(StandardValidators.PORT_VALIDATOR)
+        .build();
+
+    private static final List<PropertyDescriptor> properties;
+
+    static {
+        final List<PropertyDescriptor> pds = new ArrayList<>();
+        pds.add(HOST_NAMES);
+        pds.add(CLUSTER_NAME);
+        pds.add(PORT);
+        properties = Collections.unmodifiableList(pds);
+    }
+
+    /**
+     * Client for the cluster, while enabled
+     */
+    private volatile TransportClient client;
+
+    @Override
+    protected List<PropertyDescriptor> getSupportedPropertyDescriptors() {
+        return properties;
+    }
+
+    /**
+     * Opens the client.
+     *
+     * @param context the configuration context
+     * @throws InitializationException if a host cannot be resolved
+     */
+    @OnEnabled
+    public void onEnabled(@Nonnull final ConfigurationContext context) throws InitializationException {
+        final String hostNames = context.getProperty(HOST_NAMES).evaluateAttributeExpressions().getValue();
+        final String clusterName = context.getProperty(CLUSTER_NAME).evaluateAttributeExpressions().getValue();
+        final int port = context.getProperty(PORT).asInteger();
+
+        final Settings settings = Settings.settingsBuilder().put("cluster.name", clusterName).build();
+        final TransportClient newClient = TransportClient.builder().settings(settings).build();
+        try {
+            for (final String hostName : hostNames.split(",")) {
+                newClient.addTransportAddress(new InetSocketTransportAddress(InetAddress.getByName(hostName.trim()), port));
+            }
+        } catch (final UnknownHostException e) {
+            newClient.close();
+            throw new InitializationException("Unknown Elasticsearch host: " + e.getMessage());
+        }
+
+        getLogger().info("Connected to Elasticsearch cluster {} at {}", new Object[]{clusterName, hostNames});
+        client = newClient;
+    }
+
+    /**
+     * Closes the client.
+     */
+    @OnDisabled
+    public void onDisabled() {
+        if (client != null) {
+            client.close();
+            client = null;
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Client getClient() {
+        final Client current = client;
+        if (current == null) {
+            throw new IllegalStateException("Elasticsearch client service is not enabled");
+        }
+        return current;
+    }
+}
@@ -0,0 +1,363 @@
+package com.thinkbiganalytics.nifi;
+
+/*-
+ * #%L
+ * thinkbig-nifi-elasticsearch-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.v2.elasticsearch.ElasticSearchClientService;
+import com.thinkbiganalytics.nifi.v2.elasticsearch.IndexElasticSearch;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.nifi.controller.AbstractControllerService;
+import org.apache.nifi.util.TestRunner;
+import org.apache.nifi.util.TestRunners;
+import org.elasticsearch.action.Action;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionRequestBuilder;
+import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.bulk.BulkAction;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.FilterClient;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.node.Node;
+import org.elasticsearch.node.NodeBuilder;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Verifies indexing documents with an embedded local Elasticsearch node.
+ */
+public class IndexElasticSearchLocalNodeTest {
+
+    private static final String TEST_TYPE = "userdatatest";
+
+    private static File dataDir;
+    private static Node node;
+
+    private TestRunner runner;
+    private String index;
+    private TestClient client;
+
+    @BeforeClass
+    public static void startNode() throws Exception {
+        dataDir = Files.createTempDirectory("elasticsearch").toFile();
+        node = NodeBuilder.nodeBuilder()
+            .settings(Settings.settingsBuilder().put("path.home", dataDir.getAbsolutePath()).put("http.enabled", false))
+            .clusterName("test-" + UUID.randomUUID())
+            .local(true)
+            .node();
+        node.client().admin().cluster().prepareHealth().setWaitForYellowStatus().get();
+    }
+
+    @AfterClass
+    public static void stopNode() {
+        if (node != null) {
+            node.close();
+        }
+        FileUtils.deleteQuietly(dataDir);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        index = "test-" + UUID.randomUUID();
+
+        client = new TestClient(node.client());
+        final ElasticSearchClientService clientService = new LocalNodeClientService(client);
+        runner = TestRunners.newTestRunner(IndexElasticSearch.class);
+        runner.addControllerService("LocalNodeClientService", clientService);
+        runner.enableControllerService(clientService);
+        runner.setProperty(IndexElasticSearch.CLIENT_SERVICE, "LocalNodeClientService");
+        runner.setProperty(IndexElasticSearch.INDEX_NAME, index);
+        runner.setProperty(IndexElasticSearch.TYPE, TEST_TYPE);
+    }
+
+    /**
+     * Verify indexing the documents in a flow file.
+     */
+    @Test
+    public void testIndex() throws Exception {
+        runner.setProperty(IndexElasticSearch.ID_FIELD, "id");
+        runner.enqueue(getClass().getClassLoader().getResourceAsStream("elasticsearch/insert.json"));
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(IndexElasticSearch.REL_SUCCESS, 1);
+        final Map<String, Object> document = getDocument("2");
+        Assert.assertEquals("Albert", document.get("first_name"));
+        Assert.assertEquals("Freeman", document.get("last_name"));
+        Assert.assertNotNull(document.get("post_date"));
+    }
+
+    /**
+     * Verify documents are split into multiple bulk requests.
+     */
+    @Test
+    public void testMultipleBulkRequests() throws Exception {
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 250; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\": ").append(i).append(", \"name\": \"user").append(i).append("\"}");
+        }
+        json.append("]");
+
+        runner.setProperty(IndexElasticSearch.ID_FIELD, "id");
+        runner.setProperty(IndexElasticSearch.BULK_ACTIONS, "40");
+        runner.setProperty(IndexElasticSearch.CONCURRENT_REQUESTS, "2");
+        runner.enqueue(json.toString().getBytes(StandardCharsets.UTF_8));
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(IndexElasticSearch.REL_SUCCESS, 1);
+        node.client().admin().indices().prepareRefresh(index).get();
+        Assert.assertEquals(250L, node.client().prepareSearch(index).setTypes(TEST_TYPE).setSize(0).get().getHits().getTotalHits());
+        Assert.assertEquals("user249", getDocument("249").get("name"));
+    }
+
+    /**
+     * Verify reading the flow file waits while the maximum number of bulk requests are in flight.
+     */
+    @Test
+    public void testBackPressure() throws Exception {
+        client.setResponseDelay(50);
+        runner.setProperty(IndexElasticSearch.ID_FIELD, "id");
+        runner.setProperty(IndexElasticSearch.BULK_ACTIONS, "10");
+        runner.setProperty(IndexElasticSearch.CONCURRENT_REQUESTS, "2");
+        runner.enqueue(createDocuments(100));
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(IndexElasticSearch.REL_SUCCESS, 1);
+        Assert.assertEquals(10, client.getBulkCount());
+        Assert.assertTrue("Too many bulk requests in flight: " + client.getMaxInFlight(), client.getMaxInFlight() <= 2);
+        node.client().admin().indices().prepareRefresh(index).get();
+        Assert.assertEquals(100L, node.client().prepareSearch(index).setTypes(TEST_TYPE).setSize(0).get().getHits().getTotalHits());
+    }
+
+    /**
+     * Verify bulk requests rejected because the cluster is busy are retried.
+     */
+    @Test
+    public void testRetryRejected() throws Exception {
+        client.setRejections(2);
+        runner.setProperty(IndexElasticSearch.ID_FIELD, "id");
+        runner.setProperty(IndexElasticSearch.MAX_RETRIES, "3");
+        runner.enqueue(createDocuments(5));
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(IndexElasticSearch.REL_SUCCESS, 1);
+        Assert.assertEquals(3, client.getBulkCount());
+        Assert.assertEquals("user4", getDocument("4").get("name"));
+    }
+
+    /**
+     * Verify the flow file is routed to failure once the retries are used up.
+     */
+    @Test
+    public void testRetriesExhausted() {
+        client.setRejections(3);
+        runner.setProperty(IndexElasticSearch.ID_FIELD, "id");
+        runner.setProperty(IndexElasticSearch.MAX_RETRIES, "2");
+        runner.enqueue(createDocuments(5));
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(IndexElasticSearch.REL_FAILURE, 1);
+        Assert.assertEquals(3, client.getBulkCount());
+    }
+
+    /**
+     * Verify a flow file that is not a JSON array is routed to failure.
+     */
+    @Test
+    public void testInvalidJson() {
+        runner.enqueue("{\"id\": 1}".getBytes(StandardCharsets.UTF_8));
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(IndexElasticSearch.REL_FAILURE, 1);
+    }
+
+    /**
+     * Verify documents rejected by Elasticsearch route the flow file to failure.
+     */
+    @Test
+    public void testRejectedDocuments() {
+        runner.enqueue("[{\"id\": 1, \"count\": 5}, {\"id\": 2, \"count\": \"five\"}]".getBytes(StandardCharsets.UTF_8));
+        runner.setProperty(IndexElasticSearch.ID_FIELD, "id");
+        runner.setProperty(IndexElasticSearch.BULK_ACTIONS, "1");
+        runner.setProperty(IndexElasticSearch.CONCURRENT_REQUESTS, "0");
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(IndexElasticSearch.REL_FAILURE, 1);
+    }
+
+    /**
+     * Verify a client service or a host and cluster is required.
+     */
+    @Test
+    public void testValidation() {
+        runner.removeProperty(IndexElasticSearch.CLIENT_SERVICE);
+        runner.assertNotValid();
+
+        runner.setProperty(IndexElasticSearch.HOST_NAME, "localhost");
+        runner.setProperty(IndexElasticSearch.CLUSTER_NAME, "test");
+        runner.assertValid();
+
+        runner.setProperty(IndexElasticSearch.PORT, "not a port");
+        runner.assertNotValid();
+    }
+
+    @Nonnull
+    private byte[] createDocuments(final int count) {
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\": ").append(i).append(", \"name\": \"user").append(i).append("\"}");
+        }
+        return json.append("]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Nonnull
+    private Map<String, Object> getDocument(@Nonnull final String id) {
+        return node.client().prepareGet(index, TEST_TYPE, id).get().getSource();
+    }
+
+    /**
+     * Provides a client of the local node.
+     */
+    private static class LocalNodeClientService extends AbstractControllerService implements ElasticSearchClientService {
+
+        private final Client client;
+
+        LocalNodeClientService(@Nonnull final Client client) {
+            this.client = client;
+        }
+
+        @Nonnull
+        @Override
+        public Client getClient() {
+            return client;
+        }
+    }
+
+    /**
+     * Counts the bulk requests sent to the local node, and can reject or delay them.
+     */
+    private static class TestClient extends FilterClient {
+
+        private final AtomicInteger bulkCount = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final AtomicInteger rejections = new AtomicInteger();
+        private volatile long responseDelay;
+
+        TestClient(@Nonnull final Client in) {
+            super(in);
+        }
+
+        /**
+         * Rejects the next bulk requests as if the bulk queue of the cluster were full.
+         */
+        void setRejections(final int count) {
+            rejections.set(count);
+        }
+
+        /**
+         * Delays the response to each bulk request.
+         */
+        void setResponseDelay(final long millis) {
+            responseDelay = millis;
+        }
+
+        int getBulkCount() {
+            return bulkCount.get();
+        }
+
+        int getMaxInFlight() {
+            return maxInFlight.get();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <Request extends ActionRequest, Response extends ActionResponse, RequestBuilder extends ActionRequestBuilder<Request, Response, RequestBuilder>> void doExecute(
+            Action<Request, Response, RequestBuilder> action, Request request, ActionListener<Response> listener) {
+            if (action != BulkAction.INSTANCE) {
+                super.doExecute(action, request, listener);
+                return;
+            }
+
+            bulkCount.incrementAndGet();
+            if (rejections.getAndDecrement() > 0) {
+                listener.onResponse((Response) reject((BulkRequest) request));
+                return;
+            }
+
+            final int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            super.doExecute(action, request, new ActionListener<Response>() {
+                @Override
+                public void onResponse(Response response) {
+                    complete();
+                    listener.onResponse(response);
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
+                    complete();
+                    listener.onFailure(e);
+                }
+            });
+        }
+
+        private void complete() {
+            try {
+                Thread.sleep(responseDelay);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+        }
+
+        /**
+         * Creates a response that rejects every document of the request.
+         */
+        @Nonnull
+        private BulkResponse reject(@Nonnull final BulkRequest request) {
+            final BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+            for (int i = 0; i < items.length; i++) {
+                final IndexRequest indexRequest = (IndexRequest) request.requests().get(i);
+                final BulkItemResponse.Failure failure = new BulkItemResponse.Failure(indexRequest.index(), indexRequest.type(), indexRequest.id(),
+                                                                                      new EsRejectedExecutionException("rejected by test"));
+                items[i] = new BulkItemResponse(i, "index", failure);
+            }
+            return new BulkResponse(items, 0L);
+        }
+    }
+}
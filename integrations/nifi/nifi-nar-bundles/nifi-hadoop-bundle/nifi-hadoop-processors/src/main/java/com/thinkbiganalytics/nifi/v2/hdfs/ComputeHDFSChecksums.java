@@ -24,15 +24,19 @@ package com.thinkbiganalytics.nifi.v2.hdfs;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 
 import org.apache.hadoop.fs.FileChecksum;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.nifi.annotation.behavior.EventDriven;
 import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnScheduled;
+import org.apache.nifi.annotation.lifecycle.OnStopped;
 import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.processor.ProcessContext;
@@ -43,10 +47,20 @@ import org.apache.nifi.processor.util.StandardValidators;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.annotation.Nonnull;
 
@@ -115,11 +129,29 @@ public class ComputeHDFSChecksums extends AbstractHadoopProcessor {
         .expressionLanguageSupported(true)
         .build();
 
+    /**
+     * the number of checksums to compute at the same time
+     */
+    public static final PropertyDescriptor THREADS = new PropertyDescriptor.Builder()
+        .name("threads")
+        .description("Number of files whose checksums are computed at the same time. If greater than 1, the directories " +
+                     "containing the files are listed once per flow file to check that every file exists before any " +
+                     "checksum is computed, and the flow file fails as soon as one checksum doesn't match.")
+        .required(true)
+        .defaultValue("1")
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .build();
+
     /**
      * Output paths to other NiFi processors
      */
     private static final Set<Relationship> relationships = ImmutableSet.of(REL_FAILURE, REL_SUCCESS);
 
+    /**
+     * Computes checksums when more than one thread is configured
+     */
+    private volatile ExecutorService executor;
+
     /**
      * methods to get the properties list
      *
@@ -128,7 +160,31 @@ public class ComputeHDFSChecksums extends AbstractHadoopProcessor {
     @Override
     protected List<PropertyDescriptor> getSupportedPropertyDescriptors() {
         return ImmutableList.<PropertyDescriptor>builder().addAll(super.getSupportedPropertyDescriptors()).
-            add(DIRECTORY).add(FAIL_IF_INCORRECT_CHECKSUM).add(FILES).build();
+            add(DIRECTORY).add(FAIL_IF_INCORRECT_CHECKSUM).add(FILES).add(THREADS).build();
+    }
+
+    /**
+     * Creates the thread pool for computing checksums concurrently.
+     *
+     * @param context the process context
+     */
+    @OnScheduled
+    public void createExecutor(@Nonnull final ProcessContext context) {
+        int threads = context.getProperty(THREADS).asInteger();
+        if (threads > 1) {
+            executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("ComputeHDFSChecksums-%d").build());
+        }
+    }
+
+    /**
+     * Stops the thread pool, if any.
+     */
+    @OnStopped
+    public void shutdownExecutor() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
     }
 
     /**
@@ -165,25 +221,24 @@ public class ComputeHDFSChecksums extends AbstractHadoopProcessor {
                 filesList = new File[0];
             }
 
-            for (File f : filesList) {
-                String name = f.getName();
-                Path filePath;
+            Path[] paths = new Path[filesList.length];
+            for (int i = 0; i < filesList.length; i++) {
+                String name = filesList[i].getName();
                 if (absolutePath == null || absolutePath.isEmpty()) {
-                    filePath = new Path(name);
+                    paths[i] = new Path(name);
                 } else {
-                    filePath = new Path(absolutePath, name);
-                }
-                FileChecksum computed_checksum = fs.getFileChecksum(filePath);
-                String b64_checksum = Base64.getEncoder().encodeToString(computed_checksum.getBytes());
-                f.setComputedChecksum(new Checksum(b64_checksum.length(), b64_checksum,
-                                                   computed_checksum.getAlgorithmName()));
-                if (failIfWrongChecksum && !Objects.equals(b64_checksum, f.getChecksum().getValue())) {
-                    getLog().error("Checksums don't match! File: " + filePath.toString() + " checksum provided: " +
-                                   f.getChecksum().getValue() + " checksum computed: " + b64_checksum);
-                    session.transfer(flowFile, REL_FAILURE);
-                    return;
+                    paths[i] = new Path(absolutePath, name);
                 }
             }
+
+            final ExecutorService pool = executor;
+            boolean matched = (pool != null && filesList.length > 1)
+                              ? computeChecksumsConcurrently(pool, fs, filesList, paths, failIfWrongChecksum)
+                              : computeChecksums(fs, filesList, paths, failIfWrongChecksum);
+            if (!matched) {
+                session.transfer(flowFile, REL_FAILURE);
+                return;
+            }
         } catch (JsonSyntaxException e) {
             getLog().error("Files list attribute does not contain a proper JSON array");
             session.transfer(flowFile, REL_FAILURE);
@@ -199,6 +254,89 @@ public class ComputeHDFSChecksums extends AbstractHadoopProcessor {
         session.transfer(flowFile, REL_SUCCESS);
     }
 
+    /**
+     * Computes the checksums one file at a time.
+     *
+     * @return {@code false} if a checksum didn't match and {@code failIfWrongChecksum} is set
+     */
+    private boolean computeChecksums(@Nonnull final FileSystem fs, @Nonnull final File[] files, @Nonnull final Path[] paths, final boolean failIfWrongChecksum)
+        throws IOException {
+        for (int i = 0; i < files.length; i++) {
+            if (!computeChecksum(fs, files[i], paths[i], failIfWrongChecksum)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the checksums on the thread pool, after checking that every file exists. Stops at the first mismatch.
+     *
+     * @return {@code false} if a checksum didn't match and {@code failIfWrongChecksum} is set
+     */
+    private boolean computeChecksumsConcurrently(@Nonnull final ExecutorService pool, @Nonnull final FileSystem fs, @Nonnull final File[] files,
+                                                 @Nonnull final Path[] paths, final boolean failIfWrongChecksum) throws IOException {
+        // List each directory once for the whole batch rather than finding missing files one checksum at a time
+        Map<Path, Set<String>> listings = new HashMap<>();
+        for (Path path : paths) {
+            Set<String> names = listings.get(path.getParent());
+            if (names == null) {
+                names = new HashSet<>();
+                for (FileStatus status : fs.listStatus(path.getParent())) {
+                    names.add(status.getPath().getName());
+                }
+                listings.put(path.getParent(), names);
+            }
+            if (!names.contains(path.getName())) {
+                throw new FileNotFoundException("File " + path + " does not exist");
+            }
+        }
+
+        CompletionService<Boolean> completionService = new ExecutorCompletionService<>(pool);
+        List<Future<Boolean>> futures = new ArrayList<>(files.length);
+        try {
+            for (int i = 0; i < files.length; i++) {
+                final int index = i;
+                futures.add(completionService.submit(() -> computeChecksum(fs, files[index], paths[index], failIfWrongChecksum)));
+            }
+            for (int i = 0; i < files.length; i++) {
+                if (!completionService.take().get()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new ProcessException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessException(e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Computes the checksum of the specified file and, if {@code failIfWrongChecksum} is set, compares it to the provided checksum.
+     *
+     * @return {@code false} if the checksums don't match and {@code failIfWrongChecksum} is set
+     */
+    private boolean computeChecksum(@Nonnull final FileSystem fs, @Nonnull final File f, @Nonnull final Path filePath, final boolean failIfWrongChecksum)
+        throws IOException {
+        FileChecksum computed_checksum = fs.getFileChecksum(filePath);
+        String b64_checksum = Base64.getEncoder().encodeToString(computed_checksum.getBytes());
+        f.setComputedChecksum(new Checksum(b64_checksum.length(), b64_checksum,
+                                           computed_checksum.getAlgorithmName()));
+        if (failIfWrongChecksum && !Objects.equals(b64_checksum, f.getChecksum().getValue())) {
+            getLog().error("Checksums don't match! File: " + filePath.toString() + " checksum provided: " +
+                           f.getChecksum().getValue() + " checksum computed: " + b64_checksum);
+            return false;
+        }
+        return true;
+    }
+
     class File {
 
         private String name;
@@ -22,9 +22,12 @@ package com.thinkbiganalytics.nifi.v2.hdfs;
 
 import com.google.gson.Gson;
 
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileChecksum;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.MD5MD5CRC32FileChecksum;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
 import org.apache.hadoop.io.MD5Hash;
 import org.apache.nifi.components.ValidationResult;
 import org.apache.nifi.processor.ProcessContext;
@@ -33,13 +36,20 @@ import org.apache.nifi.util.TestRunner;
 import org.apache.nifi.util.TestRunners;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -53,6 +63,12 @@ public class ComputeHDFSChecksumsTest {
      */
     private final FileSystem fileSystem = Mockito.mock(FileSystem.class);
 
+    /**
+     * Temporary directory for local file system tests
+     */
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
     /**
      * Test runner
      */
@@ -321,6 +337,103 @@ public class ComputeHDFSChecksumsTest {
         verifyGetFileChecksumCall(fileName);
     }
 
+    /**
+     * Verify computing checksums of thousands of local files on multiple threads.
+     */
+    @Test
+    public void testConcurrentLocalFiles() throws Exception {
+        final LocalChecksumFileSystem localFileSystem = createLocalFiles(2000);
+        final TestRunner localRunner = createLocalRunner(localFileSystem, localFileEntries(localFileSystem, 2000, -1));
+
+        localRunner.run();
+
+        Assert.assertEquals(0, localRunner.getFlowFilesForRelationship(ComputeHDFSChecksums.REL_FAILURE).size());
+        Assert.assertEquals(1, localRunner.getFlowFilesForRelationship(ComputeHDFSChecksums.REL_SUCCESS).size());
+        Assert.assertEquals(2000, localFileSystem.checksums.get());
+
+        ComputeHDFSChecksums.File[] files = new Gson().fromJson(localRunner.getFlowFilesForRelationship(ComputeHDFSChecksums.REL_SUCCESS).get(0).getAttribute("files"),
+                                                                ComputeHDFSChecksums.File[].class);
+        Assert.assertEquals(2000, files.length);
+        for (ComputeHDFSChecksums.File file : files) {
+            Assert.assertEquals(file.getChecksum().getValue(), file.getComputedChecksum().getValue());
+        }
+    }
+
+    /**
+     * Verify that a wrong checksum fails the flow file when computing on multiple threads.
+     */
+    @Test
+    public void testConcurrentLocalFilesWrongChecksum() throws Exception {
+        final LocalChecksumFileSystem localFileSystem = createLocalFiles(2000);
+        final TestRunner localRunner = createLocalRunner(localFileSystem, localFileEntries(localFileSystem, 2000, 100));
+
+        localRunner.run();
+
+        Assert.assertEquals(1, localRunner.getFlowFilesForRelationship(ComputeHDFSChecksums.REL_FAILURE).size());
+        Assert.assertEquals(0, localRunner.getFlowFilesForRelationship(ComputeHDFSChecksums.REL_SUCCESS).size());
+    }
+
+    /**
+     * Verify that a missing file fails the flow file before any checksum is computed.
+     */
+    @Test
+    public void testConcurrentLocalFilesMissingFile() throws Exception {
+        final LocalChecksumFileSystem localFileSystem = createLocalFiles(2000);
+        final String files = localFileEntries(localFileSystem, 2000, -1);
+        Files.delete(tempFolder.getRoot().toPath().resolve("file_1500"));
+        final TestRunner localRunner = createLocalRunner(localFileSystem, files);
+
+        localRunner.run();
+
+        Assert.assertEquals(1, localRunner.getFlowFilesForRelationship(ComputeHDFSChecksums.REL_FAILURE).size());
+        Assert.assertEquals(0, localFileSystem.checksums.get());
+    }
+
+    /**
+     * Creates the specified number of files in the temporary folder.
+     */
+    @Nonnull
+    private LocalChecksumFileSystem createLocalFiles(final int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            Files.write(tempFolder.getRoot().toPath().resolve("file_" + i), ("content " + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        LocalChecksumFileSystem localFileSystem = new LocalChecksumFileSystem();
+        localFileSystem.initialize(URI.create("file:///"), new Configuration());
+        return localFileSystem;
+    }
+
+    /**
+     * Gets the JSON list of the local files and their checksums, with a wrong checksum for the file at {@code wrongIndex}.
+     */
+    @Nonnull
+    private String localFileEntries(@Nonnull final LocalChecksumFileSystem localFileSystem, final int count, final int wrongIndex) throws IOException {
+        StringBuilder files = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            String name = "file_" + i;
+            String checksum = (i == wrongIndex) ? "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA="
+                                                : Base64.getEncoder().encodeToString(LocalChecksumFileSystem.checksum(new Path(tempFolder.getRoot().getPath(), name)).getBytes());
+            files.append(i > 0 ? "," : "").append(String.format(fileEntry, name, checksum));
+        }
+        localFileSystem.checksums.set(0);
+        return files.append("]").toString();
+    }
+
+    /**
+     * Creates a test runner that computes checksums of local files on 8 threads.
+     */
+    @Nonnull
+    private TestRunner createLocalRunner(@Nonnull final FileSystem localFileSystem, @Nonnull final String files) {
+        final TestRunner localRunner = TestRunners.newTestRunner(new LocalComputeHDFSChecksums(localFileSystem));
+        localRunner.setValidateExpressionUsage(false);
+        localRunner.setProperty(ComputeHDFSChecksums.DIRECTORY, tempFolder.getRoot().getPath());
+        localRunner.setProperty(ComputeHDFSChecksums.FAIL_IF_INCORRECT_CHECKSUM, "True");
+        localRunner.setProperty(ComputeHDFSChecksums.FILES, files);
+        localRunner.setProperty(ComputeHDFSChecksums.THREADS, "8");
+        localRunner.enqueue(new byte[0]);
+        return localRunner;
+    }
+
     /**
      * Enqueues a {@code FlowFile} and validates its properties.
      *
@@ -356,4 +469,47 @@ public class ComputeHDFSChecksumsTest {
         }
     }
 
+    /**
+     * A {@code ComputeHDFSChecksums} using the specified file system.
+     */
+    private static class LocalComputeHDFSChecksums extends ComputeHDFSChecksums {
+
+        private final FileSystem localFileSystem;
+
+        LocalComputeHDFSChecksums(@Nonnull final FileSystem localFileSystem) {
+            this.localFileSystem = localFileSystem;
+        }
+
+        @Nullable
+        @Override
+        protected FileSystem getFileSystem(@Nonnull ProcessContext context) {
+            return localFileSystem;
+        }
+
+        @Override
+        HdfsResources resetHDFSResources(String configResources, String dir, ProcessContext context) throws IOException {
+            return null;
+        }
+    }
+
+    /**
+     * A local file system that computes an MD5 checksum of each file, since the local file system doesn't provide one.
+     */
+    private static class LocalChecksumFileSystem extends RawLocalFileSystem {
+
+        /**
+         * Number of checksums computed
+         */
+        final AtomicInteger checksums = new AtomicInteger();
+
+        static FileChecksum checksum(@Nonnull final Path path) throws IOException {
+            return new MD5MD5CRC32FileChecksum(0, 0, MD5Hash.digest(Files.readAllBytes(java.nio.file.Paths.get(path.toUri().getPath()))));
+        }
+
+        @Override
+        public FileChecksum getFileChecksum(Path path) throws IOException {
+            checksums.incrementAndGet();
+            return checksum(path);
+        }
+    }
 }
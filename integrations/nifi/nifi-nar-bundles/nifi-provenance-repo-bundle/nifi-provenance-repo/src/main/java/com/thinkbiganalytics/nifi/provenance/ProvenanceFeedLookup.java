@@ -56,15 +56,27 @@ public class ProvenanceFeedLookup {
      */
     public void updateFlowCache(NiFiFlowCacheSync updates) {
         if (updates.needsUpdate()) {
-            if (flowCache == null) {
+            if (flowCache == null || updates.isFullSnapshot()) {
                 flowCache = updates;
             } else {
                 flowCache.getSnapshot().update(updates.getSnapshot());
+                flowCache.setSequence(updates.getSequence());
             }
             lastUpdated = updates.getLastSync();
+        } else if (flowCache != null && updates.getSequence() >= 0) {
+            flowCache.setSequence(updates.getSequence());
         }
     }
 
+    /**
+     * Returns the sequence of the last change from Kylo applied to this cache
+     *
+     * @return the last change sequence, or null if the cache has not been synced
+     */
+    public Long getSequence() {
+        return flowCache == null || flowCache.getSequence() < 0 ? null : flowCache.getSequence();
+    }
+
     /**
      * Returns the size of the Processors Found in Nifi that are cached
      *
@@ -0,0 +1,241 @@
+package com.thinkbiganalytics.nifi.provenance.cache;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.provenance.model.FeedFlowFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append only journal of the changes made to the running {@link FeedFlowFile}s.
+ * The journal is written in numbered segment files.  When a segment grows past the {@link #maxSegmentBytes} a new segment is started.
+ * The {@link FeedFlowFileMapDbCache} periodically compacts the journal by writing the current flow files to MapDB and then deleting the older segments,
+ * so on restart only the snapshot in MapDB plus the segments written since the last compaction need to be read.
+ *
+ * Each record is a type byte, the flow file id and, for updates, the length prefixed bytes from the {@link FeedFlowFileSerializer}.
+ * A partially written record at the end of a segment (from a crash) is ignored on replay.
+ */
+public class FeedFlowFileJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedFlowFileJournal.class);
+
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_REMOVE = 2;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile(SEGMENT_PREFIX + "(\\d+)\\" + SEGMENT_SUFFIX);
+
+    /**
+     * The directory holding the segment files
+     */
+    private final File directory;
+
+    /**
+     * start a new segment when the current one reaches this size
+     */
+    private final long maxSegmentBytes;
+
+    private final FeedFlowFileSerializer serializer = new FeedFlowFileSerializer();
+
+    private long currentSegment;
+
+    private FileOutputStream currentFileStream;
+
+    private DataOutputStream currentStream;
+
+    public FeedFlowFileJournal(File directory, long maxSegmentBytes) {
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    /**
+     * Replay all the segments, in order, applying the changes to the given map
+     *
+     * @param flowFiles the flow files recovered from the last compaction keyed by their id
+     * @return the number of records replayed
+     */
+    public synchronized int replay(Map<String, FeedFlowFile> flowFiles) {
+        int records = 0;
+        for (long segment : listSegments()) {
+            File file = segmentFile(segment);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+                while (true) {
+                    int type = in.read();
+                    if (type == -1) {
+                        break;
+                    }
+                    String id = in.readUTF();
+                    if (type == RECORD_PUT) {
+                        byte[] bytes = new byte[in.readInt()];
+                        in.readFully(bytes);
+                        flowFiles.put(id, serializer.fromBytes(bytes));
+                    } else if (type == RECORD_REMOVE) {
+                        flowFiles.remove(id);
+                    } else {
+                        throw new IOException("Unknown record type " + type);
+                    }
+                    records++;
+                }
+            } catch (EOFException e) {
+                log.warn("Found a partially written record at the end of the FeedFlowFile journal segment {}.  It will be ignored. ", file);
+            } catch (IOException e) {
+                log.error("Error reading the FeedFlowFile journal segment {}. The remaining records in this segment will be ignored. ", file, e);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Record the current state of the flow files
+     */
+    public synchronized void append(Collection<FeedFlowFile> flowFiles) throws IOException {
+        DataOutputStream out = ensureOpen();
+        for (FeedFlowFile flowFile : flowFiles) {
+            byte[] bytes = serializer.toBytes(flowFile);
+            out.writeByte(RECORD_PUT);
+            out.writeUTF(flowFile.getId());
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        flush();
+    }
+
+    /**
+     * Record that the flow files have completed and no longer need to be tracked
+     */
+    public synchronized void remove(Collection<String> flowFileIds) throws IOException {
+        DataOutputStream out = ensureOpen();
+        for (String id : flowFileIds) {
+            out.writeByte(RECORD_REMOVE);
+            out.writeUTF(id);
+        }
+        flush();
+    }
+
+    /**
+     * Close the current segment and start a new one.
+     *
+     * @return the id of the new segment.  All segments before this one can be deleted once their changes are persisted.
+     */
+    public synchronized long rotate() throws IOException {
+        closeCurrent();
+        List<Long> segments = listSegments();
+        currentSegment = segments.isEmpty() ? Math.max(currentSegment, 1L) : Math.max(currentSegment, segments.get(segments.size() - 1)) + 1;
+        return currentSegment;
+    }
+
+    /**
+     * Delete the segments that come before the given segment
+     */
+    public synchronized void deleteSegmentsBefore(long segment) {
+        for (long existing : listSegments()) {
+            if (existing < segment) {
+                File file = segmentFile(existing);
+                if (!file.delete()) {
+                    log.warn("Unable to delete the FeedFlowFile journal segment {}", file);
+                }
+            }
+        }
+    }
+
+    public synchronized void close() {
+        try {
+            closeCurrent();
+        } catch (IOException e) {
+            log.warn("Error closing the FeedFlowFile journal", e);
+        }
+    }
+
+    private DataOutputStream ensureOpen() throws IOException {
+        if (currentStream != null && currentFileStream.getChannel().size() >= maxSegmentBytes) {
+            rotate();
+        }
+        if (currentStream == null) {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Unable to create the FeedFlowFile journal directory " + directory);
+            }
+            if (currentSegment == 0) {
+                rotate();
+            }
+            currentFileStream = new FileOutputStream(segmentFile(currentSegment), true);
+            currentStream = new DataOutputStream(new BufferedOutputStream(currentFileStream, 64 * 1024));
+        }
+        return currentStream;
+    }
+
+    /**
+     * Flush the buffered records and force them to disk so they survive a crash of the JVM or the host
+     */
+    private void flush() throws IOException {
+        currentStream.flush();
+        currentFileStream.getChannel().force(false);
+    }
+
+    private void closeCurrent() throws IOException {
+        if (currentStream != null) {
+            try {
+                flush();
+            } finally {
+                currentStream.close();
+                currentStream = null;
+                currentFileStream = null;
+            }
+        }
+    }
+
+    private File segmentFile(long segment) {
+        return new File(directory, SEGMENT_PREFIX + String.format("%019d", segment) + SEGMENT_SUFFIX);
+    }
+
+    private List<Long> listSegments() {
+        List<Long> segments = new ArrayList<>();
+        String[] names = directory.list();
+        if (names != null) {
+            Arrays.sort(names);
+            for (String name : names) {
+                Matcher matcher = SEGMENT_PATTERN.matcher(name);
+                if (matcher.matches()) {
+                    segments.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        return segments;
+    }
+}
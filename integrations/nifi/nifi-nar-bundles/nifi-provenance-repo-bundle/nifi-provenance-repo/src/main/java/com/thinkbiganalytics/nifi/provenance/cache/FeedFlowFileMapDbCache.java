@@ -30,20 +30,42 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 
 /**
- * Persist any running flowfiles to disk when NiFi shuts down to maintain the processing feed status when NiFi comes back up
+ * Persist any running flowfiles to disk to maintain the processing feed status when NiFi comes back up.
+ *
+ * Changes to the running flowfiles are appended to the {@link FeedFlowFileJournal} after each batch of events is processed.
+ * The journal is periodically compacted into the MapDB file, and the MapDB file is written in full when NiFi shuts down.
+ * On startup the MapDB file is loaded and the journal is replayed on top of it, so the running flowfiles are recovered even if NiFi crashed.
  */
 public class FeedFlowFileMapDbCache implements FeedFlowFileCacheListener {
 
     private static final Logger log = LoggerFactory.getLogger(FeedFlowFileMapDbCache.class);
 
+    /**
+     * The name of the map written using the {@link FeedFlowFileSerializer}
+     */
+    private static final String MAP_NAME = "feedFlowFileV2";
+
+    /**
+     * The name of the map written by previous versions using java serialization
+     */
+    private static final String LEGACY_MAP_NAME = "feedFlowFile";
+
     /**
      * the in memory MapDb database
      */
@@ -65,6 +87,21 @@ public class FeedFlowFileMapDbCache implements FeedFlowFileCacheListener {
      */
     private ConcurrentMap<String, FeedFlowFile> persistentFlowFileCache;
 
+    /**
+     * Journal of the changes made since the last compaction
+     */
+    private FeedFlowFileJournal journal;
+
+    /**
+     * How often the journal is compacted into the {@link #persistentDb}
+     */
+    private long compactionIntervalMillis;
+
+    /**
+     * The last time the journal was compacted
+     */
+    private long lastCompactionTime = System.currentTimeMillis();
+
 
     @Autowired
     private FeedFlowFileGuavaCache cache;
@@ -75,9 +112,21 @@ public class FeedFlowFileMapDbCache implements FeedFlowFileCacheListener {
 
 
     public FeedFlowFileMapDbCache(String fileLocation) {
+        this(fileLocation, 64 * 1024 * 1024L, 60);
+    }
+
+    /**
+     * @param fileLocation              the location of the MapDB file.  The journal is written to a directory alongside this file.
+     * @param journalSegmentBytes       the size at which a new journal segment is started
+     * @param compactionIntervalSeconds how often the journal is compacted into the MapDB file
+     */
+    public FeedFlowFileMapDbCache(String fileLocation, long journalSegmentBytes, int compactionIntervalSeconds) {
         log.info("Initialize FeedFlowFileMapDbCache cache at: {}, keeping running flowfiles for {} days", fileLocation, expireAfterNumber);
+        this.compactionIntervalMillis = TimeUnit.SECONDS.toMillis(compactionIntervalSeconds);
+        this.journal = new FeedFlowFileJournal(new File(fileLocation + ".journal"), journalSegmentBytes);
 
         try {
+            long start = System.currentTimeMillis();
             //delete the file after its loaded/opened
             inMemoryDb = DBMaker.fileDB(fileLocation).fileMmapEnable()
                 .fileMmapEnableIfSupported() // Only enable mmap on supported platforms
@@ -87,9 +136,13 @@ public class FeedFlowFileMapDbCache implements FeedFlowFileCacheListener {
                 .fileDeleteAfterOpen()
                 .closeOnJvmShutdown().make();
             memFeedFlowFileCache =
-                (HTreeMap<String, FeedFlowFile>) inMemoryDb.hashMap("feedFlowFile").keySerializer(Serializer.STRING).valueSerializer(Serializer.JAVA).expireAfterCreate(expireAfterNumber,
-                                                                                                                                                                        expireAfterUnit)
+                (HTreeMap<String, FeedFlowFile>) inMemoryDb.hashMap(MAP_NAME).keySerializer(Serializer.STRING).valueSerializer(new FeedFlowFileSerializer())
+                    .expireAfterCreate(expireAfterNumber, expireAfterUnit)
                     .createOrOpen();
+            migrateLegacyMap();
+
+            //apply any changes made after the last compaction
+            int replayed = journal.replay(memFeedFlowFileCache);
 
             //create a new db that will be used when persisting the data to disk
             persistentDb = DBMaker.fileDB(fileLocation).fileMmapEnable()
@@ -97,17 +150,36 @@ public class FeedFlowFileMapDbCache implements FeedFlowFileCacheListener {
                 .fileMmapPreclearDisable()   // Make mmap file faster
                 .cleanerHackEnable()
                 .checksumHeaderBypass()
+                .transactionEnable()
                 .closeOnJvmShutdown().make();
             persistentFlowFileCache =
-                (HTreeMap<String, FeedFlowFile>) persistentDb.hashMap("feedFlowFile").keySerializer(Serializer.STRING).valueSerializer(Serializer.JAVA)
+                (HTreeMap<String, FeedFlowFile>) persistentDb.hashMap(MAP_NAME).keySerializer(Serializer.STRING).valueSerializer(new FeedFlowFileSerializer())
                     .createOrOpen();
 
-            log.info("Successfully created FeedFlowFileMapDbCache cache at: {},  with starting size of: {} ", fileLocation, memFeedFlowFileCache.size());
+            //the file loaded above was deleted after it was opened.  Write the recovered flow files to the new file before discarding the journal
+            persistentFlowFileCache.putAll(memFeedFlowFileCache);
+            persistentDb.commit();
+            journal.deleteSegmentsBefore(journal.rotate());
+
+            log.info("Successfully created FeedFlowFileMapDbCache cache at: {},  with starting size of: {}.  Replayed {} journal records.  Recovery took {} ms ", fileLocation,
+                     memFeedFlowFileCache.size(), replayed, (System.currentTimeMillis() - start));
         } catch (Exception e) {
             log.error("Error creating mapdb cache. {}.  If NiFi goes down with flows in progress Kylo will not be able to connect the running flows on restart to their Kylo job executions",
                       e.getMessage(), e);
             memFeedFlowFileCache = new ConcurrentHashMap<>();
             persistentFlowFileCache = new ConcurrentHashMap<>();
+            persistentDb = null;
+        }
+    }
+
+    /**
+     * Copy any flow files persisted with java serialization by a previous version into the current map
+     */
+    private void migrateLegacyMap() {
+        if (inMemoryDb.exists(LEGACY_MAP_NAME)) {
+            Map<String, FeedFlowFile> legacy = inMemoryDb.hashMap(LEGACY_MAP_NAME).keySerializer(Serializer.STRING).valueSerializer(Serializer.JAVA).open();
+            log.info("Migrating {} flow files persisted using java serialization ", legacy.size());
+            memFeedFlowFileCache.putAll(legacy);
         }
     }
 
@@ -130,6 +202,53 @@ public class FeedFlowFileMapDbCache implements FeedFlowFileCacheListener {
                 flowFile.getChildFlowFiles().stream().forEach(flowFileId -> memFeedFlowFileCache.remove(flowFileId));
             }
         }
+        persistentFlowFileCache.remove(flowFile.getId());
+        try {
+            journal.remove(Collections.singletonList(flowFile.getId()));
+        } catch (IOException e) {
+            log.warn("Unable to journal the completion of flowfile {}. {} ", flowFile.getId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Record the current state of the given flow files in the journal, compacting the journal if the {@link #compactionIntervalMillis} has passed.
+     * This should be called from the thread processing the events so the flow files are not modified while they are written.
+     *
+     * @param flowFiles the flow files changed by the last batch of events
+     */
+    public void journalFlowFiles(Collection<FeedFlowFile> flowFiles) {
+        try {
+            if (!flowFiles.isEmpty()) {
+                journal.append(flowFiles);
+            }
+            if (System.currentTimeMillis() - lastCompactionTime > compactionIntervalMillis) {
+                compact();
+            }
+        } catch (Exception e) {
+            log.warn("Unable to journal {} flowfiles. {} ", flowFiles.size(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Write the flow files in the {@link FeedFlowFileGuavaCache} to the MapDB file and discard the journal segments that are no longer needed
+     *
+     * @return the number of flow files written
+     */
+    public synchronized int compact() throws IOException {
+        long start = System.currentTimeMillis();
+        long segment = journal.rotate();
+        Map<String, FeedFlowFile> flowFiles = cache.getFlowFiles().stream().collect(Collectors.toMap(FeedFlowFile::getId, Function.identity(), (f1, f2) -> f1));
+        List<String> completed = new ArrayList<>(persistentFlowFileCache.keySet());
+        completed.removeAll(flowFiles.keySet());
+        completed.forEach(persistentFlowFileCache::remove);
+        persistentFlowFileCache.putAll(flowFiles);
+        if (persistentDb != null) {
+            persistentDb.commit();
+            journal.deleteSegmentsBefore(segment);
+        }
+        lastCompactionTime = System.currentTimeMillis();
+        log.debug("Compacted the FeedFlowFile journal.  Persisted {} flowfiles and removed {} completed flowfiles in {} ms ", flowFiles.size(), completed.size(), lastCompactionTime - start);
+        return flowFiles.size();
     }
 
     /**
@@ -167,18 +286,22 @@ public class FeedFlowFileMapDbCache implements FeedFlowFileCacheListener {
     public int persistFlowFiles() {
         Collection<FeedFlowFile> flowFiles = cache.getFlowFiles();
         log.info("About to persist {}  flow files to disk via MapDB ", flowFiles.size());
-        flowFiles.stream().forEach(feedFlowFile -> cacheFlowFile(feedFlowFile));
-        log.info("Successfully persisted {}  flow files to disk via MapDB.  Persisted Map Size is: {} entries ", flowFiles.size(), persistentFlowFileCache.size());
-        if (flowFiles != null && !flowFiles.isEmpty()) {
-            if (inMemoryDb != null) {
-                inMemoryDb.commit();
-                inMemoryDb.close();
-            }
-            if (persistentDb != null) {
-                persistentDb.commit();
-                persistentDb.close();
-                log.info("Successfully closed the flow file MapDB cache file.");
-            }
+        int persisted;
+        try {
+            persisted = compact();
+        } catch (IOException e) {
+            log.error("Error compacting the FeedFlowFile journal while persisting the flowfiles. The journal will be replayed on the next start.", e);
+            persisted = 0;
+        }
+        log.info("Successfully persisted {}  flow files to disk via MapDB.  Persisted Map Size is: {} entries ", persisted, persistentFlowFileCache.size());
+        journal.close();
+        if (inMemoryDb != null) {
+            inMemoryDb.commit();
+            inMemoryDb.close();
+        }
+        if (persistentDb != null) {
+            persistentDb.close();
+            log.info("Successfully closed the flow file MapDB cache file.");
         }
         return flowFiles.size();
     }
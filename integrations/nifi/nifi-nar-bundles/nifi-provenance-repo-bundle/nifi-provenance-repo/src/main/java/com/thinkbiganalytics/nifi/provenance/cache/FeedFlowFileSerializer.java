@@ -0,0 +1,211 @@
+package com.thinkbiganalytics.nifi.provenance.cache;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.provenance.model.FeedFlowFile;
+
+import org.mapdb.DataInput2;
+import org.mapdb.DataOutput2;
+import org.mapdb.Serializer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact MapDB serializer for the {@link FeedFlowFile}, replacing java serialization.
+ * Numbers are written as packed longs and the collections of flow file ids are written without any class metadata.
+ */
+public class FeedFlowFileSerializer implements Serializer<FeedFlowFile> {
+
+    /**
+     * Identifies the layout of the serialized data.  Increment when the fields change.
+     */
+    private static final int VERSION = 1;
+
+    private static final int FLAG_STREAM = 1;
+    private static final int FLAG_CURRENT_FLOW_FILE_COMPLETE = 1 << 1;
+
+    @Override
+    public void serialize(DataOutput2 out, FeedFlowFile flowFile) throws IOException {
+        out.packInt(VERSION);
+        int flags = (flowFile.isStream() ? FLAG_STREAM : 0) | (flowFile.isCurrentFlowFileComplete() ? FLAG_CURRENT_FLOW_FILE_COMPLETE : 0);
+        out.packInt(flags);
+        out.writeUTF(flowFile.getId());
+        writeString(out, flowFile.getFeedName());
+        writeString(out, flowFile.getFeedProcessGroupId());
+        writeLong(out, flowFile.getFirstEventId());
+        writeLong(out, flowFile.getFirstEventStartTime());
+        writeString(out, flowFile.getFirstEventProcessorId());
+        writeLong(out, flowFile.getLastEventId());
+        writeLong(out, flowFile.getLastEventTime());
+        writeString(out, flowFile.getLastEventProcessorId());
+        out.packInt(flowFile.getFailedEventCount());
+        writeSet(out, flowFile.getActiveChildFlowFiles());
+        writeSet(out, flowFile.getChildFlowFiles());
+        writeSet(out, flowFile.getFlowfilesStarted());
+        writeLongMap(out, flowFile.getFlowFileLastEventTime());
+        writeLongMap(out, flowFile.getChildFlowFileStartTimes());
+        writeStringMap(out, flowFile.getFlowFileIdToParentFlowFileId());
+    }
+
+    @Override
+    public FeedFlowFile deserialize(DataInput2 in, int available) throws IOException {
+        int version = in.unpackInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported FeedFlowFile serialization version " + version);
+        }
+        int flags = in.unpackInt();
+        FeedFlowFile flowFile = new FeedFlowFile(in.readUTF());
+        flowFile.setStream((flags & FLAG_STREAM) != 0);
+        flowFile.setCurrentFlowFileComplete((flags & FLAG_CURRENT_FLOW_FILE_COMPLETE) != 0);
+        flowFile.setFeedName(readString(in));
+        flowFile.setFeedProcessGroupId(readString(in));
+        flowFile.setFirstEventId(readLong(in));
+        flowFile.setFirstEventStartTime(readLong(in));
+        flowFile.setFirstEventProcessorId(readString(in));
+        flowFile.setLastEventId(readLong(in));
+        flowFile.setLastEventTime(readLong(in));
+        flowFile.setLastEventProcessorId(readString(in));
+        flowFile.setFailedEventCount(in.unpackInt());
+        flowFile.setActiveChildFlowFiles(readSet(in));
+        flowFile.setChildFlowFiles(readSet(in));
+        flowFile.setFlowfilesStarted(readSet(in));
+        flowFile.setFlowFileLastEventTime(readLongMap(in));
+        flowFile.setChildFlowFileStartTimes(readLongMap(in));
+        flowFile.setFlowFileIdToParentFlowFileId(readStringMap(in));
+        return flowFile;
+    }
+
+    /**
+     * Serialize the flow file to a byte array
+     */
+    public byte[] toBytes(FeedFlowFile flowFile) throws IOException {
+        DataOutput2 out = new DataOutput2();
+        serialize(out, flowFile);
+        return out.copyBytes();
+    }
+
+    /**
+     * Read a flow file from a byte array written by {@link #toBytes(FeedFlowFile)}
+     */
+    public FeedFlowFile fromBytes(byte[] bytes) throws IOException {
+        return deserialize(new DataInput2.ByteArray(bytes), bytes.length);
+    }
+
+    private void writeString(DataOutput2 out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private String readString(DataInput2 in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private void writeLong(DataOutput2 out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private Long readLong(DataInput2 in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    /**
+     * Collections are written with their size + 1 so that 0 can represent null
+     */
+    private void writeSet(DataOutput2 out, Set<String> values) throws IOException {
+        if (values == null) {
+            out.packInt(0);
+            return;
+        }
+        out.packInt(values.size() + 1);
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private Set<String> readSet(DataInput2 in) throws IOException {
+        int size = in.unpackInt();
+        if (size == 0) {
+            return null;
+        }
+        Set<String> values = new HashSet<>(size);
+        for (int i = 0; i < size - 1; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+
+    private void writeLongMap(DataOutput2 out, Map<String, Long> values) throws IOException {
+        if (values == null) {
+            out.packInt(0);
+            return;
+        }
+        out.packInt(values.size() + 1);
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeLong(out, entry.getValue());
+        }
+    }
+
+    private Map<String, Long> readLongMap(DataInput2 in) throws IOException {
+        int size = in.unpackInt();
+        if (size == 0) {
+            return null;
+        }
+        Map<String, Long> values = new HashMap<>(size);
+        for (int i = 0; i < size - 1; i++) {
+            values.put(in.readUTF(), readLong(in));
+        }
+        return values;
+    }
+
+    private void writeStringMap(DataOutput2 out, Map<String, String> values) throws IOException {
+        if (values == null) {
+            out.packInt(0);
+            return;
+        }
+        out.packInt(values.size() + 1);
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private Map<String, String> readStringMap(DataInput2 in) throws IOException {
+        int size = in.unpackInt();
+        if (size == 0) {
+            return null;
+        }
+        Map<String, String> values = new HashMap<>(size);
+        for (int i = 0; i < size - 1; i++) {
+            values.put(in.readUTF(), readString(in));
+        }
+        return values;
+    }
+}
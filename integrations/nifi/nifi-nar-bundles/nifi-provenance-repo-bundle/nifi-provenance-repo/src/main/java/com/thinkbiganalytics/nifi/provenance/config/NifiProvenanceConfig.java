@@ -51,6 +51,18 @@ public class NifiProvenanceConfig {
     @Value("${kylo.provenance.feedflowfile.mapdb.cache.location:/opt/nifi/feed-flowfile-cache.db}")
     private String feedFlowFileMapDbCacheLocation;
 
+    /**
+     * size in bytes at which the running flowfile journal starts a new segment
+     **/
+    @Value("${kylo.provenance.feedflowfile.journal.segment.bytes:67108864}")
+    private long feedFlowFileJournalSegmentBytes;
+
+    /**
+     * how often the running flowfile journal is compacted into the map db file
+     **/
+    @Value("${kylo.provenance.feedflowfile.journal.compaction.interval.seconds:60}")
+    private int feedFlowFileJournalCompactionIntervalSeconds;
+
     @Bean
     public SpringApplicationContext springApplicationContext() {
         return new SpringApplicationContext();
@@ -76,7 +88,7 @@ public class NifiProvenanceConfig {
     @Bean
     public FeedFlowFileMapDbCache feedFlowFileMapDbCache() {
         String location = feedFlowFileMapDbCacheLocation;
-        return new FeedFlowFileMapDbCache(location);
+        return new FeedFlowFileMapDbCache(location, feedFlowFileJournalSegmentBytes, feedFlowFileJournalCompactionIntervalSeconds);
     }
 
     @Bean
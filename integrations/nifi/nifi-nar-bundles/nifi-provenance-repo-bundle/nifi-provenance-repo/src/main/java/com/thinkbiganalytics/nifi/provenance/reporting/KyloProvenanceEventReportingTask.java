@@ -57,12 +57,12 @@ import org.springframework.beans.BeansException;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 /**
  */
@@ -128,6 +128,16 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
         .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
         .expressionLanguageSupported(true)
         .build();
+
+    protected static final PropertyDescriptor PROCESSING_READ_AHEAD_BATCHES = new PropertyDescriptor.Builder()
+        .name("Processing read ahead batches")
+        .description(
+            "The number of batches of events to query from NiFi ahead of the batch currently being processed.  At most this many batches, plus the one being processed, are held in memory regardless of how many events are waiting to be processed.")
+        .defaultValue("2")
+        .required(false)
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .build();
     PropertyDescriptor METADATA_SERVICE = new PropertyDescriptor.Builder()
         .name("Metadata Service")
         .description("Think Big metadata service")
@@ -186,6 +196,10 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
      * value from PROCESSING_BATCH_SIZE
      */
     private Integer processingBatchSize;
+    /**
+     * value from PROCESSING_READ_AHEAD_BATCHES
+     */
+    private Integer processingReadAheadBatches;
     /**
      * value from LAST_EVENT_ID_NOT_FOUND_VALUE
      */
@@ -230,6 +244,7 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
         properties.add(LAST_EVENT_ID_NOT_FOUND_VALUE);
         properties.add(INITIAL_EVENT_ID_VALUE);
         properties.add(PROCESSING_BATCH_SIZE);
+        properties.add(PROCESSING_READ_AHEAD_BATCHES);
         return properties;
     }
 
@@ -245,6 +260,7 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
         Boolean rebuildOnRestart = context.getProperty(REBUILD_CACHE_ON_RESTART).asBoolean();
 
         this.processingBatchSize = context.getProperty(PROCESSING_BATCH_SIZE).asInteger();
+        this.processingReadAheadBatches = context.getProperty(PROCESSING_READ_AHEAD_BATCHES).asInteger();
         this.lastEventIdNotFoundValue = LAST_EVENT_ID_NOT_FOUND_OPTION.valueOf(context.getProperty(LAST_EVENT_ID_NOT_FOUND_VALUE).getValue());
         this.initialEventIdValue = INITIAL_EVENT_ID_OPTION.valueOf(context.getProperty(INITIAL_EVENT_ID_VALUE).getValue());
 
@@ -311,8 +327,10 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
      * attempt to load the data from disk into the Guava Cache
      */
     private void initializeFlowFilesFromMapDbCache() {
+        long start = System.currentTimeMillis();
         int loadedRootFlowFiles = getFlowFileMapDbCache().loadGuavaCache();
-        getLogger().info("initializeFlowFilesFromMapDbCache: Finished loading {} persisted files from disk into the Guava Cache", new Object[]{loadedRootFlowFiles});
+        getLogger().info("initializeFlowFilesFromMapDbCache: Finished loading {} persisted files from disk into the Guava Cache in {} ms",
+                         new Object[]{loadedRootFlowFiles, System.currentTimeMillis() - start});
     }
 
     /**
@@ -436,7 +454,7 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
     private void updateNifiFlowCache() {
         try {
             getLogger().debug("updateNifiFlowCache starting with syncId of {} ", new Object[]{nifiFlowSyncId});
-            NiFiFlowCacheSync updates = getKyloNiFiFlowProvider().getNiFiFlowUpdates(nifiFlowSyncId);
+            NiFiFlowCacheSync updates = getKyloNiFiFlowProvider().getNiFiFlowUpdates(nifiFlowSyncId, getProvenanceFeedLookup().getSequence());
             nifiFlowSyncId = updates.getSyncId();
             getProvenanceFeedLookup().updateFlowCache(updates);
             getLogger().debug("Finished updateNifiFlowCache with syncId: {}, mapSize: {} ", new Object[]{nifiFlowSyncId, getProvenanceFeedLookup().getProcessorIdMapSize()});
@@ -532,9 +550,10 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
                 long start = System.currentTimeMillis();
                 //split this into batches of events, maxing at 500 if not specified
                 int batchSize = processingBatchSize == null || processingBatchSize < 1 ? 500 : processingBatchSize;
+                int readAheadBatches = processingReadAheadBatches == null || processingReadAheadBatches < 1 ? 2 : processingReadAheadBatches;
                 //setup the object pool to be able to store at least the processing batch size amount
                 ProvenanceEventObjectPool pool = getProvenanceEventObjectPool();
-                int total = processingBatchSize + 100;
+                int total = batchSize + 100;
                 pool.setMaxIdle(total);
                 pool.setMaxTotal(total);
 
@@ -547,19 +566,19 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
 
                 //reset the queryTime holder
                 nifiQueryTime = 0L;
-                while (recordCount > 0) {
-                    if (!isProcessing()) {
-                        break;
-                    }
-                    long min = lastEventId + 1;
-                    long max = (min + (batchSize - 1)) > maxEventId ? maxEventId : (min + (batchSize - 1));
-                    int batchAmount = new Long(max - (min < 0 ? 0 : min)).intValue() + 1;
-                    if (batchAmount <= 0) {
-                        break;
-                    } else {
-                        lastEventId = processEventsInRange(provenance, min, max);
-                        recordCount -= batchAmount;
-                        recordCount = recordCount < 0 ? 0 : recordCount;
+                //query the batches in the background so only a bounded number of events are held in memory while the current batch is processed
+                try (ProvenanceEventPageReader reader = new ProvenanceEventPageReader(provenance, nextId, maxEventId, batchSize, readAheadBatches)) {
+                    reader.start();
+                    while (isProcessing()) {
+                        currentProcessingMessage = "Waiting for Events after " + lastEventId + " up to " + maxEventId;
+                        ProvenanceEventPageReader.Page page = reader.nextPage();
+                        if (page == null) {
+                            break;
+                        }
+                        nifiQueryTime += page.getQueryTime();
+                        lastEventId = processEventsInPage(page);
+                        recordCount = new Long(maxEventId - lastEventId).intValue();
+                        //checkpoint after each batch so a restart resumes from here
                         setLastEventId(lastEventId);
 
                         if (lastLogTime == null || (DateTime.now().getMillis() - lastLogTime.getMillis() > logReportingTimeMs)) {
@@ -569,11 +588,10 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
                                 new Object[]{lastEventId, recordCount});
                         }
                     }
-                    if (!isProcessing()) {
-                        break;
-                    }
-
-
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    getLogger().warn("KyloProvenanceEventReportingTask interrupted while waiting for events.  Last Event id: {} ", new Object[]{lastEventId});
+                    abortProcessing();
                 }
                 if (totalRecords > 0 && isProcessing()) {
                     long processingTime = (System.currentTimeMillis() - start);
@@ -733,29 +751,18 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
     }
 
     /**
-     * processes all events inclusive in the range
+     * processes all events in the page
      *
-     * @param provenance the repository to query
-     * @param minEventId the minEventId to query
-     * @param maxEventId the maxEvent id to query
+     * @param page the events to process, sorted by event id
      * @return the lastEventId processed
      */
-    private Long processEventsInRange(ProvenanceEventRepository provenance, Long minEventId, Long maxEventId) throws IOException {
+    private Long processEventsInPage(ProvenanceEventPageReader.Page page) {
         Long lastEventId = null;
-
-        int recordCount = new Long(maxEventId - (minEventId < 0 ? 0 : minEventId)).intValue();
-        currentProcessingMessage = "Finding all Events between " + minEventId + " - " + maxEventId;
-
-        //add one to the record count to get the correct number in the range including the maxEventId
-        recordCount += 1;
-        long start = System.currentTimeMillis();
-        final List<ProvenanceEventRecord> events = provenance.getEvents(minEventId, recordCount);
+        currentProcessingMessage = "Processing Events between " + page.getMinEventId() + " - " + page.getMaxEventId();
+        final List<ProvenanceEventRecord> events = page.getEvents();
 
         updateNifiFlowCache();
 
-        long end = System.currentTimeMillis();
-        nifiQueryTime += (end - start);
-        Collections.sort(events, new ProvenanceEventRecordComparator());
         ProvenanceEventObjectPool pool = getProvenanceEventObjectPool();
         List<ProvenanceEventRecordDTO> pooledEvents = new ArrayList<>(events.size());
         try {
@@ -773,6 +780,11 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
             }
             //Send JMS off
             getProvenanceEventCollector().sendToJms();
+            //journal the running flow files so they can be recovered if NiFi goes down
+            getFlowFileMapDbCache().journalFlowFiles(pooledEvents.stream()
+                                                         .map(ProvenanceEventRecordDTO::getFeedFlowFile)
+                                                         .filter(Objects::nonNull)
+                                                         .collect(Collectors.toSet()));
         } catch (Exception e) {
             getLogger().error("Error processing Kylo ProvenanceEvent ", e);
             abortProcessing();
@@ -793,7 +805,15 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
         }
         getLogger().info("ProvenanceEventPool: Pool Stats: Created:[" + pool.getCreatedCount() + "], Borrowed:[" + pool.getBorrowedCount() + "]");
 
-        return lastEventId == null ? minEventId : lastEventId;
+        //if processing stopped part way through the page resume after the last event processed, otherwise the whole page has been read
+        if (isProcessing()) {
+            return page.getMaxEventId();
+        } else if (lastEventId == null) {
+            //stopped before the first event so nothing in this page has been handled
+            return page.getMinEventId() - 1;
+        } else {
+            return lastEventId;
+        }
 
     }
 
@@ -858,8 +878,8 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
     }
 
     /**
-     * Persistent cache that will only be used when NiFi shuts down or is started, persisting the RootFlowFile objects to help complete Statistics and event processing when NiFi shuts down with events
-     * in mid flow processing
+     * Persistent cache journaling the RootFlowFile objects as events are processed, and restoring them when NiFi is started, to help complete Statistics and event processing when NiFi goes down
+     * with events in mid flow processing
      */
     private FeedFlowFileMapDbCache getFlowFileMapDbCache() {
         return SpringApplicationContext.getInstance().getBean(FeedFlowFileMapDbCache.class);
@@ -869,24 +889,5 @@ public class KyloProvenanceEventReportingTask extends AbstractReportingTask {
 
     private static enum INITIAL_EVENT_ID_OPTION {LAST_EVENT_ID, MAX_EVENT_ID, KYLO}
 
-    /**
-     * Comparator sorting events by eventId
-     */
-    public class ProvenanceEventRecordComparator implements Comparator<ProvenanceEventRecord> {
-
-
-        public int compare(ProvenanceEventRecord o1, ProvenanceEventRecord o2) {
-            if (o1 == null && o1 == null) {
-                return 0;
-            } else if (o1 != null && o2 == null) {
-                return -1;
-            } else if (o1 == null && o2 != null) {
-                return 1;
-            } else {
-                return new Long(o1.getEventId()).compareTo(new Long(o2.getEventId()));
-            }
-        }
-    }
-
 
 }
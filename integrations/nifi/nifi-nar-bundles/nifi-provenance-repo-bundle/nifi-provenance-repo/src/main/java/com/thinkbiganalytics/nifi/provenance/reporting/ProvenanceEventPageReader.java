@@ -0,0 +1,216 @@
+package com.thinkbiganalytics.nifi.provenance.reporting;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a range of provenance events in fixed size pages on a background thread.
+ * At most {@code readAheadPages} pages are held in the queue waiting to be processed, so the memory used is bounded by the page size no matter how many events are in the range.
+ * The caller processes each page in order using {@link #nextPage()} while the next page is being queried from NiFi.
+ */
+public class ProvenanceEventPageReader implements Closeable {
+
+    private static final Comparator<ProvenanceEventRecord> EVENT_ID_COMPARATOR = Comparator.comparingLong(ProvenanceEventRecord::getEventId);
+
+    /**
+     * Marker added to the queue when there are no more pages to read
+     */
+    private static final Page END = new Page(-1L, -1L, Collections.emptyList(), 0L);
+
+    private final ProvenanceEventRepository provenance;
+
+    private final long minEventId;
+
+    private final long maxEventId;
+
+    private final int pageSize;
+
+    private final BlockingQueue<Page> pages;
+
+    private volatile boolean closed = false;
+
+    private volatile IOException readError;
+
+    private Thread readerThread;
+
+    private boolean finished = false;
+
+    /**
+     * @param provenance     the repository to query
+     * @param minEventId     the first event id to read
+     * @param maxEventId     the last event id to read, inclusive
+     * @param pageSize       the number of events to query at a time
+     * @param readAheadPages the number of pages to read ahead of the page being processed
+     */
+    public ProvenanceEventPageReader(ProvenanceEventRepository provenance, long minEventId, long maxEventId, int pageSize, int readAheadPages) {
+        this.provenance = provenance;
+        this.minEventId = minEventId < 0 ? 0 : minEventId;
+        this.maxEventId = maxEventId;
+        this.pageSize = pageSize < 1 ? 1 : pageSize;
+        this.pages = new ArrayBlockingQueue<>(readAheadPages < 1 ? 1 : readAheadPages);
+    }
+
+    /**
+     * Start reading the pages in the background
+     */
+    public void start() {
+        readerThread = new Thread(this::readPages, "KyloProvenanceEventPageReader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    /**
+     * Get the next page of events, waiting for it to be read if needed.
+     *
+     * @return the next page sorted by event id, or null if all the pages in the range have been read
+     * @throws IOException if NiFi failed to return the events for the page
+     */
+    public Page nextPage() throws IOException, InterruptedException {
+        if (finished) {
+            return null;
+        }
+        Page page = pages.take();
+        if (page == END) {
+            finished = true;
+            if (readError != null) {
+                throw readError;
+            }
+            return null;
+        }
+        return page;
+    }
+
+    /**
+     * Stop reading and discard any pages that have not been processed
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pages.clear();
+        if (readerThread != null) {
+            readerThread.interrupt();
+        }
+    }
+
+    private void readPages() {
+        long min = minEventId;
+        try {
+            while (!closed && min <= maxEventId) {
+                int count = (int) Math.min(pageSize, maxEventId - min + 1);
+                long start = System.currentTimeMillis();
+                List<ProvenanceEventRecord> events = provenance.getEvents(min, count);
+                long queryTime = System.currentTimeMillis() - start;
+
+                //NiFi may return events past the end of the range if ids were aged off
+                List<ProvenanceEventRecord> pageEvents = new ArrayList<>(events.size());
+                for (ProvenanceEventRecord event : events) {
+                    if (event != null && event.getEventId() <= maxEventId) {
+                        pageEvents.add(event);
+                    }
+                }
+                pageEvents.sort(EVENT_ID_COMPARATOR);
+
+                long pageMax = min + count - 1;
+                if (!pageEvents.isEmpty()) {
+                    pageMax = Math.max(pageMax, pageEvents.get(pageEvents.size() - 1).getEventId());
+                }
+                putPage(new Page(min, pageMax, pageEvents, queryTime));
+                min = pageMax + 1;
+            }
+        } catch (IOException e) {
+            readError = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!closed) {
+                try {
+                    putPage(END);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait for room in the queue, giving up if the reader is closed
+     */
+    private void putPage(Page page) throws InterruptedException {
+        while (!closed && !pages.offer(page, 1, TimeUnit.SECONDS)) {
+            //wait for the current page to be processed
+        }
+    }
+
+    /**
+     * A sorted page of events
+     */
+    public static class Page {
+
+        private final long minEventId;
+        private final long maxEventId;
+        private final List<ProvenanceEventRecord> events;
+        private final long queryTime;
+
+        public Page(long minEventId, long maxEventId, List<ProvenanceEventRecord> events, long queryTime) {
+            this.minEventId = minEventId;
+            this.maxEventId = maxEventId;
+            this.events = events;
+            this.queryTime = queryTime;
+        }
+
+        /**
+         * @return the first event id queried for this page
+         */
+        public long getMinEventId() {
+            return minEventId;
+        }
+
+        /**
+         * @return the last event id covered by this page.  All events up to and including this id have been read once this page is processed.
+         */
+        public long getMaxEventId() {
+            return maxEventId;
+        }
+
+        public List<ProvenanceEventRecord> getEvents() {
+            return events;
+        }
+
+        /**
+         * @return the time in millis spent querying NiFi for this page
+         */
+        public long getQueryTime() {
+            return queryTime;
+        }
+    }
+}
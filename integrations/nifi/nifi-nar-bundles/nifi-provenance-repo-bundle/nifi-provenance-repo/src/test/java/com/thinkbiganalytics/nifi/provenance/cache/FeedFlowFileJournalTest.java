@@ -0,0 +1,211 @@
+package com.thinkbiganalytics.nifi.provenance.cache;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.provenance.model.FeedFlowFile;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mapdb.DB;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the {@link FeedFlowFileJournal} and the {@link FeedFlowFileSerializer} used to recover the running flow files
+ */
+public class FeedFlowFileJournalTest {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedFlowFileJournalTest.class);
+
+    /**
+     * The number of flow files used in the recovery test.  The recovery-test profile runs it with 1000000.
+     */
+    private static final int RECOVERY_FLOW_FILES = Integer.getInteger("kylo.test.recovery.flowfiles", 10000);
+
+    private static final long SEGMENT_BYTES = 64 * 1024 * 1024L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSerializerRoundTrip() throws Exception {
+        FeedFlowFileSerializer serializer = new FeedFlowFileSerializer();
+        FeedFlowFile flowFile = createFlowFile(1);
+        flowFile.setCurrentFlowFileComplete(true);
+        flowFile.incrementFailedEvents();
+
+        FeedFlowFile result = serializer.fromBytes(serializer.toBytes(flowFile));
+        Assert.assertEquals(flowFile.getId(), result.getId());
+        Assert.assertEquals(flowFile.getFeedName(), result.getFeedName());
+        Assert.assertEquals(flowFile.getFeedProcessGroupId(), result.getFeedProcessGroupId());
+        Assert.assertEquals(flowFile.getFirstEventId(), result.getFirstEventId());
+        Assert.assertEquals(flowFile.getLastEventTime(), result.getLastEventTime());
+        Assert.assertEquals(flowFile.getActiveChildFlowFiles(), result.getActiveChildFlowFiles());
+        Assert.assertEquals(flowFile.getChildFlowFiles(), result.getChildFlowFiles());
+        Assert.assertEquals(flowFile.getFlowFileLastEventTime(), result.getFlowFileLastEventTime());
+        Assert.assertEquals(flowFile.getFlowFileIdToParentFlowFileId(), result.getFlowFileIdToParentFlowFileId());
+        Assert.assertNull(result.getFlowfilesStarted());
+        Assert.assertTrue(result.isCurrentFlowFileComplete());
+        Assert.assertTrue(result.hasFailedEvents());
+    }
+
+    @Test
+    public void testReplay() throws Exception {
+        File directory = folder.newFolder("journal");
+        FeedFlowFileJournal journal = new FeedFlowFileJournal(directory, 1024);
+        List<FeedFlowFile> flowFiles = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            flowFiles.add(createFlowFile(i));
+        }
+        journal.append(flowFiles);
+        FeedFlowFile updated = createFlowFile(5);
+        updated.setLastEventId(999L);
+        journal.append(Collections.singletonList(updated));
+        journal.remove(Arrays.asList("flowfile-1", "flowfile-2"));
+        journal.close();
+
+        Map<String, FeedFlowFile> recovered = new HashMap<>();
+        int records = new FeedFlowFileJournal(directory, 1024).replay(recovered);
+        Assert.assertEquals(103, records);
+        Assert.assertEquals(98, recovered.size());
+        Assert.assertFalse(recovered.containsKey("flowfile-1"));
+        Assert.assertEquals(Long.valueOf(999L), recovered.get("flowfile-5").getLastEventId());
+    }
+
+    @Test
+    public void testReplayIgnoresPartialRecord() throws Exception {
+        File directory = folder.newFolder("journal");
+        FeedFlowFileJournal journal = new FeedFlowFileJournal(directory, 1024 * 1024);
+        journal.append(Arrays.asList(createFlowFile(1), createFlowFile(2)));
+        journal.close();
+
+        //simulate a crash in the middle of writing a record
+        File[] segments = directory.listFiles();
+        Assert.assertNotNull(segments);
+        try (FileOutputStream out = new FileOutputStream(segments[segments.length - 1], true)) {
+            out.write(new byte[]{1, 0, 10, 'f', 'l', 'o'});
+        }
+
+        Map<String, FeedFlowFile> recovered = new HashMap<>();
+        int records = new FeedFlowFileJournal(directory, 1024 * 1024).replay(recovered);
+        Assert.assertEquals(2, records);
+        Assert.assertEquals(2, recovered.size());
+    }
+
+    @Test
+    public void testCompactedSegmentsAreDeleted() throws Exception {
+        File directory = folder.newFolder("journal");
+        FeedFlowFileJournal journal = new FeedFlowFileJournal(directory, 1024 * 1024);
+        journal.append(Collections.singletonList(createFlowFile(1)));
+        long segment = journal.rotate();
+        journal.append(Collections.singletonList(createFlowFile(2)));
+        journal.deleteSegmentsBefore(segment);
+        journal.close();
+
+        Map<String, FeedFlowFile> recovered = new HashMap<>();
+        new FeedFlowFileJournal(directory, 1024 * 1024).replay(recovered);
+        Assert.assertEquals(Collections.singleton("flowfile-2"), recovered.keySet());
+    }
+
+    /**
+     * Recover the running flow files through a {@link FeedFlowFileMapDbCache} reopened after it stopped without compacting its journal, and measure the time taken
+     */
+    @Test
+    public void testRecovery() throws Exception {
+        String fileLocation = new File(folder.getRoot(), "feed-flowfile-cache.db").getPath();
+        List<FeedFlowFile> running = new ArrayList<>();
+        for (int i = 0; i < RECOVERY_FLOW_FILES; i++) {
+            running.add(createFlowFile(i));
+        }
+        FeedFlowFileGuavaCache guavaCache = Mockito.mock(FeedFlowFileGuavaCache.class);
+        Mockito.when(guavaCache.getFlowFiles()).thenReturn(running);
+
+        long start = System.currentTimeMillis();
+        FeedFlowFileMapDbCache mapDbCache = new FeedFlowFileMapDbCache(fileLocation, SEGMENT_BYTES, 3600);
+        ReflectionTestUtils.setField(mapDbCache, "cache", guavaCache);
+        mapDbCache.compact();
+
+        List<FeedFlowFile> changes = new ArrayList<>();
+        for (int i = 0; i < RECOVERY_FLOW_FILES / 10; i++) {
+            changes.add(createFlowFile(RECOVERY_FLOW_FILES + i));
+        }
+        mapDbCache.journalFlowFiles(changes);
+        mapDbCache.onInvalidate(running.get(0));
+        closeWithoutCompaction(mapDbCache);
+        log.info("Wrote {} flow files and {} journal records in {} ms", RECOVERY_FLOW_FILES, changes.size() + 1, System.currentTimeMillis() - start);
+
+        start = System.currentTimeMillis();
+        FeedFlowFileMapDbCache recovered = new FeedFlowFileMapDbCache(fileLocation, SEGMENT_BYTES, 3600);
+        long recoveryTime = System.currentTimeMillis() - start;
+        log.info("Recovered {} flow files in {} ms", recovered.size(), recoveryTime);
+
+        try {
+            Assert.assertEquals(RECOVERY_FLOW_FILES + changes.size() - 1, recovered.size().intValue());
+            Map<String, FeedFlowFile> byId = new HashMap<>();
+            recovered.getCache().forEach(flowFile -> byId.put(flowFile.getId(), flowFile));
+            Assert.assertFalse(byId.containsKey("flowfile-0"));
+            Assert.assertEquals(Long.valueOf(RECOVERY_FLOW_FILES + 5L), byId.get("flowfile-" + RECOVERY_FLOW_FILES).getLastEventId());
+        } finally {
+            closeWithoutCompaction(recovered);
+        }
+    }
+
+    /**
+     * Release the files of the cache as NiFi stopping without persisting the flow files would, leaving the journal to be replayed
+     */
+    private void closeWithoutCompaction(FeedFlowFileMapDbCache mapDbCache) {
+        ((FeedFlowFileJournal) ReflectionTestUtils.getField(mapDbCache, "journal")).close();
+        ((DB) ReflectionTestUtils.getField(mapDbCache, "inMemoryDb")).close();
+        ((DB) ReflectionTestUtils.getField(mapDbCache, "persistentDb")).close();
+    }
+
+    private FeedFlowFile createFlowFile(int i) {
+        FeedFlowFile flowFile = new FeedFlowFile("flowfile-" + i);
+        flowFile.setFeedName("category.feed" + (i % 10));
+        flowFile.setFeedProcessGroupId("process-group-" + (i % 10));
+        flowFile.setFirstEventId((long) i);
+        flowFile.setFirstEventStartTime(1000L * i);
+        flowFile.setFirstEventProcessorId("processor-1");
+        flowFile.setLastEventId((long) i + 5);
+        flowFile.setLastEventTime(1000L * i + 500);
+        flowFile.setLastEventProcessorId("processor-5");
+        flowFile.addChildFlowFile("child-" + i);
+        flowFile.assignFlowFileToParent("child-" + i, flowFile.getId());
+        flowFile.assignChildFlowFileStartTime("child-" + i, 1000L * i + 100);
+        Map<String, Long> lastEventTimes = new HashMap<>();
+        lastEventTimes.put(flowFile.getId(), 1000L * i + 500);
+        flowFile.setFlowFileLastEventTime(lastEventTimes);
+        return flowFile;
+    }
+}
@@ -0,0 +1,110 @@
+package com.thinkbiganalytics.nifi.provenance.reporting;
+
+/*-
+ * #%L
+ * thinkbig-nifi-provenance-repo
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests the {@link ProvenanceEventPageReader}
+ */
+public class ProvenanceEventPageReaderTest {
+
+    @Test
+    public void testReadsRangeInSortedPages() throws Exception {
+        ProvenanceEventRepository provenance = Mockito.mock(ProvenanceEventRepository.class);
+        Mockito.when(provenance.getEvents(Mockito.anyLong(), Mockito.anyInt())).thenAnswer(invocation -> {
+            long first = invocation.getArgumentAt(0, Long.class);
+            int count = invocation.getArgumentAt(1, Integer.class);
+            List<ProvenanceEventRecord> events = new ArrayList<>();
+            for (long id = first; id < first + count; id++) {
+                events.add(event(id));
+            }
+            Collections.reverse(events);
+            return events;
+        });
+
+        List<Long> ids = new ArrayList<>();
+        int pages = 0;
+        try (ProvenanceEventPageReader reader = new ProvenanceEventPageReader(provenance, 5, 104, 30, 1)) {
+            reader.start();
+            ProvenanceEventPageReader.Page page;
+            while ((page = reader.nextPage()) != null) {
+                pages++;
+                Assert.assertTrue(page.getEvents().size() <= 30);
+                page.getEvents().forEach(event -> ids.add(event.getEventId()));
+            }
+        }
+        Assert.assertEquals(4, pages);
+        Assert.assertEquals(100, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Assert.assertEquals(Long.valueOf(i + 5), ids.get(i));
+        }
+    }
+
+    @Test
+    public void testSkipsAgedOffEvents() throws Exception {
+        ProvenanceEventRepository provenance = Mockito.mock(ProvenanceEventRepository.class);
+        //events 0 - 49 have been aged off
+        Mockito.when(provenance.getEvents(Mockito.anyLong(), Mockito.anyInt())).thenAnswer(invocation -> {
+            long first = Math.max(50L, invocation.getArgumentAt(0, Long.class));
+            int count = invocation.getArgumentAt(1, Integer.class);
+            List<ProvenanceEventRecord> events = new ArrayList<>();
+            for (long id = first; id < first + count; id++) {
+                events.add(event(id));
+            }
+            return events;
+        });
+
+        try (ProvenanceEventPageReader reader = new ProvenanceEventPageReader(provenance, 0, 59, 20, 2)) {
+            reader.start();
+            ProvenanceEventPageReader.Page page = reader.nextPage();
+            Assert.assertEquals(10, page.getEvents().size());
+            Assert.assertEquals(59L, page.getMaxEventId());
+            Assert.assertNull(reader.nextPage());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testQueryErrorIsReturnedToCaller() throws Exception {
+        ProvenanceEventRepository provenance = Mockito.mock(ProvenanceEventRepository.class);
+        Mockito.when(provenance.getEvents(Mockito.anyLong(), Mockito.anyInt())).thenThrow(new IOException("provenance unavailable"));
+
+        try (ProvenanceEventPageReader reader = new ProvenanceEventPageReader(provenance, 0, 100, 10, 2)) {
+            reader.start();
+            reader.nextPage();
+        }
+    }
+
+    private ProvenanceEventRecord event(long id) {
+        ProvenanceEventRecord event = Mockito.mock(ProvenanceEventRecord.class);
+        Mockito.when(event.getEventId()).thenReturn(id);
+        return event;
+    }
+}
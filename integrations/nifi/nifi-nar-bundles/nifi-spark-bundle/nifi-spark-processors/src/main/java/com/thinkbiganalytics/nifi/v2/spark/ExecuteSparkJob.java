@@ -31,6 +31,8 @@ import com.thinkbiganalytics.nifi.security.KerberosProperties;
 import com.thinkbiganalytics.nifi.security.SecurityUtil;
 import com.thinkbiganalytics.nifi.security.SpringSecurityContextLoader;
 import com.thinkbiganalytics.nifi.util.InputStreamReaderRunnable;
+import com.thinkbiganalytics.spark.jobserver.SparkJobRequest;
+import com.thinkbiganalytics.spark.jobserver.SparkJobResult;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.conf.Configuration;
@@ -235,6 +237,21 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
         .required(false)
         .identifiesControllerService(MetadataProviderService.class)
         .build();
+    public static final PropertyDescriptor SPARK_JOB_SERVER = new PropertyDescriptor.Builder()
+        .name("Spark Job Server")
+        .description("Runs the job in a long-lived Spark application instead of launching a new one. The Spark master, memory, executor, and configuration properties of "
+                     + "the job server are used. Jobs with Data Sources or Kerberos authentication are always launched as a new application.")
+        .required(false)
+        .identifiesControllerService(SparkJobServerService.class)
+        .build();
+    public static final PropertyDescriptor JOB_GROUP = new PropertyDescriptor.Builder()
+        .name("Job Group")
+        .description("Jobs in the same group share the concurrency limit of the Spark Job Server")
+        .required(false)
+        .defaultValue("${metadata.category.systemName}.${metadata.systemFeedName}")
+        .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .build();
 
     /**
      * Matches a comma-separated list of UUIDs
@@ -348,6 +365,8 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
         pds.add(EXTRA_SPARK_FILES);
         pds.add(DATASOURCES);
         pds.add(METADATA_SERVICE);
+        pds.add(SPARK_JOB_SERVER);
+        pds.add(JOB_GROUP);
         propDescriptors = Collections.unmodifiableList(pds);
     }
 
@@ -463,6 +482,33 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
                 }
             }
 
+            // Run in the job server when possible
+            final SparkJobServerService jobServer = context.getProperty(SPARK_JOB_SERVER).asControllerService(SparkJobServerService.class);
+            if (jobServer != null && !authenticateUser && StringUtils.isBlank(datasourceIds)) {
+                final SparkJobRequest request = new SparkJobRequest();
+                request.setGroup(context.getProperty(JOB_GROUP).evaluateAttributeExpressions(flowFile).getValue());
+                request.setName(sparkApplicationName);
+                request.setAppJar(appJar);
+                request.setMainClass(mainClass);
+                request.setArgs((args != null) ? Arrays.asList(args) : Collections.<String>emptyList());
+                request.setJars(extraJarPaths);
+                request.setTimeoutSeconds(sparkProcessTimeout);
+
+                logger.info("Submitting Spark job to job server");
+                final SparkJobResult result = jobServer.submit(request);
+                if (StringUtils.isNotEmpty(result.getLog())) {
+                    logger.info(result.getLog());
+                }
+                if (result.isTimedOut()) {
+                    getLog().error("Spark job timed out after {} seconds using flow file: {}  ", new Object[]{sparkProcessTimeout, flowFile});
+                    session.transfer(flowFile, REL_FAILURE);
+                    return;
+                }
+
+                transferResult(context, session, flowFile, result.getExitCode());
+                return;
+            }
+
             String sparkHome = context.getProperty(SPARK_HOME).evaluateAttributeExpressions(flowFile).getValue();
 
             // Build environment
@@ -560,17 +606,7 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
             }
 
             int exitCode = spark.exitValue();
-
-            flowFile = session.putAttribute(flowFile, PROVENANCE_SPARK_EXIT_CODE_KEY, exitCode + "");
-            if (exitCode != 0) {
-                logger.error("ExecuteSparkJob for {} and flowfile: {} completed with failed status {} ", new Object[]{context.getName(), flowFile, exitCode});
-                flowFile = session.putAttribute(flowFile, PROVENANCE_JOB_STATUS_KEY, "Failed");
-                session.transfer(flowFile, REL_FAILURE);
-            } else {
-                logger.info("ExecuteSparkJob for {} and flowfile: {} completed with success status {} ", new Object[]{context.getName(), flowFile, exitCode});
-                flowFile = session.putAttribute(flowFile, PROVENANCE_JOB_STATUS_KEY, "Success");
-                session.transfer(flowFile, REL_SUCCESS);
-            }
+            transferResult(context, session, flowFile, exitCode);
         } catch (final Exception e) {
             logger.error("Unable to execute Spark job {},{}", new Object[]{flowFile, e.getMessage()}, e);
             flowFile = session.putAttribute(flowFile, PROVENANCE_JOB_STATUS_KEY, "Failed With Exception");
@@ -579,6 +615,31 @@ public class ExecuteSparkJob extends AbstractNiFiProcessor {
         }
     }
 
+    /**
+     * Records the exit code of the Spark job and transfers the flow file to the matching relationship.
+     *
+     * @param context  the process context
+     * @param session  the process session
+     * @param flowFile the flow file
+     * @param exitCode the exit code of the Spark job
+     */
+    private void transferResult(@Nonnull final ProcessContext context, @Nonnull final ProcessSession session, @Nonnull FlowFile flowFile, final int exitCode) {
+        final ComponentLog logger = getLog();
+        final String jobStatusKey = context.getName() + " Job Status";
+        final String sparkExitCodeKey = context.getName() + " Spark Exit Code";
+
+        flowFile = session.putAttribute(flowFile, sparkExitCodeKey, exitCode + "");
+        if (exitCode != 0) {
+            logger.error("ExecuteSparkJob for {} and flowfile: {} completed with failed status {} ", new Object[]{context.getName(), flowFile, exitCode});
+            flowFile = session.putAttribute(flowFile, jobStatusKey, "Failed");
+            session.transfer(flowFile, REL_FAILURE);
+        } else {
+            logger.info("ExecuteSparkJob for {} and flowfile: {} completed with success status {} ", new Object[]{context.getName(), flowFile, exitCode});
+            flowFile = session.putAttribute(flowFile, jobStatusKey, "Success");
+            session.transfer(flowFile, REL_SUCCESS);
+        }
+    }
+
     @Override
     protected Collection<ValidationResult> customValidate(@Nonnull final ValidationContext validationContext) {
         final Set<ValidationResult> results = new HashSet<>();
@@ -0,0 +1,46 @@
+package com.thinkbiganalytics.nifi.v2.spark;
+
+/*-
+ * #%L
+ * thinkbig-nifi-spark-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.jobserver.SparkJobRequest;
+import com.thinkbiganalytics.spark.jobserver.SparkJobResult;
+
+import org.apache.nifi.controller.ControllerService;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Runs Spark jobs in a long-lived Spark application, avoiding the cost of starting a new application for each job.
+ */
+public interface SparkJobServerService extends ControllerService {
+
+    /**
+     * Runs the specified job and waits for it to complete.
+     *
+     * @param request the job request
+     * @return the exit code and output of the job
+     * @throws IOException if the job server cannot be reached
+     */
+    @Nonnull
+    SparkJobResult submit(@Nonnull SparkJobRequest request) throws IOException;
+}
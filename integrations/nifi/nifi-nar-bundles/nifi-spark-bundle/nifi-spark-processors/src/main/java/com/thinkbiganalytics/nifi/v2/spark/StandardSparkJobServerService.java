@@ -0,0 +1,304 @@
+package com.thinkbiganalytics.nifi.v2.spark;
+
+/*-
+ * #%L
+ * thinkbig-nifi-spark-processors
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thinkbiganalytics.nifi.util.InputStreamReaderRunnable;
+import com.thinkbiganalytics.spark.jobserver.SparkJobRequest;
+import com.thinkbiganalytics.spark.jobserver.SparkJobResult;
+import com.thinkbiganalytics.spark.jobserver.SparkJobServer;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.nifi.annotation.documentation.CapabilityDescription;
+import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnDisabled;
+import org.apache.nifi.annotation.lifecycle.OnEnabled;
+import org.apache.nifi.components.PropertyDescriptor;
+import org.apache.nifi.controller.AbstractControllerService;
+import org.apache.nifi.controller.ConfigurationContext;
+import org.apache.nifi.logging.LogLevel;
+import org.apache.nifi.processor.util.StandardValidators;
+import org.apache.nifi.reporting.InitializationException;
+import org.apache.spark.launcher.SparkLauncher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Launches a {@link SparkJobServer} when enabled and submits jobs to it.
+ */
+@Tags({"spark", "thinkbig"})
+@CapabilityDescription("Keeps a Spark application running for executing Spark jobs without launching a new application for each job.")
+public class StandardSparkJobServerService extends AbstractControllerService implements SparkJobServerService {
+
+    public static final PropertyDescriptor JOB_SERVER_JAR = new PropertyDescriptor.Builder()
+        .name("Job Server JAR")
+        .description("Path to the kylo-spark-job-server JAR file")
+        .required(true)
+        .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .build();
+    public static final PropertyDescriptor SPARK_HOME = new PropertyDescriptor.Builder()
+        .name("SparkHome")
+        .description("Path to the Spark Client directory")
+        .required(true)
+        .defaultValue("/usr/hdp/current/spark-client/")
+        .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .build();
+    public static final PropertyDescriptor SPARK_MASTER = new PropertyDescriptor.Builder()
+        .name("SparkMaster")
+        .description("The Spark master")
+        .required(true)
+        .defaultValue("local[*]")
+        .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .build();
+    public static final PropertyDescriptor DRIVER_MEMORY = new PropertyDescriptor.Builder()
+        .name("Driver Memory")
+        .description("How much RAM to allocate to the driver")
+        .required(true)
+        .defaultValue("1g")
+        .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .build();
+    public static final PropertyDescriptor SPARK_CONFS = new PropertyDescriptor.Builder()
+        .name("Spark Configurations")
+        .description("Pipe separated arguments to be passed into the Spark as configurations i.e <CONF1>=<VALUE1>|<CONF2>=<VALUE2>..")
+        .required(false)
+        .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+        .expressionLanguageSupported(true)
+        .build();
+    public static final PropertyDescriptor PORT = new PropertyDescriptor.Builder()
+        .name("Port")
+        .description("The local port for the job server to listen on")
+        .required(true)
+        .defaultValue(Integer.toString(SparkJobServer.DEFAULT_PORT))
+        .addValidator(StandardValidators.PORT_VALIDATOR)
+        .build();
+    public static final PropertyDescriptor MAX_CONCURRENT_JOBS = new PropertyDescriptor.Builder()
+        .name("Max Concurrent Jobs Per Group")
+        .description("The maximum number of jobs in the same group, usually a feed, that can run at the same time. Other jobs wait for a running job to complete.")
+        .required(true)
+        .defaultValue("1")
+        .addValidator(StandardValidators.POSITIVE_INTEGER_VALIDATOR)
+        .build();
+    public static final PropertyDescriptor STARTUP_TIMEOUT = new PropertyDescriptor.Builder()
+        .name("Startup Timeout")
+        .description("Time to wait for the job server to start")
+        .required(true)
+        .defaultValue("2 min")
+        .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+        .build();
+
+    /**
+     * Additional time to wait for a response after the job timeout
+     */
+    private static final int RESPONSE_GRACE_MILLIS = 60000;
+
+    private static final List<PropertyDescriptor> properties;
+
+    static {
+        final List<PropertyDescriptor> pds = new ArrayList<>();
+        pds.add(JOB_SERVER_JAR);
+        pds.add(SPARK_HOME);
+        pds.add(SPARK_MASTER);
+        pds.add(DRIVER_MEMORY);
+        pds.add(SPARK_CONFS);
+        pds.add(PORT);
+        pds.add(MAX_CONCURRENT_JOBS);
+        pds.add(STARTUP_TIMEOUT);
+        properties = Collections.unmodifiableList(pds);
+    }
+
+    /**
+     * Converts requests and results to JSON
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Port the job server is listening on
+     */
+    private volatile int port;
+
+    /**
+     * Job server process
+     */
+    private volatile Process process;
+
+    /**
+     * Token required by the job server to submit jobs
+     */
+    private volatile String token;
+
+    @Override
+    protected List<PropertyDescriptor> getSupportedPropertyDescriptors() {
+        return properties;
+    }
+
+    /**
+     * Launches the job server and waits for it to accept requests.
+     *
+     * @param context the configuration context
+     * @throws InitializationException if the job server cannot be started
+     */
+    @OnEnabled
+    public void onEnabled(@Nonnull final ConfigurationContext context) throws InitializationException {
+        port = context.getProperty(PORT).asInteger();
+        final String sparkConfs = context.getProperty(SPARK_CONFS).evaluateAttributeExpressions().getValue();
+        final long startupTimeout = context.getProperty(STARTUP_TIMEOUT).asTimePeriod(TimeUnit.MILLISECONDS);
+
+        // Passed in the environment so it does not show up in the process list
+        token = new BigInteger(256, new SecureRandom()).toString(Character.MAX_RADIX);
+
+        final SparkLauncher launcher = new SparkLauncher(Collections.singletonMap(SparkJobServer.TOKEN_ENV, token))
+            .setAppResource(context.getProperty(JOB_SERVER_JAR).evaluateAttributeExpressions().getValue().trim())
+            .setMainClass(SparkJobServer.class.getName())
+            .setMaster(context.getProperty(SPARK_MASTER).evaluateAttributeExpressions().getValue().trim())
+            .setSparkHome(context.getProperty(SPARK_HOME).evaluateAttributeExpressions().getValue())
+            .setConf(SparkLauncher.DRIVER_MEMORY, context.getProperty(DRIVER_MEMORY).evaluateAttributeExpressions().getValue())
+            .setAppName("SparkJobServer")
+            .addAppArgs(Integer.toString(port), context.getProperty(MAX_CONCURRENT_JOBS).getValue());
+
+        if (StringUtils.isNotEmpty(sparkConfs)) {
+            for (final String conf : sparkConfs.split("\\|")) {
+                launcher.addSparkArg(ExecuteSparkJob.SPARK_CONFIG_NAME, conf);
+            }
+        }
+
+        try {
+            process = launcher.launch();
+        } catch (final IOException e) {
+            throw new InitializationException("Unable to launch Spark job server", e);
+        }
+
+        new Thread(new InputStreamReaderRunnable(LogLevel.INFO, getLogger(), process.getInputStream()), "spark job server input").start();
+        new Thread(new InputStreamReaderRunnable(LogLevel.INFO, getLogger(), process.getErrorStream()), "spark job server error").start();
+
+        // Wait for the job server to start
+        final long deadline = System.currentTimeMillis() + startupTimeout;
+        while (!isRunning()) {
+            if (!process.isAlive()) {
+                throw new InitializationException("Spark job server exited with code " + process.exitValue());
+            }
+            if (System.currentTimeMillis() > deadline) {
+                onDisabled();
+                throw new InitializationException("Spark job server did not start within " + startupTimeout + " ms");
+            }
+            try {
+                Thread.sleep(1000);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                onDisabled();
+                throw new InitializationException("Interrupted while waiting for Spark job server to start", e);
+            }
+        }
+        getLogger().info("Spark job server is running on port {}", new Object[]{port});
+    }
+
+    /**
+     * Stops the job server, cancelling any running jobs.
+     */
+    @OnDisabled
+    public void onDisabled() {
+        final Process current = process;
+        process = null;
+
+        if (current != null) {
+            current.destroy();
+            try {
+                if (!current.waitFor(30, TimeUnit.SECONDS)) {
+                    current.destroyForcibly();
+                }
+            } catch (final InterruptedException e) {
+                current.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Nonnull
+    @Override
+    public SparkJobResult submit(@Nonnull final SparkJobRequest request) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) newUrl(SparkJobServer.JOBS_PATH).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setRequestProperty(SparkJobServer.TOKEN_HEADER, token);
+        connection.setDoOutput(true);
+        connection.setReadTimeout((int) Math.min(Integer.MAX_VALUE, TimeUnit.SECONDS.toMillis(request.getTimeoutSeconds()) + RESPONSE_GRACE_MILLIS));
+
+        try {
+            try (OutputStream out = connection.getOutputStream()) {
+                objectMapper.writeValue(out, request);
+            }
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Spark job server responded with HTTP status " + connection.getResponseCode());
+            }
+            try (InputStream in = connection.getInputStream()) {
+                return objectMapper.readValue(in, SparkJobResult.class);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Indicates if the job server is accepting requests.
+     *
+     * @return {@code true} if the job server is running
+     */
+    private boolean isRunning() {
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) newUrl(SparkJobServer.STATUS_PATH).openConnection();
+            try {
+                return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a URL for the specified path on the job server.
+     *
+     * @param path the path
+     * @return the URL
+     * @throws IOException if the URL is invalid
+     */
+    @Nonnull
+    private URL newUrl(@Nonnull final String path) throws IOException {
+        return new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), port, path);
+    }
+}
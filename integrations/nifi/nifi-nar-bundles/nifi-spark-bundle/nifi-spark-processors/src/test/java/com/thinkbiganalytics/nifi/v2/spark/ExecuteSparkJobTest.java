@@ -24,6 +24,8 @@ import com.thinkbiganalytics.nifi.core.api.metadata.KyloNiFiFlowProvider;
 import com.thinkbiganalytics.nifi.core.api.metadata.MetadataProvider;
 import com.thinkbiganalytics.nifi.core.api.metadata.MetadataProviderService;
 import com.thinkbiganalytics.nifi.core.api.metadata.MetadataRecorder;
+import com.thinkbiganalytics.spark.jobserver.SparkJobRequest;
+import com.thinkbiganalytics.spark.jobserver.SparkJobResult;
 
 import org.apache.nifi.controller.AbstractControllerService;
 import org.apache.nifi.util.MockProcessContext;
@@ -33,7 +35,9 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -44,6 +48,11 @@ public class ExecuteSparkJobTest {
      */
     private static final String METADATA_SERVICE_IDENTIFIER = "MockMetadataProviderService";
 
+    /**
+     * Identifier for the Spark job server service
+     */
+    private static final String JOB_SERVER_IDENTIFIER = "MockSparkJobServerService";
+
     /**
      * Test runner
      */
@@ -130,6 +139,66 @@ public class ExecuteSparkJobTest {
         Assert.assertTrue(results.contains("'Spark Application Name' is invalid because Spark Application Name is required"));
     }
 
+    /**
+     * Verify running a job in the Spark job server.
+     */
+    @Test
+    public void testJobServer() throws Exception {
+        final MockSparkJobServerService jobServer = new MockSparkJobServerService(new SparkJobResult(0, false, "done"));
+        runner.addControllerService(JOB_SERVER_IDENTIFIER, jobServer);
+        runner.enableControllerService(jobServer);
+        runner.setProperty(ExecuteSparkJob.SPARK_JOB_SERVER, JOB_SERVER_IDENTIFIER);
+        runner.setProperty(ExecuteSparkJob.JOB_GROUP, "category.feed");
+
+        runner.enqueue(new byte[0]);
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(ExecuteSparkJob.REL_SUCCESS, 1);
+        Assert.assertEquals(1, jobServer.requests.size());
+        Assert.assertEquals("category.feed", jobServer.requests.get(0).getGroup());
+        Assert.assertEquals("MyApp", jobServer.requests.get(0).getName());
+        Assert.assertEquals("file:///home/app.jar", jobServer.requests.get(0).getAppJar());
+        Assert.assertEquals("com.example.App", jobServer.requests.get(0).getMainClass());
+        Assert.assertEquals(Collections.singletonList("run"), jobServer.requests.get(0).getArgs());
+        Assert.assertEquals(3600, jobServer.requests.get(0).getTimeoutSeconds());
+    }
+
+    /**
+     * Verify a failed job in the Spark job server is routed to failure.
+     */
+    @Test
+    public void testJobServerWithFailure() throws Exception {
+        final MockSparkJobServerService jobServer = new MockSparkJobServerService(new SparkJobResult(2, false, "failed"));
+        runner.addControllerService(JOB_SERVER_IDENTIFIER, jobServer);
+        runner.enableControllerService(jobServer);
+        runner.setProperty(ExecuteSparkJob.SPARK_JOB_SERVER, JOB_SERVER_IDENTIFIER);
+
+        runner.enqueue(new byte[0]);
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(ExecuteSparkJob.REL_FAILURE, 1);
+        Assert.assertEquals(1, jobServer.requests.size());
+    }
+
+    /**
+     * A mock implementation of {@link SparkJobServerService} for testing.
+     */
+    private static class MockSparkJobServerService extends AbstractControllerService implements SparkJobServerService {
+
+        final List<SparkJobRequest> requests = new ArrayList<>();
+        final SparkJobResult result;
+
+        MockSparkJobServerService(final SparkJobResult result) {
+            this.result = result;
+        }
+
+        @Override
+        public SparkJobResult submit(final SparkJobRequest request) {
+            requests.add(request);
+            return result;
+        }
+    }
+
     /**
      * A mock implementation of {@link MetadataProviderService} for testing.
      */
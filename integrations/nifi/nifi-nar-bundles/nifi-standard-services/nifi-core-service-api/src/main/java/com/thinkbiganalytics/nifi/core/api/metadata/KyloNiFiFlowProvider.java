@@ -35,6 +35,15 @@ public interface KyloNiFiFlowProvider {
      */
     NiFiFlowCacheSync getNiFiFlowUpdates(String syncId);
 
+    /**
+     * Gets the nifi flow data changed after the given change sequence
+     *
+     * @param syncId   the id of the last flow
+     * @param sequence the last change sequence received, or null if unknown
+     * @return a cache of new flow data, or the full cache if the changes since {@code sequence} are no longer available
+     */
+    NiFiFlowCacheSync getNiFiFlowUpdates(String syncId, Long sequence);
+
     /**
      * Resets the cache from the syncId
      *
@@ -55,6 +55,11 @@ public interface MetadataRecorder {
 
     FlowFile releaseAllWaterMarks(ProcessSession session, FlowFile ff, String feedId);
 
+    /**
+     * Sends any committed high-water marks that are still held locally to the metadata store.
+     */
+    void flush();
+
 
     Optional<InitializationStatus> getInitializationStatus(String feedId);
 
@@ -0,0 +1,80 @@
+package com.thinkbiganalytics.nifi.v2.core.feed;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.event.jms.MetadataTopics;
+import com.thinkbiganalytics.metadata.rest.model.event.FeedMetadataChangeEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.annotation.JmsListener;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Gets the JMS consumer for feed change events.
+ */
+public class JmsFeedChangeEventConsumer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JmsFeedChangeEventConsumer.class);
+
+    /**
+     * Listeners to be notified of feed changes
+     */
+    @Nonnull
+    private final Set<Consumer<FeedMetadataChangeEvent>> listeners = new CopyOnWriteArraySet<>();
+
+    /**
+     * adds a listener to be notified on receipt of feed change events
+     *
+     * @param listener the listener to be added
+     */
+    public void addListener(@Nonnull final Consumer<FeedMetadataChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Processes feed change events.
+     *
+     * @param event the feed change event
+     */
+    @JmsListener(destination = MetadataTopics.FEED_CHANGE, containerFactory = "metadataTopicListenerContainerFactory")
+    public void receiveEvent(@Nonnull final FeedMetadataChangeEvent event) {
+        LOG.debug("Received JMS message - topic: {}, message: {}", MetadataTopics.FEED_CHANGE, event);
+
+        for (Consumer<FeedMetadataChangeEvent> listener : listeners) {
+            listener.accept(event);
+        }
+    }
+
+    /**
+     * removes the listener that was previously added with addListener
+     *
+     * @param listener the listener to be removed
+     */
+    public void removeListener(@Nonnull final Consumer<FeedMetadataChangeEvent> listener) {
+        listeners.remove(listener);
+    }
+}
@@ -47,6 +47,11 @@ public class KyloProvenanceClientProvider implements KyloNiFiFlowProvider {
         return client.getFlowUpdates(syncId);
     }
 
+    @Override
+    public NiFiFlowCacheSync getNiFiFlowUpdates(String syncId, Long sequence) {
+        return client.getFlowUpdates(syncId, sequence);
+    }
+
 
     @Override
     public NiFiFlowCacheSync resetNiFiFlowCache(String syncId) {
@@ -20,12 +20,15 @@ package com.thinkbiganalytics.nifi.v2.core.metadata;
  * #L%
  */
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.thinkbiganalytics.metadata.api.op.FeedDependencyDeltaResults;
 import com.thinkbiganalytics.metadata.rest.client.MetadataClient;
 import com.thinkbiganalytics.metadata.rest.model.data.Datasource;
 import com.thinkbiganalytics.metadata.rest.model.data.DatasourceCriteria;
 import com.thinkbiganalytics.metadata.rest.model.data.DirectoryDatasource;
 import com.thinkbiganalytics.metadata.rest.model.data.HiveTableDatasource;
+import com.thinkbiganalytics.metadata.rest.model.event.FeedMetadataChangeEvent;
 import com.thinkbiganalytics.metadata.rest.model.feed.Feed;
 import com.thinkbiganalytics.metadata.rest.model.feed.FeedDestination;
 import com.thinkbiganalytics.metadata.rest.model.op.DataOperation;
@@ -47,14 +50,36 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Nonnull;
 
 
 public class MetadataClientProvider implements MetadataProvider {
 
+    /**
+     * Default maximum number of cached feed ids
+     */
+    public static final long DEFAULT_FEED_ID_CACHE_SIZE = 1000;
+
+    /**
+     * Default time, in milliseconds, that a feed id is cached
+     */
+    public static final long DEFAULT_CACHE_EXPIRATION = TimeUnit.MINUTES.toMillis(10);
+
     private MetadataClient client;
 
+    /**
+     * Map of feed category and name to feed id
+     */
+    private final Cache<String, String> feedIds;
+
+    /**
+     * Number of feed id lookups answered from the cache
+     */
+    private final AtomicLong feedIdCacheHits = new AtomicLong();
+
     /**
      * constructor creates a MetaDataClientProvider with the default URI constant
      */
@@ -81,19 +106,94 @@ public class MetadataClientProvider implements MetadataProvider {
      * @param client the MetadataClient will be used to connect with the Metadata store
      */
     public MetadataClientProvider(MetadataClient client) {
+        this(client, DEFAULT_FEED_ID_CACHE_SIZE, DEFAULT_CACHE_EXPIRATION);
+    }
+
+    /**
+     * constructor creates a MetadataClientProvider that caches up to {@code cacheSize} feed ids for {@code cacheExpiration} milliseconds
+     *
+     * @param client          the MetadataClient will be used to connect with the Metadata store
+     * @param cacheSize       the maximum number of cached feed ids, or 0 to disable caching
+     * @param cacheExpiration the time in milliseconds after which a cached feed id is looked up again
+     */
+    public MetadataClientProvider(MetadataClient client, long cacheSize, long cacheExpiration) {
         super();
         this.client = client;
+        this.feedIds = CacheBuilder.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterWrite(cacheExpiration, TimeUnit.MILLISECONDS)
+            .build();
     }
 
     @Override
     public String getFeedId(String category, String feedName) {
+        String key = feedKey(category, feedName);
+        String feedId = this.feedIds.getIfPresent(key);
+
+        if (feedId != null) {
+            this.feedIdCacheHits.incrementAndGet();
+            return feedId;
+        }
+
         List<Feed> feeds = this.client.getFeeds(this.client.feedCriteria().category(category).name(feedName));
 
+        // Missing feeds are not cached so that a newly created feed is found on the next lookup
         if (feeds.isEmpty()) {
             return null;
         } else {
-            return feeds.get(0).getId();
+            feedId = feeds.get(0).getId();
+            this.feedIds.put(key, feedId);
+            return feedId;
+        }
+    }
+
+    /**
+     * Removes any cached ids for the feed described by the specified change event.
+     *
+     * @param event the feed change event
+     */
+    public void invalidateFeed(@Nonnull FeedMetadataChangeEvent event) {
+        if (event.getFeedId() != null) {
+            invalidateFeed(event.getFeedId());
         }
+        if (event.getCategoryName() != null && event.getFeedName() != null) {
+            invalidateFeed(event.getCategoryName(), event.getFeedName());
+        }
+    }
+
+    /**
+     * Removes the cached id of the specified feed.
+     *
+     * @param category the category system name
+     * @param feedName the feed system name
+     */
+    public void invalidateFeed(String category, String feedName) {
+        this.feedIds.invalidate(feedKey(category, feedName));
+    }
+
+    /**
+     * Removes every cached entry that maps to the specified feed id.
+     *
+     * @param feedId the feed id
+     */
+    public void invalidateFeed(String feedId) {
+        this.feedIds.asMap().values().removeIf(feedId::equals);
+    }
+
+    /**
+     * Removes all cached feed ids.
+     */
+    public void invalidateAll() {
+        this.feedIds.invalidateAll();
+    }
+
+    /**
+     * Gets the number of REST calls avoided by answering feed id lookups from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getRestCallsAvoided() {
+        return this.feedIdCacheHits.get();
     }
 
     @Override
@@ -106,10 +206,15 @@ public class MetadataClientProvider implements MetadataProvider {
      */
     @Override
     public Feed ensureFeed(String categoryName, String feedName, String descr) {
-        return this.client
+        Feed feed = this.client
             .buildFeed(categoryName, feedName)
             .description(descr)
             .post();
+
+        if (feed != null && feed.getId() != null) {
+            this.feedIds.put(feedKey(categoryName, feedName), feed.getId());
+        }
+        return feed;
     }
 
     /* (non-Javadoc)
@@ -241,4 +346,11 @@ public class MetadataClientProvider implements MetadataProvider {
     public Optional<Datasource> getDatasource(@Nonnull final String id) {
         return client.getDatasource(id);
     }
+
+    /**
+     * Gets the cache key for the specified feed.
+     */
+    private String feedKey(String category, String feedName) {
+        return category + "." + feedName;
+    }
 }
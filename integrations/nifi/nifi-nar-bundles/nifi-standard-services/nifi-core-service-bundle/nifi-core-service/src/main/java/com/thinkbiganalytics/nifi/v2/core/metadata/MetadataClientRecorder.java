@@ -41,6 +41,12 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class MetadataClientRecorder implements MetadataRecorder {
 
@@ -54,6 +60,31 @@ public class MetadataClientRecorder implements MetadataRecorder {
     private Set<String> activeWaterMarks = Collections.synchronizedSet(new HashSet<>());
     private Map<String, InitializationStatus> activeInitStatuses = Collections.synchronizedMap(new HashMap<>());
 
+    /**
+     * Committed high-water marks that have not yet been sent to the metadata server, keyed by feed water mark name
+     */
+    private final ConcurrentMap<String, PendingWaterMark> pendingWaterMarks = new ConcurrentHashMap<>();
+
+    /**
+     * Locks that keep the sends of each high-water mark in order, keyed by feed water mark name
+     */
+    private final ConcurrentMap<String, Object> sendLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Number of REST calls avoided by reading pending values or by coalescing commits
+     */
+    private final AtomicLong restCallsAvoided = new AtomicLong();
+
+    /**
+     * Time in milliseconds between flushes of pending high-water marks, or 0 to commit immediately
+     */
+    private final long flushInterval;
+
+    /**
+     * Flushes pending high-water marks, if write-behind is enabled
+     */
+    private ScheduledExecutorService flushExecutor;
+
     /**
      * constructor creates a MetadataClientRecorder with the default URI constant
      */
@@ -76,7 +107,79 @@ public class MetadataClientRecorder implements MetadataRecorder {
      * @param client the MetadataClient will be used to connect with the Metadata store
      */
     public MetadataClientRecorder(MetadataClient client) {
+        this(client, 0);
+    }
+
+    /**
+     * constructor creates a MetadataClientRecorder that, if {@code flushInterval} is positive, sends committed high-water marks to the
+     * metadata server in the background instead of on each commit. Loads read a pending value before it is sent; all other values are
+     * read from the metadata server.
+     *
+     * @param client        the MetadataClient will be used to connect with the Metadata store
+     * @param flushInterval the time in milliseconds between flushes of committed high-water marks, or 0 to commit immediately
+     */
+    public MetadataClientRecorder(MetadataClient client, long flushInterval) {
         this.client = client;
+        this.flushInterval = flushInterval;
+
+        if (flushInterval > 0) {
+            this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "MetadataClientRecorder-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.flushExecutor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see com.thinkbiganalytics.nifi.core.api.metadata.MetadataRecorder#flush()
+     */
+    @Override
+    public synchronized void flush() {
+        int flushed = 0;
+
+        for (String feedWaterMarkName : this.pendingWaterMarks.keySet()) {
+            synchronized (sendLock(feedWaterMarkName)) {
+                // An immediate send may have replaced the pending value before the lock was acquired
+                PendingWaterMark pending = this.pendingWaterMarks.get(feedWaterMarkName);
+                if (pending == null) {
+                    continue;
+                }
+
+                try {
+                    this.client.updateHighWaterMarkValue(pending.feedId, pending.waterMarkName, pending.value);
+                    // A newer commit may have replaced this value while it was being sent; it will go with the next flush
+                    this.pendingWaterMarks.remove(feedWaterMarkName, pending);
+                    flushed++;
+                } catch (Exception e) {
+                    log.warn("Failed to update high-water mark \"{}\" of feed {}; will retry on the next flush", pending.waterMarkName, pending.feedId, e);
+                }
+            }
+        }
+
+        if (flushed > 0) {
+            log.debug("Flushed {} high-water marks; {} REST calls avoided so far", flushed, this.restCallsAvoided.get());
+        }
+    }
+
+    /**
+     * Stops the background flush and sends any pending high-water marks to the metadata server.
+     */
+    public void shutdown() {
+        if (this.flushExecutor != null) {
+            this.flushExecutor.shutdown();
+        }
+        flush();
+    }
+
+    /**
+     * Gets the number of REST calls avoided by reading pending high-water marks or by coalescing commits before a flush.
+     *
+     * @return the number of calls avoided
+     */
+    public long getRestCallsAvoided() {
+        return this.restCallsAvoided.get();
     }
 
 
@@ -298,15 +401,54 @@ public class MetadataClientRecorder implements MetadataRecorder {
     }
 
     private Optional<String> getHighWaterMarkValue(String feedId, String waterMarkName) {
-        return this.client.getHighWaterMarkValue(feedId, waterMarkName);
+        String feedWaterMarkName = asFeedWaterMarkName(feedId, waterMarkName);
+        PendingWaterMark pending = this.pendingWaterMarks.get(feedWaterMarkName);
+
+        if (pending != null) {
+            this.restCallsAvoided.incrementAndGet();
+            return Optional.of(pending.value);
+        } else {
+            return this.client.getHighWaterMarkValue(feedId, waterMarkName);
+        }
     }
 
     private void updateHighWaterMarkValue(String feedId, String waterMarkName, String value) {
-        this.client.updateHighWaterMarkValue(feedId, waterMarkName, value);
+        String feedWaterMarkName = asFeedWaterMarkName(feedId, waterMarkName);
+
+        if (value != null && this.flushInterval > 0) {
+            if (this.pendingWaterMarks.put(feedWaterMarkName, new PendingWaterMark(feedId, waterMarkName, value)) != null) {
+                this.restCallsAvoided.incrementAndGet();
+            }
+        } else {
+            // A null value cannot be held; send it in place of any pending value, after any flush of that value completes
+            synchronized (sendLock(feedWaterMarkName)) {
+                this.pendingWaterMarks.remove(feedWaterMarkName);
+                this.client.updateHighWaterMarkValue(feedId, waterMarkName, value);
+            }
+        }
+    }
+
+    private Object sendLock(String feedWaterMarkName) {
+        return this.sendLocks.computeIfAbsent(feedWaterMarkName, key -> new Object());
     }
 
     private String initValueParameterName(String parameterName) {
         return parameterName + ".original";
     }
 
+    /**
+     * A committed high-water mark value waiting to be sent to the metadata server.
+     */
+    private static class PendingWaterMark {
+
+        private final String feedId;
+        private final String waterMarkName;
+        private final String value;
+
+        PendingWaterMark(String feedId, String waterMarkName, String value) {
+            this.feedId = feedId;
+            this.waterMarkName = waterMarkName;
+            this.value = value;
+        }
+    }
 }
@@ -21,14 +21,18 @@ package com.thinkbiganalytics.nifi.v2.core.metadata;
  */
 
 import com.thinkbiganalytics.metadata.rest.client.MetadataClient;
+import com.thinkbiganalytics.metadata.rest.model.event.FeedMetadataChangeEvent;
 import com.thinkbiganalytics.nifi.core.api.metadata.KyloNiFiFlowProvider;
 import com.thinkbiganalytics.nifi.core.api.metadata.MetadataProvider;
 import com.thinkbiganalytics.nifi.core.api.metadata.MetadataProviderService;
 import com.thinkbiganalytics.nifi.core.api.metadata.MetadataRecorder;
+import com.thinkbiganalytics.nifi.core.api.spring.SpringContextService;
+import com.thinkbiganalytics.nifi.v2.core.feed.JmsFeedChangeEventConsumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
 import org.apache.http.ssl.SSLContextBuilder;
+import org.apache.nifi.annotation.lifecycle.OnDisabled;
 import org.apache.nifi.annotation.lifecycle.OnEnabled;
 import org.apache.nifi.components.AllowableValue;
 import org.apache.nifi.components.PropertyDescriptor;
@@ -53,6 +57,8 @@ import java.security.cert.CertificateException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import javax.net.ssl.SSLContext;
 
@@ -92,6 +98,38 @@ public class MetadataProviderSelectorService extends AbstractControllerService i
         .required(false)
         .identifiesControllerService(SSLContextService.class)
         .build();
+    public static final PropertyDescriptor FEED_ID_CACHE_SIZE = new PropertyDescriptor.Builder()
+        .name("feed-id-cache-size")
+        .displayName("Feed ID Cache Size")
+        .description("The maximum number of feed ids to cache when looking up feeds by category and name, or 0 to disable the cache.")
+        .defaultValue("1000")
+        .addValidator(StandardValidators.NON_NEGATIVE_INTEGER_VALIDATOR)
+        .required(true)
+        .build();
+    public static final PropertyDescriptor CACHE_EXPIRATION = new PropertyDescriptor.Builder()
+        .name("cache-expiration")
+        .displayName("Cache Expiration")
+        .description("How long a cached feed id is used before it is read again from the metadata server.")
+        .defaultValue("10 min")
+        .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+        .required(true)
+        .build();
+    public static final PropertyDescriptor WATER_MARK_FLUSH_INTERVAL = new PropertyDescriptor.Builder()
+        .name("water-mark-flush-interval")
+        .displayName("High-Water Mark Flush Interval")
+        .description("How often committed high-water marks are sent to the metadata server. Repeated commits of the same high-water mark within "
+                     + "this interval are sent once. Pending values are also sent when a Release High-Water Mark processor stops or this service "
+                     + "is disabled. Set to 0 sec to send each commit immediately.")
+        .defaultValue("0 sec")
+        .addValidator(StandardValidators.TIME_PERIOD_VALIDATOR)
+        .required(true)
+        .build();
+    public static final PropertyDescriptor SPRING_SERVICE = new PropertyDescriptor.Builder()
+        .name("Spring Context Service")
+        .description("Optional service for loading a Spring context. If set, cached feed ids are invalidated when feeds change.")
+        .identifiesControllerService(SpringContextService.class)
+        .required(false)
+        .build();
     private static final AllowableValue[] ALLOWABLE_IMPLEMENATIONS = {
         new AllowableValue("LOCAL", "Local, In-memory storage", "An implemenation that stores metadata locally in memory (for development-only)"),
         new AllowableValue("REMOTE", "REST API", "An implementation that accesses metadata via the metadata service REST API")
@@ -113,6 +151,10 @@ public class MetadataProviderSelectorService extends AbstractControllerService i
         props.add(CLIENT_USERNAME);
         props.add(CLIENT_PASSWORD);
         props.add(SSL_CONTEXT_SERVICE);
+        props.add(FEED_ID_CACHE_SIZE);
+        props.add(CACHE_EXPIRATION);
+        props.add(WATER_MARK_FLUSH_INTERVAL);
+        props.add(SPRING_SERVICE);
         properties = Collections.unmodifiableList(props);
     }
 
@@ -121,6 +163,16 @@ public class MetadataProviderSelectorService extends AbstractControllerService i
     private volatile MetadataRecorder recorder;
     private volatile KyloProvenanceClientProvider kyloProvenanceClientProvider;
 
+    /**
+     * Consumer of feed change events, if a Spring context service is configured
+     */
+    private volatile JmsFeedChangeEventConsumer feedChangeEventConsumer;
+
+    /**
+     * Invalidates cached metadata when a feed changes
+     */
+    private volatile Consumer<FeedMetadataChangeEvent> feedChangeListener;
+
     /**
      * The Service holding the SSL Context information
      */
@@ -153,15 +205,51 @@ public class MetadataProviderSelectorService extends AbstractControllerService i
                 client = new MetadataClient(uri, user, password, sslContext);
             }
 
-            this.provider = new MetadataClientProvider(client);
-            this.recorder = new MetadataClientRecorder(client);
+            long cacheSize = context.getProperty(FEED_ID_CACHE_SIZE).asLong();
+            long cacheExpiration = context.getProperty(CACHE_EXPIRATION).asTimePeriod(TimeUnit.MILLISECONDS);
+            long flushInterval = context.getProperty(WATER_MARK_FLUSH_INTERVAL).asTimePeriod(TimeUnit.MILLISECONDS);
+            MetadataClientProvider clientProvider = new MetadataClientProvider(client, cacheSize, cacheExpiration);
+            MetadataClientRecorder clientRecorder = new MetadataClientRecorder(client, flushInterval);
+
+            this.provider = clientProvider;
+            this.recorder = clientRecorder;
             this.kyloProvenanceClientProvider = new KyloProvenanceClientProvider(client);
+
+            if (context.getProperty(SPRING_SERVICE).isSet()) {
+                SpringContextService springService = context.getProperty(SPRING_SERVICE).asControllerService(SpringContextService.class);
+                this.feedChangeListener = event -> {
+                    getLogger().debug("Invalidating cached metadata for {}", new Object[]{event});
+                    clientProvider.invalidateFeed(event);
+                };
+                this.feedChangeEventConsumer = springService.getBean(JmsFeedChangeEventConsumer.class);
+                this.feedChangeEventConsumer.addListener(this.feedChangeListener);
+            }
         } else {
             throw new UnsupportedOperationException("Provider implementations not currently supported: " + impl.getValue());
         }
     }
 
 
+    /**
+     * Stops listening for feed changes and sends any pending high-water marks to the metadata server.
+     */
+    @OnDisabled
+    public void onDisabled() {
+        if (this.feedChangeEventConsumer != null) {
+            this.feedChangeEventConsumer.removeListener(this.feedChangeListener);
+            this.feedChangeEventConsumer = null;
+            this.feedChangeListener = null;
+        }
+        if (this.recorder instanceof MetadataClientRecorder) {
+            MetadataClientRecorder clientRecorder = (MetadataClientRecorder) this.recorder;
+            clientRecorder.shutdown();
+            getLogger().info("High-water mark cache avoided {} REST calls", new Object[]{clientRecorder.getRestCallsAvoided()});
+        }
+        if (this.provider instanceof MetadataClientProvider) {
+            getLogger().info("Feed id cache avoided {} REST calls", new Object[]{((MetadataClientProvider) this.provider).getRestCallsAvoided()});
+        }
+    }
+
     @Override
     public MetadataProvider getProvider() {
         return this.provider;
@@ -0,0 +1,103 @@
+package com.thinkbiganalytics.nifi.v2.core.metadata;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.rest.client.MetadataClient;
+import com.thinkbiganalytics.metadata.rest.model.event.FeedMetadataChangeEvent;
+import com.thinkbiganalytics.metadata.rest.model.feed.Feed;
+import com.thinkbiganalytics.metadata.rest.model.feed.FeedCriteria;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+
+public class MetadataClientProviderCacheTest {
+
+    private MetadataClient client;
+
+    @Before
+    public void setUp() {
+        client = Mockito.mock(MetadataClient.class, Mockito.RETURNS_DEEP_STUBS);
+
+        final Feed feed = new Feed();
+        feed.setId("FEEDID");
+        Mockito.when(client.getFeeds(Mockito.any(FeedCriteria.class))).thenReturn(Collections.singletonList(feed));
+    }
+
+    /**
+     * Verify that feed ids are looked up once and then served from the cache.
+     */
+    @Test
+    public void testGetFeedIdCached() {
+        final MetadataClientProvider provider = new MetadataClientProvider(client, 10, 60000);
+
+        Assert.assertEquals("FEEDID", provider.getFeedId("cat", "feed"));
+        Assert.assertEquals("FEEDID", provider.getFeedId("cat", "feed"));
+        Assert.assertEquals("FEEDID", provider.getFeedId("cat", "feed"));
+
+        Mockito.verify(client, Mockito.times(1)).getFeeds(Mockito.any(FeedCriteria.class));
+        Assert.assertEquals(2, provider.getRestCallsAvoided());
+    }
+
+    /**
+     * Verify that missing feeds are not cached.
+     */
+    @Test
+    public void testGetFeedIdMissing() {
+        Mockito.when(client.getFeeds(Mockito.any(FeedCriteria.class))).thenReturn(Collections.emptyList());
+        final MetadataClientProvider provider = new MetadataClientProvider(client, 10, 60000);
+
+        Assert.assertNull(provider.getFeedId("cat", "feed"));
+        Assert.assertNull(provider.getFeedId("cat", "feed"));
+
+        Mockito.verify(client, Mockito.times(2)).getFeeds(Mockito.any(FeedCriteria.class));
+        Assert.assertEquals(0, provider.getRestCallsAvoided());
+    }
+
+    /**
+     * Verify that a feed change event removes the cached id, even if the event only has the feed id.
+     */
+    @Test
+    public void testInvalidateFeed() {
+        final MetadataClientProvider provider = new MetadataClientProvider(client, 10, 60000);
+        provider.getFeedId("cat", "feed");
+
+        provider.invalidateFeed(new FeedMetadataChangeEvent("FEEDID", "DELETE"));
+        provider.getFeedId("cat", "feed");
+
+        Mockito.verify(client, Mockito.times(2)).getFeeds(Mockito.any(FeedCriteria.class));
+    }
+
+    /**
+     * Verify that a cache size of 0 disables the cache.
+     */
+    @Test
+    public void testCacheDisabled() {
+        final MetadataClientProvider provider = new MetadataClientProvider(client, 0, 60000);
+        provider.getFeedId("cat", "feed");
+        provider.getFeedId("cat", "feed");
+
+        Mockito.verify(client, Mockito.times(2)).getFeeds(Mockito.any(FeedCriteria.class));
+    }
+}
@@ -0,0 +1,148 @@
+package com.thinkbiganalytics.nifi.v2.core.metadata;
+
+/*-
+ * #%L
+ * thinkbig-nifi-core-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.rest.client.MetadataClient;
+
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.processor.AbstractProcessor;
+import org.apache.nifi.processor.ProcessContext;
+import org.apache.nifi.processor.ProcessSession;
+import org.apache.nifi.util.TestRunners;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Optional;
+
+public class MetadataClientRecorderTest {
+
+    private MetadataClient client;
+
+    private ProcessSession session;
+
+    @Before
+    public void setUp() {
+        client = Mockito.mock(MetadataClient.class);
+        Mockito.when(client.getHighWaterMarkValue("FEEDID", "wm")).thenReturn(Optional.of("1"));
+
+        session = TestRunners.newTestRunner(TestProcessor.class).getProcessSessionFactory().createSession();
+    }
+
+    /**
+     * Verify that commits are held until flushed, and that only the latest value is sent.
+     */
+    @Test
+    public void testWriteBehind() throws Exception {
+        final MetadataClientRecorder recorder = new MetadataClientRecorder(client, 60000);
+
+        Assert.assertEquals("1", cycle(recorder, "2"));
+        Assert.assertEquals("2", cycle(recorder, "3"));
+        Mockito.verify(client, Mockito.times(1)).getHighWaterMarkValue("FEEDID", "wm");
+        Mockito.verify(client, Mockito.never()).updateHighWaterMarkValue(Mockito.anyString(), Mockito.anyString(), Mockito.anyString());
+
+        recorder.flush();
+        Mockito.verify(client).updateHighWaterMarkValue("FEEDID", "wm", "3");
+        Assert.assertEquals(2, recorder.getRestCallsAvoided());
+
+        // Nothing left to send
+        recorder.shutdown();
+        Mockito.verify(client, Mockito.times(1)).updateHighWaterMarkValue(Mockito.anyString(), Mockito.anyString(), Mockito.anyString());
+    }
+
+    /**
+     * Verify that a failed flush is retried.
+     */
+    @Test
+    public void testFlushRetry() throws Exception {
+        final MetadataClientRecorder recorder = new MetadataClientRecorder(client, 60000);
+        Mockito.doThrow(new IllegalStateException("unavailable")).doNothing().when(client).updateHighWaterMarkValue("FEEDID", "wm", "2");
+
+        cycle(recorder, "2");
+        recorder.flush();
+        recorder.flush();
+
+        Mockito.verify(client, Mockito.times(2)).updateHighWaterMarkValue("FEEDID", "wm", "2");
+    }
+
+    /**
+     * Verify that commits are sent immediately when write-behind is disabled.
+     */
+    @Test
+    public void testImmediateCommit() throws Exception {
+        final MetadataClientRecorder recorder = new MetadataClientRecorder(client, 0);
+
+        cycle(recorder, "2");
+        Mockito.verify(client).updateHighWaterMarkValue("FEEDID", "wm", "2");
+    }
+
+    /**
+     * Verify that values are read from the metadata server when nothing is pending.
+     */
+    @Test
+    public void testReadNotCached() throws Exception {
+        final MetadataClientRecorder recorder = new MetadataClientRecorder(client, 0);
+
+        cycle(recorder, "2");
+        Assert.assertEquals("1", cycle(recorder, "3"));
+
+        Mockito.verify(client, Mockito.times(2)).getHighWaterMarkValue("FEEDID", "wm");
+    }
+
+    /**
+     * Verify that a null value is sent immediately and replaces the pending value.
+     */
+    @Test
+    public void testNullReplacesPending() throws Exception {
+        final MetadataClientRecorder recorder = new MetadataClientRecorder(client, 60000);
+
+        cycle(recorder, "2");
+        FlowFile ff = recorder.loadWaterMark(session, session.create(), "FEEDID", "wm", "water.mark", "0");
+        ff = session.removeAttribute(ff, "water.mark");
+        recorder.commitWaterMark(session, ff, "FEEDID", "wm");
+        Mockito.verify(client).updateHighWaterMarkValue("FEEDID", "wm", null);
+
+        recorder.flush();
+        Mockito.verify(client, Mockito.never()).updateHighWaterMarkValue("FEEDID", "wm", "2");
+    }
+
+    /**
+     * Loads the high-water mark, updates it to the specified value, and commits it.
+     *
+     * @return the loaded value
+     */
+    private String cycle(MetadataClientRecorder recorder, String newValue) throws Exception {
+        FlowFile ff = recorder.loadWaterMark(session, session.create(), "FEEDID", "wm", "water.mark", "0");
+        String loaded = ff.getAttribute("water.mark");
+
+        ff = recorder.recordWaterMark(session, ff, "FEEDID", "wm", "water.mark", newValue);
+        recorder.commitWaterMark(session, ff, "FEEDID", "wm");
+        return loaded;
+    }
+
+    public static class TestProcessor extends AbstractProcessor {
+
+        @Override
+        public void onTrigger(ProcessContext context, ProcessSession session) {
+        }
+    }
+}
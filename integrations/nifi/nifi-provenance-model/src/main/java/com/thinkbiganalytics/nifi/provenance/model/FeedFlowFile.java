@@ -186,6 +186,89 @@ public class FeedFlowFile implements Serializable {
     }
 
 
+    /**
+     * The methods below expose the internal tracking state so it can be persisted and restored by a custom serializer.
+     */
+    public void setFirstEventId(Long firstEventId) {
+        this.firstEventId = firstEventId;
+    }
+
+    public void setFirstEventStartTime(Long firstEventStartTime) {
+        this.firstEventStartTime = firstEventStartTime;
+    }
+
+    public void setFirstEventProcessorId(String firstEventProcessorId) {
+        this.firstEventProcessorId = firstEventProcessorId;
+    }
+
+    public void setLastEventId(Long lastEventId) {
+        this.lastEventId = lastEventId;
+    }
+
+    public void setLastEventProcessorId(String lastEventProcessorId) {
+        this.lastEventProcessorId = lastEventProcessorId;
+    }
+
+    public void setLastEventTime(Long lastEventTime) {
+        this.lastEventTime = lastEventTime;
+    }
+
+    public void setActiveChildFlowFiles(Set<String> activeChildFlowFiles) {
+        this.activeChildFlowFiles = activeChildFlowFiles;
+    }
+
+    public void setChildFlowFiles(Set<String> childFlowFiles) {
+        this.childFlowFiles = childFlowFiles;
+    }
+
+    public int getFailedEventCount() {
+        return failedEvents.get();
+    }
+
+    public void setFailedEventCount(int failedEventCount) {
+        this.failedEvents.set(failedEventCount);
+    }
+
+    public Set<String> getFlowfilesStarted() {
+        return flowfilesStarted;
+    }
+
+    public void setFlowfilesStarted(Set<String> flowfilesStarted) {
+        this.flowfilesStarted = flowfilesStarted;
+    }
+
+    public boolean isCurrentFlowFileComplete() {
+        return isCurrentFlowFileComplete;
+    }
+
+    public void setCurrentFlowFileComplete(boolean currentFlowFileComplete) {
+        isCurrentFlowFileComplete = currentFlowFileComplete;
+    }
+
+    public Map<String, Long> getFlowFileLastEventTime() {
+        return flowFileLastEventTime;
+    }
+
+    public void setFlowFileLastEventTime(Map<String, Long> flowFileLastEventTime) {
+        this.flowFileLastEventTime = flowFileLastEventTime;
+    }
+
+    public Map<String, Long> getChildFlowFileStartTimes() {
+        return childFlowFileStartTimes;
+    }
+
+    public void setChildFlowFileStartTimes(Map<String, Long> childFlowFileStartTimes) {
+        this.childFlowFileStartTimes = childFlowFileStartTimes;
+    }
+
+    public Map<String, String> getFlowFileIdToParentFlowFileId() {
+        return flowFileIdToParentFlowFileId;
+    }
+
+    public void setFlowFileIdToParentFlowFileId(Map<String, String> flowFileIdToParentFlowFileId) {
+        this.flowFileIdToParentFlowFileId = flowFileIdToParentFlowFileId;
+    }
+
     /**
      * flag to determine if this was build from the persistent cache
      */
@@ -61,7 +61,11 @@ public class DefaultNiFiFlowVisitorClient implements NiFiFlowVisitorClient {
 
 
     public NifiVisitableProcessGroup getFlowOrder(String processGroupId, NifiConnectionOrderVisitorCache cache) throws NifiComponentNotFoundException {
-        ProcessGroupDTO processGroupEntity = restClient.processGroups().findById(processGroupId, true, true).orElse(null);
+        //reuse a group already fetched with its contents, such as one shared by several feeds, before going back to NiFi
+        ProcessGroupDTO processGroupEntity = Optional.ofNullable(cache)
+            .flatMap(c -> c.getProcessGroup(processGroupId))
+            .filter(processGroup -> processGroup.getContents() != null)
+            .orElseGet(() -> restClient.processGroups().findById(processGroupId, true, true).orElse(null));
         return getFlowOrder(processGroupEntity, cache);
     }
 
@@ -156,6 +160,8 @@ public class DefaultNiFiFlowVisitorClient implements NiFiFlowVisitorClient {
         List<NifiFlowProcessGroup> feedFlows = new ArrayList<>();
         ProcessGroupDTO processGroupEntity = restClient.processGroups().findRoot();
         ProcessGroupDTO root = processGroupEntity;
+        //the root was fetched recursively so every group is already available; cache them so each group is only walked from this copy
+        NifiProcessUtil.getProcessGroups(root).forEach(cache::add);
         //first level is the category
         root.getContents().getProcessGroups().stream().sorted(new Comparator<ProcessGroupDTO>() {
             @Override
@@ -29,6 +29,11 @@ public class NifiRestClientConfig extends JerseyClientConfig {
     private String apiPath = "/nifi-api/";
     private String clusterType = "NODE";
 
+    /**
+     * Maximum number of process group flows requested concurrently when fetching a process group recursively
+     */
+    private int flowFetchConcurrency = 10;
+
     public NifiRestClientConfig(String apiPath) {
         this.apiPath = apiPath;
     }
@@ -63,4 +68,12 @@ public class NifiRestClientConfig extends JerseyClientConfig {
     public void setClusterType(String clusterType) {
         this.clusterType = clusterType;
     }
+
+    public int getFlowFetchConcurrency() {
+        return flowFetchConcurrency;
+    }
+
+    public void setFlowFetchConcurrency(int flowFetchConcurrency) {
+        this.flowFetchConcurrency = flowFetchConcurrency;
+    }
 }
@@ -20,8 +20,10 @@ package com.thinkbiganalytics.nifi.v1.rest.client;
  * #L%
  */
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.thinkbiganalytics.nifi.rest.client.AbstractNiFiProcessGroupsRestClient;
+import com.thinkbiganalytics.nifi.rest.client.NifiClientRuntimeException;
 import com.thinkbiganalytics.nifi.rest.client.NiFiComponentState;
 import com.thinkbiganalytics.nifi.rest.client.NiFiProcessGroupsRestClient;
 import com.thinkbiganalytics.nifi.rest.client.NifiComponentNotFoundException;
@@ -54,9 +56,15 @@ import org.apache.nifi.web.api.entity.ProcessorEntity;
 import org.apache.nifi.web.api.entity.RemoteProcessGroupEntity;
 import org.apache.nifi.web.api.entity.ScheduleComponentsEntity;
 
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
@@ -73,6 +81,11 @@ public class NiFiProcessGroupsRestClientV1 extends AbstractNiFiProcessGroupsRest
      */
     private static final String BASE_PATH = "/process-groups/";
 
+    /**
+     * Base path for process group flow requests
+     */
+    private static final String FLOW_PATH = "/flow/process-groups/";
+
     /**
      * REST client for communicating with NiFi
      */
@@ -374,17 +387,71 @@ public class NiFiProcessGroupsRestClientV1 extends AbstractNiFiProcessGroupsRest
         // Fetch the flow
         final FlowSnippetDTO snippet;
         try {
-            snippet = toFlowSnippet(client.get("/flow/process-groups/" + processGroupId, null, ProcessGroupFlowEntity.class).getProcessGroupFlow().getFlow(),recursive);
+            snippet = toFlowSnippet(client.get(FLOW_PATH + processGroupId, null, ProcessGroupFlowEntity.class).getProcessGroupFlow().getFlow());
         } catch (final NotFoundException e) {
             throw new NifiComponentNotFoundException(processGroupId, NifiConstants.NIFI_COMPONENT_TYPE.PROCESS_GROUP, e);
         }
 
-
+        // Add flow for child process groups
+        if (recursive) {
+            fetchChildFlows(snippet);
+        }
 
         // Return flow
         return snippet;
     }
 
+    /**
+     * Sets the contents of every process group below the specified snippet. The groups are walked breadth-first with at most
+     * {@link NiFiRestClientV1#getFlowFetchConcurrency()} requests in flight at a time.
+     *
+     * @param snippet the flow snippet of the top-level process group
+     */
+    private void fetchChildFlows(@Nonnull final FlowSnippetDTO snippet) {
+        final Deque<ProcessGroupDTO> pending = new ArrayDeque<>(snippet.getProcessGroups());
+        final Deque<Map.Entry<ProcessGroupDTO, Future<ProcessGroupFlowEntity>>> inFlight = new ArrayDeque<>();
+        final int concurrency = client.getFlowFetchConcurrency();
+
+        try {
+            while (!pending.isEmpty() || !inFlight.isEmpty()) {
+                while (!pending.isEmpty() && inFlight.size() < concurrency) {
+                    final ProcessGroupDTO processGroup = pending.poll();
+                    inFlight.add(new AbstractMap.SimpleImmutableEntry<>(processGroup, client.getAsync(FLOW_PATH + processGroup.getId(), null, ProcessGroupFlowEntity.class)));
+                }
+
+                final Map.Entry<ProcessGroupDTO, Future<ProcessGroupFlowEntity>> next = inFlight.poll();
+                final FlowSnippetDTO contents = toFlowSnippet(awaitFlow(next.getKey().getId(), next.getValue()));
+                next.getKey().setContents(contents);
+                pending.addAll(contents.getProcessGroups());
+            }
+        } finally {
+            inFlight.forEach(entry -> entry.getValue().cancel(true));
+        }
+    }
+
+    /**
+     * Waits for the flow of a process group to be returned by NiFi.
+     *
+     * @param processGroupId the process group id
+     * @param future         the pending request
+     * @return the flow
+     * @throws NifiComponentNotFoundException if the process group does not exist
+     */
+    @Nonnull
+    private FlowDTO awaitFlow(@Nonnull final String processGroupId, @Nonnull final Future<ProcessGroupFlowEntity> future) {
+        try {
+            return future.get().getProcessGroupFlow().getFlow();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NifiClientRuntimeException("Interrupted while fetching process group: " + processGroupId, e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof NotFoundException) {
+                throw new NifiComponentNotFoundException(processGroupId, NifiConstants.NIFI_COMPONENT_TYPE.PROCESS_GROUP, e.getCause());
+            }
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
     private Set<ProcessGroupEntity> findAllEntities(@Nonnull final String parentGroupId) {
         try {
             return client.get(BASE_PATH + parentGroupId + "/process-groups", null, ProcessGroupsEntity.class)
@@ -401,7 +468,7 @@ public class NiFiProcessGroupsRestClientV1 extends AbstractNiFiProcessGroupsRest
      * @return the flow snippet
      */
     @Nonnull
-    private FlowSnippetDTO toFlowSnippet(@Nonnull final FlowDTO flow, boolean recursive) {
+    private FlowSnippetDTO toFlowSnippet(@Nonnull final FlowDTO flow) {
         final FlowSnippetDTO snippet = new FlowSnippetDTO();
         snippet.setConnections(flow.getConnections().stream().map(ConnectionEntity::getComponent).collect(Collectors.toSet()));
         snippet.setControllerServices(Collections.emptySet());
@@ -412,15 +479,6 @@ public class NiFiProcessGroupsRestClientV1 extends AbstractNiFiProcessGroupsRest
         snippet.setProcessGroups(flow.getProcessGroups().stream().map(ProcessGroupEntity::getComponent).collect(Collectors.toSet()));
         snippet.setProcessors(flow.getProcessors().stream().map(ProcessorEntity::getComponent).collect(Collectors.toSet()));
         snippet.setRemoteProcessGroups(flow.getRemoteProcessGroups().stream().map(RemoteProcessGroupEntity::getComponent).collect(Collectors.toSet()));
-
-        // Add flow for child process groups
-        if (recursive) {
-            for (final ProcessGroupDTO processGroup : snippet.getProcessGroups()) {
-                processGroup.setContents(getFlowSnippet(processGroup.getId(), true));
-            }
-        }
-
-
         return snippet;
     }
 }
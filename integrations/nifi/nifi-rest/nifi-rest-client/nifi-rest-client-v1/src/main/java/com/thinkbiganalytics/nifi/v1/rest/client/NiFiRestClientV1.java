@@ -105,6 +105,11 @@ public class NiFiRestClientV1 extends JerseyRestClient implements NiFiRestClient
     @Nullable
     private NiFiReportingTaskRestClientV1 reportingTasks;
 
+    /**
+     * Maximum number of process group flows requested concurrently
+     */
+    private final int flowFetchConcurrency;
+
     /**
      * Constructs a {@code NiFiRestClientV1} with the specified NiFi REST client configuration.
      *
@@ -112,6 +117,7 @@ public class NiFiRestClientV1 extends JerseyRestClient implements NiFiRestClient
      */
     public NiFiRestClientV1(@Nonnull final NifiRestClientConfig config) {
         super(config);
+        flowFetchConcurrency = Math.max(1, config.getFlowFetchConcurrency());
     }
 
     @Nonnull
@@ -232,6 +238,15 @@ public class NiFiRestClientV1 extends JerseyRestClient implements NiFiRestClient
     }
 
 
+    /**
+     * Gets the maximum number of process group flows to request concurrently when fetching a process group recursively.
+     *
+     * @return the concurrency, at least 1
+     */
+    public int getFlowFetchConcurrency() {
+        return flowFetchConcurrency;
+    }
+
     @Override
     protected WebTarget getBaseTarget() {
         return super.getBaseTarget().path("/nifi-api");
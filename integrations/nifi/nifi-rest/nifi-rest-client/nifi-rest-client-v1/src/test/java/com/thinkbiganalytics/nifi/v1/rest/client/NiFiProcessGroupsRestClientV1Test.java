@@ -0,0 +1,229 @@
+package com.thinkbiganalytics.nifi.v1.rest.client;
+
+/*-
+ * #%L
+ * thinkbig-nifi-rest-client-v1
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.thinkbiganalytics.nifi.feedmgr.TemplateCreationHelper;
+import com.thinkbiganalytics.nifi.rest.client.DefaultNiFiFlowVisitorClient;
+import com.thinkbiganalytics.nifi.rest.client.NifiRestClientConfig;
+import com.thinkbiganalytics.nifi.rest.model.flow.NifiFlowProcessGroup;
+import com.thinkbiganalytics.nifi.rest.support.NifiProcessUtil;
+
+import org.apache.nifi.web.api.dto.ProcessGroupDTO;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Walks a stubbed NiFi REST API with about 5,000 process groups.
+ */
+public class NiFiProcessGroupsRestClientV1Test {
+
+    /**
+     * Number of category process groups under the root, including the reusable templates group
+     */
+    private static final int CATEGORIES = 50;
+
+    /**
+     * Number of feed process groups in each category
+     */
+    private static final int FEEDS_PER_CATEGORY = 99;
+
+    /**
+     * Maximum number of flow requests the client may have in flight
+     */
+    private static final int CONCURRENCY = 8;
+
+    /**
+     * Child process group ids by parent id
+     */
+    private final Map<String, List<String>> children = new HashMap<>();
+
+    /**
+     * Process group names by id
+     */
+    private final Map<String, String> names = new HashMap<>();
+
+    /**
+     * Parent process group ids by id
+     */
+    private final Map<String, String> parents = new HashMap<>();
+
+    /**
+     * Number of flow requests received for each process group
+     */
+    private final Map<String, AtomicInteger> flowRequests = new ConcurrentHashMap<>();
+
+    private final AtomicInteger activeRequests = new AtomicInteger();
+
+    private final AtomicInteger maxActiveRequests = new AtomicInteger();
+
+    private ExecutorService serverExecutor;
+
+    private HttpServer server;
+
+    private NiFiRestClientV1 client;
+
+    @Before
+    public void setUp() throws IOException {
+        names.put("root", "NiFi Flow");
+        for (int c = 0; c < CATEGORIES; c++) {
+            final String categoryId = "category-" + c;
+            addGroup("root", categoryId, c == 0 ? TemplateCreationHelper.REUSABLE_TEMPLATES_PROCESS_GROUP_NAME : "category_" + c);
+            for (int f = 0; f < FEEDS_PER_CATEGORY; f++) {
+                addGroup(categoryId, categoryId + "-feed-" + f, "feed_" + f);
+            }
+        }
+
+        serverExecutor = Executors.newFixedThreadPool(CONCURRENCY * 4);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/nifi-api/process-groups/", exchange -> {
+            final String id = exchange.getRequestURI().getPath().substring("/nifi-api/process-groups/".length());
+            respond(exchange, "{\"id\":\"" + id + "\",\"component\":" + processGroupJson(id) + "}");
+        });
+        server.createContext("/nifi-api/flow/process-groups/", exchange -> {
+            final String id = exchange.getRequestURI().getPath().substring("/nifi-api/flow/process-groups/".length());
+            final int active = activeRequests.incrementAndGet();
+            maxActiveRequests.accumulateAndGet(active, Math::max);
+            try {
+                flowRequests.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+                Thread.sleep(1);
+                respond(exchange, flowJson(id));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                activeRequests.decrementAndGet();
+            }
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        final NifiRestClientConfig config = new NifiRestClientConfig();
+        config.setHost("localhost");
+        config.setPort(server.getAddress().getPort());
+        config.setFlowFetchConcurrency(CONCURRENCY);
+        client = new NiFiRestClientV1(config);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    /**
+     * Verify fetching the root process group recursively requests every flow exactly once and never exceeds the configured concurrency.
+     */
+    @Test
+    public void findRootConcurrently() {
+        final long start = System.currentTimeMillis();
+        final ProcessGroupDTO root = client.processGroups().findRoot();
+        final long elapsed = System.currentTimeMillis() - start;
+
+        final Collection<ProcessGroupDTO> groups = NifiProcessUtil.getProcessGroups(root);
+        Assert.assertEquals(names.size(), groups.size());
+        groups.forEach(group -> Assert.assertNotNull("Missing contents for " + group.getId(), group.getContents()));
+        assertEachFlowRequestedOnce();
+
+        Assert.assertTrue("Expected concurrent requests but max was " + maxActiveRequests.get(), maxActiveRequests.get() > 1);
+        Assert.assertTrue("Expected at most " + CONCURRENCY + " concurrent requests but was " + maxActiveRequests.get(), maxActiveRequests.get() <= CONCURRENCY);
+        System.out.println("Fetched " + groups.size() + " process groups in " + elapsed + " ms");
+    }
+
+    /**
+     * Verify building the feed flows reuses the groups fetched with the root instead of requesting each feed again.
+     */
+    @Test
+    public void getFeedFlowsFromCache() {
+        final List<NifiFlowProcessGroup> flows = new DefaultNiFiFlowVisitorClient(client).getFeedFlows();
+
+        Assert.assertEquals(CATEGORIES * FEEDS_PER_CATEGORY, flows.size());
+        assertEachFlowRequestedOnce();
+    }
+
+    /**
+     * Adds a process group to the stubbed flow.
+     */
+    private void addGroup(@Nonnull final String parentId, @Nonnull final String id, @Nonnull final String name) {
+        children.computeIfAbsent(parentId, key -> new ArrayList<>()).add(id);
+        names.put(id, name);
+        parents.put(id, parentId);
+    }
+
+    private void assertEachFlowRequestedOnce() {
+        Assert.assertEquals(names.keySet(), flowRequests.keySet());
+        flowRequests.forEach((id, count) -> Assert.assertEquals("Flow requests for " + id, 1, count.get()));
+    }
+
+    /**
+     * Gets the JSON for a {@code ProcessGroupDTO}.
+     */
+    @Nonnull
+    private String processGroupJson(@Nonnull final String id) {
+        final String parentId = parents.get(id);
+        return "{\"id\":\"" + id + "\",\"name\":\"" + names.get(id) + "\"" + (parentId != null ? ",\"parentGroupId\":\"" + parentId + "\"" : "") + "}";
+    }
+
+    /**
+     * Gets the JSON for a {@code ProcessGroupFlowEntity}.
+     */
+    @Nonnull
+    private String flowJson(@Nonnull final String id) {
+        final StringBuilder json = new StringBuilder();
+        json.append("{\"processGroupFlow\":{\"id\":\"").append(id).append("\",\"flow\":{\"processGroups\":[");
+        final List<String> childIds = children.getOrDefault(id, new ArrayList<>());
+        for (int i = 0; i < childIds.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(childIds.get(i)).append("\",\"component\":").append(processGroupJson(childIds.get(i))).append('}');
+        }
+        json.append("],\"remoteProcessGroups\":[],\"processors\":[],\"inputPorts\":[],\"outputPorts\":[],\"connections\":[],\"labels\":[],\"funnels\":[]}}}");
+        return json.toString();
+    }
+
+    private static void respond(@Nonnull final HttpExchange exchange, @Nonnull final String json) throws IOException {
+        final byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -37,15 +37,19 @@ import com.thinkbiganalytics.spark.dataprofiler.columns.StringColumnStatistics;
 import com.thinkbiganalytics.spark.dataprofiler.columns.TimestampColumnStatistics;
 import com.thinkbiganalytics.spark.dataprofiler.columns.UnsupportedColumnStatistics;
 import com.thinkbiganalytics.spark.dataprofiler.model.SchemaInfo;
+import com.thinkbiganalytics.spark.dataprofiler.model.SketchStatisticsModel;
 import com.thinkbiganalytics.spark.dataprofiler.model.StatisticsModel;
 import com.thinkbiganalytics.spark.dataprofiler.output.OutputRow;
 import com.thinkbiganalytics.spark.dataprofiler.output.OutputWriter;
+import com.thinkbiganalytics.spark.dataprofiler.sketch.HyperLogLogSketch;
+import com.thinkbiganalytics.spark.dataprofiler.sketch.SpaceSavingSketch;
 import com.thinkbiganalytics.spark.dataprofiler.topn.TopNDataItem;
 import com.thinkbiganalytics.spark.dataprofiler.topn.TopNDataList;
 import com.thinkbiganalytics.spark.policy.FieldPolicyLoader;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.spark.SparkConf;
+import org.apache.spark.SparkContext;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.broadcast.Broadcast;
@@ -54,7 +58,6 @@ import org.apache.spark.sql.types.StructField;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Configuration;
 
@@ -80,6 +83,7 @@ public class Profiler {
     @SuppressWarnings("SpringJavaAutowiringInspection")
     @Autowired
     private ProfilerStrategy profilerStrategy;
+    private final ProfilerStrategy sketchProfilerStrategy = new ProfilerStrategyV3();
     @SuppressWarnings("SpringJavaAutowiringInspection")
     @Autowired
     private FieldPolicyLoader loader;
@@ -91,9 +95,10 @@ public class Profiler {
      * @param args: list of args
      */
     public static void main(String[] args) {
-        ApplicationContext ctx = new AnnotationConfigApplicationContext("com.thinkbiganalytics.spark");
-        Profiler app = ctx.getBean(Profiler.class);
-        app.profile(args);
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext("com.thinkbiganalytics.spark")) {
+            Profiler app = ctx.getBean(Profiler.class);
+            app.profile(args);
+        }
     }
 
     private void profile(String[] args) {
@@ -104,20 +109,24 @@ public class Profiler {
         HiveContext hiveContext;
         DataSet resultDF;
         String queryString;
+        ProfilerConfiguration profilerConfiguration = new ProfilerConfiguration();
 
         /* Check command line arguments and get query to run. */
-        if ((queryString = checkCommandLineArgs(args)) == null) {
+        if ((queryString = checkCommandLineArgs(args, profilerConfiguration)) == null) {
             return;
         }
 
         /* Initialize and configure Spark */
         conf = new SparkConf().setAppName(ProfilerConfiguration.APP_NAME);
 
+        profilerConfiguration.setUseSketches(conf.getBoolean(ProfilerConfiguration.USE_SKETCHES_PROPERTY, profilerConfiguration.isUseSketches()));
+
         if (ProfilerConfiguration.SERIALIZER.equals("kryo")) {
             conf = configureEfficientSerialization(conf);
         }
 
-        sc = new JavaSparkContext(conf);
+        // Use the running context when run by the Spark job server
+        sc = new JavaSparkContext(SparkContext.getOrCreate(conf));
         hiveContext = new HiveContext(sc.sc());
         hiveContext.setConf("spark.sql.dialect", ProfilerConfiguration.SQL_DIALECT);
 
@@ -129,7 +138,7 @@ public class Profiler {
         bSchemaMap = populateAndBroadcastSchemaMap(resultDF, sc);
 
         /* Get profile statistics and write to table */
-        StatisticsModel statisticsModel = profileStatistics(resultDF, bSchemaMap);
+        StatisticsModel statisticsModel = profileStatistics(resultDF, bSchemaMap, profilerConfiguration);
 
         if (statisticsModel != null) {
             statisticsModel.writeModel(sc, hiveContext, sparkContextService);
@@ -139,23 +148,27 @@ public class Profiler {
         }
 
         /* Wrap up */
+        // The context is not stopped as it may be shared. It is stopped by Spark's shutdown hook when run on its own.
         log.info("[PROFILER-INFO] Profiling finished.");
-        sc.close();
     }
 
 
-    public StatisticsModel profileStatistics(DataSet resultDF, Broadcast<Map<Integer, StructField>> bSchemaMap) {
-        return profilerStrategy.profileStatistics(resultDF, bSchemaMap);
+    public StatisticsModel profileStatistics(DataSet resultDF, Broadcast<Map<Integer, StructField>> bSchemaMap, ProfilerConfiguration profilerConfiguration) {
+        if (profilerConfiguration.isUseSketches()) {
+            return sketchProfilerStrategy.profileStatistics(resultDF, bSchemaMap, profilerConfiguration);
+        }
+        return profilerStrategy.profileStatistics(resultDF, bSchemaMap, profilerConfiguration);
     }
 
 
     /**
      * Check command line arguments
      *
-     * @param args list of command line arguments
+     * @param args                  list of command line arguments
+     * @param profilerConfiguration configuration to update with the top-N, output table and partition arguments
      * @return query to run (null if invalid arguments)
      */
-    public String checkCommandLineArgs(String[] args) {
+    public String checkCommandLineArgs(String[] args, ProfilerConfiguration profilerConfiguration) {
         log.info("Running Spark Profiler with the following command line " + args.length + " args (comma separated): " + StringUtils.join(args, ","));
         if (args.length < 5) {
             log.error("Invalid number of command line arguments (" + args.length + ")");
@@ -195,7 +208,7 @@ public class Profiler {
                 if (!profiledColumns.isEmpty()) {
                     retVal = "select " + StringUtils.join(profiledColumns, ',') + " from " + safeTable;
                     if (inputAndOutputTablePartitionKey != null && !"ALL".equalsIgnoreCase(inputAndOutputTablePartitionKey)) {
-                        retVal += " where " + HiveUtils.quoteIdentifier(ProfilerConfiguration.INPUT_TABLE_PARTITION_COLUMN_NAME) + " = " + HiveUtils.quoteString(inputAndOutputTablePartitionKey);
+                        retVal += " where " + HiveUtils.quoteIdentifier(profilerConfiguration.getInputTablePartitionColumnName()) + " = " + HiveUtils.quoteString(inputAndOutputTablePartitionKey);
                     }
                 } else {
                     retVal = null;
@@ -215,16 +228,16 @@ public class Profiler {
             showCommandLineArgs();
             return null;
         } else {
-            ProfilerConfiguration.NUMBER_OF_TOP_N_VALUES = n;
+            profilerConfiguration.setNumberOfTopNValues(n);
         }
 
-        if (!setOutputTableDBAndName(profileOutputTable)) {
+        if (!setOutputTableDBAndName(profileOutputTable, profilerConfiguration)) {
             log.error("Illegal command line argument for output table (" + profileOutputTable + ")");
             showCommandLineArgs();
             return null;
         }
 
-        ProfilerConfiguration.INPUT_AND_OUTPUT_TABLE_PARTITION_KEY = inputAndOutputTablePartitionKey;
+        profilerConfiguration.setInputAndOutputTablePartitionKey(inputAndOutputTablePartitionKey);
 
         return retVal;
     }
@@ -233,17 +246,17 @@ public class Profiler {
     /*
      * Set output database and table
      */
-    private boolean setOutputTableDBAndName(String profileOutputTable) {
+    private boolean setOutputTableDBAndName(String profileOutputTable, ProfilerConfiguration profilerConfiguration) {
 
         Boolean retVal = true;
         String[] tableNameParts = profileOutputTable.split("\\.");
 
         if (tableNameParts.length == 1) {
             //output db remains as 'default'
-            ProfilerConfiguration.OUTPUT_TABLE_NAME = tableNameParts[0];
+            profilerConfiguration.setOutputTableName(tableNameParts[0]);
         } else if (tableNameParts.length == 2) {
-            ProfilerConfiguration.OUTPUT_DB_NAME = tableNameParts[0];
-            ProfilerConfiguration.OUTPUT_TABLE_NAME = tableNameParts[1];
+            profilerConfiguration.setOutputDbName(tableNameParts[0]);
+            profilerConfiguration.setOutputTableName(tableNameParts[1]);
         } else {
             retVal = false;
         }
@@ -263,6 +276,7 @@ public class Profiler {
         conf.set("spark.serializer", "org.apache.spark.serializer.KryoSerializer");
 
         serializeClassesList = new ArrayList<>();
+        serializeClassesList.add(ProfilerConfiguration.class);
         serializeClassesList.add(ColumnStatistics.class);
         serializeClassesList.add(BigDecimalColumnStatistics.class);
         serializeClassesList.add(BooleanColumnStatistics.class);
@@ -281,6 +295,9 @@ public class Profiler {
         serializeClassesList.add(TopNDataList.class);
         serializeClassesList.add(OutputRow.class);
         serializeClassesList.add(OutputWriter.class);
+        serializeClassesList.add(SketchStatisticsModel.class);
+        serializeClassesList.add(HyperLogLogSketch.class);
+        serializeClassesList.add(SpaceSavingSketch.class);
 
         serializeClassesArray = new Class[serializeClassesList.size()];
         for (int i = 0; i < serializeClassesList.size(); i++) {
@@ -2,7 +2,7 @@ package com.thinkbiganalytics.spark.dataprofiler.columns;
 
 /*-
  * #%L
- * thinkbig-spark-job-profiler-app
+ * thinkbig-spark-job-profiler-core
  * %%
  * Copyright (C) 2017 ThinkBig Analytics
  * %%
@@ -20,8 +20,10 @@ package com.thinkbiganalytics.spark.dataprofiler.columns;
  * #L%
  */
 
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
 import com.thinkbiganalytics.spark.dataprofiler.model.MetricType;
 import com.thinkbiganalytics.spark.dataprofiler.output.OutputRow;
+import com.thinkbiganalytics.spark.dataprofiler.output.OutputWriter;
 
 import org.apache.spark.sql.types.StructField;
 
@@ -46,13 +48,14 @@ public class BigDecimalColumnStatistics extends ColumnStatistics {
 
 
     /**
-     * One-argument constructor
+     * Two-argument constructor
      *
-     * @param columnField field schema
+     * @param columnField           field schema
+     * @param profilerConfiguration profiler configuration
      */
-    public BigDecimalColumnStatistics(StructField columnField) {
+    public BigDecimalColumnStatistics(StructField columnField, ProfilerConfiguration profilerConfiguration) {
 
-        super(columnField);
+        super(columnField, profilerConfiguration);
 
         max = BigDecimal.valueOf(Long.MIN_VALUE);
         min = BigDecimal.valueOf(Long.MAX_VALUE);
@@ -132,10 +135,12 @@ public class BigDecimalColumnStatistics extends ColumnStatistics {
 
     /**
      * Write statistics for output result table
+     *
+     * @param outputWriter writer collecting the output rows
      */
     @Override
-    public void writeStatistics() {
-        writeStatisticsCommon();
+    public void writeStatistics(OutputWriter outputWriter) {
+        writeStatisticsCommon(outputWriter);
 
         rows = new ArrayList<>();
         rows.add(new OutputRow(columnField.name(), String.valueOf(MetricType.MAX), String.valueOf(max)));
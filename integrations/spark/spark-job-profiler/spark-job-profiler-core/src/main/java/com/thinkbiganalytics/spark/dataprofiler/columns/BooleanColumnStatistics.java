@@ -2,7 +2,7 @@ package com.thinkbiganalytics.spark.dataprofiler.columns;
 
 /*-
  * #%L
- * thinkbig-spark-job-profiler-app
+ * thinkbig-spark-job-profiler-core
  * %%
  * Copyright (C) 2017 ThinkBig Analytics
  * %%
@@ -20,8 +20,10 @@ package com.thinkbiganalytics.spark.dataprofiler.columns;
  * #L%
  */
 
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
 import com.thinkbiganalytics.spark.dataprofiler.model.MetricType;
 import com.thinkbiganalytics.spark.dataprofiler.output.OutputRow;
+import com.thinkbiganalytics.spark.dataprofiler.output.OutputWriter;
 
 import org.apache.spark.sql.types.StructField;
 
@@ -43,13 +45,14 @@ public class BooleanColumnStatistics extends ColumnStatistics {
 
 
     /**
-     * One-argument constructor
+     * Two-argument constructor
      *
-     * @param columnField field schema
+     * @param columnField           field schema
+     * @param profilerConfiguration profiler configuration
      */
-    public BooleanColumnStatistics(StructField columnField) {
+    public BooleanColumnStatistics(StructField columnField, ProfilerConfiguration profilerConfiguration) {
 
-        super(columnField);
+        super(columnField, profilerConfiguration);
 
         trueCount = 0L;
         falseCount = 0L;
@@ -113,10 +116,12 @@ public class BooleanColumnStatistics extends ColumnStatistics {
 
     /**
      * Write statistics for output result table
+     *
+     * @param outputWriter writer collecting the output rows
      */
     @Override
-    public void writeStatistics() {
-        writeStatisticsCommon();
+    public void writeStatistics(OutputWriter outputWriter) {
+        writeStatisticsCommon(outputWriter);
 
         rows = new ArrayList<>();
         rows.add(new OutputRow(columnField.name(), String.valueOf(MetricType.TRUE_COUNT), String.valueOf(trueCount)));
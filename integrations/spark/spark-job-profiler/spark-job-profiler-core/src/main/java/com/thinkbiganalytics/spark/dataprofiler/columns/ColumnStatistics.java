@@ -2,7 +2,7 @@ package com.thinkbiganalytics.spark.dataprofiler.columns;
 
 /*-
  * #%L
- * thinkbig-spark-job-profiler-app
+ * thinkbig-spark-job-profiler-core
  * %%
  * Copyright (C) 2017 ThinkBig Analytics
  * %%
@@ -44,7 +44,7 @@ public abstract class ColumnStatistics implements Serializable {
     final StructField columnField;
     /* Other variables */
     final DecimalFormat df;
-    final OutputWriter outputWriter;
+    private final ProfilerConfiguration profilerConfiguration;
     private final TopNDataList topNValues;
     /* Common metrics for all data types */
     long nullCount;
@@ -57,20 +57,21 @@ public abstract class ColumnStatistics implements Serializable {
 
 
     /**
-     * One-argument constructor
+     * Two-argument constructor
      *
-     * @param columnField field schema
+     * @param columnField           field schema
+     * @param profilerConfiguration profiler configuration
      */
-    protected ColumnStatistics(StructField columnField) {
+    protected ColumnStatistics(StructField columnField, ProfilerConfiguration profilerConfiguration) {
         this.columnField = columnField;
+        this.profilerConfiguration = profilerConfiguration;
         nullCount = 0;
         totalCount = 0;
         uniqueCount = 0;
         percNullValues = 0.0d;
         percUniqueValues = 0.0d;
         percDuplicateValues = 0.0d;
-        topNValues = new TopNDataList(ProfilerConfiguration.NUMBER_OF_TOP_N_VALUES);
-        outputWriter = OutputWriter.getInstance();
+        topNValues = new TopNDataList(profilerConfiguration.getNumberOfTopNValues());
         df = new DecimalFormat(getDecimalFormatPattern());
     }
 
@@ -116,10 +117,32 @@ public abstract class ColumnStatistics implements Serializable {
     }
 
 
+    /**
+     * Replace the unique count and top-n values with estimates<br>
+     * Used when the statistics were built from individual values rather than from exact value counts, so the unique count and top-n values are not known.
+     *
+     * @param estimatedUniqueCount estimated number of distinct values
+     * @param estimatedTopNValues  estimated most frequent values
+     */
+    public void applyEstimates(long estimatedUniqueCount, List<TopNDataItem> estimatedTopNValues) {
+
+        uniqueCount = Math.max(Math.min(estimatedUniqueCount, totalCount), totalCount > 0 ? 1 : 0);
+
+        doPercentageCalculationsCommon();
+
+        topNValues.clear();
+        for (TopNDataItem dataItem : estimatedTopNValues) {
+            topNValues.add(dataItem.getValue(), dataItem.getCount());
+        }
+    }
+
+
     /**
      * Write column's schema information for output result table
+     *
+     * @param outputWriter writer collecting the output rows
      */
-    private void writeColumnSchemaInformation() {
+    private void writeColumnSchemaInformation(OutputWriter outputWriter) {
 
         rows = new ArrayList<>();
         rows.add(new OutputRow(columnField.name(), String.valueOf(MetricType.COLUMN_DATATYPE), String.valueOf(columnField.dataType())));
@@ -148,8 +171,10 @@ public abstract class ColumnStatistics implements Serializable {
 
     /**
      * Write top n rows in column for output result table
+     *
+     * @param outputWriter writer collecting the output rows
      */
-    private void writeTopNInformation() {
+    private void writeTopNInformation(OutputWriter outputWriter) {
 
         rows = new ArrayList<>();
         rows.add(new OutputRow(columnField.name(), String.valueOf(MetricType.TOP_N_VALUES), topNValues.printTopNItems()));
@@ -164,7 +189,7 @@ public abstract class ColumnStatistics implements Serializable {
      */
     private String getVerboseTopNInformation() {
 
-        return "Top " + ProfilerConfiguration.NUMBER_OF_TOP_N_VALUES + " values [\n"
+        return "Top " + profilerConfiguration.getNumberOfTopNValues() + " values [\n"
                + topNValues.printTopNItems()
                + "]";
     }
@@ -172,10 +197,12 @@ public abstract class ColumnStatistics implements Serializable {
 
     /**
      * Write common statistics information for output result table
+     *
+     * @param outputWriter writer collecting the output rows
      */
-    void writeStatisticsCommon() {
+    void writeStatisticsCommon(OutputWriter outputWriter) {
 
-        writeColumnSchemaInformation();
+        writeColumnSchemaInformation(outputWriter);
 
         rows = new ArrayList<>();
         rows.add(new OutputRow(columnField.name(), String.valueOf(MetricType.NULL_COUNT), String.valueOf(nullCount)));
@@ -186,7 +213,7 @@ public abstract class ColumnStatistics implements Serializable {
         rows.add(new OutputRow(columnField.name(), String.valueOf(MetricType.PERC_DUPLICATE_VALUES), df.format(percDuplicateValues)));
         outputWriter.addRows(rows);
 
-        writeTopNInformation();
+        writeTopNInformation(outputWriter);
     }
 
 
@@ -231,7 +258,7 @@ public abstract class ColumnStatistics implements Serializable {
         StringBuilder format = new StringBuilder();
         format.append("#.");
 
-        for (int i = 0; i < ProfilerConfiguration.DECIMAL_DIGITS_TO_DISPLAY_CONSOLE_OUTPUT; i++) {
+        for (int i = 0; i < profilerConfiguration.getDecimalDigitsToDisplayConsoleOutput(); i++) {
             format.append("#");
         }
 
@@ -318,7 +345,7 @@ public abstract class ColumnStatistics implements Serializable {
 
     public abstract void combine(ColumnStatistics v_columnStatistics);
 
-    public abstract void writeStatistics();
+    public abstract void writeStatistics(OutputWriter outputWriter);
 
     public abstract String getVerboseStatistics();
 
@@ -2,7 +2,7 @@ package com.thinkbiganalytics.spark.dataprofiler.columns;
 
 /*-
  * #%L
- * thinkbig-spark-job-profiler-app
+ * thinkbig-spark-job-profiler-core
  * %%
  * Copyright (C) 2017 ThinkBig Analytics
  * %%
@@ -20,8 +20,10 @@ package com.thinkbiganalytics.spark.dataprofiler.columns;
  * #L%
  */
 
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
 import com.thinkbiganalytics.spark.dataprofiler.model.MetricType;
 import com.thinkbiganalytics.spark.dataprofiler.output.OutputRow;
+import com.thinkbiganalytics.spark.dataprofiler.output.OutputWriter;
 
 import org.apache.spark.sql.types.StructField;
 
@@ -45,13 +47,14 @@ public class DateColumnStatistics extends ColumnStatistics {
 
 
     /**
-     * One-argument constructor
+     * Two-argument constructor
      *
-     * @param columnField field schema
+     * @param columnField           field schema
+     * @param profilerConfiguration profiler configuration
      */
-    public DateColumnStatistics(StructField columnField) {
+    public DateColumnStatistics(StructField columnField, ProfilerConfiguration profilerConfiguration) {
 
-        super(columnField);
+        super(columnField, profilerConfiguration);
 
         String MIN_DATE = "1000-01-01";
         maxDate = Date.valueOf(MIN_DATE);
@@ -121,11 +124,13 @@ public class DateColumnStatistics extends ColumnStatistics {
 
     /**
      * Write statistics for output result table
+     *
+     * @param outputWriter writer collecting the output rows
      */
     @Override
-    public void writeStatistics() {
+    public void writeStatistics(OutputWriter outputWriter) {
 
-        writeStatisticsCommon();
+        writeStatisticsCommon(outputWriter);
 
         rows = new ArrayList<>();
         rows.add(new OutputRow(columnField.name(), String.valueOf(MetricType.MAX_DATE), String.valueOf(maxDate)));
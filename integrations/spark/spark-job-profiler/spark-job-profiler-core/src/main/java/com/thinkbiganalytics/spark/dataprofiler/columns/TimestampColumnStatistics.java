@@ -2,7 +2,7 @@ package com.thinkbiganalytics.spark.dataprofiler.columns;
 
 /*-
  * #%L
- * thinkbig-spark-job-profiler-app
+ * thinkbig-spark-job-profiler-core
  * %%
  * Copyright (C) 2017 ThinkBig Analytics
  * %%
@@ -20,8 +20,10 @@ package com.thinkbiganalytics.spark.dataprofiler.columns;
  * #L%
  */
 
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
 import com.thinkbiganalytics.spark.dataprofiler.model.MetricType;
 import com.thinkbiganalytics.spark.dataprofiler.output.OutputRow;
+import com.thinkbiganalytics.spark.dataprofiler.output.OutputWriter;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.spark.sql.types.StructField;
@@ -54,10 +56,11 @@ public class TimestampColumnStatistics extends ColumnStatistics {
     /**
      * Constructs a {@code TimestampColumnStatistics} for profiling the the specified field.
      *
-     * @param columnField the field to be profiled
+     * @param columnField           the field to be profiled
+     * @param profilerConfiguration the profiler configuration
      */
-    public TimestampColumnStatistics(@Nonnull final StructField columnField) {
-        super(columnField);
+    public TimestampColumnStatistics(@Nonnull final StructField columnField, @Nonnull final ProfilerConfiguration profilerConfiguration) {
+        super(columnField, profilerConfiguration);
     }
 
     /**
@@ -120,11 +123,13 @@ public class TimestampColumnStatistics extends ColumnStatistics {
 
     /**
      * Writes the statistics to an output table.
+     *
+     * @param outputWriter the writer collecting the output rows
      */
     @Override
-    public void writeStatistics() {
+    public void writeStatistics(@Nonnull final OutputWriter outputWriter) {
         // Write common statistics
-        writeStatisticsCommon();
+        writeStatisticsCommon(outputWriter);
 
         // Write timestamp-specific statistics
         rows = new ArrayList<>();
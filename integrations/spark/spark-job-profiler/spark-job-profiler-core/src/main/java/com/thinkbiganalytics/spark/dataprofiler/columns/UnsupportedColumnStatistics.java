@@ -2,7 +2,7 @@ package com.thinkbiganalytics.spark.dataprofiler.columns;
 
 /*-
  * #%L
- * thinkbig-spark-job-profiler-app
+ * thinkbig-spark-job-profiler-core
  * %%
  * Copyright (C) 2017 ThinkBig Analytics
  * %%
@@ -19,7 +19,8 @@ package com.thinkbiganalytics.spark.dataprofiler.columns;
  * limitations under the License.
  * #L%
  */
-
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
+import com.thinkbiganalytics.spark.dataprofiler.output.OutputWriter;
 
 import org.apache.spark.sql.types.StructField;
 
@@ -31,12 +32,13 @@ import org.apache.spark.sql.types.StructField;
 public class UnsupportedColumnStatistics extends ColumnStatistics {
 
     /**
-     * One-argument constructor
+     * Two-argument constructor
      *
-     * @param columnField field schema
+     * @param columnField           field schema
+     * @param profilerConfiguration profiler configuration
      */
-    public UnsupportedColumnStatistics(StructField columnField) {
-        super(columnField);
+    public UnsupportedColumnStatistics(StructField columnField, ProfilerConfiguration profilerConfiguration) {
+        super(columnField, profilerConfiguration);
     }
 
 
@@ -74,11 +76,13 @@ public class UnsupportedColumnStatistics extends ColumnStatistics {
     /**
      * Write statistics for output result table<br>
      * No additional statistics written
+     *
+     * @param outputWriter writer collecting the output rows
      */
     @Override
-    public void writeStatistics() {
+    public void writeStatistics(OutputWriter outputWriter) {
 
-        writeStatisticsCommon();
+        writeStatisticsCommon(outputWriter);
 
     }
 
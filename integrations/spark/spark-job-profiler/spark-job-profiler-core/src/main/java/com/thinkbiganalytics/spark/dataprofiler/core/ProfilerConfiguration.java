@@ -0,0 +1,220 @@
+package com.thinkbiganalytics.spark.dataprofiler.core;
+
+/*-
+ * #%L
+ * thinkbig-spark-job-profiler-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+
+/**
+ * Helper class to hold parameters for profiler<br>
+ * An instance is passed to the statistics models and output writer, so each job profiles with its own settings.
+ */
+@SuppressWarnings("serial")
+public class ProfilerConfiguration implements Serializable {
+
+    /**
+     * Application name for Spark UI
+     */
+    public static final String APP_NAME = "Profiler";
+
+
+    /**
+     * Flavor of queries to run - Hive supported HQL
+     */
+    public static final String SQL_DIALECT = "hiveql";
+
+
+    /**
+     * Efficient Kryo serialization
+     */
+    public static final String SERIALIZER = "kryo";
+
+
+    /**
+     * Delimiter to use when storing top-N values in result table<br>
+     * This delimiter is output between fields of a single top-N entry
+     */
+    public static final String TOP_N_VALUES_INTERNAL_DELIMITER = "^A";
+
+
+    /**
+     * Delimiter to use when storing top-N values in result table<br>
+     * This delimiter is output between top-N entries
+     */
+    public static final String TOP_N_VALUES_RECORD_DELIMITER = "^B";
+
+
+    /**
+     * Spark configuration property to profile with sketches (ProfilerStrategyV3) instead of exact value counts
+     */
+    public static final String USE_SKETCHES_PROPERTY = "spark.kylo.profiler.sketches";
+
+
+    /**
+     * Default N for top-N values
+     */
+    public static final int DEFAULT_NUMBER_OF_TOP_N_VALUES = 3;
+
+
+    /**
+     * N for top-N values to store in result table<br>
+     * A required command line parameter
+     */
+    private Integer numberOfTopNValues = DEFAULT_NUMBER_OF_TOP_N_VALUES;
+
+
+    /**
+     * Number of decimals to print out in console<br>
+     * (not considered when writing to table)
+     */
+    private Integer decimalDigitsToDisplayConsoleOutput = 4;
+
+
+    /**
+     * Name of database to write result to
+     */
+    private String outputDbName = "default";
+
+
+    /**
+     * Name of table to write result to<br>
+     * A required command line parameter
+     */
+    private String outputTableName = "profilestats";
+
+
+    /**
+     * Partition key to read and write to
+     */
+    private String inputAndOutputTablePartitionKey = "partitionKey";
+
+
+    /**
+     * Partition column name for input table
+     */
+    private String inputTablePartitionColumnName = "processing_dttm";
+
+
+    /**
+     * Partition column name for output table
+     */
+    private String outputTablePartitionColumnName = "processing_dttm";
+
+
+    /**
+     * Profile with sketches instead of exact value counts<br>
+     * Unique counts and top-N values are then estimates, but no shuffle is needed
+     */
+    private boolean useSketches = false;
+
+
+    /**
+     * Precision of the HyperLogLog sketches used to estimate unique counts when profiling with sketches<br>
+     * Each column uses 2^precision bytes, with a standard error of about 1.04 / sqrt(2^precision)
+     */
+    private Integer sketchHllPrecision = 14;
+
+
+    /**
+     * Number of values tracked per column to find the top-N values when profiling with sketches
+     */
+    private Integer sketchTopNCapacity = 500;
+
+
+    public Integer getNumberOfTopNValues() {
+        return numberOfTopNValues;
+    }
+
+    public void setNumberOfTopNValues(Integer numberOfTopNValues) {
+        this.numberOfTopNValues = numberOfTopNValues;
+    }
+
+    public Integer getDecimalDigitsToDisplayConsoleOutput() {
+        return decimalDigitsToDisplayConsoleOutput;
+    }
+
+    public void setDecimalDigitsToDisplayConsoleOutput(Integer decimalDigitsToDisplayConsoleOutput) {
+        this.decimalDigitsToDisplayConsoleOutput = decimalDigitsToDisplayConsoleOutput;
+    }
+
+    public String getOutputDbName() {
+        return outputDbName;
+    }
+
+    public void setOutputDbName(String outputDbName) {
+        this.outputDbName = outputDbName;
+    }
+
+    public String getOutputTableName() {
+        return outputTableName;
+    }
+
+    public void setOutputTableName(String outputTableName) {
+        this.outputTableName = outputTableName;
+    }
+
+    public String getInputAndOutputTablePartitionKey() {
+        return inputAndOutputTablePartitionKey;
+    }
+
+    public void setInputAndOutputTablePartitionKey(String inputAndOutputTablePartitionKey) {
+        this.inputAndOutputTablePartitionKey = inputAndOutputTablePartitionKey;
+    }
+
+    public String getInputTablePartitionColumnName() {
+        return inputTablePartitionColumnName;
+    }
+
+    public void setInputTablePartitionColumnName(String inputTablePartitionColumnName) {
+        this.inputTablePartitionColumnName = inputTablePartitionColumnName;
+    }
+
+    public String getOutputTablePartitionColumnName() {
+        return outputTablePartitionColumnName;
+    }
+
+    public void setOutputTablePartitionColumnName(String outputTablePartitionColumnName) {
+        this.outputTablePartitionColumnName = outputTablePartitionColumnName;
+    }
+
+    public boolean isUseSketches() {
+        return useSketches;
+    }
+
+    public void setUseSketches(boolean useSketches) {
+        this.useSketches = useSketches;
+    }
+
+    public Integer getSketchHllPrecision() {
+        return sketchHllPrecision;
+    }
+
+    public void setSketchHllPrecision(Integer sketchHllPrecision) {
+        this.sketchHllPrecision = sketchHllPrecision;
+    }
+
+    public Integer getSketchTopNCapacity() {
+        return sketchTopNCapacity;
+    }
+
+    public void setSketchTopNCapacity(Integer sketchTopNCapacity) {
+        this.sketchTopNCapacity = sketchTopNCapacity;
+    }
+}
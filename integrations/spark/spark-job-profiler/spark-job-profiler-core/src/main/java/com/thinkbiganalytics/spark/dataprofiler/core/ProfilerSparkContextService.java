@@ -2,7 +2,7 @@ package com.thinkbiganalytics.spark.dataprofiler.core;
 
 /*-
  * #%L
- * thinkbig-spark-job-profiler-app
+ * thinkbig-spark-job-profiler-core
  * %%
  * Copyright (C) 2017 ThinkBig Analytics
  * %%
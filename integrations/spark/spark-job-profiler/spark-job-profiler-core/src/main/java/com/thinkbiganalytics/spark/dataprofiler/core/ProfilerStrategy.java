@@ -2,7 +2,7 @@ package com.thinkbiganalytics.spark.dataprofiler.core;
 
 /*-
  * #%L
- * thinkbig-spark-job-profiler-app
+ * thinkbig-spark-job-profiler-core
  * %%
  * Copyright (C) 2017 ThinkBig Analytics
  * %%
@@ -36,9 +36,10 @@ public interface ProfilerStrategy {
     /**
      * Profile statistics for data frame
      *
-     * @param set        data frame to analyze
-     * @param bSchemaMap schema map for schema lookup
+     * @param set                   data frame to analyze
+     * @param bSchemaMap            schema map for schema lookup
+     * @param profilerConfiguration profiler configuration
      * @return StatisticsModel
      */
-    StatisticsModel profileStatistics(DataSet set, Broadcast<Map<Integer, StructField>> bSchemaMap);
+    StatisticsModel profileStatistics(DataSet set, Broadcast<Map<Integer, StructField>> bSchemaMap, ProfilerConfiguration profilerConfiguration);
 }
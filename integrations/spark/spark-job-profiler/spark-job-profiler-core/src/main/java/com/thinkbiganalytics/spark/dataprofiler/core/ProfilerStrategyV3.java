@@ -0,0 +1,50 @@
+package com.thinkbiganalytics.spark.dataprofiler.core;
+
+/*-
+ * #%L
+ * thinkbig-spark-job-profiler-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.DataSet;
+import com.thinkbiganalytics.spark.dataprofiler.functions.AddRowToSketchModel;
+import com.thinkbiganalytics.spark.dataprofiler.functions.CombineSketchModels;
+import com.thinkbiganalytics.spark.dataprofiler.model.SketchStatisticsModel;
+import com.thinkbiganalytics.spark.dataprofiler.model.StatisticsModel;
+
+import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.sql.types.StructField;
+
+import java.util.Map;
+
+/**
+ * For Spark 1 and 2. Profiles each partition into mergeable sketches and combines them with a tree aggregate, so no shuffle is needed.<br>
+ * Unique counts are HyperLogLog estimates and top-N values come from a Space-Saving summary. All other statistics are exact.
+ */
+public class ProfilerStrategyV3 implements ProfilerStrategy {
+
+    @Override
+    public StatisticsModel profileStatistics(DataSet set, Broadcast<Map<Integer, StructField>> bSchemaMap, ProfilerConfiguration profilerConfiguration) {
+
+        /* Build a model per partition and merge them */
+        SketchStatisticsModel sketchStatisticsModel = set
+            .javaRDD()
+            .treeAggregate(new SketchStatisticsModel(profilerConfiguration), new AddRowToSketchModel(bSchemaMap), new CombineSketchModels());
+
+        return sketchStatisticsModel.isEmpty() ? null : sketchStatisticsModel.toStatisticsModel();
+    }
+}
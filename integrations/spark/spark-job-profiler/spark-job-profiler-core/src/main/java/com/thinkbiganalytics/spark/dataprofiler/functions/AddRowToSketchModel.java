@@ -0,0 +1,51 @@
+package com.thinkbiganalytics.spark.dataprofiler.functions;
+
+/*-
+ * #%L
+ * thinkbig-spark-job-profiler-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.dataprofiler.model.SketchStatisticsModel;
+
+import org.apache.spark.api.java.function.Function2;
+import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.types.StructField;
+
+import java.util.Map;
+
+/**
+ * Include a row in the sketch statistics model for a partition
+ */
+
+@SuppressWarnings("serial")
+public class AddRowToSketchModel implements Function2<SketchStatisticsModel, Row, SketchStatisticsModel> {
+
+    private final Broadcast<Map<Integer, StructField>> bSchemaMap;
+
+    public AddRowToSketchModel(Broadcast<Map<Integer, StructField>> bSchemaMap) {
+        this.bSchemaMap = bSchemaMap;
+    }
+
+    public SketchStatisticsModel call(SketchStatisticsModel model, Row row) throws Exception {
+
+        model.add(row, bSchemaMap.value());
+
+        return model;
+    }
+}
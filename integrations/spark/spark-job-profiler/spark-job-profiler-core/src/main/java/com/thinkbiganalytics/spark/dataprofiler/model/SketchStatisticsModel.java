@@ -0,0 +1,159 @@
+package com.thinkbiganalytics.spark.dataprofiler.model;
+
+/*-
+ * #%L
+ * thinkbig-spark-job-profiler-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.dataprofiler.columns.ColumnStatistics;
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
+import com.thinkbiganalytics.spark.dataprofiler.sketch.HyperLogLogSketch;
+import com.thinkbiganalytics.spark.dataprofiler.sketch.SpaceSavingSketch;
+
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.types.StructField;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Profile statistics built from individual rows, with sketches for the metrics that need to know every distinct value<br>
+ * Models for different partitions can be combined directly, so the rows never need to be grouped by value.
+ */
+@SuppressWarnings("serial")
+public class SketchStatisticsModel implements Serializable {
+
+    private final StatisticsModel statisticsModel;
+    private final Map<Integer, HyperLogLogSketch> uniqueValueSketches = new HashMap<>();
+    private final Map<Integer, SpaceSavingSketch> topNValueSketches = new HashMap<>();
+    private final int hllPrecision;
+    private final int topNCapacity;
+    private final int numberOfTopNValues;
+
+
+    /**
+     * Constructor using the sketch sizes and top-N from the profiler configuration
+     *
+     * @param profilerConfiguration profiler configuration
+     */
+    public SketchStatisticsModel(ProfilerConfiguration profilerConfiguration) {
+        this.statisticsModel = new StatisticsModel(profilerConfiguration);
+        this.hllPrecision = profilerConfiguration.getSketchHllPrecision();
+        this.numberOfTopNValues = profilerConfiguration.getNumberOfTopNValues();
+        this.topNCapacity = Math.max(profilerConfiguration.getSketchTopNCapacity(), numberOfTopNValues);
+    }
+
+
+    /**
+     * Include every column value of a row
+     *
+     * @param row       row
+     * @param schemaMap schema information of the columns
+     */
+    public void add(Row row, Map<Integer, StructField> schemaMap) {
+
+        for (int i = 0; i < row.length(); i++) {
+            add(i, row.get(i), schemaMap.get(i));
+        }
+    }
+
+
+    /**
+     * Include a single column value
+     *
+     * @param columnIndex numeric index of column (0-based)
+     * @param columnValue value in column
+     * @param columnField schema information of the column
+     */
+    public void add(Integer columnIndex, Object columnValue, StructField columnField) {
+
+        statisticsModel.add(columnIndex, columnValue, 1L, columnField);
+
+        HyperLogLogSketch uniqueValues = uniqueValueSketches.get(columnIndex);
+        if (uniqueValues == null) {
+            uniqueValues = new HyperLogLogSketch(hllPrecision);
+            uniqueValueSketches.put(columnIndex, uniqueValues);
+        }
+        uniqueValues.add(columnValue);
+
+        SpaceSavingSketch topNValues = topNValueSketches.get(columnIndex);
+        if (topNValues == null) {
+            topNValues = new SpaceSavingSketch(topNCapacity);
+            topNValueSketches.put(columnIndex, topNValues);
+        }
+        topNValues.add(columnValue, 1L);
+    }
+
+
+    /**
+     * Combine another sketch statistics model
+     *
+     * @param sketchStatisticsModel model to combine with
+     */
+    public void combine(SketchStatisticsModel sketchStatisticsModel) {
+
+        statisticsModel.combine(sketchStatisticsModel.statisticsModel);
+
+        for (Map.Entry<Integer, HyperLogLogSketch> entry : sketchStatisticsModel.uniqueValueSketches.entrySet()) {
+            HyperLogLogSketch uniqueValues = uniqueValueSketches.get(entry.getKey());
+            if (uniqueValues != null) {
+                uniqueValues.merge(entry.getValue());
+            } else {
+                uniqueValueSketches.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        for (Map.Entry<Integer, SpaceSavingSketch> entry : sketchStatisticsModel.topNValueSketches.entrySet()) {
+            SpaceSavingSketch topNValues = topNValueSketches.get(entry.getKey());
+            if (topNValues != null) {
+                topNValues.merge(entry.getValue());
+            } else {
+                topNValueSketches.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+
+    /**
+     * Check if any rows were included
+     *
+     * @return true if no rows were included
+     */
+    public boolean isEmpty() {
+        return statisticsModel.getColumnStatisticsMap().isEmpty();
+    }
+
+
+    /**
+     * Get the statistics model, with the unique counts and top-N values estimated from the sketches
+     *
+     * @return statistics model
+     */
+    public StatisticsModel toStatisticsModel() {
+
+        for (Map.Entry<Integer, ColumnStatistics> entry : statisticsModel.getColumnStatisticsMap().entrySet()) {
+            HyperLogLogSketch uniqueValues = uniqueValueSketches.get(entry.getKey());
+            SpaceSavingSketch topNValues = topNValueSketches.get(entry.getKey());
+            entry.getValue().applyEstimates(uniqueValues.estimate(), topNValues.getTopN(numberOfTopNValues));
+        }
+
+        return statisticsModel;
+    }
+}
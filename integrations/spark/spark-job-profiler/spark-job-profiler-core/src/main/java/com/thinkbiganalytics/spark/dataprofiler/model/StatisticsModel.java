@@ -2,7 +2,7 @@ package com.thinkbiganalytics.spark.dataprofiler.model;
 
 /*-
  * #%L
- * thinkbig-spark-job-profiler-app
+ * thinkbig-spark-job-profiler-core
  * %%
  * Copyright (C) 2017 ThinkBig Analytics
  * %%
@@ -20,6 +20,7 @@ package com.thinkbiganalytics.spark.dataprofiler.model;
  * #L%
  */
 
+import com.thinkbiganalytics.spark.SparkContextService;
 import com.thinkbiganalytics.spark.dataprofiler.columns.BigDecimalColumnStatistics;
 import com.thinkbiganalytics.spark.dataprofiler.columns.BooleanColumnStatistics;
 import com.thinkbiganalytics.spark.dataprofiler.columns.ByteColumnStatistics;
@@ -33,6 +34,7 @@ import com.thinkbiganalytics.spark.dataprofiler.columns.ShortColumnStatistics;
 import com.thinkbiganalytics.spark.dataprofiler.columns.StringColumnStatistics;
 import com.thinkbiganalytics.spark.dataprofiler.columns.TimestampColumnStatistics;
 import com.thinkbiganalytics.spark.dataprofiler.columns.UnsupportedColumnStatistics;
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
 import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerSparkContextService;
 import com.thinkbiganalytics.spark.dataprofiler.output.OutputWriter;
 
@@ -56,6 +58,17 @@ public class StatisticsModel implements Serializable {
 
     private static final Logger log = LoggerFactory.getLogger(StatisticsModel.class);
     private final Map<Integer, ColumnStatistics> columnStatisticsMap = new HashMap<>();
+    private final ProfilerConfiguration profilerConfiguration;
+
+
+    /**
+     * Constructor to set the profiler configuration used by the column statistics and when writing the model
+     *
+     * @param profilerConfiguration profiler configuration
+     */
+    public StatisticsModel(ProfilerConfiguration profilerConfiguration) {
+        this.profilerConfiguration = profilerConfiguration;
+    }
 
     /**
      * Include a column value in calculation of profile statistics for the column
@@ -67,6 +80,22 @@ public class StatisticsModel implements Serializable {
      */
     public void add(Integer columnIndex, Object columnValue, Long columnCount, StructField columnField) {
 
+        ColumnStatistics currentColumnStatistics = columnStatisticsMap.get(columnIndex);
+
+        if (currentColumnStatistics == null) {
+            currentColumnStatistics = newColumnStatistics(columnField);
+            columnStatisticsMap.put(columnIndex, currentColumnStatistics);
+        }
+
+        currentColumnStatistics.accomodate(columnValue, columnCount);
+    }
+
+
+    /*
+     * Create the column statistics for the data type of the column
+     */
+    private ColumnStatistics newColumnStatistics(StructField columnField) {
+
         ColumnStatistics newColumnStatistics;
         DataType columnDataType = columnField.dataType();
 
@@ -80,7 +109,7 @@ public class StatisticsModel implements Serializable {
              * Java datatype:		Byte
              */
             case "tinyint":
-                newColumnStatistics = new ByteColumnStatistics(columnField);
+                newColumnStatistics = new ByteColumnStatistics(columnField, profilerConfiguration);
                 break;
 
 
@@ -90,7 +119,7 @@ public class StatisticsModel implements Serializable {
              * Java datatype:		Short
              */
             case "smallint":
-                newColumnStatistics = new ShortColumnStatistics(columnField);
+                newColumnStatistics = new ShortColumnStatistics(columnField, profilerConfiguration);
                 break;
 
 
@@ -100,7 +129,7 @@ public class StatisticsModel implements Serializable {
              * Java datatype:		Int
              */
             case "int":
-                newColumnStatistics = new IntegerColumnStatistics(columnField);
+                newColumnStatistics = new IntegerColumnStatistics(columnField, profilerConfiguration);
                 break;
 
 
@@ -110,7 +139,7 @@ public class StatisticsModel implements Serializable {
              * Java datatype:		Long
              */
             case "bigint":
-                newColumnStatistics = new LongColumnStatistics(columnField);
+                newColumnStatistics = new LongColumnStatistics(columnField, profilerConfiguration);
                 break;
 
 
@@ -123,7 +152,7 @@ public class StatisticsModel implements Serializable {
              * Java datatype:		Float
              */
             case "float":
-                newColumnStatistics = new FloatColumnStatistics(columnField);
+                newColumnStatistics = new FloatColumnStatistics(columnField, profilerConfiguration);
                 break;
 
 
@@ -133,7 +162,7 @@ public class StatisticsModel implements Serializable {
              * Java datatype:		Double
              */
             case "double":
-                newColumnStatistics = new DoubleColumnStatistics(columnField);
+                newColumnStatistics = new DoubleColumnStatistics(columnField, profilerConfiguration);
                 break;
 
 
@@ -146,7 +175,7 @@ public class StatisticsModel implements Serializable {
              * Java datatype:		String
              */
             case "string":
-                newColumnStatistics = new StringColumnStatistics(columnField);
+                newColumnStatistics = new StringColumnStatistics(columnField, profilerConfiguration);
                 break;
 
 
@@ -159,7 +188,7 @@ public class StatisticsModel implements Serializable {
              * Java datatype:		Boolean
              */
             case "boolean":
-                newColumnStatistics = new BooleanColumnStatistics(columnField);
+                newColumnStatistics = new BooleanColumnStatistics(columnField, profilerConfiguration);
                 break;
 
 
@@ -172,7 +201,7 @@ public class StatisticsModel implements Serializable {
              * Java datatype:		java.sql.Date
              */
             case "date":
-                newColumnStatistics = new DateColumnStatistics(columnField);
+                newColumnStatistics = new DateColumnStatistics(columnField, profilerConfiguration);
                 break;
 
 
@@ -182,7 +211,7 @@ public class StatisticsModel implements Serializable {
              * Java datatype:		java.sql.Timestamp
              */
             case "timestamp":
-                newColumnStatistics = new TimestampColumnStatistics(columnField);
+                newColumnStatistics = new TimestampColumnStatistics(columnField, profilerConfiguration);
                 break;
 
 
@@ -199,7 +228,7 @@ public class StatisticsModel implements Serializable {
              */
                 String decimalTypeRegex = "decimal\\S+";
                 if (columnDataType.simpleString().matches(decimalTypeRegex)) {
-                    newColumnStatistics = new BigDecimalColumnStatistics(columnField);
+                    newColumnStatistics = new BigDecimalColumnStatistics(columnField, profilerConfiguration);
                 }
 
                 /*
@@ -207,16 +236,11 @@ public class StatisticsModel implements Serializable {
                  */
                 else {
                     log.warn("[PROFILER-INFO] Unsupported data type: " + columnDataType.simpleString());
-                    newColumnStatistics = new UnsupportedColumnStatistics(columnField);
+                    newColumnStatistics = new UnsupportedColumnStatistics(columnField, profilerConfiguration);
                 }
         }
 
-        if (!columnStatisticsMap.containsKey(columnIndex)) {
-            columnStatisticsMap.put(columnIndex, newColumnStatistics);
-        }
-
-        ColumnStatistics currentColumnStatistics = columnStatisticsMap.get(columnIndex);
-        currentColumnStatistics.accomodate(columnValue, columnCount);
+        return newColumnStatistics;
     }
 
 
@@ -251,11 +275,28 @@ public class StatisticsModel implements Serializable {
      */
     public void writeModel(JavaSparkContext sc, HiveContext hiveContext, ProfilerSparkContextService scs) {
 
+        OutputWriter outputWriter = new OutputWriter(profilerConfiguration);
+        for (Integer columnIndex : columnStatisticsMap.keySet()) {
+            columnStatisticsMap.get(columnIndex).writeStatistics(outputWriter);
+        }
+
+        outputWriter.writeResultToTable(sc, hiveContext, scs);
+    }
+
+
+    /**
+     * Write the profile statistics to Hive, for jobs other than the profiler
+     *
+     * @param sc          JavaSparkContext
+     * @param hiveContext HiveContext
+     */
+    public void writeModel(JavaSparkContext sc, HiveContext hiveContext, SparkContextService scs) {
+
+        OutputWriter outputWriter = new OutputWriter(profilerConfiguration);
         for (Integer columnIndex : columnStatisticsMap.keySet()) {
-            columnStatisticsMap.get(columnIndex).writeStatistics();
+            columnStatisticsMap.get(columnIndex).writeStatistics(outputWriter);
         }
 
-        OutputWriter outputWriter = OutputWriter.getInstance();
         outputWriter.writeResultToTable(sc, hiveContext, scs);
     }
 
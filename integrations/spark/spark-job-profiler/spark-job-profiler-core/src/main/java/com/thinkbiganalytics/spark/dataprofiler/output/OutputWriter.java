@@ -2,7 +2,7 @@ package com.thinkbiganalytics.spark.dataprofiler.output;
 
 /*-
  * #%L
- * thinkbig-spark-job-profiler-app
+ * thinkbig-spark-job-profiler-core
  * %%
  * Copyright (C) 2017 ThinkBig Analytics
  * %%
@@ -28,7 +28,12 @@ import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerSparkContextService
 
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
 import org.apache.spark.sql.hive.HiveContext;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -43,29 +48,19 @@ import java.util.List;
 @SuppressWarnings("serial")
 public class OutputWriter implements Serializable {
 
-    private static final List<OutputRow> outputRows = new ArrayList<>();
-    private static OutputWriter outputWriter = null;
+    private final List<OutputRow> outputRows = new ArrayList<>();
+    private final ProfilerConfiguration profilerConfiguration;
     private JavaSparkContext sc = null;
     private HiveContext hiveContext = null;
 
 
-    /* no direct instantiation */
-    private OutputWriter() {
-    }
-
-
     /**
-     * Get the instance of OutputWriter
+     * Constructor to set the output database, table and partition
      *
-     * @return OutputWriter
+     * @param profilerConfiguration profiler configuration
      */
-    public static OutputWriter getInstance() {
-
-        if (outputWriter == null) {
-            outputWriter = new OutputWriter();
-        }
-
-        return outputWriter;
+    public OutputWriter(ProfilerConfiguration profilerConfiguration) {
+        this.profilerConfiguration = profilerConfiguration;
     }
 
 
@@ -95,10 +90,10 @@ public class OutputWriter implements Serializable {
      */
     private boolean checkOutputConfigSettings() {
 
-        return !((ProfilerConfiguration.OUTPUT_DB_NAME == null)
-                 || (ProfilerConfiguration.OUTPUT_TABLE_NAME == null)
-                 || (ProfilerConfiguration.OUTPUT_TABLE_PARTITION_COLUMN_NAME == null)
-                 || (ProfilerConfiguration.INPUT_AND_OUTPUT_TABLE_PARTITION_KEY == null));
+        return !((profilerConfiguration.getOutputDbName() == null)
+                 || (profilerConfiguration.getOutputTableName() == null)
+                 || (profilerConfiguration.getOutputTablePartitionColumnName() == null)
+                 || (profilerConfiguration.getInputAndOutputTablePartitionKey() == null));
     }
 
 
@@ -151,6 +146,49 @@ public class OutputWriter implements Serializable {
      */
     public boolean writeResultToTable(JavaSparkContext p_sc, HiveContext p_hiveContext, ProfilerSparkContextService scs) {
 
+        if (!checkWriteSettings(p_sc, p_hiveContext)) {
+            return false;
+        }
+
+        JavaRDD<OutputRow> outputRowsRDD = sc.parallelize(outputRows);
+        DataSet outputRowsDF = scs.toDataSet(hiveContext, outputRowsRDD, OutputRow.class);
+        writeResultToTable(scs, outputRowsDF);
+        return true;
+    }
+
+
+    /**
+     * Write result to Hive table, for jobs other than the profiler that do not have a {@link ProfilerSparkContextService}
+     *
+     * @param p_sc          JavaSparkContext
+     * @param p_hiveContext HiveContext
+     * @return boolean indicating result of write
+     */
+    public boolean writeResultToTable(JavaSparkContext p_sc, HiveContext p_hiveContext, SparkContextService scs) {
+
+        if (!checkWriteSettings(p_sc, p_hiveContext)) {
+            return false;
+        }
+
+        List<Row> rows = new ArrayList<>(outputRows.size());
+        for (OutputRow outputRow : outputRows) {
+            rows.add(RowFactory.create(outputRow.getColumnName(), outputRow.getMetricType(), outputRow.getMetricValue()));
+        }
+
+        StructType schema = new StructType(new StructField[]{DataTypes.createStructField("columnname", DataTypes.StringType, true),
+                                                             DataTypes.createStructField("metrictype", DataTypes.StringType, true),
+                                                             DataTypes.createStructField("metricvalue", DataTypes.StringType, true)});
+        DataSet outputRowsDF = scs.toDataSet(hiveContext, sc.parallelize(rows), schema);
+        writeResultToTable(scs, outputRowsDF);
+        return true;
+    }
+
+
+    /*
+     * Set the contexts and check that the result can be written
+     */
+    private boolean checkWriteSettings(JavaSparkContext p_sc, HiveContext p_hiveContext) {
+
         sc = p_sc;
         hiveContext = p_hiveContext;
         boolean retVal = false;
@@ -162,17 +200,6 @@ public class OutputWriter implements Serializable {
         } else if (hiveContext == null) {
             System.out.println("Error writing result: Hive context is not available.");
         } else {
-
-            JavaRDD<OutputRow> outputRowsRDD = sc.parallelize(outputRows);
-            DataSet outputRowsDF = scs.toDataSet(hiveContext, outputRowsRDD, OutputRow.class);
-            //outputRowsDF.write().mode(SaveMode.Overwrite).saveAsTable(outputTable);
-
-            // Since Spark doesn't support partitions, write to temp table, then write to partitioned table
-            String tempTable = ProfilerConfiguration.OUTPUT_TABLE_NAME + "_" + System.currentTimeMillis();
-            outputRowsDF.registerTempTable(tempTable);
-
-            createOutputTableIfNotExists(scs);
-            writeResultToOutputTable(scs, tempTable);
             retVal = true;
         }
 
@@ -180,11 +207,23 @@ public class OutputWriter implements Serializable {
     }
 
 
+    /* Write the result data set to the partitioned output table */
+    private void writeResultToTable(SparkContextService scs, DataSet outputRowsDF) {
+
+        // Since Spark doesn't support partitions, write to temp table, then write to partitioned table
+        String tempTable = profilerConfiguration.getOutputTableName() + "_" + System.currentTimeMillis();
+        outputRowsDF.registerTempTable(tempTable);
+
+        createOutputTableIfNotExists(scs);
+        writeResultToOutputTable(scs, tempTable);
+    }
+
+
     /* Create output table if does not exist */
     private void createOutputTableIfNotExists(SparkContextService scs) {
-        String createTableSQL = "CREATE TABLE IF NOT EXISTS " + HiveUtils.quoteIdentifier(ProfilerConfiguration.OUTPUT_DB_NAME, ProfilerConfiguration.OUTPUT_TABLE_NAME) + "\n"
+        String createTableSQL = "CREATE TABLE IF NOT EXISTS " + HiveUtils.quoteIdentifier(profilerConfiguration.getOutputDbName(), profilerConfiguration.getOutputTableName()) + "\n"
                                 + "(columnname STRING, metricname STRING, metricvalue STRING)\n"
-                                + "PARTITIONED BY (" + ProfilerConfiguration.OUTPUT_TABLE_PARTITION_COLUMN_NAME + " STRING)\n"
+                                + "PARTITIONED BY (" + profilerConfiguration.getOutputTablePartitionColumnName() + " STRING)\n"
                                 + "ROW FORMAT DELIMITED\n"
                                 + "FIELDS TERMINATED BY ','\n"
                                 + "STORED AS TEXTFILE";
@@ -195,16 +234,16 @@ public class OutputWriter implements Serializable {
 
     /* Write to output table */
     private void writeResultToOutputTable(SparkContextService scs, String tempTable) {
-        String insertTableSQL = "INSERT INTO TABLE " + HiveUtils.quoteIdentifier(ProfilerConfiguration.OUTPUT_DB_NAME, ProfilerConfiguration.OUTPUT_TABLE_NAME)
-                                + " PARTITION (" + HiveUtils.quoteIdentifier(ProfilerConfiguration.OUTPUT_TABLE_PARTITION_COLUMN_NAME) + "="
-                                + HiveUtils.quoteString(ProfilerConfiguration.INPUT_AND_OUTPUT_TABLE_PARTITION_KEY) + ")"
+        String insertTableSQL = "INSERT INTO TABLE " + HiveUtils.quoteIdentifier(profilerConfiguration.getOutputDbName(), profilerConfiguration.getOutputTableName())
+                                + " PARTITION (" + HiveUtils.quoteIdentifier(profilerConfiguration.getOutputTablePartitionColumnName()) + "="
+                                + HiveUtils.quoteString(profilerConfiguration.getInputAndOutputTablePartitionKey()) + ")"
                                 + " SELECT columnname,metrictype,metricvalue FROM " + HiveUtils.quoteIdentifier(tempTable);
 
         scs.sql(hiveContext, insertTableSQL);
 
         System.out.println("[PROFILER-INFO] Metrics written to Hive table: "
-                           + ProfilerConfiguration.OUTPUT_DB_NAME + "." + ProfilerConfiguration.OUTPUT_TABLE_NAME
-                           + " Partition: (" + ProfilerConfiguration.OUTPUT_TABLE_PARTITION_COLUMN_NAME + "='" + ProfilerConfiguration.INPUT_AND_OUTPUT_TABLE_PARTITION_KEY + "')"
+                           + profilerConfiguration.getOutputDbName() + "." + profilerConfiguration.getOutputTableName()
+                           + " Partition: (" + profilerConfiguration.getOutputTablePartitionColumnName() + "='" + profilerConfiguration.getInputAndOutputTablePartitionKey() + "')"
                            + " [" + outputRows.size() + " rows]");
     }
 
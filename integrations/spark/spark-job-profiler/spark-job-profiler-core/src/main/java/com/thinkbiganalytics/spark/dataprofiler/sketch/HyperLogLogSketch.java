@@ -0,0 +1,154 @@
+package com.thinkbiganalytics.spark.dataprofiler.sketch;
+
+/*-
+ * #%L
+ * thinkbig-spark-job-profiler-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+
+/**
+ * HyperLogLog estimate of the number of distinct values in a column<br>
+ * Sketches with the same precision can be merged, so partitions can be counted independently and combined without shuffling the values.
+ * The standard error is about 1.04 / sqrt(2^precision).
+ */
+@SuppressWarnings("serial")
+public class HyperLogLogSketch implements Serializable {
+
+    /* Hash used for null, which counts as a distinct value */
+    private static final long NULL_HASH = 0x9e3779b97f4a7c15L;
+
+    private final int precision;
+    private final byte[] registers;
+
+
+    /**
+     * Constructor to set the precision
+     *
+     * @param precision number of hash bits used to pick a register (4 to 18)
+     */
+    public HyperLogLogSketch(int precision) {
+
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 18: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+
+    /**
+     * Include a value in the estimate
+     *
+     * @param value value (may be null)
+     */
+    public void add(Object value) {
+
+        long hash = hash(value);
+        int index = (int) (hash >>> (64 - precision));
+        long remaining = hash << precision;
+        int rank = Math.min(Long.numberOfLeadingZeros(remaining), 64 - precision) + 1;
+
+        if (registers[index] < rank) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+
+    /**
+     * Merge another sketch into this one
+     *
+     * @param other sketch with the same precision
+     */
+    public void merge(HyperLogLogSketch other) {
+
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog sketches with precision " + precision + " and " + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] < other.registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+
+    /**
+     * Get the estimated number of distinct values
+     *
+     * @return estimated distinct count
+     */
+    public long estimate() {
+
+        int m = registers.length;
+        double sum = 0.0d;
+        int zeroRegisters = 0;
+
+        for (byte register : registers) {
+            sum += 1.0d / (1L << register);
+            if (register == 0) {
+                zeroRegisters++;
+            }
+        }
+
+        double alpha = 0.7213d / (1.0d + 1.079d / m);
+        double estimate = alpha * m * m / sum;
+
+        /* Small range correction: linear counting is more accurate while registers are still empty */
+        if (estimate <= 2.5d * m && zeroRegisters > 0) {
+            estimate = m * Math.log((double) m / zeroRegisters);
+        }
+
+        return Math.round(estimate);
+    }
+
+
+    /**
+     * Get the precision
+     *
+     * @return number of hash bits used to pick a register
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+
+    /*
+     * 64-bit hash of the value's string form (FNV-1a, then the MurmurHash3 finalizer to spread the bits)
+     */
+    static long hash(Object value) {
+
+        if (value == null) {
+            return NULL_HASH;
+        }
+
+        String stringValue = String.valueOf(value);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < stringValue.length(); i++) {
+            hash ^= stringValue.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,168 @@
+package com.thinkbiganalytics.spark.dataprofiler.sketch;
+
+/*-
+ * #%L
+ * thinkbig-spark-job-profiler-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.dataprofiler.topn.TopNDataItem;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving summary of the most frequent values in a column<br>
+ * Tracks at most {@code capacity} values. When a new value arrives and the summary is full, the least frequent value is replaced
+ * and the new value inherits its count, so counts are upper bounds. Any value occurring more than totalCount / capacity times is guaranteed to be kept.
+ */
+@SuppressWarnings("serial")
+public class SpaceSavingSketch implements Serializable {
+
+    private final int capacity;
+    private final Map<Object, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> countersByCount = new TreeSet<>();
+    private long sequence = 0L;
+
+
+    /**
+     * Constructor to set the number of values tracked
+     *
+     * @param capacity maximum number of values tracked
+     */
+    public SpaceSavingSketch(int capacity) {
+
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Space-Saving capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+
+    /**
+     * Include a value in the summary
+     *
+     * @param value value (may be null)
+     * @param count frequency/count
+     */
+    public void add(Object value, long count) {
+
+        Counter counter = counters.get(value);
+
+        if (counter != null) {
+            countersByCount.remove(counter);
+            counter.count += count;
+            countersByCount.add(counter);
+        } else if (counters.size() < capacity) {
+            counter = new Counter(value, count, sequence++);
+            counters.put(value, counter);
+            countersByCount.add(counter);
+        } else {
+            Counter smallest = countersByCount.pollFirst();
+            counters.remove(smallest.value);
+            counter = new Counter(value, smallest.count + count, sequence++);
+            counters.put(value, counter);
+            countersByCount.add(counter);
+        }
+    }
+
+
+    /**
+     * Merge another summary into this one. Counts are added, and only the {@code capacity} most frequent values are kept.
+     *
+     * @param other summary to merge
+     */
+    public void merge(SpaceSavingSketch other) {
+
+        for (Counter otherCounter : other.countersByCount) {
+            Counter counter = counters.get(otherCounter.value);
+            if (counter != null) {
+                countersByCount.remove(counter);
+                counter.count += otherCounter.count;
+            } else {
+                counter = new Counter(otherCounter.value, otherCounter.count, sequence++);
+                counters.put(counter.value, counter);
+            }
+            countersByCount.add(counter);
+        }
+
+        while (countersByCount.size() > capacity) {
+            counters.remove(countersByCount.pollFirst().value);
+        }
+    }
+
+
+    /**
+     * Get the most frequent values
+     *
+     * @param n number of values to return
+     * @return up to n items, highest count first
+     */
+    public List<TopNDataItem> getTopN(int n) {
+
+        List<TopNDataItem> items = new ArrayList<>();
+        Iterator<Counter> iterator = countersByCount.descendingIterator();
+
+        while (iterator.hasNext() && items.size() < n) {
+            Counter counter = iterator.next();
+            items.add(new TopNDataItem(counter.value, counter.count));
+        }
+
+        return items;
+    }
+
+
+    /**
+     * Get the maximum number of values tracked
+     *
+     * @return capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+
+    /*
+     * Count for a tracked value. Ordered by count, then by arrival so that the first value seen wins ties.
+     */
+    private static class Counter implements Serializable, Comparable<Counter> {
+
+        private final Object value;
+        private final long sequence;
+        private long count;
+
+        Counter(Object value, long count, long sequence) {
+            this.value = value;
+            this.count = count;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Counter other) {
+
+            if (count != other.count) {
+                return count < other.count ? -1 : 1;
+            }
+            return sequence < other.sequence ? 1 : (sequence > other.sequence ? -1 : 0);
+        }
+    }
+}
@@ -2,7 +2,7 @@ package com.thinkbiganalytics.spark.dataprofiler.topn;
 
 /*-
  * #%L
- * thinkbig-spark-job-profiler-app
+ * thinkbig-spark-job-profiler-core
  * %%
  * Copyright (C) 2017 ThinkBig Analytics
  * %%
@@ -33,7 +33,7 @@ import java.util.TreeSet;
 public class TopNDataList implements Serializable {
 
     private final TreeSet<TopNDataItem> topNDataItemsForColumn;
-    private int maxSize = ProfilerConfiguration.NUMBER_OF_TOP_N_VALUES;
+    private int maxSize = ProfilerConfiguration.DEFAULT_NUMBER_OF_TOP_N_VALUES;
     private Long lowestCountSoFar = Long.MAX_VALUE;
 
 
@@ -84,6 +84,15 @@ public class TopNDataList implements Serializable {
     }
 
 
+    /**
+     * Remove all items
+     */
+    public void clear() {
+        topNDataItemsForColumn.clear();
+        lowestCountSoFar = Long.MAX_VALUE;
+    }
+
+
     /**
      * Print the top-N items as a string. This will give Top-N items in generally expected format (highest count first, lowest count last)<br>
      *
@@ -44,7 +44,7 @@ import scala.Tuple2;
 public class ProfilerStrategyV1 implements ProfilerStrategy {
 
     @Override
-    public StatisticsModel profileStatistics(DataSet set, Broadcast<Map<Integer, StructField>> bSchemaMap) {
+    public StatisticsModel profileStatistics(DataSet set, Broadcast<Map<Integer, StructField>> bSchemaMap, ProfilerConfiguration profilerConfiguration) {
         JavaPairRDD<Tuple2<Integer, Object>, Integer> columnValueCounts;
         StatisticsModel profileStatisticsModel = null;
 
@@ -55,7 +55,7 @@ public class ProfilerStrategyV1 implements ProfilerStrategy {
             .reduceByKey(new TotalColumnValueCounts());
 
         /* Generate the profile model */
-        JavaRDD<StatisticsModel> partitionLevelModels = columnValueCounts.mapPartitions(new PartitionLevelModels(bSchemaMap));
+        JavaRDD<StatisticsModel> partitionLevelModels = columnValueCounts.mapPartitions(new PartitionLevelModels(bSchemaMap, profilerConfiguration));
 
         if (!partitionLevelModels.isEmpty()) {
             profileStatisticsModel = partitionLevelModels.reduce(new CombineModels());
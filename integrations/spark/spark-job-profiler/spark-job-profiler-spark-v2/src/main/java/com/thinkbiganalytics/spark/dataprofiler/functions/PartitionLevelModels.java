@@ -20,6 +20,7 @@ package com.thinkbiganalytics.spark.dataprofiler.functions;
  * #L%
  */
 
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
 import com.thinkbiganalytics.spark.dataprofiler.model.StatisticsModel;
 
 import org.apache.spark.api.java.function.FlatMapFunction;
@@ -42,15 +43,17 @@ public class PartitionLevelModels implements
                                   FlatMapFunction<Iterator<Tuple2<Tuple2<Integer, Object>, Integer>>, StatisticsModel> {
 
     private Map<Integer, StructField> schemaMap = new HashMap<>();
+    private final ProfilerConfiguration profilerConfiguration;
 
 
-    public PartitionLevelModels(Broadcast<Map<Integer, StructField>> bSchemaMap) {
+    public PartitionLevelModels(Broadcast<Map<Integer, StructField>> bSchemaMap, ProfilerConfiguration profilerConfiguration) {
         schemaMap = bSchemaMap.value();
+        this.profilerConfiguration = profilerConfiguration;
     }
 
     @Override
     public Iterator<StatisticsModel> call(Iterator<Tuple2<Tuple2<Integer, Object>, Integer>> iter) throws Exception {
-        StatisticsModel statisticsModel = new StatisticsModel();
+        StatisticsModel statisticsModel = new StatisticsModel(profilerConfiguration);
 
         while (iter.hasNext()) {
             Tuple2<Tuple2<Integer, Object>, Integer> item = iter.next();
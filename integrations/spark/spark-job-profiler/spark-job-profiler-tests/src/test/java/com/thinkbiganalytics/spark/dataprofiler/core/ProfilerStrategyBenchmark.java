@@ -0,0 +1,212 @@
+package com.thinkbiganalytics.spark.dataprofiler.core;
+
+/*-
+ * #%L
+ * thinkbig-spark-job-profiler-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.DataSet;
+import com.thinkbiganalytics.spark.SparkContextService;
+import com.thinkbiganalytics.spark.dataprofiler.columns.ColumnStatistics;
+import com.thinkbiganalytics.spark.dataprofiler.model.StatisticsModel;
+
+import org.apache.spark.JavaSparkListener;
+import org.apache.spark.SparkConf;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.executor.TaskMetrics;
+import org.apache.spark.scheduler.SparkListenerTaskEnd;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.SQLContext;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the runtime and shuffle volume of the exact profiler strategy with the sketch based {@link ProfilerStrategyV3}.<br>
+ * Skipped unless run with -Dprofiler.benchmark=true
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ComponentScan(basePackages = {"com.thinkbiganalytics"})
+@ContextConfiguration(classes = {Profiler.class, SpringTestConfigV1.class, SpringTestConfigV2.class})
+@ActiveProfiles("spark-v1")
+public class ProfilerStrategyBenchmark {
+
+    private static final int PARTITIONS = 8;
+
+    private final ProfilerConfiguration profilerConfiguration = new ProfilerConfiguration();
+    private JavaSparkContext sc;
+    private SQLContext sqlContext;
+    private ShuffleBytesListener shuffleBytesListener;
+
+    @Autowired
+    private Profiler profiler;
+
+    @SuppressWarnings("SpringJavaAutowiringInspection")
+    @Autowired
+    private ProfilerStrategy exactProfilerStrategy;
+
+    @SuppressWarnings("SpringJavaAutowiringInspection")
+    @Autowired
+    private SparkContextService scs;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(Boolean.getBoolean("profiler.benchmark"));
+
+        SparkConf conf = new SparkConf().setMaster("local[*]").setAppName("Profiler Benchmark");
+        sc = new JavaSparkContext(conf);
+        sqlContext = new SQLContext(sc);
+        shuffleBytesListener = new ShuffleBytesListener();
+        sc.sc().addSparkListener(shuffleBytesListener);
+    }
+
+    @After
+    public void tearDown() {
+        if (sc != null) {
+            sc.close();
+            sc = null;
+        }
+    }
+
+    /**
+     * 200 columns of low cardinality values
+     */
+    @Test
+    public void benchmarkWideData() {
+
+        final int columns = 200;
+        StructField[] fields = new StructField[columns];
+        for (int c = 0; c < columns; c++) {
+            fields[c] = DataTypes.createStructField("col" + c, c % 2 == 0 ? DataTypes.IntegerType : DataTypes.StringType, true);
+        }
+
+        JavaRDD<Row> rows = sc.parallelize(range(100000), PARTITIONS).map(i -> {
+            Object[] values = new Object[columns];
+            for (int c = 0; c < columns; c++) {
+                int value = (i * 31 + c) % (10 + c * 5);
+                values[c] = c % 2 == 0 ? (Object) value : "v" + value;
+            }
+            return RowFactory.create(values);
+        });
+
+        compare("wide", rows, DataTypes.createStructType(fields));
+    }
+
+    /**
+     * A few columns where almost every value is distinct
+     */
+    @Test
+    public void benchmarkHighCardinalityData() {
+
+        StructField[] fields = new StructField[]{
+            DataTypes.createStructField("id", DataTypes.LongType, true),
+            DataTypes.createStructField("uuid", DataTypes.StringType, true),
+            DataTypes.createStructField("amount", DataTypes.DoubleType, true),
+            DataTypes.createStructField("bucket", DataTypes.IntegerType, true)
+        };
+
+        JavaRDD<Row> rows = sc.parallelize(range(1000000), PARTITIONS).map(i -> RowFactory.create(
+            (long) i,
+            "id-" + Integer.toHexString(i * 0x9E3779B1),
+            i * 0.37d,
+            i % 1000));
+
+        compare("high cardinality", rows, DataTypes.createStructType(fields));
+    }
+
+    private void compare(String name, JavaRDD<Row> rows, StructType schema) {
+
+        DataSet dataSet = scs.toDataSet(sqlContext.createDataFrame(rows, schema).cache());
+        dataSet.javaRDD().count();
+        Broadcast<Map<Integer, StructField>> schemaMap = profiler.populateAndBroadcastSchemaMap(dataSet, sc);
+
+        shuffleBytesListener.reset();
+        long start = System.currentTimeMillis();
+        StatisticsModel exact = exactProfilerStrategy.profileStatistics(dataSet, schemaMap, profilerConfiguration);
+        long exactMillis = System.currentTimeMillis() - start;
+        long exactShuffleBytes = shuffleBytesListener.get();
+
+        shuffleBytesListener.reset();
+        start = System.currentTimeMillis();
+        StatisticsModel sketched = new ProfilerStrategyV3().profileStatistics(dataSet, schemaMap, profilerConfiguration);
+        long sketchMillis = System.currentTimeMillis() - start;
+        long sketchShuffleBytes = shuffleBytesListener.get();
+
+        System.out.println("\t*** " + name + ": exact " + exactMillis + " ms, " + exactShuffleBytes + " shuffle bytes; "
+                           + "sketches " + sketchMillis + " ms, " + sketchShuffleBytes + " shuffle bytes ***");
+
+        Assert.assertEquals(0L, sketchShuffleBytes);
+        for (Map.Entry<Integer, ColumnStatistics> entry : exact.getColumnStatisticsMap().entrySet()) {
+            ColumnStatistics sketchedColumn = sketched.getColumnStatisticsMap().get(entry.getKey());
+            Assert.assertEquals(entry.getValue().getTotalCount(), sketchedColumn.getTotalCount());
+            Assert.assertEquals(entry.getValue().getNullCount(), sketchedColumn.getNullCount());
+            Assert.assertEquals(entry.getValue().getUniqueCount(), sketchedColumn.getUniqueCount(), entry.getValue().getUniqueCount() * 0.05d);
+        }
+    }
+
+    private static List<Integer> range(int size) {
+        List<Integer> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    /*
+     * Sums the shuffle bytes written by all tasks
+     */
+    private static class ShuffleBytesListener extends JavaSparkListener {
+
+        private final AtomicLong shuffleBytes = new AtomicLong();
+
+        @Override
+        public void onTaskEnd(SparkListenerTaskEnd taskEnd) {
+            TaskMetrics metrics = taskEnd.taskMetrics();
+            if (metrics != null && metrics.shuffleWriteMetrics().isDefined()) {
+                shuffleBytes.addAndGet(metrics.shuffleWriteMetrics().get().shuffleBytesWritten());
+            }
+        }
+
+        long get() {
+            return shuffleBytes.get();
+        }
+
+        void reset() {
+            shuffleBytes.set(0L);
+        }
+    }
+}
@@ -280,7 +280,7 @@ public abstract class ProfilerTest {
             }
             */
             Broadcast<Map<Integer, StructField>> map = profiler.populateAndBroadcastSchemaMap(dataDF, sc);
-            StatisticsModel statsModel = profiler.profileStatistics(dataDF, map);
+            StatisticsModel statsModel = profiler.profileStatistics(dataDF, map, new ProfilerConfiguration());
             columnStatsMap = statsModel.getColumnStatisticsMap();
         }
     }
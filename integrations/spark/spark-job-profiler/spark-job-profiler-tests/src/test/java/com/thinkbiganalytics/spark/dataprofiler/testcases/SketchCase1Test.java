@@ -0,0 +1,184 @@
+package com.thinkbiganalytics.spark.dataprofiler.testcases;
+
+/*-
+ * #%L
+ * thinkbig-spark-job-profiler-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.dataprofiler.columns.ColumnStatistics;
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
+import com.thinkbiganalytics.spark.dataprofiler.model.SketchStatisticsModel;
+import com.thinkbiganalytics.spark.dataprofiler.model.StatisticsModel;
+import com.thinkbiganalytics.spark.dataprofiler.sketch.HyperLogLogSketch;
+import com.thinkbiganalytics.spark.dataprofiler.sketch.SpaceSavingSketch;
+import com.thinkbiganalytics.spark.dataprofiler.topn.TopNDataItem;
+
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sketch Test Case 1
+ */
+public class SketchCase1Test {
+
+    private final ProfilerConfiguration profilerConfiguration = new ProfilerConfiguration();
+
+    @Test
+    public void testUniqueCountEstimate() {
+
+        HyperLogLogSketch sketch = new HyperLogLogSketch(14);
+        for (int i = 0; i < 100000; i++) {
+            sketch.add("value-" + i);
+            sketch.add("value-" + (i / 2));
+        }
+
+        Assert.assertEquals(100000.0d, sketch.estimate(), 3000.0d);
+    }
+
+    @Test
+    public void testUniqueCountSmall() {
+
+        HyperLogLogSketch sketch = new HyperLogLogSketch(14);
+        sketch.add(null);
+        sketch.add("");
+        for (int i = 0; i < 8; i++) {
+            sketch.add(i);
+            sketch.add(i);
+        }
+
+        Assert.assertEquals(10L, sketch.estimate());
+    }
+
+    @Test
+    public void testUniqueCountMerge() {
+
+        HyperLogLogSketch sketch1 = new HyperLogLogSketch(14);
+        HyperLogLogSketch sketch2 = new HyperLogLogSketch(14);
+        for (int i = 0; i < 60000; i++) {
+            sketch1.add(i);
+            sketch2.add(i + 40000);
+        }
+
+        sketch1.merge(sketch2);
+        Assert.assertEquals(100000.0d, sketch1.estimate(), 3000.0d);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUniqueCountMergeDifferentPrecision() {
+        new HyperLogLogSketch(12).merge(new HyperLogLogSketch(14));
+    }
+
+    @Test
+    public void testTopNValues() {
+
+        SpaceSavingSketch sketch1 = new SpaceSavingSketch(50);
+        SpaceSavingSketch sketch2 = new SpaceSavingSketch(50);
+        for (int i = 0; i < 10000; i++) {
+            sketch1.add("noise-" + i, 1L);
+            sketch2.add("noise-" + (i + 10000), 1L);
+            if (i % 10 == 0) {
+                sketch1.add("A", 1L);
+                sketch2.add("A", 2L);
+            }
+            if (i % 20 == 0) {
+                sketch1.add("B", 1L);
+                sketch2.add(null, 1L);
+            }
+        }
+
+        sketch1.merge(sketch2);
+        List<TopNDataItem> topN = sketch1.getTopN(3);
+
+        Assert.assertEquals(3, topN.size());
+        Assert.assertEquals("A", topN.get(0).getValue());
+        Assert.assertTrue(topN.get(0).getCount() >= 3000L);
+        Assert.assertEquals("B", topN.get(1).getValue());
+        Assert.assertTrue(topN.get(1).getCount() >= 500L);
+        Assert.assertNull(topN.get(2).getValue());
+        Assert.assertTrue(topN.get(2).getCount() >= 500L);
+    }
+
+    @Test
+    public void testTopNValuesExactWithinCapacity() {
+
+        SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+        sketch.add("A", 18L);
+        sketch.add("B", 20L);
+        sketch.add("C", 15L);
+        sketch.add("D", 25L);
+        sketch.add("E", 19L);
+
+        List<TopNDataItem> topN = sketch.getTopN(3);
+        Assert.assertEquals("D", topN.get(0).getValue());
+        Assert.assertEquals(Long.valueOf(25), topN.get(0).getCount());
+        Assert.assertEquals("B", topN.get(1).getValue());
+        Assert.assertEquals("E", topN.get(2).getValue());
+    }
+
+    @Test
+    public void testSketchStatisticsModel() {
+
+        Map<Integer, StructField> schemaMap = new HashMap<>();
+        schemaMap.put(0, DataTypes.createStructField("id", DataTypes.IntegerType, true));
+        schemaMap.put(1, DataTypes.createStructField("pet", DataTypes.StringType, true));
+
+        SketchStatisticsModel model1 = new SketchStatisticsModel(profilerConfiguration);
+        SketchStatisticsModel model2 = new SketchStatisticsModel(profilerConfiguration);
+        model1.add(RowFactory.create(1, "Cat"), schemaMap);
+        model1.add(RowFactory.create(2, "Dog"), schemaMap);
+        model1.add(RowFactory.create(3, "Cat"), schemaMap);
+        model2.add(RowFactory.create(4, "Cat"), schemaMap);
+        model2.add(RowFactory.create(null, "Dog"), schemaMap);
+        model2.add(RowFactory.create(6, null), schemaMap);
+
+        model1.combine(model2);
+        StatisticsModel statisticsModel = model1.toStatisticsModel();
+
+        ColumnStatistics id = statisticsModel.getColumnStatisticsMap().get(0);
+        Assert.assertEquals(6L, id.getTotalCount());
+        Assert.assertEquals(1L, id.getNullCount());
+        Assert.assertEquals(6L, id.getUniqueCount());
+
+        ColumnStatistics pet = statisticsModel.getColumnStatisticsMap().get(1);
+        Assert.assertEquals(6L, pet.getTotalCount());
+        Assert.assertEquals(1L, pet.getNullCount());
+        Assert.assertEquals(3L, pet.getUniqueCount());
+        Assert.assertEquals(50.0d, pet.getPercUniqueValues(), 0.0001d);
+
+        Iterator<TopNDataItem> topN = pet.getTopNValues().getTopNDataItemsForColumn().descendingIterator();
+        TopNDataItem first = topN.next();
+        Assert.assertEquals("Cat", first.getValue());
+        Assert.assertEquals(Long.valueOf(3), first.getCount());
+        TopNDataItem second = topN.next();
+        Assert.assertEquals("Dog", second.getValue());
+        Assert.assertEquals(Long.valueOf(2), second.getCount());
+    }
+
+    @Test
+    public void testSketchStatisticsModelEmpty() {
+        Assert.assertTrue(new SketchStatisticsModel(profilerConfiguration).isEmpty());
+    }
+}
@@ -21,6 +21,7 @@ package com.thinkbiganalytics.spark.dataprofiler.testcases;
  */
 
 import com.thinkbiganalytics.spark.dataprofiler.columns.TimestampColumnStatistics;
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
 import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerTest;
 import com.thinkbiganalytics.spark.dataprofiler.output.OutputRow;
 import com.thinkbiganalytics.spark.dataprofiler.output.OutputWriter;
@@ -56,7 +57,7 @@ public class TimestampColumnCase2Test extends ProfilerTest {
     @Test
     public void accomodate() {
         // Test with a null value
-        TimestampColumnStatistics stats = new TimestampColumnStatistics(DataTypes.createStructField("ts", DataTypes.TimestampType, true));
+        TimestampColumnStatistics stats = new TimestampColumnStatistics(DataTypes.createStructField("ts", DataTypes.TimestampType, true), new ProfilerConfiguration());
         stats.accomodate(null, 1L);
         Assert.assertNull(stats.getMaxTimestamp());
         Assert.assertNull(stats.getMinTimestamp());
@@ -89,8 +90,8 @@ public class TimestampColumnCase2Test extends ProfilerTest {
     @Test
     public void combine() {
         // Test when 'this' is empty
-        TimestampColumnStatistics other = new TimestampColumnStatistics(DataTypes.createStructField("ts", DataTypes.TimestampType, true));
-        TimestampColumnStatistics stats = new TimestampColumnStatistics(DataTypes.createStructField("ts", DataTypes.TimestampType, true));
+        TimestampColumnStatistics other = new TimestampColumnStatistics(DataTypes.createStructField("ts", DataTypes.TimestampType, true), new ProfilerConfiguration());
+        TimestampColumnStatistics stats = new TimestampColumnStatistics(DataTypes.createStructField("ts", DataTypes.TimestampType, true), new ProfilerConfiguration());
         other.accomodate("2016-06-27 14:04:30", 1L);
         stats.combine(other);
 
@@ -99,7 +100,7 @@ public class TimestampColumnCase2Test extends ProfilerTest {
         Assert.assertEquals(ts1, stats.getMinTimestamp());
 
         // Test when other is empty
-        other = new TimestampColumnStatistics(DataTypes.createStructField("ts", DataTypes.TimestampType, true));
+        other = new TimestampColumnStatistics(DataTypes.createStructField("ts", DataTypes.TimestampType, true), new ProfilerConfiguration());
         stats.combine(other);
 
         Assert.assertEquals(ts1, stats.getMaxTimestamp());
@@ -128,7 +129,7 @@ public class TimestampColumnCase2Test extends ProfilerTest {
     @Test
     public void getVerboseStatistics() {
         // Test when empty
-        TimestampColumnStatistics stats = new TimestampColumnStatistics(DataTypes.createStructField("ts", DataTypes.TimestampType, true));
+        TimestampColumnStatistics stats = new TimestampColumnStatistics(DataTypes.createStructField("ts", DataTypes.TimestampType, true), new ProfilerConfiguration());
 
         String expected = "{\nColumnInfo [name=ts, datatype=timestamp, nullable=true, metadata={}]\n"
                           + "CommonStatistics [nullCount=0, totalCount=0, uniqueCount=0, percNullValues=0, percUniqueValues=0, percDuplicateValues=0]\n"
@@ -156,10 +157,11 @@ public class TimestampColumnCase2Test extends ProfilerTest {
     @Test
     public void writeStatistics() {
         // Test when empty
-        List<OutputRow> rows = OutputWriter.getInstance().getOutputRows();
-        TimestampColumnStatistics stats = new TimestampColumnStatistics(DataTypes.createStructField("ts", DataTypes.TimestampType, true));
+        OutputWriter outputWriter = new OutputWriter(new ProfilerConfiguration());
+        List<OutputRow> rows = outputWriter.getOutputRows();
+        TimestampColumnStatistics stats = new TimestampColumnStatistics(DataTypes.createStructField("ts", DataTypes.TimestampType, true), new ProfilerConfiguration());
         rows.clear();
-        stats.writeStatistics();
+        stats.writeStatistics(outputWriter);
 
         Assert.assertEquals(12, rows.size());
         Assert.assertEquals("OutputRow [columnName=ts, metricType=COLUMN_DATATYPE, metricValue=TimestampType]", rows.get(0).toString());
@@ -182,7 +184,7 @@ public class TimestampColumnCase2Test extends ProfilerTest {
         stats.accomodate("2016-06-27 14:04:30", 1L);
         stats.accomodate("2016-06-27 14:04:31", 1L);
         stats.accomodate(null, 1L);
-        stats.writeStatistics();
+        stats.writeStatistics(outputWriter);
 
         Assert.assertEquals(12, rows.size());
         Assert.assertEquals("OutputRow [columnName=ts, metricType=COLUMN_DATATYPE, metricValue=TimestampType]", rows.get(0).toString());
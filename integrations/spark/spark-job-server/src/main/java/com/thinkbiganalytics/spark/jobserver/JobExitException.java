@@ -0,0 +1,50 @@
+package com.thinkbiganalytics.spark.jobserver;
+
+/*-
+ * #%L
+ * kylo-spark-job-server
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Thrown in place of exiting the JVM when a job calls {@link System#exit(int)}.
+ */
+public class JobExitException extends SecurityException {
+
+    private static final long serialVersionUID = -3617441528512232014L;
+
+    private final int status;
+
+    /**
+     * Constructs a {@code JobExitException} with the specified exit status.
+     *
+     * @param status the exit status
+     */
+    public JobExitException(final int status) {
+        super("Job exited with status " + status);
+        this.status = status;
+    }
+
+    /**
+     * Gets the status passed to {@link System#exit(int)}.
+     *
+     * @return the exit status
+     */
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,153 @@
+package com.thinkbiganalytics.spark.jobserver;
+
+/*-
+ * #%L
+ * kylo-spark-job-server
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Captures the standard output and error of jobs.
+ *
+ * <p>{@link System#out} and {@link System#err} are replaced by streams that write to the buffer of the current job, or to the original stream for
+ * threads that are not running a job. The buffer is inherited by threads started by the job.</p>
+ *
+ * <p>Log4j console appenders keep the stream that was current when they were configured, so they should set {@code follow=true} for job log
+ * messages to be captured.</p>
+ */
+public final class JobOutput {
+
+    /**
+     * Maximum number of bytes kept for each job
+     */
+    static final int MAX_BYTES = 1048576;
+
+    /**
+     * Output buffer of the job running in the current thread
+     */
+    private static final InheritableThreadLocal<ByteArrayOutputStream> CURRENT = new InheritableThreadLocal<>();
+
+    /**
+     * Indicates that the system streams have been replaced
+     */
+    private static boolean installed;
+
+    private JobOutput() {
+    }
+
+    /**
+     * Replaces the system output and error streams. This should be called before any logging is configured.
+     */
+    public static synchronized void install() {
+        if (!installed) {
+            System.setOut(new PrintStream(new RoutingOutputStream(System.out), true));
+            System.setErr(new PrintStream(new RoutingOutputStream(System.err), true));
+            installed = true;
+        }
+    }
+
+    /**
+     * Starts capturing the output of the current thread, and threads started by it, to the specified buffer.
+     *
+     * @param buffer the job output buffer
+     */
+    public static void begin(@Nonnull final ByteArrayOutputStream buffer) {
+        CURRENT.set(buffer);
+    }
+
+    /**
+     * Stops capturing the output of the current thread.
+     */
+    public static void end() {
+        System.out.flush();
+        System.err.flush();
+        CURRENT.remove();
+    }
+
+    /**
+     * Indicates if the current thread is running a job.
+     *
+     * @return {@code true} if the output of the current thread is being captured
+     */
+    public static boolean isJobThread() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Gets the output captured in the specified buffer.
+     *
+     * @param buffer the job output buffer
+     * @return the job output
+     */
+    @Nonnull
+    public static String toString(@Nonnull final ByteArrayOutputStream buffer) {
+        synchronized (buffer) {
+            return new String(buffer.toByteArray());
+        }
+    }
+
+    /**
+     * Writes to the buffer of the current job, or to the original stream if the current thread is not running a job.
+     */
+    private static class RoutingOutputStream extends OutputStream {
+
+        @Nonnull
+        private final OutputStream delegate;
+
+        RoutingOutputStream(@Nonnull final OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            final ByteArrayOutputStream buffer = CURRENT.get();
+            if (buffer == null) {
+                delegate.write(b);
+            } else {
+                synchronized (buffer) {
+                    if (buffer.size() < MAX_BYTES) {
+                        buffer.write(b);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void write(@Nonnull final byte[] b, final int off, final int len) throws IOException {
+            final ByteArrayOutputStream buffer = CURRENT.get();
+            if (buffer == null) {
+                delegate.write(b, off, len);
+            } else {
+                synchronized (buffer) {
+                    buffer.write(b, off, Math.max(0, Math.min(len, MAX_BYTES - buffer.size())));
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.thinkbiganalytics.spark.jobserver;
+
+/*-
+ * #%L
+ * kylo-spark-job-server
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.security.Permission;
+
+/**
+ * Prevents jobs from exiting the job server JVM. All other operations are permitted.
+ *
+ * <p>The status of the first exit by a job thread is recorded, so it is reported even if the job catches the {@link JobExitException}.</p>
+ */
+public class JobSecurityManager extends SecurityManager {
+
+    /**
+     * Status of the first exit by the job running in the current thread
+     */
+    private static final ThreadLocal<Integer> EXIT_STATUS = new ThreadLocal<>();
+
+    /**
+     * Clears the exit status recorded for the current thread.
+     */
+    static void clearExitStatus() {
+        EXIT_STATUS.remove();
+    }
+
+    /**
+     * Gets the status of the first exit by the current thread since it was last cleared.
+     *
+     * @return the exit status, or {@code null} if the current thread has not exited
+     */
+    static Integer getExitStatus() {
+        return EXIT_STATUS.get();
+    }
+
+    @Override
+    public void checkExit(final int status) {
+        if (JobOutput.isJobThread()) {
+            if (EXIT_STATUS.get() == null) {
+                EXIT_STATUS.set(status);
+            }
+            throw new JobExitException(status);
+        }
+    }
+
+    @Override
+    public void checkPermission(final Permission perm) {
+        // permitted
+    }
+
+    @Override
+    public void checkPermission(final Permission perm, final Object context) {
+        // permitted
+    }
+}
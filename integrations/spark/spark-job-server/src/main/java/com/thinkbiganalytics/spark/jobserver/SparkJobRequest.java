@@ -0,0 +1,129 @@
+package com.thinkbiganalytics.spark.jobserver;
+
+/*-
+ * #%L
+ * kylo-spark-job-server
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A request to run the main class of a Spark application in the job server.
+ */
+public class SparkJobRequest {
+
+    private String group;
+    private String name;
+    private String appJar;
+    private String mainClass;
+    private List<String> args = new ArrayList<>();
+    private List<String> jars = new ArrayList<>();
+    private long timeoutSeconds = 3600;
+
+    /**
+     * Gets the group, usually the feed, used to limit the number of concurrent jobs.
+     *
+     * @return the concurrency group
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
+    /**
+     * Gets the description of the job shown in the Spark UI.
+     *
+     * @return the job name
+     */
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the path to the JAR file containing the Spark application.
+     *
+     * @return the application JAR
+     */
+    public String getAppJar() {
+        return appJar;
+    }
+
+    public void setAppJar(String appJar) {
+        this.appJar = appJar;
+    }
+
+    /**
+     * Gets the qualified name of the class containing the {@code main} method.
+     *
+     * @return the main class
+     */
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    public void setMainClass(String mainClass) {
+        this.mainClass = mainClass;
+    }
+
+    /**
+     * Gets the arguments passed to the {@code main} method.
+     *
+     * @return the application arguments
+     */
+    public List<String> getArgs() {
+        return args;
+    }
+
+    public void setArgs(List<String> args) {
+        this.args = args;
+    }
+
+    /**
+     * Gets the paths to additional JAR files to add to the class path.
+     *
+     * @return the extra JARs
+     */
+    public List<String> getJars() {
+        return jars;
+    }
+
+    public void setJars(List<String> jars) {
+        this.jars = jars;
+    }
+
+    /**
+     * Gets the time to wait for the job, including time spent waiting for other jobs in the same group, before it is cancelled.
+     *
+     * @return the timeout in seconds
+     */
+    public long getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public void setTimeoutSeconds(long timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+}
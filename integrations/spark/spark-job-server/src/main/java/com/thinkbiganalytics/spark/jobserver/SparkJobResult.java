@@ -0,0 +1,84 @@
+package com.thinkbiganalytics.spark.jobserver;
+
+/*-
+ * #%L
+ * kylo-spark-job-server
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * The result of running a Spark application in the job server.
+ */
+public class SparkJobResult {
+
+    /**
+     * Exit code used when the job did not complete
+     */
+    public static final int NOT_COMPLETED = -1;
+
+    private int exitCode;
+    private boolean timedOut;
+    private String log;
+
+    public SparkJobResult() {
+    }
+
+    public SparkJobResult(int exitCode, boolean timedOut, String log) {
+        this.exitCode = exitCode;
+        this.timedOut = timedOut;
+        this.log = log;
+    }
+
+    /**
+     * Gets the status passed to {@code System.exit}, or 0 if the main method returned normally.
+     *
+     * @return the exit code
+     */
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    public void setExitCode(int exitCode) {
+        this.exitCode = exitCode;
+    }
+
+    /**
+     * Indicates that the job was cancelled because it did not finish in time.
+     *
+     * @return {@code true} if the job timed out
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public void setTimedOut(boolean timedOut) {
+        this.timedOut = timedOut;
+    }
+
+    /**
+     * Gets the standard output and error written by the job.
+     *
+     * @return the job log
+     */
+    public String getLog() {
+        return log;
+    }
+
+    public void setLog(String log) {
+        this.log = log;
+    }
+}
@@ -0,0 +1,255 @@
+package com.thinkbiganalytics.spark.jobserver;
+
+/*-
+ * #%L
+ * kylo-spark-job-server
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.spark.SparkContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Runs the main class of Spark applications using a shared {@link SparkContext}.
+ *
+ * <p>Each job runs in its own thread and Spark job group so it can be cancelled independently. The number of jobs running concurrently for the
+ * same group is limited.</p>
+ */
+public class SparkJobRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SparkJobRunner.class);
+
+    /**
+     * Runs jobs
+     */
+    @Nonnull
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /**
+     * Maximum number of concurrent jobs for each group
+     */
+    private final int maxConcurrentJobs;
+
+    /**
+     * Available permits for each group
+     */
+    @Nonnull
+    private final ConcurrentMap<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    /**
+     * Shared Spark context
+     */
+    @Nonnull
+    private final SparkContext sparkContext;
+
+    /**
+     * Constructs a {@code SparkJobRunner}.
+     *
+     * @param sparkContext      the shared Spark context
+     * @param maxConcurrentJobs the maximum number of concurrent jobs for each group
+     */
+    public SparkJobRunner(@Nonnull final SparkContext sparkContext, final int maxConcurrentJobs) {
+        this.sparkContext = sparkContext;
+        this.maxConcurrentJobs = maxConcurrentJobs;
+    }
+
+    /**
+     * Runs the specified job and waits for it to complete.
+     *
+     * @param request the job request
+     * @return the job result
+     * @throws InterruptedException if interrupted while waiting for the job
+     */
+    @Nonnull
+    public SparkJobResult run(@Nonnull final SparkJobRequest request) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(request.getTimeoutSeconds());
+        final String group = (request.getGroup() != null) ? request.getGroup() : "default";
+
+        // Wait for other jobs in the group
+        final Semaphore groupPermits = getPermits(group);
+        if (!groupPermits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            log.warn("Timed out waiting for {} running jobs in group {}", maxConcurrentJobs, group);
+            return new SparkJobResult(SparkJobResult.NOT_COMPLETED, true, "Timed out waiting for other jobs in group " + group + " to complete");
+        }
+
+        try {
+            return runJob(request, group + "-" + UUID.randomUUID(), deadline);
+        } finally {
+            groupPermits.release();
+        }
+    }
+
+    /**
+     * Stops running jobs.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Gets the permits for the specified group.
+     *
+     * @param group the concurrency group
+     * @return the permits
+     */
+    @Nonnull
+    private Semaphore getPermits(@Nonnull final String group) {
+        Semaphore semaphore = permits.get(group);
+        if (semaphore == null) {
+            final Semaphore newSemaphore = new Semaphore(maxConcurrentJobs, true);
+            semaphore = permits.putIfAbsent(group, newSemaphore);
+            if (semaphore == null) {
+                semaphore = newSemaphore;
+            }
+        }
+        return semaphore;
+    }
+
+    /**
+     * Runs the specified job in its own thread and Spark job group.
+     *
+     * @param request  the job request
+     * @param jobGroup the Spark job group
+     * @param deadline the {@link System#nanoTime()} when the job should be cancelled
+     * @return the job result
+     * @throws InterruptedException if interrupted while waiting for the job
+     */
+    @Nonnull
+    private SparkJobResult runJob(@Nonnull final SparkJobRequest request, @Nonnull final String jobGroup, final long deadline) throws InterruptedException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final Future<Integer> future = executor.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                JobOutput.begin(output);
+                try {
+                    return runMain(request, jobGroup);
+                } finally {
+                    JobOutput.end();
+                }
+            }
+        });
+
+        log.info("Running job {} with main class {}", jobGroup, request.getMainClass());
+        int exitCode;
+        boolean timedOut = false;
+
+        try {
+            exitCode = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (final ExecutionException e) {
+            exitCode = 1;
+            final PrintStream stream = new PrintStream(output, true);
+            synchronized (output) {
+                e.getCause().printStackTrace(stream);
+            }
+        } catch (final TimeoutException e) {
+            exitCode = SparkJobResult.NOT_COMPLETED;
+            timedOut = true;
+            sparkContext.cancelJobGroup(jobGroup);
+            future.cancel(true);
+        } catch (final InterruptedException e) {
+            sparkContext.cancelJobGroup(jobGroup);
+            future.cancel(true);
+            throw e;
+        }
+
+        log.info("Job {} completed with exit code {}{}", jobGroup, exitCode, timedOut ? " after timing out" : "");
+        return new SparkJobResult(exitCode, timedOut, JobOutput.toString(output));
+    }
+
+    /**
+     * Invokes the main method of the job in the current thread. A job that calls {@code System.exit} reports that status, even if it catches the resulting
+     * {@link JobExitException}.
+     *
+     * @param request  the job request
+     * @param jobGroup the Spark job group
+     * @return the exit code
+     * @throws Exception if the job fails
+     */
+    private int runMain(@Nonnull final SparkJobRequest request, @Nonnull final String jobGroup) throws Exception {
+        // Load application classes
+        final List<String> jars = new ArrayList<>();
+        if (request.getAppJar() != null) {
+            jars.add(request.getAppJar());
+        }
+        if (request.getJars() != null) {
+            jars.addAll(request.getJars());
+        }
+
+        final List<URL> urls = new ArrayList<>();
+        for (final String jar : jars) {
+            urls.add(new File(jar.trim()).toURI().toURL());
+            sparkContext.addJar(jar.trim());
+        }
+
+        final Thread currentThread = Thread.currentThread();
+        final ClassLoader contextClassLoader = currentThread.getContextClassLoader();
+
+        JobSecurityManager.clearExitStatus();
+        try (URLClassLoader classLoader = new URLClassLoader(urls.toArray(new URL[urls.size()]), getClass().getClassLoader())) {
+            currentThread.setContextClassLoader(classLoader);
+            sparkContext.setJobGroup(jobGroup, (request.getName() != null) ? request.getName() : request.getMainClass(), true);
+
+            final Method main = Class.forName(request.getMainClass(), true, classLoader).getMethod("main", String[].class);
+            final List<String> args = (request.getArgs() != null) ? request.getArgs() : new ArrayList<String>();
+            main.invoke(null, (Object) args.toArray(new String[args.size()]));
+            final Integer exitStatus = JobSecurityManager.getExitStatus();
+            return (exitStatus != null) ? exitStatus : 0;
+        } catch (final InvocationTargetException e) {
+            final Throwable cause = e.getCause();
+            final Integer exitStatus = JobSecurityManager.getExitStatus();
+            if (exitStatus != null) {
+                return exitStatus;
+            } else if (cause instanceof JobExitException) {
+                return ((JobExitException) cause).getStatus();
+            } else if (cause instanceof Exception) {
+                throw (Exception) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw e;
+            }
+        } finally {
+            JobSecurityManager.clearExitStatus();
+            sparkContext.clearJobGroup();
+            currentThread.setContextClassLoader(contextClassLoader);
+        }
+    }
+}
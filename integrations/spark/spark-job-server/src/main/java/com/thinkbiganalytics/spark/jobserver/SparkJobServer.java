@@ -0,0 +1,244 @@
+package com.thinkbiganalytics.spark.jobserver;
+
+/*-
+ * #%L
+ * kylo-spark-job-server
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.apache.spark.SparkConf;
+import org.apache.spark.SparkContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A long-running Spark application that runs the main class of other Spark applications using a shared {@link SparkContext}.
+ *
+ * <p>Jobs are submitted by posting a {@link SparkJobRequest} to {@code /api/v1/jobs} on the loopback interface. The response is a
+ * {@link SparkJobResult} once the job completes. Arguments are the port number and the maximum number of concurrent jobs per group.</p>
+ *
+ * <p>Since a job runs arbitrary code, requests must include the token from the {@code SPARK_JOB_SERVER_TOKEN} environment variable in the
+ * {@code X-Spark-Job-Server-Token} header. Other local users and processes cannot submit jobs without it.</p>
+ */
+public class SparkJobServer {
+
+    private static final Logger log = LoggerFactory.getLogger(SparkJobServer.class);
+
+    /**
+     * Default port number
+     */
+    public static final int DEFAULT_PORT = 8452;
+
+    /**
+     * Path for submitting jobs
+     */
+    public static final String JOBS_PATH = "/api/v1/jobs";
+
+    /**
+     * Path for checking that the server is running
+     */
+    public static final String STATUS_PATH = "/api/v1/status";
+
+    /**
+     * Request header containing the token
+     */
+    public static final String TOKEN_HEADER = "X-Spark-Job-Server-Token";
+
+    /**
+     * Environment variable containing the token
+     */
+    public static final String TOKEN_ENV = "SPARK_JOB_SERVER_TOKEN";
+
+    /**
+     * Converts requests and results to JSON
+     */
+    @Nonnull
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Handles HTTP requests, each of which may wait for a job to complete
+     */
+    @Nonnull
+    private final ExecutorService requestExecutor = Executors.newCachedThreadPool();
+
+    /**
+     * Runs jobs
+     */
+    @Nonnull
+    private final SparkJobRunner runner;
+
+    /**
+     * HTTP server
+     */
+    @Nonnull
+    private final HttpServer server;
+
+    /**
+     * Token required to submit jobs
+     */
+    @Nonnull
+    private final byte[] token;
+
+    /**
+     * Constructs a {@code SparkJobServer} listening on the specified port.
+     *
+     * @param runner the job runner
+     * @param port   the port number, or 0 for any available port
+     * @param token  the token required to submit jobs
+     * @throws IOException if the server cannot be created
+     */
+    public SparkJobServer(@Nonnull final SparkJobRunner runner, final int port, @Nonnull final String token) throws IOException {
+        if (token.isEmpty()) {
+            throw new IllegalArgumentException("Token must not be empty");
+        }
+        this.runner = runner;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.createContext(JOBS_PATH, new JobsHandler());
+        this.server.createContext(STATUS_PATH, new StatusHandler());
+        this.server.setExecutor(requestExecutor);
+    }
+
+    /**
+     * Starts the job server with the specified arguments.
+     *
+     * @param args the port number and the maximum number of concurrent jobs per group
+     * @throws Exception if the server cannot be started
+     */
+    public static void main(String[] args) throws Exception {
+        // Capture job output before logging is used
+        JobOutput.install();
+        System.setSecurityManager(new JobSecurityManager());
+
+        final int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        final int maxConcurrentJobs = (args.length > 1) ? Integer.parseInt(args[1]) : 1;
+        final String token = System.getenv(TOKEN_ENV);
+        if (token == null || token.isEmpty()) {
+            throw new IllegalStateException("The " + TOKEN_ENV + " environment variable must be set");
+        }
+
+        final SparkContext sparkContext = SparkContext.getOrCreate(new SparkConf().setAppName("SparkJobServer"));
+        final SparkJobServer server = new SparkJobServer(new SparkJobRunner(sparkContext, maxConcurrentJobs), port, token);
+        server.start();
+        log.info("Spark job server listening on port {} with at most {} concurrent jobs per group", server.getPort(), maxConcurrentJobs);
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     *
+     * @return the port number
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and cancels running jobs.
+     */
+    public void stop() {
+        server.stop(0);
+        runner.shutdown();
+        requestExecutor.shutdownNow();
+    }
+
+    /**
+     * Writes the specified response.
+     *
+     * @param exchange the HTTP exchange
+     * @param status   the HTTP status code
+     * @param body     the response body
+     * @throws IOException if the response cannot be written
+     */
+    private static void respond(@Nonnull final HttpExchange exchange, final int status, @Nonnull final byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, (body.length > 0) ? body.length : -1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Runs a job and responds with its result.
+     */
+    private class JobsHandler implements HttpHandler {
+
+        @Override
+        public void handle(@Nonnull final HttpExchange exchange) throws IOException {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, new byte[0]);
+                return;
+            }
+
+            final String requestToken = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+            if (requestToken == null || !MessageDigest.isEqual(token, requestToken.getBytes(StandardCharsets.UTF_8))) {
+                log.warn("Rejected job request without a valid token from {}", exchange.getRemoteAddress());
+                respond(exchange, 401, new byte[0]);
+                return;
+            }
+
+            final SparkJobRequest request;
+            try {
+                request = objectMapper.readValue(exchange.getRequestBody(), SparkJobRequest.class);
+            } catch (final IOException e) {
+                log.warn("Invalid job request: {}", e.toString());
+                respond(exchange, 400, new byte[0]);
+                return;
+            }
+
+            try {
+                respond(exchange, 200, objectMapper.writeValueAsBytes(runner.run(request)));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 503, new byte[0]);
+            }
+        }
+    }
+
+    /**
+     * Responds when the server is ready to run jobs.
+     */
+    private static class StatusHandler implements HttpHandler {
+
+        @Override
+        public void handle(@Nonnull final HttpExchange exchange) throws IOException {
+            respond(exchange, 200, "{\"status\":\"OK\"}".getBytes("UTF-8"));
+        }
+    }
+}
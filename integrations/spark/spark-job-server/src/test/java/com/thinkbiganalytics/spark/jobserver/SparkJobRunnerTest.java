@@ -0,0 +1,188 @@
+package com.thinkbiganalytics.spark.jobserver;
+
+/*-
+ * #%L
+ * kylo-spark-job-server
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.spark.SparkContext;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class SparkJobRunnerTest {
+
+    private static CountDownLatch started;
+    private static CountDownLatch release;
+
+    private SparkContext sparkContext;
+    private SparkJobRunner runner;
+
+    @Before
+    public void setUp() {
+        JobOutput.install();
+        System.setSecurityManager(new JobSecurityManager());
+
+        started = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        sparkContext = Mockito.mock(SparkContext.class);
+        runner = new SparkJobRunner(sparkContext, 1);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        runner.shutdown();
+        System.setSecurityManager(null);
+    }
+
+    /**
+     * Verify the output and exit code of a job that calls {@code System.exit}.
+     */
+    @Test
+    public void runWithExit() throws Exception {
+        final SparkJobResult result = runner.run(newRequest("feed", ExitJob.class, 60));
+
+        Assert.assertEquals(3, result.getExitCode());
+        Assert.assertFalse(result.isTimedOut());
+        Assert.assertTrue(result.getLog().contains("exiting with arg"));
+        Mockito.verify(sparkContext).setJobGroup(Mockito.startsWith("feed-"), Mockito.eq(ExitJob.class.getName()), Mockito.eq(true));
+    }
+
+    /**
+     * Verify a job that exits on failure reports the failure even if it catches the exit, as the validator does.
+     */
+    @Test
+    public void runWithCaughtExit() throws Exception {
+        final SparkJobResult result = runner.run(newRequest("feed", CaughtExitJob.class, 60));
+
+        Assert.assertEquals(1, result.getExitCode());
+        Assert.assertFalse(result.isTimedOut());
+        Assert.assertTrue(result.getLog().contains("validation failed"));
+    }
+
+    /**
+     * Verify a job that throws an exception.
+     */
+    @Test
+    public void runWithException() throws Exception {
+        final SparkJobResult result = runner.run(newRequest("feed", FailJob.class, 60));
+
+        Assert.assertEquals(1, result.getExitCode());
+        Assert.assertTrue(result.getLog().contains("job failed"));
+    }
+
+    /**
+     * Verify a job that does not finish in time is cancelled.
+     */
+    @Test
+    public void runWithTimeout() throws Exception {
+        final SparkJobResult result = runner.run(newRequest("feed", BlockingJob.class, 1));
+
+        Assert.assertEquals(SparkJobResult.NOT_COMPLETED, result.getExitCode());
+        Assert.assertTrue(result.isTimedOut());
+        Mockito.verify(sparkContext).cancelJobGroup(Mockito.startsWith("feed-"));
+    }
+
+    /**
+     * Verify jobs in the same group wait for each other and jobs in other groups do not.
+     */
+    @Test
+    public void runWithConcurrencyLimit() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<SparkJobResult> first = executor.submit(new Callable<SparkJobResult>() {
+                @Override
+                public SparkJobResult call() throws Exception {
+                    return runner.run(newRequest("feed", BlockingJob.class, 60));
+                }
+            });
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            final SparkJobResult blocked = runner.run(newRequest("feed", ExitJob.class, 1));
+            Assert.assertEquals(SparkJobResult.NOT_COMPLETED, blocked.getExitCode());
+            Assert.assertTrue(blocked.isTimedOut());
+
+            final SparkJobResult other = runner.run(newRequest("other", ExitJob.class, 60));
+            Assert.assertEquals(3, other.getExitCode());
+
+            release.countDown();
+            Assert.assertEquals(0, first.get(10, TimeUnit.SECONDS).getExitCode());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SparkJobRequest newRequest(final String group, final Class<?> mainClass, final long timeoutSeconds) {
+        final SparkJobRequest request = new SparkJobRequest();
+        request.setGroup(group);
+        request.setMainClass(mainClass.getName());
+        request.setArgs(Collections.singletonList("arg"));
+        request.setTimeoutSeconds(timeoutSeconds);
+        return request;
+    }
+
+    public static class ExitJob {
+
+        public static void main(String[] args) {
+            System.out.println("exiting with " + args[0]);
+            System.exit(3);
+        }
+    }
+
+    public static class CaughtExitJob {
+
+        public static void main(String[] args) {
+            try {
+                try {
+                    throw new IllegalStateException("validation failed");
+                } catch (Exception e) {
+                    System.out.println(e.getMessage());
+                    System.exit(1);
+                }
+            } catch (Exception e) {
+                System.out.println("ignored " + e);
+            }
+        }
+    }
+
+    public static class FailJob {
+
+        public static void main(String[] args) {
+            throw new IllegalStateException("job failed");
+        }
+    }
+
+    public static class BlockingJob {
+
+        public static void main(String[] args) throws InterruptedException {
+            started.countDown();
+            release.await();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.thinkbiganalytics.spark.jobserver;
+
+/*-
+ * #%L
+ * kylo-spark-job-server
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.spark.SparkContext;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+public class SparkJobServerTest {
+
+    private static final String TOKEN = "secret";
+
+    private SparkJobRunner runner;
+    private SparkJobServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        runner = Mockito.spy(new SparkJobRunner(Mockito.mock(SparkContext.class), 1));
+        Mockito.doReturn(new SparkJobResult()).when(runner).run(Mockito.any(SparkJobRequest.class));
+        server = new SparkJobServer(runner, 0, TOKEN);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    /**
+     * Verify jobs are only run for requests with the token.
+     */
+    @Test
+    public void submitRequiresToken() throws Exception {
+        Assert.assertEquals(401, post(null));
+        Assert.assertEquals(401, post("wrong"));
+        Mockito.verify(runner, Mockito.never()).run(Mockito.any(SparkJobRequest.class));
+
+        Assert.assertEquals(200, post(TOKEN));
+        Mockito.verify(runner).run(Mockito.any(SparkJobRequest.class));
+    }
+
+    private int post(final String token) throws Exception {
+        final URL url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), server.getPort(), SparkJobServer.JOBS_PATH);
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        if (token != null) {
+            connection.setRequestProperty(SparkJobServer.TOKEN_HEADER, token);
+        }
+        connection.setDoOutput(true);
+
+        try {
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write("{\"group\":\"feed\",\"mainClass\":\"Main\"}".getBytes(StandardCharsets.UTF_8));
+            }
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.thinkbiganalytics.spark.service;
+
+/*-
+ * #%L
+ * thinkbig-spark-shell-client-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.shell.DatasourceProvider;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A transformation that has been compiled by the script engine and can be run against any destination table.
+ *
+ * <p>Instances are created by the scripts generated by {@link TransformService#toScript(com.thinkbiganalytics.spark.rest.model.TransformRequest)} and are
+ * cached so that a transformation is only compiled once.</p>
+ */
+public interface CompiledTransform {
+
+    /**
+     * Runs the transformation.
+     *
+     * @param destination        the table to contain the results
+     * @param parentTable        the table containing the results of the parent transformation, if any
+     * @param datasourceProvider the data sources available to the script, if any
+     * @return the result of the transformation
+     */
+    @Nullable
+    Object run(@Nonnull String destination, @Nullable String parentTable, @Nullable DatasourceProvider datasourceProvider);
+}
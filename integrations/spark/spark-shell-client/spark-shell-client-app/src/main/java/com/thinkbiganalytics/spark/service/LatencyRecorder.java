@@ -0,0 +1,103 @@
+package com.thinkbiganalytics.spark.service;
+
+/*-
+ * #%L
+ * thinkbig-spark-shell-client-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Keeps the most recent latency samples for reporting percentiles.
+ */
+public class LatencyRecorder {
+
+    /**
+     * Most recent samples in nanoseconds
+     */
+    @Nonnull
+    private final long[] samples;
+
+    /**
+     * Total number of samples recorded
+     */
+    private long count;
+
+    /**
+     * Constructs a {@code LatencyRecorder} that keeps the specified number of samples.
+     *
+     * @param capacity the maximum number of samples to keep
+     */
+    public LatencyRecorder(final int capacity) {
+        samples = new long[capacity];
+    }
+
+    /**
+     * Records the specified latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public synchronized void record(final long nanos) {
+        samples[(int) (count % samples.length)] = nanos;
+        ++count;
+    }
+
+    /**
+     * Gets the total number of samples recorded.
+     *
+     * @return the number of samples
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the specified percentiles of the most recent samples.
+     *
+     * @param percentiles the percentiles between 0 and 100
+     * @return the latencies in milliseconds, or -1 if there are no samples
+     */
+    @Nonnull
+    public long[] getPercentiles(@Nonnull final double... percentiles) {
+        final long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+        }
+        Arrays.sort(sorted);
+
+        final long[] result = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length; ++i) {
+            if (sorted.length == 0) {
+                result[i] = -1;
+            } else {
+                final int index = (int) Math.ceil(percentiles[i] / 100.0 * sorted.length) - 1;
+                result[i] = TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final long[] percentiles = getPercentiles(50, 95, 99);
+        return "count=" + getCount() + " p50=" + percentiles[0] + "ms p95=" + percentiles[1] + "ms p99=" + percentiles[2] + "ms";
+    }
+}
@@ -20,6 +20,7 @@ package com.thinkbiganalytics.spark.service;
  * #L%
  */
 
+import com.google.common.base.Charsets;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalListener;
@@ -28,7 +29,9 @@ import com.google.common.cache.Weigher;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Queues;
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.AbstractScheduledService;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.thinkbiganalytics.hive.util.HiveUtils;
 import com.thinkbiganalytics.kerberos.KerberosTicketConfiguration;
 import com.thinkbiganalytics.kerberos.KerberosTicketGenerator;
@@ -39,7 +42,6 @@ import com.thinkbiganalytics.spark.rest.model.TransformRequest;
 import com.thinkbiganalytics.spark.rest.model.TransformResponse;
 import com.thinkbiganalytics.spark.shell.DatasourceProvider;
 
-import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.spark.sql.Row;
 import org.apache.spark.sql.SQLContext;
@@ -95,6 +97,38 @@ public class TransformService extends AbstractScheduledService {
      * Maximum database size in bytes (soft limit)
      */
     private static final long MAX_BYTES = 10737418240L;
+
+    /**
+     * Maximum number of compiled transformations to keep
+     */
+    private static final long MAX_COMPILED_TRANSFORMS = 500L;
+
+    /**
+     * Number of latency samples kept for reporting
+     */
+    private static final int LATENCY_SAMPLES = 1024;
+
+    /**
+     * Compiled transformations by a hash of their script
+     */
+    @Nonnull
+    private final Cache<String, CompiledTransform> compiledTransforms = CacheBuilder.newBuilder()
+        .maximumSize(MAX_COMPILED_TRANSFORMS)
+        .recordStats()
+        .build();
+
+    /**
+     * Time taken to compile transformations
+     */
+    @Nonnull
+    private final LatencyRecorder compileLatency = new LatencyRecorder(LATENCY_SAMPLES);
+
+    /**
+     * Time taken to evaluate transformations, including compilation when not cached
+     */
+    @Nonnull
+    private final LatencyRecorder evalLatency = new LatencyRecorder(LATENCY_SAMPLES);
+
     /**
      * Tables with cached results
      */
@@ -163,18 +197,31 @@ public class TransformService extends AbstractScheduledService {
         String table = newTableName();
         this.cache.put(table, MIN_BYTES);
 
-        // Build bindings list
-        final List<NamedParam> bindings = new ArrayList<>();
-        bindings.add(new NamedParamClass("database", "String", DATABASE));
-        bindings.add(new NamedParamClass("tableName", "String", table));
+        // Determine parameters
+        String parentTable = null;
+        if (request.getParent() != null) {
+            parentTable = request.getParent().getTable();
+            this.cache.touch(parentTable);
+        }
 
+        DatasourceProvider datasourceProvider = null;
         if (request.getDatasources() != null && !request.getDatasources().isEmpty()) {
-            final DatasourceProvider datasourceProvider = new DatasourceProvider(request.getDatasources());
-            bindings.add(new NamedParamClass("datasourceProvider", DatasourceProvider.class.getName(), datasourceProvider));
+            datasourceProvider = new DatasourceProvider(request.getDatasources());
         }
 
         // Execute script
-        Object result = this.engine.eval(toScript(request), bindings);
+        final long start = System.nanoTime();
+        Object result;
+
+        try {
+            result = getCompiledTransform(toScript(request)).run(table, parentTable, datasourceProvider);
+        } catch (RuntimeException cause) {
+            ScriptException e = new ScriptException(cause);
+            log.error("Throwing {}", e);
+            throw e;
+        }
+
+        evalLatency.record(System.nanoTime() - start);
 
         TransformJob job;
         if (result instanceof Callable) {
@@ -216,6 +263,17 @@ public class TransformService extends AbstractScheduledService {
         return response;
     }
 
+    /**
+     * Gets a summary of the compiled transformation cache and the transformation latencies.
+     *
+     * @return the statistics
+     */
+    @Nonnull
+    public String getStatistics() {
+        return "compile cache hit rate=" + compiledTransforms.stats().hitRate() + " size=" + compiledTransforms.size() + ", compile latency " + compileLatency
+               + ", eval latency " + evalLatency;
+    }
+
     /**
      * Gets the transformation job with the specified id.
      *
@@ -251,6 +309,9 @@ public class TransformService extends AbstractScheduledService {
             dropTable(iter.next(), context);
         }
 
+        // Report statistics
+        log.info("Transform statistics: {}", getStatistics());
+
         log.trace("exit");
     }
 
@@ -340,16 +401,76 @@ public class TransformService extends AbstractScheduledService {
         }
     }
 
+    /**
+     * Gets the compiled transformation for the specified script, compiling it if it is not cached.
+     *
+     * @param script the Scala script
+     * @return the compiled transformation
+     * @throws ScriptException if the script cannot be compiled
+     */
+    @Nonnull
+    private CompiledTransform getCompiledTransform(@Nonnull final String script) throws ScriptException {
+        final String key = Hashing.sha256().hashBytes(script.getBytes(Charsets.UTF_8)).toString();
+
+        try {
+            return compiledTransforms.get(key, new Callable<CompiledTransform>() {
+                @Override
+                public CompiledTransform call() throws Exception {
+                    return compile(script);
+                }
+            });
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ScriptException) {
+                throw (ScriptException) e.getCause();
+            }
+            throw new ScriptException(e);
+        } catch (UncheckedExecutionException e) {
+            throw new ScriptException(e);
+        }
+    }
+
+    /**
+     * Compiles the specified script using the script engine.
+     *
+     * <p>Classes compiled by an interpreter are only visible to the Spark executors through the Spark context's class server, which serves the output of the
+     * engine's interpreter. Compiles are therefore serialized on the one engine rather than spread over separate interpreters.</p>
+     *
+     * @param script the Scala script
+     * @return the compiled transformation
+     * @throws ScriptException if the script cannot be compiled
+     */
+    @Nonnull
+    private CompiledTransform compile(@Nonnull final String script) throws ScriptException {
+        // Build bindings list
+        final List<NamedParam> bindings = new ArrayList<>();
+        bindings.add(new NamedParamClass("database", "String", DATABASE));
+
+        // Compile script
+        final long start = System.nanoTime();
+        final Object result = engine.eval(script, bindings);
+        compileLatency.record(System.nanoTime() - start);
+
+        if (result instanceof CompiledTransform) {
+            return (CompiledTransform) result;
+        } else {
+            throw new IllegalStateException("Unexpected script result type: " + (result != null ? result.getClass() : null));
+        }
+    }
+
     /**
      * Converts the specified transformation request to a Scala script that can be executed by the script engine.
      *
+     * <p>The script only depends on the transformation itself. The destination table, parent table, and data sources are passed to the resulting
+     * {@link CompiledTransform} so that the compiled script can be reused.</p>
+     *
      * @param request the transformation request
      * @return the Scala script
      */
     @Nonnull
     protected String toScript(@Nonnull final TransformRequest request) {
         StringBuilder script = new StringBuilder();
-        script.append("class Transform (destination: String, sendResults: Boolean, sqlContext: org.apache.spark.sql.SQLContext)");
+        script.append("class Transform (destination: String, parentTableName: String, datasourceProvider: com.thinkbiganalytics.spark.shell.DatasourceProvider, sendResults: Boolean,");
+        script.append(" sqlContext: org.apache.spark.sql.SQLContext)");
         script.append(" extends com.thinkbiganalytics.spark.metadata.TransformScript(destination, sendResults, sqlContext) {\n");
 
         script.append("override def dataFrame: org.apache.spark.sql.DataFrame = {");
@@ -360,15 +481,14 @@ public class TransformService extends AbstractScheduledService {
             script.append("override def parentDataFrame: org.apache.spark.sql.DataFrame = {");
             script.append(request.getParent().getScript());
             script.append("}\n");
-            script.append("override def parentTable: String = {\"");
-            script.append(StringEscapeUtils.escapeJava(request.getParent().getTable()));
-            script.append("\"}\n");
-
-            this.cache.touch(request.getParent().getTable());
+            script.append("override def parentTable: String = parentTableName\n");
         }
 
         script.append("}\n");
-        script.append("new Transform(tableName, true, sqlContext).run()\n");
+        script.append("new com.thinkbiganalytics.spark.service.CompiledTransform {\n");
+        script.append("override def run(destination: String, parentTable: String, datasourceProvider: com.thinkbiganalytics.spark.shell.DatasourceProvider): AnyRef =");
+        script.append(" new Transform(destination, parentTable, datasourceProvider, true, sqlContext).run().asInstanceOf[AnyRef]\n");
+        script.append("}\n");
 
         return script.toString();
     }
@@ -24,6 +24,7 @@ import com.thinkbiganalytics.kerberos.KerberosTicketConfiguration;
 import com.thinkbiganalytics.spark.repl.SparkScriptEngine;
 import com.thinkbiganalytics.spark.rest.model.TransformRequest;
 import com.thinkbiganalytics.spark.rest.model.TransformResponse;
+import com.thinkbiganalytics.spark.shell.DatasourceProvider;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.spark.SparkContext;
@@ -59,7 +60,9 @@ public class TransformServiceTest {
     public void execute() throws Exception {
         SQLContext context = Mockito.mock(SQLContext.class);
         SparkScriptEngine engine = Mockito.mock(SparkScriptEngine.class);
-        Mockito.when(engine.eval(Mockito.anyString(), Mockito.any(List.class))).thenReturn(new Callable<TransformResponse>() {
+        CompiledTransform transform = Mockito.mock(CompiledTransform.class);
+        Mockito.when(engine.eval(Mockito.anyString(), Mockito.any(List.class))).thenReturn(transform);
+        Mockito.when(transform.run(Mockito.anyString(), Mockito.anyString(), Mockito.any(DatasourceProvider.class))).thenReturn(new Callable<TransformResponse>() {
             @Override
             public TransformResponse call() throws Exception {
                 TransformResponse response = new TransformResponse();
@@ -92,13 +95,16 @@ public class TransformServiceTest {
         service.awaitRunning();
 
         final TransformResponse response;
+        final TransformResponse cachedResponse;
         try {
             response = service.execute(request);
+            cachedResponse = service.execute(request);
         } finally {
             service.stopAsync();
         }
 
         Assert.assertEquals(TransformResponse.Status.SUCCESS, response.getStatus());
+        Assert.assertEquals(TransformResponse.Status.SUCCESS, cachedResponse.getStatus());
 
         // Test eval arguments
         ArgumentCaptor<String> evalScript = ArgumentCaptor.forClass(String.class);
@@ -109,13 +115,19 @@ public class TransformServiceTest {
         Assert.assertEquals(expectedScript, evalScript.getValue());
 
         List<NamedParam> bindings = evalBindings.getValue();
-        Assert.assertEquals(2, bindings.size());
+        Assert.assertEquals(1, bindings.size());
         Assert.assertEquals("database", bindings.get(0).name());
         Assert.assertEquals("String", bindings.get(0).tpe());
         Assert.assertEquals("spark_shell_temp", bindings.get(0).value());
-        Assert.assertEquals("tableName", bindings.get(1).name());
-        Assert.assertEquals("String", bindings.get(1).tpe());
-        Assert.assertTrue(((String) bindings.get(1).value()).matches("^[0-9a-f]{32}$"));
+
+        // Test run arguments
+        ArgumentCaptor<String> destination = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(transform, Mockito.times(2)).run(destination.capture(), (String) Mockito.isNull(), (DatasourceProvider) Mockito.isNull());
+
+        Assert.assertEquals(2, destination.getAllValues().size());
+        Assert.assertTrue(destination.getAllValues().get(0).matches("^[0-9a-f]{32}$"));
+        Assert.assertTrue(destination.getAllValues().get(1).matches("^[0-9a-f]{32}$"));
+        Assert.assertNotEquals(destination.getAllValues().get(0), destination.getAllValues().get(1));
     }
 
     /**
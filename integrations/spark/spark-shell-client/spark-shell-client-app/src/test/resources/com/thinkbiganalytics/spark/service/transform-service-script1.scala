@@ -1,4 +1,6 @@
-class Transform (destination: String, sendResults: Boolean, sqlContext: org.apache.spark.sql.SQLContext) extends com.thinkbiganalytics.spark.metadata.TransformScript(destination, sendResults, sqlContext) {
+class Transform (destination: String, parentTableName: String, datasourceProvider: com.thinkbiganalytics.spark.shell.DatasourceProvider, sendResults: Boolean, sqlContext: org.apache.spark.sql.SQLContext) extends com.thinkbiganalytics.spark.metadata.TransformScript(destination, sendResults, sqlContext) {
 override def dataFrame: org.apache.spark.sql.DataFrame = {sqlContext.range(1,10)}
 }
-new Transform(tableName, true, sqlContext).run()
+new com.thinkbiganalytics.spark.service.CompiledTransform {
+override def run(destination: String, parentTable: String, datasourceProvider: com.thinkbiganalytics.spark.shell.DatasourceProvider): AnyRef = new Transform(destination, parentTable, datasourceProvider, true, sqlContext).run().asInstanceOf[AnyRef]
+}
@@ -286,6 +286,24 @@ public class HCatDataType implements Cloneable, Serializable {
             }
 
             Comparable nativeValue = toNativeValue(val);
+            return isNativeValueConvertibleToType(val, nativeValue, enforcePrecision);
+
+        } catch (InvalidFormatException | ClassCastException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Tests whether a value already converted by {@link #toNativeValue(String)} fits the range, precision and length of the hive
+     * data type. Callers that need the native value anyway can use this to avoid converting the string twice.
+     *
+     * @param val              the string value
+     * @param nativeValue      the native value converted from val
+     * @param enforcePrecision whether to check the number of decimal places
+     * @return whether value is valid
+     */
+    public boolean isNativeValueConvertibleToType(String val, Comparable nativeValue, boolean enforcePrecision) {
+        try {
             if (nativeValue != null) {
                 if (isnumeric) {
                     if (min != null && min.compareTo(nativeValue) > 0) {
@@ -305,12 +323,19 @@ public class HCatDataType implements Cloneable, Serializable {
                 }
             }
 
-        } catch (InvalidFormatException | ClassCastException | IllegalArgumentException e) {
+        } catch (ClassCastException | IllegalArgumentException e) {
             return false;
         }
         return true;
     }
 
+    /**
+     * Whether string values of this type are checked with a date or timestamp validator rather than converted to a native value
+     */
+    public boolean isDateOrTimestamp() {
+        return convertibleType == Timestamp.class || convertibleType == Date.class;
+    }
+
     @Override
     public Object clone() throws CloneNotSupportedException {
         return super.clone();
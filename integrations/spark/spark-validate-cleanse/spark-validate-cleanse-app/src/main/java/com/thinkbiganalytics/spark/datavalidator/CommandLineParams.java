@@ -33,6 +33,7 @@ public class CommandLineParams implements Serializable {
 
     private static final String DEFAULT_STORAGE_LEVEL = "MEMORY_AND_DISK";
     private static final Integer DEFAULT_NUM_PARTITIONS = -1;
+    private static final Integer DEFAULT_PROFILE_TOP_N = 3;
 
     @Parameter(names = {"-h", "--hiveConf"}, description = "Hive configuration parameters", converter = ParameterConverter.class)
     private List<Param> hiveParams;
@@ -43,6 +44,12 @@ public class CommandLineParams implements Serializable {
     @Parameter(names = "--numPartitions", description = "Number of RDD partitions")
     private Integer numPartitions = DEFAULT_NUM_PARTITIONS;
 
+    @Parameter(names = "--profile", description = "Profile the valid rows in the validation pass instead of running the profiler separately")
+    private boolean profile = false;
+
+    @Parameter(names = "--profileTopN", description = "Number of top values to keep for each column when profiling")
+    private Integer profileTopN = DEFAULT_PROFILE_TOP_N;
+
     public List<Param> getHiveParams() {
         return hiveParams == null ? new ArrayList<Param>(0) : hiveParams;
     }
@@ -54,4 +61,12 @@ public class CommandLineParams implements Serializable {
     public Integer getNumPartitions() {
         return numPartitions;
     }
+
+    public boolean isProfile() {
+        return profile;
+    }
+
+    public Integer getProfileTopN() {
+        return profileTopN;
+    }
 }
@@ -0,0 +1,274 @@
+package com.thinkbiganalytics.spark.datavalidator;
+
+/*-
+ * #%L
+ * thinkbig-spark-validate-cleanse-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.policy.FieldPolicy;
+import com.thinkbiganalytics.policy.standardization.AcceptsEmptyValues;
+import com.thinkbiganalytics.policy.standardization.StandardizationPolicy;
+import com.thinkbiganalytics.policy.validation.ValidationPolicy;
+import com.thinkbiganalytics.policy.validation.ValidationResult;
+import com.thinkbiganalytics.spark.util.InvalidFormatException;
+import com.thinkbiganalytics.spark.validation.HCatDataType;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Field policies and data types of a table resolved into a per-column plan, so rows can be cleansed and validated without
+ * looking up policies, resolving validator parameter types or building failure results for every value.
+ * <p>
+ * Each value is converted to its native type at most once, and the reject reason JSON is only built for invalid rows.
+ * A plan reuses its buffers between rows so it must not be shared between threads; the Validator builds one per partition.
+ */
+public class ValidationPlan {
+
+    private final ColumnPlan[] columns;
+
+    /* Shared by all valid rows, the counts only read it */
+    private final boolean[] allColumnsValid;
+
+    private final List<ValidationResult> results = new ArrayList<>();
+    private final StringBuilder rejectReason = new StringBuilder();
+
+    public ValidationPlan(FieldPolicy[] policies, HCatDataType[] schema) {
+        columns = new ColumnPlan[schema.length];
+        for (int idx = 0; idx < schema.length; idx++) {
+            columns[idx] = new ColumnPlan(policies[idx], schema[idx]);
+        }
+        allColumnsValid = new boolean[schema.length];
+        Arrays.fill(allColumnsValid, true);
+    }
+
+    /**
+     * Cleanses and validates a row, appending the valid flag and reject reason columns before the processing partition column
+     */
+    public CleansedRowResult cleanseAndValidateRow(Row row) {
+        final int length = columns.length;
+        int nulls = 1;
+
+        // The output row keeps a reference to its values, so this is the one array allocated for every row
+        Object[] newValues = new Object[length + 2];
+        boolean[] columnsValid = null;
+        results.clear();
+
+        for (int idx = 0; idx < length; idx++) {
+            ColumnPlan column = columns[idx];
+
+            // Extract the value (allowing for null or missing field for odd-ball data)
+            Object val = (idx == row.length() || row.isNullAt(idx) ? null : row.get(idx));
+            if (val == null) {
+                nulls++;
+            }
+
+            // Handle complex types by passing them through
+            if (column.unchecked) {
+                newValues[idx] = val;
+                continue;
+            }
+
+            Object fieldValue = column.standardize(val);
+            newValues[idx] = fieldValue;
+
+            ValidationResult result = column.validate(fieldValue == null ? null : (fieldValue instanceof String ? (String) fieldValue : fieldValue.toString()));
+            if (!result.isValid()) {
+                if (columnsValid == null) {
+                    columnsValid = Arrays.copyOf(allColumnsValid, length);
+                }
+                columnsValid[idx] = false;
+                results.add(result);
+            }
+        }
+
+        // Invalid unless all values were null.  That would indicate a blank line in the file.
+        if (nulls >= length) {
+            results.add(ValidationResult.failRow("empty", "Row is empty"));
+        }
+        boolean rowValid = results.isEmpty();
+
+        // Record the results in the appended columns, move processing partition value last
+        newValues[length + 1] = newValues[length - 1];
+        newValues[length] = (rowValid ? "" : toJSONArray(results));
+        newValues[length - 1] = (rowValid ? "1" : "0");
+
+        CleansedRowResult cleansedRowResult = new CleansedRowResult();
+        cleansedRowResult.row = RowFactory.create(newValues);
+        cleansedRowResult.columnsValid = (columnsValid != null ? columnsValid : allColumnsValid);
+        cleansedRowResult.rowIsValid = rowValid;
+        return cleansedRowResult;
+    }
+
+    private String toJSONArray(List<ValidationResult> results) {
+        rejectReason.setLength(0);
+        rejectReason.append("[");
+        for (int i = 0; i < results.size(); i++) {
+            if (i > 0) {
+                rejectReason.append(",");
+            }
+            rejectReason.append(results.get(i).toJSON());
+        }
+        rejectReason.append("]");
+        return rejectReason.toString();
+    }
+
+    /* Resolve the type of param required by the validator using reflection */
+    static Class resolveValidatorParamType(ValidationPolicy validator) {
+        Object t = validator.getClass().getGenericInterfaces()[0];
+        if (t instanceof ParameterizedType) {
+            ParameterizedType type = (ParameterizedType) t;
+            return (Class) type.getActualTypeArguments()[0];
+        }
+        return String.class;
+    }
+
+    /**
+     * Applies the standardization policies
+     */
+    static Object standardize(StandardizationPolicy[] standardizationPolicies, Object value) {
+        Object newValue = value;
+        boolean isEmpty = ((value == null) || (StringUtils.isEmpty(value.toString())));
+        for (StandardizationPolicy standardizationPolicy : standardizationPolicies) {
+            if (isEmpty && !(standardizationPolicy instanceof AcceptsEmptyValues)) {
+                continue;
+            }
+
+            if (!standardizationPolicy.accepts(value)) {
+                continue;
+            }
+
+            newValue = standardizationPolicy.convertRawValue(newValue);
+        }
+        return newValue;
+    }
+
+    /**
+     * Policies of a single column with the validator parameter types and failure results resolved up front
+     */
+    static class ColumnPlan {
+
+        final boolean unchecked;
+        private final HCatDataType dataType;
+        private final boolean skipSchemaValidation;
+        private final StandardizationPolicy[] standardizers;
+        private final ValidationPolicy notNullValidator;
+        private final boolean notNullValidatorTakesString;
+        private final ValidationPolicy[] validators;
+        private final boolean[] validatorTakesString;
+        private final ValidationResult[] ruleViolations;
+        private final ValidationResult notNullViolation;
+        private final ValidationResult incompatible;
+
+        ColumnPlan(FieldPolicy fieldPolicy, HCatDataType dataType) {
+            this.dataType = dataType;
+            this.unchecked = dataType.isUnchecked();
+            this.skipSchemaValidation = fieldPolicy.shouldSkipSchemaValidation();
+            this.incompatible = ValidationResult.failField("incompatible", dataType.getName(), "Not convertible to " + dataType.getNativeType());
+
+            List<StandardizationPolicy> standardizationPolicies = fieldPolicy.getStandardizationPolicies();
+            standardizers = (standardizationPolicies != null ? standardizationPolicies.toArray(new StandardizationPolicy[0]) : new StandardizationPolicy[0]);
+
+            notNullValidator = fieldPolicy.getNotNullValidator();
+            notNullValidatorTakesString = (notNullValidator == null || resolveValidatorParamType(notNullValidator) == String.class);
+            notNullViolation = (notNullValidator != null ? ruleViolation(notNullValidator) : null);
+
+            List<ValidationPolicy> validationPolicies = fieldPolicy.getValidators();
+            int validatorCount = (validationPolicies != null ? validationPolicies.size() : 0);
+            validators = new ValidationPolicy[validatorCount];
+            validatorTakesString = new boolean[validatorCount];
+            ruleViolations = new ValidationResult[validatorCount];
+            for (int i = 0; i < validatorCount; i++) {
+                validators[i] = validationPolicies.get(i);
+                validatorTakesString[i] = (resolveValidatorParamType(validators[i]) == String.class);
+                ruleViolations[i] = ruleViolation(validators[i]);
+            }
+        }
+
+        private ValidationResult ruleViolation(ValidationPolicy validator) {
+            return ValidationResult.failFieldRule("rule", dataType.getName(), validator.getClass().getSimpleName(), "Rule violation");
+        }
+
+        Object standardize(Object value) {
+            return (standardizers.length == 0 ? value : ValidationPlan.standardize(standardizers, value));
+        }
+
+        /**
+         * Perform validation using both schema validation the validation policies
+         */
+        ValidationResult validate(String fieldValue) {
+            if (StringUtils.isEmpty(fieldValue)) {
+                if (notNullValidator != null) {
+                    try {
+                        Object value = (notNullValidatorTakesString ? fieldValue : dataType.toNativeValue(fieldValue));
+                        if (!notNullValidator.validate(value)) {
+                            return notNullViolation;
+                        }
+                    } catch (InvalidFormatException | ClassCastException e) {
+                        return incompatible;
+                    }
+                }
+                return Validator.VALID_RESULT;
+            }
+
+            // Convert the value at most once, for both the schema check and the validators that need the native type
+            Comparable nativeValue = null;
+            boolean converted = false;
+            try {
+                // Verify new value is compatible with the target Hive schema e.g. integer, double (unless checking is disabled)
+                if (!skipSchemaValidation) {
+                    if (dataType.isDateOrTimestamp()) {
+                        if (!dataType.isValueConvertibleToType(fieldValue)) {
+                            return incompatible;
+                        }
+                    } else {
+                        nativeValue = dataType.toNativeValue(fieldValue);
+                        converted = true;
+                        if (!dataType.isNativeValueConvertibleToType(fieldValue, nativeValue, false)) {
+                            return incompatible;
+                        }
+                    }
+                }
+
+                // Validate type using provided validators
+                for (int i = 0; i < validators.length; i++) {
+                    Object value = fieldValue;
+                    if (!validatorTakesString[i]) {
+                        if (!converted) {
+                            nativeValue = dataType.toNativeValue(fieldValue);
+                            converted = true;
+                        }
+                        value = nativeValue;
+                    }
+                    if (!validators[i].validate(value)) {
+                        return ruleViolations[i];
+                    }
+                }
+            } catch (InvalidFormatException | ClassCastException e) {
+                return incompatible;
+            }
+            return Validator.VALID_RESULT;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.thinkbiganalytics.spark.datavalidator;
+
+/*-
+ * #%L
+ * thinkbig-spark-validate-cleanse-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
+import com.thinkbiganalytics.spark.dataprofiler.model.SketchStatisticsModel;
+
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.StructField;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+
+/**
+ * Validation counts and profile statistics of the valid rows, gathered in a single pass over the cleansed rows.
+ * Models for different partitions can be combined directly.
+ */
+public class ValidationStatisticsModel implements Serializable {
+
+    /* Invalid counts for each column, followed by the total valid and total invalid rows */
+    private final long[] validationCounts;
+    private final SketchStatisticsModel profileStatistics;
+
+    /**
+     * @param schemaLength          number of columns validated
+     * @param profilerConfiguration profiler configuration for the profile statistics
+     */
+    public ValidationStatisticsModel(int schemaLength, ProfilerConfiguration profilerConfiguration) {
+        validationCounts = new long[schemaLength + 2];
+        profileStatistics = new SketchStatisticsModel(profilerConfiguration);
+    }
+
+    /**
+     * Counts the result and includes the profiled columns of valid rows in the profile statistics
+     *
+     * @param result          cleansed row
+     * @param profiledColumns indexes of the columns to profile in the cleansed row
+     * @param profiledFields  target table schema of the profiled columns
+     */
+    public void add(CleansedRowResult result, int[] profiledColumns, StructField[] profiledFields) {
+        int schemaLen = validationCounts.length - 2;
+        for (int idx = 0; idx < schemaLen; idx++) {
+            if (!result.columnsValid[idx]) {
+                validationCounts[idx]++;
+            }
+        }
+
+        if (result.rowIsValid) {
+            validationCounts[schemaLen]++;
+            for (int i = 0; i < profiledColumns.length; i++) {
+                Object value = (result.row.isNullAt(profiledColumns[i]) ? null : result.row.get(profiledColumns[i]));
+                profileStatistics.add(i, toProfileValue(value, profiledFields[i].dataType()), profiledFields[i]);
+            }
+        } else {
+            validationCounts[schemaLen + 1]++;
+        }
+    }
+
+    /**
+     * Combine another model
+     *
+     * @param model model to combine with
+     */
+    public void combine(ValidationStatisticsModel model) {
+        for (int idx = 0; idx < validationCounts.length; idx++) {
+            validationCounts[idx] += model.validationCounts[idx];
+        }
+        profileStatistics.combine(model.profileStatistics);
+    }
+
+    public long[] getValidationCounts() {
+        return validationCounts;
+    }
+
+    public SketchStatisticsModel getProfileStatistics() {
+        return profileStatistics;
+    }
+
+    /**
+     * Converts a cleansed value to the Java type of the target column, as Hive does when the valid rows are inserted.
+     * Values that cannot be converted become null, matching what the valid table would hold.
+     */
+    static Object toProfileValue(Object value, DataType dataType) {
+        if (!(value instanceof String)) {
+            return value;
+        }
+
+        String stringValue = (String) value;
+        String typeName = dataType.simpleString();
+        if (stringValue.isEmpty() && !"string".equals(typeName)) {
+            return null;
+        }
+
+        try {
+            switch (typeName) {
+                case "tinyint":
+                    return Byte.valueOf(stringValue.trim());
+                case "smallint":
+                    return Short.valueOf(stringValue.trim());
+                case "int":
+                    return Integer.valueOf(stringValue.trim());
+                case "bigint":
+                    return Long.valueOf(stringValue.trim());
+                case "float":
+                    return Float.valueOf(stringValue);
+                case "double":
+                    return Double.valueOf(stringValue);
+                case "boolean":
+                    return "true".equalsIgnoreCase(stringValue.trim()) ? Boolean.TRUE : ("false".equalsIgnoreCase(stringValue.trim()) ? Boolean.FALSE : null);
+                case "date":
+                    return Date.valueOf(stringValue.trim());
+                case "timestamp":
+                    return Timestamp.valueOf(stringValue.trim());
+                default:
+                    return typeName.startsWith("decimal") ? new BigDecimal(stringValue.trim()) : value;
+            }
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -24,12 +24,15 @@ import com.beust.jcommander.JCommander;
 import com.thinkbiganalytics.hive.util.HiveUtils;
 import com.thinkbiganalytics.policy.FieldPolicy;
 import com.thinkbiganalytics.policy.FieldPolicyBuilder;
-import com.thinkbiganalytics.policy.standardization.AcceptsEmptyValues;
 import com.thinkbiganalytics.policy.standardization.StandardizationPolicy;
 import com.thinkbiganalytics.policy.validation.ValidationPolicy;
 import com.thinkbiganalytics.policy.validation.ValidationResult;
 import com.thinkbiganalytics.spark.DataSet;
 import com.thinkbiganalytics.spark.SparkContextService;
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
+import com.thinkbiganalytics.spark.dataprofiler.model.StatisticsModel;
+import com.thinkbiganalytics.spark.datavalidator.functions.AddResultToValidationStatistics;
+import com.thinkbiganalytics.spark.datavalidator.functions.CombineValidationStatistics;
 import com.thinkbiganalytics.spark.datavalidator.functions.SumPartitionLevelCounts;
 import com.thinkbiganalytics.spark.policy.FieldPolicyLoader;
 import com.thinkbiganalytics.spark.util.InvalidFormatException;
@@ -51,18 +54,19 @@ import org.apache.spark.storage.StorageLevel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.ClassPathBeanDefinitionScanner;
+import org.springframework.core.type.filter.RegexPatternTypeFilter;
 import org.springframework.stereotype.Component;
 
 import java.io.Serializable;
-import java.lang.reflect.ParameterizedType;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
+import java.util.regex.Pattern;
 
 
 /**
@@ -108,6 +112,10 @@ public class Validator implements Serializable {
     private HCatDataType[] schema;
     private Map<String, FieldPolicy> policyMap = new HashMap<>();
     /*
+    Compiled from the policies and schema on first use in each partition
+     */
+    private transient ValidationPlan validationPlan;
+    /*
     Cache for performance. Validators accept different parameters (numeric,string, etc) so we need to resolve the type using reflection
      */
     private Map<Class, Class> validatorParamType = new HashMap<>();
@@ -137,17 +145,23 @@ public class Validator implements Serializable {
             System.out.println("You can optionally add: --hiveConf hive.setting=value --hiveConf hive.other.setting=value");
             System.out.println("You can optionally add: --storageLevel rdd_persistence_level_value");
             System.out.println("You can optionally add: --numPartitions number_of_rdd_partitions");
+            System.out.println("You can optionally add: --profile --profileTopN number_of_top_values");
             System.out.println("You provided " + args.length + " args which are (comma separated): " + StringUtils.join(args, ","));
             System.exit(1);
         }
-        try {
-            ApplicationContext ctx = new AnnotationConfigApplicationContext("com.thinkbiganalytics.spark");
+        // The profiler is only used as a library by the --profile option, so leave its Spring configuration out of the context
+        try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext()) {
+            ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(ctx);
+            scanner.addExcludeFilter(new RegexPatternTypeFilter(Pattern.compile("com\\.thinkbiganalytics\\.spark\\.dataprofiler\\..*")));
+            scanner.scan("com.thinkbiganalytics.spark");
+            ctx.refresh();
             Validator app = ctx.getBean(Validator.class);
             app.setArguments(args[0], args[1], args[2], args[3]);
             app.addParameters(parseRemainingParameters(args, 4));
             app.doValidate();
         } catch (Exception e) {
-            System.out.println(e);
+            log.error("Failed to run the validator", e);
+            System.exit(1);
         }
     }
 
@@ -228,7 +242,18 @@ public class Validator implements Serializable {
             });
 
             // Counts of invalid columns, total valid rows and total invalid rows
-            long[] fieldInvalidCounts = cleansedRowResultsValidationCounts(cleansedRowResultRDD, schema.length);
+            long[] fieldInvalidCounts;
+            StatisticsModel profileStatistics = null;
+            if (params.isProfile()) {
+                // Profile the valid rows in the same pass as the counts, instead of reading the valid table back in a separate profiler job
+                ValidationStatisticsModel validationStatistics = cleansedRowResultsValidationStatistics(cleansedRowResultRDD, fields, profilerConfiguration());
+                fieldInvalidCounts = validationStatistics.getValidationCounts();
+                if (!validationStatistics.getProfileStatistics().isEmpty()) {
+                    profileStatistics = validationStatistics.getProfileStatistics().toStatisticsModel();
+                }
+            } else {
+                fieldInvalidCounts = cleansedRowResultsValidationCounts(cleansedRowResultRDD, schema.length);
+            }
 
             final DataSet validatedDF = scs.toDataSet(getHiveContext(), newResultsRDD, sourceSchema);
 
@@ -259,6 +284,9 @@ public class Validator implements Serializable {
 
             // Record the validation stats
             writeStatsToProfileTable(validCount, invalidCount, fieldInvalidCounts);
+            if (profileStatistics != null) {
+                writeProfileStatistics(profileStatistics);
+            }
 
         } catch (Exception e) {
             log.error("Failed to perform validation", e);
@@ -397,76 +425,11 @@ public class Validator implements Serializable {
      * Spark function to perform both cleansing and validation of a data row based on data policies and the target datatype
      */
     public CleansedRowResult cleanseAndValidateRow(Row row) {
-        int nulls = 1;
-
-        // Create placeholder for the new values plus two columns for validation and reject_reason
-        Object[] newValues = new Object[schema.length + 2];
-        boolean rowValid = true;
-        String sbRejectReason = null;
-        List<ValidationResult> results = null;
-        boolean[] columnsValid = new boolean[schema.length];
-
-        // Iterate through columns to cleanse and validate
-        for (int idx = 0; idx < schema.length; idx++) {
-            ValidationResult result = VALID_RESULT;
-            FieldPolicy fieldPolicy = policies[idx];
-            HCatDataType dataType = schema[idx];
-            boolean columnValid = true;
-
-            // Extract the value (allowing for null or missing field for odd-ball data)
-            Object val = (idx == row.length() || row.isNullAt(idx) ? null : row.get(idx));
-            // Handle complex types by passing them through
-
-            if (dataType.isUnchecked()) {
-                if (val == null) {
-                    nulls++;
-                }
-                newValues[idx] = val;
-            } else {
-                Object fieldValue = (val != null ? val : null);
-
-                if (fieldValue == null) {
-                    nulls++;
-                }
-
-                // Perform cleansing operations
-                fieldValue = standardizeField(fieldPolicy, fieldValue);
-                newValues[idx] = fieldValue;
-
-                // Record results in the appended columns
-                String fieldValueForValidation = ((fieldValue == null) ? null:fieldValue.toString());
-                result = validateField(fieldPolicy, dataType, fieldValueForValidation);
-                if (!result.isValid()) {
-                    rowValid = false;
-                    results = (results == null ? new Vector<ValidationResult>() : results);
-                    results.add(result);
-                    columnValid = false;
-                }
-            }
-
-            // Record fact that we there was an invalid column
-            columnsValid[idx] = columnValid;
+        // Built on first use after the validator is deserialized, which is once per task and so once per partition
+        if (validationPlan == null) {
+            validationPlan = new ValidationPlan(policies, schema);
         }
-        // Return success unless all values were null.  That would indicate a blank line in the file.
-        if (nulls >= schema.length) {
-            rowValid = false;
-            results = (results == null ? new Vector<ValidationResult>() : results);
-            results.add(ValidationResult.failRow("empty", "Row is empty"));
-        }
-
-        // Convert to reject reasons to JSON
-        sbRejectReason = toJSONArray(results);
-
-        // Record the results in the appended columns, move processing partition value last
-        newValues[schema.length + 1] = newValues[schema.length - 1];
-        newValues[schema.length] = sbRejectReason;
-        newValues[schema.length - 1] = (rowValid ? "1" : "0");
-
-        CleansedRowResult cleansedRowResult = new CleansedRowResult();
-        cleansedRowResult.row = RowFactory.create(newValues);
-        cleansedRowResult.columnsValid = columnsValid;
-        cleansedRowResult.rowIsValid = rowValid;
-        return cleansedRowResult;
+        return validationPlan.cleanseAndValidateRow(row);
     }
 
     /**
@@ -485,61 +448,60 @@ public class Validator implements Serializable {
         return finalCounts;
     }
 
-    private String toJSONArray(List<ValidationResult> results) {
-        // Convert to reject reasons to JSON
-        StringBuffer sb = null;
-        if (results != null) {
-            sb = new StringBuffer();
-            for (ValidationResult result : results) {
-                if (sb.length() > 0) {
-                    sb.append(",");
-                } else {
-                    sb.append("[");
-                }
-                sb.append(result.toJSON());
+    /**
+     * Performs the same counts as {@link #cleansedRowResultsValidationCounts(JavaRDD, int)} and profiles the valid rows in the same pass
+     *
+     * @param fields                schema of the valid table, used for the profiled column types
+     * @param profilerConfiguration profiler configuration for the profile statistics
+     */
+    public ValidationStatisticsModel cleansedRowResultsValidationStatistics(JavaRDD<CleansedRowResult> cleansedRowResultJavaRDD, StructField[] fields,
+                                                                            ProfilerConfiguration profilerConfiguration) {
+
+        // The last column holds the valid flag in the cleansed rows, the processing partition value was moved after the reject reason
+        List<Integer> columns = new ArrayList<>();
+        for (int idx = 0; idx < schema.length - 1; idx++) {
+            if (policies[idx].isProfile()) {
+                columns.add(idx);
             }
-            sb.append("]");
         }
-        return (sb == null ? "" : sb.toString());
+
+        int[] profiledColumns = new int[columns.size()];
+        StructField[] profiledFields = new StructField[columns.size()];
+        for (int i = 0; i < profiledColumns.length; i++) {
+            profiledColumns[i] = columns.get(i);
+            profiledFields[i] = fields[profiledColumns[i]];
+        }
+
+        return cleansedRowResultJavaRDD.treeAggregate(new ValidationStatisticsModel(schema.length, profilerConfiguration), new AddResultToValidationStatistics(profiledColumns, profiledFields),
+                                                      new CombineValidationStatistics());
     }
 
     /**
-     * Perform validation using both schema validation the validation policies
+     * Profiler configuration for profiling the valid rows into the profile table of this feed
      */
-    protected ValidationResult validateField(FieldPolicy fieldPolicy, HCatDataType fieldDataType, String fieldValue) {
-
-        boolean isEmpty = (StringUtils.isEmpty(fieldValue));
-        if (isEmpty) {
-            ValidationPolicy validator;
-            if ((validator = fieldPolicy.getNotNullValidator()) != null) {
-                ValidationResult result = validateValue(validator, fieldDataType, fieldValue);
-                if (result != VALID_RESULT) {
-                    return result;
-                }
-            }
-        } else {
+    private ProfilerConfiguration profilerConfiguration() {
+        ProfilerConfiguration profilerConfiguration = new ProfilerConfiguration();
+        profilerConfiguration.setNumberOfTopNValues(params.getProfileTopN());
+        profilerConfiguration.setOutputDbName(targetDatabase);
+        profilerConfiguration.setOutputTableName(profileTableName);
+        profilerConfiguration.setInputAndOutputTablePartitionKey(partition);
+        return profilerConfiguration;
+    }
 
-            // Verify new value is compatible with the target Hive schema e.g. integer, double (unless checking is disabled)
-            if (!fieldPolicy.shouldSkipSchemaValidation()) {
-                if (!fieldDataType.isValueConvertibleToType(fieldValue)) {
-                    return ValidationResult
-                        .failField("incompatible", fieldDataType.getName(),
-                                   "Not convertible to " + fieldDataType.getNativeType());
-                }
-            }
+    /**
+     * Writes the profile statistics of the valid rows to the profile table, after the validation stats
+     */
+    private void writeProfileStatistics(StatisticsModel profileStatistics) {
+        log.info("Writing profile statistics to {}", qualifiedProfileName);
+        JavaSparkContext jsc = new JavaSparkContext(SparkContext.getOrCreate());
+        profileStatistics.writeModel(jsc, getHiveContext(), scs);
+    }
 
-            // Validate type using provided validators
-            List<ValidationPolicy> validators = fieldPolicy.getValidators();
-            if (validators != null) {
-                for (ValidationPolicy validator : validators) {
-                    ValidationResult result = validateValue(validator, fieldDataType, fieldValue);
-                    if (result != VALID_RESULT) {
-                        return result;
-                    }
-                }
-            }
-        }
-        return VALID_RESULT;
+    /**
+     * Perform validation using both schema validation the validation policies
+     */
+    protected ValidationResult validateField(FieldPolicy fieldPolicy, HCatDataType fieldDataType, String fieldValue) {
+        return new ValidationPlan.ColumnPlan(fieldPolicy, fieldDataType).validate(fieldValue);
     }
 
     protected ValidationResult validateValue(ValidationPolicy validator, HCatDataType fieldDataType, String fieldValue) {
@@ -569,14 +531,7 @@ public class Validator implements Serializable {
         Class expectedParamClazz = validatorParamType.get(validator.getClass());
         if (expectedParamClazz == null) {
             // Cache for future references
-
-            Object t = validator.getClass().getGenericInterfaces()[0];
-            if (t instanceof ParameterizedType) {
-                ParameterizedType type = (ParameterizedType) t;
-                expectedParamClazz = (Class) type.getActualTypeArguments()[0];
-            } else {
-                expectedParamClazz = String.class;
-            }
+            expectedParamClazz = ValidationPlan.resolveValidatorParamType(validator);
             validatorParamType.put(validator.getClass(), expectedParamClazz);
         }
         return expectedParamClazz;
@@ -586,23 +541,8 @@ public class Validator implements Serializable {
      * Applies the standardization policies
      */
     protected Object standardizeField(FieldPolicy fieldPolicy, Object value) {
-        Object newValue = value;
         List<StandardizationPolicy> standardizationPolicies = fieldPolicy.getStandardizationPolicies();
-        if (standardizationPolicies != null) {
-            boolean isEmpty = ((value == null) || (StringUtils.isEmpty(value.toString())));
-            for (StandardizationPolicy standardizationPolicy : standardizationPolicies) {
-                if (isEmpty && !(standardizationPolicy instanceof AcceptsEmptyValues)) {
-                    continue;
-                }
-
-                if (!standardizationPolicy.accepts(value)) {
-                    continue;
-                }
-
-                newValue = standardizationPolicy.convertRawValue(newValue);
-            }
-        }
-        return newValue;
+        return (standardizationPolicies != null ? ValidationPlan.standardize(standardizationPolicies.toArray(new StandardizationPolicy[0]), value) : value);
     }
 
     /**
@@ -0,0 +1,101 @@
+package com.thinkbiganalytics.spark.datavalidator;
+
+/*-
+ * #%L
+ * thinkbig-spark-validate-cleanse-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.policy.FieldPolicy;
+import com.thinkbiganalytics.policy.FieldPolicyBuilder;
+import com.thinkbiganalytics.policy.validation.RangeValidator;
+import com.thinkbiganalytics.spark.validation.HCatDataType;
+
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures single-threaded cleanse and validate throughput, i.e. rows/sec per core, on a synthetic 100 column table.
+ * Skipped unless run with -Dvalidator.benchmark=true
+ */
+public class ValidationPlanBenchmark {
+
+    private static final int COLUMNS = 100;
+    private static final int ROWS = 200000;
+    private static final int WARMUP_ROWS = 50000;
+
+    @Test
+    public void benchmarkWideTable() {
+        Assume.assumeTrue(Boolean.getBoolean("validator.benchmark"));
+
+        FieldPolicy[] policies = new FieldPolicy[COLUMNS];
+        HCatDataType[] schema = new HCatDataType[COLUMNS];
+        for (int c = 0; c < COLUMNS; c++) {
+            String name = "col" + c;
+            switch (c % 3) {
+                case 0:
+                    schema[c] = HCatDataType.createFromDataType(name, "int");
+                    policies[c] = FieldPolicyBuilder.newBuilder().addValidator(new RangeValidator(0, 1000)).build();
+                    break;
+                case 1:
+                    schema[c] = HCatDataType.createFromDataType(name, "double");
+                    policies[c] = FieldPolicyBuilder.newBuilder().build();
+                    break;
+                default:
+                    schema[c] = HCatDataType.createFromDataType(name, "string");
+                    policies[c] = FieldPolicyBuilder.newBuilder().build();
+            }
+        }
+        // Last column is the processing partition
+        schema[COLUMNS - 1] = HCatDataType.createFromDataType("processing_dttm", "string");
+        policies[COLUMNS - 1] = FieldPolicyBuilder.SKIP_VALIDATION;
+
+        Row[] rows = new Row[1000];
+        for (int r = 0; r < rows.length; r++) {
+            Object[] values = new Object[COLUMNS];
+            for (int c = 0; c < COLUMNS - 1; c++) {
+                // Roughly one row in 20 has an out of range value
+                int value = (r % 20 == 0 && c == 0) ? 5000 : (r * 31 + c) % 1000;
+                values[c] = (c % 3 == 1 ? value + ".25" : Integer.toString(value));
+            }
+            values[COLUMNS - 1] = "20001";
+            rows[r] = RowFactory.create(values);
+        }
+
+        ValidationPlan plan = new ValidationPlan(policies, schema);
+        for (int i = 0; i < WARMUP_ROWS; i++) {
+            plan.cleanseAndValidateRow(rows[i % rows.length]);
+        }
+
+        long invalid = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            if (!plan.cleanseAndValidateRow(rows[i % rows.length]).rowIsValid) {
+                invalid++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("Validated %d rows x %d columns in %d ms: %.0f rows/sec per core (%d invalid)%n", ROWS, COLUMNS, elapsed / 1000000L,
+                          ROWS * 1e9d / elapsed, invalid);
+        assertTrue(invalid > 0);
+    }
+}
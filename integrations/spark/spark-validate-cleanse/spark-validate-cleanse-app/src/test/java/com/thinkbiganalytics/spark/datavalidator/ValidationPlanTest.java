@@ -0,0 +1,120 @@
+package com.thinkbiganalytics.spark.datavalidator;
+
+/*-
+ * #%L
+ * thinkbig-spark-validate-cleanse-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.policy.FieldPolicy;
+import com.thinkbiganalytics.policy.FieldPolicyBuilder;
+import com.thinkbiganalytics.policy.standardization.SimpleRegexReplacer;
+import com.thinkbiganalytics.policy.standardization.StandardizationPolicy;
+import com.thinkbiganalytics.policy.validation.RangeValidator;
+import com.thinkbiganalytics.policy.validation.ValidationPolicy;
+import com.thinkbiganalytics.spark.validation.HCatDataType;
+
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ValidationPlanTest {
+
+    private ValidationPlan plan;
+
+    @Before
+    public void setUp() {
+        List<ValidationPolicy> validationPolicies = new ArrayList<>();
+        validationPolicies.add(new RangeValidator(1, 100));
+        FieldPolicy amountPolicy = new FieldPolicy("emp", "amount", "amount", false, false, validationPolicies, new ArrayList<StandardizationPolicy>(), false, 0);
+
+        List<StandardizationPolicy> standardizationPolicies = new ArrayList<>();
+        standardizationPolicies.add(new SimpleRegexReplacer("(?i)foo", "bar"));
+        FieldPolicy namePolicy = new FieldPolicy("emp", "name", "name", false, false, Collections.<ValidationPolicy>emptyList(), standardizationPolicies, false, 0);
+
+        FieldPolicy[] policies = {amountPolicy, namePolicy, FieldPolicyBuilder.SKIP_VALIDATION};
+        HCatDataType[] schema = {HCatDataType.createFromDataType("amount", "int"), HCatDataType.createFromDataType("name", "string"),
+                                 HCatDataType.createFromDataType("processing_dttm", "string")};
+        plan = new ValidationPlan(policies, schema);
+    }
+
+    @Test
+    public void testValidRow() {
+        CleansedRowResult result = plan.cleanseAndValidateRow(RowFactory.create("50", "aafooaa", "20001"));
+
+        assertTrue(result.rowIsValid);
+        assertArrayEquals(new boolean[]{true, true, true}, result.columnsValid);
+        assertRow(result.row, "50", "aabaraa", "1", "", "20001");
+    }
+
+    @Test
+    public void testInvalidRow() {
+        CleansedRowResult result = plan.cleanseAndValidateRow(RowFactory.create("500", "abc", "20001"));
+
+        assertFalse(result.rowIsValid);
+        assertArrayEquals(new boolean[]{false, true, true}, result.columnsValid);
+        assertRow(result.row, "500", "abc", "0", "[{\"scope\":\"field\",\"field\":\"amount\",\"type\":\"rule\",\"rule\":\"RangeValidator\",\"reason\":\"Rule violation\"}]",
+                  "20001");
+
+        result = plan.cleanseAndValidateRow(RowFactory.create("abc", "abc", "20001"));
+        assertFalse(result.rowIsValid);
+        assertEquals("[{\"scope\":\"field\",\"field\":\"amount\",\"type\":\"incompatible\",\"reason\":\"Not convertible to int\"}]", result.row.get(3));
+    }
+
+    @Test
+    public void testEmptyRow() {
+        CleansedRowResult result = plan.cleanseAndValidateRow(RowFactory.create(null, null, "20001"));
+
+        assertFalse(result.rowIsValid);
+        assertEquals("[{\"scope\":\"row\",\"type\":\"empty\",\"reason\":\"Row is empty\"}]", result.row.get(3));
+    }
+
+    @Test
+    public void testBuffersReused() {
+        CleansedRowResult valid1 = plan.cleanseAndValidateRow(RowFactory.create("1", "a", "20001"));
+        CleansedRowResult invalid = plan.cleanseAndValidateRow(RowFactory.create("0", "b", "20001"));
+        CleansedRowResult valid2 = plan.cleanseAndValidateRow(RowFactory.create("2", "c", "20001"));
+
+        // Valid rows share the same column flags, invalid rows get their own
+        assertSame(valid1.columnsValid, valid2.columnsValid);
+        assertNotSame(valid1.columnsValid, invalid.columnsValid);
+        assertArrayEquals(new boolean[]{true, true, true}, valid2.columnsValid);
+
+        // Reject reasons from an earlier row must not leak into later rows
+        assertEquals("", valid2.row.get(3));
+        assertEquals("0", invalid.row.get(0));
+    }
+
+    private void assertRow(Row row, Object... expected) {
+        assertEquals(expected.length, row.length());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], row.get(i));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.thinkbiganalytics.spark.datavalidator;
+
+/*-
+ * #%L
+ * thinkbig-spark-validate-cleanse-app
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.spark.dataprofiler.columns.IntegerColumnStatistics;
+import com.thinkbiganalytics.spark.dataprofiler.columns.StringColumnStatistics;
+import com.thinkbiganalytics.spark.dataprofiler.core.ProfilerConfiguration;
+import com.thinkbiganalytics.spark.dataprofiler.model.StatisticsModel;
+
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructField;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ValidationStatisticsModelTest {
+
+    /* Cleansed rows hold amount, name, valid flag, reject reason, processing_dttm. Only amount and name are profiled. */
+    private static final int[] PROFILED_COLUMNS = {0, 1};
+    private static final StructField[] PROFILED_FIELDS = {DataTypes.createStructField("amount", DataTypes.IntegerType, true),
+                                                          DataTypes.createStructField("name", DataTypes.StringType, true)};
+
+    private final ProfilerConfiguration profilerConfiguration = new ProfilerConfiguration();
+
+    @Test
+    public void testCountsAndProfile() {
+        ValidationStatisticsModel partition1 = new ValidationStatisticsModel(3, profilerConfiguration);
+        partition1.add(result(true, new boolean[]{true, true, true}, "10", "a"), PROFILED_COLUMNS, PROFILED_FIELDS);
+        partition1.add(result(false, new boolean[]{false, true, true}, "abc", "b"), PROFILED_COLUMNS, PROFILED_FIELDS);
+
+        ValidationStatisticsModel partition2 = new ValidationStatisticsModel(3, profilerConfiguration);
+        partition2.add(result(true, new boolean[]{true, true, true}, "30", "a"), PROFILED_COLUMNS, PROFILED_FIELDS);
+        partition2.add(result(true, new boolean[]{true, true, true}, null, "c"), PROFILED_COLUMNS, PROFILED_FIELDS);
+
+        partition1.combine(partition2);
+        assertArrayEquals(new long[]{1L, 0L, 0L, 3L, 1L}, partition1.getValidationCounts());
+
+        // Only the valid rows are profiled, with values converted to the target column types
+        StatisticsModel statisticsModel = partition1.getProfileStatistics().toStatisticsModel();
+        IntegerColumnStatistics amount = (IntegerColumnStatistics) statisticsModel.getColumnStatisticsMap().get(0);
+        assertEquals(3L, amount.getTotalCount());
+        assertEquals(1L, amount.getNullCount());
+        assertEquals(40L, amount.getSum());
+        assertEquals(30, amount.getMax());
+
+        StringColumnStatistics name = (StringColumnStatistics) statisticsModel.getColumnStatisticsMap().get(1);
+        assertEquals(3L, name.getTotalCount());
+        assertEquals(2L, name.getUniqueCount());
+    }
+
+    @Test
+    public void testEmptyProfile() {
+        ValidationStatisticsModel model = new ValidationStatisticsModel(3, profilerConfiguration);
+        model.add(result(false, new boolean[]{true, false, true}, "1", ""), PROFILED_COLUMNS, PROFILED_FIELDS);
+
+        assertArrayEquals(new long[]{0L, 1L, 0L, 0L, 1L}, model.getValidationCounts());
+        assertTrue(model.getProfileStatistics().isEmpty());
+    }
+
+    @Test
+    public void testToProfileValue() {
+        assertEquals(42, ValidationStatisticsModel.toProfileValue("42", DataTypes.IntegerType));
+        assertEquals(42L, ValidationStatisticsModel.toProfileValue(" 42", DataTypes.LongType));
+        assertEquals(1.5d, ValidationStatisticsModel.toProfileValue("1.5", DataTypes.DoubleType));
+        assertEquals(new BigDecimal("12.30"), ValidationStatisticsModel.toProfileValue("12.30", DataTypes.createDecimalType(10, 2)));
+        assertEquals(Date.valueOf("2017-05-01"), ValidationStatisticsModel.toProfileValue("2017-05-01", DataTypes.DateType));
+        assertEquals(Boolean.TRUE, ValidationStatisticsModel.toProfileValue("TRUE", DataTypes.BooleanType));
+        assertEquals("", ValidationStatisticsModel.toProfileValue("", DataTypes.StringType));
+        assertNull(ValidationStatisticsModel.toProfileValue("", DataTypes.IntegerType));
+        assertNull(ValidationStatisticsModel.toProfileValue("abc", DataTypes.IntegerType));
+        assertEquals(7, ValidationStatisticsModel.toProfileValue(7, DataTypes.IntegerType));
+    }
+
+    private CleansedRowResult result(boolean rowIsValid, boolean[] columnsValid, String amount, String name) {
+        CleansedRowResult result = new CleansedRowResult();
+        result.row = RowFactory.create(amount, name, rowIsValid ? "1" : "0", "", "20001");
+        result.columnsValid = columnsValid;
+        result.rowIsValid = rowIsValid;
+        return result;
+    }
+}
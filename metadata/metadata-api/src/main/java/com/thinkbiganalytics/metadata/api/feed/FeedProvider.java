@@ -76,6 +76,14 @@ public interface FeedProvider extends BaseProvider<Feed, Feed.ID> {
 
     void populateInverseFeedDependencies();
 
+    /**
+     * Finds the feeds having a precondition that may be satisfied when the specified feed completes.
+     *
+     * @param categoryAndFeedName the qualified name of the completed feed
+     * @return the feeds whose preconditions should be assessed
+     */
+    List<? extends Feed> findPreconditionDependents(String categoryAndFeedName);
+
 
     void removeFeedSources(Feed.ID feedId);
 
@@ -135,5 +143,27 @@ public interface FeedProvider extends BaseProvider<Feed, Feed.ID> {
 
     List<? extends Feed> findByCategoryId(Category.ID categoryId);
 
+    /**
+     * Finds a page of feed summaries read directly from the feed properties.
+     *
+     * @param filter     case-insensitive text matched against the feed title and system name, or {@code null} for all feeds
+     * @param categoryId only return feeds in this category, or {@code null} for all categories
+     * @param sort       the column to sort by
+     * @param ascending  {@code true} to sort ascending, {@code false} to sort descending
+     * @param start      the index of the first summary to return
+     * @param limit      the maximum number of summaries to return, or a negative value for no limit
+     * @return the feed summaries
+     */
+    List<FeedSummaryProjection> findFeedSummaries(String filter, Category.ID categoryId, FeedSummaryProjection.SortField sort, boolean ascending, int start, int limit);
+
+    /**
+     * Counts the feeds matching the same criteria as {@link #findFeedSummaries(String, Category.ID, FeedSummaryProjection.SortField, boolean, int, int)}.
+     *
+     * @param filter     case-insensitive text matched against the feed title and system name, or {@code null} for all feeds
+     * @param categoryId only count feeds in this category, or {@code null} for all categories
+     * @return the number of matching feeds
+     */
+    long countFeedSummaries(String filter, Category.ID categoryId);
+
     // TODO Methods to add policy info to source
 }
@@ -0,0 +1,115 @@
+package com.thinkbiganalytics.metadata.api.feed;
+
+/*-
+ * #%L
+ * thinkbig-metadata-api
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.joda.time.DateTime;
+
+/**
+ * A read-only summary of a feed built from its stored properties without loading the feed entity.
+ * Used to list large numbers of feeds cheaply.
+ */
+public class FeedSummaryProjection {
+
+    private final String feedId;
+    private final String title;
+    private final String systemName;
+    private final Feed.State state;
+    private final DateTime modifiedTime;
+    private final String categoryId;
+    private final String categoryTitle;
+    private final String categorySystemName;
+    private final String categoryIcon;
+    private final String categoryIconColor;
+    private final String templateId;
+    private final String templateName;
+
+    public FeedSummaryProjection(String feedId, String title, String systemName, Feed.State state, DateTime modifiedTime,
+                                 String categoryId, String categoryTitle, String categorySystemName, String categoryIcon, String categoryIconColor,
+                                 String templateId, String templateName) {
+        this.feedId = feedId;
+        this.title = title;
+        this.systemName = systemName;
+        this.state = state;
+        this.modifiedTime = modifiedTime;
+        this.categoryId = categoryId;
+        this.categoryTitle = categoryTitle;
+        this.categorySystemName = categorySystemName;
+        this.categoryIcon = categoryIcon;
+        this.categoryIconColor = categoryIconColor;
+        this.templateId = templateId;
+        this.templateName = templateName;
+    }
+
+    public String getFeedId() {
+        return feedId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSystemName() {
+        return systemName;
+    }
+
+    public Feed.State getState() {
+        return state;
+    }
+
+    public DateTime getModifiedTime() {
+        return modifiedTime;
+    }
+
+    public String getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategoryTitle() {
+        return categoryTitle;
+    }
+
+    public String getCategorySystemName() {
+        return categorySystemName;
+    }
+
+    public String getCategoryIcon() {
+        return categoryIcon;
+    }
+
+    public String getCategoryIconColor() {
+        return categoryIconColor;
+    }
+
+    public String getTemplateId() {
+        return templateId;
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+
+    /**
+     * The columns feed summaries can be sorted by
+     */
+    public enum SortField {
+        FEED_NAME, SYSTEM_FEED_NAME, CATEGORY_NAME, STATE, TEMPLATE_NAME, UPDATE_DATE
+    }
+}
@@ -33,6 +33,7 @@ import com.thinkbiganalytics.metadata.api.feed.FeedCriteria;
 import com.thinkbiganalytics.metadata.api.feed.FeedDestination;
 import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
 import com.thinkbiganalytics.metadata.api.feed.FeedSource;
+import com.thinkbiganalytics.metadata.api.feed.FeedSummaryProjection;
 import com.thinkbiganalytics.metadata.api.feed.PreconditionBuilder;
 import com.thinkbiganalytics.metadata.core.AbstractMetadataCriteria;
 import com.thinkbiganalytics.metadata.core.feed.BaseFeed.FeedId;
@@ -56,6 +57,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
@@ -423,6 +425,19 @@ public class InMemoryFeedProvider implements FeedProvider {
         return null;
     }
 
+    @Override
+    public List<FeedSummaryProjection> findFeedSummaries(String filter, com.thinkbiganalytics.metadata.api.category.Category.ID categoryId, FeedSummaryProjection.SortField sort,
+                                                         boolean ascending, int start, int limit) {
+        // TODO Auto-generated method stub
+        return null;
+    }
+
+    @Override
+    public long countFeedSummaries(String filter, com.thinkbiganalytics.metadata.api.category.Category.ID categoryId) {
+        // TODO Auto-generated method stub
+        return 0;
+    }
+
     private FeedSource ensureFeedSource(BaseFeed feed, Datasource ds, ServiceLevelAgreement.ID slaId) {
         Map<Datasource.ID, FeedSource> srcIds = new HashMap<>();
         for (FeedSource src : feed.getSources()) {
@@ -484,6 +499,13 @@ public class InMemoryFeedProvider implements FeedProvider {
 
     }
 
+    @Override
+    public List<? extends Feed> findPreconditionDependents(String categoryAndFeedName) {
+        return this.feeds.values().stream()
+            .filter(feed -> feed.getPrecondition() != null)
+            .collect(Collectors.toList());
+    }
+
     private static class Criteria extends AbstractMetadataCriteria<FeedCriteria> implements FeedCriteria, Predicate<Feed> {
 
         private String name;
@@ -30,8 +30,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import javax.inject.Inject;
+
 import reactor.Environment;
 import reactor.bus.EventBus;
+import reactor.core.Dispatcher;
+import reactor.core.dispatch.RingBufferDispatcher;
 
 /**
  *
@@ -39,6 +43,9 @@ import reactor.bus.EventBus;
 @Configuration
 public class ReactorConfiguration {
 
+    @Inject
+    private org.springframework.core.env.Environment springEnvironment;
+
     @Bean(name = "reactorEnvironment")
     public Environment reactorEnvironment() {
         //force a new environment each time the bean creates it
@@ -77,14 +84,21 @@ public class ReactorConfiguration {
             .get();
     }
 
+    /**
+     * The metadata event bus gets its own dispatcher so that a dispatch waiting for room in a listener's queue never holds up the alert event buses,
+     * which use the environment's default dispatcher.  Metadata events wait behind such a dispatch.
+     */
     @Bean(name = "metadataEventBus")
     public EventBus metadataEventBus() {
         Environment env = reactorEnvironment();
         Logger log = LoggerFactory.getLogger(EventBus.class.getName() + "- Metadata event bus");
+        Dispatcher dispatcher = new RingBufferDispatcher("metadataEventDispatcher");
+        //registered with the environment so it is shut down along with it
+        env.setDispatcher("metadataEventDispatcher", dispatcher);
 
         return EventBus.config()
             .env(env)
-            .dispatcher(env.getDefaultDispatcher())
+            .dispatcher(dispatcher)
             .dispatchErrorHandler((t) -> {
                 log.error("Metadata event bus dispatch error", t);
             })
@@ -93,7 +107,13 @@ public class ReactorConfiguration {
 
     @Bean
     public MetadataEventService eventService() {
-        return new ReactorMetadataEventService();
+        int queueCapacity = springEnvironment.getProperty("metadata.events.listener.queueCapacity", Integer.class, ReactorMetadataEventService.DEFAULT_QUEUE_CAPACITY);
+        int threadCount = springEnvironment.getProperty("metadata.events.listener.threads", Integer.class, ReactorMetadataEventService.DEFAULT_THREAD_COUNT);
+        ReactorMetadataEventService.OverflowPolicy policy = springEnvironment.getProperty("metadata.events.listener.overflowPolicy", ReactorMetadataEventService.OverflowPolicy.class,
+                                                                                          ReactorMetadataEventService.OverflowPolicy.BLOCK);
+        long blockTimeout = springEnvironment.getProperty("metadata.events.listener.blockTimeoutMillis", Long.class, ReactorMetadataEventService.DEFAULT_BLOCK_TIMEOUT_MILLIS);
+
+        return new ReactorMetadataEventService(queueCapacity, policy, threadCount, blockTimeout);
     }
 
 //
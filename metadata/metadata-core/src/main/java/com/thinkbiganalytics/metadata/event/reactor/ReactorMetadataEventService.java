@@ -31,11 +31,20 @@ import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.ResolvableType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import java.io.Serializable;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 
@@ -47,21 +56,92 @@ import reactor.bus.selector.Selector;
 import reactor.fn.Consumer;
 
 /**
- *
+ * Publishes metadata events on the metadata event bus.
+ * <p>
+ * Events are published using their class as the key, so the bus registry resolves the listeners for an event type once
+ * and caches them rather than testing every listener's selector against every event.  Each listener receives its events
+ * through its own bounded queue, which is drained on a shared thread pool, so a slow listener does not hold up the others.
+ * When a listener's queue is full the {@link OverflowPolicy} decides whether the dispatch waits for room or the event is dropped.
+ * While a dispatch waits, the metadata event bus dispatcher delivers no other events.
+ * <p>
+ * Events published by a listener, on a delivery thread, do not go through the bus: they are queued without waiting, or delivered
+ * on the publishing thread when a queue is full, so a listener that publishes events itself cannot deadlock the bus.
  */
 public class ReactorMetadataEventService implements MetadataEventService {
 
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    public static final int DEFAULT_THREAD_COUNT = 4;
+    public static final long DEFAULT_BLOCK_TIMEOUT_MILLIS = 0L;
+
     private static final Logger log = LoggerFactory.getLogger(ReactorMetadataEventService.class);
+
+    /** Maximum number of events delivered to a listener before its drain task yields its thread to other listeners */
+    private static final int DRAIN_BATCH_SIZE = 100;
+
     private final Map<MetadataEventListener<?>, Registration<?, ?>> registrations;
+    private final Map<MetadataEventListener<?>, ListenerConsumer<?>> consumers;
+    private final ExecutorService executor;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMillis;
+
+    /** Set on the threads delivering events to listeners */
+    private final ThreadLocal<Boolean> deliveryThread = new ThreadLocal<>();
+
     @Inject
     @Named("metadataEventBus")
     private EventBus eventBus;
 
     /**
-     *
+     * Constructs a service using the default queue capacity, thread count and the {@link OverflowPolicy#BLOCK} policy.
      */
     public ReactorMetadataEventService() {
+        this(DEFAULT_QUEUE_CAPACITY, OverflowPolicy.BLOCK, DEFAULT_THREAD_COUNT);
+    }
+
+    /**
+     * Constructs a service with bounded listener queues.
+     *
+     * @param queueCapacity  the maximum number of undelivered events held for each listener
+     * @param overflowPolicy what to do with an event when a listener's queue is full
+     * @param threadCount    the number of threads delivering events to listeners
+     */
+    public ReactorMetadataEventService(int queueCapacity, OverflowPolicy overflowPolicy, int threadCount) {
+        this(queueCapacity, overflowPolicy, threadCount, DEFAULT_BLOCK_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Constructs a service with bounded listener queues.
+     *
+     * @param queueCapacity      the maximum number of undelivered events held for each listener
+     * @param overflowPolicy     what to do with an event when a listener's queue is full
+     * @param threadCount        the number of threads delivering events to listeners
+     * @param blockTimeoutMillis with the {@link OverflowPolicy#BLOCK} policy, how long to wait for room in a listener's queue before dropping the event,
+     *                           or 0 to wait until there is room
+     */
+    public ReactorMetadataEventService(int queueCapacity, OverflowPolicy overflowPolicy, int threadCount, long blockTimeoutMillis) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Listener queue capacity must be positive: " + queueCapacity);
+        }
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Listener thread count must be positive: " + threadCount);
+        }
+        if (blockTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Listener block timeout must not be negative: " + blockTimeoutMillis);
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("metadata-event-");
+        threadFactory.setDaemon(true);
+
         this.registrations = new ConcurrentHashMap<>();
+        this.consumers = new ConcurrentHashMap<>();
+        this.executor = Executors.newFixedThreadPool(threadCount, runnable -> threadFactory.newThread(() -> {
+            this.deliveryThread.set(Boolean.TRUE);
+            runnable.run();
+        }));
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
     }
 
 
@@ -72,7 +152,12 @@ public class ReactorMetadataEventService implements MetadataEventService {
     public <E extends MetadataEvent<? extends Serializable>> void notify(E event) {
         log.debug("Notify event: {}", event);
 
-        this.eventBus.notify(event, Event.wrap(event));
+        if (Boolean.TRUE.equals(this.deliveryThread.get())) {
+            // Waiting on the bus from a delivery thread could wait on a queue that only this thread drains
+            this.consumers.values().forEach(consumer -> consumer.acceptFromListener(event));
+        } else {
+            this.eventBus.notify(event.getClass(), Event.wrap(event));
+        }
     }
 
     /* (non-Javadoc)
@@ -82,8 +167,8 @@ public class ReactorMetadataEventService implements MetadataEventService {
     public <E extends MetadataEvent<? extends Serializable>> void addListener(MetadataEventListener<E> listener) {
         log.debug("Adding event listener: {}", listener);
 
-        Registration<?, ?> reg = this.eventBus.on(asSelector(listener), asConsumer(listener));
-        this.registrations.put(listener, reg);
+        EventTypeMatcher<E> typeMatcher = new EventTypeMatcher<>(listener);
+        register(listener, typeMatcher, typeMatcher);
     }
 
     /* (non-Javadoc)
@@ -93,8 +178,8 @@ public class ReactorMetadataEventService implements MetadataEventService {
     public <E extends MetadataEvent<? extends Serializable>> void addListener(MetadataEventListener<E> listener, EventMatcher<E> matcher) {
         log.debug("Adding event listener: {}", listener);
 
-        Registration<?, ?> reg = this.eventBus.on(asSelector(matcher), asConsumer(listener));
-        this.registrations.put(listener, reg);
+        EventTypeMatcher<E> typeMatcher = new EventTypeMatcher<>(listener);
+        register(listener, typeMatcher, typeMatcher.and(matcher));
     }
 
     @Override
@@ -102,43 +187,161 @@ public class ReactorMetadataEventService implements MetadataEventService {
         log.debug("Removing event listener: {}", listener);
 
         Registration<?, ?> reg = this.registrations.remove(listener);
+        this.consumers.remove(listener);
 
         if (reg != null) {
             reg.cancel();
         }
     }
 
-    private <E extends MetadataEvent<? extends Serializable>> Selector<E> asSelector(MetadataEventListener<E> listener) {
-        return new EventTypeMatcher<>(listener);
+    /**
+     * Stops delivering events.  Events still queued for listeners are discarded.
+     */
+    @PreDestroy
+    public void shutdown() {
+        this.registrations.values().forEach(Registration::cancel);
+        this.registrations.clear();
+        this.consumers.clear();
+        this.executor.shutdownNow();
     }
 
-    private <E extends MetadataEvent<? extends Serializable>> Selector<E> asSelector(EventMatcher<E> matcher) {
-        // TODO Auto-generated method stub
-        return null;
+    private <E extends MetadataEvent<? extends Serializable>> void register(MetadataEventListener<E> listener, EventTypeMatcher<E> typeMatcher, Predicate<E> filter) {
+        ListenerConsumer<E> consumer = new ListenerConsumer<>(listener, typeMatcher, filter, new ArrayBlockingQueue<>(this.queueCapacity), this.overflowPolicy,
+                                                              this.blockTimeoutMillis, this.executor);
+        this.consumers.put(listener, consumer);
+        this.registrations.put(listener, this.eventBus.on(typeMatcher, consumer));
     }
 
-    private <E extends MetadataEvent<? extends Serializable>> Consumer<Event<E>> asConsumer(MetadataEventListener<E> listener) {
-        return new ListenerConsumer<>(listener);
+
+    /**
+     * Determines what happens to an event when a listener's queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait for the listener to make room in its queue; with a positive block timeout, discard the event and log a warning once it expires */
+        BLOCK,
+        /** Discard the event for that listener and log a warning; listeners may miss events, so use only when every listener can tolerate that */
+        DROP
     }
 
 
-    private static class ListenerConsumer<E extends MetadataEvent<? extends Serializable>> implements Consumer<Event<E>> {
+    /**
+     * Queues matching events for a listener and delivers them in order, one thread at a time.
+     */
+    private static class ListenerConsumer<E extends MetadataEvent<? extends Serializable>> implements Consumer<Event<E>>, Runnable {
 
         private final MetadataEventListener<E> listener;
-
-        public ListenerConsumer(MetadataEventListener<E> listener) {
+        private final EventTypeMatcher<E> typeMatcher;
+        private final Predicate<E> filter;
+        private final BlockingQueue<E> queue;
+        private final OverflowPolicy overflowPolicy;
+        private final long blockTimeoutMillis;
+        private final ExecutorService executor;
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        public ListenerConsumer(MetadataEventListener<E> listener, EventTypeMatcher<E> typeMatcher, Predicate<E> filter, BlockingQueue<E> queue,
+                                OverflowPolicy overflowPolicy, long blockTimeoutMillis, ExecutorService executor) {
             super();
             this.listener = listener;
+            this.typeMatcher = typeMatcher;
+            this.filter = filter;
+            this.queue = queue;
+            this.overflowPolicy = overflowPolicy;
+            this.blockTimeoutMillis = blockTimeoutMillis;
+            this.executor = executor;
         }
 
         @Override
         public void accept(Event<E> event) {
-            this.listener.notify(event.getData());
+            E data = event.getData();
+
+            if (!this.filter.test(data)) {
+                return;
+            }
+
+            if (this.overflowPolicy == OverflowPolicy.BLOCK) {
+                try {
+                    if (this.blockTimeoutMillis == 0) {
+                        this.queue.put(data);
+                    } else if (!this.queue.offer(data, this.blockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                        log.warn("Dropping event {} for listener {}: its queue stayed full for {} ms", data, this.listener, this.blockTimeoutMillis);
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("Interrupted while queuing event {} for listener {}", data, this.listener);
+                    return;
+                }
+            } else if (!this.queue.offer(data)) {
+                log.warn("Dropping event {} for listener {}: its queue is full", data, this.listener);
+                return;
+            }
+
+            schedule();
+        }
+
+        /**
+         * Accepts an event published by a listener on a delivery thread.  The event is queued if there is room, and otherwise
+         * delivered on the calling thread, since waiting there for room could wait forever.
+         */
+        @SuppressWarnings("unchecked")
+        public void acceptFromListener(MetadataEvent<?> event) {
+            if (!this.typeMatcher.matches(event.getClass())) {
+                return;
+            }
+
+            E data = (E) event;
+
+            if (!this.filter.test(data)) {
+                return;
+            }
+
+            if (this.queue.offer(data)) {
+                schedule();
+            } else {
+                deliver(data);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                E event;
+                int count = 0;
+
+                while (count++ < DRAIN_BATCH_SIZE && (event = this.queue.poll()) != null) {
+                    deliver(event);
+                }
+            } finally {
+                this.scheduled.set(false);
+
+                // Events queued after the last poll but before the flag was cleared would otherwise wait for the next event
+                if (!this.queue.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        private void deliver(E event) {
+            try {
+                this.listener.notify(event);
+            } catch (Exception e) {
+                log.error("Event listener {} failed to handle event {}", this.listener, event, e);
+            }
+        }
+
+        private void schedule() {
+            if (this.scheduled.compareAndSet(false, true) && !this.executor.isShutdown()) {
+                this.executor.execute(this);
+            }
         }
     }
 
 
-    private static class EventTypeMatcher<E extends MetadataEvent<? extends Serializable>> implements EventMatcher<E>, Selector<E> {
+    /**
+     * Selects the event class keys assignable to the listener's event type, and tests that an event's data is of the type
+     * the listener expects.
+     */
+    private static class EventTypeMatcher<E extends MetadataEvent<? extends Serializable>> implements EventMatcher<E>, Selector<Object> {
 
         private final Class<? extends MetadataEvent<?>> eventClass;
         private final Class<? extends Serializable> dataClass;
@@ -168,13 +371,13 @@ public class ReactorMetadataEventService implements MetadataEventService {
         }
 
         @Override
-        public boolean matches(E event) {
-            return test(event);
+        public boolean matches(Object key) {
+            return key instanceof Class && this.eventClass.isAssignableFrom((Class<?>) key);
         }
 
         @Override
         public Object getObject() {
-            return null;
+            return this.eventClass;
         }
 
         @Override
@@ -29,14 +29,27 @@ import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+
+import reactor.bus.Event;
+import reactor.bus.EventBus;
+import reactor.bus.registry.Registration;
+import reactor.bus.selector.Selectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -47,9 +60,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 @ContextConfiguration(classes = {ReactorConfiguration.class})
 public class ReactorMetadataEventServiceTest {
 
+    private static final Logger log = LoggerFactory.getLogger(ReactorMetadataEventServiceTest.class);
+
     @Inject
     private MetadataEventService service;
 
+    @Inject
+    @Named("metadataEventBus")
+    private EventBus eventBus;
+
     @Test
     public void testMatchingDataType() throws Exception {
         final CompletableFuture<Integer> future = new CompletableFuture<>();
@@ -136,4 +155,277 @@ public class ReactorMetadataEventServiceTest {
 
         future.get(1, TimeUnit.SECONDS);
     }
+
+    @Test
+    public void testMatcherFiltersEvents() throws Exception {
+        final List<Integer> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(2);
+
+        class TestEvent extends AbstractMetadataEvent<Integer> {
+
+            public TestEvent(Integer data) {
+                super(data);
+            }
+        }
+
+        class TestEventListener implements MetadataEventListener<TestEvent> {
+
+            @Override
+            public void notify(TestEvent event) {
+                received.add(event.getData());
+                latch.countDown();
+            }
+        }
+
+        service.addListener(new TestEventListener(), event -> event.getData() % 2 == 0);
+
+        for (int i = 1; i <= 4; i++) {
+            service.notify(new TestEvent(i));
+        }
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).containsExactly(2, 4);
+    }
+
+    @Test
+    public void testDropWhenQueueFull() throws Exception {
+        ReactorMetadataEventService dropService = new ReactorMetadataEventService(1, ReactorMetadataEventService.OverflowPolicy.DROP, 1);
+        assertOverflowDropped(dropService);
+    }
+
+    @Test
+    public void testBlockTimesOutWhenQueueFull() throws Exception {
+        ReactorMetadataEventService blockService = new ReactorMetadataEventService(1, ReactorMetadataEventService.OverflowPolicy.BLOCK, 1, 100L);
+        assertOverflowDropped(blockService);
+    }
+
+    @Test
+    public void testBlockWaitsWhenQueueFull() throws Exception {
+        final ReactorMetadataEventService blockService = new ReactorMetadataEventService(1, ReactorMetadataEventService.OverflowPolicy.BLOCK, 1);
+        final List<Integer> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch delivered = new CountDownLatch(3);
+
+        class TestEvent extends AbstractMetadataEvent<Integer> {
+
+            public TestEvent(Integer data) {
+                super(data);
+            }
+        }
+
+        class TestEventListener implements MetadataEventListener<TestEvent> {
+
+            @Override
+            public void notify(TestEvent event) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.add(event.getData());
+                delivered.countDown();
+            }
+        }
+
+        ReflectionTestUtils.setField(blockService, "eventBus", eventBus);
+
+        try {
+            blockService.addListener(new TestEventListener());
+            blockService.notify(new TestEvent(1));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            blockService.notify(new TestEvent(2));
+            blockService.notify(new TestEvent(3));
+
+            release.countDown();
+            assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(received).containsExactly(1, 2, 3);
+        } finally {
+            blockService.shutdown();
+        }
+    }
+
+    @Test
+    public void testListenerPublishesWhenQueueFull() throws Exception {
+        final ReactorMetadataEventService blockService = new ReactorMetadataEventService(1, ReactorMetadataEventService.OverflowPolicy.BLOCK, 1);
+        final int eventCount = 10;
+        final List<Integer> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch delivered = new CountDownLatch(eventCount);
+
+        class TestEvent extends AbstractMetadataEvent<Integer> {
+
+            public TestEvent(Integer data) {
+                super(data);
+            }
+        }
+
+        class OtherEvent extends AbstractMetadataEvent<Integer> {
+
+            public OtherEvent(Integer data) {
+                super(data);
+            }
+        }
+
+        // Holds the only delivery thread while it publishes more events than the other listener's queue can hold
+        class TestEventListener implements MetadataEventListener<TestEvent> {
+
+            @Override
+            public void notify(TestEvent event) {
+                for (int i = 1; i <= eventCount; i++) {
+                    blockService.notify(new OtherEvent(i));
+                }
+            }
+        }
+
+        class OtherEventListener implements MetadataEventListener<OtherEvent> {
+
+            @Override
+            public void notify(OtherEvent event) {
+                received.add(event.getData());
+                delivered.countDown();
+            }
+        }
+
+        ReflectionTestUtils.setField(blockService, "eventBus", eventBus);
+
+        try {
+            blockService.addListener(new TestEventListener());
+            blockService.addListener(new OtherEventListener());
+            blockService.notify(new TestEvent(0));
+
+            assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(received).hasSize(eventCount);
+        } finally {
+            blockService.shutdown();
+        }
+    }
+
+    /**
+     * Publishes 3 events to a listener with a queue of 1: the first is being handled, the second fills the queue and the third is dropped.
+     */
+    private void assertOverflowDropped(ReactorMetadataEventService overflowService) throws Exception {
+        final List<Integer> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch dispatched = new CountDownLatch(1);
+        final CountDownLatch delivered = new CountDownLatch(2);
+
+        class TestEvent extends AbstractMetadataEvent<Integer> {
+
+            public TestEvent(Integer data) {
+                super(data);
+            }
+        }
+
+        class TestEventListener implements MetadataEventListener<TestEvent> {
+
+            @Override
+            public void notify(TestEvent event) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.add(event.getData());
+                delivered.countDown();
+            }
+        }
+
+        ReflectionTestUtils.setField(overflowService, "eventBus", eventBus);
+
+        // The bus dispatches to its consumers in registration order, so this sees the last event once the listener has queued or dropped it
+        Registration<?, ?> probe = null;
+
+        try {
+            overflowService.addListener(new TestEventListener());
+            probe = eventBus.on(Selectors.$(TestEvent.class), (Event<TestEvent> event) -> {
+                if (event.getData().getData() == 3) {
+                    dispatched.countDown();
+                }
+            });
+
+            overflowService.notify(new TestEvent(1));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            overflowService.notify(new TestEvent(2));
+            overflowService.notify(new TestEvent(3));
+
+            assertThat(dispatched.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+            assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(received).containsExactly(1, 2);
+        } finally {
+            if (probe != null) {
+                probe.cancel();
+            }
+            overflowService.shutdown();
+        }
+    }
+
+    @Test
+    public void testPublishLatencyWithManyListeners() throws Exception {
+        final int listenerCount = 1000;
+        final int eventCount = 10000;
+        final CountDownLatch latch = new CountDownLatch(eventCount);
+
+        class TestEvent extends AbstractMetadataEvent<Integer> {
+
+            public TestEvent(Integer data) {
+                super(data);
+            }
+        }
+
+        class OtherEvent extends AbstractMetadataEvent<Integer> {
+
+            public OtherEvent(Integer data) {
+                super(data);
+            }
+        }
+
+        class TestEventListener implements MetadataEventListener<TestEvent> {
+
+            @Override
+            public void notify(TestEvent event) {
+                latch.countDown();
+            }
+        }
+
+        class OtherEventListener implements MetadataEventListener<OtherEvent> {
+
+            @Override
+            public void notify(OtherEvent event) {
+            }
+        }
+
+        List<MetadataEventListener<?>> listeners = new ArrayList<>();
+        for (int i = 0; i < listenerCount - 1; i++) {
+            OtherEventListener listener = new OtherEventListener();
+            service.addListener(listener);
+            listeners.add(listener);
+        }
+        TestEventListener testListener = new TestEventListener();
+        service.addListener(testListener);
+        listeners.add(testListener);
+
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < eventCount; i++) {
+                service.notify(new TestEvent(i));
+            }
+            long published = System.nanoTime();
+
+            assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+            long delivered = System.nanoTime();
+
+            log.info("Published {} events with {} listeners in {} ms ({} us per event), delivered in {} ms",
+                     eventCount, listenerCount,
+                     TimeUnit.NANOSECONDS.toMillis(published - start),
+                     TimeUnit.NANOSECONDS.toMicros(published - start) / eventCount,
+                     TimeUnit.NANOSECONDS.toMillis(delivered - start));
+        } finally {
+            listeners.forEach(service::removeListener);
+        }
+    }
 }
@@ -55,7 +55,8 @@ public class ModeShapeEngineConfig {
     public static final String[] CONFIG_PROPS = {"modeshape.datasource.driverClassName",
                                                   "modeshape.datasource.url",
                                                   "modeshape.datasource.username",
-                                                  "modeshape.datasource.password"
+                                                  "modeshape.datasource.password",
+                                                  "modeshape.index.dir"
     };
 
     @Inject
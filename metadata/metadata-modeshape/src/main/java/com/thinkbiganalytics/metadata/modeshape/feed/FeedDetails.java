@@ -71,6 +71,11 @@ public class FeedDetails extends JcrPropertiesEntity {
     public static final String PRECONDITION = "tba:precondition";
     public static final String DEPENDENTS = "tba:dependentFeeds";
     public static final String USED_BY_FEEDS = "tba:usedByFeeds";
+    public static final String PRECONDITION_FEEDS = "tba:preconditionFeeds";
+    /**
+     * Value of {@link #PRECONDITION_FEEDS} for preconditions that are assessed when any feed completes
+     */
+    public static final String ANY_FEED = "*";
     public static final String SOURCE_NAME = "tba:sources";
     public static final String DESTINATION_NAME = "tba:destinations";
 
@@ -338,6 +343,16 @@ public class FeedDetails extends JcrPropertiesEntity {
         }
     }
 
+    /**
+     * Records the qualified names of the feeds that the precondition depends on.  This is the reverse index used to find the
+     * feeds to assess when a feed completes.
+     *
+     * @param feedNames the lower case feed names, or {@link #ANY_FEED}
+     */
+    protected void setPreconditionFeeds(Set<String> feedNames) {
+        setProperty(PRECONDITION_FEEDS, feedNames);
+    }
+
     protected Node createNewPrecondition() {
         try {
             Node feedNode = getNode();
@@ -349,6 +364,10 @@ public class FeedDetails extends JcrPropertiesEntity {
             if (precondNode.hasNode(JcrFeedPrecondition.SLA)) {
                 precondNode.getNode(JcrFeedPrecondition.SLA).remove();
             }
+            // assess the new precondition for every feed until its dependencies are recorded
+            if (feedNode.hasProperty(PRECONDITION_FEEDS)) {
+                feedNode.getProperty(PRECONDITION_FEEDS).remove();
+            }
 
             return precondNode.addNode(JcrFeedPrecondition.SLA, JcrFeedPrecondition.SLA_TYPE);
         } catch (RepositoryException e) {
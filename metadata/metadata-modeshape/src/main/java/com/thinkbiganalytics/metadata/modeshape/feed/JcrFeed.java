@@ -10,6 +10,7 @@ import com.thinkbiganalytics.metadata.api.feed.FeedSource;
 import com.thinkbiganalytics.metadata.api.feed.InitializationStatus;
 import com.thinkbiganalytics.metadata.api.feed.security.FeedOpsAccessControlProvider;
 import com.thinkbiganalytics.metadata.api.security.HadoopSecurityGroup;
+import com.thinkbiganalytics.metadata.api.sla.FeedExecutedSinceFeed;
 import com.thinkbiganalytics.metadata.api.template.FeedManagerTemplate;
 import com.thinkbiganalytics.metadata.modeshape.MetadataRepositoryException;
 import com.thinkbiganalytics.metadata.modeshape.category.JcrCategory;
@@ -32,6 +33,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.jcr.Node;
@@ -309,7 +311,14 @@ public class JcrFeed extends AbstractJcrAuditableSystemEntity implements Feed, A
     }
 
     public void setPrecondition(JcrServiceLevelAgreement sla) {
-//        Node precondNode
+        Set<String> feedNames = sla.getObligationGroups().stream()
+            .flatMap(group -> group.getObligations().stream())
+            .flatMap(obligation -> obligation.getMetrics().stream())
+            .map(metric -> metric instanceof FeedExecutedSinceFeed && ((FeedExecutedSinceFeed) metric).getCategoryAndFeed() != null
+                           ? ((FeedExecutedSinceFeed) metric).getCategoryAndFeed().toLowerCase()
+                           : FeedDetails.ANY_FEED)
+            .collect(Collectors.toSet());
+        getFeedDetails().ifPresent(d -> d.setPreconditionFeeds(feedNames));
     }
 
     @Override
@@ -44,6 +44,7 @@ import com.thinkbiganalytics.metadata.api.feed.FeedDestination;
 import com.thinkbiganalytics.metadata.api.feed.FeedNotFoundExcepton;
 import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
 import com.thinkbiganalytics.metadata.api.feed.FeedSource;
+import com.thinkbiganalytics.metadata.api.feed.FeedSummaryProjection;
 import com.thinkbiganalytics.metadata.api.feed.PreconditionBuilder;
 import com.thinkbiganalytics.metadata.api.feed.security.FeedAccessControl;
 import com.thinkbiganalytics.metadata.api.feed.security.FeedOpsAccessControlProvider;
@@ -57,6 +58,7 @@ import com.thinkbiganalytics.metadata.modeshape.category.JcrCategory;
 import com.thinkbiganalytics.metadata.modeshape.common.EntityUtil;
 import com.thinkbiganalytics.metadata.modeshape.common.JcrEntity;
 import com.thinkbiganalytics.metadata.modeshape.common.JcrObject;
+import com.thinkbiganalytics.metadata.modeshape.common.JcrPropertyConstants;
 import com.thinkbiganalytics.metadata.modeshape.datasource.JcrDatasource;
 import com.thinkbiganalytics.metadata.modeshape.extension.ExtensionsConstants;
 import com.thinkbiganalytics.metadata.modeshape.security.action.JcrAllowedActions;
@@ -66,6 +68,7 @@ import com.thinkbiganalytics.metadata.modeshape.sla.JcrServiceLevelAgreementProv
 import com.thinkbiganalytics.metadata.modeshape.support.JcrPropertyUtil;
 import com.thinkbiganalytics.metadata.modeshape.support.JcrQueryUtil;
 import com.thinkbiganalytics.metadata.modeshape.support.JcrUtil;
+import com.thinkbiganalytics.metadata.modeshape.template.JcrFeedTemplate;
 import com.thinkbiganalytics.metadata.sla.api.Metric;
 import com.thinkbiganalytics.metadata.sla.api.Obligation;
 import com.thinkbiganalytics.metadata.sla.api.ObligationGroup.Condition;
@@ -80,6 +83,7 @@ import com.thinkbiganalytics.security.role.SecurityRole;
 import com.thinkbiganalytics.security.role.SecurityRoleProvider;
 import com.thinkbiganalytics.support.FeedNameUtil;
 
+import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
 import org.springframework.security.core.context.SecurityContextHolder;
 
@@ -100,7 +104,10 @@ import javax.jcr.Node;
 import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
+import javax.jcr.Value;
 import javax.jcr.query.QueryResult;
+import javax.jcr.query.Row;
+import javax.jcr.query.RowIterator;
 
 /**
  * A JCR provider for {@link Feed} objects.
@@ -370,6 +377,7 @@ public class JcrFeedProvider extends BaseJcrProvider<Feed, Feed.ID> implements F
             .metric(metrics)
             .build()
             .build();
+        slaBldr.build();
 
         return feed;
     }
@@ -481,17 +489,28 @@ public class JcrFeedProvider extends BaseJcrProvider<Feed, Feed.ID> implements F
 
     @Override
     public List<? extends Feed> findByTemplateId(FeedManagerTemplate.ID templateId) {
-        String query = "SELECT * from " + EntityUtil.asQueryProperty(JcrFeed.NODE_TYPE) + " as e WHERE e." + EntityUtil.asQueryProperty(FeedDetails.TEMPLATE) + " = $id";
+        // the template reference is on the details node and is indexed there
+        String query = "SELECT e.* FROM " + EntityUtil.asQueryProperty(JcrFeed.NODE_TYPE) + " AS e "
+                       + "INNER JOIN " + EntityUtil.asQueryProperty(FeedSummary.NODE_TYPE) + " AS summary ON ISCHILDNODE(summary, e) "
+                       + "INNER JOIN " + EntityUtil.asQueryProperty(FeedDetails.NODE_TYPE) + " AS details ON ISCHILDNODE(details, summary) "
+                       + "WHERE details." + EntityUtil.asQueryProperty(FeedDetails.TEMPLATE) + " = $id";
+
         Map<String, String> bindParams = new HashMap<>();
         bindParams.put("id", templateId.toString());
-        return JcrQueryUtil.find(getSession(), query, JcrFeed.class);
+
+        try {
+            QueryResult result = JcrQueryUtil.query(getSession(), query, bindParams);
+            return JcrQueryUtil.queryRowItrNodeResultToList(result, JcrFeed.class, "e");
+        } catch (RepositoryException e) {
+            throw new MetadataRepositoryException("Unable to getFeeds for Template ", e);
+        }
     }
 
     @Override
     public List<? extends Feed> findByCategoryId(Category.ID categoryId) {
 
-        String query = "SELECT e.* from " + EntityUtil.asQueryProperty(JcrFeed.NODE_TYPE) + " as e "
-                       + "INNER JOIN ['tba:feedSummary'] as summary on ISCHILDNODE(summary,e)"
+        String query = "SELECT e.* FROM " + EntityUtil.asQueryProperty(JcrFeed.NODE_TYPE) + " AS e "
+                       + "INNER JOIN " + EntityUtil.asQueryProperty(FeedSummary.NODE_TYPE) + " AS summary ON ISCHILDNODE(summary, e) "
                        + "WHERE summary." + EntityUtil.asQueryProperty(FeedSummary.CATEGORY) + " = $id";
 
         Map<String, String> bindParams = new HashMap<>();
@@ -499,13 +518,140 @@ public class JcrFeedProvider extends BaseJcrProvider<Feed, Feed.ID> implements F
 
         try {
             QueryResult result = JcrQueryUtil.query(getSession(), query, bindParams);
-            return JcrQueryUtil.queryResultToList(result, JcrFeed.class);
+            return JcrQueryUtil.queryRowItrNodeResultToList(result, JcrFeed.class, "e");
         } catch (RepositoryException e) {
             throw new MetadataRepositoryException("Unable to getFeeds for Category ", e);
         }
 
     }
 
+    @Override
+    public List<FeedSummaryProjection> findFeedSummaries(String filter, Category.ID categoryId, FeedSummaryProjection.SortField sort, boolean ascending, int start, int limit) {
+        Map<String, String> bindParams = new HashMap<>();
+        String query = "SELECT e.[jcr:uuid] AS feedId, "
+                       + "summary." + EntityUtil.asQueryProperty(JcrPropertyConstants.TITLE) + " AS title, "
+                       + "summary." + EntityUtil.asQueryProperty(JcrPropertyConstants.SYSTEM_NAME) + " AS systemName, "
+                       + "summary." + EntityUtil.asQueryProperty(JcrPropertyConstants.MODIFIED_TIME) + " AS modifiedTime, "
+                       + "data." + EntityUtil.asQueryProperty(FeedData.STATE) + " AS state, "
+                       + "category.[jcr:uuid] AS categoryId, "
+                       + "category." + EntityUtil.asQueryProperty(JcrPropertyConstants.TITLE) + " AS categoryTitle, "
+                       + "category." + EntityUtil.asQueryProperty(JcrPropertyConstants.SYSTEM_NAME) + " AS categorySystemName, "
+                       + "category." + EntityUtil.asQueryProperty(JcrCategory.ICON) + " AS categoryIcon, "
+                       + "category." + EntityUtil.asQueryProperty(JcrCategory.ICON_COLOR) + " AS categoryIconColor, "
+                       + "template.[jcr:uuid] AS templateId, "
+                       + "template." + EntityUtil.asQueryProperty(JcrPropertyConstants.TITLE) + " AS templateName "
+                       + feedSummaryFromClause(filter, categoryId, bindParams)
+                       + " ORDER BY " + feedSummarySortColumn(sort) + (ascending ? " ASC" : " DESC")
+                       + ", summary." + EntityUtil.asQueryProperty(JcrPropertyConstants.SYSTEM_NAME) + " ASC";
+
+        try {
+            QueryResult result = JcrQueryUtil.query(getSession(), query, bindParams, Math.max(start, 0), limit);
+            List<FeedSummaryProjection> summaries = new ArrayList<>();
+            RowIterator rowIterator = result.getRows();
+            while (rowIterator.hasNext()) {
+                Row row = rowIterator.nextRow();
+                String state = getString(row, "state");
+                Value modifiedTime = row.getValue("modifiedTime");
+                summaries.add(new FeedSummaryProjection(getString(row, "feedId"),
+                                                        getString(row, "title"),
+                                                        getString(row, "systemName"),
+                                                        state != null ? Feed.State.valueOf(state) : null,
+                                                        modifiedTime != null ? new DateTime(modifiedTime.getDate().getTime()) : null,
+                                                        getString(row, "categoryId"),
+                                                        getString(row, "categoryTitle"),
+                                                        getString(row, "categorySystemName"),
+                                                        getString(row, "categoryIcon"),
+                                                        getString(row, "categoryIconColor"),
+                                                        getString(row, "templateId"),
+                                                        getString(row, "templateName")));
+            }
+            return summaries;
+        } catch (RepositoryException e) {
+            throw new MetadataRepositoryException("Unable to find feed summaries.  Query is: " + query, e);
+        }
+    }
+
+    @Override
+    public long countFeedSummaries(String filter, Category.ID categoryId) {
+        Map<String, String> bindParams = new HashMap<>();
+        String query = "SELECT e.[jcr:uuid] " + feedSummaryFromClause(filter, categoryId, bindParams);
+
+        try {
+            RowIterator rowIterator = JcrQueryUtil.query(getSession(), query, bindParams).getRows();
+            long size = rowIterator.getSize();
+            if (size < 0) {
+                size = 0;
+                while (rowIterator.hasNext()) {
+                    rowIterator.nextRow();
+                    size++;
+                }
+            }
+            return size;
+        } catch (RepositoryException e) {
+            throw new MetadataRepositoryException("Unable to count feed summaries.  Query is: " + query, e);
+        }
+    }
+
+    /**
+     * Builds the FROM and WHERE clauses shared by the feed summary queries, adding any bind parameters needed
+     */
+    private String feedSummaryFromClause(String filter, Category.ID categoryId, Map<String, String> bindParams) {
+        StringBuilder query = new StringBuilder()
+            .append("FROM ").append(EntityUtil.asQueryProperty(JcrFeed.NODE_TYPE)).append(" AS e ")
+            .append("INNER JOIN ").append(EntityUtil.asQueryProperty(FeedSummary.NODE_TYPE)).append(" AS summary ON ISCHILDNODE(summary, e) ")
+            .append("INNER JOIN ").append(EntityUtil.asQueryProperty(FeedData.NODE_TYPE)).append(" AS data ON ISCHILDNODE(data, e) ")
+            .append("INNER JOIN ").append(EntityUtil.asQueryProperty(JcrCategory.NODE_TYPE)).append(" AS category ON summary.")
+            .append(EntityUtil.asQueryProperty(FeedSummary.CATEGORY)).append(" = category.[jcr:uuid] ")
+            .append("LEFT OUTER JOIN ").append(EntityUtil.asQueryProperty(FeedDetails.NODE_TYPE)).append(" AS details ON ISCHILDNODE(details, summary) ")
+            .append("LEFT OUTER JOIN ").append(EntityUtil.asQueryProperty(JcrFeedTemplate.NODE_TYPE)).append(" AS template ON details.")
+            .append(EntityUtil.asQueryProperty(FeedDetails.TEMPLATE)).append(" = template.[jcr:uuid] ");
+
+        List<String> conditions = new ArrayList<>();
+        if (StringUtils.isNotBlank(filter)) {
+            bindParams.put("filter", "%" + escapeLike(filter.trim().toLowerCase()) + "%");
+            conditions.add("(LOWER(summary." + EntityUtil.asQueryProperty(JcrPropertyConstants.TITLE) + ") LIKE $filter"
+                           + " OR LOWER(summary." + EntityUtil.asQueryProperty(JcrPropertyConstants.SYSTEM_NAME) + ") LIKE $filter)");
+        }
+        if (categoryId != null) {
+            bindParams.put("categoryId", categoryId.toString());
+            conditions.add("summary." + EntityUtil.asQueryProperty(FeedSummary.CATEGORY) + " = $categoryId");
+        }
+        if (!conditions.isEmpty()) {
+            query.append("WHERE ").append(StringUtils.join(conditions, " AND "));
+        }
+        return query.toString();
+    }
+
+    private String feedSummarySortColumn(FeedSummaryProjection.SortField sort) {
+        switch (sort != null ? sort : FeedSummaryProjection.SortField.FEED_NAME) {
+            case SYSTEM_FEED_NAME:
+                return "summary." + EntityUtil.asQueryProperty(JcrPropertyConstants.SYSTEM_NAME);
+            case CATEGORY_NAME:
+                return "category." + EntityUtil.asQueryProperty(JcrPropertyConstants.TITLE);
+            case STATE:
+                return "data." + EntityUtil.asQueryProperty(FeedData.STATE);
+            case TEMPLATE_NAME:
+                return "template." + EntityUtil.asQueryProperty(JcrPropertyConstants.TITLE);
+            case UPDATE_DATE:
+                return "summary." + EntityUtil.asQueryProperty(JcrPropertyConstants.MODIFIED_TIME);
+            case FEED_NAME:
+            default:
+                return "summary." + EntityUtil.asQueryProperty(JcrPropertyConstants.TITLE);
+        }
+    }
+
+    /**
+     * Escapes the LIKE wildcards in user supplied text so they match literally
+     */
+    private String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private String getString(Row row, String column) throws RepositoryException {
+        Value value = row.getValue(column);
+        return value != null ? value.getString() : null;
+    }
+
 //
 //    @Override
 //    public FeedSource getFeedSource(com.thinkbiganalytics.metadata.api.feed.FeedSource.ID id) {
@@ -679,6 +825,29 @@ public class JcrFeedProvider extends BaseJcrProvider<Feed, Feed.ID> implements F
         }, MetadataAccess.SERVICE);
     }
 
+    @Override
+    public List<? extends Feed> findPreconditionDependents(String categoryAndFeedName) {
+        // feeds whose dependencies have not been recorded yet have no value and are always included
+        String query = "SELECT e.* FROM " + EntityUtil.asQueryProperty(JcrFeed.NODE_TYPE) + " AS e "
+                       + "INNER JOIN " + EntityUtil.asQueryProperty(FeedSummary.NODE_TYPE) + " AS summary ON ISCHILDNODE(summary, e) "
+                       + "INNER JOIN " + EntityUtil.asQueryProperty(FeedDetails.NODE_TYPE) + " AS details ON ISCHILDNODE(details, summary) "
+                       + "INNER JOIN " + EntityUtil.asQueryProperty(JcrFeed.PRECONDITION_TYPE) + " AS precondition ON ISCHILDNODE(precondition, details) "
+                       + "WHERE details." + EntityUtil.asQueryProperty(FeedDetails.PRECONDITION_FEEDS) + " = $feedName"
+                       + " OR details." + EntityUtil.asQueryProperty(FeedDetails.PRECONDITION_FEEDS) + " = $anyFeed"
+                       + " OR details." + EntityUtil.asQueryProperty(FeedDetails.PRECONDITION_FEEDS) + " IS NULL";
+
+        Map<String, String> bindParams = new HashMap<>();
+        bindParams.put("feedName", categoryAndFeedName.toLowerCase());
+        bindParams.put("anyFeed", FeedDetails.ANY_FEED);
+
+        try {
+            QueryResult result = JcrQueryUtil.query(getSession(), query, bindParams);
+            return JcrQueryUtil.queryRowItrNodeResultToList(result, JcrFeed.class, "e");
+        } catch (RepositoryException e) {
+            throw new MetadataRepositoryException("Unable to find the feeds with preconditions depending on " + categoryAndFeedName, e);
+        }
+    }
+
     public void populateInverseFeedDependencies() {
         Map<Feed.ID, Feed> map = new HashMap<Feed.ID, Feed>();
         List<Feed> feeds = getFeeds();
@@ -700,10 +869,15 @@ public class JcrFeedProvider extends BaseJcrProvider<Feed, Feed.ID> implements F
         private String category;
 
         /**
-         * Selects by navigation rather than SQL
+         * Selects by navigation when the category is known, as the feed nodes are then direct children of the category and unsaved feeds are also found.
+         * Otherwise the feeds are found with a query on the indexed system name.
          */
         @Override
         public <E, J extends JcrObject> List<E> select(Session session, String typeName, Class<E> type, Class<J> jcrClass) {
+            if (this.category == null) {
+                return (List<E>) selectByQuery(session);
+            }
+
             try {
                 // Datasources are not currently used so only name comparison is necessary
                 Node feedsNode = session.getRootNode().getNode("metadata/feeds");
@@ -746,6 +920,27 @@ public class JcrFeedProvider extends BaseJcrProvider<Feed, Feed.ID> implements F
             }
         }
 
+        /**
+         * Selects feeds in any category, which would otherwise require walking every category node
+         */
+        private List<JcrFeed> selectByQuery(Session session) {
+            String query = "SELECT e.* FROM " + EntityUtil.asQueryProperty(JcrFeed.NODE_TYPE) + " AS e "
+                           + "INNER JOIN " + EntityUtil.asQueryProperty(FeedSummary.NODE_TYPE) + " AS summary ON ISCHILDNODE(summary, e)";
+            Map<String, String> bindParams = new HashMap<>();
+
+            if (this.name != null) {
+                query += " WHERE summary." + EntityUtil.asQueryProperty(JcrPropertyConstants.SYSTEM_NAME) + " = $name";
+                bindParams.put("name", this.name);
+            }
+
+            try {
+                QueryResult result = JcrQueryUtil.query(session, query, bindParams);
+                return JcrQueryUtil.queryRowItrNodeResultToList(result, JcrFeed.class, "e");
+            } catch (RepositoryException e) {
+                throw new MetadataRepositoryException("Failed to select feeds", e);
+            }
+        }
+
         @Override
         @Deprecated
         protected void applyFilter(StringBuilder queryStr, HashMap<String, Object> params) {
@@ -865,12 +1060,15 @@ public class JcrFeedProvider extends BaseJcrProvider<Feed, Feed.ID> implements F
             this.feed = feed;
         }
 
+        // return this builder so that the precondition is set up when build() is called at the end of the chain
         public ServiceLevelAgreementBuilder name(String name) {
-            return slaBuilder.name(name);
+            slaBuilder.name(name);
+            return this;
         }
 
         public ServiceLevelAgreementBuilder description(String description) {
-            return slaBuilder.description(description);
+            slaBuilder.description(description);
+            return this;
         }
 
         public ServiceLevelAgreementBuilder obligation(Obligation obligation) {
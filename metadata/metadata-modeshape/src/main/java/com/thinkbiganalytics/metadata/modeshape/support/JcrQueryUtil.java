@@ -144,10 +144,25 @@ public class JcrQueryUtil {
     }
 
     public static QueryResult query(Session session, String queryExpression, Map<String, String> bindParams) throws RepositoryException {
+        return query(session, queryExpression, bindParams, 0, -1);
+    }
+
+    /**
+     * Execute a JCR-SQL2 query returning at most {@code limit} rows starting at row {@code offset}
+     *
+     * @param limit the maximum number of rows, or a negative value for no limit
+     */
+    public static QueryResult query(Session session, String queryExpression, Map<String, String> bindParams, long offset, long limit) throws RepositoryException {
 
         QueryResult results = null;
 
         Query query = session.getWorkspace().getQueryManager().createQuery(queryExpression, "JCR-SQL2");
+        if (offset > 0) {
+            query.setOffset(offset);
+        }
+        if (limit >= 0) {
+            query.setLimit(limit);
+        }
         if (bindParams != null && !bindParams.isEmpty()) {
             Iterator e = bindParams.entrySet().iterator();
 
@@ -28,6 +28,8 @@ import com.thinkbiganalytics.metadata.api.datasource.DerivedDatasource;
 import com.thinkbiganalytics.metadata.api.feed.Feed;
 import com.thinkbiganalytics.metadata.api.feed.FeedDestination;
 import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
+import com.thinkbiganalytics.metadata.api.feed.FeedSummaryProjection;
+import com.thinkbiganalytics.metadata.api.sla.FeedExecutedSinceFeed;
 import com.thinkbiganalytics.metadata.api.template.FeedManagerTemplate;
 import com.thinkbiganalytics.metadata.api.template.FeedManagerTemplateProvider;
 import com.thinkbiganalytics.metadata.api.template.TemplateDeletionException;
@@ -35,6 +37,7 @@ import com.thinkbiganalytics.metadata.modeshape.JcrMetadataAccess;
 import com.thinkbiganalytics.metadata.modeshape.JcrTestConfig;
 import com.thinkbiganalytics.metadata.modeshape.ModeShapeEngineConfig;
 import com.thinkbiganalytics.metadata.modeshape.security.AdminCredentials;
+import com.thinkbiganalytics.metadata.sla.api.Metric;
 import com.thinkbiganalytics.support.FeedNameUtil;
 
 import org.junit.Test;
@@ -46,9 +49,12 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.testng.Assert;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -158,6 +164,129 @@ public class FeedManagerFeedTest {
 
     }
 
+    /**
+     * Test paging, sorting and filtering feed summaries and compare the time to list them with loading the feeds
+     */
+    @Test
+    public void testFeedSummaries() {
+        //increase to benchmark listing a large number of feeds .. i.e. 10000
+        int numberOfFeeds = 200;
+        String categorySystemName = "summary_category";
+        String templateName = "summary_template";
+
+        Category.ID categoryId = metadata.commit(() -> {
+            Category category = feedTestUtil.findOrCreateCategory(categorySystemName);
+            FeedManagerTemplate template = feedTestUtil.findOrCreateTemplate(templateName);
+            for (int i = 0; i < numberOfFeeds; i++) {
+                feedTestUtil.findOrCreateFeed(category, "sfeed_" + i, template);
+            }
+            return category.getId();
+        }, MetadataAccess.ADMIN);
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < numberOfFeeds; i++) {
+            names.add("sfeed_" + i);
+        }
+        Collections.sort(names);
+
+        metadata.read(() -> {
+            Assert.assertEquals(feedProvider.countFeedSummaries(null, categoryId), numberOfFeeds);
+
+            List<FeedSummaryProjection> page = feedProvider.findFeedSummaries(null, categoryId, FeedSummaryProjection.SortField.FEED_NAME, true, 10, 5);
+            Assert.assertEquals(page.stream().map(FeedSummaryProjection::getTitle).collect(Collectors.toList()), names.subList(10, 15));
+            Assert.assertEquals(page.get(0).getCategorySystemName(), categorySystemName);
+            Assert.assertEquals(page.get(0).getTemplateName(), templateName);
+            Assert.assertEquals(page.get(0).getState(), Feed.State.ENABLED);
+
+            List<FeedSummaryProjection> descending = feedProvider.findFeedSummaries(null, categoryId, FeedSummaryProjection.SortField.FEED_NAME, false, 0, 1);
+            Assert.assertEquals(descending.get(0).getTitle(), names.get(names.size() - 1));
+
+            // the underscore must match literally and the filter ignores case
+            long expected = names.stream().filter(name -> name.startsWith("sfeed_1")).count();
+            Assert.assertEquals(feedProvider.countFeedSummaries("SFEED_1", categoryId), expected);
+            Assert.assertEquals(feedProvider.findFeedSummaries("SFEED_1", categoryId, FeedSummaryProjection.SortField.FEED_NAME, true, 0, -1).size(), expected);
+        }, MetadataAccess.SERVICE);
+
+        long time = System.currentTimeMillis();
+        metadata.read(() -> feedProvider.findFeedSummaries(null, categoryId, FeedSummaryProjection.SortField.FEED_NAME, true, 0, 50), MetadataAccess.SERVICE);
+        long projectionTime = System.currentTimeMillis() - time;
+
+        time = System.currentTimeMillis();
+        metadata.read(() -> feedProvider.findByCategoryId(categoryId).stream().map(feed -> feed.getTemplate() != null ? feed.getTemplate().getName() : null).count(),
+                      MetadataAccess.SERVICE);
+        long entityTime = System.currentTimeMillis() - time;
+        log.info("Time to list a page of {} feeds was {} ms, loading the feeds took {} ms", numberOfFeeds, projectionTime, entityTime);
+    }
+
+    /**
+     * Test the indexed feed queries and compare their time with walking all the feeds
+     */
+    @Test
+    public void testIndexedFeedQueries() {
+        //increase to benchmark the indexes against a large repository .. i.e. 20000
+        int numberOfFeeds = 200;
+        String categorySystemName = "indexed_category";
+
+        FeedManagerTemplate.ID templateId = metadata.commit(() -> {
+            Category category = feedTestUtil.findOrCreateCategory(categorySystemName);
+            FeedManagerTemplate template = feedTestUtil.findOrCreateTemplate("indexed_template");
+            FeedManagerTemplate otherTemplate = feedTestUtil.findOrCreateTemplate("other_indexed_template");
+            for (int i = 0; i < numberOfFeeds; i++) {
+                feedTestUtil.findOrCreateFeed(category, "ifeed_" + i, i % 2 == 0 ? template : otherTemplate);
+            }
+            return template.getId();
+        }, MetadataAccess.ADMIN);
+
+        metadata.read(() -> {
+            Category category = feedTestUtil.findOrCreateCategory(categorySystemName);
+            Assert.assertEquals(feedProvider.findByCategoryId(category.getId()).size(), numberOfFeeds);
+            Assert.assertEquals(feedProvider.findByTemplateId(templateId).size(), numberOfFeeds / 2);
+
+            Feed feed = feedProvider.findBySystemName(null, "ifeed_7");
+            Assert.assertNotNull(feed);
+            Assert.assertEquals(feed.getCategory().getName(), categorySystemName);
+        }, MetadataAccess.SERVICE);
+
+        long time = System.currentTimeMillis();
+        metadata.read(() -> feedProvider.findByTemplateId(templateId).size(), MetadataAccess.SERVICE);
+        long indexedTime = System.currentTimeMillis() - time;
+
+        time = System.currentTimeMillis();
+        metadata.read(() -> feedProvider.getFeeds().stream().filter(feed -> feed.getTemplate() != null && templateId.equals(feed.getTemplate().getId())).count(),
+                      MetadataAccess.SERVICE);
+        long scanTime = System.currentTimeMillis() - time;
+        log.info("Time to find the feeds of a template among {} feeds was {} ms using the index, walking the feeds took {} ms", numberOfFeeds, indexedTime, scanTime);
+    }
+
+    /**
+     * Test that only the feeds with preconditions depending on a feed are found when it completes
+     */
+    @Test
+    public void testPreconditionDependents() {
+        String categorySystemName = "precondition_category";
+        String templateName = "precondition_template";
+
+        Feed.ID dependentId = metadata.commit(() -> {
+            Category category = feedTestUtil.findOrCreateCategory(categorySystemName);
+            FeedManagerTemplate template = feedTestUtil.findOrCreateTemplate(templateName);
+            feedTestUtil.findOrCreateFeed(category, "upstream_feed", template);
+            feedTestUtil.findOrCreateFeed(category, "unrelated_feed", template);
+            Feed dependent = feedTestUtil.findOrCreateFeed(category, "dependent_feed", template);
+
+            Metric metric = new FeedExecutedSinceFeed(categorySystemName + ".dependent_feed", categorySystemName + ".Upstream_Feed");
+            feedProvider.createPrecondition(dependent.getId(), "", Collections.singletonList(metric));
+            return dependent.getId();
+        }, MetadataAccess.SERVICE);
+
+        metadata.read(() -> {
+            List<Feed.ID> dependents = feedProvider.findPreconditionDependents(categorySystemName + ".upstream_feed").stream().map(Feed::getId).collect(Collectors.toList());
+            Assert.assertTrue(dependents.contains(dependentId));
+
+            dependents = feedProvider.findPreconditionDependents(categorySystemName + ".unrelated_feed").stream().map(Feed::getId).collect(Collectors.toList());
+            Assert.assertFalse(dependents.contains(dependentId));
+        }, MetadataAccess.SERVICE);
+    }
+
     @Test
     public void testFeedDatasource() {
         String categorySystemName = "my_category";
@@ -26,6 +26,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -46,11 +47,13 @@ import org.apache.nifi.web.api.dto.ReportingTaskDTO;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.thinkbiganalytics.DateTimeUtil;
+import com.thinkbiganalytics.feedmgr.nifi.NifiFlowCacheChangeLog.ChangeType;
 import com.thinkbiganalytics.feedmgr.rest.model.FeedMetadata;
 import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplate;
 import com.thinkbiganalytics.feedmgr.service.MetadataService;
@@ -156,8 +159,20 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
 
     private DateTime lastUpdated = null;
 
+    /**
+     * Log of the changes made to the maps above.  Clients sync by asking for the changes after the last sequence they received.
+     */
+    private final NifiFlowCacheChangeLog changeLog = new NifiFlowCacheChangeLog();
+
+    /**
+     * Maximum number of changes to keep before clients that fall behind are sent a full snapshot
+     */
+    @Value("${nifi.flow.cache.change.log.size:" + NifiFlowCacheChangeLog.DEFAULT_MAX_SIZE + "}")
+    private int changeLogSize = NifiFlowCacheChangeLog.DEFAULT_MAX_SIZE;
+
     @PostConstruct
     private void init() {
+        changeLog.setMaxSize(changeLogSize);
         nifiConnectionService.subscribeConnectionListener(this);
         initExpireTimerThread();
     }
@@ -211,7 +226,7 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
         NiFiFlowCacheSync sync = getSync(syncId);
         if (!sync.isUnavailable()) {
             sync.reset();
-            return syncAndReturnUpdates(sync, false);
+            return syncAndReturnUpdates(sync, null, false);
         } else {
             return NiFiFlowCacheSync.UNAVAILABLE;
         }
@@ -233,9 +248,22 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
      * @return updates that have been applied to the cache.
      */
     public NiFiFlowCacheSync syncAndReturnUpdates(String syncId) {
+        return syncAndReturnUpdates(syncId, null);
+    }
+
+    /**
+     * Return only the records that were updated after the given change sequence.
+     * The sequence is only trusted for a cache id that is already known, otherwise a full snapshot is returned.
+     *
+     * @param syncId   a cache id
+     * @param sequence the last sequence the client received, or {@code null} to use the last sequence returned for the cache id
+     * @return updates that have been applied to the cache.
+     */
+    public NiFiFlowCacheSync syncAndReturnUpdates(String syncId, Long sequence) {
+        boolean known = syncId != null && syncMap.containsKey(syncId);
         NiFiFlowCacheSync sync = getSync(syncId);
         if (!sync.isUnavailable()) {
-            return syncAndReturnUpdates(sync);
+            return syncAndReturnUpdates(sync, known ? sequence : null, false);
         }
         return sync;
     }
@@ -248,6 +276,9 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
      */
     public NiFiFlowCacheSync getCache(String syncId) {
         NiFiFlowCacheSync sync = getSync(syncId);
+        if (!sync.isUnavailable()) {
+            return fullSnapshot(sync, true);
+        }
         return sync;
     }
 
@@ -296,9 +327,11 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
                 //this is possibly a reusable template.
                 //update the processorid and connection name maps
                 updateProcessorIdMaps(nifiFlowProcessGroup.getFeedName(), nifiFlowProcessGroup.getProcessorMap().values());
-                this.connectionIdToConnectionMap.putAll(toConnectionIdMap(nifiFlowProcessGroup.getConnectionIdMap().values()));
+                putConnections(toConnectionIdMap(nifiFlowProcessGroup.getConnectionIdMap().values()));
             }
         });
+        //every client has to take a full snapshot of the rebuilt cache
+        changeLog.clear();
         loaded = true;
 
 
@@ -336,11 +369,7 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
 
 
     private NiFiFlowCacheSync previewUpdates(NiFiFlowCacheSync sync) {
-        return syncAndReturnUpdates(sync, true);
-    }
-
-    private NiFiFlowCacheSync syncAndReturnUpdates(NiFiFlowCacheSync sync) {
-        return syncAndReturnUpdates(sync, false);
+        return syncAndReturnUpdates(sync, null, true);
     }
 
     private NiFiFlowCacheSync getSync(String syncId) {
@@ -368,61 +397,105 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
     }
 
 
-    private NiFiFlowCacheSync syncAndReturnUpdates(NiFiFlowCacheSync sync, boolean preview) {
+    /**
+     * Return the changes made after the client sequence, or a full snapshot if the client has not synced yet or the changes it needs are no longer in the
+     * change log.
+     *
+     * @param sync           the cache for the client
+     * @param clientSequence the last sequence the client received, or {@code null} to use the sequence stored with the sync
+     * @param preview        {@code true} to leave the sync unchanged
+     * @return the updates for the client
+     */
+    private NiFiFlowCacheSync syncAndReturnUpdates(NiFiFlowCacheSync sync, Long clientSequence, boolean preview) {
         if (!preview) {
             lastSyncTimeMap.put(sync.getSyncId(), DateTime.now());
         }
-        if (sync.needsUpdate(lastUpdated)) {
-            Map<String, String> processorIdToFeedNameMapCopy = ImmutableMap.copyOf(processorIdToFeedNameMap);
-            Map<String, String> processorIdToFeedProcessGroupIdCopy = ImmutableMap.copyOf(processorIdToFeedProcessGroupId);
-            Map<String, String> processorIdToProcessorNameCopy = ImmutableMap.copyOf(processorIdToProcessorName);
-            Set<String> streamingFeedsCopy = ImmutableSet.copyOf(streamingFeeds);
-            Set<String> allFeedsCopy = ImmutableSet.copyOf(allFeeds);
-            Map<String, NiFiFlowCacheConnectionData> connectionDataMapCopy = ImmutableMap.copyOf(connectionIdToConnectionMap);
-
-            //get feeds updated since last sync
-            NifiFlowCacheSnapshot latest = new NifiFlowCacheSnapshot.Builder()
-                .withProcessorIdToFeedNameMap(processorIdToFeedNameMapCopy)
-                .withProcessorIdToFeedProcessGroupId(processorIdToFeedProcessGroupIdCopy)
-                .withProcessorIdToProcessorName(processorIdToProcessorNameCopy)
-                .withStreamingFeeds(streamingFeedsCopy)
-                .withFeeds(allFeedsCopy)
-                .withConnections(connectionDataMapCopy)
-                .withSnapshotDate(lastUpdated).build();
-            return syncAndReturnUpdates(sync, latest, preview);
-        } else {
-            return NiFiFlowCacheSync.EMPTY(sync.getSyncId());
+        long since = clientSequence != null ? clientSequence : sync.getSequence();
+        NifiFlowCacheChangeLog.Delta delta = since >= 0 ? changeLog.since(since) : null;
+        if (delta == null) {
+            return fullSnapshot(sync, preview);
+        }
+        if (delta.isEmpty()) {
+            NiFiFlowCacheSync empty = NiFiFlowCacheSync.EMPTY(sync.getSyncId());
+            empty.setSequence(delta.getSequence());
+            return empty;
         }
-    }
-
-
-    private NiFiFlowCacheSync syncAndReturnUpdates(NiFiFlowCacheSync sync, NifiFlowCacheSnapshot latest, boolean preview) {
-        if (latest != null && sync.needsUpdate(latest.getSnapshotDate())) {
-
-            NifiFlowCacheSnapshot updated = new NifiFlowCacheSnapshot.Builder()
-                .withProcessorIdToFeedNameMap(sync.getProcessorIdToFeedNameMapUpdatedSinceLastSync(latest.getProcessorIdToFeedNameMap()))
-                .withProcessorIdToFeedProcessGroupId(sync.getProcessorIdToProcessGroupIdUpdatedSinceLastSync(latest.getProcessorIdToFeedProcessGroupId()))
-                .withProcessorIdToProcessorName(sync.getProcessorIdToProcessorNameUpdatedSinceLastSync(latest.getProcessorIdToProcessorName()))
-                .withStreamingFeeds(latest.getAllStreamingFeeds())
-                .withConnections(sync.getConnectionIdToConnectionUpdatedSinceLastSync(latest.getConnectionIdToConnectionName(), latest.getConnectionIdToConnection()))
-                .withFeeds(sync.getFeedsUpdatedSinceLastSync(latest.getAllFeeds()))
-                .build();
-            //reset the pointers on this sync to be the latest
-            if (!preview) {
-                sync.setSnapshot(latest);
-                sync.setLastSync(latest.getSnapshotDate());
 
+        Map<String, String> processorIdToFeedName = new HashMap<>();
+        Map<String, String> processorIdToFeedProcessGroupId = new HashMap<>();
+        Map<String, String> processorIdToProcessorName = new HashMap<>();
+        Map<String, NiFiFlowCacheConnectionData> connections = new HashMap<>();
+        Set<String> feeds = new HashSet<>();
+        for (NifiFlowCacheChangeLog.Change change : delta.getChanges()) {
+            switch (change.getType()) {
+                case PROCESSOR_FEED_NAME:
+                    processorIdToFeedName.put(change.getKey(), (String) change.getValue());
+                    break;
+                case PROCESSOR_FEED_PROCESS_GROUP:
+                    processorIdToFeedProcessGroupId.put(change.getKey(), (String) change.getValue());
+                    break;
+                case PROCESSOR_NAME:
+                    processorIdToProcessorName.put(change.getKey(), (String) change.getValue());
+                    break;
+                case CONNECTION:
+                    connections.put(change.getKey(), (NiFiFlowCacheConnectionData) change.getValue());
+                    break;
+                case FEED:
+                    feeds.add(change.getKey());
+                    break;
+                default:
+                    //streaming feeds are always sent in full
+                    break;
             }
-            NiFiFlowCacheSync updatedSync = new NiFiFlowCacheSync(sync.getSyncId(), updated);
-            updatedSync.setUpdated(true);
-            if (!preview) {
-                updatedSync.setLastSync(latest.getSnapshotDate());
-            }
-            return updatedSync;
-
         }
 
-        return NiFiFlowCacheSync.EMPTY(sync.getSyncId());
+        NifiFlowCacheSnapshot updated = new NifiFlowCacheSnapshot.Builder()
+            .withProcessorIdToFeedNameMap(processorIdToFeedName)
+            .withProcessorIdToFeedProcessGroupId(processorIdToFeedProcessGroupId)
+            .withProcessorIdToProcessorName(processorIdToProcessorName)
+            .withStreamingFeeds(ImmutableSet.copyOf(streamingFeeds))
+            .withConnections(connections)
+            .withFeeds(feeds)
+            .withSnapshotDate(lastUpdated)
+            .build();
+        return toUpdatedSync(sync, updated, delta.getSequence(), false, preview);
+    }
+
+    /**
+     * Return a copy of the whole cache
+     *
+     * @param sync    the cache for the client
+     * @param preview {@code true} to leave the sync unchanged
+     * @return the whole cache
+     */
+    private NiFiFlowCacheSync fullSnapshot(NiFiFlowCacheSync sync, boolean preview) {
+        //read the sequence first. Changes made while copying are sent again on the next sync.
+        long sequence = changeLog.getSequence();
+        NifiFlowCacheSnapshot latest = new NifiFlowCacheSnapshot.Builder()
+            .withProcessorIdToFeedNameMap(ImmutableMap.copyOf(processorIdToFeedNameMap))
+            .withProcessorIdToFeedProcessGroupId(ImmutableMap.copyOf(processorIdToFeedProcessGroupId))
+            .withProcessorIdToProcessorName(ImmutableMap.copyOf(processorIdToProcessorName))
+            .withStreamingFeeds(ImmutableSet.copyOf(streamingFeeds))
+            .withFeeds(ImmutableSet.copyOf(allFeeds))
+            .withConnections(ImmutableMap.copyOf(connectionIdToConnectionMap))
+            .withSnapshotDate(lastUpdated).build();
+        return toUpdatedSync(sync, latest, sequence, true, preview);
+    }
+
+    private NiFiFlowCacheSync toUpdatedSync(NiFiFlowCacheSync sync, NifiFlowCacheSnapshot snapshot, long sequence, boolean fullSnapshot, boolean preview) {
+        //move the pointer on this sync to the latest
+        if (!preview) {
+            sync.setSequence(sequence);
+            sync.setLastSync(snapshot.getSnapshotDate());
+        }
+        NiFiFlowCacheSync updatedSync = new NiFiFlowCacheSync(sync.getSyncId(), snapshot);
+        updatedSync.setUpdated(true);
+        updatedSync.setSequence(sequence);
+        updatedSync.setFullSnapshot(fullSnapshot);
+        if (!preview) {
+            updatedSync.setLastSync(snapshot.getSnapshotDate());
+        }
+        return updatedSync;
     }
 
 
@@ -447,10 +520,9 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
                 feedTemplatesMap.put(feedName, template);
             }
             feedNameToTemplateNameMap.put(feedName, template.getTemplateName());
-            if (template.isStream()) {
-                streamingFeeds.add(feedName);
-            } else {
-                streamingFeeds.remove(feedName);
+            boolean changed = template.isStream() ? streamingFeeds.add(feedName) : streamingFeeds.remove(feedName);
+            if (changed) {
+                changeLog.record(ChangeType.STREAMING_FEEDS, null, null);
             }
         });
     }
@@ -543,10 +615,9 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
             feedNameToTemplateNameMap.entrySet().stream().filter(entry -> entry.getValue().equalsIgnoreCase(template.getTemplateName())).map(entry -> entry.getKey()).collect(Collectors.toList());
 
         log.info("Updated Template: {}, found {} associated feeds ", template.getTemplateName(), feedNames.size());
-        if (template.isStream()) {
-            streamingFeeds.addAll(feedNames);
-        } else {
-            streamingFeeds.removeAll(feedNames);
+        boolean changed = template.isStream() ? streamingFeeds.addAll(feedNames) : streamingFeeds.removeAll(feedNames);
+        if (changed) {
+            changeLog.record(ChangeType.STREAMING_FEEDS, null, null);
         }
         lastUpdated = DateTimeUtil.getNowUTCTime();
 
@@ -566,7 +637,7 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
             processorIdToProcessorName.put(flowProcessor.getId(), flowProcessor.getName());
         });
 
-        this.processorIdToProcessorName.putAll(processorIdToProcessorName);
+        putAndRecord(this.processorIdToProcessorName, processorIdToProcessorName, ChangeType.PROCESSOR_NAME);
     }
 
     /**
@@ -586,7 +657,7 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
 
             });
         }
-        this.connectionIdToConnectionMap.putAll(toConnectionIdMap(connectionIdToConnectionMap.values()));
+        putConnections(toConnectionIdMap(connectionIdToConnectionMap.values()));
     }
 
 
@@ -627,10 +698,10 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
             processorIdToProcessGroupId.put(flowProcessor.getId(), feedProcessGroupId);
             processorIdToProcessorName.put(flowProcessor.getId(), flowProcessor.getName());
         });
-        this.processorIdToFeedProcessGroupId.putAll(processorIdToProcessGroupId);
-        this.processorIdToProcessorName.putAll(processorIdToProcessorName);
+        putAndRecord(this.processorIdToFeedProcessGroupId, processorIdToProcessGroupId, ChangeType.PROCESSOR_FEED_PROCESS_GROUP);
+        putAndRecord(this.processorIdToProcessorName, processorIdToProcessorName, ChangeType.PROCESSOR_NAME);
 
-        connectionIdToConnectionMap.putAll(toConnectionIdMap(connections));
+        putConnections(toConnectionIdMap(connections));
 
         if (connections != null) {
             Map<String, String> connectionIdToNameMap = connections.stream().collect(Collectors.toMap(conn -> conn.getConnectionIdentifier(), conn -> conn.getName()));
@@ -638,13 +709,15 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
         }
 
         processorIdMap.putAll(toProcessorIdMap(processors));
-        processorIdToFeedNameMap.putAll(toProcessorIdFeedNameMap(processors, feedName));
+        putAndRecord(processorIdToFeedNameMap, toProcessorIdFeedNameMap(processors, feedName), ChangeType.PROCESSOR_FEED_NAME);
         lastUpdated = DateTimeUtil.getNowUTCTime();
 
-        if (isStream) {
-            streamingFeeds.add(feedName);
+        if (isStream && streamingFeeds.add(feedName)) {
+            changeLog.record(ChangeType.STREAMING_FEEDS, null, null);
+        }
+        if (allFeeds.add(feedName)) {
+            changeLog.record(ChangeType.FEED, feedName, null);
         }
-        allFeeds.add(feedName);
         feedLastUpated.put(feedName, lastUpdated.getMillis());
 
     }
@@ -656,9 +729,28 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
             processorIdToProcessGroupId.put(flowProcessor.getId(), processGroupId);
             processorIdToProcessorName.put(flowProcessor.getId(), flowProcessor.getName());
         });
-        this.processorIdToFeedProcessGroupId.putAll(processorIdToProcessGroupId);
-        this.processorIdToProcessorName.putAll(processorIdToProcessorName);
+        putAndRecord(this.processorIdToFeedProcessGroupId, processorIdToProcessGroupId, ChangeType.PROCESSOR_FEED_PROCESS_GROUP);
+        putAndRecord(this.processorIdToProcessorName, processorIdToProcessorName, ChangeType.PROCESSOR_NAME);
+
+    }
 
+    /**
+     * Update the cache map, recording each value that changed in the change log
+     */
+    private void putAndRecord(Map<String, String> cacheMap, Map<String, String> updates, ChangeType changeType) {
+        updates.forEach((key, value) -> {
+            if (!Objects.equals(cacheMap.put(key, value), value)) {
+                changeLog.record(changeType, key, value);
+            }
+        });
+    }
+
+    /**
+     * Update the connections, recording each one in the change log.  Connections are only equal by id so they are always recorded.
+     */
+    private void putConnections(Map<String, NiFiFlowCacheConnectionData> connections) {
+        connectionIdToConnectionMap.putAll(connections);
+        connections.forEach((connectionId, connection) -> changeLog.record(ChangeType.CONNECTION, connectionId, connection));
     }
 
     private Map<String, NiFiFlowCacheConnectionData> toConnectionIdMap(Collection<NifiFlowConnection> connections) {
@@ -695,7 +787,7 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
     }
 
     public CacheSummary cacheSummary() {
-        return CacheSummary.build(syncMap);
+        return CacheSummary.build(syncMap, changeLog.getSequence());
     }
 
     private void initExpireTimerThread() {
@@ -733,24 +825,32 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
 
     public static class CacheSummary {
 
+        /**
+         * Map of the sync id to the number of changes it has not received yet, or -1 if it has not synced
+         */
         private Map<String, Integer> summary = new HashMap<>();
         private Integer cachedSyncIds;
+        /**
+         * The latest sequence in the change log
+         */
+        private Long sequence;
 
         public CacheSummary() {
 
         }
 
-        private CacheSummary(Map<String, Integer> cacheIds) {
+        private CacheSummary(Map<String, Integer> cacheIds, long sequence) {
             this.summary = cacheIds;
             this.cachedSyncIds = cacheIds.keySet().size();
+            this.sequence = sequence;
         }
 
-        public static CacheSummary build(Map<String, NiFiFlowCacheSync> syncMap) {
+        public static CacheSummary build(Map<String, NiFiFlowCacheSync> syncMap, long sequence) {
             Map<String, Integer>
                 cacheIds =
-                syncMap.entrySet().stream().collect(Collectors.toMap(stringNiFiFlowCacheSyncEntry -> stringNiFiFlowCacheSyncEntry.getKey(),
-                                                                     stringNiFiFlowCacheSyncEntry1 -> stringNiFiFlowCacheSyncEntry1.getValue().getSnapshot().getProcessorIdToFeedNameMap().size()));
-            return new CacheSummary(cacheIds);
+                syncMap.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+                                                                     entry -> entry.getValue().getSequence() < 0 ? -1 : (int) (sequence - entry.getValue().getSequence())));
+            return new CacheSummary(cacheIds, sequence);
         }
 
         public Map<String, Integer> getSummary() {
@@ -768,5 +868,13 @@ public class NifiFlowCache implements NifiConnectionListener, PostMetadataConfig
         public void setCachedSyncIds(Integer cachedSyncIds) {
             this.cachedSyncIds = cachedSyncIds;
         }
+
+        public Long getSequence() {
+            return sequence;
+        }
+
+        public void setSequence(Long sequence) {
+            this.sequence = sequence;
+        }
     }
 }
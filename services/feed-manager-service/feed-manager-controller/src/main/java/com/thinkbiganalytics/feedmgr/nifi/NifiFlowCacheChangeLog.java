@@ -0,0 +1,205 @@
+package com.thinkbiganalytics.feedmgr.nifi;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Append-only log of the changes made to the {@link NifiFlowCache}
+ *
+ * Each change is assigned the next sequence number. Clients pass back the last sequence they received and get only the newer changes. The log keeps at
+ * most {@code maxSize} changes; a client whose sequence falls before the oldest retained change, or before the last {@link #clear()}, has to take a full
+ * snapshot instead.
+ */
+public class NifiFlowCacheChangeLog {
+
+    /**
+     * The default maximum number of changes to keep
+     */
+    public static final int DEFAULT_MAX_SIZE = 50000;
+
+    /**
+     * The map of the cache a change applies to
+     */
+    public enum ChangeType {
+        PROCESSOR_FEED_NAME, PROCESSOR_FEED_PROCESS_GROUP, PROCESSOR_NAME, CONNECTION, FEED, STREAMING_FEEDS
+    }
+
+    /**
+     * Changes by sequence
+     */
+    private final TreeMap<Long, Change> changes = new TreeMap<>();
+
+    /**
+     * Sequence of the latest change
+     */
+    private long sequence = 0L;
+
+    /**
+     * Clients at a sequence before this one have missed changes that are no longer in the log
+     */
+    private long compactedThrough = 0L;
+
+    private int maxSize;
+
+    public NifiFlowCacheChangeLog() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public NifiFlowCacheChangeLog(int maxSize) {
+        setMaxSize(maxSize);
+    }
+
+    /**
+     * Appends a change to the log, dropping the oldest changes if the log is full
+     *
+     * @param type  the map the change applies to
+     * @param key   the key that was updated, or {@code null} if the change applies to the whole map
+     * @param value the new value
+     * @return the sequence of the change
+     */
+    public synchronized long record(ChangeType type, String key, Object value) {
+        sequence++;
+        changes.put(sequence, new Change(sequence, type, key, value));
+        while (changes.size() > maxSize) {
+            compactedThrough = changes.pollFirstEntry().getKey();
+        }
+        return sequence;
+    }
+
+    /**
+     * Drops all changes so that every client has to take a full snapshot.  Used when the cache is rebuilt.
+     *
+     * @return the new sequence
+     */
+    public synchronized long clear() {
+        sequence++;
+        changes.clear();
+        compactedThrough = sequence;
+        return sequence;
+    }
+
+    /**
+     * Gets the changes made after the specified sequence
+     *
+     * @param since the last sequence a client received
+     * @return the changes and the latest sequence, or {@code null} if the client needs a full snapshot
+     */
+    public synchronized Delta since(long since) {
+        if (since < compactedThrough || since > sequence) {
+            return null;
+        }
+        return new Delta(sequence, new ArrayList<>(changes.tailMap(since, false).values()));
+    }
+
+    /**
+     * Gets the sequence of the latest change
+     *
+     * @return the latest sequence
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the number of changes in the log
+     *
+     * @return the number of changes
+     */
+    public synchronized int size() {
+        return changes.size();
+    }
+
+    public synchronized void setMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Change log size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        while (changes.size() > maxSize) {
+            compactedThrough = changes.pollFirstEntry().getKey();
+        }
+    }
+
+    /**
+     * A single change to the cache
+     */
+    public static class Change {
+
+        private final long sequence;
+        private final ChangeType type;
+        private final String key;
+        private final Object value;
+
+        public Change(long sequence, ChangeType type, String key, Object value) {
+            this.sequence = sequence;
+            this.type = type;
+            this.key = key;
+            this.value = value;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public ChangeType getType() {
+            return type;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * The changes returned to a client
+     */
+    public static class Delta {
+
+        private final long sequence;
+        private final List<Change> changes;
+
+        public Delta(long sequence, List<Change> changes) {
+            this.sequence = sequence;
+            this.changes = changes;
+        }
+
+        /**
+         * @return the sequence the client is at after applying the changes
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        public List<Change> getChanges() {
+            return changes;
+        }
+
+        public boolean isEmpty() {
+            return changes.isEmpty();
+        }
+    }
+}
@@ -37,6 +37,7 @@ import org.glassfish.jersey.media.multipart.FormDataParam;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
@@ -51,6 +52,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -101,7 +103,8 @@ public class AdminController {
     public Response exportTemplate(@NotNull @Size(min = 36, max = 36, message = "Invalid templateId size")
                                    @PathParam("templateId") String templateId) {
         ExportImportTemplateService.ExportTemplate zipFile = exportImportTemplateService.exportTemplate(templateId);
-        return Response.ok(zipFile.getFile(), MediaType.APPLICATION_OCTET_STREAM)
+        StreamingOutput stream = zipFile::write;
+        return Response.ok(stream, MediaType.APPLICATION_OCTET_STREAM)
             .header("Content-Disposition", "attachments; filename=\"" + zipFile.getFileName() + "\"") //optional
             .build();
     }
@@ -119,7 +122,8 @@ public class AdminController {
                                @PathParam("feedId") String feedId) {
         try {
             ExportImportFeedService.ExportFeed zipFile = exportImportFeedService.exportFeed(feedId);
-            return Response.ok(zipFile.getFile(), MediaType.APPLICATION_OCTET_STREAM)
+            StreamingOutput stream = zipFile::write;
+            return Response.ok(stream, MediaType.APPLICATION_OCTET_STREAM)
                 .header("Content-Disposition", "attachments; filename=\"" + zipFile.getFileName() + "\"") //optional
                 .build();
         } catch (IOException e) {
@@ -188,8 +192,13 @@ public class AdminController {
 
         options.setCategorySystemName(categorySystemName);
 
-        byte[] content = ImportUtil.streamToByteArray(fileInputStream);
-        ExportImportFeedService.ImportFeed importFeed = exportImportFeedService.importFeed(fileMetaData.getFileName(), content, options);
+        java.nio.file.Path content = ImportUtil.streamToTempFile(fileInputStream);
+        ExportImportFeedService.ImportFeed importFeed;
+        try {
+            importFeed = exportImportFeedService.importFeed(fileMetaData.getFileName(), content, options);
+        } finally {
+            Files.deleteIfExists(content);
+        }
 
         return Response.ok(importFeed).build();
     }
@@ -241,8 +250,13 @@ public class AdminController {
         options.findImportComponentOption(ImportComponent.TEMPLATE_DATA).setUserAcknowledged(true);
         options.findImportComponentOption(ImportComponent.TEMPLATE_DATA).setShouldImport(true);
 
-        byte[] content = ImportUtil.streamToByteArray(fileInputStream);
-        ExportImportTemplateService.ImportTemplate importTemplate = exportImportTemplateService.importTemplate(fileMetaData.getFileName(), content, options);
+        java.nio.file.Path content = ImportUtil.streamToTempFile(fileInputStream);
+        ExportImportTemplateService.ImportTemplate importTemplate;
+        try {
+            importTemplate = exportImportTemplateService.importTemplate(fileMetaData.getFileName(), content, options);
+        } finally {
+            Files.deleteIfExists(content);
+        }
 
         return Response.ok(importTemplate).build();
     }
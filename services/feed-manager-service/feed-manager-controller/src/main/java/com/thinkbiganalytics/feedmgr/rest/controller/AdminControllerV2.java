@@ -37,6 +37,7 @@ import org.glassfish.jersey.media.multipart.FormDataContentDisposition;
 import org.glassfish.jersey.media.multipart.FormDataParam;
 
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -130,15 +131,18 @@ public class AdminControllerV2 {
         boolean overwriteTemplate = true;
         uploadProgressService.newUpload(uploadKey);
 
-        if (importComponents == null) {
-            byte[] content = ImportUtil.streamToByteArray(fileInputStream);
-            importFeed = exportImportFeedService.validateFeedForImport(fileMetaData.getFileName(), content, options);
-            importFeed.setSuccess(false);
-        } else {
-            options.setImportComponentOptions(ObjectMapperSerializer.deserialize(importComponents, new TypeReference<Set<ImportComponentOption>>() {
-            }));
-            byte[] content = ImportUtil.streamToByteArray(fileInputStream);
-            importFeed = exportImportFeedService.importFeed(fileMetaData.getFileName(), content, options);
+        java.nio.file.Path content = ImportUtil.streamToTempFile(fileInputStream);
+        try {
+            if (importComponents == null) {
+                importFeed = exportImportFeedService.validateFeedForImport(fileMetaData.getFileName(), content, options);
+                importFeed.setSuccess(false);
+            } else {
+                options.setImportComponentOptions(ObjectMapperSerializer.deserialize(importComponents, new TypeReference<Set<ImportComponentOption>>() {
+                }));
+                importFeed = exportImportFeedService.importFeed(fileMetaData.getFileName(), content, options);
+            }
+        } finally {
+            Files.deleteIfExists(content);
         }
         uploadProgressService.removeUpload(uploadKey);
         return Response.ok(importFeed).build();
@@ -161,17 +165,21 @@ public class AdminControllerV2 {
         ImportTemplateOptions options = new ImportTemplateOptions();
         options.setUploadKey(uploadKey);
         ExportImportTemplateService.ImportTemplate importTemplate = null;
-        byte[] content = ImportUtil.streamToByteArray(fileInputStream);
+        java.nio.file.Path content = ImportUtil.streamToTempFile(fileInputStream);
 
         uploadProgressService.newUpload(uploadKey);
 
-        if (importComponents == null) {
-            importTemplate = exportImportTemplateService.validateTemplateForImport(fileMetaData.getFileName(), content, options);
-            importTemplate.setSuccess(false);
-        } else {
-            options.setImportComponentOptions(ObjectMapperSerializer.deserialize(importComponents, new TypeReference<Set<ImportComponentOption>>() {
-            }));
-            importTemplate = exportImportTemplateService.importTemplate(fileMetaData.getFileName(), content, options);
+        try {
+            if (importComponents == null) {
+                importTemplate = exportImportTemplateService.validateTemplateForImport(fileMetaData.getFileName(), content, options);
+                importTemplate.setSuccess(false);
+            } else {
+                options.setImportComponentOptions(ObjectMapperSerializer.deserialize(importComponents, new TypeReference<Set<ImportComponentOption>>() {
+                }));
+                importTemplate = exportImportTemplateService.importTemplate(fileMetaData.getFileName(), content, options);
+            }
+        } finally {
+            Files.deleteIfExists(content);
         }
         return Response.ok(importTemplate).build();
     }
@@ -43,6 +43,7 @@ import com.thinkbiganalytics.feedmgr.service.template.RegisteredTemplateService;
 import com.thinkbiganalytics.feedmgr.sla.ServiceLevelAgreementService;
 import com.thinkbiganalytics.hive.service.HiveService;
 import com.thinkbiganalytics.hive.util.HiveUtils;
+import com.thinkbiganalytics.jobrepo.query.model.SearchResult;
 import com.thinkbiganalytics.metadata.FeedPropertySection;
 import com.thinkbiganalytics.metadata.FeedPropertyType;
 import com.thinkbiganalytics.metadata.rest.model.data.DatasourceDefinition;
@@ -134,6 +135,7 @@ public class FeedRestController {
     private static final ResourceBundle STRINGS = ResourceBundle.getBundle("com.thinkbiganalytics.feedmgr.rest.controller.FeedMessages");
     private static final int MAX_LIMIT = 1000;
     private static final String NAMES = "/names";
+    private static final String SUMMARIES = "/summaries";
 
     @Autowired
     @Qualifier("nifiRestClient")
@@ -323,6 +325,23 @@ public class FeedRestController {
         return Response.ok(feeds).build();
     }
 
+    @GET
+    @Path(SUMMARIES)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Gets a page of feed summaries.")
+    @ApiResponses({
+                      @ApiResponse(code = 200, message = "Returns the feed summaries.", response = SearchResult.class),
+                      @ApiResponse(code = 500, message = "The sort contains an invalid value.", response = RestResponseStatus.class)
+                  })
+    public Response getFeedSummaries(@QueryParam("sort") @DefaultValue("feedName") String sort,
+                                     @QueryParam("limit") @DefaultValue("10") Integer limit,
+                                     @QueryParam("start") @DefaultValue("0") Integer start,
+                                     @QueryParam("filter") String filter,
+                                     @QueryParam("categoryId") String categoryId) {
+        SearchResult result = getMetadataService().getFeedSummaries(filter, categoryId, sort, start, Math.min(limit, MAX_LIMIT));
+        return Response.ok(result).build();
+    }
+
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @ApiOperation("Gets the list of feeds.")
@@ -1051,7 +1051,7 @@ public class FeedsController {
     public Feed setPrecondition(@PathParam("feedId") final String feedId, final FeedPrecondition precond) {
         LOG.debug("Add feed precondition, feed ID: {}, precondition: {}", feedId, precond);
 
-        return this.metadata.commit(() -> {
+        Feed feed = this.metadata.commit(() -> {
             this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.EDIT_FEEDS);
 
             com.thinkbiganalytics.metadata.api.feed.Feed.ID domainFeedId = feedProvider.resolveFeed(feedId);
@@ -1066,6 +1066,10 @@ public class FeedsController {
 
             return this.metadataTransform.domainToFeed().apply(domainFeed);
         });
+
+        // no feed change event is sent for a precondition change
+        this.preconditionService.invalidateDependentFeeds();
+        return feed;
     }
 
 
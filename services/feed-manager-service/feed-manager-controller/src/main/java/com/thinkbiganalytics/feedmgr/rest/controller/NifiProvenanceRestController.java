@@ -73,8 +73,8 @@ public class NifiProvenanceRestController {
     @ApiResponses(
         @ApiResponse(code = 200, message = "Returns the flow updates.", response = NiFiFlowCacheSync.class)
     )
-    public Response getFlowUpdates(@QueryParam("syncId") String syncId) {
-        NiFiFlowCacheSync updates = nifiFlowCache.syncAndReturnUpdates(syncId);
+    public Response getFlowUpdates(@QueryParam("syncId") String syncId, @QueryParam("sequence") Long sequence) {
+        NiFiFlowCacheSync updates = nifiFlowCache.syncAndReturnUpdates(syncId, sequence);
         return Response.ok(updates).build();
     }
 
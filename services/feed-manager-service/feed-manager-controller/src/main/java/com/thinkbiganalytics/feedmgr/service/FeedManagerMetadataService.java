@@ -35,6 +35,7 @@ import com.thinkbiganalytics.feedmgr.service.category.FeedManagerCategoryService
 import com.thinkbiganalytics.feedmgr.service.feed.FeedManagerFeedService;
 import com.thinkbiganalytics.feedmgr.service.feed.FeedModelTransform;
 import com.thinkbiganalytics.feedmgr.service.template.FeedManagerTemplateService;
+import com.thinkbiganalytics.jobrepo.query.model.SearchResult;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.event.MetadataEventListener;
 import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
@@ -303,6 +304,11 @@ public class FeedManagerMetadataService implements MetadataService {
         return feedProvider.getFeedSummaryForCategory(categoryId);
     }
 
+    @Override
+    public SearchResult getFeedSummaries(String filter, String categoryId, String sort, int start, int limit) {
+        return feedProvider.getFeedSummaries(filter, categoryId, sort, start, limit);
+    }
+
     @Override
     public FeedMetadata getFeedByName(String categoryName, String feedName) {
         return feedProvider.getFeedByName(categoryName, feedName);
@@ -29,6 +29,7 @@ import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplate;
 import com.thinkbiganalytics.feedmgr.rest.model.UIFeed;
 import com.thinkbiganalytics.feedmgr.rest.model.UserFieldCollection;
 import com.thinkbiganalytics.feedmgr.rest.model.UserProperty;
+import com.thinkbiganalytics.jobrepo.query.model.SearchResult;
 import com.thinkbiganalytics.nifi.rest.client.NifiClientRuntimeException;
 import com.thinkbiganalytics.nifi.rest.model.NifiProperty;
 import com.thinkbiganalytics.security.action.Action;
@@ -154,6 +155,18 @@ public interface MetadataService {
      */
     List<FeedSummary> getFeedSummaryForCategory(String categoryId);
 
+    /**
+     * Return a page of feed summaries, sorted and filtered on the server
+     *
+     * @param filter     text matched against the feed name, or {@code null} for all feeds
+     * @param categoryId only return feeds in this category, or {@code null} for all categories
+     * @param sort       the summary field to sort by, prefixed with "-" to sort descending
+     * @param start      the index of the first feed to return
+     * @param limit      the maximum number of feeds to return
+     * @return the page of feed summaries and the total number of matching feeds
+     */
+    SearchResult getFeedSummaries(String filter, String categoryId, String sort, int start, int limit);
+
     /**
      * Return a feed matching on its system category name and  system feed name
      *
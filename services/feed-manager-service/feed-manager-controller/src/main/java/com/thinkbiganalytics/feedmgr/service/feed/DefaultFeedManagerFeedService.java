@@ -20,6 +20,8 @@ package com.thinkbiganalytics.feedmgr.service.feed;
  * #L%
  */
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 import com.thinkbiganalytics.datalake.authorization.service.HadoopAuthorizationService;
@@ -42,6 +44,8 @@ import com.thinkbiganalytics.feedmgr.service.security.SecurityService;
 import com.thinkbiganalytics.feedmgr.service.template.FeedManagerTemplateService;
 import com.thinkbiganalytics.feedmgr.service.template.RegisteredTemplateService;
 import com.thinkbiganalytics.feedmgr.sla.ServiceLevelAgreementService;
+import com.thinkbiganalytics.jobrepo.query.model.SearchResult;
+import com.thinkbiganalytics.jobrepo.query.model.SearchResultImpl;
 import com.thinkbiganalytics.json.ObjectMapperSerializer;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.category.Category;
@@ -55,11 +59,13 @@ import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
 import com.thinkbiganalytics.metadata.api.event.feed.FeedChange;
 import com.thinkbiganalytics.metadata.api.event.feed.FeedChangeEvent;
 import com.thinkbiganalytics.metadata.api.event.feed.FeedPropertyChangeEvent;
+import com.thinkbiganalytics.metadata.api.event.template.TemplateChangeEvent;
 import com.thinkbiganalytics.metadata.api.extension.UserFieldDescriptor;
 import com.thinkbiganalytics.metadata.api.feed.Feed;
 import com.thinkbiganalytics.metadata.api.feed.FeedProperties;
 import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
 import com.thinkbiganalytics.metadata.api.feed.FeedSource;
+import com.thinkbiganalytics.metadata.api.feed.FeedSummaryProjection.SortField;
 import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeedProvider;
 import com.thinkbiganalytics.metadata.api.feed.security.FeedAccessControl;
 import com.thinkbiganalytics.metadata.api.security.HadoopSecurityGroup;
@@ -110,6 +116,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
@@ -125,6 +132,17 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
      */
     private final MetadataEventListener<FeedPropertyChangeEvent> feedPropertyChangeListener = new FeedPropertyChangeDispatcher();
 
+    /**
+     * Event listeners that clear the cached feed summaries
+     */
+    private final MetadataEventListener<FeedChangeEvent> feedSummaryFeedListener = new FeedSummaryFeedChangeListener();
+    private final MetadataEventListener<TemplateChangeEvent> feedSummaryTemplateListener = new FeedSummaryTemplateChangeListener();
+
+    /**
+     * Recently requested pages of feed summaries
+     */
+    private Cache<FeedSummaryQuery, SearchResult> feedSummaryCache;
+
     @Inject
     FeedManagerTemplateProvider templateProvider;
     @Inject
@@ -188,12 +206,24 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
     @Value("${nifi.remove.inactive.versioned.feeds:true}")
     private boolean removeInactiveNifiVersionedFeedFlows;
 
+    /**
+     * Number of seconds a page of feed summaries is cached
+     */
+    @Value("${feeds.summary.cache.seconds:5}")
+    private long feedSummaryCacheSeconds;
+
     /**
      * Adds listeners for transferring events.
      */
     @PostConstruct
     public void addEventListener() {
+        feedSummaryCache = CacheBuilder.newBuilder()
+            .expireAfterWrite(feedSummaryCacheSeconds, TimeUnit.SECONDS)
+            .maximumSize(100)
+            .build();
         metadataEventService.addListener(feedPropertyChangeListener);
+        metadataEventService.addListener(feedSummaryFeedListener);
+        metadataEventService.addListener(feedSummaryTemplateListener);
     }
 
     /**
@@ -202,6 +232,8 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
     @PreDestroy
     public void removeEventListener() {
         metadataEventService.removeListener(feedPropertyChangeListener);
+        metadataEventService.removeListener(feedSummaryFeedListener);
+        metadataEventService.removeListener(feedSummaryTemplateListener);
     }
 
     @Override
@@ -299,6 +331,10 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
         return metadataAccess.read(() -> {
             this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.ACCESS_FEEDS);
 
+            if (!accessController.isEntityAccessControlled()) {
+                return feedModelTransform.projectionToFeedSummary(feedProvider.findFeedSummaries(null, null, SortField.FEED_NAME, true, 0, -1));
+            }
+
             List<FeedSummary> feeds = null;
             Collection<? extends Feed> domainFeeds = feedProvider.findAll();
             if (domainFeeds != null) {
@@ -316,6 +352,10 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
 
             List<FeedSummary> summaryList = new ArrayList<>();
             Category.ID categoryDomainId = categoryProvider.resolveId(categoryId);
+            if (!accessController.isEntityAccessControlled()) {
+                return feedModelTransform.projectionToFeedSummary(feedProvider.findFeedSummaries(null, categoryDomainId, SortField.FEED_NAME, true, 0, -1));
+            }
+
             List<? extends Feed> domainFeeds = feedProvider.findByCategoryId(categoryDomainId);
             if (domainFeeds != null && !domainFeeds.isEmpty()) {
                 List<FeedMetadata> feeds = feedModelTransform.domainToFeedMetadata(domainFeeds);
@@ -328,6 +368,48 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
 
     }
 
+    @Override
+    public SearchResult getFeedSummaries(String filter, String categoryId, String sort, int start, int limit) {
+        final FeedSummaryQuery query = new FeedSummaryQuery(filter, categoryId, sort, start, limit);
+
+        return metadataAccess.read(() -> {
+            this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.ACCESS_FEEDS);
+
+            if (accessController.isEntityAccessControlled()) {
+                // Allowed actions differ per user so the summaries need the feed entities and are not cached
+                List<FeedSummary> summaries = feedModelTransform.domainToFeedSummary(feedProvider.findAll());
+                return toSearchResult(query.apply(summaries), query.count(summaries));
+            }
+
+            SearchResult result = feedSummaryCache.getIfPresent(query);
+            if (result == null) {
+                Category.ID categoryDomainId = query.getCategoryId() != null ? categoryProvider.resolveId(query.getCategoryId()) : null;
+                List<FeedSummary> summaries = feedModelTransform.projectionToFeedSummary(
+                    feedProvider.findFeedSummaries(query.getFilter(), categoryDomainId, query.getSort(), query.isAscending(), query.getStart(), query.getLimit()));
+                result = toSearchResult(summaries, feedProvider.countFeedSummaries(query.getFilter(), categoryDomainId));
+                feedSummaryCache.put(query, result);
+            }
+            return result;
+        });
+    }
+
+    private SearchResult toSearchResult(List<FeedSummary> summaries, long total) {
+        SearchResult result = new SearchResultImpl();
+        result.setData(summaries);
+        result.setRecordsTotal(total);
+        result.setRecordsFiltered(total);
+        return result;
+    }
+
+    /**
+     * Clears the cached feed summaries after a feed or template changes
+     */
+    private void invalidateFeedSummaries() {
+        if (feedSummaryCache != null) {
+            feedSummaryCache.invalidateAll();
+        }
+    }
+
     @Override
     public List<FeedMetadata> getFeedsWithTemplate(final String registeredTemplateId) {
         return metadataAccess.read(() -> {
@@ -888,6 +970,23 @@ public class DefaultFeedManagerFeedService implements FeedManagerFeedService {
     }
 
 
+    private class FeedSummaryFeedChangeListener implements MetadataEventListener<FeedChangeEvent> {
+
+        @Override
+        public void notify(@Nonnull final FeedChangeEvent metadataEvent) {
+            invalidateFeedSummaries();
+        }
+    }
+
+    private class FeedSummaryTemplateChangeListener implements MetadataEventListener<TemplateChangeEvent> {
+
+        @Override
+        public void notify(@Nonnull final TemplateChangeEvent metadataEvent) {
+            invalidateFeedSummaries();
+        }
+    }
+
+
     /**
      * update the audit information for feed state changes
      *
@@ -68,16 +68,18 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.Collections;
+import java.util.Enumeration;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
@@ -166,8 +168,7 @@ public class ExportImportFeedService {
         final ExportImportTemplateService.ExportTemplate exportTemplate = exportImportTemplateService.exportTemplate(feed.getTemplateId());
         final String feedJson = ObjectMapperSerializer.serialize(feed);
 
-        final byte[] zipFile = ZipFileUtil.addToZip(exportTemplate.getFile(), feedJson, FEED_JSON_FILE);
-        return new ExportFeed(feed.getSystemFeedName() + ".feed.zip", zipFile);
+        return new ExportFeed(feed.getSystemFeedName() + ".feed.zip", exportTemplate, feedJson);
     }
 
     //Validate
@@ -180,11 +181,12 @@ public class ExportImportFeedService {
      * @param options  user options about what/how it should be imported
      * @return the feed data to import
      */
-    public ImportFeed validateFeedForImport(final String fileName, byte[] content, ImportFeedOptions options) throws IOException {
+    public ImportFeed validateFeedForImport(final String fileName, Path content, ImportFeedOptions options) throws IOException {
         this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.IMPORT_FEEDS);
         ImportFeed importFeed = null;
         UploadProgressMessage feedImportStatusMessage = uploadProgressService.addUploadStatus(options.getUploadKey(), "Validating Feed import.");
-        boolean isValid = ZipFileUtil.validateZipEntriesWithRequiredEntries(content, getValidZipFileEntries(), Sets.newHashSet(FEED_JSON_FILE));
+        Set<String> zipFileNames = ZipFileUtil.getFileNames(content);
+        boolean isValid = ZipFileUtil.validateZipEntriesWithRequiredEntries(zipFileNames, getValidZipFileEntries(), Sets.newHashSet(FEED_JSON_FILE));
         if (!isValid) {
             feedImportStatusMessage.update("Validation error. Feed import error. The zip file you uploaded is not valid feed export.", false);
             throw new ImportFeedException("The zip file you uploaded is not valid feed export.");
@@ -196,7 +198,7 @@ public class ExportImportFeedService {
             //initially mark as valid.
             importFeed.setValid(true);
             //merge in the file components to the user options
-            Set<ImportComponentOption> componentOptions = ImportUtil.inspectZipComponents(content, ImportType.FEED);
+            Set<ImportComponentOption> componentOptions = ImportUtil.inspectZipComponents(zipFileNames, ImportType.FEED);
             options.addOptionsIfNotExists(componentOptions);
             importFeed.setImportOptions(options);
 
@@ -405,7 +407,7 @@ public class ExportImportFeedService {
      * @param importOptions user options about what/how it should be imported
      * @return the feed data to import
      */
-    public ImportFeed importFeed(String fileName, byte[] content, ImportFeedOptions importOptions) throws Exception {
+    public ImportFeed importFeed(String fileName, Path content, ImportFeedOptions importOptions) throws Exception {
         this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.IMPORT_FEEDS);
         UploadProgress progress = uploadProgressService.getUploadStatus(importOptions.getUploadKey());
         progress.setSections(ImportSection.sectionsForImportAsString(ImportType.FEED));
@@ -514,20 +516,18 @@ public class ExportImportFeedService {
         progress.completeSection(section.name());
     }
 
-    private ImportFeed readFeedJson(String fileName, byte[] content) throws IOException {
+    private ImportFeed readFeedJson(String fileName, Path content) throws IOException {
 
-        byte[] buffer = new byte[1024];
-        InputStream inputStream = new ByteArrayInputStream(content);
-        ZipInputStream zis = new ZipInputStream(inputStream);
-        ZipEntry zipEntry;
-        // while there are entries I process them
         ImportFeed importFeed = new ImportFeed(fileName);
 
-        while ((zipEntry = zis.getNextEntry()) != null) {
-
-            if (zipEntry.getName().startsWith(FEED_JSON_FILE)) {
-                String zipEntryContents = ZipFileUtil.zipEntryToString(buffer, zis, zipEntry);
-                importFeed.setFeedJson(zipEntryContents);
+        try (ZipFile zipFile = new ZipFile(content.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry zipEntry = entries.nextElement();
+                if (zipEntry.getName().startsWith(FEED_JSON_FILE)) {
+                    String zipEntryContents = ZipFileUtil.zipEntryToString(zipFile, zipEntry);
+                    importFeed.setFeedJson(zipEntryContents);
+                }
             }
         }
         return importFeed;
@@ -535,22 +535,35 @@ public class ExportImportFeedService {
 
     //Internal classes
 
-    public class ExportFeed {
+    /**
+     * An exported feed which is written as a zip file when it is streamed to the client
+     */
+    public static class ExportFeed {
 
         private String fileName;
-        private byte[] file;
+        private ExportImportTemplateService.ExportTemplate template;
+        private String feedJson;
 
-        public ExportFeed(String fileName, byte[] file) {
+        public ExportFeed(String fileName, ExportImportTemplateService.ExportTemplate template, String feedJson) {
             this.fileName = fileName;
-            this.file = file;
+            this.template = template;
+            this.feedJson = feedJson;
         }
 
         public String getFileName() {
             return fileName;
         }
 
-        public byte[] getFile() {
-            return file;
+        /**
+         * Writes the template entries and the feed json to the specified stream, which is closed afterwards
+         *
+         * @param out the stream, such as an HTTP response, to write to
+         */
+        public void write(OutputStream out) throws IOException {
+            try (ZipOutputStream zos = ZipFileUtil.newZipOutputStream(out)) {
+                template.writeEntries(zos);
+                ZipFileUtil.addToZip(zos, feedJson, FEED_JSON_FILE);
+            }
         }
     }
 
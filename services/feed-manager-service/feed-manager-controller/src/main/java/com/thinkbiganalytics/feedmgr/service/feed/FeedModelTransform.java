@@ -40,6 +40,7 @@ import com.thinkbiganalytics.metadata.api.category.CategoryProvider;
 import com.thinkbiganalytics.metadata.api.extension.UserFieldDescriptor;
 import com.thinkbiganalytics.metadata.api.feed.Feed;
 import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
+import com.thinkbiganalytics.metadata.api.feed.FeedSummaryProjection;
 import com.thinkbiganalytics.metadata.api.security.HadoopSecurityGroup;
 import com.thinkbiganalytics.metadata.api.security.HadoopSecurityGroupProvider;
 import com.thinkbiganalytics.metadata.api.template.FeedManagerTemplate;
@@ -381,6 +382,44 @@ public class FeedModelTransform {
         return domain.stream().map(this::domainToFeedSummary).collect(Collectors.toList());
     }
 
+    /**
+     * Transforms the specified feed summary projection to a Feed Manager feed summary.
+     * Projections do not include access control so the allowed actions are not set.
+     *
+     * @param projection the feed summary read from the metadata store
+     * @return the Feed Manager feed summary
+     */
+    @Nonnull
+    public FeedSummary projectionToFeedSummary(@Nonnull final FeedSummaryProjection projection) {
+        FeedSummary feedSummary = new FeedSummary();
+        feedSummary.setId(projection.getFeedId());
+        feedSummary.setFeedId(projection.getFeedId());
+        feedSummary.setCategoryId(projection.getCategoryId());
+        feedSummary.setCategoryIcon(projection.getCategoryIcon());
+        feedSummary.setCategoryIconColor(projection.getCategoryIconColor());
+        feedSummary.setCategoryName(projection.getCategoryTitle());
+        feedSummary.setSystemCategoryName(projection.getCategorySystemName());
+        feedSummary.setUpdateDate(projection.getModifiedTime() != null ? projection.getModifiedTime().toDate() : null);
+        feedSummary.setFeedName(projection.getTitle());
+        feedSummary.setSystemFeedName(projection.getSystemName());
+        feedSummary.setActive(Feed.State.ENABLED.equals(projection.getState()));
+        feedSummary.setState(projection.getState() != null ? projection.getState().name() : null);
+        feedSummary.setTemplateId(projection.getTemplateId());
+        feedSummary.setTemplateName(projection.getTemplateName());
+        return feedSummary;
+    }
+
+    /**
+     * Transforms the specified feed summary projections to Feed Manager feed summaries.
+     *
+     * @param projections the feed summaries read from the metadata store
+     * @return the Feed Manager feed summaries
+     */
+    @Nonnull
+    public List<FeedSummary> projectionToFeedSummary(@Nonnull final Collection<FeedSummaryProjection> projections) {
+        return projections.stream().map(this::projectionToFeedSummary).collect(Collectors.toList());
+    }
+
     /**
      * Gets the user-defined fields including those for the specified category.
      *
@@ -0,0 +1,180 @@
+package com.thinkbiganalytics.feedmgr.service.feed;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.feedmgr.rest.model.FeedSummary;
+import com.thinkbiganalytics.metadata.api.feed.FeedSummaryProjection.SortField;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The paging, sorting and filtering requested for a list of feed summaries.
+ * Also used as the key when caching pages of summaries.
+ */
+public class FeedSummaryQuery {
+
+    private final String filter;
+    private final String categoryId;
+    private final SortField sort;
+    private final boolean ascending;
+    private final int start;
+    private final int limit;
+
+    public FeedSummaryQuery(String filter, String categoryId, String sort, int start, int limit) {
+        this.filter = StringUtils.isNotBlank(filter) ? filter.trim().toLowerCase() : null;
+        this.categoryId = StringUtils.isNotBlank(categoryId) ? categoryId : null;
+        this.ascending = sort == null || !sort.startsWith("-");
+        this.sort = toSortField(ascending ? sort : sort.substring(1));
+        this.start = Math.max(start, 0);
+        this.limit = limit;
+    }
+
+    /**
+     * Map a {@link FeedSummary} field name to the column it sorts by
+     *
+     * @param field the summary field name, or {@code null} for the feed name
+     * @return the sort column
+     * @throws IllegalArgumentException if feed summaries cannot be sorted by the field
+     */
+    private static SortField toSortField(String field) {
+        if (StringUtils.isBlank(field) || "feedName".equals(field)) {
+            return SortField.FEED_NAME;
+        }
+        switch (field) {
+            case "systemFeedName":
+                return SortField.SYSTEM_FEED_NAME;
+            case "categoryName":
+                return SortField.CATEGORY_NAME;
+            case "state":
+                return SortField.STATE;
+            case "templateName":
+                return SortField.TEMPLATE_NAME;
+            case "updateDate":
+                return SortField.UPDATE_DATE;
+            default:
+                throw new IllegalArgumentException("Feeds cannot be sorted by " + field);
+        }
+    }
+
+    /**
+     * Filter, sort and page summaries that have already been loaded
+     *
+     * @param summaries all the feed summaries
+     * @return the requested page of summaries
+     */
+    public List<FeedSummary> apply(List<FeedSummary> summaries) {
+        Comparator<FeedSummary> comparator = Comparator.comparing(sortKey(), Comparator.nullsFirst(Comparator.naturalOrder()));
+        if (!ascending) {
+            comparator = comparator.reversed();
+        }
+        comparator = comparator.thenComparing(FeedSummary::getSystemFeedName, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        return summaries.stream()
+            .filter(this::matches)
+            .sorted(comparator)
+            .skip(start)
+            .limit(limit >= 0 ? limit : Long.MAX_VALUE)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Count the summaries matching the filter
+     */
+    public long count(List<FeedSummary> summaries) {
+        return summaries.stream().filter(this::matches).count();
+    }
+
+    private boolean matches(FeedSummary summary) {
+        if (categoryId != null && !categoryId.equals(summary.getCategoryId())) {
+            return false;
+        }
+        return filter == null
+               || StringUtils.contains(StringUtils.lowerCase(summary.getFeedName()), filter)
+               || StringUtils.contains(StringUtils.lowerCase(summary.getSystemFeedName()), filter);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Function<FeedSummary, Comparable<Object>> sortKey() {
+        switch (sort) {
+            case SYSTEM_FEED_NAME:
+                return s -> (Comparable) s.getSystemFeedName();
+            case CATEGORY_NAME:
+                return s -> (Comparable) s.getCategoryName();
+            case STATE:
+                return s -> (Comparable) s.getState();
+            case TEMPLATE_NAME:
+                return s -> (Comparable) s.getTemplateName();
+            case UPDATE_DATE:
+                return s -> (Comparable) s.getUpdateDate();
+            case FEED_NAME:
+            default:
+                return s -> (Comparable) s.getFeedName();
+        }
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    public String getCategoryId() {
+        return categoryId;
+    }
+
+    public SortField getSort() {
+        return sort;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FeedSummaryQuery that = (FeedSummaryQuery) o;
+        return ascending == that.ascending && start == that.start && limit == that.limit && Objects.equals(filter, that.filter)
+               && Objects.equals(categoryId, that.categoryId) && sort == that.sort;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(filter, categoryId, sort, ascending, start, limit);
+    }
+}
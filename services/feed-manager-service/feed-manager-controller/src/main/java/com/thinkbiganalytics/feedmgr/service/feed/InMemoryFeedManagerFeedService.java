@@ -34,6 +34,8 @@ import com.thinkbiganalytics.feedmgr.rest.model.UserProperty;
 import com.thinkbiganalytics.feedmgr.service.FileObjectPersistence;
 import com.thinkbiganalytics.feedmgr.service.category.FeedManagerCategoryService;
 import com.thinkbiganalytics.feedmgr.service.template.FeedManagerTemplateService;
+import com.thinkbiganalytics.jobrepo.query.model.SearchResult;
+import com.thinkbiganalytics.jobrepo.query.model.SearchResultImpl;
 import com.thinkbiganalytics.metadata.api.feed.Feed;
 import com.thinkbiganalytics.nifi.rest.client.LegacyNifiRestClient;
 import com.thinkbiganalytics.policy.rest.model.FieldRuleProperty;
@@ -130,6 +132,19 @@ public class InMemoryFeedManagerFeedService implements FeedManagerFeedService {
         return summaryList;
     }
 
+    @Override
+    public SearchResult getFeedSummaries(String filter, String categoryId, String sort, int start, int limit) {
+        FeedSummaryQuery query = new FeedSummaryQuery(filter, categoryId, sort, start, limit);
+        List<FeedSummary> summaries = getFeedSummaryData();
+        long total = query.count(summaries);
+
+        SearchResult result = new SearchResultImpl();
+        result.setData(query.apply(summaries));
+        result.setRecordsTotal(total);
+        result.setRecordsFiltered(total);
+        return result;
+    }
+
 
     @Override
     public FeedMetadata getFeedByName(final String categoryName, final String feedName) {
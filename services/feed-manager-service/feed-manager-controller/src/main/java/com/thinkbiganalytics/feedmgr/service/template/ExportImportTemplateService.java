@@ -70,20 +70,22 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.xml.sax.SAXException;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
 import javax.inject.Inject;
@@ -174,43 +176,16 @@ public class ExportImportTemplateService {
                 throw new UnsupportedOperationException("Unable to find Nifi Template for " + templateId);
             }
 
-            //create a zip file with the template and xml
-            byte[] zipFile = zip(template, templateXml, connectingReusableTemplates);
+            //the zip file with the template and xml is written when the export is streamed
+            String templateJson = ObjectMapperSerializer.serialize(template);
 
-            return new ExportTemplate(SystemNamingService.generateSystemName(template.getTemplateName()) + ".template.zip", zipFile);
+            return new ExportTemplate(SystemNamingService.generateSystemName(template.getTemplateName()) + ".template.zip", templateXml, connectingReusableTemplates, templateJson);
 
         } else {
             throw new UnsupportedOperationException("Unable to find Template for " + templateId);
         }
     }
 
-    private byte[] zip(RegisteredTemplate template, String nifiTemplateXml, List<String> reusableTemplateXmls) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
-
-            ZipEntry entry = new ZipEntry(NIFI_TEMPLATE_XML_FILE);
-            zos.putNextEntry(entry);
-            zos.write(nifiTemplateXml.getBytes());
-            zos.closeEntry();
-            int reusableTemplateNumber = 0;
-            for (String reusableTemplateXml : reusableTemplateXmls) {
-                entry = new ZipEntry(String.format("%s_%s.xml", NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE, reusableTemplateNumber++));
-                zos.putNextEntry(entry);
-                zos.write(reusableTemplateXml.getBytes());
-                zos.closeEntry();
-            }
-            entry = new ZipEntry(TEMPLATE_JSON_FILE);
-            zos.putNextEntry(entry);
-            String json = ObjectMapperSerializer.serialize(template);
-            zos.write(json.getBytes());
-            zos.closeEntry();
-
-        } catch (IOException ioe) {
-            throw new RuntimeException(ioe);
-        }
-        return baos.toByteArray();
-    }
-
     //Validation Methods
 
 
@@ -226,10 +201,9 @@ public class ExportImportTemplateService {
 
 
     //validate
-    public ImportTemplate validateTemplateForImport(final String fileName, byte[] content, ImportOptions importOptions) {
+    public ImportTemplate validateTemplateForImport(final String fileName, Path content, ImportOptions importOptions) {
 
         this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.IMPORT_TEMPLATES);
-        InputStream inputStream = new ByteArrayInputStream(content);
         UploadProgressMessage overallStatusMessage = uploadProgressService.addUploadStatus(importOptions.getUploadKey(), "Validating template for import");
         UploadProgressMessage statusMessage = overallStatusMessage;
         ImportTemplateOptions options = new ImportTemplateOptions();
@@ -241,9 +215,13 @@ public class ExportImportTemplateService {
         }
         try {
             if (fileName.endsWith(".zip")) {
-                template = openZip(fileName, inputStream);
+                Set<String> zipFileNames;
+                try (ZipFile zipFile = new ZipFile(content.toFile())) {
+                    template = openZip(fileName, zipFile);
+                    zipFileNames = zipFile.stream().map(ZipEntry::getName).collect(Collectors.toSet());
+                }
                 template.setValid(true);
-                Set<ImportComponentOption> componentOptions = ImportUtil.inspectZipComponents(content, ImportType.TEMPLATE);
+                Set<ImportComponentOption> componentOptions = ImportUtil.inspectZipComponents(zipFileNames, ImportType.TEMPLATE);
                 options.setImportComponentOptions(importOptions.getImportComponentOptions());
                 options.addOptionsIfNotExists(componentOptions);
                 template.setImportOptions(options);
@@ -254,7 +232,9 @@ public class ExportImportTemplateService {
 
                 validateNiFiTemplateImport(template);
             } else {
-                template = getNewNiFiTemplateImport(fileName, inputStream);
+                try (InputStream inputStream = Files.newInputStream(content)) {
+                    template = getNewNiFiTemplateImport(fileName, inputStream);
+                }
                 template.setImportOptions(options);
                 //deal with reusable templates??
                 validateNiFiTemplateImport(template);
@@ -511,7 +491,7 @@ public class ExportImportTemplateService {
      * @param importOptions user options about what/how it should be imported
      * @return the template data to import along with status/messages/error information if it was valid and if was successfully imported
      */
-    public ImportTemplate importTemplate(final String fileName, final byte[] content, ImportTemplateOptions importOptions) {
+    public ImportTemplate importTemplate(final String fileName, final Path content, ImportTemplateOptions importOptions) {
         return metadataAccess.commit(() -> {
             this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.IMPORT_TEMPLATES);
 
@@ -529,7 +509,9 @@ public class ExportImportTemplateService {
                     UploadProgress progress = uploadProgressService.getUploadStatus(importOptions.getUploadKey());
                     progress.setSections(ImportSection.sectionsForImportAsString(ImportType.TEMPLATE_XML));
 
-                    template = importNifiTemplate(fileName, content, importOptions, true);
+                    try (InputStream inputStream = Files.newInputStream(content)) {
+                        template = importNifiTemplate(getNewNiFiTemplateImport(fileName, inputStream), importOptions, true);
+                    }
                 }
             } catch (IOException e) {
                 throw new UnsupportedOperationException("Error importing template  " + fileName + ".  " + e.getMessage());
@@ -543,7 +525,7 @@ public class ExportImportTemplateService {
      * Imports the data and various components based upon the supplied {@link ImportTemplate#importOptions}.
      *
      * Note.  This method will not call any validation routines.  It will just import.
-     * If you want to validate before to ensure the import will be correct call this.importTemplate(final String fileName, final byte[] content, ImportTemplateOptions importOptions)
+     * If you want to validate before to ensure the import will be correct call {@link #importTemplate(String, Path, ImportTemplateOptions)}
      *
      * @param importTemplate the template data to validate before importing
      * @return the template data to validate before importing
@@ -688,7 +670,7 @@ public class ExportImportTemplateService {
     }
 
 
-    private ImportTemplate validateAndImportZip(String fileName, byte[] content, ImportTemplateOptions importOptions) throws Exception {
+    private ImportTemplate validateAndImportZip(String fileName, Path content, ImportTemplateOptions importOptions) throws Exception {
         this.accessController.checkPermission(AccessController.SERVICES, FeedServicesAccessControl.IMPORT_TEMPLATES);
         ImportTemplate importTemplate = validateTemplateForImport(fileName, content, importOptions);
         return importZip(importTemplate);
@@ -793,22 +775,22 @@ public class ExportImportTemplateService {
     }
 
     private ImportTemplate importNifiTemplateWithTemplateString(String fileName, String xmlFile, ImportTemplateOptions importOptions, boolean xmlImport) throws IOException {
-        byte[] content = xmlFile.getBytes("UTF-8");
-        return importNifiTemplate(fileName, content, importOptions, xmlImport);
+        ImportTemplate importTemplate = new ImportTemplate(fileName);
+        importTemplate.setValid(true);
+        importTemplate.setNifiTemplateXml(xmlFile);
+        return importNifiTemplate(importTemplate, importOptions, xmlImport);
     }
 
     /**
      *
-     * @param fileName
-     * @param xmlFile
+     * @param importTemplate the template holding the NiFi xml to import
      * @param importOptions
      * @param xmlImport
      * @return
      * @throws IOException
      */
-    private ImportTemplate importNifiTemplate(String fileName, byte[] xmlFile, ImportTemplateOptions importOptions, boolean xmlImport) throws IOException {
-        InputStream inputStream = new ByteArrayInputStream(xmlFile);
-        ImportTemplate importTemplate = getNewNiFiTemplateImport(fileName, inputStream);
+    private ImportTemplate importNifiTemplate(ImportTemplate importTemplate, ImportTemplateOptions importOptions, boolean xmlImport) throws IOException {
+        String fileName = importTemplate.getFileName();
         importTemplate.setImportOptions(importOptions);
 
         validateNiFiTemplateImport(importTemplate);
@@ -941,27 +923,25 @@ public class ExportImportTemplateService {
     /**
      * Open the zip file and populate the {@link ImportTemplate} object with the components in the file/archive
      *
-     * @param fileName    the file name
-     * @param inputStream the file
+     * Only the template entries are read, so other entries in the archive are never loaded into memory.
+     *
+     * @param fileName the file name
+     * @param zipFile  the file
      * @return the template data to import
      */
-    private ImportTemplate openZip(String fileName, InputStream inputStream) throws IOException {
-        byte[] buffer = new byte[1024];
-        ZipInputStream zis = new ZipInputStream(inputStream);
-        ZipEntry zipEntry;
+    private ImportTemplate openZip(String fileName, ZipFile zipFile) throws IOException {
         ImportTemplate importTemplate = new ImportTemplate(fileName);
-        while ((zipEntry = zis.getNextEntry()) != null) {
-            String zipEntryContents = ZipFileUtil.zipEntryToString(buffer, zis, zipEntry);
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry zipEntry = entries.nextElement();
             if (zipEntry.getName().startsWith(NIFI_TEMPLATE_XML_FILE)) {
-                importTemplate.setNifiTemplateXml(zipEntryContents);
+                importTemplate.setNifiTemplateXml(ZipFileUtil.zipEntryToString(zipFile, zipEntry));
             } else if (zipEntry.getName().startsWith(TEMPLATE_JSON_FILE)) {
-                importTemplate.setTemplateJson(zipEntryContents);
+                importTemplate.setTemplateJson(ZipFileUtil.zipEntryToString(zipFile, zipEntry));
             } else if (zipEntry.getName().startsWith(NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE)) {
-                importTemplate.addNifiConnectingReusableTemplateXml(zipEntryContents);
+                importTemplate.addNifiConnectingReusableTemplateXml(ZipFileUtil.zipEntryToString(zipFile, zipEntry));
             }
         }
-        zis.closeEntry();
-        zis.close();
         if (!importTemplate.hasValidComponents()) {
             throw new UnsupportedOperationException(
                 " The file you uploaded is not a valid archive.  Please ensure the Zip file has been exported from the system and has 2 valid files named: " + NIFI_TEMPLATE_XML_FILE + ", and "
@@ -1165,22 +1145,50 @@ public class ExportImportTemplateService {
         }
     }
 
-    public class ExportTemplate {
+    /**
+     * An exported template which is written as a zip file when it is streamed to the client
+     */
+    public static class ExportTemplate {
 
         private String fileName;
-        private byte[] file;
+        private String nifiTemplateXml;
+        private List<String> reusableTemplateXmls;
+        private String templateJson;
 
-        public ExportTemplate(String fileName, byte[] file) {
+        public ExportTemplate(String fileName, String nifiTemplateXml, List<String> reusableTemplateXmls, String templateJson) {
             this.fileName = fileName;
-            this.file = file;
+            this.nifiTemplateXml = nifiTemplateXml;
+            this.reusableTemplateXmls = reusableTemplateXmls;
+            this.templateJson = templateJson;
         }
 
         public String getFileName() {
             return fileName;
         }
 
-        public byte[] getFile() {
-            return file;
+        /**
+         * Writes the zip file to the specified stream, which is closed afterwards
+         *
+         * @param out the stream, such as an HTTP response, to write to
+         */
+        public void write(OutputStream out) throws IOException {
+            try (ZipOutputStream zos = ZipFileUtil.newZipOutputStream(out)) {
+                writeEntries(zos);
+            }
+        }
+
+        /**
+         * Adds the template entries to an open zip file
+         *
+         * @param zos the zip file
+         */
+        public void writeEntries(ZipOutputStream zos) throws IOException {
+            ZipFileUtil.addToZip(zos, nifiTemplateXml, NIFI_TEMPLATE_XML_FILE);
+            int reusableTemplateNumber = 0;
+            for (String reusableTemplateXml : reusableTemplateXmls) {
+                ZipFileUtil.addToZip(zos, reusableTemplateXml, String.format("%s_%s.xml", NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE, reusableTemplateNumber++));
+            }
+            ZipFileUtil.addToZip(zos, templateJson, TEMPLATE_JSON_FILE);
         }
     }
 
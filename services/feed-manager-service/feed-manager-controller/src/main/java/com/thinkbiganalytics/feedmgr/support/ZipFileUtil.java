@@ -20,33 +20,46 @@ package com.thinkbiganalytics.feedmgr.support;
  * #L%
  */
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
 /**
  * Utility to interact with zip files
+ *
+ * Archives are streamed through {@link #BUFFER_SIZE} buffers and uploaded archives are read from a temporary file, so only the entries that are read are held in memory.
  */
 public class ZipFileUtil {
 
+    /**
+     * Size of the buffers used to copy archives and entries
+     */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
 
     /**
      * Validate filenames in a zip file This does case insensitive comparison
      */
-    public static boolean validateZipEntries(byte[] zipFile, Set<String> validNames, Set<String> requiredNames, boolean matchAllValidNames) throws IOException {
+    public static boolean validateZipEntries(Set<String> zipFileNames, Set<String> validNames, Set<String> requiredNames, boolean matchAllValidNames) {
         if (validNames == null) {
             validNames = new HashSet<>();
         }
         List<String> validNamesList = validNames.stream().map(String::toLowerCase).collect(Collectors.toList());
-        Set<String> fileNames = getFileNames(zipFile).stream().map(String::toLowerCase).collect(Collectors.toSet());
+        Set<String> fileNames = zipFileNames.stream().map(String::toLowerCase).collect(Collectors.toSet());
 
         boolean isValid = fileNames != null && !fileNames.isEmpty() && validNamesList.stream().allMatch(fileNames::contains);
         if (isValid && matchAllValidNames) {
@@ -59,98 +72,92 @@ public class ZipFileUtil {
         return isValid;
     }
 
-    public static String zipEntryToString(byte[] buffer, ZipInputStream zis, ZipEntry entry) throws IOException {
-        // consume all the data from this entry
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        int len = 0;
-        while ((len = zis.read(buffer)) > 0) {
-            out.write(buffer, 0, len);
+    /**
+     * Read an entry of a zip file as a UTF-8 string
+     */
+    public static String zipEntryToString(ZipFile zipFile, ZipEntry entry) throws IOException {
+        long size = entry.getSize();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size > 0 && size < BUFFER_SIZE ? (int) size : BUFFER_SIZE);
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            copy(in, out);
         }
-        out.close();
-        return new String(out.toByteArray(), "UTF-8");
+        return out.toString(StandardCharsets.UTF_8.name());
     }
 
 
     /**
      *
-     * @param zipFile
+     * @param zipFileNames
      * @param validNames
      * @param requiredNames
      * @return
-     * @throws IOException
      */
-    public static boolean validateZipEntriesWithRequiredEntries(byte[] zipFile, Set<String> validNames, Set<String> requiredNames) throws IOException {
-        return validateZipEntries(zipFile, validNames, requiredNames, false);
+    public static boolean validateZipEntriesWithRequiredEntries(Set<String> zipFileNames, Set<String> validNames, Set<String> requiredNames) {
+        return validateZipEntries(zipFileNames, validNames, requiredNames, false);
     }
 
     /**
      *
-     * @param zipFile
+     * @param zipFileNames
      * @param validNames
      * @param matchAllValidNames
      * @return
-     * @throws IOException
      */
-    public static boolean validateZipEntries(byte[] zipFile, Set<String> validNames, boolean matchAllValidNames) throws IOException {
-        return validateZipEntries(zipFile, validNames, null, matchAllValidNames);
+    public static boolean validateZipEntries(Set<String> zipFileNames, Set<String> validNames, boolean matchAllValidNames) {
+        return validateZipEntries(zipFileNames, validNames, null, matchAllValidNames);
     }
 
     /**
-     * Gets the file names in a zip file
+     * Gets the file names in a zip file.  The names are read from the central directory without reading any entries.
+     *
+     * @param zipFile the zip file
+     * @return the file names, or an empty set if the file is not a zip file
      */
-    public static Set<String> getFileNames(byte[] zipFile) throws IOException {
-        Set<String> fileNames = new HashSet<>();
-        ByteArrayInputStream inputStream = new ByteArrayInputStream(zipFile);
-        ZipInputStream zis = new ZipInputStream(inputStream);
-        ZipEntry entry;
-        while ((entry = zis.getNextEntry()) != null) {
-            fileNames.add(entry.getName());
+    public static Set<String> getFileNames(Path zipFile) throws IOException {
+        try (ZipFile zip = new ZipFile(zipFile.toFile())) {
+            return zip.stream().map(ZipEntry::getName).collect(Collectors.toSet());
+        } catch (ZipException e) {
+            return new HashSet<>();
         }
-        return fileNames;
     }
 
 
     /**
      * Adds an entry to a zip file
      *
-     * @param zip      the zip file which will have the content added
+     * @param zos      the zip file which will have the content added
      * @param file     the string to add to the zip
      * @param fileName the zip file name
-     * @return the zip file with the newly added content
      */
-    public static byte[] addToZip(byte[] zip, String file, String fileName) throws IOException {
-        InputStream zipInputStream = new ByteArrayInputStream(zip);
-        ZipInputStream zis = new ZipInputStream(zipInputStream);
-        byte[] buffer = new byte[1024];
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
-
-            ZipEntry entry;
-            while ((entry = zis.getNextEntry()) != null) {
-
-                ByteArrayOutputStream out = new ByteArrayOutputStream();
-                int len = 0;
-                while ((len = zis.read(buffer)) > 0) {
-                    out.write(buffer, 0, len);
-                }
-                out.close();
-
-                zos.putNextEntry(entry);
-                zos.write(out.toByteArray());
-                zos.closeEntry();
-
-            }
-            zis.closeEntry();
-            zis.close();
-
-            entry = new ZipEntry(fileName);
-            zos.putNextEntry(entry);
-            zos.write(file.getBytes());
-            zos.closeEntry();
+    public static void addToZip(ZipOutputStream zos, String file, String fileName) throws IOException {
+        zos.putNextEntry(new ZipEntry(fileName));
+        // the writer is flushed rather than closed so the zip stays open for the next entry
+        Writer writer = new OutputStreamWriter(zos, StandardCharsets.UTF_8);
+        writer.write(file);
+        writer.flush();
+        zos.closeEntry();
+    }
+
+    /**
+     * Opens a zip file for writing entries to the specified stream
+     *
+     * @param out the stream, such as an HTTP response, to write the zip file to
+     * @return the zip stream.  Closing it closes {@code out}.
+     */
+    public static ZipOutputStream newZipOutputStream(OutputStream out) {
+        return new ZipOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+    }
+
+    /**
+     * Copies a stream using a {@link #BUFFER_SIZE} buffer.  Neither stream is closed.
+     */
+    public static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int len;
+        while ((len = in.read(buffer)) > 0) {
+            out.write(buffer, 0, len);
         }
-        return baos.toByteArray();
     }
 
 
 }
-
@@ -30,6 +30,7 @@ import com.thinkbiganalytics.feedmgr.rest.model.ImportProperty;
 import com.thinkbiganalytics.feedmgr.rest.model.RegisteredTemplate;
 import com.thinkbiganalytics.feedmgr.service.feed.ExportImportFeedService;
 import com.thinkbiganalytics.feedmgr.service.template.ExportImportTemplateService;
+import com.thinkbiganalytics.feedmgr.support.ZipFileUtil;
 import com.thinkbiganalytics.nifi.rest.model.NifiError;
 import com.thinkbiganalytics.nifi.rest.model.NifiProcessGroup;
 import com.thinkbiganalytics.nifi.rest.model.NifiProperty;
@@ -37,49 +38,37 @@ import com.thinkbiganalytics.support.FeedNameUtil;
 
 import org.apache.commons.lang3.StringUtils;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 import javax.annotation.Nonnull;
 
 public class ImportUtil {
 
 
-    public static Set<ImportComponentOption> inspectZipComponents(byte[] content, ImportType importType) throws IOException {
-        InputStream inputStream = new ByteArrayInputStream(content);
-        return inspectZipComponents(inputStream, importType);
-    }
-
-
-    public static Set<ImportComponentOption> inspectZipComponents(InputStream inputStream, ImportType importType) throws IOException {
+    public static Set<ImportComponentOption> inspectZipComponents(Set<String> fileNames, ImportType importType) {
         Set<ImportComponentOption> options = new HashSet<>();
-        ZipInputStream zis = new ZipInputStream(inputStream);
-        ZipEntry entry;
-        while ((entry = zis.getNextEntry()) != null) {
-            if (entry.getName().startsWith(ExportImportTemplateService.NIFI_TEMPLATE_XML_FILE)) {
+        for (String fileName : fileNames) {
+            if (fileName.startsWith(ExportImportTemplateService.NIFI_TEMPLATE_XML_FILE)) {
                 options.add(new ImportComponentOption(ImportComponent.NIFI_TEMPLATE, importType.equals(ImportType.TEMPLATE) ? true : false));
-            } else if (entry.getName().startsWith(ExportImportTemplateService.TEMPLATE_JSON_FILE)) {
+            } else if (fileName.startsWith(ExportImportTemplateService.TEMPLATE_JSON_FILE)) {
                 options.add(new ImportComponentOption(ImportComponent.TEMPLATE_DATA, importType.equals(ImportType.TEMPLATE) ? true : false));
-            } else if (entry.getName().startsWith(ExportImportTemplateService.NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE)) {
+            } else if (fileName.startsWith(ExportImportTemplateService.NIFI_CONNECTING_REUSABLE_TEMPLATE_XML_FILE)) {
                 options.add(new ImportComponentOption(ImportComponent.REUSABLE_TEMPLATE, false));
-            } else if (importType.equals(ImportType.FEED) && entry.getName().startsWith(ExportImportFeedService.FEED_JSON_FILE)) {
+            } else if (importType.equals(ImportType.FEED) && fileName.startsWith(ExportImportFeedService.FEED_JSON_FILE)) {
                 options.add(new ImportComponentOption(ImportComponent.FEED_DATA, true));
                 options.add(new ImportComponentOption(ImportComponent.USER_DATASOURCES, true));
             }
         }
-        zis.closeEntry();
-        zis.close();
-
         return options;
     }
 
@@ -194,15 +183,22 @@ public class ImportUtil {
         });
     }
 
-    public static byte[] streamToByteArray(InputStream inputStream) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        byte[] buf = new byte[1024];
-        int n;
-        while ((n = inputStream.read(buf)) >= 0) {
-            baos.write(buf, 0, n);
+    /**
+     * Copies a stream, such as an uploaded file, to a temporary file so it can be read without holding it in memory.
+     * The caller is responsible for deleting the file.
+     *
+     * @param inputStream the stream to copy
+     * @return the temporary file
+     */
+    public static Path streamToTempFile(InputStream inputStream) throws IOException {
+        Path file = Files.createTempFile("kylo-import-", ".tmp");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            ZipFileUtil.copy(inputStream, out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
         }
-        byte[] content = baos.toByteArray();
-        return content;
+        return file;
     }
 
 }
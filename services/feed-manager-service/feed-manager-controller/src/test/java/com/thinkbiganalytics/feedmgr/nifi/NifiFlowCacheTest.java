@@ -0,0 +1,110 @@
+package com.thinkbiganalytics.feedmgr.nifi;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.rest.model.nifi.NiFiFlowCacheSync;
+import com.thinkbiganalytics.nifi.rest.model.flow.NifiFlowProcessGroup;
+import com.thinkbiganalytics.nifi.rest.model.flow.NifiFlowProcessor;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+import javax.annotation.Nonnull;
+
+public class NifiFlowCacheTest {
+
+    private NifiFlowCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new NifiFlowCache();
+        ReflectionTestUtils.setField(cache, "loaded", true);
+    }
+
+    /**
+     * Verify a new client gets a full snapshot and afterwards only the changes.
+     */
+    @Test
+    public void syncReturnsOnlyChanges() {
+        for (int i = 0; i < 100; i++) {
+            cache.updateFlow("category.feed" + i, false, newFlow("feed" + i));
+        }
+
+        final NiFiFlowCacheSync full = cache.syncAndReturnUpdates(null);
+        Assert.assertTrue(full.isUpdated());
+        Assert.assertTrue(full.isFullSnapshot());
+        Assert.assertEquals(200, full.getSnapshot().getProcessorIdToFeedNameMap().size());
+        Assert.assertEquals(100, full.getSnapshot().getAllFeeds().size());
+
+        // Nothing changed
+        final NiFiFlowCacheSync empty = cache.syncAndReturnUpdates(full.getSyncId(), full.getSequence());
+        Assert.assertFalse(empty.needsUpdate());
+        Assert.assertEquals(full.getSequence(), empty.getSequence());
+
+        // One new feed, and a feed saved again without changes
+        cache.updateFlow("category.new", true, newFlow("new"));
+        cache.updateFlow("category.feed0", false, newFlow("feed0"));
+
+        final NiFiFlowCacheSync delta = cache.syncAndReturnUpdates(full.getSyncId(), full.getSequence());
+        Assert.assertTrue(delta.needsUpdate());
+        Assert.assertFalse(delta.isFullSnapshot());
+        Assert.assertEquals(2, delta.getSnapshot().getProcessorIdToFeedNameMap().size());
+        Assert.assertEquals("category.new", delta.getSnapshot().getProcessorIdToFeedNameMap().get("new-1"));
+        Assert.assertEquals(Collections.singleton("category.new"), delta.getSnapshot().getAllFeeds());
+        Assert.assertEquals(Collections.singleton("category.new"), delta.getSnapshot().getAllStreamingFeeds());
+
+        // The sync id remembers the last sequence when the client does not send one
+        Assert.assertFalse(cache.syncAndReturnUpdates(full.getSyncId()).needsUpdate());
+    }
+
+    /**
+     * Verify a client that falls behind the change log gets a full snapshot.
+     */
+    @Test
+    public void syncReturnsFullSnapshotWhenBehind() {
+        ((NifiFlowCacheChangeLog) ReflectionTestUtils.getField(cache, "changeLog")).setMaxSize(5);
+        cache.updateFlow("category.feed", false, newFlow("feed"));
+        final NiFiFlowCacheSync first = cache.syncAndReturnUpdates(null);
+
+        for (int i = 0; i < 10; i++) {
+            cache.updateFlow("category.feed" + i, false, newFlow("feed" + i));
+        }
+
+        final NiFiFlowCacheSync behind = cache.syncAndReturnUpdates(first.getSyncId(), first.getSequence());
+        Assert.assertTrue(behind.isFullSnapshot());
+        Assert.assertEquals(22, behind.getSnapshot().getProcessorIdToFeedNameMap().size());
+    }
+
+    /**
+     * Creates a feed flow with two processors.
+     */
+    @Nonnull
+    private NifiFlowProcessGroup newFlow(@Nonnull final String name) {
+        final NifiFlowProcessGroup flow = new NifiFlowProcessGroup(name + "-group", name);
+        flow.getProcessorMap().put(name + "-1", new NifiFlowProcessor(name + "-1", "GetFile"));
+        flow.getProcessorMap().put(name + "-2", new NifiFlowProcessor(name + "-2", "PutFile"));
+        return flow;
+    }
+}
@@ -0,0 +1,112 @@
+package com.thinkbiganalytics.feedmgr.service.template;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.feedmgr.rest.ImportComponent;
+import com.thinkbiganalytics.feedmgr.rest.model.ImportOptions;
+import com.thinkbiganalytics.feedmgr.service.UploadProgressService;
+import com.thinkbiganalytics.feedmgr.support.ZipFileUtilTest;
+import com.thinkbiganalytics.nifi.rest.client.LegacyNifiRestClient;
+import com.thinkbiganalytics.security.AccessController;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Validates uploaded template archives through {@link ExportImportTemplateService}.
+ * The large archive test is skipped unless run with -Dimport.largeArchive=true. Surefire runs this test with a smaller heap than the archive.
+ */
+public class ExportImportTemplateServiceTest {
+
+    private static final String TEMPLATE_XML = "<template><name>archive template</name></template>";
+
+    private static final String TEMPLATE_JSON = "{\"templateName\":\"archive template\"}";
+
+    private ExportImportTemplateService service;
+    private LegacyNifiRestClient nifiRestClient;
+    private UploadProgressService uploadProgressService;
+    private Path archive;
+
+    @Before
+    public void setUp() throws IOException {
+        nifiRestClient = Mockito.mock(LegacyNifiRestClient.class);
+        uploadProgressService = new UploadProgressService();
+
+        service = new ExportImportTemplateService();
+        service.nifiRestClient = nifiRestClient;
+        ReflectionTestUtils.setField(service, "accessController", Mockito.mock(AccessController.class));
+        ReflectionTestUtils.setField(service, "uploadProgressService", uploadProgressService);
+
+        archive = Files.createTempFile("export-import-template-service-test-", ".zip");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(archive);
+    }
+
+    /**
+     * Verify a template archive is validated from the entries it needs.
+     */
+    @Test
+    public void validateTemplateArchive() throws IOException {
+        ZipFileUtilTest.writeArchive(archive, TEMPLATE_XML, TEMPLATE_JSON, 1024 * 1024, null);
+        assertValidated(service.validateTemplateForImport("template.zip", archive, newImportOptions()));
+    }
+
+    /**
+     * Verify a 500MB template archive is validated without loading it into memory.
+     */
+    @Test
+    public void validateLargeTemplateArchive() throws IOException {
+        Assume.assumeTrue(Boolean.getBoolean(ZipFileUtilTest.LARGE_ARCHIVE_PROPERTY));
+        ZipFileUtilTest.writeArchive(archive, TEMPLATE_XML, TEMPLATE_JSON, ZipFileUtilTest.LARGE_ENTRY_SIZE, null);
+        assertValidated(service.validateTemplateForImport("template.zip", archive, newImportOptions()));
+    }
+
+    private ImportOptions newImportOptions() {
+        ImportOptions options = new ImportOptions();
+        options.setUploadKey(uploadProgressService.newUpload());
+        return options;
+    }
+
+    private void assertValidated(ExportImportTemplateService.ImportTemplate template) {
+        Assert.assertTrue(template.isZipFile());
+        Assert.assertEquals(TEMPLATE_XML, template.getNifiTemplateXml());
+        Assert.assertEquals(TEMPLATE_JSON, template.getTemplateJson());
+
+        // The NiFi template is new, the registered template needs the user to confirm the import
+        Assert.assertEquals("archive template", template.getTemplateName());
+        Mockito.verify(nifiRestClient).getTemplateByName("archive template");
+        Assert.assertTrue(template.getImportOptions().findImportComponentOption(ImportComponent.NIFI_TEMPLATE).isValidForImport());
+        Assert.assertTrue(template.getImportOptions().hasErrorMessages(ImportComponent.TEMPLATE_DATA));
+        Assert.assertFalse(template.isValid());
+    }
+}
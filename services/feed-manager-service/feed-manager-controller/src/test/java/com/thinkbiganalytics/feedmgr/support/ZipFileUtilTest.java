@@ -0,0 +1,142 @@
+package com.thinkbiganalytics.feedmgr.support;
+
+/*-
+ * #%L
+ * thinkbig-feed-manager-controller
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.collect.Sets;
+import com.thinkbiganalytics.feedmgr.util.ImportUtil;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * The large archive tests are skipped unless run with -Dimport.largeArchive=true. Surefire runs this test with a smaller heap than the archive.
+ */
+public class ZipFileUtilTest {
+
+    /**
+     * Size of the large entry. The surefire heap is smaller than this so the archive cannot be buffered in memory.
+     */
+    public static final long LARGE_ENTRY_SIZE = 500L * 1024 * 1024;
+
+    /**
+     * System property enabling the large archive tests
+     */
+    public static final String LARGE_ARCHIVE_PROPERTY = "import.largeArchive";
+
+    private static final String FEED_JSON = "{\"feedName\":\"large feed\"}";
+
+    private Path archive;
+    private Path upload;
+
+    @Before
+    public void setUp() throws IOException {
+        archive = Files.createTempFile("zip-file-util-test-", ".zip");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(archive);
+        if (upload != null) {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    /**
+     * Verify a 500MB archive can be uploaded, validated, and read without loading it into memory.
+     */
+    @Test
+    public void importLargeArchive() throws IOException {
+        Assume.assumeTrue(Boolean.getBoolean(LARGE_ARCHIVE_PROPERTY));
+        writeArchive(archive, "<template><name>large</name></template>", "{}", LARGE_ENTRY_SIZE, FEED_JSON);
+        Assert.assertTrue(Files.size(archive) > LARGE_ENTRY_SIZE);
+
+        // Spool the upload to a temporary file
+        try (InputStream in = Files.newInputStream(archive)) {
+            upload = ImportUtil.streamToTempFile(in);
+        }
+        Assert.assertEquals(Files.size(archive), Files.size(upload));
+
+        // Validate the entries
+        Set<String> fileNames = ZipFileUtil.getFileNames(upload);
+        Assert.assertEquals(Sets.newHashSet("nifiTemplate.xml", "template.json", "data.bin", "feed.json"), fileNames);
+        Assert.assertTrue(ZipFileUtil.validateZipEntriesWithRequiredEntries(fileNames, Sets.newHashSet("nifiTemplate.xml", "template.json"), Sets.newHashSet("feed.json")));
+        Assert.assertFalse(ZipFileUtil.validateZipEntries(fileNames, Sets.newHashSet("nifiTemplate.xml", "template.json", "feed.json"), true));
+
+        // Read the feed without reading the large entry
+        try (ZipFile zipFile = new ZipFile(upload.toFile())) {
+            Assert.assertEquals(FEED_JSON, ZipFileUtil.zipEntryToString(zipFile, zipFile.getEntry("feed.json")));
+        }
+    }
+
+    /**
+     * Writes an uncompressed archive, so the file on disk is as large as its entries, with a data entry between the template and the feed.
+     *
+     * @param archive      the file to write
+     * @param templateXml  the NiFi template
+     * @param templateJson the registered template
+     * @param dataSize     the size of the data entry
+     * @param feedJson     the feed, or {@code null} for a template archive
+     * @throws IOException if the archive cannot be written
+     */
+    public static void writeArchive(Path archive, String templateXml, String templateJson, long dataSize, String feedJson) throws IOException {
+        try (ZipOutputStream zos = ZipFileUtil.newZipOutputStream(Files.newOutputStream(archive))) {
+            zos.setLevel(Deflater.NO_COMPRESSION);
+            ZipFileUtil.addToZip(zos, templateXml, "nifiTemplate.xml");
+            ZipFileUtil.addToZip(zos, templateJson, "template.json");
+
+            zos.putNextEntry(new ZipEntry("data.bin"));
+            byte[] chunk = new byte[ZipFileUtil.BUFFER_SIZE];
+            for (long written = 0; written < dataSize; written += chunk.length) {
+                zos.write(chunk);
+            }
+            zos.closeEntry();
+
+            if (feedJson != null) {
+                ZipFileUtil.addToZip(zos, feedJson, "feed.json");
+            }
+        }
+    }
+
+    /**
+     * Verify that a file which is not a zip file has no entries.
+     */
+    @Test
+    public void getFileNamesNotZip() throws IOException {
+        try (OutputStream out = Files.newOutputStream(archive)) {
+            out.write("<template/>".getBytes("UTF-8"));
+        }
+        Assert.assertTrue(ZipFileUtil.getFileNames(archive).isEmpty());
+    }
+}
@@ -26,6 +26,7 @@ package com.thinkbiganalytics.metadata.core.feed;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.event.MetadataEventListener;
 import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.api.event.feed.FeedChangeEvent;
 import com.thinkbiganalytics.metadata.api.event.feed.FeedOperationStatusEvent;
 import com.thinkbiganalytics.metadata.api.event.feed.OperationStatus;
 import com.thinkbiganalytics.metadata.api.event.feed.PreconditionTriggerEvent;
@@ -43,6 +44,13 @@ import com.thinkbiganalytics.metadata.sla.spi.ServiceLevelAssessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
@@ -68,14 +76,30 @@ public class FeedPreconditionService {
 
     private FeedOperationListener listener = new FeedOperationListener();
 
+    private FeedChangeListener changeListener = new FeedChangeListener();
+
+    /**
+     * Ids of the feeds with preconditions depending on a feed, keyed by the lower case qualified name of that feed
+     */
+    private final Map<String, Set<Feed.ID>> dependentFeedIds = new ConcurrentHashMap<>();
+
     @PostConstruct
     public void addEventListener() {
         this.eventService.addListener(this.listener);
+        this.eventService.addListener(this.changeListener);
     }
 
     @PreDestroy
     public void removeEventListener() {
         this.eventService.removeListener(this.listener);
+        this.eventService.removeListener(this.changeListener);
+    }
+
+    /**
+     * Discards the cached precondition dependencies.  Must be called after a precondition is changed without a {@link FeedChangeEvent}.
+     */
+    public void invalidateDependentFeeds() {
+        this.dependentFeedIds.clear();
     }
 
 
@@ -109,6 +133,18 @@ public class FeedPreconditionService {
         }
     }
 
+    /**
+     * Gets the feeds whose preconditions may be satisfied by the specified feed, loading their ids from the feed provider if they are not cached
+     */
+    private List<Feed> getDependentFeeds(String categoryAndFeedName) {
+        Set<Feed.ID> ids = this.dependentFeedIds.computeIfAbsent(categoryAndFeedName.toLowerCase(),
+                                                                  name -> feedProvider.findPreconditionDependents(name).stream().map(Feed::getId).collect(Collectors.toSet()));
+        return ids.stream()
+            .map(feedProvider::getFeed)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
     /**
      * To avoid feeds being triggered by feeds they do not depend on
      */
@@ -122,11 +158,10 @@ public class FeedPreconditionService {
         public void notify(FeedOperationStatusEvent event) {
             FeedOperation.State state = event.getData().getState();
 
-            // TODO as precondition check criteria are not implemented yet, 
-            // check all preconditions of feeds that have them.
+            // only check the preconditions of the feeds that depend on the completed feed
             if (state == FeedOperation.State.SUCCESS) {
                 metadata.read(() -> {
-                    for (Feed feed : feedProvider.getFeeds()) {
+                    for (Feed feed : getDependentFeeds(event.getData().getFeedName())) {
                         // Don't check the precondition of the feed that that generated this change event.
                         // TODO: this might not be the correct behavior but none of our current metrics
                         // need to be assessed when the feed itself containing the precondition has changed state.
@@ -139,4 +174,13 @@ public class FeedPreconditionService {
             }
         }
     }
+
+    private class FeedChangeListener implements MetadataEventListener<FeedChangeEvent> {
+
+        @Override
+        public void notify(FeedChangeEvent event) {
+            // the preconditions are saved with the feed so any change may add or remove dependencies
+            invalidateDependentFeeds();
+        }
+    }
 }
@@ -20,10 +20,15 @@ package com.thinkbiganalytics.activemq;
  * #L%
  */
 
+import com.thinkbiganalytics.activemq.config.ActiveMqConstants;
+import com.thinkbiganalytics.activemq.serializer.JmsMessageSerializer;
+
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jms.JmsException;
 import org.springframework.jms.core.JmsMessagingTemplate;
 import org.springframework.jms.core.MessageCreator;
@@ -31,7 +36,10 @@ import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
 
+import javax.jms.BytesMessage;
 import javax.jms.JMSException;
 import javax.jms.Session;
 import javax.jms.TextMessage;
@@ -53,6 +61,16 @@ public class SendJmsMessage {
     @Qualifier("jmsTemplate")
     private JmsMessagingTemplate jmsMessagingTemplate;
 
+    @Autowired(required = false)
+    private List<JmsMessageSerializer> serializers = Collections.emptyList();
+
+    /**
+     * The {@link JmsMessageSerializer#getFormat() format} used by {@link #sendSerializedObjectToQueue(String, Serializable)}.
+     * If blank, or if no serializer of this format supports the object, the object is sent as a regular object message.
+     */
+    @Value("${jms.message.format:}")
+    private String messageFormat;
+
     private void sendObjectToQueue(String queueName, final Object obj) {
         sendObjectToQueue(queueName, obj, obj.getClass().getName());
     }
@@ -60,8 +78,42 @@ public class SendJmsMessage {
     public void sendSerializedObjectToQueue(String queueName, final Serializable obj) throws JmsException {
         log.info("Sending ActiveMQ message [" + obj + "] to queue [" + queueName + "]");
 
-        jmsMessagingTemplate.convertAndSend(queueName, obj);
+        JmsMessageSerializer serializer = getSerializer(obj.getClass());
+        if (serializer != null) {
+            sendBytesToQueue(queueName, obj, serializer);
+        } else {
+            jmsMessagingTemplate.convertAndSend(queueName, obj);
+        }
+
+    }
 
+    /**
+     * Find the serializer for the configured {@link #messageFormat}
+     *
+     * @param type the type of object to send
+     * @return the serializer, or null if the object should be sent as a regular object message
+     */
+    private JmsMessageSerializer getSerializer(Class<?> type) {
+        if (StringUtils.isBlank(messageFormat)) {
+            return null;
+        }
+        return serializers.stream()
+            .filter(serializer -> messageFormat.equalsIgnoreCase(serializer.getFormat()) && serializer.supports(type))
+            .findFirst()
+            .orElse(null);
+    }
+
+    private void sendBytesToQueue(String queueName, final Object obj, final JmsMessageSerializer serializer) throws JmsException {
+        final byte[] bytes = serializer.serialize(obj);
+        log.debug("Serialized {} to {} bytes using the {} format", obj.getClass().getSimpleName(), bytes.length, serializer.getFormat());
+        MessageCreator creator = session -> {
+            BytesMessage message = session.createBytesMessage();
+            message.setStringProperty(ActiveMqConstants.MESSAGE_FORMAT_PROPERTY, serializer.getFormat());
+            message.setStringProperty(ActiveMqConstants.MESSAGE_TYPE_PROPERTY, obj.getClass().getName());
+            message.writeBytes(bytes);
+            return message;
+        };
+        this.jmsMessagingTemplate.getJmsTemplate().send(queueName, creator);
     }
 
 
@@ -73,7 +125,7 @@ public class SendJmsMessage {
             @Override
             public javax.jms.Message createMessage(Session session) throws JMSException {
                 message = session.createTextMessage();
-                message.setStringProperty("jms_javatype", objectClassType);
+                message.setStringProperty(ActiveMqConstants.MESSAGE_TYPE_PROPERTY, objectClassType);
                 message.setText(objectMapperSerializer.serialize(obj));
                 return message;
             }
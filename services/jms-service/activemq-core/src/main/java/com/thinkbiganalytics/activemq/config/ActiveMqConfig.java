@@ -21,6 +21,10 @@ package com.thinkbiganalytics.activemq.config;
  */
 
 import com.thinkbiganalytics.activemq.ObjectMapperSerializer;
+import com.thinkbiganalytics.activemq.serializer.JmsMessageSerializer;
+import com.thinkbiganalytics.activemq.serializer.JmsMessageSerializerConverter;
+import com.thinkbiganalytics.activemq.serializer.JsonJmsMessageSerializer;
+import com.thinkbiganalytics.activemq.serializer.ProvenanceBinaryMessageSerializer;
 
 import org.apache.activemq.ActiveMQConnectionFactory;
 import org.apache.activemq.pool.PooledConnectionFactory;
@@ -39,7 +43,8 @@ import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
 import org.springframework.jms.config.JmsListenerContainerFactory;
 import org.springframework.jms.connection.UserCredentialsConnectionFactoryAdapter;
 import org.springframework.jms.core.JmsMessagingTemplate;
-import org.springframework.jms.support.converter.SimpleMessageConverter;
+
+import java.util.List;
 
 import javax.jms.ConnectionFactory;
 
@@ -74,7 +79,7 @@ public class ActiveMqConfig {
     }
 
     @Bean
-    public JmsListenerContainerFactory<?> jmsContainerFactory(ConnectionFactory connectionFactory) {
+    public JmsListenerContainerFactory<?> jmsContainerFactory(ConnectionFactory connectionFactory, List<JmsMessageSerializer> serializers) {
         DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
         factory.setPubSubDomain(false);
         factory.setConnectionFactory(connectionFactory);
@@ -82,7 +87,7 @@ public class ActiveMqConfig {
         factory.setClientId(env.getProperty("jms.client.id:thinkbig.feedmgr"));
         factory.setConcurrency("1-1");
         factory.setConnectionFactory(connectionFactory);
-        factory.setMessageConverter(new SimpleMessageConverter());
+        factory.setMessageConverter(new JmsMessageSerializerConverter(serializers));
         return factory;
     }
 
@@ -105,6 +110,16 @@ public class ActiveMqConfig {
         return new ObjectMapperSerializer();
     }
 
+    @Bean
+    public JsonJmsMessageSerializer jsonJmsMessageSerializer(ObjectMapperSerializer objectMapperSerializer) {
+        return new JsonJmsMessageSerializer(objectMapperSerializer);
+    }
+
+    @Bean
+    public ProvenanceBinaryMessageSerializer provenanceBinaryMessageSerializer() {
+        return new ProvenanceBinaryMessageSerializer();
+    }
+
 
     @Bean
     @Qualifier("jmsTemplate")
@@ -26,4 +26,14 @@ public interface ActiveMqConstants {
 
     String JMS_CONTAINER_FACTORY = "jmsContainerFactory";
 
+    /**
+     * Message property holding the {@link com.thinkbiganalytics.activemq.serializer.JmsMessageSerializer#getFormat() format} of a serialized message
+     */
+    String MESSAGE_FORMAT_PROPERTY = "kylo_format";
+
+    /**
+     * Message property holding the class name of the serialized object
+     */
+    String MESSAGE_TYPE_PROPERTY = "jms_javatype";
+
 }
@@ -0,0 +1,149 @@
+package com.thinkbiganalytics.activemq.serializer;
+
+/*-
+ * #%L
+ * thinkbig-activemq-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.joda.time.DateTime;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Reads values written by the {@link BinaryEncoder}
+ */
+public class BinaryDecoder {
+
+    private final byte[] bytes;
+
+    private int position;
+
+    private final List<String> dictionary = new ArrayList<>();
+
+    public BinaryDecoder(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    public int readByte() {
+        if (position >= bytes.length) {
+            throw new IllegalStateException("Unexpected end of message at position " + position);
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 28) {
+                throw new IllegalStateException("Malformed varint at position " + position);
+            }
+            b = readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    public long readLong() {
+        long zigZag = 0L;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 63) {
+                throw new IllegalStateException("Malformed varlong at position " + position);
+            }
+            b = readByte();
+            zigZag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    public Long readNullableLong() {
+        return readBoolean() ? readLong() : null;
+    }
+
+    public DateTime readDateTime() {
+        Long millis = readNullableLong();
+        return millis != null ? new DateTime(millis) : null;
+    }
+
+    public String readString() {
+        int marker = readVarInt();
+        if (marker == BinaryEncoder.NULL_STRING) {
+            return null;
+        }
+        if (marker == BinaryEncoder.NEW_STRING) {
+            int length = readVarInt();
+            if (length < 0 || position + length > bytes.length) {
+                throw new IllegalStateException("Invalid string length " + length + " at position " + position);
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            dictionary.add(value);
+            return value;
+        }
+        return dictionary.get(marker - BinaryEncoder.NEW_STRING - 1);
+    }
+
+    public List<String> readStringList() {
+        return readStrings(ArrayList::new);
+    }
+
+    public Set<String> readStringSet() {
+        return readStrings(HashSet::new);
+    }
+
+    private <C extends Collection<String>> C readStrings(IntFunction<C> factory) {
+        int size = readVarInt();
+        if (size == 0) {
+            return null;
+        }
+        C values = factory.apply(size - 1);
+        for (int i = 0; i < size - 1; i++) {
+            values.add(readString());
+        }
+        return values;
+    }
+
+    public Map<String, String> readStringMap() {
+        int size = readVarInt();
+        if (size == 0) {
+            return null;
+        }
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < size - 1; i++) {
+            values.put(readString(), readString());
+        }
+        return values;
+    }
+}
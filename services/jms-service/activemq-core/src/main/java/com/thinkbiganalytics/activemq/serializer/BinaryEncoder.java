@@ -0,0 +1,143 @@
+package com.thinkbiganalytics.activemq.serializer;
+
+/*-
+ * #%L
+ * thinkbig-activemq-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.joda.time.DateTime;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes primitive values using a compact binary encoding.
+ * Integers are written as zig-zag varints and strings are interned per message: the first occurrence of a string is written in full and every later occurrence
+ * is written as a reference to the first.
+ *
+ * @see BinaryDecoder
+ */
+public class BinaryEncoder {
+
+    /**
+     * Marker for a {@code null} string
+     */
+    static final int NULL_STRING = 0;
+
+    /**
+     * Marker for a string written in full.  Values greater than this are references to a previously written string.
+     */
+    static final int NEW_STRING = 1;
+
+    private final ByteArrayOutputStream out;
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    public BinaryEncoder(int initialSize) {
+        this.out = new ByteArrayOutputStream(initialSize);
+    }
+
+    public void writeByte(int value) {
+        out.write(value);
+    }
+
+    public void writeBoolean(boolean value) {
+        out.write(value ? 1 : 0);
+    }
+
+    /**
+     * Write an unsigned variable length int
+     */
+    public void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * Write a signed long using zig-zag variable length encoding
+     */
+    public void writeLong(long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            out.write((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.write((int) zigZag);
+    }
+
+    public void writeNullableLong(Long value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeLong(value);
+        }
+    }
+
+    public void writeDateTime(DateTime value) {
+        writeNullableLong(value != null ? value.getMillis() : null);
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarInt(NULL_STRING);
+            return;
+        }
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            writeVarInt(index + NEW_STRING + 1);
+        } else {
+            dictionary.put(value, dictionary.size());
+            writeVarInt(NEW_STRING);
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+    }
+
+    public void writeStrings(Collection<String> values) {
+        if (values == null) {
+            writeVarInt(0);
+            return;
+        }
+        writeVarInt(values.size() + 1);
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    public void writeStringMap(Map<String, String> values) {
+        if (values == null) {
+            writeVarInt(0);
+            return;
+        }
+        writeVarInt(values.size() + 1);
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            writeString(entry.getKey());
+            writeString(entry.getValue());
+        }
+    }
+
+    public byte[] toByteArray() {
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,57 @@
+package com.thinkbiganalytics.activemq.serializer;
+
+/*-
+ * #%L
+ * thinkbig-activemq-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Converts objects sent over JMS to and from bytes.
+ * The {@link #getFormat()} of the serializer is written to the {@link com.thinkbiganalytics.activemq.config.ActiveMqConstants#MESSAGE_FORMAT_PROPERTY} of the message so the receiver can
+ * pick the matching serializer.  Messages without the property are treated as regular object messages.
+ */
+public interface JmsMessageSerializer {
+
+    /**
+     * @return the unique name of the wire format written by this serializer
+     */
+    String getFormat();
+
+    /**
+     * @param type the class of the object to send
+     * @return {@code true} if this serializer can write and read objects of the given type
+     */
+    boolean supports(Class<?> type);
+
+    /**
+     * Serialize the object
+     *
+     * @param obj the object to serialize
+     * @return the serialized bytes
+     */
+    byte[] serialize(Object obj);
+
+    /**
+     * De-serialize the bytes back to an object
+     *
+     * @param bytes the serialized bytes
+     * @param type  the type of object
+     * @return the object
+     */
+    <T> T deserialize(byte[] bytes, Class<T> type);
+}
@@ -0,0 +1,74 @@
+package com.thinkbiganalytics.activemq.serializer;
+
+/*-
+ * #%L
+ * thinkbig-activemq-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.activemq.config.ActiveMqConstants;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.SimpleMessageConverter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+/**
+ * Reads messages written by a {@link JmsMessageSerializer}.
+ * The serializer is selected using the {@link ActiveMqConstants#MESSAGE_FORMAT_PROPERTY} of the message.  Messages without this property are converted by the
+ * {@link SimpleMessageConverter} as before.
+ */
+public class JmsMessageSerializerConverter extends SimpleMessageConverter {
+
+    private final Map<String, JmsMessageSerializer> serializers = new HashMap<>();
+
+    public JmsMessageSerializerConverter(List<JmsMessageSerializer> serializers) {
+        serializers.forEach(serializer -> this.serializers.put(serializer.getFormat(), serializer));
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws JMSException, MessageConversionException {
+        String format = message.getStringProperty(ActiveMqConstants.MESSAGE_FORMAT_PROPERTY);
+        if (StringUtils.isBlank(format) || !(message instanceof BytesMessage)) {
+            return super.fromMessage(message);
+        }
+
+        JmsMessageSerializer serializer = serializers.get(format);
+        if (serializer == null) {
+            throw new MessageConversionException("No serializer is registered for the message format " + format);
+        }
+        String type = message.getStringProperty(ActiveMqConstants.MESSAGE_TYPE_PROPERTY);
+        Class<?> clazz;
+        try {
+            clazz = type != null ? Class.forName(type) : Object.class;
+        } catch (ClassNotFoundException e) {
+            throw new MessageConversionException("Unable to find the class " + type + " for the " + format + " message", e);
+        }
+
+        BytesMessage bytesMessage = (BytesMessage) message;
+        byte[] bytes = new byte[(int) bytesMessage.getBodyLength()];
+        bytesMessage.readBytes(bytes);
+        return serializer.deserialize(bytes, clazz);
+    }
+}
@@ -0,0 +1,68 @@
+package com.thinkbiganalytics.activemq.serializer;
+
+/*-
+ * #%L
+ * thinkbig-activemq-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.thinkbiganalytics.activemq.ObjectMapperSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes messages as JSON using the {@link ObjectMapperSerializer}
+ */
+public class JsonJmsMessageSerializer implements JmsMessageSerializer {
+
+    public static final String FORMAT = "json";
+
+    private final ObjectMapperSerializer objectMapperSerializer;
+
+    public JsonJmsMessageSerializer(ObjectMapperSerializer objectMapperSerializer) {
+        this.objectMapperSerializer = objectMapperSerializer;
+    }
+
+    @Override
+    public String getFormat() {
+        return FORMAT;
+    }
+
+    @Override
+    public boolean supports(Class<?> type) {
+        return true;
+    }
+
+    @Override
+    public byte[] serialize(Object obj) {
+        try {
+            return objectMapperSerializer.getMapper().writeValueAsBytes(obj);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error serializing object", e);
+        }
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes, Class<T> type) {
+        try {
+            return objectMapperSerializer.getMapper().readValue(bytes, type);
+        } catch (IOException e) {
+            throw new RuntimeException("Error de-serializing object", e);
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.thinkbiganalytics.activemq.serializer;
+
+/*-
+ * #%L
+ * thinkbig-activemq-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.nifi.provenance.KyloProcessorFlowType;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTOHolder;
+import com.thinkbiganalytics.nifi.provenance.model.stats.AggregatedFeedProcessorStatistics;
+import com.thinkbiganalytics.nifi.provenance.model.stats.AggregatedFeedProcessorStatisticsHolder;
+import com.thinkbiganalytics.nifi.provenance.model.stats.AggregatedProcessorStatistics;
+import com.thinkbiganalytics.nifi.provenance.model.stats.GroupedStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary format for the provenance events and statistics sent from NiFi to Kylo.
+ * The schema is fixed by the order the fields are written.  Feed names, component ids, flow file ids and attribute keys repeat heavily within a message and
+ * are interned by the {@link BinaryEncoder}, so each distinct value is only written once per message.
+ *
+ * Transient data used only on the NiFi side (the {@link com.thinkbiganalytics.nifi.provenance.model.FeedFlowFile} graph and the additional properties) is not
+ * written.
+ */
+public class ProvenanceBinaryMessageSerializer implements JmsMessageSerializer {
+
+    public static final String FORMAT = "kylo-binary";
+
+    /**
+     * Identifies the schema version.  Increment when the field layout changes.
+     */
+    private static final int VERSION = 1;
+
+    private static final int TYPE_EVENTS = 1;
+    private static final int TYPE_STATS = 2;
+
+    private static final int FLAG_START_OF_JOB = 1;
+    private static final int FLAG_END_OF_JOB = 1 << 1;
+    private static final int FLAG_FINAL_JOB_EVENT = 1 << 2;
+    private static final int FLAG_BATCH_JOB = 1 << 3;
+    private static final int FLAG_HAS_FAILED_EVENTS = 1 << 4;
+    private static final int FLAG_START_OF_FLOW_FILE = 1 << 5;
+    private static final int FLAG_FAILURE = 1 << 6;
+    private static final int FLAG_STREAM = 1 << 7;
+
+    @Override
+    public String getFormat() {
+        return FORMAT;
+    }
+
+    @Override
+    public boolean supports(Class<?> type) {
+        return ProvenanceEventRecordDTOHolder.class.equals(type) || AggregatedFeedProcessorStatisticsHolder.class.equals(type);
+    }
+
+    @Override
+    public byte[] serialize(Object obj) {
+        if (obj instanceof ProvenanceEventRecordDTOHolder) {
+            ProvenanceEventRecordDTOHolder holder = (ProvenanceEventRecordDTOHolder) obj;
+            int size = holder.getEvents() != null ? holder.getEvents().size() : 0;
+            BinaryEncoder encoder = new BinaryEncoder(256 + size * 256);
+            writeHeader(encoder, TYPE_EVENTS);
+            writeEvents(encoder, holder);
+            return encoder.toByteArray();
+        } else if (obj instanceof AggregatedFeedProcessorStatisticsHolder) {
+            BinaryEncoder encoder = new BinaryEncoder(1024);
+            writeHeader(encoder, TYPE_STATS);
+            writeStats(encoder, (AggregatedFeedProcessorStatisticsHolder) obj);
+            return encoder.toByteArray();
+        }
+        throw new IllegalArgumentException("Unable to serialize object of type " + (obj != null ? obj.getClass().getName() : null) + " using the " + FORMAT + " format");
+    }
+
+    @Override
+    public <T> T deserialize(byte[] bytes, Class<T> type) {
+        BinaryDecoder decoder = new BinaryDecoder(bytes);
+        int version = decoder.readByte();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported " + FORMAT + " version " + version);
+        }
+        int messageType = decoder.readByte();
+        Object obj;
+        if (messageType == TYPE_EVENTS) {
+            obj = readEvents(decoder);
+        } else if (messageType == TYPE_STATS) {
+            obj = readStats(decoder);
+        } else {
+            throw new IllegalStateException("Unknown " + FORMAT + " message type " + messageType);
+        }
+        if (!type.isInstance(obj)) {
+            throw new IllegalArgumentException("Message of type " + obj.getClass().getName() + " can not be read as " + type.getName());
+        }
+        return type.cast(obj);
+    }
+
+    private void writeHeader(BinaryEncoder encoder, int messageType) {
+        encoder.writeByte(VERSION);
+        encoder.writeByte(messageType);
+    }
+
+    private void writeEvents(BinaryEncoder encoder, ProvenanceEventRecordDTOHolder holder) {
+        encoder.writeString(holder.getBatchId());
+        List<ProvenanceEventRecordDTO> events = holder.getEvents();
+        if (events == null) {
+            encoder.writeVarInt(0);
+            return;
+        }
+        encoder.writeVarInt(events.size() + 1);
+        for (ProvenanceEventRecordDTO event : events) {
+            writeEvent(encoder, event);
+        }
+    }
+
+    private ProvenanceEventRecordDTOHolder readEvents(BinaryDecoder decoder) {
+        ProvenanceEventRecordDTOHolder holder = new ProvenanceEventRecordDTOHolder();
+        holder.setBatchId(decoder.readString());
+        int size = decoder.readVarInt();
+        if (size > 0) {
+            List<ProvenanceEventRecordDTO> events = new ArrayList<>(size - 1);
+            for (int i = 0; i < size - 1; i++) {
+                events.add(readEvent(decoder));
+            }
+            holder.setEvents(events);
+        }
+        return holder;
+    }
+
+    private void writeEvent(BinaryEncoder encoder, ProvenanceEventRecordDTO event) {
+        int flags = 0;
+        flags |= event.isStartOfJob() ? FLAG_START_OF_JOB : 0;
+        flags |= event.isEndOfJob() ? FLAG_END_OF_JOB : 0;
+        flags |= event.isFinalJobEvent() ? FLAG_FINAL_JOB_EVENT : 0;
+        flags |= event.isBatchJob() ? FLAG_BATCH_JOB : 0;
+        flags |= event.isHasFailedEvents() ? FLAG_HAS_FAILED_EVENTS : 0;
+        flags |= event.isStartOfFlowFile() ? FLAG_START_OF_FLOW_FILE : 0;
+        flags |= event.isFailure() ? FLAG_FAILURE : 0;
+        flags |= event.isStream() ? FLAG_STREAM : 0;
+        encoder.writeVarInt(flags);
+
+        encoder.writeNullableLong(event.getEventId());
+        encoder.writeDateTime(event.getEventTime());
+        encoder.writeDateTime(event.getStartTime());
+        encoder.writeNullableLong(event.getEventDuration());
+        encoder.writeString(event.getId());
+        encoder.writeString(event.getEventType());
+        encoder.writeString(event.getFlowFileUuid());
+        encoder.writeString(event.getFileSize());
+        encoder.writeNullableLong(event.getFileSizeBytes());
+        encoder.writeString(event.getClusterNodeId());
+        encoder.writeString(event.getClusterNodeAddress());
+        encoder.writeString(event.getGroupId());
+        encoder.writeString(event.getComponentId());
+        encoder.writeString(event.getComponentType());
+        encoder.writeString(event.getComponentName());
+        encoder.writeStrings(event.getParentUuids());
+        encoder.writeStrings(event.getChildUuids());
+        encoder.writeString(event.getDetails());
+        encoder.writeString(event.getSourceConnectionIdentifier());
+        encoder.writeNullableLong(event.getInputContentClaimFileSizeBytes());
+        encoder.writeString(event.getInputContentClaimFileSize());
+        encoder.writeNullableLong(event.getOutputContentClaimFileSizeBytes());
+        encoder.writeString(event.getOutputContentClaimFileSize());
+        encoder.writeStrings(event.getRelatedRootFlowFiles());
+        encoder.writeString(event.getProcessorType() != null ? event.getProcessorType().name() : null);
+        encoder.writeString(event.getJobFlowFileId());
+        encoder.writeNullableLong(event.getJobEventId());
+        encoder.writeString(event.getFeedName());
+        encoder.writeString(event.getFeedProcessGroupId());
+        encoder.writeString(event.getBatchId());
+        encoder.writeString(event.getRelationship());
+        encoder.writeNullableLong(event.getPreviousEventId());
+        encoder.writeString(event.getPreviousFlowfileId());
+        encoder.writeDateTime(event.getPreviousEventTime());
+        encoder.writeStringMap(event.getUpdatedAttributes());
+        encoder.writeStringMap(event.getPreviousAttributes());
+        encoder.writeStringMap(event.getAttributeMap());
+    }
+
+    private ProvenanceEventRecordDTO readEvent(BinaryDecoder decoder) {
+        ProvenanceEventRecordDTO event = new ProvenanceEventRecordDTO();
+        int flags = decoder.readVarInt();
+        event.setIsStartOfJob((flags & FLAG_START_OF_JOB) != 0);
+        event.setIsEndOfJob((flags & FLAG_END_OF_JOB) != 0);
+        event.setIsFinalJobEvent((flags & FLAG_FINAL_JOB_EVENT) != 0);
+        event.setIsBatchJob((flags & FLAG_BATCH_JOB) != 0);
+        event.setHasFailedEvents((flags & FLAG_HAS_FAILED_EVENTS) != 0);
+        event.setStartOfFlowFile((flags & FLAG_START_OF_FLOW_FILE) != 0);
+        event.setIsFailure((flags & FLAG_FAILURE) != 0);
+        event.setStream((flags & FLAG_STREAM) != 0);
+
+        event.setEventId(decoder.readNullableLong());
+        event.setEventTime(decoder.readDateTime());
+        event.setStartTime(decoder.readDateTime());
+        event.setEventDuration(decoder.readNullableLong());
+        event.setId(decoder.readString());
+        event.setEventType(decoder.readString());
+        event.setFlowFileUuid(decoder.readString());
+        event.setFileSize(decoder.readString());
+        event.setFileSizeBytes(decoder.readNullableLong());
+        event.setClusterNodeId(decoder.readString());
+        event.setClusterNodeAddress(decoder.readString());
+        event.setGroupId(decoder.readString());
+        event.setComponentId(decoder.readString());
+        event.setComponentType(decoder.readString());
+        event.setComponentName(decoder.readString());
+        event.setParentUuids(decoder.readStringList());
+        event.setChildUuids(decoder.readStringList());
+        event.setDetails(decoder.readString());
+        event.setSourceConnectionIdentifier(decoder.readString());
+        event.setInputContentClaimFileSizeBytes(decoder.readNullableLong());
+        event.setInputContentClaimFileSize(decoder.readString());
+        event.setOutputContentClaimFileSizeBytes(decoder.readNullableLong());
+        event.setOutputContentClaimFileSize(decoder.readString());
+        event.setRelatedRootFlowFiles(decoder.readStringSet());
+        String processorType = decoder.readString();
+        event.setProcessorType(processorType != null ? KyloProcessorFlowType.valueOf(processorType) : null);
+        event.setJobFlowFileId(decoder.readString());
+        event.setJobEventId(decoder.readNullableLong());
+        event.setFeedName(decoder.readString());
+        event.setFeedProcessGroupId(decoder.readString());
+        event.setBatchId(decoder.readString());
+        event.setRelationship(decoder.readString());
+        event.setPreviousEventId(decoder.readNullableLong());
+        event.setPreviousFlowfileId(decoder.readString());
+        event.setPreviousEventTime(decoder.readDateTime());
+        event.setUpdatedAttributes(decoder.readStringMap());
+        event.setPreviousAttributes(decoder.readStringMap());
+        event.setAttributeMap(decoder.readStringMap());
+        return event;
+    }
+
+    private void writeStats(BinaryEncoder encoder, AggregatedFeedProcessorStatisticsHolder holder) {
+        encoder.writeString(holder.getCollectionId());
+        encoder.writeDateTime(holder.getMinTime());
+        encoder.writeDateTime(holder.getMaxTime());
+        encoder.writeLong(holder.getEventCount().get());
+        encoder.writeNullableLong(holder.getMinEventId());
+        encoder.writeNullableLong(holder.getMaxEventId());
+        Map<String, AggregatedFeedProcessorStatistics> feedStatistics = holder.getFeedStatistics();
+        encoder.writeVarInt(feedStatistics.size());
+        for (AggregatedFeedProcessorStatistics feedStats : feedStatistics.values()) {
+            encoder.writeString(feedStats.getFeedName());
+            encoder.writeString(feedStats.getProcessGroup());
+            encoder.writeString(feedStats.getCollectionId());
+            encoder.writeNullableLong(feedStats.getTotalEvents());
+            encoder.writeNullableLong(feedStats.getMinEventId());
+            encoder.writeNullableLong(feedStats.getMaxEventId());
+            Map<String, AggregatedProcessorStatistics> processorStats = feedStats.getProcessorStats();
+            encoder.writeVarInt(processorStats.size());
+            for (AggregatedProcessorStatistics stats : processorStats.values()) {
+                encoder.writeString(stats.getProcessorId());
+                encoder.writeString(stats.getProcessorName());
+                writeGroupedStats(encoder, stats.getStats());
+            }
+        }
+    }
+
+    private AggregatedFeedProcessorStatisticsHolder readStats(BinaryDecoder decoder) {
+        AggregatedFeedProcessorStatisticsHolder holder = new AggregatedFeedProcessorStatisticsHolder();
+        holder.setCollectionId(decoder.readString());
+        holder.setMinTime(decoder.readDateTime());
+        holder.setMaxTime(decoder.readDateTime());
+        holder.getEventCount().set(decoder.readLong());
+        holder.setMinEventId(decoder.readNullableLong());
+        holder.setMaxEventId(decoder.readNullableLong());
+        int feeds = decoder.readVarInt();
+        for (int i = 0; i < feeds; i++) {
+            AggregatedFeedProcessorStatistics feedStats = new AggregatedFeedProcessorStatistics();
+            feedStats.setFeedName(decoder.readString());
+            feedStats.setProcessGroup(decoder.readString());
+            feedStats.setCollectionId(decoder.readString());
+            feedStats.setTotalEvents(decoder.readNullableLong());
+            feedStats.setMinEventId(decoder.readNullableLong());
+            feedStats.setMaxEventId(decoder.readNullableLong());
+            int processors = decoder.readVarInt();
+            for (int p = 0; p < processors; p++) {
+                String processorId = decoder.readString();
+                String processorName = decoder.readString();
+                GroupedStats groupedStats = readGroupedStats(decoder);
+                AggregatedProcessorStatistics stats = new AggregatedProcessorStatistics(processorId, processorName, groupedStats.getGroupKey());
+                stats.setStats(groupedStats);
+                feedStats.getProcessorStats().put(processorId, stats);
+            }
+            holder.getFeedStatistics().put(feedStats.getFeedName(), feedStats);
+        }
+        return holder;
+    }
+
+    private void writeGroupedStats(BinaryEncoder encoder, GroupedStats stats) {
+        encoder.writeString(stats.getGroupKey());
+        encoder.writeDateTime(stats.getTime());
+        encoder.writeDateTime(stats.getMinTime());
+        encoder.writeDateTime(stats.getMaxTime());
+        encoder.writeLong(stats.getBytesIn());
+        encoder.writeLong(stats.getBytesOut());
+        encoder.writeLong(stats.getDuration());
+        encoder.writeLong(stats.getTotalCount());
+        encoder.writeLong(stats.getJobsStarted());
+        encoder.writeLong(stats.getJobsFinished());
+        encoder.writeLong(stats.getProcessorsFailed());
+        encoder.writeLong(stats.getFlowFilesStarted());
+        encoder.writeLong(stats.getFlowFilesFinished());
+        encoder.writeLong(stats.getJobsFailed());
+        encoder.writeLong(stats.getSuccessfulJobDuration());
+        encoder.writeLong(stats.getJobDuration());
+        encoder.writeLong(stats.getMaxEventId());
+        encoder.writeString(stats.getClusterNodeId());
+        encoder.writeString(stats.getClusterNodeAddress());
+    }
+
+    private GroupedStats readGroupedStats(BinaryDecoder decoder) {
+        GroupedStats stats = new GroupedStats();
+        stats.setGroupKey(decoder.readString());
+        stats.setTime(decoder.readDateTime());
+        stats.setMinTime(decoder.readDateTime());
+        stats.setMaxTime(decoder.readDateTime());
+        stats.setBytesIn(decoder.readLong());
+        stats.setBytesOut(decoder.readLong());
+        stats.setDuration(decoder.readLong());
+        stats.setTotalCount(decoder.readLong());
+        stats.setJobsStarted(decoder.readLong());
+        stats.setJobsFinished(decoder.readLong());
+        stats.setProcessorsFailed(decoder.readLong());
+        stats.setFlowFilesStarted(decoder.readLong());
+        stats.setFlowFilesFinished(decoder.readLong());
+        stats.setJobsFailed(decoder.readLong());
+        stats.setSuccessfulJobDuration(decoder.readLong());
+        stats.setJobDuration(decoder.readLong());
+        stats.setMaxEventId(decoder.readLong());
+        stats.setClusterNodeId(decoder.readString());
+        stats.setClusterNodeAddress(decoder.readString());
+        return stats;
+    }
+}
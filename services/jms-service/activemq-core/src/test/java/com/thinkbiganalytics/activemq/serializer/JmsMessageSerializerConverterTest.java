@@ -0,0 +1,140 @@
+package com.thinkbiganalytics.activemq.serializer;
+
+/*-
+ * #%L
+ * thinkbig-activemq-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.activemq.ObjectMapperSerializer;
+import com.thinkbiganalytics.activemq.config.ActiveMqConstants;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTOHolder;
+
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.apache.activemq.command.ActiveMQObjectMessage;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.jms.support.converter.MessageConversionException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.jms.JMSException;
+
+/**
+ * Reads messages written with each {@link JmsMessageSerializer} format, and messages without a format, through the {@link JmsMessageSerializerConverter}.
+ */
+public class JmsMessageSerializerConverterTest {
+
+    private ProvenanceBinaryMessageSerializer binarySerializer = new ProvenanceBinaryMessageSerializer();
+
+    private JsonJmsMessageSerializer jsonSerializer = new JsonJmsMessageSerializer(new ObjectMapperSerializer());
+
+    private JmsMessageSerializerConverter converter = new JmsMessageSerializerConverter(Arrays.asList(jsonSerializer, binarySerializer));
+
+    @Test
+    public void testBinaryRoundTrip() throws JMSException {
+        assertRoundTrip(binarySerializer);
+    }
+
+    @Test
+    public void testJsonRoundTrip() throws JMSException {
+        assertRoundTrip(jsonSerializer);
+    }
+
+    /**
+     * Messages sent before the format was configured are still read as object messages
+     */
+    @Test
+    public void testObjectMessageWithoutFormat() throws JMSException {
+        ProvenanceEventRecordDTOHolder holder = createEvents(3);
+        ActiveMQObjectMessage message = new ActiveMQObjectMessage();
+        message.setObject(holder);
+
+        Object result = converter.fromMessage(message);
+        Assert.assertSame(holder, result);
+    }
+
+    /**
+     * A bytes message without the format is passed through as bytes
+     */
+    @Test
+    public void testBytesMessageWithoutFormat() throws JMSException {
+        byte[] bytes = binarySerializer.serialize(createEvents(3));
+        ActiveMQBytesMessage message = new ActiveMQBytesMessage();
+        message.writeBytes(bytes);
+        message.reset();
+
+        Object result = converter.fromMessage(message);
+        Assert.assertArrayEquals(bytes, (byte[]) result);
+    }
+
+    @Test(expected = MessageConversionException.class)
+    public void testUnknownFormat() throws JMSException {
+        ActiveMQBytesMessage message = bytesMessage("unknown", ProvenanceEventRecordDTOHolder.class.getName(), new byte[]{1, 2, 3});
+        converter.fromMessage(message);
+    }
+
+    private void assertRoundTrip(JmsMessageSerializer serializer) throws JMSException {
+        ProvenanceEventRecordDTOHolder holder = createEvents(3);
+        ActiveMQBytesMessage message = bytesMessage(serializer.getFormat(), ProvenanceEventRecordDTOHolder.class.getName(), serializer.serialize(holder));
+
+        Object result = converter.fromMessage(message);
+        Assert.assertTrue(result instanceof ProvenanceEventRecordDTOHolder);
+        List<ProvenanceEventRecordDTO> events = ((ProvenanceEventRecordDTOHolder) result).getEvents();
+        Assert.assertEquals(holder.getEvents().size(), events.size());
+        for (int i = 0; i < events.size(); i++) {
+            Assert.assertEquals(holder.getEvents().get(i).getEventId(), events.get(i).getEventId());
+            Assert.assertEquals(holder.getEvents().get(i).getFeedName(), events.get(i).getFeedName());
+            Assert.assertEquals(holder.getEvents().get(i).getEventTime().getMillis(), events.get(i).getEventTime().getMillis());
+        }
+    }
+
+    /**
+     * Create a readable bytes message with the properties written by {@link com.thinkbiganalytics.activemq.SendJmsMessage}
+     */
+    private ActiveMQBytesMessage bytesMessage(String format, String type, byte[] bytes) throws JMSException {
+        ActiveMQBytesMessage message = new ActiveMQBytesMessage();
+        message.setStringProperty(ActiveMqConstants.MESSAGE_FORMAT_PROPERTY, format);
+        message.setStringProperty(ActiveMqConstants.MESSAGE_TYPE_PROPERTY, type);
+        message.writeBytes(bytes);
+        message.reset();
+        return message;
+    }
+
+    private ProvenanceEventRecordDTOHolder createEvents(int count) {
+        List<ProvenanceEventRecordDTO> events = new ArrayList<>();
+        DateTime time = DateTime.now();
+        for (int i = 0; i < count; i++) {
+            ProvenanceEventRecordDTO event = new ProvenanceEventRecordDTO();
+            event.setEventId(1000L + i);
+            event.setEventTime(time.plusMillis(i));
+            event.setEventType("ATTRIBUTES_MODIFIED");
+            event.setFlowFileUuid("flowfile-" + i);
+            event.setJobFlowFileId("flowfile-0");
+            event.setFeedName("category.feed");
+            event.setComponentId("processor-" + i);
+            events.add(event);
+        }
+        ProvenanceEventRecordDTOHolder holder = new ProvenanceEventRecordDTOHolder();
+        holder.setEvents(events);
+        return holder;
+    }
+}
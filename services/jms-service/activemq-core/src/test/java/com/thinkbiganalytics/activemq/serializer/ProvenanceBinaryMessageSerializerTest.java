@@ -0,0 +1,212 @@
+package com.thinkbiganalytics.activemq.serializer;
+
+/*-
+ * #%L
+ * thinkbig-activemq-core
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.activemq.ObjectMapperSerializer;
+import com.thinkbiganalytics.nifi.provenance.KyloProcessorFlowType;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTOHolder;
+import com.thinkbiganalytics.nifi.provenance.model.stats.AggregatedFeedProcessorStatistics;
+import com.thinkbiganalytics.nifi.provenance.model.stats.AggregatedFeedProcessorStatisticsHolder;
+import com.thinkbiganalytics.nifi.provenance.model.stats.AggregatedProcessorStatistics;
+import com.thinkbiganalytics.nifi.provenance.model.stats.GroupedStats;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Round trips provenance messages through the {@link ProvenanceBinaryMessageSerializer} and compares the message size and cost with the other formats.
+ */
+public class ProvenanceBinaryMessageSerializerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProvenanceBinaryMessageSerializerTest.class);
+
+    private ProvenanceBinaryMessageSerializer binarySerializer = new ProvenanceBinaryMessageSerializer();
+
+    private JsonJmsMessageSerializer jsonSerializer = new JsonJmsMessageSerializer(new ObjectMapperSerializer());
+
+    @Test
+    public void testEventsRoundTrip() {
+        ProvenanceEventRecordDTOHolder holder = createEvents(50);
+        byte[] bytes = binarySerializer.serialize(holder);
+        ProvenanceEventRecordDTOHolder result = binarySerializer.deserialize(bytes, ProvenanceEventRecordDTOHolder.class);
+
+        Assert.assertEquals(holder.getBatchId(), result.getBatchId());
+        Assert.assertEquals(holder.getEvents().size(), result.getEvents().size());
+        for (int i = 0; i < holder.getEvents().size(); i++) {
+            ProvenanceEventRecordDTO expected = holder.getEvents().get(i);
+            ProvenanceEventRecordDTO actual = result.getEvents().get(i);
+            Assert.assertEquals(expected.getEventId(), actual.getEventId());
+            Assert.assertEquals(expected.getEventTime().getMillis(), actual.getEventTime().getMillis());
+            Assert.assertEquals(expected.getFeedName(), actual.getFeedName());
+            Assert.assertEquals(expected.getComponentId(), actual.getComponentId());
+            Assert.assertEquals(expected.getJobFlowFileId(), actual.getJobFlowFileId());
+            Assert.assertEquals(expected.getParentUuids(), actual.getParentUuids());
+            Assert.assertEquals(expected.getAttributeMap(), actual.getAttributeMap());
+            Assert.assertEquals(expected.getUpdatedAttributes(), actual.getUpdatedAttributes());
+            Assert.assertEquals(expected.getProcessorType(), actual.getProcessorType());
+            Assert.assertEquals(expected.isBatchJob(), actual.isBatchJob());
+            Assert.assertEquals(expected.isStartOfJob(), actual.isStartOfJob());
+            Assert.assertEquals(expected.isEndOfJob(), actual.isEndOfJob());
+            Assert.assertEquals(expected.isFinalJobEvent(), actual.isFinalJobEvent());
+            Assert.assertNull(actual.getDetails());
+        }
+    }
+
+    @Test
+    public void testStatsRoundTrip() {
+        AggregatedFeedProcessorStatisticsHolder holder = createStats();
+        byte[] bytes = binarySerializer.serialize(holder);
+        AggregatedFeedProcessorStatisticsHolder result = binarySerializer.deserialize(bytes, AggregatedFeedProcessorStatisticsHolder.class);
+
+        Assert.assertEquals(holder.getCollectionId(), result.getCollectionId());
+        Assert.assertEquals(holder.getEventCount().get(), result.getEventCount().get());
+        Assert.assertEquals(holder.getFeedStatistics().keySet(), result.getFeedStatistics().keySet());
+        GroupedStats expected = holder.getFeedStatistics().get("category.feed1").getProcessorStats().get("processor-1").getStats();
+        GroupedStats actual = result.getFeedStatistics().get("category.feed1").getProcessorStats().get("processor-1").getStats();
+        Assert.assertEquals(expected.getGroupKey(), actual.getGroupKey());
+        Assert.assertEquals(expected.getBytesOut(), actual.getBytesOut());
+        Assert.assertEquals(expected.getJobsFinished(), actual.getJobsFinished());
+        Assert.assertEquals(expected.getMinTime().getMillis(), actual.getMinTime().getMillis());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongType() {
+        byte[] bytes = binarySerializer.serialize(createStats());
+        binarySerializer.deserialize(bytes, ProvenanceEventRecordDTOHolder.class);
+    }
+
+    /**
+     * Compare the size and cost of a 50 event group using each format
+     */
+    @Test
+    public void testSizeAndTime() throws IOException {
+        ProvenanceEventRecordDTOHolder holder = createEvents(50);
+        int iterations = 2000;
+
+        byte[] binary = binarySerializer.serialize(holder);
+        byte[] json = jsonSerializer.serialize(holder);
+        byte[] java = javaSerialize(holder);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            binarySerializer.deserialize(binarySerializer.serialize(holder), ProvenanceEventRecordDTOHolder.class);
+        }
+        long binaryTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            jsonSerializer.deserialize(jsonSerializer.serialize(holder), ProvenanceEventRecordDTOHolder.class);
+        }
+        long jsonTime = System.nanoTime() - start;
+
+        log.info("50 event group size in bytes. binary: {}, json: {}, java: {}", binary.length, json.length, java.length);
+        log.info("{} round trips in ms. binary: {}, json: {}", iterations, binaryTime / 1000000, jsonTime / 1000000);
+        Assert.assertTrue(binary.length < json.length);
+        Assert.assertTrue(binary.length < java.length);
+    }
+
+    private byte[] javaSerialize(Object obj) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+            objectOut.writeObject(obj);
+        }
+        return out.toByteArray();
+    }
+
+    private ProvenanceEventRecordDTOHolder createEvents(int count) {
+        List<ProvenanceEventRecordDTO> events = new ArrayList<>();
+        String jobFlowFileId = UUID.randomUUID().toString();
+        DateTime time = DateTime.now();
+        for (int i = 0; i < count; i++) {
+            ProvenanceEventRecordDTO event = new ProvenanceEventRecordDTO();
+            event.setEventId(1000L + i);
+            event.setEventTime(time.plusMillis(i));
+            event.setStartTime(time);
+            event.setEventDuration(5L);
+            event.setEventType("ATTRIBUTES_MODIFIED");
+            event.setFlowFileUuid(jobFlowFileId);
+            event.setJobFlowFileId(jobFlowFileId);
+            event.setJobEventId(1000L);
+            event.setFeedName("category.feed" + (i % 2));
+            event.setFeedProcessGroupId("process-group-" + (i % 2));
+            event.setComponentId("processor-" + (i % 5));
+            event.setComponentName("Processor " + (i % 5));
+            event.setComponentType("UpdateAttribute");
+            event.setGroupId("process-group-" + (i % 2));
+            event.setParentUuids(Arrays.asList(jobFlowFileId));
+            event.setProcessorType(KyloProcessorFlowType.NORMAL_FLOW);
+            event.setIsBatchJob(true);
+            event.setIsStartOfJob(i == 0);
+            event.setIsEndOfJob(i == count - 1);
+            event.setIsFinalJobEvent(i == count - 1);
+            Map<String, String> attributes = new HashMap<>();
+            attributes.put("filename", "file.csv");
+            attributes.put("path", "./");
+            attributes.put("uuid", jobFlowFileId);
+            attributes.put("feed", "category.feed" + (i % 2));
+            event.setAttributeMap(attributes);
+            event.setUpdatedAttributes(new HashMap<>(attributes));
+            event.setPreviousAttributes(new HashMap<>(attributes));
+            events.add(event);
+        }
+        ProvenanceEventRecordDTOHolder holder = new ProvenanceEventRecordDTOHolder();
+        holder.setEvents(events);
+        return holder;
+    }
+
+    private AggregatedFeedProcessorStatisticsHolder createStats() {
+        AggregatedFeedProcessorStatisticsHolder holder = new AggregatedFeedProcessorStatisticsHolder();
+        DateTime time = DateTime.now();
+        holder.setMinTime(time);
+        holder.setMaxTime(time.plusSeconds(10));
+        holder.getEventCount().set(100);
+        for (int f = 0; f < 2; f++) {
+            AggregatedFeedProcessorStatistics feedStats = new AggregatedFeedProcessorStatistics("category.feed" + f, holder.getCollectionId());
+            for (int p = 0; p < 5; p++) {
+                AggregatedProcessorStatistics processorStats = new AggregatedProcessorStatistics("processor-" + p, "Processor " + p, holder.getCollectionId());
+                GroupedStats stats = processorStats.getStats();
+                stats.setMinTime(time);
+                stats.setMaxTime(time.plusSeconds(p));
+                stats.setTime(time);
+                stats.setBytesOut(1024L * p);
+                stats.setTotalCount(10L);
+                stats.setJobsFinished(p);
+                feedStats.getProcessorStats().put(processorStats.getProcessorId(), processorStats);
+            }
+            holder.getFeedStatistics().put(feedStats.getFeedName(), feedStats);
+        }
+        return holder;
+    }
+}
@@ -54,6 +54,7 @@ import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
@@ -295,10 +296,10 @@ public class JobsRestController {
                                  @QueryParam("limit") @DefaultValue("10") Integer limit,
                                  @QueryParam("start") @DefaultValue("1") Integer start,
                                  @QueryParam("filter") String filter,
+                                 @QueryParam("after") String after,
                                  @Context HttpServletRequest request) {
         return metadataAccess.read(() -> {
-            Page<ExecutedJob> page = jobExecutionProvider.findAll(filter, pageRequest(start, limit, sort)).map(jobExecution -> JobModelTransform.executedJobSimple(jobExecution));
-            return ModelUtils.toSearchResult(page);
+            return searchJobs(filter, start, limit, sort, after);
         });
 
 
@@ -341,14 +342,14 @@ public class JobsRestController {
                                         @QueryParam("limit") @DefaultValue("10") Integer limit,
                                         @QueryParam("start") @DefaultValue("1") Integer start,
                                         @QueryParam("filter") String filter,
+                                        @QueryParam("after") String after,
                                         @Context HttpServletRequest request) {
 
         this.accessController.checkPermission(AccessController.SERVICES, OperationsAccessControl.ACCESS_OPS);
 
         return metadataAccess.read(() -> {
             String defaultFilter = ensureDefaultFilter(filter, jobExecutionProvider.RUNNING_FILTER);
-            Page<ExecutedJob> page = jobExecutionProvider.findAll(defaultFilter, pageRequest(start, limit, sort)).map(jobExecution -> JobModelTransform.executedJobSimple(jobExecution));
-            return ModelUtils.toSearchResult(page);
+            return searchJobs(defaultFilter, start, limit, sort, after);
         });
 
     }
@@ -368,12 +369,12 @@ public class JobsRestController {
                                        @QueryParam("limit") @DefaultValue("10") Integer limit,
                                        @QueryParam("start") @DefaultValue("1") Integer start,
                                        @QueryParam("filter") String filter,
+                                       @QueryParam("after") String after,
                                        @Context HttpServletRequest request) {
 
         return metadataAccess.read(() -> {
             String defaultFilter = ensureDefaultFilter(filter, jobExecutionProvider.FAILED_FILTER);
-            Page<ExecutedJob> page = jobExecutionProvider.findAll(defaultFilter, pageRequest(start, limit, sort)).map(jobExecution -> JobModelTransform.executedJobSimple(jobExecution));
-            return ModelUtils.toSearchResult(page);
+            return searchJobs(defaultFilter, start, limit, sort, after);
         });
     }
 
@@ -392,14 +393,14 @@ public class JobsRestController {
                                         @QueryParam("limit") @DefaultValue("10") Integer limit,
                                         @QueryParam("start") @DefaultValue("1") Integer start,
                                         @QueryParam("filter") String filter,
+                                        @QueryParam("after") String after,
                                         @Context HttpServletRequest request) {
 
         this.accessController.checkPermission(AccessController.SERVICES, OperationsAccessControl.ACCESS_OPS);
 
         return metadataAccess.read(() -> {
             String defaultFilter = ensureDefaultFilter(filter, jobExecutionProvider.STOPPED_FILTER);
-            Page<ExecutedJob> page = jobExecutionProvider.findAll(defaultFilter, pageRequest(start, limit, sort)).map(jobExecution -> JobModelTransform.executedJobSimple(jobExecution));
-            return ModelUtils.toSearchResult(page);
+            return searchJobs(defaultFilter, start, limit, sort, after);
         });
 
     }
@@ -418,14 +419,14 @@ public class JobsRestController {
                                           @QueryParam("limit") @DefaultValue("10") Integer limit,
                                           @QueryParam("start") @DefaultValue("1") Integer start,
                                           @QueryParam("filter") String filter,
+                                          @QueryParam("after") String after,
                                           @Context HttpServletRequest request) {
 
         this.accessController.checkPermission(AccessController.SERVICES, OperationsAccessControl.ACCESS_OPS);
 
         return metadataAccess.read(() -> {
             String defaultFilter = ensureDefaultFilter(filter, jobExecutionProvider.COMPLETED_FILTER);
-            Page<ExecutedJob> page = jobExecutionProvider.findAll(defaultFilter, pageRequest(start, limit, sort)).map(jobExecution -> JobModelTransform.executedJobSimple(jobExecution));
-            return ModelUtils.toSearchResult(page);
+            return searchJobs(defaultFilter, start, limit, sort, after);
         });
 
     }
@@ -445,14 +446,14 @@ public class JobsRestController {
                                           @QueryParam("limit") @DefaultValue("10") Integer limit,
                                           @QueryParam("start") @DefaultValue("1") Integer start,
                                           @QueryParam("filter") String filter,
+                                          @QueryParam("after") String after,
                                           @Context HttpServletRequest request) {
 
         this.accessController.checkPermission(AccessController.SERVICES, OperationsAccessControl.ACCESS_OPS);
 
         return metadataAccess.read(() -> {
             String defaultFilter = ensureDefaultFilter(filter, jobExecutionProvider.ABANDONED_FILTER);
-            Page<ExecutedJob> page = jobExecutionProvider.findAll(defaultFilter, pageRequest(start, limit, sort)).map(jobExecution -> JobModelTransform.executedJobSimple(jobExecution));
-            return ModelUtils.toSearchResult(page);
+            return searchJobs(defaultFilter, start, limit, sort, after);
         });
     }
 
@@ -520,6 +521,22 @@ public class JobsRestController {
         return filter;
     }
 
+    /**
+     * Find the jobs matching the filter.  If a continuation token is given, even an empty one for the first page, the jobs are read newest first by
+     * seeking past the previous page instead of by offset, and the start and sort are ignored.
+     */
+    private SearchResult searchJobs(String filter, Integer start, Integer limit, String sort, String after) {
+        if (after != null) {
+            try {
+                return ModelUtils.toSearchResult(jobExecutionProvider.findAll(filter, after, limit).map(jobExecution -> JobModelTransform.executedJobSimple(jobExecution)));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException(e.getMessage());
+            }
+        }
+        Page<ExecutedJob> page = jobExecutionProvider.findAll(filter, pageRequest(start, limit, sort)).map(jobExecution -> JobModelTransform.executedJobSimple(jobExecution));
+        return ModelUtils.toSearchResult(page);
+    }
+
     private PageRequest pageRequest(Integer start, Integer limit, String sort) {
         if (StringUtils.isNotBlank(sort)) {
             Sort.Direction dir = Sort.Direction.ASC;
@@ -41,6 +41,7 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
@@ -53,6 +54,16 @@ import io.swagger.annotations.ApiResponses;
 @Path("/v1/provenance-stats")
 public class NifiFeedProcessorStatisticsRestController {
 
+    /**
+     * Response header with the resolution of the statistics that were queried
+     */
+    public static final String RESOLUTION_HEADER = "X-Kylo-Stats-Resolution";
+
+    /**
+     * Resolution parameter value letting the provider pick the resolution based upon the time frame
+     */
+    private static final String AUTO_RESOLUTION = "AUTO";
+
     @Inject
     private MetadataAccess metadataAccess;
 
@@ -85,12 +96,16 @@ public class NifiFeedProcessorStatisticsRestController {
     @ApiResponses(
         @ApiResponse(code = 200, message = "Returns the job duration.", response = com.thinkbiganalytics.metadata.rest.jobrepo.nifi.NifiFeedProcessorStats.class, responseContainer = "List")
     )
-    public Response findStats(@PathParam("feedName") String feedName, @PathParam("timeframe") @DefaultValue("HOUR") NifiFeedProcessorStatisticsProvider.TimeFrame timeframe) {
+    public Response findStats(@PathParam("feedName") String feedName, @PathParam("timeframe") @DefaultValue("HOUR") NifiFeedProcessorStatisticsProvider.TimeFrame timeframe,
+                              @QueryParam("resolution") @DefaultValue(AUTO_RESOLUTION) String resolution) {
         this.accessController.checkPermission(AccessController.SERVICES, OperationsAccessControl.ACCESS_OPS);
         return metadataAccess.read(() -> {
-            List<? extends NifiFeedProcessorStats> list = statsProvider.findFeedProcessorStatisticsByProcessorName(feedName, timeframe);
+            DateTime end = DateTime.now();
+            DateTime start = timeframe.startTimeRelativeTo(end);
+            NifiFeedProcessorStatisticsProvider.Resolution statsResolution = toResolution(resolution, start, end);
+            List<? extends NifiFeedProcessorStats> list = statsProvider.findFeedProcessorStatisticsByProcessorName(feedName, start, end, statsResolution);
             List<com.thinkbiganalytics.metadata.rest.jobrepo.nifi.NifiFeedProcessorStats> model = NifiFeedProcessorStatsTransform.toModel(list);
-            return Response.ok(model).build();
+            return Response.ok(model).header(RESOLUTION_HEADER, statsResolution.name()).build();
         });
     }
 
@@ -101,12 +116,16 @@ public class NifiFeedProcessorStatisticsRestController {
     @ApiResponses(
         @ApiResponse(code = 200, message = "Returns the feed statistics.", response = com.thinkbiganalytics.metadata.rest.jobrepo.nifi.NifiFeedProcessorStats.class, responseContainer = "List")
     )
-    public Response findFeedStats(@PathParam("feedName") String feedName, @PathParam("timeframe") @DefaultValue("HOUR") NifiFeedProcessorStatisticsProvider.TimeFrame timeframe) {
+    public Response findFeedStats(@PathParam("feedName") String feedName, @PathParam("timeframe") @DefaultValue("HOUR") NifiFeedProcessorStatisticsProvider.TimeFrame timeframe,
+                                  @QueryParam("resolution") @DefaultValue(AUTO_RESOLUTION) String resolution) {
         this.accessController.checkPermission(AccessController.SERVICES, OperationsAccessControl.ACCESS_OPS);
         return metadataAccess.read(() -> {
-            List<? extends NifiFeedProcessorStats> list = statsProvider.findForFeedStatisticsGroupedByTime(feedName, timeframe);
+            DateTime end = DateTime.now();
+            DateTime start = timeframe.startTimeRelativeTo(end);
+            NifiFeedProcessorStatisticsProvider.Resolution statsResolution = toResolution(resolution, start, end);
+            List<? extends NifiFeedProcessorStats> list = statsProvider.findForFeedStatisticsGroupedByTime(feedName, start, end, statsResolution);
             List<com.thinkbiganalytics.metadata.rest.jobrepo.nifi.NifiFeedProcessorStats> model = NifiFeedProcessorStatsTransform.toModel(list);
-            return Response.ok(model).build();
+            return Response.ok(model).header(RESOLUTION_HEADER, statsResolution.name()).build();
         });
     }
 
@@ -123,4 +142,33 @@ public class NifiFeedProcessorStatisticsRestController {
             .collect(Collectors.toList());
         return Response.ok(vals).build();
     }
+
+    @GET
+    @Path("/resolution-options")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation("Gets the resolutions that can be requested for the statistics.")
+    @ApiResponses(
+        @ApiResponse(code = 200, message = "Returns the resolution options.", response = String.class, responseContainer = "List")
+    )
+    public Response getResolutionOptions() {
+        List<String> vals = Arrays.stream(NifiFeedProcessorStatisticsProvider.Resolution.values())
+            .map(Enum::name)
+            .collect(Collectors.toList());
+        vals.add(0, AUTO_RESOLUTION);
+        return Response.ok(vals).build();
+    }
+
+    /**
+     * Parse the requested resolution.  AUTO, or any value that is not a resolution, lets the provider pick the coarsest rollup for the time frame.
+     */
+    private NifiFeedProcessorStatisticsProvider.Resolution toResolution(String resolution, DateTime start, DateTime end) {
+        if (resolution != null && !AUTO_RESOLUTION.equalsIgnoreCase(resolution)) {
+            try {
+                return NifiFeedProcessorStatisticsProvider.Resolution.valueOf(resolution.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                //fall through to the automatic resolution
+            }
+        }
+        return statsProvider.getResolution(start, end);
+    }
 }
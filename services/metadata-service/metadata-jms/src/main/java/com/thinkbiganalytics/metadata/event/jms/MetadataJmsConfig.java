@@ -70,6 +70,17 @@ public class MetadataJmsConfig {
         return new ActiveMQTopic(MetadataTopics.DATASOURCE_CHANGE);
     }
 
+    /**
+     * Gets the topic for feed changes.
+     *
+     * @return the feed change topic
+     */
+    @Bean(name = "feedChangeTopic")
+    @Nonnull
+    public Topic feedChangeTopic() {
+        return new ActiveMQTopic(MetadataTopics.FEED_CHANGE);
+    }
+
     /**
      * Creates a Spring JMS Messaging Template.
      *
@@ -95,6 +106,21 @@ public class MetadataJmsConfig {
         return factory;
     }
 
+    /**
+     * Creates a Spring JMS Listener Container Factory for topics.
+     *
+     * @return the JMS listener container factory
+     */
+    @Bean(name = "metadataTopicListenerContainerFactory")
+    @Nonnull
+    public DefaultJmsListenerContainerFactory topicListenerContainerFactory() {
+        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(new SimpleMessageConverter());
+        factory.setPubSubDomain(true);
+        return factory;
+    }
+
     /**
      * Gets the queue for triggering feeds based on preconditions.
      *
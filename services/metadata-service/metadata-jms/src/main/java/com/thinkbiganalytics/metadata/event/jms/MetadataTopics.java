@@ -29,4 +29,9 @@ public interface MetadataTopics {
      * Indicates changes to a data source
      */
     String DATASOURCE_CHANGE = "datasourceChange";
+
+    /**
+     * Indicates that a feed was created, updated or deleted
+     */
+    String FEED_CHANGE = "feedChange";
 }
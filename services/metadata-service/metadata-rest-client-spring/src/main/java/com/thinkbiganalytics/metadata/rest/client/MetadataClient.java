@@ -604,7 +604,18 @@ public class MetadataClient {
      * @return the cache of flow events
      */
     public NiFiFlowCacheSync getFlowUpdates(String syncId) {
-        return get(path("nifi-provenance", "nifi-flow-cache", "get-flow-updates"), new NifiFlowSyncParameters(syncId), NiFiFlowCacheSync.class);
+        return getFlowUpdates(syncId, null);
+    }
+
+    /**
+     * get flow updates made after the given change sequence
+     *
+     * @param syncId   the synchronization id
+     * @param sequence the last change sequence received, or null to use the last sequence Kylo returned for the synchronization id
+     * @return the cache of flow events
+     */
+    public NiFiFlowCacheSync getFlowUpdates(String syncId, Long sequence) {
+        return get(path("nifi-provenance", "nifi-flow-cache", "get-flow-updates"), new NifiFlowSyncParameters(syncId, sequence), NiFiFlowCacheSync.class);
     }
 
     /**
@@ -756,9 +767,15 @@ public class MetadataClient {
     private static class NifiFlowSyncParameters implements Function<UriComponentsBuilder, UriComponentsBuilder> {
 
         private String syncId;
+        private Long sequence;
 
         public NifiFlowSyncParameters(String syncId) {
+            this(syncId, null);
+        }
+
+        public NifiFlowSyncParameters(String syncId, Long sequence) {
             this.syncId = syncId;
+            this.sequence = sequence;
         }
 
         public UriComponentsBuilder apply(UriComponentsBuilder target) {
@@ -767,6 +784,9 @@ public class MetadataClient {
             if (!Strings.isNullOrEmpty(this.syncId)) {
                 result = result.queryParam("syncId", this.syncId);
             }
+            if (this.sequence != null) {
+                result = result.queryParam("sequence", this.sequence);
+            }
             return result;
         }
 
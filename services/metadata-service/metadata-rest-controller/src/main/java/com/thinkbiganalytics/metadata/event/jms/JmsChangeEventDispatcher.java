@@ -24,10 +24,13 @@ import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.event.MetadataEventListener;
 import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
 import com.thinkbiganalytics.metadata.api.event.feed.CleanupTriggerEvent;
+import com.thinkbiganalytics.metadata.api.event.feed.FeedChange;
+import com.thinkbiganalytics.metadata.api.event.feed.FeedChangeEvent;
 import com.thinkbiganalytics.metadata.api.event.feed.PreconditionTriggerEvent;
 import com.thinkbiganalytics.metadata.api.feed.Feed;
 import com.thinkbiganalytics.metadata.api.feed.FeedProvider;
 import com.thinkbiganalytics.metadata.rest.model.event.FeedCleanupTriggerEvent;
+import com.thinkbiganalytics.metadata.rest.model.event.FeedMetadataChangeEvent;
 import com.thinkbiganalytics.metadata.rest.model.event.FeedPreconditionTriggerEvent;
 
 import org.springframework.jms.core.JmsMessagingTemplate;
@@ -38,6 +41,7 @@ import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.jms.Queue;
+import javax.jms.Topic;
 
 /**
  * Listens for metadata events that should be transferred to a JMS topic.
@@ -49,6 +53,11 @@ public class JmsChangeEventDispatcher {
      */
     private final MetadataEventListener<CleanupTriggerEvent> cleanupListener = new CleanupTriggerDispatcher();
 
+    /**
+     * Event listener for feed change events
+     */
+    private final MetadataEventListener<FeedChangeEvent> feedChangeListener = new FeedChangeDispatcher();
+
     /**
      * Event listener for precondition events
      */
@@ -60,6 +69,12 @@ public class JmsChangeEventDispatcher {
     @Inject
     @Named("cleanupTriggerQueue")
     private Queue cleanupTriggerQueue;
+    /**
+     * JMS topic for notifying of feed changes
+     */
+    @Inject
+    @Named("feedChangeTopic")
+    private Topic feedChangeTopic;
     /**
      * Metadata event bus
      */
@@ -95,6 +110,7 @@ public class JmsChangeEventDispatcher {
     public void addEventListener() {
         eventService.addListener(cleanupListener);
         eventService.addListener(preconditionListener);
+        eventService.addListener(feedChangeListener);
     }
 
     /**
@@ -104,6 +120,7 @@ public class JmsChangeEventDispatcher {
     public void removeEventListener() {
         eventService.removeListener(cleanupListener);
         eventService.removeListener(preconditionListener);
+        eventService.removeListener(feedChangeListener);
     }
 
     /**
@@ -145,4 +162,30 @@ public class JmsChangeEventDispatcher {
             jmsMessagingTemplate.convertAndSend(preconditionTriggerQueue, triggerEv);
         }
     }
+
+    /**
+     * Transfers feed change events to JMS.
+     */
+    private class FeedChangeDispatcher implements MetadataEventListener<FeedChangeEvent> {
+
+        @Override
+        public void notify(@Nonnull final FeedChangeEvent event) {
+            FeedChange change = event.getData();
+            FeedMetadataChangeEvent jmsEvent = new FeedMetadataChangeEvent(change.getFeedId().toString(), change.getChange().name());
+
+            // A deleted feed can no longer be looked up, so only its id is sent
+            if (change.getChange() != FeedChange.ChangeType.DELETE) {
+                metadata.read(() -> {
+                    Feed feed = feedProvider.getFeed(change.getFeedId());
+                    if (feed != null) {
+                        jmsEvent.setFeedName(feed.getName());
+                        jmsEvent.setCategoryName(feed.getCategory().getName());
+                    }
+                    return jmsEvent;
+                }, MetadataAccess.SERVICE);
+            }
+
+            jmsMessagingTemplate.convertAndSend(feedChangeTopic, jmsEvent);
+        }
+    }
 }
@@ -0,0 +1,151 @@
+package com.thinkbiganalytics.metadata.rest.model.event;
+
+/*-
+ * #%L
+ * thinkbig-metadata-rest-model
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.io.Serializable;
+
+import javax.annotation.Nonnull;
+
+/**
+ * An event indicating that a feed was created, updated or deleted.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FeedMetadataChangeEvent implements Serializable {
+
+    private static final long serialVersionUID = -3384522185371904392L;
+
+    /**
+     * Category system name
+     */
+    private String categoryName;
+
+    /**
+     * Type of change
+     */
+    private String changeType;
+
+    /**
+     * Feed id
+     */
+    private String feedId;
+
+    /**
+     * Feed system name
+     */
+    private String feedName;
+
+    /**
+     * Constructs a {@code FeedMetadataChangeEvent}.
+     */
+    public FeedMetadataChangeEvent() {
+    }
+
+    /**
+     * Constructs a {@code FeedMetadataChangeEvent} with the specified feed id and change type.
+     *
+     * @param id         the feed id
+     * @param changeType the type of change
+     */
+    public FeedMetadataChangeEvent(@Nonnull final String id, @Nonnull final String changeType) {
+        this.feedId = id;
+        this.changeType = changeType;
+    }
+
+    /**
+     * Gets the changed feed id.
+     *
+     * @return the feed id
+     */
+    public String getFeedId() {
+        return feedId;
+    }
+
+    /**
+     * Sets the changed feed id.
+     *
+     * @param feedId the feed id
+     */
+    public void setFeedId(@Nonnull final String feedId) {
+        this.feedId = feedId;
+    }
+
+    /**
+     * Gets the type of change, such as {@code CREATE}, {@code UPDATE} or {@code DELETE}.
+     *
+     * @return the change type
+     */
+    public String getChangeType() {
+        return changeType;
+    }
+
+    /**
+     * Sets the type of change.
+     *
+     * @param changeType the change type
+     */
+    public void setChangeType(@Nonnull final String changeType) {
+        this.changeType = changeType;
+    }
+
+    /**
+     * Gets the changed feed name, if known.
+     *
+     * @return the feed system name
+     */
+    public String getFeedName() {
+        return feedName;
+    }
+
+    /**
+     * Sets the changed feed name.
+     *
+     * @param feedName the feed system name
+     */
+    public void setFeedName(@Nonnull final String feedName) {
+        this.feedName = feedName;
+    }
+
+    /**
+     * Gets the changed feed's category name, if known.
+     *
+     * @return the category system name
+     */
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    /**
+     * Sets the changed feed's category name.
+     *
+     * @param categoryName the category system name
+     */
+    public void setCategoryName(@Nonnull final String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + ": " + changeType + " " + (feedName != null ? categoryName + "." + feedName : feedId);
+    }
+}
@@ -44,6 +44,14 @@ public class NiFiFlowCacheSync {
     private DateTime lastSync;
     private String message;
     private boolean updated = false;
+    /**
+     * Sequence of the last change in the Kylo flow cache change log that is included in this sync, or -1 if nothing has been synced
+     */
+    private long sequence = -1L;
+    /**
+     * {@code true} if the snapshot holds the whole cache and should replace the client copy rather than be merged into it
+     */
+    private boolean fullSnapshot = false;
 
     public NiFiFlowCacheSync() {
         this((NifiFlowCacheSnapshot) null);
@@ -162,6 +170,7 @@ public class NiFiFlowCacheSync {
     public void reset() {
         this.snapshot = null;
         this.lastSync = null;
+        this.sequence = -1L;
     }
 
     public String getSyncId() {
@@ -185,6 +194,22 @@ public class NiFiFlowCacheSync {
         this.updated = updated;
     }
 
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public boolean isFullSnapshot() {
+        return fullSnapshot;
+    }
+
+    public void setFullSnapshot(boolean fullSnapshot) {
+        this.fullSnapshot = fullSnapshot;
+    }
+
     public boolean isUnavailable() {
         return this.equals(UNAVAILABLE);
     }
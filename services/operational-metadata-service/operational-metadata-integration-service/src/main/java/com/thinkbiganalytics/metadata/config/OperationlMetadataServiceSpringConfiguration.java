@@ -21,7 +21,9 @@ package com.thinkbiganalytics.metadata.config;
  */
 
 import com.thinkbiganalytics.alerts.api.AlertProvider;
+import com.thinkbiganalytics.metadata.jobrepo.feed.FeedSummaryRebuildScheduler;
 import com.thinkbiganalytics.metadata.jobrepo.nifi.provenance.NifiStatsJmsReceiver;
+import com.thinkbiganalytics.metadata.jobrepo.purge.OpsManagerPurgeScheduler;
 import com.thinkbiganalytics.metadata.sla.DefaultServiceLevelAgreementScheduler;
 import com.thinkbiganalytics.metadata.sla.JpaJcrServiceLevelAgreementChecker;
 import com.thinkbiganalytics.metadata.sla.ServiceLevelAgreementActionAlertResponderFactory;
@@ -43,6 +45,16 @@ public class OperationlMetadataServiceSpringConfiguration {
         return new NifiStatsJmsReceiver();
     }
 
+    @Bean
+    public OpsManagerPurgeScheduler opsManagerPurgeScheduler() {
+        return new OpsManagerPurgeScheduler();
+    }
+
+    @Bean
+    public FeedSummaryRebuildScheduler feedSummaryRebuildScheduler() {
+        return new FeedSummaryRebuildScheduler();
+    }
+
     @Bean
     public ServiceLevelAgreementScheduler serviceLevelAgreementScheduler() {
         return new DefaultServiceLevelAgreementScheduler();
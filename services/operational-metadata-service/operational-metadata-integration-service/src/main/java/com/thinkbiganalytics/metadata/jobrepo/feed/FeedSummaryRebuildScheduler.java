@@ -0,0 +1,76 @@
+package com.thinkbiganalytics.metadata.jobrepo.feed;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-integration-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.PostMetadataConfigAction;
+import com.thinkbiganalytics.metadata.jpa.feed.FeedSummaryUpdater;
+import com.thinkbiganalytics.scheduler.JobIdentifier;
+import com.thinkbiganalytics.scheduler.JobScheduler;
+import com.thinkbiganalytics.scheduler.JobSchedulerException;
+import com.thinkbiganalytics.scheduler.model.DefaultJobIdentifier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.inject.Inject;
+
+/**
+ * Registers a {@link JobScheduler} job that rebuilds the feed summary tables from scratch, correcting any drift from the incremental updates made by the {@link FeedSummaryUpdater}.
+ */
+public class FeedSummaryRebuildScheduler implements PostMetadataConfigAction {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedSummaryRebuildScheduler.class);
+
+    private static final JobIdentifier JOB_IDENTIFIER = new DefaultJobIdentifier("Rebuild Feed Summary", "KYLO");
+
+    @Inject
+    private JobScheduler jobScheduler;
+
+    @Inject
+    private FeedSummaryUpdater feedSummaryUpdater;
+
+    @Value("${kylo.ops.mgr.feed-summary.rebuild.enabled:false}")
+    private boolean enabled;
+
+    @Value("${kylo.ops.mgr.feed-summary.rebuild.cron:0 30 0 * * ? *}")
+    private String cronExpression;
+
+    @Override
+    public void run() {
+        if (!enabled) {
+            log.info("The feed summary rebuild is disabled. Set kylo.ops.mgr.feed-summary.rebuild.enabled=true to enable it.");
+            return;
+        }
+        try {
+            jobScheduler.scheduleWithCronExpression(JOB_IDENTIFIER, () -> {
+                try {
+                    feedSummaryUpdater.rebuild();
+                } catch (Exception e) {
+                    log.error("Unable to rebuild the feed summary tables", e);
+                }
+            }, cronExpression);
+            log.info("Scheduled the feed summary rebuild with the cron expression {}", cronExpression);
+        } catch (JobSchedulerException e) {
+            log.error("Unable to schedule the feed summary rebuild with the cron expression {}", cronExpression, e);
+        }
+    }
+}
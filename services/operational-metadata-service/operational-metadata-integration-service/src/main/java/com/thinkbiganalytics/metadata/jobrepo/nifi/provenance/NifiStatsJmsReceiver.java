@@ -29,6 +29,8 @@ import com.thinkbiganalytics.nifi.activemq.Queues;
 import com.thinkbiganalytics.nifi.provenance.model.stats.AggregatedFeedProcessorStatisticsHolder;
 import com.thinkbiganalytics.nifi.provenance.model.stats.GroupedStats;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.jms.annotation.JmsListener;
 
 import java.util.ArrayList;
@@ -41,6 +43,7 @@ import javax.inject.Inject;
  */
 public class NifiStatsJmsReceiver {
 
+    private static final Logger log = LoggerFactory.getLogger(NifiStatsJmsReceiver.class);
 
     @Inject
     private NifiFeedProcessorStatisticsProvider nifiEventStatisticsProvider;
@@ -52,13 +55,25 @@ public class NifiStatsJmsReceiver {
     @JmsListener(destination = Queues.PROVENANCE_EVENT_STATS_QUEUE, containerFactory = ActiveMqConstants.JMS_CONTAINER_FACTORY)
     public void receiveTopic(AggregatedFeedProcessorStatisticsHolder stats) {
 
-        metadataAccess.commit(() -> {
-            List<NifiFeedProcessorStats> summaryStats = createSummaryStats(stats);
-            for (NifiFeedProcessorStats stat : summaryStats) {
-                nifiEventStatisticsProvider.create(stat);
-            }
-            return summaryStats;
-        }, MetadataAccess.SERVICE);
+        List<NifiFeedProcessorStats> summaryStats = createSummaryStats(stats);
+        try {
+            metadataAccess.commit(() -> {
+                nifiEventStatisticsProvider.createAll(summaryStats);
+                nifiEventStatisticsProvider.rollup(summaryStats);
+                return summaryStats;
+            }, MetadataAccess.SERVICE);
+        } catch (Exception e) {
+            //fall back to saving each record through JPA
+            log.warn("Unable to bulk insert {} NiFi feed processor statistics.  Saving them individually. ", summaryStats.size(), e);
+            metadataAccess.commit(() -> {
+                for (NifiFeedProcessorStats stat : summaryStats) {
+                    stat.setId(null);
+                    nifiEventStatisticsProvider.create(stat);
+                }
+                nifiEventStatisticsProvider.rollup(summaryStats);
+                return summaryStats;
+            }, MetadataAccess.SERVICE);
+        }
 
     }
 
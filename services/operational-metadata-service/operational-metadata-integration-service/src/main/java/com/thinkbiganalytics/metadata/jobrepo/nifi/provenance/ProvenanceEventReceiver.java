@@ -24,6 +24,7 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.thinkbiganalytics.activemq.config.ActiveMqConstants;
 import com.thinkbiganalytics.metadata.api.MetadataAccess;
 import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
@@ -47,7 +48,6 @@ import com.thinkbiganalytics.nifi.rest.client.LegacyNifiRestClient;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.nifi.web.api.dto.BulletinDTO;
-import org.hibernate.exception.LockAcquisitionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -55,11 +55,18 @@ import org.springframework.jms.annotation.JmsListener;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 /**
@@ -125,11 +132,16 @@ public class ProvenanceEventReceiver implements FailedStepExecutionListener, Del
     @Inject
     private MetadataEventService eventService;
     /**
-     * The amount of retry attempts the system will do if it gets a LockAcquisitionException
-     * MySQL may fail to lock the table when performing inserts into the database resulting in a deadlock exception.
-     * When processing each event the LockAcquisitionException is caught and a retry attempt is done, retrying to process the event this amount of times before giving up.
+     * The number of single threaded workers used to write the events.
+     * Events are assigned to a worker by their feed so that all events for a given feed, and so for each of its jobs, are written by the same thread, in order.
      */
-    private int lockAcquisitionRetryAmount = 4;
+    @Value("${kylo.ops.mgr.provenance.workers:4}")
+    private int workerCount = 4;
+
+    /**
+     * The single threaded workers that write the events for their shard of jobs
+     */
+    private ExecutorService[] workers;
 
 
     /**
@@ -158,6 +170,20 @@ public class ProvenanceEventReceiver implements FailedStepExecutionListener, Del
     private void init() {
         batchStepExecutionProvider.subscribeToFailedSteps(this);
         opsManagerFeedProvider.subscribeFeedDeletion(this);
+        int count = Math.max(1, workerCount);
+        workers = new ExecutorService[count];
+        for (int i = 0; i < count; i++) {
+            workers[i] = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("provenance-event-worker-" + i).build());
+        }
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        if (workers != null) {
+            for (ExecutorService worker : workers) {
+                worker.shutdown();
+            }
+        }
     }
 
 
@@ -178,58 +204,96 @@ public class ProvenanceEventReceiver implements FailedStepExecutionListener, Del
      * if it is a stream just write to the Nifi_event table.
      * When either are marked as the last event Notify the event bus for the trigger feed mechanism to work.
      *
+     * The events are sharded by their feed onto the {@link #workers}.  Each worker writes its micro-batch of events in a single transaction.
+     * Since all events for a feed are always handled by the same worker there is no contention between workers when creating the job and step executions
+     * or when updating the feed's summary rows.
+     *
      * @param events The events obtained from JMS
      */
     @JmsListener(destination = Queues.FEED_MANAGER_QUEUE, containerFactory = ActiveMqConstants.JMS_CONTAINER_FACTORY, concurrency = "3-10")
     public void receiveEvents(ProvenanceEventRecordDTOHolder events) {
         log.info("About to process {} events from the {} queue ", events.getEvents().size(), Queues.FEED_MANAGER_QUEUE);
-        events.getEvents().stream()
+        Map<Integer, List<ProvenanceEventRecordDTO>> shards = events.getEvents().stream()
             .filter(this::isRegisteredWithFeedManager)
             .filter(this::ensureNewEvent)
-            .forEach(event -> processEvent(event, 0));
+            .collect(Collectors.groupingBy(this::workerIndex, LinkedHashMap::new, Collectors.toList()));
+
+        List<Future<?>> results = new ArrayList<>(shards.size());
+        shards.forEach((index, shard) -> results.add(workers[index].submit(() -> processEvents(shard))));
+
+        //wait for the workers so the JMS message is only acknowledged once its events are written
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Interrupted while waiting for provenance events to be processed ", e);
+                return;
+            } catch (ExecutionException e) {
+                log.error("Error processing provenance events ", e.getCause());
+            }
+        }
     }
 
     /**
-     * process the event and persist it along with creating the Job and Step.  If there is a lock error it will retry until it hits the {@link this#lockAcquisitionRetryAmount}
+     * Determine the worker responsible for the feed of the given event
      *
-     * @param event        a provenance event
-     * @param retryAttempt the retry number.  If there is a lock error it will retry until it hits the {@link this#lockAcquisitionRetryAmount}
+     * @param event a provenance event
+     * @return the index of the worker in the {@link #workers} array
+     */
+    private int workerIndex(ProvenanceEventRecordDTO event) {
+        String key = StringUtils.isNotBlank(event.getFeedName()) ? event.getFeedName() : event.getJobFlowFileId();
+        return key == null ? 0 : Math.floorMod(key.hashCode(), workers.length);
+    }
+
+    /**
+     * Process a micro-batch of events belonging to the same shard in a single transaction.
+     * If the transaction fails, including failing to acquire a lock, the events are processed individually so a single bad event does not prevent the others from being recorded.
+     * The worker does not wait before doing so, so the other micro-batches of its shard are not held up.
+     *
+     * @param events the events for a shard, in the order they were received
      */
-    private void processEvent(ProvenanceEventRecordDTO event, int retryAttempt) {
+    private void processEvents(List<ProvenanceEventRecordDTO> events) {
         try {
-            if (event.isBatchJob()) {
-                //ensure the job is there
-                BatchJobExecution jobExecution = metadataAccess.commit(() -> batchJobExecutionProvider.getOrCreateJobExecution(event),
-                                                                       MetadataAccess.SERVICE);
-                NifiEvent nifiEvent = metadataAccess.commit(() -> receiveBatchEvent(jobExecution, event),
-                                                            MetadataAccess.SERVICE);
-            } else {
-                NifiEvent nifiEvent = metadataAccess.commit(() -> nifiEventProvider.create(event),
-                                                            MetadataAccess.SERVICE);
-            }
+            metadataAccess.commit(() -> events.forEach(this::persistEvent), MetadataAccess.SERVICE);
+        } catch (Exception e) {
+            log.error("Error processing a batch of {} events.  Processing the events individually. ", events.size(), e);
+            events.forEach(this::processEvent);
+            return;
+        }
+        events.stream().filter(ProvenanceEventRecordDTO::isFinalJobEvent).forEach(this::notifyJobFinished);
+    }
+
+    /**
+     * process the event in its own transaction and persist it along with creating the Job and Step.
+     *
+     * @param event a provenance event
+     */
+    private void processEvent(ProvenanceEventRecordDTO event) {
+        try {
+            metadataAccess.commit(() -> persistEvent(event), MetadataAccess.SERVICE);
             if (event.isFinalJobEvent()) {
                 notifyJobFinished(event);
             }
-        } catch (LockAcquisitionException lae) {
-            //safeguard against LockAcquisitionException if MySQL has a problem locking the table during its processing of the Event.
-
-            if (retryAttempt < lockAcquisitionRetryAmount) {
-                retryAttempt++;
-                log.error("LockAcquisitionException found trying to process Event: {} .  Retry attempt # {} ", event, retryAttempt, lae);
-                //wait and re attempt
-                try {
-                    Thread.sleep(300L);
-                } catch (InterruptedException var10) {
-
-                }
-                processEvent(event, retryAttempt);
-            } else {
-                log.error("LockAcquisitionException found.  Unsuccessful after retrying {} times.  This event {} will not be processed. ", retryAttempt, event, lae);
-            }
         } catch (Exception e) {
-            log.error("Error processing Event ", event, e);
+            log.error("Error processing Event {} ", event, e);
         }
+    }
 
+    /**
+     * persist the event along with creating the Job and Step.  This must be called within a transaction.
+     *
+     * @param event a provenance event
+     * @return a persisted nifi event object
+     */
+    private NifiEvent persistEvent(ProvenanceEventRecordDTO event) {
+        if (event.isBatchJob()) {
+            //ensure the job is there
+            BatchJobExecution jobExecution = batchJobExecutionProvider.getOrCreateJobExecution(event);
+            return receiveBatchEvent(jobExecution, event);
+        } else {
+            return nifiEventProvider.create(event);
+        }
     }
 
 
@@ -0,0 +1,77 @@
+package com.thinkbiganalytics.metadata.jobrepo.purge;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-integration-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.PostMetadataConfigAction;
+import com.thinkbiganalytics.metadata.jpa.purge.OpsManagerPurgeService;
+import com.thinkbiganalytics.scheduler.JobIdentifier;
+import com.thinkbiganalytics.scheduler.JobScheduler;
+import com.thinkbiganalytics.scheduler.JobSchedulerException;
+import com.thinkbiganalytics.scheduler.model.DefaultJobIdentifier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.inject.Inject;
+
+/**
+ * Registers the {@link OpsManagerPurgeService} with the {@link JobScheduler} so the operational history is purged on a cron schedule.
+ */
+public class OpsManagerPurgeScheduler implements PostMetadataConfigAction {
+
+    private static final Logger log = LoggerFactory.getLogger(OpsManagerPurgeScheduler.class);
+
+    private static final JobIdentifier JOB_IDENTIFIER = new DefaultJobIdentifier("Purge Operational History", "KYLO");
+
+    @Inject
+    private JobScheduler jobScheduler;
+
+    @Inject
+    private OpsManagerPurgeService purgeService;
+
+    @Value("${kylo.ops.mgr.purge.enabled:false}")
+    private boolean enabled;
+
+    @Value("${kylo.ops.mgr.purge.cron:0 0 1 * * ? *}")
+    private String cronExpression;
+
+    @Override
+    public void run() {
+        if (!enabled) {
+            log.info("The operational history purge is disabled. Set kylo.ops.mgr.purge.enabled=true to enable it.");
+            return;
+        }
+        try {
+            jobScheduler.scheduleWithCronExpression(JOB_IDENTIFIER, () -> {
+                try {
+                    purgeService.purge();
+                } catch (Exception e) {
+                    log.error("Unable to purge the operational history", e);
+                }
+            }, cronExpression);
+            log.info("Scheduled the operational history purge with the cron expression {} and a default retention of {} days", cronExpression,
+                     purgeService.getRetentionPolicy().getDefaultDays());
+        } catch (JobSchedulerException e) {
+            log.error("Unable to schedule the operational history purge with the cron expression {}", cronExpression, e);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.thinkbiganalytics.metadata.jobrepo.nifi.provenance;
+
+/*-
+ * #%L
+ * thinkbig-operational-metadata-integration-service
+ * %%
+ * Copyright (C) 2017 ThinkBig Analytics
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.thinkbiganalytics.metadata.api.MetadataAccess;
+import com.thinkbiganalytics.metadata.api.event.MetadataEventService;
+import com.thinkbiganalytics.metadata.api.feed.OpsManagerFeedProvider;
+import com.thinkbiganalytics.metadata.api.jobrepo.job.BatchJobExecutionProvider;
+import com.thinkbiganalytics.metadata.api.jobrepo.step.BatchStepExecutionProvider;
+import com.thinkbiganalytics.metadata.config.OperationalMetadataConfig;
+import com.thinkbiganalytics.metadata.jpa.jobrepo.nifi.NifiEventProvider;
+import com.thinkbiganalytics.metadata.sla.spi.ServiceLevelAgreementProvider;
+import com.thinkbiganalytics.metadata.sla.spi.core.InMemorySLAProvider;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTO;
+import com.thinkbiganalytics.nifi.provenance.model.ProvenanceEventRecordDTOHolder;
+import com.thinkbiganalytics.security.AccessController;
+import com.thinkbiganalytics.spring.CommonsSpringConfiguration;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceBuilder;
+import org.springframework.boot.autoconfigure.jms.JmsAutoConfiguration;
+import org.springframework.boot.autoconfigure.jms.activemq.ActiveMQAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+
+/**
+ * Measures the events per second written by the {@link ProvenanceEventReceiver} with 1, 2, 4 and 8 workers, on the H2 test database.
+ * The JMS messages are delivered to the receiver one at a time, so the events of each job arrive in order.
+ * Skipped unless run with -Dprovenance.benchmark=true. The number of jobs can be changed with -Dprovenance.benchmark.jobs
+ * and the worker counts with -Dprovenance.benchmark.workers=1,2,4,8
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@TestPropertySource(properties = {"spring.datasource.url=jdbc:h2:mem:provenancebenchmark", "spring.datasource.username=sa", "spring.datasource.password=",
+                                  "spring.datasource.driverClassName=org.h2.Driver", "spring.datasource.maxActive=30"})
+@SpringApplicationConfiguration(classes = {CommonsSpringConfiguration.class, OperationalMetadataConfig.class, ProvenanceEventReceiverBenchmark.BenchmarkConfiguration.class})
+public class ProvenanceEventReceiverBenchmark {
+
+    private static final int FEEDS = 16;
+    private static final int EVENTS_PER_JOB = 5;
+    private static final int EVENTS_PER_MESSAGE = 500;
+
+    private static final AtomicLong EVENT_IDS = new AtomicLong();
+
+    @Inject
+    private MetadataAccess metadataAccess;
+
+    @Inject
+    private OpsManagerFeedProvider opsManagerFeedProvider;
+
+    @Inject
+    private BatchJobExecutionProvider batchJobExecutionProvider;
+
+    @Inject
+    private BatchStepExecutionProvider batchStepExecutionProvider;
+
+    @Inject
+    private NifiEventProvider nifiEventProvider;
+
+    @Inject
+    @Qualifier("dataSource")
+    private DataSource dataSource;
+
+    @Test
+    public void benchmarkWorkerScaling() throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("provenance.benchmark"));
+        final int jobs = Integer.getInteger("provenance.benchmark.jobs", 2000);
+        final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        for (String workers : System.getProperty("provenance.benchmark.workers", "1,2,4,8").split(",")) {
+            final int workerCount = Integer.parseInt(workers.trim());
+            final List<ProvenanceEventRecordDTOHolder> messages = createMessages("workers_" + workerCount, jobs);
+            final ProvenanceEventReceiver receiver = newReceiver(workerCount);
+            final long jobCount = countJobs(jdbcTemplate);
+
+            final long start = System.nanoTime();
+            try {
+                messages.forEach(receiver::receiveEvents);
+            } finally {
+                ReflectionTestUtils.invokeMethod(receiver, "shutdown");
+            }
+            final long elapsed = System.nanoTime() - start;
+            Assert.assertEquals(jobs, countJobs(jdbcTemplate) - jobCount);
+
+            final int eventCount = jobs * EVENTS_PER_JOB;
+            System.out.printf("%d workers: %d events in %d ms (%.0f events/sec)%n", workerCount, eventCount, elapsed / 1000000L, eventCount * 1e9d / elapsed);
+        }
+    }
+
+    /**
+     * Create a receiver with the given number of workers, wired to the providers of the test context
+     */
+    private ProvenanceEventReceiver newReceiver(int workerCount) {
+        ProvenanceEventReceiver receiver = new ProvenanceEventReceiver();
+        ReflectionTestUtils.setField(receiver, "opsManagerFeedProvider", opsManagerFeedProvider);
+        ReflectionTestUtils.setField(receiver, "nifiEventProvider", nifiEventProvider);
+        ReflectionTestUtils.setField(receiver, "batchJobExecutionProvider", batchJobExecutionProvider);
+        ReflectionTestUtils.setField(receiver, "batchStepExecutionProvider", batchStepExecutionProvider);
+        ReflectionTestUtils.setField(receiver, "metadataAccess", metadataAccess);
+        ReflectionTestUtils.setField(receiver, "eventService", Mockito.mock(MetadataEventService.class));
+        ReflectionTestUtils.setField(receiver, "workerCount", workerCount);
+        ReflectionTestUtils.invokeMethod(receiver, "init");
+        return receiver;
+    }
+
+    private long countJobs(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_JOB_EXECUTION", Long.class);
+    }
+
+    /**
+     * Register the feeds and create the JMS messages for the jobs, with the events of the jobs interleaved as they would arrive from NiFi
+     */
+    private List<ProvenanceEventRecordDTOHolder> createMessages(String category, int jobs) {
+        List<String> feedNames = new ArrayList<>();
+        for (int i = 0; i < FEEDS; i++) {
+            String feedName = category + ".feed_" + i;
+            metadataAccess.commit(() -> opsManagerFeedProvider.save(opsManagerFeedProvider.resolveId(UUID.randomUUID().toString()), feedName), MetadataAccess.SERVICE);
+            feedNames.add(feedName);
+        }
+
+        DateTime time = DateTime.now().minusHours(1);
+        List<ProvenanceEventRecordDTOHolder> messages = new ArrayList<>();
+        List<ProvenanceEventRecordDTO> events = new ArrayList<>(EVENTS_PER_MESSAGE);
+        for (int step = 0; step < EVENTS_PER_JOB; step++) {
+            for (int job = 0; job < jobs; job++) {
+                events.add(event(feedNames.get(job % FEEDS), category + "-" + job, step, time.plusMillis(step * 10)));
+                if (events.size() == EVENTS_PER_MESSAGE) {
+                    messages.add(message(events));
+                    events = new ArrayList<>(EVENTS_PER_MESSAGE);
+                }
+            }
+        }
+        if (!events.isEmpty()) {
+            messages.add(message(events));
+        }
+        return messages;
+    }
+
+    private ProvenanceEventRecordDTOHolder message(List<ProvenanceEventRecordDTO> events) {
+        ProvenanceEventRecordDTOHolder message = new ProvenanceEventRecordDTOHolder();
+        message.setEvents(events);
+        return message;
+    }
+
+    private ProvenanceEventRecordDTO event(String feedName, String jobFlowFileId, int step, DateTime eventTime) {
+        ProvenanceEventRecordDTO event = new ProvenanceEventRecordDTO();
+        event.setEventId(EVENT_IDS.incrementAndGet());
+        event.setFlowFileUuid(jobFlowFileId);
+        event.setJobFlowFileId(jobFlowFileId);
+        event.setFeedName(feedName);
+        event.setComponentId("processor-" + step);
+        event.setComponentName("Processor " + step);
+        event.setEventType(step == 0 ? "CREATE" : "ATTRIBUTES_MODIFIED");
+        event.setEventTime(eventTime);
+        event.setStartTime(eventTime.minusMillis(10));
+        event.setEventDuration(10L);
+        event.setIsBatchJob(true);
+        event.setIsStartOfJob(step == 0);
+        event.setIsEndOfJob(step == EVENTS_PER_JOB - 1);
+        event.setIsFinalJobEvent(step == EVENTS_PER_JOB - 1);
+        return event;
+    }
+
+    /**
+     * The operational metadata providers on H2, without the JMS listeners and NiFi clients of this module
+     */
+    @Configuration
+    @EnableAutoConfiguration(exclude = {ActiveMQAutoConfiguration.class, JmsAutoConfiguration.class})
+    @ComponentScan(basePackages = {"com.thinkbiganalytics.metadata.jpa"})
+    static class BenchmarkConfiguration {
+
+        @Bean
+        AccessController accessController() {
+            return Mockito.mock(AccessController.class);
+        }
+
+        @Bean(name = "dataSource")
+        @Primary
+        @ConfigurationProperties(prefix = "spring.datasource")
+        public DataSource dataSource() {
+            return DataSourceBuilder.create().build();
+        }
+
+        @Bean
+        public ServiceLevelAgreementProvider slaProvider() {
+            return new InMemorySLAProvider();
+        }
+    }
+}